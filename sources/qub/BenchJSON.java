@@ -0,0 +1,190 @@
+package qub;
+
+/**
+ * The data of a bench.json file. For every benchmarked speed test, a bench.json file stores the
+ * baseline statistics that later benchmark runs are compared against and the statistics of the
+ * most recent benchmark run:
+ * <pre>
+ * {
+ *   "javaVersion": "11.0.2",
+ *   "benchmarks": {
+ *     "qub.FooTests getBar() speed": {
+ *       "baseline": { "count": 20, "median": 1200.0, "mean": 1250.5, "standardDeviation": 80.2 },
+ *       "latest": { "count": 20, "median": 1190.0, "mean": 1240.1, "standardDeviation": 75.9 }
+ *     }
+ *   }
+ * }
+ * </pre>
+ */
+public class BenchJSON extends JSONObjectWrapperBase
+{
+    private static final String javaVersionPropertyName = "javaVersion";
+    private static final String benchmarksPropertyName = "benchmarks";
+    private static final String baselinePropertyName = "baseline";
+    private static final String latestPropertyName = "latest";
+
+    private BenchJSON(JSONObject json)
+    {
+        super(json);
+    }
+
+    public static BenchJSON create()
+    {
+        return BenchJSON.create(JSONObject.create());
+    }
+
+    public static BenchJSON create(JSONObject rootObject)
+    {
+        PreCondition.assertNotNull(rootObject, "rootObject");
+
+        return new BenchJSON(rootObject);
+    }
+
+    /**
+     * Parse a BenchJSON object from the provided bench.json file.
+     * @param benchJsonFile The bench.json file to parse.
+     * @return The parsed BenchJSON object.
+     */
+    public static Result<BenchJSON> parse(File benchJsonFile)
+    {
+        PreCondition.assertNotNull(benchJsonFile, "benchJsonFile");
+
+        return JSON.parseObject(benchJsonFile)
+            .then((JSONObject json) -> BenchJSON.create(json));
+    }
+
+    /**
+     * Get the bench.json file in the provided output folder.
+     * @param outputFolder The output folder of the project that is being tested.
+     * @return The bench.json file.
+     */
+    public static File getFile(Folder outputFolder)
+    {
+        PreCondition.assertNotNull(outputFolder, "outputFolder");
+
+        return outputFolder.getFile("bench.json").await();
+    }
+
+    /**
+     * Set the version of java that the baselines were measured with.
+     * @param javaVersion The version of java that the baselines were measured with.
+     * @return This object for method chaining.
+     */
+    public BenchJSON setJavaVersion(VersionNumber javaVersion)
+    {
+        PreCondition.assertNotNullAndNotEmpty(javaVersion, "javaVersion");
+
+        this.json.setString(BenchJSON.javaVersionPropertyName, javaVersion.toString());
+        return this;
+    }
+
+    /**
+     * Get the version of java that the baselines were measured with.
+     * @return The version of java that the baselines were measured with.
+     */
+    public Result<VersionNumber> getJavaVersion()
+    {
+        return Result.create2(() ->
+        {
+            final String javaVersionString = this.json.getString(BenchJSON.javaVersionPropertyName).await();
+            return VersionNumber.parse(javaVersionString).await();
+        });
+    }
+
+    /**
+     * Get the full names of the speed tests that have entries in this bench.json file.
+     * @return The full names of the speed tests that have entries in this bench.json file.
+     */
+    public Iterable<String> getTestFullNames()
+    {
+        return this.getBenchmarks()
+            .getProperties()
+            .map(JSONProperty::getName)
+            .toList();
+    }
+
+    /**
+     * Get the baseline statistics of the provided speed test.
+     * @param testFullName The full name of the speed test.
+     * @return The baseline statistics of the provided speed test, or null if it doesn't have a
+     * baseline.
+     */
+    public BenchJSONEntry getBaseline(String testFullName)
+    {
+        return this.getEntry(testFullName, BenchJSON.baselinePropertyName);
+    }
+
+    /**
+     * Set the baseline statistics of the provided speed test.
+     * @param testFullName The full name of the speed test.
+     * @param baseline The baseline statistics of the speed test.
+     * @return This object for method chaining.
+     */
+    public BenchJSON setBaseline(String testFullName, BenchJSONEntry baseline)
+    {
+        return this.setEntry(testFullName, BenchJSON.baselinePropertyName, baseline);
+    }
+
+    /**
+     * Get the statistics of the most recent benchmark run of the provided speed test.
+     * @param testFullName The full name of the speed test.
+     * @return The statistics of the most recent benchmark run of the provided speed test, or null
+     * if it hasn't been benchmarked.
+     */
+    public BenchJSONEntry getLatest(String testFullName)
+    {
+        return this.getEntry(testFullName, BenchJSON.latestPropertyName);
+    }
+
+    /**
+     * Set the statistics of the most recent benchmark run of the provided speed test.
+     * @param testFullName The full name of the speed test.
+     * @param latest The statistics of the most recent benchmark run of the speed test.
+     * @return This object for method chaining.
+     */
+    public BenchJSON setLatest(String testFullName, BenchJSONEntry latest)
+    {
+        return this.setEntry(testFullName, BenchJSON.latestPropertyName, latest);
+    }
+
+    private JSONObject getBenchmarks()
+    {
+        JSONObject result = this.json.getObject(BenchJSON.benchmarksPropertyName)
+            .catchError()
+            .await();
+        if (result == null)
+        {
+            result = JSONObject.create();
+            this.json.set(BenchJSON.benchmarksPropertyName, result);
+        }
+        return result;
+    }
+
+    private BenchJSONEntry getEntry(String testFullName, String entryPropertyName)
+    {
+        PreCondition.assertNotNullAndNotEmpty(testFullName, "testFullName");
+
+        return this.getBenchmarks().getObject(testFullName)
+            .then((JSONObject benchmarkObject) -> BenchJSONEntry.create(benchmarkObject.getObject(entryPropertyName).await()))
+            .catchError()
+            .await();
+    }
+
+    private BenchJSON setEntry(String testFullName, String entryPropertyName, BenchJSONEntry entry)
+    {
+        PreCondition.assertNotNullAndNotEmpty(testFullName, "testFullName");
+        PreCondition.assertNotNull(entry, "entry");
+
+        final JSONObject benchmarks = this.getBenchmarks();
+        JSONObject benchmarkObject = benchmarks.getObject(testFullName)
+            .catchError()
+            .await();
+        if (benchmarkObject == null)
+        {
+            benchmarkObject = JSONObject.create();
+            benchmarks.set(testFullName, benchmarkObject);
+        }
+        benchmarkObject.set(entryPropertyName, entry.json);
+        return this;
+    }
+}
@@ -0,0 +1,85 @@
+package qub;
+
+/**
+ * The summary statistics (in nanoseconds) of one benchmarked speed test in a bench.json file.
+ */
+public class BenchJSONEntry extends JSONObjectWrapperBase
+{
+    private static final String countPropertyName = "count";
+    private static final String medianPropertyName = "median";
+    private static final String meanPropertyName = "mean";
+    private static final String standardDeviationPropertyName = "standardDeviation";
+
+    private BenchJSONEntry(JSONObject json)
+    {
+        super(json);
+    }
+
+    public static BenchJSONEntry create(JSONObject json)
+    {
+        PreCondition.assertNotNull(json, "json");
+
+        return new BenchJSONEntry(json);
+    }
+
+    /**
+     * Create a new BenchJSONEntry from the provided statistics.
+     * @param statistics The statistics of the measured iterations of a speed test.
+     * @return The new BenchJSONEntry.
+     */
+    public static BenchJSONEntry create(SpeedTestStatistics statistics)
+    {
+        PreCondition.assertNotNull(statistics, "statistics");
+
+        return BenchJSONEntry.create(JSONObject.create()
+            .setNumber(BenchJSONEntry.countPropertyName, statistics.getSampleCount())
+            .setNumber(BenchJSONEntry.medianPropertyName, statistics.getMedian())
+            .setNumber(BenchJSONEntry.meanPropertyName, statistics.getMean())
+            .setNumber(BenchJSONEntry.standardDeviationPropertyName, statistics.getStandardDeviation()));
+    }
+
+    /**
+     * Get the number of measured iterations.
+     * @return The number of measured iterations.
+     */
+    public int getCount()
+    {
+        return this.json.getInteger(BenchJSONEntry.countPropertyName)
+            .catchError(() -> 0)
+            .await();
+    }
+
+    /**
+     * Get the median of the measured iterations.
+     * @return The median of the measured iterations.
+     */
+    public double getMedian()
+    {
+        return this.getDouble(BenchJSONEntry.medianPropertyName);
+    }
+
+    /**
+     * Get the mean of the measured iterations.
+     * @return The mean of the measured iterations.
+     */
+    public double getMean()
+    {
+        return this.getDouble(BenchJSONEntry.meanPropertyName);
+    }
+
+    /**
+     * Get the sample standard deviation of the measured iterations.
+     * @return The sample standard deviation of the measured iterations.
+     */
+    public double getStandardDeviation()
+    {
+        return this.getDouble(BenchJSONEntry.standardDeviationPropertyName);
+    }
+
+    private double getDouble(String propertyName)
+    {
+        return this.json.getNumber(propertyName)
+            .catchError(() -> 0.0)
+            .await();
+    }
+}
@@ -0,0 +1,98 @@
+package qub;
+
+/**
+ * Compares benchmark results with the baselines stored in a project's bench.json file, and
+ * records new results and baselines in it.
+ */
+public interface BenchmarkBaselines
+{
+    /**
+     * Compare the provided benchmark results with the baselines in the provided bench.json file,
+     * and then update the file. Speed tests that don't have a baseline yet get their current
+     * results as their baseline. The baselines are only compared if they were measured with the
+     * same version of Java.
+     * @param results The results of the benchmark run.
+     * @param benchJsonFile The bench.json file that stores the baselines.
+     * @param javaVersion The version of Java that the benchmarks ran with.
+     * @param thresholdPercent The number of percent that a speed test can get slower than its
+     *                         baseline before it is considered regressed.
+     * @param updateBaseline Whether or not to replace the baselines with the current results
+     *                       instead of comparing with them.
+     * @param output The stream that the comparison will be written to.
+     * @return The number of speed tests that regressed.
+     */
+    static int update(Iterable<SpeedTestResult> results, File benchJsonFile, VersionNumber javaVersion, int thresholdPercent, boolean updateBaseline, CharacterToByteWriteStream output)
+    {
+        PreCondition.assertNotNull(results, "results");
+        PreCondition.assertNotNull(benchJsonFile, "benchJsonFile");
+        PreCondition.assertNotNull(javaVersion, "javaVersion");
+        PreCondition.assertGreaterThanOrEqualTo(thresholdPercent, 0, "thresholdPercent");
+        PreCondition.assertNotNull(output, "output");
+
+        final BenchJSON previousBenchJson = BenchJSON.parse(benchJsonFile)
+            .catchError()
+            .await();
+        final BenchJSON benchJson = previousBenchJson == null ? BenchJSON.create() : previousBenchJson;
+        final VersionNumber baselineJavaVersion = previousBenchJson == null
+            ? null
+            : previousBenchJson.getJavaVersion().catchError().await();
+        final boolean baselinesMatchJavaVersion = previousBenchJson == null || javaVersion.equals(baselineJavaVersion);
+
+        final List<BenchmarkComparison> comparisons = List.create();
+        int newBaselineCount = 0;
+        for (final SpeedTestResult result : results)
+        {
+            final String testFullName = result.getTestFullName();
+            final BenchJSONEntry current = BenchJSONEntry.create(result.getWallTime());
+            final BenchJSONEntry baseline = benchJson.getBaseline(testFullName);
+            if (updateBaseline || (baseline == null && baselinesMatchJavaVersion))
+            {
+                benchJson.setBaseline(testFullName, current);
+                ++newBaselineCount;
+            }
+            else if (baseline != null && baselinesMatchJavaVersion)
+            {
+                comparisons.add(BenchmarkComparison.create(testFullName, baseline, current, thresholdPercent));
+            }
+            benchJson.setLatest(testFullName, current);
+        }
+        if (updateBaseline || previousBenchJson == null)
+        {
+            benchJson.setJavaVersion(javaVersion);
+        }
+
+        final List<BenchmarkComparison> regressions = List.create();
+        if (comparisons.any())
+        {
+            output.writeLine("Benchmark comparison with baseline (regression threshold " + thresholdPercent + "%):").await();
+            for (final BenchmarkComparison comparison : comparisons)
+            {
+                output.writeLine("  " + comparison + (comparison.isRegressed() ? " - Regressed" : "")).await();
+                if (comparison.isRegressed())
+                {
+                    regressions.add(comparison);
+                }
+            }
+            output.writeLine().await();
+        }
+        if (!baselinesMatchJavaVersion && !updateBaseline)
+        {
+            output.writeLine("The benchmark baselines were measured with Java " + baselineJavaVersion + ", so they were not compared with this run. Run with --bench-update-baseline to replace them.").await();
+            output.writeLine().await();
+        }
+        if (regressions.any())
+        {
+            output.writeLine(regressions.getCount() + " benchmark" + (regressions.getCount() == 1 ? "" : "s") + " regressed. Run with --bench-update-baseline to accept the new results.").await();
+            output.writeLine().await();
+        }
+        if (newBaselineCount > 0)
+        {
+            output.writeLine((updateBaseline ? "Updated" : "Recorded") + " the baseline of " + newBaselineCount + " benchmark" + (newBaselineCount == 1 ? "" : "s") + " in " + benchJsonFile + ".").await();
+            output.writeLine().await();
+        }
+
+        benchJsonFile.setContentsAsString(benchJson.toString(JSONFormat.pretty)).await();
+
+        return regressions.getCount();
+    }
+}
@@ -0,0 +1,193 @@
+package qub;
+
+/**
+ * The comparison of a speed test's benchmark run with its stored baseline. The means are compared
+ * with Welch's t-test, so a benchmark only counts as regressed when it is both slower than the
+ * baseline by more than the threshold and the slowdown is statistically significant at the 95%
+ * confidence level.
+ */
+public class BenchmarkComparison
+{
+    private final String testFullName;
+    private final double baselineMean;
+    private final double currentMean;
+    private final double tStatistic;
+    private final double degreesOfFreedom;
+    private final boolean regressed;
+
+    private BenchmarkComparison(String testFullName, double baselineMean, double currentMean, double tStatistic, double degreesOfFreedom, boolean regressed)
+    {
+        this.testFullName = testFullName;
+        this.baselineMean = baselineMean;
+        this.currentMean = currentMean;
+        this.tStatistic = tStatistic;
+        this.degreesOfFreedom = degreesOfFreedom;
+        this.regressed = regressed;
+    }
+
+    /**
+     * Get the default number of percent that a benchmark can get slower than its baseline before
+     * it is considered regressed.
+     * @return The default regression threshold percentage.
+     */
+    public static int getThresholdPercentDefault()
+    {
+        return 10;
+    }
+
+    /**
+     * Parse a regression threshold command line argument.
+     * @param argumentValue The number of percent that a benchmark can get slower than its
+     *                      baseline.
+     * @return The regression threshold percentage, or null if no threshold was specified.
+     */
+    static Result<Integer> parseThresholdPercent(String argumentValue)
+    {
+        return Result.create2(() ->
+        {
+            Integer result = null;
+            if (!Strings.isNullOrEmpty(argumentValue))
+            {
+                String thresholdString = argumentValue.trim();
+                if (thresholdString.endsWith("%"))
+                {
+                    thresholdString = thresholdString.substring(0, thresholdString.length() - 1);
+                }
+                result = Integer.parseInt(thresholdString);
+                if (result < 0)
+                {
+                    throw new IllegalArgumentException("A regression threshold cannot be negative: " + argumentValue);
+                }
+            }
+            return result;
+        });
+    }
+
+    /**
+     * Compare the provided benchmark run with the provided baseline.
+     * @param testFullName The full name of the speed test.
+     * @param baseline The baseline statistics of the speed test.
+     * @param current The statistics of the current benchmark run of the speed test.
+     * @param thresholdPercent The number of percent that the speed test can get slower than its
+     *                         baseline before it is considered regressed.
+     * @return The comparison.
+     */
+    public static BenchmarkComparison create(String testFullName, BenchJSONEntry baseline, BenchJSONEntry current, int thresholdPercent)
+    {
+        PreCondition.assertNotNullAndNotEmpty(testFullName, "testFullName");
+        PreCondition.assertNotNull(baseline, "baseline");
+        PreCondition.assertNotNull(current, "current");
+        PreCondition.assertGreaterThanOrEqualTo(thresholdPercent, 0, "thresholdPercent");
+
+        final double baselineMean = baseline.getMean();
+        final double currentMean = current.getMean();
+        final double baselineVarianceOfMean = BenchmarkComparison.getVarianceOfMean(baseline);
+        final double currentVarianceOfMean = BenchmarkComparison.getVarianceOfMean(current);
+        final double standardError = Math.sqrt(baselineVarianceOfMean + currentVarianceOfMean);
+
+        double tStatistic;
+        double degreesOfFreedom;
+        if (standardError == 0)
+        {
+            // Without any variance, any difference between the means is significant.
+            tStatistic = currentMean == baselineMean ? 0 : (currentMean > baselineMean ? Double.POSITIVE_INFINITY : Double.NEGATIVE_INFINITY);
+            degreesOfFreedom = Math.max(1, baseline.getCount() + current.getCount() - 2);
+        }
+        else
+        {
+            tStatistic = (currentMean - baselineMean) / standardError;
+
+            // The Welch-Satterthwaite approximation of the degrees of freedom.
+            final double baselineTerm = baseline.getCount() <= 1 ? 0 : baselineVarianceOfMean * baselineVarianceOfMean / (baseline.getCount() - 1);
+            final double currentTerm = current.getCount() <= 1 ? 0 : currentVarianceOfMean * currentVarianceOfMean / (current.getCount() - 1);
+            degreesOfFreedom = baselineTerm + currentTerm == 0
+                ? 1
+                : Math.max(1, standardError * standardError * standardError * standardError / (baselineTerm + currentTerm));
+        }
+
+        final boolean pastThreshold = currentMean > baselineMean * (1 + thresholdPercent / 100.0);
+        final boolean significant = tStatistic > SpeedTestStatistics.getTCriticalValue95((int)Math.floor(degreesOfFreedom));
+        return new BenchmarkComparison(testFullName, baselineMean, currentMean, tStatistic, degreesOfFreedom, pastThreshold && significant);
+    }
+
+    private static double getVarianceOfMean(BenchJSONEntry entry)
+    {
+        final int count = entry.getCount();
+        final double standardDeviation = entry.getStandardDeviation();
+        return count <= 0 ? 0 : standardDeviation * standardDeviation / count;
+    }
+
+    /**
+     * Get the full name of the speed test.
+     * @return The full name of the speed test.
+     */
+    public String getTestFullName()
+    {
+        return this.testFullName;
+    }
+
+    /**
+     * Get the mean of the baseline in nanoseconds.
+     * @return The mean of the baseline in nanoseconds.
+     */
+    public double getBaselineMean()
+    {
+        return this.baselineMean;
+    }
+
+    /**
+     * Get the mean of the current benchmark run in nanoseconds.
+     * @return The mean of the current benchmark run in nanoseconds.
+     */
+    public double getCurrentMean()
+    {
+        return this.currentMean;
+    }
+
+    /**
+     * Get how much the mean changed from the baseline, as a percentage of the baseline mean.
+     * @return How much the mean changed from the baseline.
+     */
+    public double getChangePercent()
+    {
+        return this.baselineMean == 0 ? 0 : (this.currentMean - this.baselineMean) * 100 / this.baselineMean;
+    }
+
+    /**
+     * Get Welch's t statistic of the difference between the current mean and the baseline mean.
+     * @return Welch's t statistic.
+     */
+    public double getTStatistic()
+    {
+        return this.tStatistic;
+    }
+
+    /**
+     * Get the Welch-Satterthwaite degrees of freedom of the comparison.
+     * @return The degrees of freedom of the comparison.
+     */
+    public double getDegreesOfFreedom()
+    {
+        return this.degreesOfFreedom;
+    }
+
+    /**
+     * Get whether the speed test is slower than its baseline by more than the threshold, and the
+     * slowdown is statistically significant.
+     * @return Whether the speed test regressed.
+     */
+    public boolean isRegressed()
+    {
+        return this.regressed;
+    }
+
+    @Override
+    public String toString()
+    {
+        return this.testFullName + ": " +
+            SpeedTestStatistics.formatNanoseconds(this.baselineMean) + " -> " +
+            SpeedTestStatistics.formatNanoseconds(this.currentMean) + " (" +
+            (this.currentMean >= this.baselineMean ? "+" : "") + new java.text.DecimalFormat("0.0").format(this.getChangePercent()) + "%, t = " +
+            new java.text.DecimalFormat("0.00").format(this.tStatistic) + ")";
+    }
+}
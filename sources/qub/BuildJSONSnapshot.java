@@ -0,0 +1,228 @@
+package qub;
+
+/**
+ * A snapshot of the build.json file that qub-build wrote for the compilation that the previous
+ * test run tested, along with the hash of the test.json file that the previous test run wrote.
+ * Comparing the snapshot against the build.json file of the current compilation gives the source
+ * files that have been recompiled since the test classes in test.json last ran, without checking
+ * the timestamp of every class file in the output folder.
+ */
+public class BuildJSONSnapshot
+{
+    private static final String testJsonPropertyName = "testJson";
+    private static final String settingsPropertyName = "settings";
+    private static final String javaFilesPropertyName = "javaFiles";
+    private static final String dependenciesPropertyName = "dependencies";
+
+    private final JSONObject json;
+
+    private BuildJSONSnapshot(JSONObject json)
+    {
+        PreCondition.assertNotNull(json, "json");
+
+        this.json = json;
+    }
+
+    /**
+     * Create a new BuildJSONSnapshot of the provided build.json contents.
+     * @param buildJson The parsed build.json file of the compilation that was tested.
+     * @param testJsonHash The hash of the test.json file that the test run wrote.
+     * @return The new BuildJSONSnapshot.
+     */
+    public static BuildJSONSnapshot create(JSONObject buildJson, String testJsonHash)
+    {
+        PreCondition.assertNotNull(buildJson, "buildJson");
+        PreCondition.assertNotNullAndNotEmpty(testJsonHash, "testJsonHash");
+
+        final JSONObject json = JSONObject.create();
+        json.setString(BuildJSONSnapshot.testJsonPropertyName, testJsonHash);
+        json.setString(BuildJSONSnapshot.settingsPropertyName, BuildJSONSnapshot.getSettingsHash(buildJson));
+        final JSONObject javaFilesObject = JSONObject.create();
+        final JSONObject buildJsonJavaFilesObject = buildJson.getObject(BuildJSONSnapshot.javaFilesPropertyName)
+            .catchError()
+            .await();
+        if (buildJsonJavaFilesObject != null)
+        {
+            for (final JSONProperty javaFileProperty : buildJsonJavaFilesObject.getProperties())
+            {
+                javaFilesObject.setString(javaFileProperty.getName(), QubTestHash.hash(javaFileProperty.getValue().toString()));
+            }
+        }
+        json.set(BuildJSONSnapshot.javaFilesPropertyName, javaFilesObject);
+        return new BuildJSONSnapshot(json);
+    }
+
+    /**
+     * Parse a BuildJSONSnapshot from the provided file.
+     * @param snapshotFile The file to parse.
+     * @return The parsed BuildJSONSnapshot.
+     */
+    public static Result<BuildJSONSnapshot> parse(File snapshotFile)
+    {
+        PreCondition.assertNotNull(snapshotFile, "snapshotFile");
+
+        return Result.create2(() ->
+        {
+            return new BuildJSONSnapshot(JSON.parseObject(snapshotFile).await());
+        });
+    }
+
+    /**
+     * Get the build.json snapshot file for the provided project.
+     * @param qubTestDataFolder The qub-test data folder.
+     * @param projectFolder The folder of the project that is being tested.
+     * @return The build.json snapshot file for the provided project.
+     */
+    static File getFile(Folder qubTestDataFolder, Folder projectFolder)
+    {
+        PreCondition.assertNotNull(qubTestDataFolder, "qubTestDataFolder");
+        PreCondition.assertNotNull(projectFolder, "projectFolder");
+
+        final String projectKey = QubTestHash.hash(projectFolder.toString()).substring(0, 16);
+        return qubTestDataFolder.getFile("buildsnapshots/" + projectKey + ".json").await();
+    }
+
+    /**
+     * Get the hash of every build.json property other than the java files. A change to any of
+     * them (such as the project.json file or the javac version) makes qub-build recompile every
+     * source file.
+     * @param buildJson The parsed build.json file.
+     * @return The hash of the build.json properties other than the java files.
+     */
+    static String getSettingsHash(JSONObject buildJson)
+    {
+        PreCondition.assertNotNull(buildJson, "buildJson");
+
+        final StringBuilder builder = new StringBuilder();
+        for (final JSONProperty property : buildJson.getProperties())
+        {
+            if (!BuildJSONSnapshot.javaFilesPropertyName.equals(property.getName()))
+            {
+                builder.append(property.toString()).append('\n');
+            }
+        }
+        return QubTestHash.hash(builder.toString());
+    }
+
+    /**
+     * Get the hash of the test.json file that the snapshot's test run wrote.
+     * @return The hash of the test.json file that the snapshot's test run wrote.
+     */
+    public String getTestJsonHash()
+    {
+        return this.json.getString(BuildJSONSnapshot.testJsonPropertyName)
+            .catchError()
+            .await();
+    }
+
+    /**
+     * Get whether each of the source files in the current build.json file has been recompiled
+     * since this snapshot was taken. A source file has been recompiled if its build.json entry
+     * has changed, or if it depends (directly or transitively) on a source file whose entry has
+     * changed or that has been deleted.
+     * @param currentBuildJson The parsed build.json file of the current compilation.
+     * @return A map from the relative path of each source file in the current build.json file to
+     * whether it has been recompiled, or null if every source file may have been recompiled.
+     */
+    public Map<String,Boolean> getRecompiledSources(JSONObject currentBuildJson)
+    {
+        PreCondition.assertNotNull(currentBuildJson, "currentBuildJson");
+
+        MutableMap<String,Boolean> result = null;
+        final JSONObject previousJavaFilesObject = this.json.getObject(BuildJSONSnapshot.javaFilesPropertyName)
+            .catchError()
+            .await();
+        final JSONObject currentJavaFilesObject = currentBuildJson.getObject(BuildJSONSnapshot.javaFilesPropertyName)
+            .catchError()
+            .await();
+        final String previousSettingsHash = this.json.getString(BuildJSONSnapshot.settingsPropertyName)
+            .catchError()
+            .await();
+        if (previousJavaFilesObject != null &&
+            currentJavaFilesObject != null &&
+            Comparer.equal(previousSettingsHash, BuildJSONSnapshot.getSettingsHash(currentBuildJson)))
+        {
+            final List<String> changedRelativePaths = List.create();
+            final MutableMap<String,List<String>> dependentRelativePaths = Map.create();
+            final MutableMap<String,Boolean> currentRelativePaths = Map.create();
+            for (final JSONProperty javaFileProperty : currentJavaFilesObject.getProperties())
+            {
+                final String relativePath = javaFileProperty.getName();
+                currentRelativePaths.set(relativePath, true);
+
+                final String previousHash = previousJavaFilesObject.getString(relativePath)
+                    .catchError()
+                    .await();
+                if (!Comparer.equal(previousHash, QubTestHash.hash(javaFileProperty.getValue().toString())))
+                {
+                    changedRelativePaths.add(relativePath);
+                }
+
+                final JSONArray dependencies = currentJavaFilesObject.getObject(relativePath)
+                    .then((JSONObject javaFileObject) -> javaFileObject.getArray(BuildJSONSnapshot.dependenciesPropertyName).await())
+                    .catchError()
+                    .await();
+                if (dependencies != null)
+                {
+                    for (final JSONSegment dependency : dependencies)
+                    {
+                        if (dependency instanceof JSONString)
+                        {
+                            final String dependencyRelativePath = ((JSONString)dependency).getValue();
+                            List<String> dependents = dependentRelativePaths.get(dependencyRelativePath)
+                                .catchError()
+                                .await();
+                            if (dependents == null)
+                            {
+                                dependents = List.create();
+                                dependentRelativePaths.set(dependencyRelativePath, dependents);
+                            }
+                            dependents.add(relativePath);
+                        }
+                    }
+                }
+            }
+
+            // Deleted source files don't have class files to test anymore, but the source files
+            // that depended on them were recompiled.
+            for (final JSONProperty previousJavaFileProperty : previousJavaFilesObject.getProperties())
+            {
+                if (!currentRelativePaths.containsKey(previousJavaFileProperty.getName()))
+                {
+                    changedRelativePaths.add(previousJavaFileProperty.getName());
+                }
+            }
+
+            result = Map.create();
+            for (final String relativePath : currentRelativePaths.getKeys())
+            {
+                result.set(relativePath, false);
+            }
+            final MutableMap<String,Boolean> visitedRelativePaths = Map.create();
+            while (changedRelativePaths.any())
+            {
+                final int lastIndex = changedRelativePaths.getCount() - 1;
+                final String relativePath = changedRelativePaths.get(lastIndex);
+                changedRelativePaths.removeAt(lastIndex);
+                if (!visitedRelativePaths.containsKey(relativePath))
+                {
+                    visitedRelativePaths.set(relativePath, true);
+                    if (currentRelativePaths.containsKey(relativePath))
+                    {
+                        result.set(relativePath, true);
+                    }
+                    changedRelativePaths.addAll(dependentRelativePaths.get(relativePath)
+                        .catchError(() -> List.create())
+                        .await());
+                }
+            }
+        }
+        return result;
+    }
+
+    @Override
+    public String toString()
+    {
+        return this.json.toString(JSONFormat.pretty);
+    }
+}
@@ -0,0 +1,370 @@
+package qub;
+
+/**
+ * A folder that contains a class data sharing archive (an AppCDS dynamic archive, or a JDK AOT
+ * cache on JDKs that support one) for a project's test runner JVM. The archive only contains the
+ * classes from the jar files on the test runner's classpath, and it is recreated whenever those
+ * jar files or the Java version change.
+ */
+public class ClassDataSharingArchive
+{
+    private static final String keyPropertyName = "key";
+    private static final String baselineStartupPropertyName = "baselineStartupMilliseconds";
+
+    private final Folder archiveFolder;
+
+    private ClassDataSharingArchive(Folder archiveFolder)
+    {
+        PreCondition.assertNotNull(archiveFolder, "archiveFolder");
+
+        this.archiveFolder = archiveFolder;
+    }
+
+    /**
+     * Create a new ClassDataSharingArchive that is stored in the provided folder.
+     * @param archiveFolder The folder that the archive is stored in.
+     * @return The new ClassDataSharingArchive.
+     */
+    public static ClassDataSharingArchive create(Folder archiveFolder)
+    {
+        return new ClassDataSharingArchive(archiveFolder);
+    }
+
+    /**
+     * Create a new ClassDataSharingArchive for the provided project folder that is stored in the
+     * provided qub-test data folder.
+     * @param qubTestDataFolder The data folder of the qub-test application.
+     * @param projectFolder The folder of the project whose test runner will use the archive.
+     * @return The new ClassDataSharingArchive.
+     */
+    public static ClassDataSharingArchive create(Folder qubTestDataFolder, Folder projectFolder)
+    {
+        PreCondition.assertNotNull(qubTestDataFolder, "qubTestDataFolder");
+        PreCondition.assertNotNull(projectFolder, "projectFolder");
+
+        final String projectKey = QubTestHash.hash(projectFolder.toString()).substring(0, 16);
+        return ClassDataSharingArchive.create(qubTestDataFolder.getFolder("cds/" + projectKey).await());
+    }
+
+    /**
+     * Get whether or not the provided Java version supports JDK AOT caches that are created with
+     * -XX:AOTCacheOutput.
+     * @param javaVersion The Java version.
+     * @return Whether or not the provided Java version supports JDK AOT caches.
+     */
+    public static boolean supportsAOTCache(VersionNumber javaVersion)
+    {
+        return javaVersion != null && javaVersion.hasMajor() && javaVersion.getMajor() >= 25;
+    }
+
+    /**
+     * Get whether or not the provided Java version supports dynamic AppCDS archives that are
+     * created with -XX:ArchiveClassesAtExit.
+     * @param javaVersion The Java version.
+     * @return Whether or not the provided Java version supports dynamic AppCDS archives.
+     */
+    public static boolean supportsDynamicArchive(VersionNumber javaVersion)
+    {
+        return javaVersion != null && javaVersion.hasMajor() && javaVersion.getMajor() >= 13;
+    }
+
+    /**
+     * Get the entries of the provided classpath that can be archived. The JDK refuses to create an
+     * archive from a classpath that contains a non-empty folder, so only the jar files on the
+     * classpath are archived.
+     * @param classPaths The classpath of the test runner JVM.
+     * @param fileSystem The file system that the classpath entries are in.
+     * @return The jar files on the provided classpath, in classpath order.
+     */
+    public static Iterable<String> getArchivedClassPaths(Iterable<String> classPaths, FileSystem fileSystem)
+    {
+        PreCondition.assertNotNull(classPaths, "classPaths");
+        PreCondition.assertNotNull(fileSystem, "fileSystem");
+
+        final List<String> result = List.create();
+        for (final String classPath : classPaths)
+        {
+            if (fileSystem.fileExists(classPath).await())
+            {
+                result.add(classPath);
+            }
+        }
+
+        PostCondition.assertNotNull(result, "result");
+
+        return result;
+    }
+
+    /**
+     * Get the classpath that a test runner JVM that uses an archive will be launched with. The JDK
+     * only uses an archive if the archived classpath is a prefix of the runtime classpath, so the
+     * archived jar files come first and the entries that weren't archived (such as the project's
+     * output folder) are added after them.
+     * @param classPaths The classpath of the test runner JVM.
+     * @param fileSystem The file system that the classpath entries are in.
+     * @return The classpath that a test runner JVM that uses an archive will be launched with.
+     */
+    public static Iterable<String> getTestRunnerClassPaths(Iterable<String> classPaths, FileSystem fileSystem)
+    {
+        PreCondition.assertNotNull(classPaths, "classPaths");
+        PreCondition.assertNotNull(fileSystem, "fileSystem");
+
+        final List<String> result = List.create();
+        final List<String> unarchivedClassPaths = List.create();
+        for (final String classPath : classPaths)
+        {
+            if (fileSystem.fileExists(classPath).await())
+            {
+                result.add(classPath);
+            }
+            else
+            {
+                unarchivedClassPaths.add(classPath);
+            }
+        }
+        result.addAll(unarchivedClassPaths);
+
+        PostCondition.assertNotNull(result, "result");
+
+        return result;
+    }
+
+    /**
+     * Get the key of the inputs that an archive is created from. The key covers the Java version
+     * and the path, size, and last modified time of each archived jar file. The jar files aren't
+     * read, so that checking the key doesn't cost the startup time that the archive saves.
+     * @param javaVersion The Java version of the test runner JVM.
+     * @param archivedClassPaths The jar files that are archived.
+     * @param fileSystem The file system that the jar files are in.
+     * @return The key of the inputs that an archive is created from.
+     */
+    public static String getKey(VersionNumber javaVersion, Iterable<String> archivedClassPaths, FileSystem fileSystem)
+    {
+        PreCondition.assertNotNull(javaVersion, "javaVersion");
+        PreCondition.assertNotNull(archivedClassPaths, "archivedClassPaths");
+        PreCondition.assertNotNull(fileSystem, "fileSystem");
+
+        final StringBuilder keyBuilder = new StringBuilder();
+        keyBuilder.append(javaVersion.toString()).append('\n');
+        for (final String classPath : archivedClassPaths)
+        {
+            final String lastModified = fileSystem.getFile(classPath).await().getLastModified()
+                .then((DateTime classPathLastModified) -> classPathLastModified.toString())
+                .catchError(() -> "")
+                .await();
+            keyBuilder.append(classPath)
+                .append('=').append(ClassDataSharingArchive.getFileSize(classPath))
+                .append(',').append(lastModified)
+                .append('\n');
+        }
+        final String result = QubTestHash.hash(keyBuilder.toString());
+
+        PostCondition.assertNotNullAndNotEmpty(result, "result");
+
+        return result;
+    }
+
+    private static long getFileSize(String filePath)
+    {
+        long result;
+        try
+        {
+            result = java.nio.file.Files.size(java.nio.file.Paths.get(filePath));
+        }
+        catch (java.io.IOException | java.nio.file.InvalidPathException e)
+        {
+            result = -1;
+        }
+        return result;
+    }
+
+    /**
+     * Get the JVM option that creates an archive at the file that follows it.
+     * @param aotCache Whether or not the archive is a JDK AOT cache.
+     * @return The JVM option that creates an archive.
+     */
+    public static String getCreateArchiveOption(boolean aotCache)
+    {
+        return aotCache ? "-XX:AOTCacheOutput=" : "-XX:ArchiveClassesAtExit=";
+    }
+
+    /**
+     * Get the JVM option that uses the archive at the file that follows it.
+     * @param aotCache Whether or not the archive is a JDK AOT cache.
+     * @return The JVM option that uses an archive.
+     */
+    public static String getUseArchiveOption(boolean aotCache)
+    {
+        return aotCache ? "-XX:AOTCache=" : "-XX:SharedArchiveFile=";
+    }
+
+    /**
+     * Get the folder that this archive is stored in.
+     * @return The folder that this archive is stored in.
+     */
+    public Folder getArchiveFolder()
+    {
+        return this.archiveFolder;
+    }
+
+    /**
+     * Get the archive file for the provided key.
+     * @param key The key of the inputs that the archive is created from.
+     * @param aotCache Whether or not the archive is a JDK AOT cache.
+     * @return The archive file for the provided key.
+     */
+    public File getArchiveFile(String key, boolean aotCache)
+    {
+        PreCondition.assertNotNullAndNotEmpty(key, "key");
+
+        return this.archiveFolder.getFile(key.substring(0, 16) + (aotCache ? ".aot" : ".jsa")).await();
+    }
+
+    /**
+     * Get the file that records the key and baseline startup time of the current archive.
+     * @return The file that records the key and baseline startup time of the current archive.
+     */
+    public File getArchiveJsonFile()
+    {
+        return this.archiveFolder.getFile("archive.json").await();
+    }
+
+    /**
+     * Get the file that the test runner writes its startup time to.
+     * @return The file that the test runner writes its startup time to.
+     */
+    public File getStartupFile()
+    {
+        return this.archiveFolder.getFile("startup.txt").await();
+    }
+
+    /**
+     * Get the number of milliseconds that the test runner took to start before the archive for
+     * the provided key existed.
+     * @param key The key of the inputs that the archive was created from.
+     * @return The baseline startup time in milliseconds, or null if it isn't known.
+     */
+    public Integer getBaselineStartupMilliseconds(String key)
+    {
+        PreCondition.assertNotNullAndNotEmpty(key, "key");
+
+        Integer result = null;
+        final JSONObject json = JSON.parseObject(this.getArchiveJsonFile())
+            .catchError()
+            .await();
+        if (json != null && Comparer.equal(key, json.getString(ClassDataSharingArchive.keyPropertyName).catchError().await()))
+        {
+            result = json.getInteger(ClassDataSharingArchive.baselineStartupPropertyName).catchError().await();
+        }
+        return result;
+    }
+
+    /**
+     * Record the number of milliseconds that the test runner took to start while the archive for
+     * the provided key was being created.
+     * @param key The key of the inputs that the archive was created from.
+     * @param baselineStartupMilliseconds The baseline startup time in milliseconds.
+     * @return The result of recording the baseline startup time.
+     */
+    public Result<Void> setBaselineStartupMilliseconds(String key, int baselineStartupMilliseconds)
+    {
+        PreCondition.assertNotNullAndNotEmpty(key, "key");
+
+        return Result.create2(() ->
+        {
+            final JSONObject json = JSONObject.create();
+            json.setString(ClassDataSharingArchive.keyPropertyName, key);
+            json.setNumber(ClassDataSharingArchive.baselineStartupPropertyName, baselineStartupMilliseconds);
+            this.getArchiveJsonFile().setContentsAsString(json.toString(JSONFormat.pretty)).await();
+            return null;
+        });
+    }
+
+    /**
+     * Create the archive file with a training run of the test runner. The training run is
+     * launched with only the archived jar files on its classpath and without any test classes, so
+     * it archives the classes that the test runner loads while it starts and shuts down. The
+     * training run also writes its startup time (without an archive) to the startup file.
+     * @param processFactory The factory that will launch the training run.
+     * @param archiveFile The archive file to create.
+     * @param aotCache Whether or not the archive is a JDK AOT cache.
+     * @param jvmArguments The JVM arguments that the test runner will be launched with.
+     * @param archivedClassPaths The jar files that will be archived.
+     * @param outputFolder The output folder of the project.
+     * @return The exit code of the training run.
+     */
+    public Result<Integer> train(ProcessFactory processFactory, File archiveFile, boolean aotCache, Iterable<String> jvmArguments, Iterable<String> archivedClassPaths, Folder outputFolder)
+    {
+        PreCondition.assertNotNull(processFactory, "processFactory");
+        PreCondition.assertNotNull(archiveFile, "archiveFile");
+        PreCondition.assertNotNull(jvmArguments, "jvmArguments");
+        PreCondition.assertNotNull(archivedClassPaths, "archivedClassPaths");
+        PreCondition.assertNotNull(outputFolder, "outputFolder");
+
+        return Result.create2(() ->
+        {
+            final File startupFile = this.getStartupFile();
+            startupFile.delete()
+                .catchError()
+                .await();
+
+            final ConsoleTestRunnerProcessBuilder trainingRunner = ConsoleTestRunnerProcessBuilder.create(processFactory).await()
+                .redirectOutput(InMemoryCharacterToByteStream.create())
+                .redirectError(InMemoryCharacterToByteStream.create());
+            trainingRunner.addArguments(jvmArguments);
+            trainingRunner.addArguments(ClassDataSharingArchive.getCreateArchiveOption(aotCache) + archiveFile);
+            trainingRunner.addClasspath(archivedClassPaths);
+            trainingRunner.addConsoleTestRunnerFullClassName();
+            trainingRunner.addTestJson(false);
+            trainingRunner.addOutputFolder(outputFolder);
+            trainingRunner.addStartupFile(startupFile);
+            return trainingRunner.run().await();
+        });
+    }
+
+    /**
+     * Delete the archive files in this folder that weren't created for the provided key.
+     * @param key The key of the current inputs.
+     * @return The result of deleting the stale archive files.
+     */
+    public Result<Void> deleteStaleArchives(String key)
+    {
+        PreCondition.assertNotNullAndNotEmpty(key, "key");
+
+        return Result.create2(() ->
+        {
+            final String archiveFileName = key.substring(0, 16);
+            final Iterable<File> files = this.archiveFolder.getFiles()
+                .catchError(FolderNotFoundException.class, () -> Iterable.create())
+                .await();
+            for (final File file : files)
+            {
+                final String fileExtension = file.getFileExtension();
+                if ((Comparer.equal(".jsa", fileExtension) || Comparer.equal(".aot", fileExtension)) &&
+                    !file.getName().startsWith(archiveFileName))
+                {
+                    file.delete().await();
+                }
+            }
+            return null;
+        });
+    }
+
+    /**
+     * Read the startup time that the test runner wrote to the startup file, and then delete the
+     * startup file.
+     * @return The startup time in milliseconds, or null if the test runner didn't write one.
+     */
+    public Integer takeStartupMilliseconds()
+    {
+        final File startupFile = this.getStartupFile();
+        final Integer result = startupFile.getContentsAsString()
+            .then((String contents) -> Integer.parseInt(contents.trim()))
+            .catchError()
+            .await();
+        startupFile.delete()
+            .catchError()
+            .await();
+        return result;
+    }
+}
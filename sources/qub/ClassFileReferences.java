@@ -0,0 +1,160 @@
+package qub;
+
+/**
+ * Reads the names of the classes that a compiled class file refers to from its constant pool.
+ */
+public interface ClassFileReferences
+{
+    /**
+     * Get the full names of the classes that the provided class file refers to. This includes the
+     * classes in the class file's constant pool and the classes in its field, method, and generic
+     * signature descriptors.
+     * @param classFileBytes The contents of the class file.
+     * @return The full names of the referenced classes in the order that they first appear.
+     */
+    static Result<Iterable<String>> getReferencedClassNames(byte[] classFileBytes)
+    {
+        PreCondition.assertNotNull(classFileBytes, "classFileBytes");
+
+        return Result.create2(() ->
+        {
+            final List<String> result = List.create();
+            final MutableMap<String,Boolean> resultSet = Map.create();
+            final Action1<String> addInternalName = (String internalName) ->
+            {
+                final String fullClassName = internalName.replace('/', '.');
+                if (!resultSet.containsKey(fullClassName))
+                {
+                    resultSet.set(fullClassName, true);
+                    result.add(fullClassName);
+                }
+            };
+
+            try (final java.io.DataInputStream input = new java.io.DataInputStream(new java.io.ByteArrayInputStream(classFileBytes)))
+            {
+                if (input.readInt() != 0xCAFEBABE)
+                {
+                    throw new ParseException("The provided bytes are not a class file.");
+                }
+                input.readUnsignedShort(); // Minor version
+                input.readUnsignedShort(); // Major version
+
+                final int constantPoolCount = input.readUnsignedShort();
+                final String[] utf8Constants = new String[constantPoolCount];
+                final List<Integer> classNameIndexes = List.create();
+                for (int constantIndex = 1; constantIndex < constantPoolCount; ++constantIndex)
+                {
+                    final int tag = input.readUnsignedByte();
+                    switch (tag)
+                    {
+                        case 1: // Utf8
+                            utf8Constants[constantIndex] = input.readUTF();
+                            break;
+
+                        case 7: // Class
+                            classNameIndexes.add(input.readUnsignedShort());
+                            break;
+
+                        case 8: // String
+                        case 16: // MethodType
+                        case 19: // Module
+                        case 20: // Package
+                            input.skipBytes(2);
+                            break;
+
+                        case 15: // MethodHandle
+                            input.skipBytes(3);
+                            break;
+
+                        case 3: // Integer
+                        case 4: // Float
+                        case 9: // Fieldref
+                        case 10: // Methodref
+                        case 11: // InterfaceMethodref
+                        case 12: // NameAndType
+                        case 17: // Dynamic
+                        case 18: // InvokeDynamic
+                            input.skipBytes(4);
+                            break;
+
+                        case 5: // Long
+                        case 6: // Double
+                            input.skipBytes(8);
+                            // Eight-byte constants take up two constant pool entries.
+                            ++constantIndex;
+                            break;
+
+                        default:
+                            throw new ParseException("Unrecognized constant pool tag " + tag + " at index " + constantIndex + ".");
+                    }
+                }
+
+                for (final Integer classNameIndex : classNameIndexes)
+                {
+                    final String className = utf8Constants[classNameIndex];
+                    if (className != null)
+                    {
+                        if (className.startsWith("["))
+                        {
+                            ClassFileReferences.addDescriptorClassNames(className, addInternalName);
+                        }
+                        else
+                        {
+                            addInternalName.run(className);
+                        }
+                    }
+                }
+
+                for (final String utf8Constant : utf8Constants)
+                {
+                    if (utf8Constant != null && (utf8Constant.startsWith("(") || utf8Constant.startsWith("L") || utf8Constant.startsWith("[") || utf8Constant.startsWith("<")))
+                    {
+                        ClassFileReferences.addDescriptorClassNames(utf8Constant, addInternalName);
+                    }
+                }
+            }
+            catch (java.io.IOException e)
+            {
+                throw new ParseException("The class file ended before its constant pool did.");
+            }
+
+            return result;
+        });
+    }
+
+    /**
+     * Add the internal names of the classes in the provided field, method, or generic signature
+     * descriptor.
+     * @param descriptor The descriptor, such as "(Ljava/lang/String;I)Ljava/util/List;".
+     * @param addInternalName The action that each internal class name will be passed to.
+     */
+    static void addDescriptorClassNames(String descriptor, Action1<String> addInternalName)
+    {
+        PreCondition.assertNotNull(descriptor, "descriptor");
+        PreCondition.assertNotNull(addInternalName, "addInternalName");
+
+        // Outside of a class name, every character of a descriptor is a single character token,
+        // so every 'L' that isn't part of a class name starts one.
+        int index = 0;
+        while (index < descriptor.length())
+        {
+            if (descriptor.charAt(index) == 'L')
+            {
+                int endIndex = index + 1;
+                while (endIndex < descriptor.length() && descriptor.charAt(endIndex) != ';' && descriptor.charAt(endIndex) != '<')
+                {
+                    ++endIndex;
+                }
+                if (endIndex < descriptor.length() && endIndex > index + 1)
+                {
+                    addInternalName.run(descriptor.substring(index + 1, endIndex));
+                }
+                index = endIndex;
+            }
+            else
+            {
+                ++index;
+            }
+        }
+    }
+}
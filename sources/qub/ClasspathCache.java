@@ -0,0 +1,143 @@
+package qub;
+
+/**
+ * A file that contains the classpath that was resolved for a project's test runner, along with
+ * the key of the inputs that it was resolved from. The cached classpath is reused until the
+ * project's project.json file, the installed versions of its dependencies, or the qub-test JVM's
+ * classpath change.
+ */
+public class ClasspathCache
+{
+    private static final String keyPropertyName = "key";
+    private static final String classpathPropertyName = "classpath";
+
+    private final File cacheFile;
+
+    private ClasspathCache(File cacheFile)
+    {
+        PreCondition.assertNotNull(cacheFile, "cacheFile");
+
+        this.cacheFile = cacheFile;
+    }
+
+    /**
+     * Create a new ClasspathCache that is stored in the provided file.
+     * @param cacheFile The file that the cache is stored in.
+     * @return The new ClasspathCache.
+     */
+    public static ClasspathCache create(File cacheFile)
+    {
+        return new ClasspathCache(cacheFile);
+    }
+
+    /**
+     * Create a new ClasspathCache for the provided project folder that is stored in the provided
+     * qub-test data folder.
+     * @param qubTestDataFolder The data folder of the qub-test application.
+     * @param projectFolder The folder of the project whose classpath will be cached.
+     * @return The new ClasspathCache.
+     */
+    public static ClasspathCache create(Folder qubTestDataFolder, Folder projectFolder)
+    {
+        PreCondition.assertNotNull(qubTestDataFolder, "qubTestDataFolder");
+        PreCondition.assertNotNull(projectFolder, "projectFolder");
+
+        final String projectKey = QubTestHash.hash(projectFolder.toString()).substring(0, 16);
+        return ClasspathCache.create(qubTestDataFolder.getFile("classpaths/" + projectKey + ".json").await());
+    }
+
+    /**
+     * Get the file that this cache is stored in.
+     * @return The file that this cache is stored in.
+     */
+    public File getCacheFile()
+    {
+        return this.cacheFile;
+    }
+
+    /**
+     * Get the key of the inputs that a project's classpath is resolved from. The key covers the
+     * contents of the project's project.json file, the contents of the project.json files of the
+     * installed versions of its direct dependencies (which determine the transitive
+     * dependencies), and the qub-test JVM's classpath.
+     * @param projectJsonContents The contents of the project's project.json file.
+     * @param dependencies The direct dependencies of the project.
+     * @param qubFolder The qub folder that the dependencies are installed in.
+     * @param jvmClassPath The classpath of the qub-test JVM.
+     * @return The key of the inputs that the project's classpath is resolved from.
+     */
+    public static String getKey(String projectJsonContents, Iterable<ProjectSignature> dependencies, QubFolder qubFolder, String jvmClassPath)
+    {
+        PreCondition.assertNotNull(projectJsonContents, "projectJsonContents");
+        PreCondition.assertNotNull(qubFolder, "qubFolder");
+
+        final StringBuilder keyBuilder = new StringBuilder();
+        keyBuilder.append(projectJsonContents).append('\n');
+        keyBuilder.append(jvmClassPath == null ? "" : jvmClassPath).append('\n');
+        if (dependencies != null)
+        {
+            for (final ProjectSignature dependency : dependencies)
+            {
+                final File dependencyProjectJsonFile = qubFolder.getProjectJSONFile(dependency.getPublisher(), dependency.getProject(), dependency.getVersion()).await();
+                keyBuilder.append(dependency.toString()).append('=');
+                keyBuilder.append(QubTestHash.hash(dependencyProjectJsonFile).catchError(() -> "").await()).append('\n');
+            }
+        }
+        final String result = QubTestHash.hash(keyBuilder.toString());
+
+        PostCondition.assertNotNullAndNotEmpty(result, "result");
+
+        return result;
+    }
+
+    /**
+     * Get the cached classpath if it was resolved from inputs with the provided key and all of its
+     * entries still exist.
+     * @param key The key of the current inputs.
+     * @return The cached classpath, or null if there is no usable cached classpath.
+     */
+    public Iterable<String> get(String key)
+    {
+        PreCondition.assertNotNullAndNotEmpty(key, "key");
+
+        Iterable<String> result = null;
+        final JSONObject json = JSON.parseObject(this.cacheFile)
+            .catchError()
+            .await();
+        if (json != null && Comparer.equal(key, json.getString(ClasspathCache.keyPropertyName).catchError().await()))
+        {
+            final String classpath = json.getString(ClasspathCache.classpathPropertyName).catchError().await();
+            if (!Strings.isNullOrEmpty(classpath))
+            {
+                final FileSystem fileSystem = this.cacheFile.getFileSystem();
+                final List<String> classPaths = List.create(classpath.split(";"));
+                if (!classPaths.contains((String classPath) -> !fileSystem.fileExists(classPath).await() && !fileSystem.folderExists(classPath).await()))
+                {
+                    result = classPaths;
+                }
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Store the provided classpath in this cache.
+     * @param key The key of the inputs that the classpath was resolved from.
+     * @param classPaths The resolved classpath.
+     * @return The result of storing the classpath.
+     */
+    public Result<Void> set(String key, Iterable<String> classPaths)
+    {
+        PreCondition.assertNotNullAndNotEmpty(key, "key");
+        PreCondition.assertNotNull(classPaths, "classPaths");
+
+        return Result.create2(() ->
+        {
+            final JSONObject json = JSONObject.create();
+            json.setString(ClasspathCache.keyPropertyName, key);
+            json.setString(ClasspathCache.classpathPropertyName, Strings.join(';', classPaths));
+            this.cacheFile.setContentsAsString(json.toString(JSONFormat.pretty)).await();
+            return null;
+        });
+    }
+}
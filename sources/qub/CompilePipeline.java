@@ -0,0 +1,195 @@
+package qub;
+
+/**
+ * Decides which compiled class files can be handed to a test runner while the rest of the
+ * project is still being compiled. A class is ready once its class file and the class files of
+ * every project class that it refers to (directly or through other project classes) have been
+ * completely written by the current compilation. A project class whose class file hasn't been
+ * written yet, or that still has a class file from a previous compilation, holds back every
+ * class that refers to it until the compilation finishes.
+ */
+public class CompilePipeline
+{
+    private final Folder outputFolder;
+    private final Iterable<Folder> sourceFolders;
+    private final DateTime compileStartTime;
+    private final MutableMap<String,Boolean> writtenClassNames;
+    private final MutableMap<String,Boolean> readyClassNames;
+    private final MutableMap<String,Boolean> projectClassNames;
+    private final MutableMap<String,Iterable<String>> referencedClassNames;
+    private MutableMap<String,Long> previousPollClassFileSizes;
+    private MutableMap<String,Long> currentPollClassFileSizes;
+
+    private CompilePipeline(Folder outputFolder, Iterable<Folder> sourceFolders, DateTime compileStartTime)
+    {
+        this.outputFolder = outputFolder;
+        this.sourceFolders = sourceFolders;
+        this.compileStartTime = compileStartTime;
+        this.writtenClassNames = Map.create();
+        this.readyClassNames = Map.create();
+        this.projectClassNames = Map.create();
+        this.referencedClassNames = Map.create();
+        this.previousPollClassFileSizes = Map.create();
+        this.currentPollClassFileSizes = Map.create();
+    }
+
+    /**
+     * Create a new CompilePipeline for a compilation that started at the provided time.
+     * @param outputFolder The output folder that the compilation writes its class files to.
+     * @param sourceFolders The folders that contain the project's source files.
+     * @param compileStartTime The time that the compilation started.
+     * @return The new CompilePipeline.
+     */
+    public static CompilePipeline create(Folder outputFolder, Iterable<Folder> sourceFolders, DateTime compileStartTime)
+    {
+        PreCondition.assertNotNull(outputFolder, "outputFolder");
+        PreCondition.assertNotNull(sourceFolders, "sourceFolders");
+        PreCondition.assertNotNull(compileStartTime, "compileStartTime");
+
+        return new CompilePipeline(outputFolder, sourceFolders, compileStartTime);
+    }
+
+    /**
+     * Start a new poll of the output folder. A class file is only considered completely written
+     * once its size hasn't changed between two polls.
+     */
+    public void nextPoll()
+    {
+        this.previousPollClassFileSizes = this.currentPollClassFileSizes;
+        this.currentPollClassFileSizes = Map.create();
+    }
+
+    /**
+     * Get whether the class with the provided full name and the project classes that it depends
+     * on have been completely written by the current compilation.
+     * @param fullClassName The full name of the class.
+     * @return Whether the class can be loaded by a test runner.
+     */
+    public boolean isReady(String fullClassName)
+    {
+        PreCondition.assertNotNullAndNotEmpty(fullClassName, "fullClassName");
+
+        return this.isReady(fullClassName, Map.create(), true);
+    }
+
+    private boolean isReady(String fullClassName, MutableMap<String,Boolean> visitingClassNames, boolean isRoot)
+    {
+        boolean result = this.readyClassNames.containsKey(fullClassName);
+        if (!result && !visitingClassNames.containsKey(fullClassName) && this.isWritten(fullClassName))
+        {
+            // A class that is already being visited further up the dependency chain is checked
+            // there, so reference cycles don't hold themselves back.
+            visitingClassNames.set(fullClassName, true);
+
+            final Iterable<String> referencedClassNames = this.getReferencedClassNames(fullClassName);
+            if (referencedClassNames != null)
+            {
+                result = true;
+                for (final String referencedClassName : referencedClassNames)
+                {
+                    if (!visitingClassNames.containsKey(referencedClassName) &&
+                        this.isProjectClass(referencedClassName) &&
+                        !this.isReady(referencedClassName, visitingClassNames, false))
+                    {
+                        result = false;
+                        break;
+                    }
+                }
+            }
+
+            // Only the class that was asked about is known to be ready. Classes that were skipped
+            // because of a reference cycle are checked again when they're asked about.
+            if (result && isRoot)
+            {
+                this.readyClassNames.set(fullClassName, true);
+            }
+        }
+        return result;
+    }
+
+    private File getClassFile(String fullClassName)
+    {
+        return this.outputFolder.getFile(fullClassName.replace('.', '/') + ".class").await();
+    }
+
+    private boolean isWritten(String fullClassName)
+    {
+        boolean result = this.writtenClassNames.containsKey(fullClassName);
+        if (!result)
+        {
+            final File classFile = this.getClassFile(fullClassName);
+            // A class file that doesn't exist hasn't been written yet.
+            final DateTime lastModified = classFile.getLastModified()
+                .catchError()
+                .await();
+            if (lastModified != null && lastModified.minus(this.compileStartTime).toMilliseconds().getValue() >= 0)
+            {
+                final byte[] classFileContents = classFile.getContents()
+                    .catchError()
+                    .await();
+                if (classFileContents != null)
+                {
+                    final long size = classFileContents.length;
+                    this.currentPollClassFileSizes.set(fullClassName, size);
+                    final Long previousPollSize = this.previousPollClassFileSizes.get(fullClassName).catchError().await();
+                    result = previousPollSize != null && previousPollSize == size;
+                    if (result)
+                    {
+                        this.writtenClassNames.set(fullClassName, true);
+                    }
+                }
+            }
+        }
+        return result;
+    }
+
+    private Iterable<String> getReferencedClassNames(String fullClassName)
+    {
+        Iterable<String> result = this.referencedClassNames.get(fullClassName).catchError().await();
+        if (result == null)
+        {
+            try
+            {
+                final byte[] classFileBytes = this.getClassFile(fullClassName).getContents().await();
+                result = ClassFileReferences.getReferencedClassNames(classFileBytes).await();
+                this.referencedClassNames.set(fullClassName, result);
+            }
+            catch (Throwable e)
+            {
+                // A class file that can't be read or parsed isn't released until the compilation
+                // finishes.
+                result = null;
+            }
+        }
+        return result;
+    }
+
+    private boolean isProjectClass(String fullClassName)
+    {
+        Boolean result = this.projectClassNames.get(fullClassName).catchError().await();
+        if (result == null)
+        {
+            // Nested classes are compiled from the same source file as their top-level class.
+            final int nestedClassIndex = fullClassName.indexOf('$');
+            final String topLevelClassName = nestedClassIndex == -1 ? fullClassName : fullClassName.substring(0, nestedClassIndex);
+            final String sourceFileRelativePath = topLevelClassName.replace('.', '/') + ".java";
+
+            // A class file from a previous compilation also marks a project class, which covers
+            // classes that aren't declared in a source file with their own name.
+            result = this.getClassFile(fullClassName).exists().await();
+            if (!result)
+            {
+                for (final Folder sourceFolder : this.sourceFolders)
+                {
+                    if (sourceFolder.fileExists(sourceFileRelativePath).await())
+                    {
+                        result = true;
+                        break;
+                    }
+                }
+            }
+            this.projectClassNames.set(fullClassName, result);
+        }
+        return result;
+    }
+}
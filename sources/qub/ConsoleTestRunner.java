@@ -22,11 +22,25 @@ public class ConsoleTestRunner implements TestRunner
                 : PathPattern.parse(argumentValue));
         });
         final CommandLineParameter<Coverage> coverageParameter = parameters.addEnum("coverage", Coverage.None, Coverage.Sources);
+        final CommandLineParameterBoolean coveragePerTestParameter = parameters.addBoolean("coverage-per-test", false);
         final CommandLineParameter<Folder> outputFolderParameter = parameters.addFolder("output-folder", process);
         final CommandLineParameterVerbose verboseParameter = parameters.addVerbose(process);
         final CommandLineParameterProfiler profilerParameter = parameters.addProfiler(process, ConsoleTestRunner.class);
         final CommandLineParameterBoolean testJsonParameter = parameters.addBoolean("testjson", true);
         final CommandLineParameter<File> logFileParameter = parameters.addFile("logfile", process);
+        final CommandLineParameter<File> startupFileParameter = parameters.addFile("startup-file", process);
+        final CommandLineParameter<File> timingsFileParameter = parameters.addFile("timings-file", process);
+        final CommandLineParameter<Integer> unmodifiedPassedTestsParameter = parameters.add("unmodified-passed-tests", ConsoleTestRunner::parseTestCount);
+        final CommandLineParameter<Integer> unmodifiedSkippedTestsParameter = parameters.add("unmodified-skipped-tests", ConsoleTestRunner::parseTestCount);
+        final CommandLineParameter<Integer> testTimeoutParameter = parameters.add("test-timeout", TestTimeouts::parseTimeoutSeconds);
+        final CommandLineParameter<Integer> classTimeoutParameter = parameters.add("class-timeout", TestTimeouts::parseTimeoutSeconds);
+        final CommandLineParameter<File> resumeFileParameter = parameters.addFile("resume-file", process);
+        final CommandLineParameter<File> testClassManifestParameter = parameters.addFile("test-class-manifest", process);
+        final CommandLineParameterBoolean benchmarkParameter = parameters.addBoolean("benchmark", false);
+        final CommandLineParameter<Integer> benchmarkWarmupIterationsParameter = parameters.add("benchmark-warmup-iterations", SpeedTestBenchmark::parseIterationCount);
+        final CommandLineParameter<Integer> benchmarkIterationsParameter = parameters.add("benchmark-iterations", SpeedTestBenchmark::parseIterationCount);
+        final CommandLineParameter<Integer> benchThresholdParameter = parameters.add("bench-threshold", BenchmarkComparison::parseThresholdPercent);
+        final CommandLineParameterBoolean benchUpdateBaselineParameter = parameters.addBoolean("bench-update-baseline", false);
         final CommandLineParameterList<String> testClassNamesParameter = parameters.addPositionStringList("test-class");
 
         profilerParameter.await();
@@ -37,8 +51,30 @@ public class ConsoleTestRunner implements TestRunner
         return new ConsoleTestRunnerParameters(process, verbose, outputFolder, testClassNames)
             .setPattern(patternParameter.getValue().await())
             .setCoverage(coverageParameter.getValue().await())
+            .setCoveragePerTest(coveragePerTestParameter.getValue().await())
             .setTestJson(testJsonParameter.getValue().await())
-            .setLogFile(logFileParameter.getValue().await());
+            .setLogFile(logFileParameter.getValue().await())
+            .setStartupFile(startupFileParameter.getValue().await())
+            .setTimingsFile(timingsFileParameter.getValue().await())
+            .setUnmodifiedPassedTestCount(unmodifiedPassedTestsParameter.getValue().await())
+            .setUnmodifiedSkippedTestCount(unmodifiedSkippedTestsParameter.getValue().await())
+            .setTestTimeoutSeconds(testTimeoutParameter.getValue().await())
+            .setClassTimeoutSeconds(classTimeoutParameter.getValue().await())
+            .setResumeFile(resumeFileParameter.getValue().await())
+            .setTestClassManifestFile(testClassManifestParameter.getValue().await())
+            .setBenchmark(benchmarkParameter.getValue().await())
+            .setBenchmarkWarmupIterations(benchmarkWarmupIterationsParameter.getValue().await())
+            .setBenchmarkIterations(benchmarkIterationsParameter.getValue().await())
+            .setBenchThresholdPercent(benchThresholdParameter.getValue().await())
+            .setBenchUpdateBaseline(benchUpdateBaselineParameter.getValue().await());
+    }
+
+    private static Result<Integer> parseTestCount(String argumentValue)
+    {
+        return Result.create2(() ->
+        {
+            return Strings.isNullOrEmpty(argumentValue) ? 0 : Integer.parseInt(argumentValue);
+        });
     }
 
     public static int run(ConsoleTestRunnerParameters parameters)
@@ -47,15 +83,36 @@ public class ConsoleTestRunner implements TestRunner
 
         final DesktopProcess process = parameters.getProcess();
 
+        final File startupFile = parameters.getStartupFile();
+        if (startupFile != null)
+        {
+            final long startupMilliseconds = java.lang.management.ManagementFactory.getRuntimeMXBean().getUptime();
+            startupFile.setContentsAsString(Long.toString(startupMilliseconds))
+                .catchError()
+                .await();
+        }
+
+        final File timingsFile = parameters.getTimingsFile();
+        final PhaseTimer phaseTimer = timingsFile == null ? PhaseTimer.create() : PhaseTimer.create(process.getClock());
+        if (phaseTimer.isEnabled())
+        {
+            phaseTimer.getTimings().addPhase("JVM startup", (int)java.lang.management.ManagementFactory.getRuntimeMXBean().getUptime());
+        }
+
         final Stopwatch stopwatch = process.getClock().createStopwatch();
         stopwatch.start();
 
         final PathPattern pattern = parameters.getPattern();
         final Folder outputFolder = parameters.getOutputFolder();
-        final Iterable<String> testClassNames = parameters.getTestClassNames();
-        final Boolean useTestJson = parameters.getTestJson();
+        Iterable<String> testClassNames = parameters.getTestClassNames();
+        final boolean benchmark = parameters.getBenchmark();
+        // A benchmark run only runs the speed tests, so it must not replace the test counts in
+        // test.json.
+        final boolean useTestJson = parameters.getTestJson() && !benchmark;
         final File logFile = parameters.getLogFile();
         final Coverage coverage = parameters.getCoverage();
+        final ClassLoader testClassLoader = parameters.getTestClassLoader();
+        final File resumeFile = parameters.getResumeFile();
 
         final LogStreams logStreams;
         final CharacterToByteWriteStream output;
@@ -76,13 +133,79 @@ public class ConsoleTestRunner implements TestRunner
         int result;
         try
         {
+            boolean resuming = false;
+            if (resumeFile != null)
+            {
+                final String resumeFileContents = resumeFile.getContentsAsString()
+                    .catchError(FileNotFoundException.class)
+                    .await();
+                if (resumeFileContents != null)
+                {
+                    resumeFile.delete().await();
+                    testClassNames = Strings.getLines(resumeFileContents)
+                        .where((String testClassName) -> !Strings.isNullOrEmpty(testClassName))
+                        .toList();
+                    resuming = true;
+                    verbose.writeLine("Resuming with the " + testClassNames.getCount() + " test classes that didn't run in the previous test runner.").await();
+                }
+            }
+
             final ConsoleTestRunner runner = new ConsoleTestRunner(process, output, pattern);
+            if (!resuming)
+            {
+                // The previous test runner already reported the unmodified tests.
+                runner.addUnmodifiedPassedTests(parameters.getUnmodifiedPassedTestCount());
+                runner.addUnmodifiedSkippedTests(parameters.getUnmodifiedSkippedTestCount());
+            }
+
+            SpeedTestBenchmark speedTestBenchmark = null;
+            if (benchmark)
+            {
+                final Integer warmupIterations = parameters.getBenchmarkWarmupIterations();
+                final Integer measuredIterations = parameters.getBenchmarkIterations();
+                speedTestBenchmark = SpeedTestBenchmark.create(
+                    warmupIterations == null ? SpeedTestBenchmark.getWarmupIterationsDefault() : warmupIterations,
+                    measuredIterations == null ? SpeedTestBenchmark.getMeasuredIterationsDefault() : measuredIterations);
+                runner.benchmark(speedTestBenchmark);
+                verbose.writeLine("Benchmarking speed tests with " + speedTestBenchmark.getWarmupIterations() + " warmup iterations and " + speedTestBenchmark.getMeasuredIterations() + " measured iterations.").await();
+            }
+
+            TestWatchdog watchdog = null;
+            final Integer testTimeoutSeconds = parameters.getTestTimeoutSeconds();
+            final Integer classTimeoutSeconds = parameters.getClassTimeoutSeconds();
+            final Duration testTimeout = testTimeoutSeconds == null ? null : Duration.seconds(testTimeoutSeconds);
+            final Duration classTimeout = classTimeoutSeconds == null ? null : Duration.seconds(classTimeoutSeconds);
+            if (testTimeout != null || classTimeout != null)
+            {
+                watchdog = TestWatchdog.create(testTimeout, classTimeout, process.getClock());
+                runner.watch(watchdog);
+            }
+
+            TestCoverageIndex testCoverageIndex = null;
+            if (parameters.getCoveragePerTest() && coverage != Coverage.None)
+            {
+                final JacocoAgentRuntime jacocoAgent = JacocoAgentRuntime.get();
+                if (jacocoAgent == null)
+                {
+                    verbose.writeLine("Could not find a JaCoCo agent runtime. Per-test coverage will not be recorded.").await();
+                }
+                else
+                {
+                    testCoverageIndex = TestCoverageIndex.create();
+                    ConsoleTestRunner.recordCoveragePerTest(runner, jacocoAgent, testCoverageIndex, process.getClock());
+                }
+            }
+
+            phaseTimer.endPhase("Set up test runner");
 
             final List<TestJSONClassFile> testJSONClassFiles = List.create();
+            final List<TestJSONClassFile> previousTestJSONClassFiles = List.create();
 
             MutableMap<String, TestJSONClassFile> fullClassNameToTestJSONClassFileMap = Map.create();
             final VersionNumber currentJavaVersion = process.getJavaVersion();
             VersionNumber previousJavaVersion = null;
+            Integer previousPeakHeapMegabytes = null;
+            TestFingerprint previousFingerprint = null;
             if (useTestJson)
             {
                 final TestJSON testJson = TestJSON.parse(outputFolder.getFile("test.json").await())
@@ -92,26 +215,67 @@ public class ConsoleTestRunner implements TestRunner
                 {
                     verbose.writeLine("Found and parsed test.json file.").await();
                     previousJavaVersion = testJson.getJavaVersion().catchError().await();
+                    if (currentJavaVersion.equals(previousJavaVersion))
+                    {
+                        previousPeakHeapMegabytes = testJson.getPeakHeapMegabytes().catchError().await();
+                    }
+                    previousFingerprint = testJson.getFingerprint().catchError().await();
                     for (final TestJSONClassFile testJSONClassFile : testJson.getClassFiles())
                     {
                         fullClassNameToTestJSONClassFileMap.set(testJSONClassFile.getFullClassName(), testJSONClassFile);
+                        previousTestJSONClassFiles.add(testJSONClassFile);
                     }
                 }
 
+                final MutableMap<String,List<TestJSONTest>> testClassTests = Map.create();
+                ConsoleTestRunner.recordTests(runner, testClassTests, process.getClock());
                 runner.afterTestClass((TestClass testClass) ->
                 {
                     verbose.writeLine("Updating test.json class file for " + testClass.getFullName() + "...").await();
                     final File testClassFile = QubTestRun.getClassFile(outputFolder, testClass.getFullName());
+                    final int timedOutPassedTestCount = runner.takeTimedOutPassedTestCount(testClass.getFullName());
+                    final Iterable<TestJSONTest> tests = testClassTests.get(testClass.getFullName())
+                        .catchError(() -> List.create())
+                        .await();
+                    testClassTests.set(testClass.getFullName(), List.create());
                     testJSONClassFiles.addAll(TestJSONClassFile.create(testClassFile.relativeTo(outputFolder))
                         .setLastModified(testClassFile.getLastModified().await())
-                        .setPassedTestCount(testClass.getPassedTestCount())
+                        .setPassedTestCount(testClass.getPassedTestCount() - timedOutPassedTestCount)
                         .setSkippedTestCount(testClass.getSkippedTestCount())
-                        .setFailedTestCount(testClass.getFailedTestCount()));
+                        .setFailedTestCount(testClass.getFailedTestCount() + timedOutPassedTestCount)
+                        .setTests(tests));
                 });
+
+                phaseTimer.endPhase("Read test.json");
             }
 
-            for (final String testClassName : testClassNames)
+            // A streamed manifest is read while qub-test is still discovering test classes, so
+            // the test classes are collected as they are read for the steps after the tests run.
+            java.lang.Iterable<String> testClassNamesToVisit = testClassNames;
+            List<String> streamedTestClassNames = null;
+            final File testClassManifestFile = parameters.getTestClassManifestFile();
+            if (testClassManifestFile != null && !resuming)
             {
+                verbose.writeLine("Reading test class names from " + testClassManifestFile + " as they are discovered.").await();
+                testClassNamesToVisit = TestClassManifest.read(testClassManifestFile, TestClassManifest.getIdleTimeout(testTimeout, classTimeout), process.getClock());
+                streamedTestClassNames = List.create();
+            }
+
+            final List<String> remainingTestClassNames = List.create();
+            boolean stoppedForHungTest = false;
+            for (final String testClassName : testClassNamesToVisit)
+            {
+                if (streamedTestClassNames != null)
+                {
+                    streamedTestClassNames.add(testClassName);
+                }
+
+                if (stoppedForHungTest)
+                {
+                    remainingTestClassNames.add(testClassName);
+                    continue;
+                }
+
                 boolean runTestClass;
 
                 if (!useTestJson || !currentJavaVersion.equals(previousJavaVersion) || coverage != Coverage.None)
@@ -123,58 +287,178 @@ public class ConsoleTestRunner implements TestRunner
                     final TestJSONClassFile testJSONClassFile = fullClassNameToTestJSONClassFileMap.get(testClassName)
                         .catchError(NotFoundException.class)
                         .await();
-                    if (testJSONClassFile == null)
+                    runTestClass = !TestRunPlan.canSkip(outputFolder, testClassName, testJSONClassFile, null, verbose);
+                    if (!runTestClass)
                     {
-                        verbose.writeLine("Found class that didn't exist in previous test run: " + testClassName);
-                        runTestClass = true;
+                        runner.addUnmodifiedPassedTests(testJSONClassFile.getPassedTestCount());
+                        runner.addUnmodifiedSkippedTests(testJSONClassFile.getSkippedTestCount());
+                        testJSONClassFiles.addAll(testJSONClassFile);
                     }
-                    else
+                }
+
+                if (runTestClass)
+                {
+                    final Action0 testClassAction = () ->
                     {
-                        verbose.writeLine("Found class entry for " + testClassName + ". Checking timestamps...").await();
-                        final File testClassFile = outputFolder.getFile(testJSONClassFile.getRelativePath()).await();
-                        final DateTime testClassFileLastModified = testClassFile.getLastModified().await();
-                        if (!testClassFileLastModified.equals(testJSONClassFile.getLastModified()))
-                        {
-                            verbose.writeLine("Timestamp of " + testClassName + " from the previous run (" + testJSONClassFile.getLastModified() + ") was not the same as the current class file timestamp (" + testClassFileLastModified + "). Running test class tests.").await();
-                            runTestClass = true;
-                        }
-                        else if (testJSONClassFile.getFailedTestCount() > 0)
+                        final Result<Void> testClassResult = testClassLoader == null
+                            ? runner.testClass(testClassName)
+                            : ConsoleTestRunner.loadTestClass(testClassLoader, testClassName)
+                                .then((Class<?> testClass) -> runner.testClass(testClass).await());
+                        testClassResult
+                            .catchError((Throwable e) -> verbose.writeLine(e.getMessage()).await())
+                            .await();
+                    };
+
+                    if (watchdog == null)
+                    {
+                        testClassAction.run();
+                    }
+                    else if (!watchdog.run(testClassName, testClassAction, (Test hungTest, String message, String threadDump) ->
                         {
-                            verbose.writeLine("Previous run of " + testClassName + " contained errors. Running test class tests...").await();
-                            runTestClass = true;
-                        }
-                        else
+                            runner.recordTimeout(testClassName, hungTest, message, threadDump, outputFolder);
+                        }))
+                    {
+                        // The hung test or test class didn't end after its thread was interrupted,
+                        // so the state of this test runner can no longer be trusted. Record the
+                        // hung test class as failed and leave the remaining test classes for a new
+                        // test runner.
+                        runner.abandonTestClass(testClassName);
+                        if (useTestJson)
                         {
-                            verbose.writeLine("Previous run of " + testClassName + " didn't contain errors and the test class hasn't changed since then. Skipping test class tests.").await();
-                            runner.addUnmodifiedPassedTests(testJSONClassFile.getPassedTestCount());
-                            runner.addUnmodifiedSkippedTests(testJSONClassFile.getSkippedTestCount());
-                            testJSONClassFiles.addAll(testJSONClassFile);
-                            runTestClass = false;
+                            final File testClassFile = QubTestRun.getClassFile(outputFolder, testClassName);
+                            testJSONClassFiles.add(TestJSONClassFile.create(testClassFile.relativeTo(outputFolder))
+                                .setLastModified(testClassFile.getLastModified().await())
+                                .setPassedTestCount(0)
+                                .setSkippedTestCount(0)
+                                .setFailedTestCount(1));
                         }
+                        stoppedForHungTest = true;
                     }
                 }
+            }
 
-                if (runTestClass)
+            if (streamedTestClassNames != null)
+            {
+                if (!streamedTestClassNames.any() && TestClassManifest.isAborted(testClassManifestFile))
                 {
-                    runner.testClass(testClassName)
-                        .catchError((Throwable e) -> verbose.writeLine(e.getMessage()).await())
-                        .await();
+                    // This test runner was launched before qub-test finished compiling, and the
+                    // compilation failed, so there is nothing to report.
+                    verbose.writeLine("The test class manifest was aborted. Exiting without running any tests.").await();
+                    return 1;
+                }
+                testClassNames = streamedTestClassNames;
+            }
+
+            if (stoppedForHungTest)
+            {
+                runner.writeLine().await();
+                if (!remainingTestClassNames.any())
+                {
+                    output.writeLine("Stopped the test runner because a hung test could not be abandoned safely.").await();
+                }
+                else if (resumeFile != null)
+                {
+                    output.writeLine("Stopped the test runner because a hung test could not be abandoned safely. The remaining " + remainingTestClassNames.getCount() + " test classes will run in a new test runner.").await();
+                    resumeFile.setContentsAsString(Strings.join('\n', remainingTestClassNames)).await();
                 }
+                else
+                {
+                    output.writeLine("Stopped the test runner because a hung test could not be abandoned safely. The remaining " + remainingTestClassNames.getCount() + " test classes did not run.").await();
+                }
+            }
+
+            phaseTimer.endPhase("Run tests");
+
+            if (testCoverageIndex != null)
+            {
+                final File testCoverageIndexFile = TestCoverageIndex.getFile(outputFolder);
+                final TestCoverageIndex previousTestCoverageIndex = TestCoverageIndex.parse(testCoverageIndexFile)
+                    .catchError()
+                    .await();
+                if (previousTestCoverageIndex != null)
+                {
+                    testCoverageIndex.addTestsFrom(previousTestCoverageIndex, testClassNames);
+                }
+                verbose.writeLine("Writing per-test coverage for " + testCoverageIndex.getTestCount() + " tests...").await();
+                testCoverageIndexFile.setContentsAsString(testCoverageIndex.toString()).await();
+
+                phaseTimer.endPhase("Write per-test coverage");
             }
 
             if (useTestJson && pattern == null)
             {
+                // Keep the results of test classes that weren't requested in this run (for
+                // example because the caller only selected affected test classes), as long as
+                // their class files still exist.
+                final MutableMap<String,Boolean> requestedTestClassNames = Map.create();
+                for (final String testClassName : testClassNames)
+                {
+                    if (!remainingTestClassNames.contains(testClassName))
+                    {
+                        requestedTestClassNames.set(testClassName, true);
+                    }
+                }
+                for (final TestJSONClassFile previousTestJSONClassFile : previousTestJSONClassFiles)
+                {
+                    if (!requestedTestClassNames.containsKey(previousTestJSONClassFile.getFullClassName()) &&
+                        outputFolder.fileExists(previousTestJSONClassFile.getRelativePath().toString()).await())
+                    {
+                        testJSONClassFiles.add(previousTestJSONClassFile);
+                    }
+                }
+
                 final File testJsonFile = outputFolder.getFile("test.json").await();
                 final TestJSON testJson = TestJSON.create()
                     .setJavaVersion(currentJavaVersion)
                     .setClassFiles(testJSONClassFiles);
+
+                int peakHeapMegabytes = ConsoleTestRunner.getPeakHeapMegabytes();
+                if (previousPeakHeapMegabytes != null && previousPeakHeapMegabytes > peakHeapMegabytes)
+                {
+                    // Only part of the test suite may have run, so keep the largest peak that has
+                    // been seen for this Java version.
+                    peakHeapMegabytes = previousPeakHeapMegabytes;
+                }
+                testJson.setPeakHeapMegabytes(peakHeapMegabytes);
+                if (previousFingerprint != null)
+                {
+                    // The fingerprint is stamped by qub-test before the test runner starts.
+                    testJson.setFingerprint(previousFingerprint);
+                }
                 testJsonFile.setContentsAsString(testJson.toString(JSONFormat.pretty)).await();
+
+                phaseTimer.endPhase("Write test.json");
             }
 
             runner.writeLine().await();
+            int benchmarkRegressionCount = 0;
+            if (speedTestBenchmark != null && speedTestBenchmark.getResults().any())
+            {
+                output.writeLine("Speed Test Benchmarks:").await();
+                SpeedTestBenchmark.createTable(speedTestBenchmark.getResults()).toString(output, CharacterTableFormat.consise).await();
+                output.writeLine().await();
+                output.writeLine().await();
+
+                final Integer benchThresholdPercent = parameters.getBenchThresholdPercent();
+                benchmarkRegressionCount = BenchmarkBaselines.update(
+                    speedTestBenchmark.getResults(),
+                    BenchJSON.getFile(outputFolder),
+                    currentJavaVersion,
+                    benchThresholdPercent == null ? BenchmarkComparison.getThresholdPercentDefault() : benchThresholdPercent,
+                    parameters.getBenchUpdateBaseline(),
+                    output);
+            }
             runner.writeSummary(stopwatch);
 
-            result = runner.getFailedTestCount();
+            if (phaseTimer.isEnabled())
+            {
+                phaseTimer.endPhase("Write summary");
+                timingsFile.setContentsAsString(phaseTimer.getTimings().toString())
+                    .catchError()
+                    .await();
+            }
+
+            result = runner.getFailedTestCount() + benchmarkRegressionCount;
         }
         finally
         {
@@ -187,10 +471,188 @@ public class ConsoleTestRunner implements TestRunner
         return result;
     }
 
+    /**
+     * Load the test class with the provided name from the provided ClassLoader.
+     * @param testClassLoader The ClassLoader to load the test class from.
+     * @param fullClassName The full name of the test class to load.
+     * @return The loaded test class.
+     */
+    static Result<Class<?>> loadTestClass(ClassLoader testClassLoader, String fullClassName)
+    {
+        PreCondition.assertNotNull(testClassLoader, "testClassLoader");
+        PreCondition.assertNotNullAndNotEmpty(fullClassName, "fullClassName");
+
+        return Result.create2(() ->
+        {
+            try
+            {
+                return Class.forName(fullClassName, true, testClassLoader);
+            }
+            catch (ClassNotFoundException e)
+            {
+                throw new NotFoundException("Could not find a class named " + Strings.escapeAndQuote(fullClassName) + ".");
+            }
+        });
+    }
+
+    /**
+     * Get the peak amount of heap memory that this JVM has used, rounded up to the nearest
+     * megabyte.
+     * @return The peak amount of heap memory that this JVM has used in megabytes.
+     */
+    static int getPeakHeapMegabytes()
+    {
+        long peakHeapBytes = 0;
+        for (final java.lang.management.MemoryPoolMXBean memoryPool : java.lang.management.ManagementFactory.getMemoryPoolMXBeans())
+        {
+            if (memoryPool.getType() == java.lang.management.MemoryType.HEAP)
+            {
+                final java.lang.management.MemoryUsage peakUsage = memoryPool.getPeakUsage();
+                if (peakUsage != null)
+                {
+                    peakHeapBytes += peakUsage.getUsed();
+                }
+            }
+        }
+        return (int)((peakHeapBytes + (1024 * 1024) - 1) / (1024 * 1024));
+    }
+
+    /**
+     * Record the name, status, and duration of each test that runs into the provided map, grouped
+     * by the full name of the test class that contains the test.
+     * @param runner The runner whose tests will be recorded.
+     * @param tests The map to record the tests into.
+     * @param clock The clock that will be used to measure the duration of each test.
+     */
+    static void recordTests(ConsoleTestRunner runner, MutableMap<String,List<TestJSONTest>> tests, Clock clock)
+    {
+        PreCondition.assertNotNull(runner, "runner");
+        PreCondition.assertNotNull(tests, "tests");
+        PreCondition.assertNotNull(clock, "clock");
+
+        final List<Stopwatch> testStopwatches = List.create();
+        runner.beforeTest((Test test) ->
+        {
+            final Stopwatch testStopwatch = clock.createStopwatch();
+            testStopwatches.clear();
+            testStopwatches.add(testStopwatch);
+            testStopwatch.start();
+        });
+        final Action2<Test,String> recordTest = (Test test, String status) ->
+        {
+            final String testClassName = ConsoleTestRunner.getTestClassFullName(test);
+            if (testClassName != null)
+            {
+                List<TestJSONTest> testClassTests = tests.get(testClassName)
+                    .catchError()
+                    .await();
+                if (testClassTests == null)
+                {
+                    testClassTests = List.create();
+                    tests.set(testClassName, testClassTests);
+                }
+
+                final TestJSONTest testJsonTest = TestJSONTest.create(test, status);
+                if (testStopwatches.any())
+                {
+                    final Duration testDuration = testStopwatches.first().stop();
+                    testJsonTest.setDurationMilliseconds((int)testDuration.toMilliseconds().getValue());
+                    testStopwatches.clear();
+                }
+                testClassTests.add(testJsonTest);
+            }
+        };
+        runner.afterTestSuccess((Test test) ->
+        {
+            recordTest.run(test, runner.isTimedOut(test) ? TestJSONTest.failedStatus : TestJSONTest.passedStatus);
+        });
+        runner.afterTestFailure((Test test, TestError failure) ->
+        {
+            recordTest.run(test, TestJSONTest.failedStatus);
+        });
+        runner.afterTestSkipped((Test test) ->
+        {
+            recordTest.run(test, TestJSONTest.skippedStatus);
+        });
+    }
+
+    /**
+     * Record which classes and coverage probes each test executes into the provided
+     * TestCoverageIndex. The agent's execution data is dumped (and reset) before each test so that
+     * the execution data that is collected after the test only belongs to that test. Each dump is
+     * written to the agent's coverage.exec file so that the overall coverage report is unaffected.
+     * @param runner The runner whose tests will be recorded.
+     * @param jacocoAgent The JaCoCo agent runtime that is attached to this JVM.
+     * @param testCoverageIndex The index to record the coverage of each test into.
+     * @param clock The clock that will be used to measure the duration of each test.
+     */
+    static void recordCoveragePerTest(TestRunner runner, JacocoAgentRuntime jacocoAgent, TestCoverageIndex testCoverageIndex, Clock clock)
+    {
+        PreCondition.assertNotNull(runner, "runner");
+        PreCondition.assertNotNull(jacocoAgent, "jacocoAgent");
+        PreCondition.assertNotNull(testCoverageIndex, "testCoverageIndex");
+        PreCondition.assertNotNull(clock, "clock");
+
+        final List<Stopwatch> testStopwatches = List.create();
+        runner.beforeTest((Test test) ->
+        {
+            jacocoAgent.dump(true);
+
+            final Stopwatch testStopwatch = clock.createStopwatch();
+            testStopwatches.clear();
+            testStopwatches.add(testStopwatch);
+            testStopwatch.start();
+        });
+        runner.afterTest((Test test) ->
+        {
+            final Duration testDuration = testStopwatches.first().stop();
+            final byte[] executionData = jacocoAgent.getExecutionData(false);
+            jacocoAgent.dump(true);
+
+            final String testClassName = ConsoleTestRunner.getTestClassFullName(test);
+            if (testClassName != null)
+            {
+                final int testIndex = testCoverageIndex.addTest(test.getFullName(), testClassName, (int)testDuration.toMilliseconds().getValue());
+                final MutableMap<String,String> classProbes = JacocoExecFile.getClassProbes(executionData);
+                for (final String fullClassName : classProbes.getKeys())
+                {
+                    testCoverageIndex.addClassProbes(testIndex, fullClassName, classProbes.get(fullClassName).await());
+                }
+            }
+        });
+    }
+
+    /**
+     * Get the full name of the test class that contains the provided test.
+     * @param test The test.
+     * @return The full name of the test class that contains the provided test, or null if the
+     * test isn't contained by a test class.
+     */
+    static String getTestClassFullName(Test test)
+    {
+        PreCondition.assertNotNull(test, "test");
+
+        TestParent testParent = test.getParent();
+        while (testParent != null && !(testParent instanceof TestClass))
+        {
+            testParent = testParent.getParent();
+        }
+        return testParent == null ? null : ((TestClass)testParent).getFullName();
+    }
+
     private final BasicTestRunner testRunner;
     private final IndentedCharacterToByteWriteStream writeStream;
     private int unmodifiedPassedTests;
     private int unmodifiedSkippedTests;
+    private int indentDepth;
+    private final List<Test> timedOutTests;
+    private final List<String> timeoutMessages;
+    private final MutableMap<String,Integer> timedOutPassedTestCounts;
+    private int timedOutPassedTestCount;
+    private int additionalFailedTestCount;
+    private int additionalFinishedTestCount;
+    private Test lastTimedOutTest;
+    private SpeedTestBenchmark benchmark;
 
     public ConsoleTestRunner(DesktopProcess process, CharacterToByteWriteStream output, PathPattern pattern)
     {
@@ -198,6 +660,9 @@ public class ConsoleTestRunner implements TestRunner
         PreCondition.assertNotNull(output, "output");
 
         this.testRunner = BasicTestRunner.create(process, pattern);
+        this.timedOutTests = List.create();
+        this.timeoutMessages = List.create();
+        this.timedOutPassedTestCounts = Map.create();
 
         this.writeStream = IndentedCharacterToByteWriteStream.create(output);
 
@@ -242,11 +707,19 @@ public class ConsoleTestRunner implements TestRunner
         });
         this.testRunner.afterTestSuccess((Test test) ->
         {
-            this.writeStream.writeLine(" - Passed").await();
+            if (this.isTimedOut(test))
+            {
+                this.writeStream.writeLine(" - Failed (timed out)").await();
+                this.addTimedOutPassedTest(test);
+            }
+            else
+            {
+                this.writeStream.writeLine(" - Passed").await();
+            }
         });
         this.testRunner.afterTestFailure((Test test, TestError failure) ->
         {
-            this.writeStream.writeLine(" - Failed").await();
+            this.writeStream.writeLine(this.isTimedOut(test) ? " - Failed (timed out)" : " - Failed").await();
             this.writeFailure(failure);
         });
         this.testRunner.afterTestSkipped((Test test) ->
@@ -280,6 +753,7 @@ public class ConsoleTestRunner implements TestRunner
     private void increaseIndent()
     {
         this.writeStream.increaseIndent();
+        ++this.indentDepth;
     }
 
     /**
@@ -288,11 +762,144 @@ public class ConsoleTestRunner implements TestRunner
     private void decreaseIndent()
     {
         this.writeStream.decreaseIndent();
+        --this.indentDepth;
     }
 
     public int getFailedTestCount()
     {
-        return this.testRunner.getFailedTestCount();
+        return this.testRunner.getFailedTestCount() + this.additionalFailedTestCount;
+    }
+
+    /**
+     * Run speed tests as microbenchmarks with the provided benchmark, and don't run any other
+     * tests.
+     * @param benchmark The benchmark that will measure the speed tests.
+     */
+    void benchmark(SpeedTestBenchmark benchmark)
+    {
+        PreCondition.assertNotNull(benchmark, "benchmark");
+
+        this.benchmark = benchmark;
+    }
+
+    /**
+     * Get whether or not this test runner is running speed tests as microbenchmarks.
+     * @return Whether or not this test runner is running speed tests as microbenchmarks.
+     */
+    public boolean isBenchmarking()
+    {
+        return this.benchmark != null;
+    }
+
+    /**
+     * Notify the provided watchdog when each test starts and ends.
+     * @param watchdog The watchdog to notify.
+     */
+    void watch(TestWatchdog watchdog)
+    {
+        PreCondition.assertNotNull(watchdog, "watchdog");
+
+        this.testRunner.beforeTest(watchdog::testStarted);
+        this.testRunner.afterTest((Test test) -> watchdog.testEnded());
+    }
+
+    /**
+     * Record that a timeout was exceeded while the provided test class was running. The thread
+     * dump is written to the threaddumps folder in the output folder, and the test that was
+     * running (or the test class if no test was running) will be reported as failed.
+     * @param testClassName The full name of the test class that was running.
+     * @param test The test that was running, or null if no test was running.
+     * @param message The message that describes the timeout.
+     * @param threadDump The thread dump that was captured when the timeout was exceeded.
+     * @param outputFolder The output folder that the thread dump will be written to.
+     */
+    synchronized void recordTimeout(String testClassName, Test test, String message, String threadDump, Folder outputFolder)
+    {
+        PreCondition.assertNotNullAndNotEmpty(testClassName, "testClassName");
+        PreCondition.assertNotNullAndNotEmpty(message, "message");
+        PreCondition.assertNotNull(threadDump, "threadDump");
+        PreCondition.assertNotNull(outputFolder, "outputFolder");
+
+        final File threadDumpFile = outputFolder.getFile("threaddumps/" + testClassName + "-" + (this.timeoutMessages.getCount() + 1) + ".txt").await();
+        boolean threadDumpWritten;
+        try
+        {
+            threadDumpFile.setContentsAsString(message + "\n\n" + threadDump).await();
+            threadDumpWritten = true;
+        }
+        catch (RuntimeException e)
+        {
+            threadDumpWritten = false;
+        }
+        this.timeoutMessages.add(threadDumpWritten
+            ? message + " A thread dump was written to " + threadDumpFile + "."
+            : message);
+
+        if (test != null)
+        {
+            this.timedOutTests.add(test);
+        }
+        else
+        {
+            ++this.additionalFailedTestCount;
+            this.timedOutPassedTestCounts.set(testClassName, this.timedOutPassedTestCounts.get(testClassName).catchError(() -> 0).await() + 1);
+        }
+        this.lastTimedOutTest = test;
+    }
+
+    private synchronized boolean isTimedOut(Test test)
+    {
+        return this.timedOutTests.contains(test);
+    }
+
+    private synchronized void addTimedOutPassedTest(Test test)
+    {
+        ++this.timedOutPassedTestCount;
+        ++this.additionalFailedTestCount;
+
+        final String testClassName = ConsoleTestRunner.getTestClassFullName(test);
+        if (testClassName != null)
+        {
+            this.timedOutPassedTestCounts.set(testClassName, this.timedOutPassedTestCounts.get(testClassName).catchError(() -> 0).await() + 1);
+        }
+    }
+
+    /**
+     * Get (and reset) the number of tests in the provided test class that passed after their
+     * timeout was exceeded, and that should be reported as failed instead.
+     * @param testClassName The full name of the test class.
+     * @return The number of tests in the test class that passed after their timeout was exceeded.
+     */
+    synchronized int takeTimedOutPassedTestCount(String testClassName)
+    {
+        PreCondition.assertNotNullAndNotEmpty(testClassName, "testClassName");
+
+        final int result = this.timedOutPassedTestCounts.get(testClassName).catchError(() -> 0).await();
+        this.timedOutPassedTestCounts.set(testClassName, 0);
+        return result;
+    }
+
+    /**
+     * Give up on the provided test class because its hung test didn't end after its thread was
+     * interrupted. The hung test is reported as failed, and the output's indentation is reset so
+     * that the summary can still be written.
+     * @param testClassName The full name of the test class that is being abandoned.
+     */
+    synchronized void abandonTestClass(String testClassName)
+    {
+        PreCondition.assertNotNullAndNotEmpty(testClassName, "testClassName");
+
+        if (this.lastTimedOutTest != null)
+        {
+            this.writeStream.writeLine(" - Failed (timed out)").await();
+            ++this.additionalFinishedTestCount;
+            ++this.additionalFailedTestCount;
+        }
+        while (this.indentDepth > 0)
+        {
+            this.decreaseIndent();
+        }
+        this.timedOutPassedTestCounts.set(testClassName, 0);
     }
 
     public void writeFailure(TestError failure)
@@ -463,37 +1070,66 @@ public class ConsoleTestRunner implements TestRunner
     @Override
     public void test(String testName, Action1<Test> testAction)
     {
-        this.testRunner.test(testName, testAction);
+        if (this.benchmark == null)
+        {
+            this.testRunner.test(testName, testAction);
+        }
     }
 
     @Override
     public void test(String testName, Skip skip, Action1<Test> testAction)
     {
-        this.testRunner.test(testName, skip, testAction);
+        if (this.benchmark == null)
+        {
+            this.testRunner.test(testName, skip, testAction);
+        }
     }
 
     @Override
     public <T1> void test(String testName, Skip skip, Function1<TestResources, Tuple1<T1>> resourcesFunction, Action2<Test, T1> testAction)
     {
-        this.testRunner.test(testName, skip, resourcesFunction, testAction);
+        if (this.benchmark == null)
+        {
+            this.testRunner.test(testName, skip, resourcesFunction, testAction);
+        }
     }
 
     @Override
     public <T1, T2> void test(String testName, Skip skip, Function1<TestResources, Tuple2<T1, T2>> resourcesFunction, Action3<Test, T1, T2> testAction)
     {
-        this.testRunner.test(testName, skip, resourcesFunction, testAction);
+        if (this.benchmark == null)
+        {
+            this.testRunner.test(testName, skip, resourcesFunction, testAction);
+        }
     }
 
     @Override
     public <T1, T2, T3> void test(String testName, Skip skip, Function1<TestResources, Tuple3<T1, T2, T3>> resourcesFunction, Action4<Test, T1, T2, T3> testAction)
     {
-        this.testRunner.test(testName, skip, resourcesFunction, testAction);
+        if (this.benchmark == null)
+        {
+            this.testRunner.test(testName, skip, resourcesFunction, testAction);
+        }
     }
 
     @Override
     public void speedTest(String testName, Duration maximumDuration, Action1<Test> testAction)
     {
-        this.testRunner.speedTest(testName, maximumDuration, testAction);
+        if (this.benchmark == null)
+        {
+            this.testRunner.speedTest(testName, maximumDuration, testAction);
+        }
+        else
+        {
+            this.testRunner.test(testName, (Test test) ->
+            {
+                final SpeedTestResult result = this.benchmark.run(test.getFullName(), maximumDuration, () -> testAction.run(test));
+                if (result.exceedsMaximumDuration())
+                {
+                    test.fail("The median duration of " + SpeedTestStatistics.formatNanoseconds(result.getWallTime().getMedian()) + " was longer than the maximum duration of " + SpeedTestStatistics.formatNanoseconds(maximumDuration.toMilliseconds().getValue() * 1000000) + ".");
+                }
+            });
+        }
     }
 
     @Override
@@ -631,41 +1267,84 @@ public class ConsoleTestRunner implements TestRunner
             this.decreaseIndent();
         }
 
+        if (this.timeoutMessages.any())
+        {
+            this.writeStream.writeLine("Timed out tests:").await();
+            this.increaseIndent();
+            int timeoutNumber = 1;
+            for (final String timeoutMessage : this.timeoutMessages)
+            {
+                this.writeStream.writeLine(timeoutNumber + ") " + timeoutMessage).await();
+                ++timeoutNumber;
+            }
+            this.decreaseIndent();
+
+            this.writeStream.writeLine().await();
+        }
+
+        final Duration totalTestsDuration = stopwatch.stop();
+        final CharacterTable table = ConsoleTestRunner.createSummaryTable(
+            this.unmodifiedPassedTests,
+            this.unmodifiedSkippedTests,
+            this.testRunner.getFinishedTestCount() + this.additionalFinishedTestCount,
+            this.testRunner.getPassedTestCount() - this.timedOutPassedTestCount,
+            this.getFailedTestCount(),
+            this.testRunner.getSkippedTestCount(),
+            totalTestsDuration);
+        table.toString(this.writeStream, CharacterTableFormat.consise).await();
+        this.writeStream.writeLine().await();
+    }
+
+    /**
+     * Create the table of test counts that is written at the end of a test run.
+     * @param unmodifiedPassedTests The number of passed tests that weren't run because their test
+     *                              classes haven't changed.
+     * @param unmodifiedSkippedTests The number of skipped tests that weren't run because their
+     *                               test classes haven't changed.
+     * @param finishedTestCount The number of tests that were run.
+     * @param passedTestCount The number of tests that passed.
+     * @param failedTestCount The number of tests that failed.
+     * @param skippedTestCount The number of tests that were skipped.
+     * @param totalTestsDuration The duration of the test run.
+     * @return The summary table.
+     */
+    static CharacterTable createSummaryTable(int unmodifiedPassedTests, int unmodifiedSkippedTests, int finishedTestCount, int passedTestCount, int failedTestCount, int skippedTestCount, Duration totalTestsDuration)
+    {
+        PreCondition.assertNotNull(totalTestsDuration, "totalTestsDuration");
+
         final CharacterTable table = CharacterTable.create();
-        if (this.unmodifiedPassedTests > 0 || this.unmodifiedSkippedTests > 0)
+        if (unmodifiedPassedTests > 0 || unmodifiedSkippedTests > 0)
         {
-            table.addRow("Unmodified Tests:", Integers.toString(this.unmodifiedPassedTests + this.unmodifiedSkippedTests));
-            if (this.unmodifiedPassedTests > 0)
+            table.addRow("Unmodified Tests:", Integers.toString(unmodifiedPassedTests + unmodifiedSkippedTests));
+            if (unmodifiedPassedTests > 0)
             {
-                table.addRow("Unmodified Passed Tests:", Integers.toString(this.unmodifiedPassedTests));
+                table.addRow("Unmodified Passed Tests:", Integers.toString(unmodifiedPassedTests));
             }
-            if (this.unmodifiedSkippedTests > 0)
+            if (unmodifiedSkippedTests > 0)
             {
-                table.addRow("Unmodified Skipped Tests:", Integers.toString(this.unmodifiedSkippedTests));
+                table.addRow("Unmodified Skipped Tests:", Integers.toString(unmodifiedSkippedTests));
             }
         }
 
-        if (this.testRunner.getFinishedTestCount() > 0)
+        if (finishedTestCount > 0)
         {
-            table.addRow("Tests Run:", Integers.toString(this.testRunner.getFinishedTestCount()));
-            if (this.testRunner.getPassedTestCount() > 0)
+            table.addRow("Tests Run:", Integers.toString(finishedTestCount));
+            if (passedTestCount > 0)
             {
-                table.addRow("Tests Passed:", Integers.toString(this.testRunner.getPassedTestCount()));
+                table.addRow("Tests Passed:", Integers.toString(passedTestCount));
             }
-            if (this.testRunner.getFailedTestCount() > 0)
+            if (failedTestCount > 0)
             {
-                table.addRow("Tests Failed:", Integers.toString(this.testRunner.getFailedTestCount()));
+                table.addRow("Tests Failed:", Integers.toString(failedTestCount));
             }
-            if (this.testRunner.getSkippedTestCount() > 0)
+            if (skippedTestCount > 0)
             {
-                table.addRow("Tests Skipped:", Integers.toString(this.testRunner.getSkippedTestCount()));
+                table.addRow("Tests Skipped:", Integers.toString(skippedTestCount));
             }
         }
 
-        final Duration totalTestsDuration = stopwatch.stop();
         table.addRow("Tests Duration:", totalTestsDuration.toSeconds().toString("0.0"));
 
-        table.toString(this.writeStream, CharacterTableFormat.consise).await();
-        this.writeStream.writeLine().await();
+        return table;
     }
 }
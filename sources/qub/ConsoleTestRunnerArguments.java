@@ -127,6 +127,168 @@ public interface ConsoleTestRunnerArguments<T>
         return this.addArguments("--coverage=" + coverage);
     }
 
+    /**
+     * Add a coverage-per-test argument to this process builder.
+     * @param coveragePerTest The value of the coverage-per-test argument to add.
+     * @return This object for method chaining.
+     */
+    default T addCoveragePerTest(boolean coveragePerTest)
+    {
+        return this.addArguments("--coverage-per-test=" + coveragePerTest);
+    }
+
+    /**
+     * Add an unmodified-passed-tests argument to this process builder.
+     * @param unmodifiedPassedTests The value of the unmodified-passed-tests argument to add.
+     * @return This object for method chaining.
+     */
+    default T addUnmodifiedPassedTests(int unmodifiedPassedTests)
+    {
+        PreCondition.assertGreaterThanOrEqualTo(unmodifiedPassedTests, 0, "unmodifiedPassedTests");
+
+        return this.addArguments("--unmodified-passed-tests=" + unmodifiedPassedTests);
+    }
+
+    /**
+     * Add an unmodified-skipped-tests argument to this process builder.
+     * @param unmodifiedSkippedTests The value of the unmodified-skipped-tests argument to add.
+     * @return This object for method chaining.
+     */
+    default T addUnmodifiedSkippedTests(int unmodifiedSkippedTests)
+    {
+        PreCondition.assertGreaterThanOrEqualTo(unmodifiedSkippedTests, 0, "unmodifiedSkippedTests");
+
+        return this.addArguments("--unmodified-skipped-tests=" + unmodifiedSkippedTests);
+    }
+
+    /**
+     * Add a startup-file argument to this process builder.
+     * @param startupFile The value of the startup-file argument to add.
+     * @return This object for method chaining.
+     */
+    default T addStartupFile(File startupFile)
+    {
+        PreCondition.assertNotNull(startupFile, "startupFile");
+
+        return this.addArguments("--startup-file=" + startupFile);
+    }
+
+    /**
+     * Add a timings-file argument to this process builder.
+     * @param timingsFile The value of the timings-file argument to add.
+     * @return This object for method chaining.
+     */
+    default T addTimingsFile(File timingsFile)
+    {
+        PreCondition.assertNotNull(timingsFile, "timingsFile");
+
+        return this.addArguments("--timings-file=" + timingsFile);
+    }
+
+    /**
+     * Add a test-timeout argument to this process builder.
+     * @param testTimeoutSeconds The value of the test-timeout argument to add.
+     * @return This object for method chaining.
+     */
+    default T addTestTimeout(int testTimeoutSeconds)
+    {
+        PreCondition.assertGreaterThan(testTimeoutSeconds, 0, "testTimeoutSeconds");
+
+        return this.addArguments("--test-timeout=" + testTimeoutSeconds);
+    }
+
+    /**
+     * Add a class-timeout argument to this process builder.
+     * @param classTimeoutSeconds The value of the class-timeout argument to add.
+     * @return This object for method chaining.
+     */
+    default T addClassTimeout(int classTimeoutSeconds)
+    {
+        PreCondition.assertGreaterThan(classTimeoutSeconds, 0, "classTimeoutSeconds");
+
+        return this.addArguments("--class-timeout=" + classTimeoutSeconds);
+    }
+
+    /**
+     * Add a resume-file argument to this process builder.
+     * @param resumeFile The value of the resume-file argument to add.
+     * @return This object for method chaining.
+     */
+    default T addResumeFile(File resumeFile)
+    {
+        PreCondition.assertNotNull(resumeFile, "resumeFile");
+
+        return this.addArguments("--resume-file=" + resumeFile);
+    }
+
+    /**
+     * Add a test-class-manifest argument to this process builder.
+     * @param testClassManifestFile The value of the test-class-manifest argument to add.
+     * @return This object for method chaining.
+     */
+    default T addTestClassManifest(File testClassManifestFile)
+    {
+        PreCondition.assertNotNull(testClassManifestFile, "testClassManifestFile");
+
+        return this.addArguments("--test-class-manifest=" + testClassManifestFile);
+    }
+
+    /**
+     * Add a benchmark argument to this process builder.
+     * @param benchmark The value of the benchmark argument to add.
+     * @return This object for method chaining.
+     */
+    default T addBenchmark(boolean benchmark)
+    {
+        return this.addArguments("--benchmark=" + benchmark);
+    }
+
+    /**
+     * Add a benchmark-warmup-iterations argument to this process builder.
+     * @param warmupIterations The value of the benchmark-warmup-iterations argument to add.
+     * @return This object for method chaining.
+     */
+    default T addBenchmarkWarmupIterations(int warmupIterations)
+    {
+        PreCondition.assertGreaterThanOrEqualTo(warmupIterations, 0, "warmupIterations");
+
+        return this.addArguments("--benchmark-warmup-iterations=" + warmupIterations);
+    }
+
+    /**
+     * Add a benchmark-iterations argument to this process builder.
+     * @param measuredIterations The value of the benchmark-iterations argument to add.
+     * @return This object for method chaining.
+     */
+    default T addBenchmarkIterations(int measuredIterations)
+    {
+        PreCondition.assertGreaterThan(measuredIterations, 0, "measuredIterations");
+
+        return this.addArguments("--benchmark-iterations=" + measuredIterations);
+    }
+
+    /**
+     * Add a bench-threshold argument to this process builder.
+     * @param benchThresholdPercent The value of the bench-threshold argument to add.
+     * @return This object for method chaining.
+     */
+    default T addBenchThreshold(int benchThresholdPercent)
+    {
+        PreCondition.assertGreaterThanOrEqualTo(benchThresholdPercent, 0, "benchThresholdPercent");
+
+        return this.addArguments("--bench-threshold=" + benchThresholdPercent);
+    }
+
+    /**
+     * Add a bench-update-baseline argument to this process builder.
+     * @param benchUpdateBaseline The value of the bench-update-baseline argument to add.
+     * @return This object for method chaining.
+     */
+    default T addBenchUpdateBaseline(boolean benchUpdateBaseline)
+    {
+        return this.addArguments("--bench-update-baseline=" + benchUpdateBaseline);
+    }
+
     /**
      * Add the full class name arguments to this process builder.
      * @param fullClassNamesToTest The full names of the classes to test.
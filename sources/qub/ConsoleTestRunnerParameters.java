@@ -14,6 +14,21 @@ public class ConsoleTestRunnerParameters
     private Coverage coverage;
     private Boolean testJson;
     private File logFile;
+    private boolean coveragePerTest;
+    private File startupFile;
+    private File timingsFile;
+    private ClassLoader testClassLoader;
+    private Integer testTimeoutSeconds;
+    private Integer classTimeoutSeconds;
+    private File resumeFile;
+    private File testClassManifestFile;
+    private boolean benchmark;
+    private Integer benchmarkWarmupIterations;
+    private Integer benchmarkIterations;
+    private Integer benchThresholdPercent;
+    private boolean benchUpdateBaseline;
+    private int unmodifiedPassedTestCount;
+    private int unmodifiedSkippedTestCount;
 
     /**
      * Create a new ConsoleTestRunnerParameters object.
@@ -127,4 +142,348 @@ public class ConsoleTestRunnerParameters
     {
         return this.logFile;
     }
+
+    /**
+     * Set whether or not the JaCoCo execution data should be collected separately for each test
+     * so that a testcoverage.json index can be written.
+     * @param coveragePerTest Whether or not coverage should be collected separately for each test.
+     * @return This object for method chaining.
+     */
+    public ConsoleTestRunnerParameters setCoveragePerTest(boolean coveragePerTest)
+    {
+        this.coveragePerTest = coveragePerTest;
+        return this;
+    }
+
+    /**
+     * Get whether or not the JaCoCo execution data should be collected separately for each test
+     * so that a testcoverage.json index can be written.
+     * @return Whether or not coverage should be collected separately for each test.
+     */
+    public boolean getCoveragePerTest()
+    {
+        return this.coveragePerTest;
+    }
+
+    /**
+     * Set the file that the number of milliseconds between the JVM starting and the test runner
+     * starting will be written to.
+     * @param startupFile The file that the startup time will be written to, or null if the startup
+     *                    time shouldn't be written.
+     * @return This object for method chaining.
+     */
+    public ConsoleTestRunnerParameters setStartupFile(File startupFile)
+    {
+        this.startupFile = startupFile;
+        return this;
+    }
+
+    /**
+     * Get the file that the number of milliseconds between the JVM starting and the test runner
+     * starting will be written to.
+     * @return The file that the startup time will be written to, or null if the startup time
+     * shouldn't be written.
+     */
+    public File getStartupFile()
+    {
+        return this.startupFile;
+    }
+
+    /**
+     * Set the file that the durations of the test runner's phases will be written to.
+     * @param timingsFile The file that the phase timings will be written to, or null if the phase
+     *                    timings shouldn't be recorded.
+     * @return This object for method chaining.
+     */
+    public ConsoleTestRunnerParameters setTimingsFile(File timingsFile)
+    {
+        this.timingsFile = timingsFile;
+        return this;
+    }
+
+    /**
+     * Get the file that the durations of the test runner's phases will be written to.
+     * @return The file that the phase timings will be written to, or null if the phase timings
+     * shouldn't be recorded.
+     */
+    public File getTimingsFile()
+    {
+        return this.timingsFile;
+    }
+
+    /**
+     * Set the ClassLoader that test classes will be loaded from.
+     * @param testClassLoader The ClassLoader that test classes will be loaded from, or null if
+     *                        test classes should be loaded from the process's TypeLoader.
+     * @return This object for method chaining.
+     */
+    public ConsoleTestRunnerParameters setTestClassLoader(ClassLoader testClassLoader)
+    {
+        this.testClassLoader = testClassLoader;
+        return this;
+    }
+
+    /**
+     * Get the ClassLoader that test classes will be loaded from.
+     * @return The ClassLoader that test classes will be loaded from, or null if test classes
+     * should be loaded from the process's TypeLoader.
+     */
+    public ClassLoader getTestClassLoader()
+    {
+        return this.testClassLoader;
+    }
+
+    /**
+     * Set the number of seconds that a single test can run before it is considered hung.
+     * @param testTimeoutSeconds The number of seconds that a single test can run, or null if tests
+     *                           don't have a timeout.
+     * @return This object for method chaining.
+     */
+    public ConsoleTestRunnerParameters setTestTimeoutSeconds(Integer testTimeoutSeconds)
+    {
+        this.testTimeoutSeconds = testTimeoutSeconds;
+        return this;
+    }
+
+    /**
+     * Get the number of seconds that a single test can run before it is considered hung.
+     * @return The number of seconds that a single test can run, or null if tests don't have a
+     * timeout.
+     */
+    public Integer getTestTimeoutSeconds()
+    {
+        return this.testTimeoutSeconds;
+    }
+
+    /**
+     * Set the number of seconds that a test class can run before it is considered hung.
+     * @param classTimeoutSeconds The number of seconds that a test class can run, or null if test
+     *                            classes don't have a timeout.
+     * @return This object for method chaining.
+     */
+    public ConsoleTestRunnerParameters setClassTimeoutSeconds(Integer classTimeoutSeconds)
+    {
+        this.classTimeoutSeconds = classTimeoutSeconds;
+        return this;
+    }
+
+    /**
+     * Get the number of seconds that a test class can run before it is considered hung.
+     * @return The number of seconds that a test class can run, or null if test classes don't have
+     * a timeout.
+     */
+    public Integer getClassTimeoutSeconds()
+    {
+        return this.classTimeoutSeconds;
+    }
+
+    /**
+     * Set the file that the names of the test classes that didn't run will be written to if the
+     * test runner has to stop because of a hung test. If the file exists when the test runner
+     * starts, then the test classes in it are run instead of the provided test classes.
+     * @param resumeFile The file that the remaining test class names will be written to, or null
+     *                   if the test runner can't be restarted.
+     * @return This object for method chaining.
+     */
+    public ConsoleTestRunnerParameters setResumeFile(File resumeFile)
+    {
+        this.resumeFile = resumeFile;
+        return this;
+    }
+
+    /**
+     * Get the file that the names of the test classes that didn't run will be written to if the
+     * test runner has to stop because of a hung test.
+     * @return The file that the remaining test class names will be written to, or null if the
+     * test runner can't be restarted.
+     */
+    public File getResumeFile()
+    {
+        return this.resumeFile;
+    }
+
+    /**
+     * Set the manifest file that the names of the test classes to run will be streamed through
+     * while they are being discovered. When this is set, the test class names from the manifest
+     * file are run instead of the provided test classes.
+     * @param testClassManifestFile The manifest file that test class names will be read from, or
+     *                              null if the provided test classes should be run.
+     * @return This object for method chaining.
+     */
+    public ConsoleTestRunnerParameters setTestClassManifestFile(File testClassManifestFile)
+    {
+        this.testClassManifestFile = testClassManifestFile;
+        return this;
+    }
+
+    /**
+     * Get the manifest file that the names of the test classes to run will be streamed through.
+     * @return The manifest file that test class names will be read from, or null if the provided
+     * test classes should be run.
+     */
+    public File getTestClassManifestFile()
+    {
+        return this.testClassManifestFile;
+    }
+
+    /**
+     * Set whether or not speed tests will be run as microbenchmarks. When this is true, only the
+     * speed tests are run.
+     * @param benchmark Whether or not speed tests will be run as microbenchmarks.
+     * @return This object for method chaining.
+     */
+    public ConsoleTestRunnerParameters setBenchmark(boolean benchmark)
+    {
+        this.benchmark = benchmark;
+        return this;
+    }
+
+    /**
+     * Get whether or not speed tests will be run as microbenchmarks.
+     * @return Whether or not speed tests will be run as microbenchmarks.
+     */
+    public boolean getBenchmark()
+    {
+        return this.benchmark;
+    }
+
+    /**
+     * Set the number of iterations of each speed test that run before measuring starts.
+     * @param benchmarkWarmupIterations The number of warmup iterations, or null to use the
+     *                                  default.
+     * @return This object for method chaining.
+     */
+    public ConsoleTestRunnerParameters setBenchmarkWarmupIterations(Integer benchmarkWarmupIterations)
+    {
+        PreCondition.assertTrue(benchmarkWarmupIterations == null || benchmarkWarmupIterations >= 0, "benchmarkWarmupIterations == null || benchmarkWarmupIterations >= 0");
+
+        this.benchmarkWarmupIterations = benchmarkWarmupIterations;
+        return this;
+    }
+
+    /**
+     * Get the number of iterations of each speed test that run before measuring starts.
+     * @return The number of warmup iterations, or null to use the default.
+     */
+    public Integer getBenchmarkWarmupIterations()
+    {
+        return this.benchmarkWarmupIterations;
+    }
+
+    /**
+     * Set the number of iterations of each speed test that are measured.
+     * @param benchmarkIterations The number of measured iterations, or null to use the default.
+     * @return This object for method chaining.
+     */
+    public ConsoleTestRunnerParameters setBenchmarkIterations(Integer benchmarkIterations)
+    {
+        PreCondition.assertTrue(benchmarkIterations == null || benchmarkIterations > 0, "benchmarkIterations == null || benchmarkIterations > 0");
+
+        this.benchmarkIterations = benchmarkIterations;
+        return this;
+    }
+
+    /**
+     * Get the number of iterations of each speed test that are measured.
+     * @return The number of measured iterations, or null to use the default.
+     */
+    public Integer getBenchmarkIterations()
+    {
+        return this.benchmarkIterations;
+    }
+
+    /**
+     * Set the number of percent that a benchmarked speed test can get slower than its baseline in
+     * bench.json before it is considered regressed.
+     * @param benchThresholdPercent The regression threshold percentage, or null to use the
+     *                              default.
+     * @return This object for method chaining.
+     */
+    public ConsoleTestRunnerParameters setBenchThresholdPercent(Integer benchThresholdPercent)
+    {
+        PreCondition.assertTrue(benchThresholdPercent == null || benchThresholdPercent >= 0, "benchThresholdPercent == null || benchThresholdPercent >= 0");
+
+        this.benchThresholdPercent = benchThresholdPercent;
+        return this;
+    }
+
+    /**
+     * Get the number of percent that a benchmarked speed test can get slower than its baseline in
+     * bench.json before it is considered regressed.
+     * @return The regression threshold percentage, or null to use the default.
+     */
+    public Integer getBenchThresholdPercent()
+    {
+        return this.benchThresholdPercent;
+    }
+
+    /**
+     * Set whether or not the benchmark results will replace the baselines in bench.json instead of
+     * being compared with them.
+     * @param benchUpdateBaseline Whether or not to replace the baselines.
+     * @return This object for method chaining.
+     */
+    public ConsoleTestRunnerParameters setBenchUpdateBaseline(boolean benchUpdateBaseline)
+    {
+        this.benchUpdateBaseline = benchUpdateBaseline;
+        return this;
+    }
+
+    /**
+     * Get whether or not the benchmark results will replace the baselines in bench.json instead of
+     * being compared with them.
+     * @return Whether or not to replace the baselines.
+     */
+    public boolean getBenchUpdateBaseline()
+    {
+        return this.benchUpdateBaseline;
+    }
+
+    /**
+     * Set the number of passed tests in test classes that the caller already determined don't
+     * need to run. These are reported in the summary as unmodified passed tests.
+     * @param unmodifiedPassedTestCount The number of unmodified passed tests.
+     * @return This object for method chaining.
+     */
+    public ConsoleTestRunnerParameters setUnmodifiedPassedTestCount(int unmodifiedPassedTestCount)
+    {
+        PreCondition.assertGreaterThanOrEqualTo(unmodifiedPassedTestCount, 0, "unmodifiedPassedTestCount");
+
+        this.unmodifiedPassedTestCount = unmodifiedPassedTestCount;
+        return this;
+    }
+
+    /**
+     * Get the number of passed tests in test classes that the caller already determined don't
+     * need to run.
+     * @return The number of unmodified passed tests.
+     */
+    public int getUnmodifiedPassedTestCount()
+    {
+        return this.unmodifiedPassedTestCount;
+    }
+
+    /**
+     * Set the number of skipped tests in test classes that the caller already determined don't
+     * need to run. These are reported in the summary as unmodified skipped tests.
+     * @param unmodifiedSkippedTestCount The number of unmodified skipped tests.
+     * @return This object for method chaining.
+     */
+    public ConsoleTestRunnerParameters setUnmodifiedSkippedTestCount(int unmodifiedSkippedTestCount)
+    {
+        PreCondition.assertGreaterThanOrEqualTo(unmodifiedSkippedTestCount, 0, "unmodifiedSkippedTestCount");
+
+        this.unmodifiedSkippedTestCount = unmodifiedSkippedTestCount;
+        return this;
+    }
+
+    /**
+     * Get the number of skipped tests in test classes that the caller already determined don't
+     * need to run.
+     * @return The number of unmodified skipped tests.
+     */
+    public int getUnmodifiedSkippedTestCount()
+    {
+        return this.unmodifiedSkippedTestCount;
+    }
 }
@@ -0,0 +1,196 @@
+package qub;
+
+/**
+ * The data of the report.json file that is written next to a coverage HTML report. It records
+ * the fingerprint and coverage counters of each package in the report so that later coverage
+ * runs can regenerate only the packages that changed.
+ */
+public class CoverageReportJSON extends JSONObjectWrapperBase
+{
+    private static final String packagesPropertyName = "packages";
+    private static final String fingerprintPropertyName = "fingerprint";
+    private static final String countersPropertyName = "counters";
+
+    /**
+     * The names of the coverage counters that a JaCoCo CSV report has a column for, in the order
+     * of its columns.
+     */
+    public static final Iterable<String> csvCounterNames = Iterable.create(
+        "INSTRUCTION_MISSED",
+        "INSTRUCTION_COVERED",
+        "BRANCH_MISSED",
+        "BRANCH_COVERED",
+        "LINE_MISSED",
+        "LINE_COVERED",
+        "COMPLEXITY_MISSED",
+        "COMPLEXITY_COVERED",
+        "METHOD_MISSED",
+        "METHOD_COVERED");
+
+    /**
+     * The names of the coverage counters that are recorded for each package. These are the
+     * counters of a JaCoCo CSV report followed by the class counters, which are counted from the
+     * class rows of the CSV report.
+     */
+    public static final Iterable<String> counterNames = Iterable.create(
+        "INSTRUCTION_MISSED",
+        "INSTRUCTION_COVERED",
+        "BRANCH_MISSED",
+        "BRANCH_COVERED",
+        "LINE_MISSED",
+        "LINE_COVERED",
+        "COMPLEXITY_MISSED",
+        "COMPLEXITY_COVERED",
+        "METHOD_MISSED",
+        "METHOD_COVERED",
+        "CLASS_MISSED",
+        "CLASS_COVERED");
+
+    private CoverageReportJSON(JSONObject json)
+    {
+        super(json);
+    }
+
+    public static CoverageReportJSON create()
+    {
+        return CoverageReportJSON.create(JSONObject.create());
+    }
+
+    public static CoverageReportJSON create(JSONObject rootObject)
+    {
+        PreCondition.assertNotNull(rootObject, "rootObject");
+
+        return new CoverageReportJSON(rootObject);
+    }
+
+    /**
+     * Parse a CoverageReportJSON object from the provided report.json file.
+     * @param reportJsonFile The report.json file to parse.
+     * @return The parsed CoverageReportJSON object.
+     */
+    public static Result<CoverageReportJSON> parse(File reportJsonFile)
+    {
+        PreCondition.assertNotNull(reportJsonFile, "reportJsonFile");
+
+        return JSON.parseObject(reportJsonFile)
+            .then((JSONObject json) -> CoverageReportJSON.create(json));
+    }
+
+    private JSONObject getPackagesObject()
+    {
+        JSONObject result = this.json.getObject(CoverageReportJSON.packagesPropertyName)
+            .catchError()
+            .await();
+        if (result == null)
+        {
+            result = JSONObject.create();
+            this.json.set(CoverageReportJSON.packagesPropertyName, result);
+        }
+        return result;
+    }
+
+    private JSONObject getPackageObject(String packageName)
+    {
+        PreCondition.assertNotNullAndNotEmpty(packageName, "packageName");
+
+        final JSONObject packagesObject = this.getPackagesObject();
+        JSONObject result = packagesObject.getObject(packageName)
+            .catchError()
+            .await();
+        if (result == null)
+        {
+            result = JSONObject.create();
+            packagesObject.set(packageName, result);
+        }
+        return result;
+    }
+
+    /**
+     * Get the names of the packages that are recorded in this report.
+     * @return The names of the packages that are recorded in this report.
+     */
+    public Iterable<String> getPackageNames()
+    {
+        return this.getPackagesObject().getProperties()
+            .map(JSONProperty::getName)
+            .toList();
+    }
+
+    /**
+     * Get the fingerprint of the class files and execution data that the provided package's
+     * report pages were generated from.
+     * @param packageName The name of the package.
+     * @return The fingerprint of the package, or null if the package isn't recorded.
+     */
+    public String getPackageFingerprint(String packageName)
+    {
+        PreCondition.assertNotNullAndNotEmpty(packageName, "packageName");
+
+        return this.getPackagesObject().getObject(packageName)
+            .then((JSONObject packageObject) -> packageObject.getString(CoverageReportJSON.fingerprintPropertyName).await())
+            .catchError()
+            .await();
+    }
+
+    /**
+     * Set the fingerprint of the class files and execution data that the provided package's
+     * report pages were generated from.
+     * @param packageName The name of the package.
+     * @param fingerprint The fingerprint of the package.
+     * @return This object for method chaining.
+     */
+    public CoverageReportJSON setPackageFingerprint(String packageName, String fingerprint)
+    {
+        PreCondition.assertNotNullAndNotEmpty(packageName, "packageName");
+        PreCondition.assertNotNullAndNotEmpty(fingerprint, "fingerprint");
+
+        this.getPackageObject(packageName).setString(CoverageReportJSON.fingerprintPropertyName, fingerprint);
+
+        return this;
+    }
+
+    /**
+     * Get the value of the provided coverage counter for the provided package.
+     * @param packageName The name of the package.
+     * @param counterName The name of the coverage counter.
+     * @return The value of the coverage counter, or 0 if it isn't recorded.
+     */
+    public int getPackageCounter(String packageName, String counterName)
+    {
+        PreCondition.assertNotNullAndNotEmpty(packageName, "packageName");
+        PreCondition.assertNotNullAndNotEmpty(counterName, "counterName");
+
+        return this.getPackagesObject().getObject(packageName)
+            .then((JSONObject packageObject) -> packageObject.getObject(CoverageReportJSON.countersPropertyName).await())
+            .then((JSONObject countersObject) -> countersObject.getInteger(counterName).await())
+            .catchError(() -> 0)
+            .await();
+    }
+
+    /**
+     * Set the value of the provided coverage counter for the provided package.
+     * @param packageName The name of the package.
+     * @param counterName The name of the coverage counter.
+     * @param value The value of the coverage counter.
+     * @return This object for method chaining.
+     */
+    public CoverageReportJSON setPackageCounter(String packageName, String counterName, int value)
+    {
+        PreCondition.assertNotNullAndNotEmpty(packageName, "packageName");
+        PreCondition.assertNotNullAndNotEmpty(counterName, "counterName");
+        PreCondition.assertGreaterThanOrEqualTo(value, 0, "value");
+
+        final JSONObject packageObject = this.getPackageObject(packageName);
+        JSONObject countersObject = packageObject.getObject(CoverageReportJSON.countersPropertyName)
+            .catchError()
+            .await();
+        if (countersObject == null)
+        {
+            countersObject = JSONObject.create();
+            packageObject.set(CoverageReportJSON.countersPropertyName, countersObject);
+        }
+        countersObject.setNumber(counterName, value);
+
+        return this;
+    }
+}
@@ -0,0 +1,118 @@
+package qub;
+
+/**
+ * Runs ConsoleTestRunner inside of the qub-test JVM instead of in a separate test runner JVM. The
+ * project's output folder and the dependencies that aren't already on the qub-test JVM's
+ * classpath are loaded through a dedicated ClassLoader that is discarded after the tests finish.
+ * Classes that are on the qub-test JVM's classpath (such as the TestRunner types that test
+ * classes are written against) are shared with qub-test.
+ */
+public interface InProcessTestRunner
+{
+    /**
+     * Get the classpath entries that need to be loaded through the isolated ClassLoader. Because
+     * the isolated ClassLoader delegates to the qub-test JVM's ClassLoader first, tests can only
+     * run in-process if every entry of the qub-test JVM's classpath is also part of the test
+     * classpath. If the project replaces one of those entries (for example, with a different
+     * version of a shared dependency), then the tests must run in a separate JVM.
+     * @param classPaths The resolved test classpath.
+     * @param jvmClassPath The classpath of the qub-test JVM.
+     * @return The classpath entries that need to be loaded through the isolated ClassLoader, or
+     * null if the tests can't run in-process.
+     */
+    static Iterable<String> getIsolatedClassPaths(Iterable<String> classPaths, String jvmClassPath)
+    {
+        PreCondition.assertNotNull(classPaths, "classPaths");
+
+        final MutableMap<String,Boolean> jvmClassPathSet = Map.create();
+        if (!Strings.isNullOrEmpty(jvmClassPath))
+        {
+            for (final String jvmClassPathString : jvmClassPath.split(";"))
+            {
+                if (!jvmClassPathString.isEmpty())
+                {
+                    jvmClassPathSet.set(jvmClassPathString, true);
+                }
+            }
+        }
+
+        List<String> result = List.create();
+        for (final String classPath : classPaths)
+        {
+            if (jvmClassPathSet.containsKey(classPath))
+            {
+                jvmClassPathSet.set(classPath, false);
+            }
+            else
+            {
+                result.add(classPath);
+            }
+        }
+
+        if (jvmClassPathSet.getValues().contains((Boolean notInClassPaths) -> notInClassPaths))
+        {
+            result = null;
+        }
+
+        return result;
+    }
+
+    /**
+     * Create the isolated ClassLoader that will load the provided classpath entries.
+     * @param isolatedClassPaths The classpath entries to load.
+     * @return The isolated ClassLoader.
+     */
+    static java.net.URLClassLoader createClassLoader(Iterable<String> isolatedClassPaths)
+    {
+        PreCondition.assertNotNull(isolatedClassPaths, "isolatedClassPaths");
+
+        final java.net.URL[] urls = new java.net.URL[isolatedClassPaths.getCount()];
+        int index = 0;
+        for (final String isolatedClassPath : isolatedClassPaths)
+        {
+            try
+            {
+                urls[index] = java.nio.file.Paths.get(isolatedClassPath).toUri().toURL();
+            }
+            catch (java.net.MalformedURLException e)
+            {
+                throw new RuntimeException(e);
+            }
+            ++index;
+        }
+        return new java.net.URLClassLoader(urls, InProcessTestRunner.class.getClassLoader());
+    }
+
+    /**
+     * Run ConsoleTestRunner with the provided parameters in this JVM. The test classes are loaded
+     * through a new isolated ClassLoader that is closed when the tests finish.
+     * @param parameters The parameters to run ConsoleTestRunner with.
+     * @param isolatedClassPaths The classpath entries that the isolated ClassLoader will load.
+     * @return The exit code of the test run.
+     */
+    static int run(ConsoleTestRunnerParameters parameters, Iterable<String> isolatedClassPaths)
+    {
+        PreCondition.assertNotNull(parameters, "parameters");
+        PreCondition.assertNotNull(isolatedClassPaths, "isolatedClassPaths");
+
+        final Thread currentThread = Thread.currentThread();
+        final ClassLoader previousContextClassLoader = currentThread.getContextClassLoader();
+        final java.net.URLClassLoader testClassLoader = InProcessTestRunner.createClassLoader(isolatedClassPaths);
+        try
+        {
+            currentThread.setContextClassLoader(testClassLoader);
+            return ConsoleTestRunner.run(parameters.setTestClassLoader(testClassLoader));
+        }
+        finally
+        {
+            currentThread.setContextClassLoader(previousContextClassLoader);
+            try
+            {
+                testClassLoader.close();
+            }
+            catch (java.io.IOException ignored)
+            {
+            }
+        }
+    }
+}
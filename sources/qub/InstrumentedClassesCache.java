@@ -0,0 +1,228 @@
+package qub;
+
+/**
+ * A folder that contains JaCoCo offline-instrumented copies of a project's class files. Each
+ * instrumented class file is reused until the content hash of its original class file changes.
+ * Instrumented class files reference the runtime of the JaCoCo version that instrumented them, so
+ * the whole cache is invalidated when the JaCoCo jars change.
+ */
+public class InstrumentedClassesCache
+{
+    private static final String instrumenterKeyPropertyName = "instrumenter";
+    private static final String classFilesPropertyName = "classFiles";
+
+    private final Folder cacheFolder;
+
+    private InstrumentedClassesCache(Folder cacheFolder)
+    {
+        PreCondition.assertNotNull(cacheFolder, "cacheFolder");
+
+        this.cacheFolder = cacheFolder;
+    }
+
+    /**
+     * Create a new InstrumentedClassesCache that is stored in the provided folder.
+     * @param cacheFolder The folder that the cache is stored in.
+     * @return The new InstrumentedClassesCache.
+     */
+    public static InstrumentedClassesCache create(Folder cacheFolder)
+    {
+        return new InstrumentedClassesCache(cacheFolder);
+    }
+
+    /**
+     * Create a new InstrumentedClassesCache for the provided project folder that is stored in the
+     * provided qub-test data folder.
+     * @param qubTestDataFolder The data folder of the qub-test application.
+     * @param projectFolder The folder of the project whose class files will be instrumented.
+     * @return The new InstrumentedClassesCache.
+     */
+    public static InstrumentedClassesCache create(Folder qubTestDataFolder, Folder projectFolder)
+    {
+        PreCondition.assertNotNull(qubTestDataFolder, "qubTestDataFolder");
+        PreCondition.assertNotNull(projectFolder, "projectFolder");
+
+        final String projectKey = QubTestHash.hash(projectFolder.toString()).substring(0, 16);
+        return InstrumentedClassesCache.create(qubTestDataFolder.getFolder("instrumented/" + projectKey).await());
+    }
+
+    /**
+     * Get the key of the provided JaCoCo jars. The key changes when either jar's contents change,
+     * such as when a new version of JaCoCo is installed.
+     * @param jacocoCliJarFile The jacococli.jar file that instruments the class files.
+     * @param jacocoAgentJarFile The jacocoagent.jar file that contains the runtime that the
+     *                           instrumented class files reference.
+     * @return The key of the provided JaCoCo jars.
+     */
+    public static Result<String> getInstrumenterKey(File jacocoCliJarFile, File jacocoAgentJarFile)
+    {
+        PreCondition.assertNotNull(jacocoCliJarFile, "jacocoCliJarFile");
+        PreCondition.assertNotNull(jacocoAgentJarFile, "jacocoAgentJarFile");
+
+        return Result.create2(() ->
+        {
+            final String jacocoCliJarHash = QubTestHash.hash(jacocoCliJarFile).await();
+            final String jacocoAgentJarHash = QubTestHash.hash(jacocoAgentJarFile).await();
+            return QubTestHash.hash(jacocoCliJarHash + "\n" + jacocoAgentJarHash);
+        });
+    }
+
+    /**
+     * Get the folder that this cache is stored in.
+     * @return The folder that this cache is stored in.
+     */
+    public Folder getCacheFolder()
+    {
+        return this.cacheFolder;
+    }
+
+    /**
+     * Get the folder that contains the instrumented class files. This folder should be added to
+     * the classpath before the original output folder.
+     * @return The folder that contains the instrumented class files.
+     */
+    public Folder getClassesFolder()
+    {
+        return this.cacheFolder.getFolder("classes").await();
+    }
+
+    /**
+     * Get the folder that out of date class files are copied to before they are instrumented.
+     * @return The folder that out of date class files are copied to before they are instrumented.
+     */
+    public Folder getStagingFolder()
+    {
+        return this.cacheFolder.getFolder("staging").await();
+    }
+
+    /**
+     * Get the file that records the key of the JaCoCo jars that instrumented the cached class files
+     * and that maps each instrumented class file to the content hash of the original class file
+     * that it was instrumented from.
+     * @return The file that maps each instrumented class file to its original content hash.
+     */
+    public File getIndexFile()
+    {
+        return this.cacheFolder.getFile("instrumented.json").await();
+    }
+
+    /**
+     * Update this cache so that it contains an instrumented copy of each of the provided class
+     * files. Only the class files whose contents have changed since the last update will be
+     * instrumented, unless the instrumenter key has changed, in which case every class file will
+     * be instrumented again.
+     * @param instrumenterKey The key of the JaCoCo jars that will instrument the class files.
+     * @param outputFolder The output folder that contains the provided class files.
+     * @param classFiles The class files that should be instrumented.
+     * @param verbose The stream that verbose logs will be written to.
+     * @param instrumentFunction The function that will instrument the class files in the staging
+     *                           folder (the first argument) into the classes folder (the second
+     *                           argument) and return the instrumenting process's exit code.
+     * @return The exit code of the instrumentation, or 0 if no class files needed to be
+     * instrumented.
+     */
+    public Result<Integer> update(String instrumenterKey, Folder outputFolder, Iterable<File> classFiles, VerboseCharacterToByteWriteStream verbose, Function2<Folder,Folder,Integer> instrumentFunction)
+    {
+        PreCondition.assertNotNullAndNotEmpty(instrumenterKey, "instrumenterKey");
+        PreCondition.assertNotNull(outputFolder, "outputFolder");
+        PreCondition.assertNotNull(classFiles, "classFiles");
+        PreCondition.assertNotNull(verbose, "verbose");
+        PreCondition.assertNotNull(instrumentFunction, "instrumentFunction");
+
+        return Result.create2(() ->
+        {
+            final File indexFile = this.getIndexFile();
+            final Folder classesFolder = this.getClassesFolder();
+            final Folder stagingFolder = this.getStagingFolder();
+
+            final JSONObject previousIndexJson = JSON.parseObject(indexFile)
+                .catchError()
+                .await();
+            final String previousInstrumenterKey = previousIndexJson == null
+                ? null
+                : previousIndexJson.getString(InstrumentedClassesCache.instrumenterKeyPropertyName).catchError().await();
+            JSONObject previousIndex = null;
+            if (instrumenterKey.equals(previousInstrumenterKey))
+            {
+                previousIndex = previousIndexJson.getObject(InstrumentedClassesCache.classFilesPropertyName).catchError().await();
+            }
+            else if (classesFolder.exists().await())
+            {
+                verbose.writeLine("The JaCoCo jars have changed. Removing all instrumented class files...").await();
+                classesFolder.delete()
+                    .catchError(FolderNotFoundException.class)
+                    .await();
+            }
+
+            stagingFolder.delete()
+                .catchError(FolderNotFoundException.class)
+                .await();
+
+            final JSONObject index = JSONObject.create();
+            int staleClassFileCount = 0;
+            for (final File classFile : classFiles)
+            {
+                final String classFileRelativePath = classFile.relativeTo(outputFolder).toString();
+                final byte[] classFileContents = classFile.getContents().await();
+                final String classFileHash = QubTestHash.hash(classFileContents);
+                index.setString(classFileRelativePath, classFileHash);
+
+                final String previousClassFileHash = previousIndex == null
+                    ? null
+                    : previousIndex.getString(classFileRelativePath).catchError().await();
+                if (!classFileHash.equals(previousClassFileHash) || !classesFolder.fileExists(classFileRelativePath).await())
+                {
+                    stagingFolder.getFile(classFileRelativePath).await()
+                        .setContents(classFileContents).await();
+                    ++staleClassFileCount;
+                }
+            }
+
+            if (previousIndex != null)
+            {
+                for (final JSONProperty previousProperty : previousIndex.getProperties())
+                {
+                    final String classFileRelativePath = previousProperty.getName();
+                    if (index.getString(classFileRelativePath).catchError().await() == null)
+                    {
+                        verbose.writeLine("Removing instrumented class file for deleted class file " + classFileRelativePath + "...").await();
+                        classesFolder.getFile(classFileRelativePath).await()
+                            .delete()
+                            .catchError(FileNotFoundException.class)
+                            .await();
+                    }
+                }
+            }
+
+            int exitCode = 0;
+            if (staleClassFileCount == 0)
+            {
+                verbose.writeLine("All instrumented class files are up to date.").await();
+            }
+            else
+            {
+                verbose.writeLine("Instrumenting " + staleClassFileCount + " class file" + (staleClassFileCount == 1 ? "" : "s") + "...").await();
+                try
+                {
+                    exitCode = instrumentFunction.run(stagingFolder, classesFolder);
+                }
+                finally
+                {
+                    stagingFolder.delete()
+                        .catchError(FolderNotFoundException.class)
+                        .await();
+                }
+            }
+
+            if (exitCode == 0)
+            {
+                indexFile.setContentsAsString(JSONObject.create()
+                    .setString(InstrumentedClassesCache.instrumenterKeyPropertyName, instrumenterKey)
+                    .set(InstrumentedClassesCache.classFilesPropertyName, index)
+                    .toString(JSONFormat.pretty)).await();
+            }
+
+            return exitCode;
+        });
+    }
+}
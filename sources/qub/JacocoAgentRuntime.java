@@ -0,0 +1,79 @@
+package qub;
+
+/**
+ * A wrapper around the runtime API of a JaCoCo agent that is attached to the current JVM. The
+ * agent is accessed through reflection so that qub-test doesn't need to depend on JaCoCo's
+ * libraries.
+ */
+public class JacocoAgentRuntime
+{
+    private final Object agent;
+    private final java.lang.reflect.Method getExecutionDataMethod;
+    private final java.lang.reflect.Method dumpMethod;
+
+    private JacocoAgentRuntime(Object agent) throws ReflectiveOperationException
+    {
+        PreCondition.assertNotNull(agent, "agent");
+
+        this.agent = agent;
+        final Class<?> agentInterface = Class.forName("org.jacoco.agent.rt.IAgent", true, agent.getClass().getClassLoader());
+        this.getExecutionDataMethod = agentInterface.getMethod("getExecutionData", boolean.class);
+        this.dumpMethod = agentInterface.getMethod("dump", boolean.class);
+    }
+
+    /**
+     * Get the JaCoCo agent runtime that is attached to the current JVM.
+     * @return The JaCoCo agent runtime that is attached to the current JVM, or null if no JaCoCo
+     * agent is attached.
+     */
+    public static JacocoAgentRuntime get()
+    {
+        JacocoAgentRuntime result;
+        try
+        {
+            final Class<?> rtClass = Class.forName("org.jacoco.agent.rt.RT");
+            final Object agent = rtClass.getMethod("getAgent").invoke(null);
+            result = new JacocoAgentRuntime(agent);
+        }
+        catch (Throwable e)
+        {
+            result = null;
+        }
+        return result;
+    }
+
+    /**
+     * Get the execution data that has been collected since the last reset, in the same format as
+     * a coverage.exec file.
+     * @param reset Whether or not the collected execution data should be reset.
+     * @return The execution data that has been collected since the last reset.
+     */
+    public byte[] getExecutionData(boolean reset)
+    {
+        try
+        {
+            return (byte[])this.getExecutionDataMethod.invoke(this.agent, reset);
+        }
+        catch (ReflectiveOperationException e)
+        {
+            throw new RuntimeException(e);
+        }
+    }
+
+    /**
+     * Write the execution data that has been collected since the last reset to the agent's
+     * configured output (normally the coverage.exec file).
+     * @param reset Whether or not the collected execution data should be reset.
+     */
+    public void dump(boolean reset)
+    {
+        try
+        {
+            this.dumpMethod.invoke(this.agent, reset);
+        }
+        catch (ReflectiveOperationException e)
+        {
+            throw new RuntimeException(e);
+        }
+    }
+}
@@ -0,0 +1,130 @@
+package qub;
+
+/**
+ * Functions for reading the execution data that the JaCoCo agent writes to a coverage.exec file.
+ */
+public interface JacocoExecFile
+{
+    byte headerBlockType = 0x01;
+    byte sessionInfoBlockType = 0x10;
+    byte executionDataBlockType = 0x11;
+
+    /**
+     * Get the probes that were hit for each class in the provided coverage.exec file. If a class
+     * appears in more than one session, then its probes are merged together.
+     * @param execFile The coverage.exec file to read.
+     * @return A map from each class's full name to a String that contains a '1' for each probe that
+     * was hit and a '0' for each probe that was not hit.
+     */
+    static Result<MutableMap<String,String>> getClassProbes(File execFile)
+    {
+        PreCondition.assertNotNull(execFile, "execFile");
+
+        return Result.create2(() ->
+        {
+            final byte[] execFileContents = execFile.getContents().await();
+            return JacocoExecFile.getClassProbes(execFileContents);
+        });
+    }
+
+    /**
+     * Get the probes that were hit for each class in the provided coverage.exec file contents. If
+     * a class appears in more than one session, then its probes are merged together.
+     * @param execFileContents The contents of a coverage.exec file.
+     * @return A map from each class's full name to a String that contains a '1' for each probe that
+     * was hit and a '0' for each probe that was not hit.
+     */
+    static MutableMap<String,String> getClassProbes(byte[] execFileContents)
+    {
+        PreCondition.assertNotNull(execFileContents, "execFileContents");
+
+        final MutableMap<String,boolean[]> classProbes = Map.create();
+        final List<String> fullClassNames = List.create();
+        try (final java.io.DataInputStream input = new java.io.DataInputStream(new java.io.ByteArrayInputStream(execFileContents)))
+        {
+            int blockType;
+            while ((blockType = input.read()) != -1)
+            {
+                if (blockType == JacocoExecFile.headerBlockType)
+                {
+                    input.readChar(); // Magic number
+                    input.readChar(); // Format version
+                }
+                else if (blockType == JacocoExecFile.sessionInfoBlockType)
+                {
+                    input.readUTF(); // Session id
+                    input.readLong(); // Start time
+                    input.readLong(); // Dump time
+                }
+                else if (blockType == JacocoExecFile.executionDataBlockType)
+                {
+                    input.readLong(); // Class id
+                    final String fullClassName = input.readUTF().replace('/', '.');
+                    final boolean[] probes = JacocoExecFile.readBooleanArray(input);
+
+                    final boolean[] existingProbes = classProbes.get(fullClassName).catchError().await();
+                    if (existingProbes == null)
+                    {
+                        fullClassNames.add(fullClassName);
+                        classProbes.set(fullClassName, probes);
+                    }
+                    else
+                    {
+                        for (int i = 0; i < Math.min(existingProbes.length, probes.length); ++i)
+                        {
+                            existingProbes[i] |= probes[i];
+                        }
+                    }
+                }
+                else
+                {
+                    throw new ParseException("Unrecognized coverage.exec block type: " + blockType);
+                }
+            }
+        }
+        catch (java.io.IOException e)
+        {
+            throw new RuntimeException(e);
+        }
+
+        final MutableMap<String,String> result = Map.create();
+        for (final String fullClassName : fullClassNames)
+        {
+            final boolean[] probes = classProbes.get(fullClassName).await();
+            final char[] probeCharacters = new char[probes.length];
+            for (int i = 0; i < probes.length; ++i)
+            {
+                probeCharacters[i] = probes[i] ? '1' : '0';
+            }
+            result.set(fullClassName, new String(probeCharacters));
+        }
+
+        PostCondition.assertNotNull(result, "result");
+
+        return result;
+    }
+
+    static int readVarInt(java.io.DataInputStream input) throws java.io.IOException
+    {
+        final int value = 0xFF & input.readByte();
+        return (value & 0x80) == 0
+            ? value
+            : (value & 0x7F) | (JacocoExecFile.readVarInt(input) << 7);
+    }
+
+    static boolean[] readBooleanArray(java.io.DataInputStream input) throws java.io.IOException
+    {
+        final boolean[] result = new boolean[JacocoExecFile.readVarInt(input)];
+        int buffer = 0;
+        for (int i = 0; i < result.length; ++i)
+        {
+            if ((i % 8) == 0)
+            {
+                buffer = input.readByte();
+            }
+            result[i] = (buffer & 0x01) != 0;
+            buffer >>>= 1;
+        }
+        return result;
+    }
+}
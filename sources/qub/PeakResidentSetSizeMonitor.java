@@ -0,0 +1,257 @@
+package qub;
+
+/**
+ * Measures the peak resident set size of this process and of every process that it starts, such
+ * as the forked test runner of a qub-test run. The peak of this process is reset when the monitor
+ * starts, and the peaks of the descendant processes are read from their /proc/[pid]/status files
+ * on a background thread while they run. Like /usr/bin/time, the measurement is the peak of the
+ * largest process. This is only supported on Linux.
+ */
+public class PeakResidentSetSizeMonitor
+{
+    private static final long pollMilliseconds = 20;
+
+    private final String processId;
+    private final MutableMap<String,Long> peakKilobytes;
+    private Thread monitorThread;
+    private volatile boolean stopped;
+
+    private PeakResidentSetSizeMonitor(String processId)
+    {
+        this.processId = processId;
+        this.peakKilobytes = Map.create();
+    }
+
+    /**
+     * Create a new PeakResidentSetSizeMonitor for this process.
+     * @return The new PeakResidentSetSizeMonitor.
+     */
+    public static PeakResidentSetSizeMonitor create()
+    {
+        String processId = null;
+        try
+        {
+            processId = java.nio.file.Files.readSymbolicLink(java.nio.file.Paths.get("/proc/self")).toString();
+        }
+        catch (java.io.IOException | UnsupportedOperationException | SecurityException ignored)
+        {
+        }
+        return new PeakResidentSetSizeMonitor(processId);
+    }
+
+    /**
+     * Reset the peak resident set size of this process and start monitoring the processes that
+     * this process starts.
+     * @return This object for method chaining.
+     */
+    public PeakResidentSetSizeMonitor start()
+    {
+        PreCondition.assertTrue(this.monitorThread == null, "this.monitorThread == null");
+
+        try
+        {
+            java.nio.file.Files.write(java.nio.file.Paths.get("/proc/self/clear_refs"), "5".getBytes());
+        }
+        catch (java.io.IOException | UnsupportedOperationException | SecurityException ignored)
+        {
+        }
+
+        if (this.processId != null)
+        {
+            this.monitorThread = new Thread(() ->
+            {
+                while (!this.stopped)
+                {
+                    this.sampleDescendants();
+                    try
+                    {
+                        Thread.sleep(PeakResidentSetSizeMonitor.pollMilliseconds);
+                    }
+                    catch (InterruptedException e)
+                    {
+                        break;
+                    }
+                }
+            }, "qub-test: peak resident set size monitor");
+            this.monitorThread.setDaemon(true);
+            this.monitorThread.start();
+        }
+
+        return this;
+    }
+
+    /**
+     * Stop monitoring and get the peak resident set size of the largest of this process and the
+     * processes that it started since the monitor started.
+     * @return The peak resident set size in kilobytes, or null if it isn't available on this
+     * operating system.
+     */
+    public Long stop()
+    {
+        Long result = null;
+        if (this.monitorThread != null)
+        {
+            this.stopped = true;
+            try
+            {
+                this.monitorThread.join();
+            }
+            catch (InterruptedException e)
+            {
+                throw new RuntimeException(e);
+            }
+
+            result = PeakResidentSetSizeMonitor.getPeakKilobytes(this.processId);
+            for (final Long descendantPeakKilobytes : this.peakKilobytes.getValues())
+            {
+                if (result == null || result < descendantPeakKilobytes)
+                {
+                    result = descendantPeakKilobytes;
+                }
+            }
+        }
+        return result;
+    }
+
+    private void sampleDescendants()
+    {
+        final MutableMap<String,List<String>> childProcessIds = Map.create();
+        try (final java.nio.file.DirectoryStream<java.nio.file.Path> processFolders = java.nio.file.Files.newDirectoryStream(java.nio.file.Paths.get("/proc")))
+        {
+            for (final java.nio.file.Path processFolder : processFolders)
+            {
+                final String processId = processFolder.getFileName().toString();
+                if (PeakResidentSetSizeMonitor.isProcessId(processId))
+                {
+                    final String parentProcessId = PeakResidentSetSizeMonitor.getParentProcessId(processId);
+                    if (parentProcessId != null)
+                    {
+                        List<String> siblingProcessIds = childProcessIds.get(parentProcessId).catchError().await();
+                        if (siblingProcessIds == null)
+                        {
+                            siblingProcessIds = List.create();
+                            childProcessIds.set(parentProcessId, siblingProcessIds);
+                        }
+                        siblingProcessIds.add(processId);
+                    }
+                }
+            }
+        }
+        catch (java.io.IOException | SecurityException ignored)
+        {
+        }
+
+        final List<String> processIdsToVisit = List.create();
+        processIdsToVisit.addAll(childProcessIds.get(this.processId).catchError(() -> List.create()).await());
+        while (processIdsToVisit.any())
+        {
+            final int lastIndex = processIdsToVisit.getCount() - 1;
+            final String descendantProcessId = processIdsToVisit.get(lastIndex);
+            processIdsToVisit.removeAt(lastIndex);
+
+            // A process's peak never goes down, so the latest sample of a process that has exited
+            // is its peak.
+            final Long descendantPeakKilobytes = PeakResidentSetSizeMonitor.getPeakKilobytes(descendantProcessId);
+            if (descendantPeakKilobytes != null)
+            {
+                this.peakKilobytes.set(descendantProcessId, descendantPeakKilobytes);
+            }
+            processIdsToVisit.addAll(childProcessIds.get(descendantProcessId).catchError(() -> List.create()).await());
+        }
+    }
+
+    private static boolean isProcessId(String fileName)
+    {
+        boolean result = !Strings.isNullOrEmpty(fileName);
+        for (int i = 0; result && i < fileName.length(); ++i)
+        {
+            result = Character.isDigit(fileName.charAt(i));
+        }
+        return result;
+    }
+
+    private static String getParentProcessId(String processId)
+    {
+        String result = null;
+        try
+        {
+            final byte[] statBytes = java.nio.file.Files.readAllBytes(java.nio.file.Paths.get("/proc", processId, "stat"));
+            result = PeakResidentSetSizeMonitor.parseParentProcessId(new String(statBytes, java.nio.charset.StandardCharsets.UTF_8));
+        }
+        catch (java.io.IOException | SecurityException ignored)
+        {
+            // The process exited before its stat file could be read.
+        }
+        return result;
+    }
+
+    private static Long getPeakKilobytes(String processId)
+    {
+        Long result = null;
+        try
+        {
+            for (final String line : java.nio.file.Files.readAllLines(java.nio.file.Paths.get("/proc", processId, "status")))
+            {
+                if (line.startsWith("VmHWM:"))
+                {
+                    result = PeakResidentSetSizeMonitor.parseStatusKilobytes(line);
+                    break;
+                }
+            }
+        }
+        catch (java.io.IOException | SecurityException ignored)
+        {
+        }
+        return result;
+    }
+
+    /**
+     * Parse the parent process id from the contents of a /proc/[pid]/stat file, such as
+     * "1234 (java) S 1200 ...". The process name can contain spaces and parentheses, so the fields
+     * are read after its last closing parenthesis.
+     * @param statContents The contents of the stat file.
+     * @return The parent process id, or null if the contents don't contain one.
+     */
+    static String parseParentProcessId(String statContents)
+    {
+        PreCondition.assertNotNull(statContents, "statContents");
+
+        String result = null;
+        final int processNameEndIndex = statContents.lastIndexOf(')');
+        if (processNameEndIndex != -1)
+        {
+            final String[] fields = statContents.substring(processNameEndIndex + 1).trim().split(" ");
+            if (fields.length >= 2 && PeakResidentSetSizeMonitor.isProcessId(fields[1]))
+            {
+                result = fields[1];
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Parse the number of kilobytes from a line of a /proc/[pid]/status file, such as
+     * "VmHWM:     123456 kB".
+     * @param statusLine The line to parse.
+     * @return The number of kilobytes, or null if the line doesn't contain a number of kilobytes.
+     */
+    static Long parseStatusKilobytes(String statusLine)
+    {
+        PreCondition.assertNotNull(statusLine, "statusLine");
+
+        Long result = null;
+        final int colonIndex = statusLine.indexOf(':');
+        final String value = statusLine.substring(colonIndex + 1).trim();
+        if (value.endsWith("kB"))
+        {
+            try
+            {
+                result = Long.parseLong(value.substring(0, value.length() - 2).trim());
+            }
+            catch (NumberFormatException ignored)
+            {
+            }
+        }
+        return result;
+    }
+}
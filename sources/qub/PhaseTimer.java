@@ -0,0 +1,86 @@
+package qub;
+
+/**
+ * A timer that records the durations of a sequence of consecutive phases into a PhaseTimings
+ * object. Each phase starts when the previous phase ends (or when the timer was created), so the
+ * recorded phases cover all of the time that has passed. A PhaseTimer that was created without a
+ * Clock doesn't record anything.
+ */
+public class PhaseTimer
+{
+    private final Clock clock;
+    private final PhaseTimings timings;
+    private Stopwatch stopwatch;
+
+    private PhaseTimer(Clock clock)
+    {
+        this.clock = clock;
+        this.timings = PhaseTimings.create();
+        this.restart();
+    }
+
+    /**
+     * Create a new PhaseTimer that doesn't record anything.
+     * @return The new PhaseTimer.
+     */
+    public static PhaseTimer create()
+    {
+        return new PhaseTimer(null);
+    }
+
+    /**
+     * Create a new PhaseTimer that uses the provided Clock to measure phases. The first phase
+     * starts now.
+     * @param clock The Clock that will be used to measure phases.
+     * @return The new PhaseTimer.
+     */
+    public static PhaseTimer create(Clock clock)
+    {
+        PreCondition.assertNotNull(clock, "clock");
+
+        return new PhaseTimer(clock);
+    }
+
+    private void restart()
+    {
+        if (this.clock != null)
+        {
+            this.stopwatch = this.clock.createStopwatch();
+            this.stopwatch.start();
+        }
+    }
+
+    /**
+     * Get whether or not this PhaseTimer records phases.
+     * @return Whether or not this PhaseTimer records phases.
+     */
+    public boolean isEnabled()
+    {
+        return this.clock != null;
+    }
+
+    /**
+     * End the current phase and record its duration with the provided name. The next phase starts
+     * immediately.
+     * @param phaseName The name of the phase that ended.
+     */
+    public void endPhase(String phaseName)
+    {
+        PreCondition.assertNotNullAndNotEmpty(phaseName, "phaseName");
+
+        if (this.isEnabled())
+        {
+            this.timings.addPhase(phaseName, this.stopwatch.stop());
+            this.restart();
+        }
+    }
+
+    /**
+     * Get the phase timings that this PhaseTimer has recorded.
+     * @return The phase timings that this PhaseTimer has recorded.
+     */
+    public PhaseTimings getTimings()
+    {
+        return this.timings;
+    }
+}
@@ -0,0 +1,264 @@
+package qub;
+
+/**
+ * The durations of the phases of a test run. Each phase can have its own sub-phases, such as the
+ * phases that ran inside of the test runner JVM:
+ * <pre>
+ * {
+ *   "phases": {
+ *     "Compile": { "milliseconds": 1200 },
+ *     "Run test runner": {
+ *       "milliseconds": 3400,
+ *       "phases": {
+ *         "JVM startup": { "milliseconds": 250 }
+ *       }
+ *     }
+ *   }
+ * }
+ * </pre>
+ */
+public class PhaseTimings extends JSONObjectWrapperBase
+{
+    private static final String phasesPropertyName = "phases";
+    private static final String millisecondsPropertyName = "milliseconds";
+
+    private PhaseTimings(JSONObject json)
+    {
+        super(json);
+    }
+
+    public static PhaseTimings create()
+    {
+        return PhaseTimings.create(JSONObject.create());
+    }
+
+    public static PhaseTimings create(JSONObject json)
+    {
+        PreCondition.assertNotNull(json, "json");
+
+        return new PhaseTimings(json);
+    }
+
+    /**
+     * Parse a PhaseTimings object from the provided file.
+     * @param timingsFile The file to parse.
+     * @return The parsed PhaseTimings object.
+     */
+    public static Result<PhaseTimings> parse(File timingsFile)
+    {
+        PreCondition.assertNotNull(timingsFile, "timingsFile");
+
+        return JSON.parseObject(timingsFile)
+            .then((JSONObject json) -> PhaseTimings.create(json));
+    }
+
+    /**
+     * Get the file in the qub-test data folder that the phase timings of the most recent test run
+     * of the provided project are written to.
+     * @param qubTestDataFolder The data folder of the qub-test application.
+     * @param projectFolder The folder of the project that was tested.
+     * @return The file that the phase timings are written to.
+     */
+    public static File getFile(Folder qubTestDataFolder, Folder projectFolder)
+    {
+        PreCondition.assertNotNull(qubTestDataFolder, "qubTestDataFolder");
+        PreCondition.assertNotNull(projectFolder, "projectFolder");
+
+        return qubTestDataFolder.getFile("timings/" + PhaseTimings.getProjectKey(projectFolder) + ".json").await();
+    }
+
+    /**
+     * Get the file in the qub-test data folder that the test runner JVM writes its phase timings
+     * to.
+     * @param qubTestDataFolder The data folder of the qub-test application.
+     * @param projectFolder The folder of the project that is being tested.
+     * @return The file that the test runner JVM writes its phase timings to.
+     */
+    public static File getTestRunnerFile(Folder qubTestDataFolder, Folder projectFolder)
+    {
+        PreCondition.assertNotNull(qubTestDataFolder, "qubTestDataFolder");
+        PreCondition.assertNotNull(projectFolder, "projectFolder");
+
+        return qubTestDataFolder.getFile("timings/" + PhaseTimings.getProjectKey(projectFolder) + ".runner.json").await();
+    }
+
+    private static String getProjectKey(Folder projectFolder)
+    {
+        return QubTestHash.hash(projectFolder.toString()).substring(0, 16);
+    }
+
+    private JSONObject getPhasesObject()
+    {
+        JSONObject result = this.json.getObject(PhaseTimings.phasesPropertyName)
+            .catchError()
+            .await();
+        if (result == null)
+        {
+            result = JSONObject.create();
+            this.json.set(PhaseTimings.phasesPropertyName, result);
+        }
+        return result;
+    }
+
+    private JSONObject getPhaseObject(String phaseName)
+    {
+        final JSONObject phasesObject = this.getPhasesObject();
+        JSONObject result = phasesObject.getObject(phaseName)
+            .catchError()
+            .await();
+        if (result == null)
+        {
+            result = JSONObject.create();
+            phasesObject.set(phaseName, result);
+        }
+        return result;
+    }
+
+    /**
+     * Add the provided duration to the phase with the provided name. If the phase already has a
+     * duration, then the provided duration will be added to it.
+     * @param phaseName The name of the phase.
+     * @param duration The duration to add to the phase.
+     * @return This object for method chaining.
+     */
+    public PhaseTimings addPhase(String phaseName, Duration duration)
+    {
+        PreCondition.assertNotNullAndNotEmpty(phaseName, "phaseName");
+        PreCondition.assertNotNull(duration, "duration");
+
+        return this.addPhase(phaseName, (int)duration.toMilliseconds().getValue());
+    }
+
+    /**
+     * Add the provided number of milliseconds to the phase with the provided name. If the phase
+     * already has a duration, then the provided milliseconds will be added to it.
+     * @param phaseName The name of the phase.
+     * @param milliseconds The number of milliseconds to add to the phase.
+     * @return This object for method chaining.
+     */
+    public PhaseTimings addPhase(String phaseName, int milliseconds)
+    {
+        PreCondition.assertNotNullAndNotEmpty(phaseName, "phaseName");
+        PreCondition.assertGreaterThanOrEqualTo(milliseconds, 0, "milliseconds");
+
+        final JSONObject phaseObject = this.getPhaseObject(phaseName);
+        final int previousMilliseconds = phaseObject.getInteger(PhaseTimings.millisecondsPropertyName)
+            .catchError(() -> 0)
+            .await();
+        phaseObject.setNumber(PhaseTimings.millisecondsPropertyName, previousMilliseconds + milliseconds);
+        return this;
+    }
+
+    /**
+     * Set the sub-phases of the phase with the provided name.
+     * @param phaseName The name of the phase.
+     * @param subPhases The sub-phases of the phase.
+     * @return This object for method chaining.
+     */
+    public PhaseTimings setSubPhases(String phaseName, PhaseTimings subPhases)
+    {
+        PreCondition.assertNotNullAndNotEmpty(phaseName, "phaseName");
+        PreCondition.assertNotNull(subPhases, "subPhases");
+
+        this.getPhaseObject(phaseName).set(PhaseTimings.phasesPropertyName, subPhases.getPhasesObject());
+        return this;
+    }
+
+    /**
+     * Get the names of the phases in the order that they were added.
+     * @return The names of the phases.
+     */
+    public Iterable<String> getPhaseNames()
+    {
+        return this.json.getObject(PhaseTimings.phasesPropertyName)
+            .then((JSONObject phasesObject) -> phasesObject.getProperties().map(JSONProperty::getName).toList())
+            .catchError(() -> Iterable.create())
+            .await();
+    }
+
+    /**
+     * Get the number of milliseconds that the phase with the provided name took.
+     * @param phaseName The name of the phase.
+     * @return The number of milliseconds that the phase took, or 0 if the phase doesn't exist.
+     */
+    public int getPhaseMilliseconds(String phaseName)
+    {
+        PreCondition.assertNotNullAndNotEmpty(phaseName, "phaseName");
+
+        return this.json.getObject(PhaseTimings.phasesPropertyName)
+            .then((JSONObject phasesObject) -> phasesObject.getObject(phaseName).await())
+            .then((JSONObject phaseObject) -> phaseObject.getInteger(PhaseTimings.millisecondsPropertyName).await())
+            .catchError(() -> 0)
+            .await();
+    }
+
+    /**
+     * Get the sub-phases of the phase with the provided name.
+     * @param phaseName The name of the phase.
+     * @return The sub-phases of the phase, or null if the phase doesn't have any sub-phases.
+     */
+    public PhaseTimings getSubPhases(String phaseName)
+    {
+        PreCondition.assertNotNullAndNotEmpty(phaseName, "phaseName");
+
+        return this.json.getObject(PhaseTimings.phasesPropertyName)
+            .then((JSONObject phasesObject) -> phasesObject.getObject(phaseName).await())
+            .then((JSONObject phaseObject) -> phaseObject.getObject(PhaseTimings.phasesPropertyName).await())
+            .then((JSONObject subPhasesObject) -> PhaseTimings.create(JSONObject.create().set(PhaseTimings.phasesPropertyName, subPhasesObject)))
+            .catchError()
+            .await();
+    }
+
+    /**
+     * Get the total number of milliseconds of all of the (top-level) phases.
+     * @return The total number of milliseconds of all of the phases.
+     */
+    public int getTotalMilliseconds()
+    {
+        int result = 0;
+        for (final String phaseName : this.getPhaseNames())
+        {
+            result += this.getPhaseMilliseconds(phaseName);
+        }
+        return result;
+    }
+
+    /**
+     * Create the table that shows how long each phase (and each sub-phase) took, along with the
+     * percentage of the total duration that each phase took.
+     * @return The phase timings table.
+     */
+    public CharacterTable createTable()
+    {
+        final CharacterTable result = CharacterTable.create();
+        final int totalMilliseconds = this.getTotalMilliseconds();
+        PhaseTimings.addRows(result, this, "", totalMilliseconds);
+        result.addRow("Total:", PhaseTimings.formatMilliseconds(totalMilliseconds), "");
+        return result;
+    }
+
+    private static void addRows(CharacterTable table, PhaseTimings phaseTimings, String indent, int totalMilliseconds)
+    {
+        for (final String phaseName : phaseTimings.getPhaseNames())
+        {
+            final int phaseMilliseconds = phaseTimings.getPhaseMilliseconds(phaseName);
+            table.addRow(indent + phaseName + ":", PhaseTimings.formatMilliseconds(phaseMilliseconds), PhaseTimings.formatPercentage(phaseMilliseconds, totalMilliseconds));
+
+            final PhaseTimings subPhases = phaseTimings.getSubPhases(phaseName);
+            if (subPhases != null)
+            {
+                PhaseTimings.addRows(table, subPhases, indent + "  ", totalMilliseconds);
+            }
+        }
+    }
+
+    static String formatMilliseconds(int milliseconds)
+    {
+        return new java.text.DecimalFormat("0.000").format(milliseconds / 1000.0) + "s";
+    }
+
+    static String formatPercentage(int milliseconds, int totalMilliseconds)
+    {
+        return (totalMilliseconds <= 0 ? 0 : (int)Math.round(milliseconds * 100.0 / totalMilliseconds)) + "%";
+    }
+}
@@ -15,6 +15,10 @@ public interface QubTest
             .setApplicationName("qub-test")
             .setApplicationDescription("Used to run tests in a source code projects.")
             .addAction(QubTestRun::addAction)
+            .addAction(QubTestList::addAction)
+            .addAction(QubTestMinimize::addAction)
+            .addAction(QubTestResults::addAction)
+            .addAction(QubTestScale::addAction)
             .addAction(CommandLineLogsAction::addAction)
             .run();
     }
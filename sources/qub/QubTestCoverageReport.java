@@ -0,0 +1,334 @@
+package qub;
+
+/**
+ * Functions for generating the coverage HTML report under outputs/coverage. The report is only
+ * regenerated for the packages whose class files or execution data changed since the last
+ * report was generated. After a partial report, the pages that list every package (index.html,
+ * jacoco-sessions.html and coverage.csv) are regenerated by jacococli from every class file, but
+ * without the source files, so that only the changed packages' source pages are rendered again.
+ */
+public interface QubTestCoverageReport
+{
+    /**
+     * Generate (or update) the coverage HTML report for the provided coverage class files.
+     * @param processFactory The factory that will be used to create the jacococli process.
+     * @param jacocoCliJarFile The jacococli.jar file.
+     * @param coverage The group of source files that coverage is being reported for.
+     * @param outputFolder The output folder that contains the class files and coverage.exec file.
+     * @param sourceFolder The folder that contains the project's source files.
+     * @param testFolder The folder that contains the project's test files.
+     * @param coverageClassFiles The class files that coverage is being reported for.
+     * @param output The stream that jacococli's output will be redirected to when verbose is on.
+     * @param error The stream that jacococli's errors will be redirected to when verbose is on.
+     * @param verbose The stream that verbose logs will be written to.
+     * @return The exit code of the report generation.
+     */
+    static int run(ProcessFactory processFactory, File jacocoCliJarFile, Coverage coverage, Folder outputFolder, Folder sourceFolder, Folder testFolder, Iterable<File> coverageClassFiles, CharacterToByteWriteStream output, CharacterToByteWriteStream error, VerboseCharacterToByteWriteStream verbose)
+    {
+        PreCondition.assertNotNull(processFactory, "processFactory");
+        PreCondition.assertNotNull(jacocoCliJarFile, "jacocoCliJarFile");
+        PreCondition.assertNotNull(coverage, "coverage");
+        PreCondition.assertNotNull(outputFolder, "outputFolder");
+        PreCondition.assertNotNull(sourceFolder, "sourceFolder");
+        PreCondition.assertNotNull(testFolder, "testFolder");
+        PreCondition.assertNotNull(coverageClassFiles, "coverageClassFiles");
+        PreCondition.assertNotNull(output, "output");
+        PreCondition.assertNotNull(error, "error");
+        PreCondition.assertNotNull(verbose, "verbose");
+
+        final Folder coverageFolder = outputFolder.getFolder("coverage").await();
+        final File coverageExecFile = outputFolder.getFile("coverage.exec").await();
+        final File reportJsonFile = coverageFolder.getFile("report.json").await();
+
+        MutableMap<String,String> classProbes = JacocoExecFile.getClassProbes(coverageExecFile)
+            .catchError()
+            .await();
+        if (classProbes == null)
+        {
+            classProbes = Map.create();
+        }
+
+        final List<String> packageNames = List.create();
+        final MutableMap<String,List<File>> packageClassFiles = Map.create();
+        for (final File coverageClassFile : coverageClassFiles)
+        {
+            final String packageName = QubTestCoverageReport.getReportPackageName(QubTestRun.getFullClassName(outputFolder, coverageClassFile));
+            List<File> classFiles = packageClassFiles.get(packageName).catchError().await();
+            if (classFiles == null)
+            {
+                classFiles = List.create();
+                packageNames.add(packageName);
+                packageClassFiles.set(packageName, classFiles);
+            }
+            classFiles.add(coverageClassFile);
+        }
+
+        final CoverageReportJSON report = CoverageReportJSON.create();
+        for (final String packageName : packageNames)
+        {
+            final StringBuilder packageFingerprint = new StringBuilder();
+            for (final File classFile : packageClassFiles.get(packageName).await())
+            {
+                final String fullClassName = QubTestRun.getFullClassName(outputFolder, classFile);
+                packageFingerprint.append(fullClassName)
+                    .append(':')
+                    .append(QubTestHash.hash(classFile).catchError(() -> "").await())
+                    .append(':')
+                    .append(classProbes.get(fullClassName).catchError(() -> "").await())
+                    .append(';');
+            }
+            report.setPackageFingerprint(packageName, QubTestHash.hash(packageFingerprint.toString()));
+        }
+
+        final CoverageReportJSON previousReport = CoverageReportJSON.parse(reportJsonFile)
+            .catchError()
+            .await();
+        final List<String> changedPackageNames = List.create();
+        boolean fullReport = previousReport == null || !coverageFolder.fileExists("index.html").await();
+        if (!fullReport)
+        {
+            final Iterable<String> previousPackageNames = previousReport.getPackageNames();
+            fullReport = previousPackageNames.getCount() != packageNames.getCount();
+            for (final String packageName : packageNames)
+            {
+                if (!previousPackageNames.contains(packageName))
+                {
+                    fullReport = true;
+                }
+                else if (!Comparer.equal(report.getPackageFingerprint(packageName), previousReport.getPackageFingerprint(packageName)))
+                {
+                    changedPackageNames.add(packageName);
+                }
+            }
+        }
+
+        int result;
+        if (!fullReport && !changedPackageNames.any())
+        {
+            verbose.writeLine("Coverage report is up to date.").await();
+            result = 0;
+        }
+        else
+        {
+            result = -1;
+            if (!fullReport && changedPackageNames.getCount() < packageNames.getCount())
+            {
+                verbose.writeLine("Regenerating coverage report for " + changedPackageNames.getCount() + " of " + packageNames.getCount() + " packages...").await();
+
+                final Folder stagingFolder = outputFolder.getFolder("coverage-staging").await();
+                stagingFolder.delete()
+                    .catchError(FolderNotFoundException.class)
+                    .await();
+                try
+                {
+                    final List<File> changedClassFiles = List.create();
+                    for (final String changedPackageName : changedPackageNames)
+                    {
+                        changedClassFiles.addAll(packageClassFiles.get(changedPackageName).await());
+                    }
+
+                    final JacocoCliProcessBuilder partialReport = QubTestCoverageReport.createJacocoCliReport(processFactory, jacocoCliJarFile, coverageExecFile, changedClassFiles, stagingFolder)
+                        .addSourceFiles(coverage, sourceFolder, testFolder);
+                    result = QubTestCoverageReport.runJacocoCliReport(partialReport, output, error, verbose);
+                    if (result == 0)
+                    {
+                        for (final String changedPackageName : changedPackageNames)
+                        {
+                            final Folder stagingPackageFolder = stagingFolder.getFolder(changedPackageName).await();
+                            final Folder packageFolder = coverageFolder.getFolder(changedPackageName).await();
+                            packageFolder.delete()
+                                .catchError(FolderNotFoundException.class)
+                                .await();
+                            QubTestCoverageReport.copyFiles(stagingPackageFolder, packageFolder);
+                        }
+                        stagingFolder.delete()
+                            .catchError(FolderNotFoundException.class)
+                            .await();
+
+                        // The root page, the sessions page and coverage.csv list every package, so
+                        // jacococli regenerates them from every class file. Without source files
+                        // this skips rendering the source pages, which is most of a report's work.
+                        final File coverageCsvFile = coverageFolder.getFile("coverage.csv").await();
+                        final JacocoCliProcessBuilder rootReport = QubTestCoverageReport.createJacocoCliReport(processFactory, jacocoCliJarFile, coverageExecFile, coverageClassFiles, stagingFolder);
+                        rootReport.addArguments("--csv", coverageCsvFile.toString());
+                        result = QubTestCoverageReport.runJacocoCliReport(rootReport, output, error, verbose);
+                        if (result == 0)
+                        {
+                            QubTestCoverageReport.copyFiles(stagingFolder, "index.html", coverageFolder);
+                            QubTestCoverageReport.copyFiles(stagingFolder, "jacoco-sessions.html", coverageFolder);
+                        }
+                        QubTestCoverageReport.writeReportJson(result, report, coverageCsvFile, reportJsonFile);
+                    }
+                }
+                finally
+                {
+                    stagingFolder.delete()
+                        .catchError(FolderNotFoundException.class)
+                        .await();
+                }
+            }
+
+            if (result == -1)
+            {
+                final File coverageCsvFile = coverageFolder.getFile("coverage.csv").await();
+                final JacocoCliProcessBuilder jacococli = QubTestCoverageReport.createJacocoCliReport(processFactory, jacocoCliJarFile, coverageExecFile, coverageClassFiles, coverageFolder)
+                    .addSourceFiles(coverage, sourceFolder, testFolder);
+                jacococli.addArguments("--csv", coverageCsvFile.toString());
+                result = QubTestCoverageReport.runJacocoCliReport(jacococli, output, error, verbose);
+                QubTestCoverageReport.writeReportJson(result, report, coverageCsvFile, reportJsonFile);
+            }
+        }
+
+        return result;
+    }
+
+    /**
+     * Get the name that JaCoCo uses in its reports for the package of the provided class.
+     * @param fullClassName The full name of the class.
+     * @return The name that JaCoCo uses in its reports for the package of the provided class.
+     */
+    static String getReportPackageName(String fullClassName)
+    {
+        PreCondition.assertNotNullAndNotEmpty(fullClassName, "fullClassName");
+
+        final String packageName = QubTestRun.getPackageName(fullClassName);
+        final String result = packageName.isEmpty() ? "default" : packageName;
+
+        PostCondition.assertNotNullAndNotEmpty(result, "result");
+
+        return result;
+    }
+
+    /**
+     * Create a jacococli process that will generate an HTML report of the provided class files.
+     * @param processFactory The factory that will be used to create the jacococli process.
+     * @param jacocoCliJarFile The jacococli.jar file.
+     * @param coverageExecFile The coverage.exec file that contains the execution data.
+     * @param classFiles The class files to report on.
+     * @param htmlFolder The folder that the HTML report will be written to.
+     * @return The jacococli process builder.
+     */
+    static JacocoCliProcessBuilder createJacocoCliReport(ProcessFactory processFactory, File jacocoCliJarFile, File coverageExecFile, Iterable<File> classFiles, Folder htmlFolder)
+    {
+        return JacocoCliProcessBuilder.create(processFactory).await()
+            .addJacocoCliJar(jacocoCliJarFile)
+            .addReport()
+            .addCoverageExec(coverageExecFile)
+            .addClassFiles(classFiles)
+            .addHtml(htmlFolder);
+    }
+
+    static int runJacocoCliReport(JacocoCliProcessBuilder jacococli, CharacterToByteWriteStream output, CharacterToByteWriteStream error, VerboseCharacterToByteWriteStream verbose)
+    {
+        if (verbose.isVerbose())
+        {
+            jacococli.redirectOutput(output);
+            jacococli.redirectError(error);
+
+            verbose.writeLine("Running " + jacococli.getCommand()).await();
+        }
+
+        return jacococli.run().await();
+    }
+
+    /**
+     * Write report.json with the counters from the provided JaCoCo CSV report, or delete it if the
+     * report wasn't generated so that the next run generates a full report.
+     * @param reportExitCode The exit code of the jacococli process that generated the report.
+     * @param report The report to write.
+     * @param coverageCsvFile The JaCoCo CSV report of every package.
+     * @param reportJsonFile The report.json file.
+     */
+    static void writeReportJson(int reportExitCode, CoverageReportJSON report, File coverageCsvFile, File reportJsonFile)
+    {
+        if (reportExitCode == 0 && QubTestCoverageReport.setCounters(report, coverageCsvFile).catchError(() -> false).await())
+        {
+            reportJsonFile.setContentsAsString(report.toString(JSONFormat.pretty)).await();
+        }
+        else
+        {
+            reportJsonFile.delete()
+                .catchError(FileNotFoundException.class)
+                .await();
+        }
+    }
+
+    /**
+     * Add the coverage counters from the provided JaCoCo CSV report to the provided report. A
+     * class is counted as covered if any of its methods were covered, which is how JaCoCo counts
+     * classes in its HTML report.
+     * @param report The report to add the counters to.
+     * @param csvFile The JaCoCo CSV report file.
+     * @return Whether or not the counters were read.
+     */
+    static Result<Boolean> setCounters(CoverageReportJSON report, File csvFile)
+    {
+        PreCondition.assertNotNull(report, "report");
+        PreCondition.assertNotNull(csvFile, "csvFile");
+
+        return Result.create2(() ->
+        {
+            boolean isHeaderLine = true;
+            for (final String line : Strings.getLines(csvFile.getContentsAsString().await()))
+            {
+                if (isHeaderLine)
+                {
+                    isHeaderLine = false;
+                }
+                else if (!Strings.isNullOrEmpty(line))
+                {
+                    final String[] columns = line.split(",");
+                    final String packageName = columns[1];
+                    int columnIndex = 3;
+                    int methodCoveredCount = 0;
+                    for (final String counterName : CoverageReportJSON.csvCounterNames)
+                    {
+                        final int counterValue = Integer.parseInt(columns[columnIndex].trim());
+                        report.setPackageCounter(packageName, counterName, report.getPackageCounter(packageName, counterName) + counterValue);
+                        if (counterName.equals("METHOD_COVERED"))
+                        {
+                            methodCoveredCount = counterValue;
+                        }
+                        ++columnIndex;
+                    }
+
+                    final String classCounterName = methodCoveredCount > 0 ? "CLASS_COVERED" : "CLASS_MISSED";
+                    report.setPackageCounter(packageName, classCounterName, report.getPackageCounter(packageName, classCounterName) + 1);
+                }
+            }
+            return !isHeaderLine;
+        });
+    }
+
+    static void copyFiles(Folder sourceFolder, Folder destinationFolder)
+    {
+        PreCondition.assertNotNull(sourceFolder, "sourceFolder");
+        PreCondition.assertNotNull(destinationFolder, "destinationFolder");
+
+        final Iterable<File> sourceFiles = sourceFolder.getFilesRecursively()
+            .catchError(FolderNotFoundException.class, () -> Iterable.create())
+            .await();
+        for (final File sourceFile : sourceFiles)
+        {
+            destinationFolder.getFile(sourceFile.relativeTo(sourceFolder)).await()
+                .setContents(sourceFile.getContents().await()).await();
+        }
+    }
+
+    static void copyFiles(Folder sourceFolder, String fileRelativePath, Folder destinationFolder)
+    {
+        PreCondition.assertNotNull(sourceFolder, "sourceFolder");
+        PreCondition.assertNotNullAndNotEmpty(fileRelativePath, "fileRelativePath");
+        PreCondition.assertNotNull(destinationFolder, "destinationFolder");
+
+        final byte[] contents = sourceFolder.getFile(fileRelativePath).await()
+            .getContents()
+            .catchError(FileNotFoundException.class)
+            .await();
+        if (contents != null)
+        {
+            destinationFolder.getFile(fileRelativePath).await()
+                .setContents(contents).await();
+        }
+    }
+}
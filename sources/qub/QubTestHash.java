@@ -0,0 +1,68 @@
+package qub;
+
+/**
+ * Functions for creating the content hashes that are used to determine whether or not cached data
+ * is still up to date.
+ */
+public interface QubTestHash
+{
+    /**
+     * Get the hexadecimal SHA-256 hash of the provided bytes.
+     * @param bytes The bytes to hash.
+     * @return The hexadecimal SHA-256 hash of the provided bytes.
+     */
+    static String hash(byte[] bytes)
+    {
+        PreCondition.assertNotNull(bytes, "bytes");
+
+        final java.security.MessageDigest digest;
+        try
+        {
+            digest = java.security.MessageDigest.getInstance("SHA-256");
+        }
+        catch (java.security.NoSuchAlgorithmException e)
+        {
+            throw new RuntimeException(e);
+        }
+
+        final byte[] hashBytes = digest.digest(bytes);
+        final StringBuilder builder = new StringBuilder(hashBytes.length * 2);
+        for (final byte hashByte : hashBytes)
+        {
+            builder.append(Character.forDigit((hashByte >> 4) & 0xF, 16));
+            builder.append(Character.forDigit(hashByte & 0xF, 16));
+        }
+        final String result = builder.toString();
+
+        PostCondition.assertNotNullAndNotEmpty(result, "result");
+
+        return result;
+    }
+
+    /**
+     * Get the hexadecimal SHA-256 hash of the UTF-8 encoded bytes of the provided text.
+     * @param text The text to hash.
+     * @return The hexadecimal SHA-256 hash of the provided text.
+     */
+    static String hash(String text)
+    {
+        PreCondition.assertNotNull(text, "text");
+
+        return QubTestHash.hash(text.getBytes(java.nio.charset.StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Get the hexadecimal SHA-256 hash of the contents of the provided file.
+     * @param file The file to hash.
+     * @return The hexadecimal SHA-256 hash of the contents of the provided file.
+     */
+    static Result<String> hash(File file)
+    {
+        PreCondition.assertNotNull(file, "file");
+
+        return Result.create2(() ->
+        {
+            return QubTestHash.hash(file.getContents().await());
+        });
+    }
+}
@@ -0,0 +1,300 @@
+package qub;
+
+/**
+ * Lists the tests of a project without running them. The tests of each test class come from
+ * test.json if the class hasn't changed since its tests last ran, or from the testindex.json file
+ * in the output folder. Test classes that neither file knows about are loaded and their
+ * test(TestRunner) methods are run with a {@link TestRegistrationRunner}, which registers their
+ * tests without running them, and the registered tests are added to testindex.json.
+ */
+public interface QubTestList
+{
+    static void addAction(CommandLineActions actions)
+    {
+        PreCondition.assertNotNull(actions, "actions");
+
+        actions.addAction("list", QubTestList::getParameters, QubTestList::run)
+            .setDescription("List the tests of a source code project without running them.");
+    }
+
+    /**
+     * Get the parameters for QubTestList.run().
+     * @param process The Process that is running.
+     * @return The parameters for QubTestList.run(), or null if QubTestList.run() should not be
+     * run.
+     */
+    static QubTestListParameters getParameters(DesktopProcess process, CommandLineAction action)
+    {
+        PreCondition.assertNotNull(process, "process");
+        PreCondition.assertNotNull(action, "action");
+
+        final CommandLineParameters parameters = action.createCommandLineParameters(process);
+        final CommandLineParameter<Folder> folderToListParameter = parameters.addPositionalFolder("folder", process)
+            .setValueName("<folder-to-list>")
+            .setDescription("The folder to list tests in. Defaults to the current folder.");
+        final CommandLineParameter<String> patternParameter = QubTestRun.addPatternParameter(parameters);
+        final CommandLineParameterVerbose verboseParameter = parameters.addVerbose(process);
+        final CommandLineParameterHelp helpParameter = parameters.addHelp();
+
+        QubTestListParameters result = null;
+        if (!helpParameter.showApplicationHelpLines(process).await())
+        {
+            final Folder folderToList = folderToListParameter.getValue().await();
+            final VerboseCharacterToByteWriteStream verbose = verboseParameter.getVerboseCharacterToByteWriteStream().await();
+            result = new QubTestListParameters(process, folderToList, verbose)
+                .setPattern(patternParameter.removeValue().await());
+        }
+
+        return result;
+    }
+
+    static int run(QubTestListParameters parameters)
+    {
+        PreCondition.assertNotNull(parameters, "parameters");
+
+        final DesktopProcess process = parameters.getProcess();
+        final CharacterToByteWriteStream output = process.getOutputWriteStream();
+        final CharacterToByteWriteStream error = process.getErrorWriteStream();
+        final VerboseCharacterToByteWriteStream verbose = parameters.getVerbose();
+        final Folder folderToList = parameters.getFolderToList();
+        final String pattern = parameters.getPattern();
+        final PathPattern testPattern = Strings.isNullOrEmpty(pattern) ? null : PathPattern.parse(pattern);
+
+        int result = 0;
+        final Folder outputFolder = folderToList.getFolder("outputs").await();
+        if (!outputFolder.exists().await())
+        {
+            error.writeLine("Could not find the outputs folder at " + outputFolder + ". Build the project before listing its tests.").await();
+            result = 1;
+        }
+        else
+        {
+            final TestJSON testJson = TestJSON.parse(outputFolder.getFile("test.json").await())
+                .catchError()
+                .await();
+            final MutableMap<String,TestJSONClassFile> recordedClassFiles = QubTestList.getClassFilesByName(testJson == null ? Iterable.create() : testJson.getClassFiles());
+
+            final File testIndexFile = TestIndex.getFile(outputFolder);
+            final TestIndex previousTestIndex = TestIndex.parse(testIndexFile)
+                .catchError()
+                .await();
+            final MutableMap<String,TestJSONClassFile> indexedClassFiles = QubTestList.getClassFilesByName(previousTestIndex == null ? Iterable.create() : previousTestIndex.getClassFiles());
+
+            // Test classes are always top-level classes.
+            final Iterable<File> classFiles = QubTestRun.getAllClassFiles(outputFolder)
+                .catchError(() -> Iterable.create())
+                .await()
+                .where((File classFile) -> !classFile.getName().contains("$"))
+                .toList();
+
+            final List<TestJSONClassFile> indexClassFiles = List.create();
+            final MutableMap<String,Iterable<TestJSONTest>> classTests = Map.create();
+            final List<File> classFilesToRegister = List.create();
+            for (final File classFile : classFiles)
+            {
+                final String fullClassName = QubTestRun.getFullClassName(outputFolder, classFile);
+                final DateTime lastModified = classFile.getLastModified().await();
+
+                final TestJSONClassFile recordedClassFile = recordedClassFiles.get(fullClassName)
+                    .catchError()
+                    .await();
+                final TestJSONClassFile indexedClassFile = indexedClassFiles.get(fullClassName)
+                    .catchError()
+                    .await();
+                if (recordedClassFile != null && recordedClassFile.hasAllTests() && lastModified.equals(recordedClassFile.getLastModified()))
+                {
+                    classTests.set(fullClassName, recordedClassFile.getTests());
+                }
+                else if (indexedClassFile != null && indexedClassFile.getTests() != null && lastModified.equals(indexedClassFile.getLastModified()))
+                {
+                    indexClassFiles.add(indexedClassFile);
+                    classTests.set(fullClassName, QubTestList.addLastResults(indexedClassFile.getTests(), recordedClassFile));
+                }
+                else
+                {
+                    classFilesToRegister.add(classFile);
+                }
+            }
+
+            final List<String> unlistedClassNames = List.create();
+            if (classFilesToRegister.any())
+            {
+                verbose.writeLine("Registering the tests of " + classFilesToRegister.getCount() + " class" + (classFilesToRegister.getCount() == 1 ? "" : "es") + " that aren't in test.json or testindex.json...").await();
+                final Iterable<String> isolatedClassPaths = Result.create2(() ->
+                    {
+                        final String jvmClassPath = process.getJVMClasspath().await();
+                        final Iterable<String> classPaths = TestRunClassPath.getClassPaths(process.getQubProjectDataFolder().await(), folderToList, outputFolder, process.getQubFolder().await(), jvmClassPath).await();
+                        return InProcessTestRunner.getIsolatedClassPaths(classPaths, jvmClassPath);
+                    })
+                    .catchError()
+                    .await();
+                if (isolatedClassPaths == null)
+                {
+                    verbose.writeLine("The test classes can't be loaded by qub-test because the project's classpath couldn't be resolved or replaces part of the qub-test classpath.").await();
+                    for (final File classFile : classFilesToRegister)
+                    {
+                        unlistedClassNames.add(QubTestRun.getFullClassName(outputFolder, classFile));
+                    }
+                }
+                else
+                {
+                    final Thread currentThread = Thread.currentThread();
+                    final ClassLoader previousContextClassLoader = currentThread.getContextClassLoader();
+                    final java.net.URLClassLoader testClassLoader = InProcessTestRunner.createClassLoader(isolatedClassPaths);
+                    try
+                    {
+                        currentThread.setContextClassLoader(testClassLoader);
+                        final TestRegistrationRunner registrationRunner = TestRegistrationRunner.create(process, testClassLoader);
+                        for (final File classFile : classFilesToRegister)
+                        {
+                            final String fullClassName = QubTestRun.getFullClassName(outputFolder, classFile);
+                            final Iterable<TestJSONTest> registeredTests = registrationRunner.getTests(fullClassName)
+                                .catchError((Throwable e) -> verbose.writeLine("Could not register the tests of " + fullClassName + ": " + e.getMessage()).await())
+                                .await();
+                            if (registeredTests == null)
+                            {
+                                unlistedClassNames.add(fullClassName);
+                            }
+                            else
+                            {
+                                indexClassFiles.add(TestJSONClassFile.create(classFile.relativeTo(outputFolder))
+                                    .setLastModified(classFile.getLastModified().await())
+                                    .setTests(registeredTests));
+                                classTests.set(fullClassName, QubTestList.addLastResults(registeredTests, recordedClassFiles.get(fullClassName).catchError().await()));
+                            }
+                        }
+                    }
+                    finally
+                    {
+                        currentThread.setContextClassLoader(previousContextClassLoader);
+                        try
+                        {
+                            testClassLoader.close();
+                        }
+                        catch (java.io.IOException ignored)
+                        {
+                        }
+                    }
+                }
+            }
+
+            if (previousTestIndex == null || classFilesToRegister.any() || indexClassFiles.getCount() != indexedClassFiles.getCount())
+            {
+                verbose.writeLine("Writing " + testIndexFile + "...").await();
+                testIndexFile.setContentsAsString(TestIndex.create()
+                    .setClassFiles(indexClassFiles)
+                    .toString(JSONFormat.pretty)).await();
+            }
+
+            int listedTestCount = 0;
+            int listedClassCount = 0;
+            for (final File classFile : classFiles)
+            {
+                final String fullClassName = QubTestRun.getFullClassName(outputFolder, classFile);
+                final Iterable<TestJSONTest> tests = classTests.get(fullClassName)
+                    .catchError(() -> Iterable.create())
+                    .await();
+                final Iterable<TestJSONTest> matchingTests = testPattern == null
+                    ? tests
+                    : tests.where((TestJSONTest test) -> test.matches(testPattern)).toList();
+                if (matchingTests.any())
+                {
+                    output.writeLine(fullClassName).await();
+                    for (final TestJSONTest test : matchingTests)
+                    {
+                        output.writeLine("  " + QubTestList.getTestLine(test)).await();
+                    }
+                    listedTestCount += matchingTests.getCount();
+                    ++listedClassCount;
+                }
+            }
+            verbose.writeLine("Listed " + listedTestCount + " test" + (listedTestCount == 1 ? "" : "s") + " in " + listedClassCount + " test class" + (listedClassCount == 1 ? "" : "es") + ".").await();
+
+            if (unlistedClassNames.any())
+            {
+                for (final String unlistedClassName : unlistedClassNames)
+                {
+                    error.writeLine("Could not list the tests of " + unlistedClassName + ".").await();
+                }
+                error.writeLine("Run qub-test to record the tests of these classes in test.json.").await();
+                result = 1;
+            }
+        }
+
+        return result;
+    }
+
+    /**
+     * Get a map from the full class name of each of the provided class files to the class file.
+     * @param classFiles The class files to map.
+     * @return A map from the full class name of each of the provided class files to the class
+     * file.
+     */
+    static MutableMap<String,TestJSONClassFile> getClassFilesByName(Iterable<TestJSONClassFile> classFiles)
+    {
+        PreCondition.assertNotNull(classFiles, "classFiles");
+
+        final MutableMap<String,TestJSONClassFile> result = Map.create();
+        for (final TestJSONClassFile classFile : classFiles)
+        {
+            result.set(classFile.getFullClassName(), classFile);
+        }
+        return result;
+    }
+
+    /**
+     * Add the status and duration that the provided test.json class file recorded for each of the
+     * provided tests, if the tests have the same full names.
+     * @param tests The tests to add the last results to.
+     * @param recordedClassFile The test.json class file that recorded the last results of the
+     *                          tests, or null if the tests haven't run.
+     * @return The tests with their last results.
+     */
+    static Iterable<TestJSONTest> addLastResults(Iterable<TestJSONTest> tests, TestJSONClassFile recordedClassFile)
+    {
+        PreCondition.assertNotNull(tests, "tests");
+
+        final Iterable<TestJSONTest> recordedTests = recordedClassFile == null ? null : recordedClassFile.getTests();
+        final MutableMap<String,TestJSONTest> recordedTestsByName = Map.create();
+        if (recordedTests != null)
+        {
+            for (final TestJSONTest recordedTest : recordedTests)
+            {
+                recordedTestsByName.set(recordedTest.getFullName(), recordedTest);
+            }
+        }
+
+        final List<TestJSONTest> result = List.create();
+        for (final TestJSONTest test : tests)
+        {
+            final TestJSONTest recordedTest = recordedTestsByName.get(test.getFullName())
+                .catchError()
+                .await();
+            result.add(recordedTest == null ? test : recordedTest);
+        }
+        return result;
+    }
+
+    /**
+     * Get the line that describes the provided test in the list action's output.
+     * @param test The test to describe.
+     * @return The line that describes the provided test.
+     */
+    static String getTestLine(TestJSONTest test)
+    {
+        PreCondition.assertNotNull(test, "test");
+
+        final StringBuilder result = new StringBuilder(test.getFullName());
+        final String status = test.getStatus();
+        if (!Strings.isNullOrEmpty(status))
+        {
+            result.append(" - ").append(status);
+            final Integer durationMilliseconds = test.getDurationMilliseconds();
+            if (durationMilliseconds != null)
+            {
+                result.append(" (").append(durationMilliseconds).append(" ms)");
+            }
+        }
+        return result.toString();
+    }
+}
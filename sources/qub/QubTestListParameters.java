@@ -0,0 +1,76 @@
+package qub;
+
+/**
+ * Parameters that are passed to QubTestList.run().
+ */
+public class QubTestListParameters
+{
+    private final DesktopProcess process;
+    private final Folder folderToList;
+    private final VerboseCharacterToByteWriteStream verbose;
+    private String pattern;
+
+    /**
+     * Create a new QubTestListParameters object.
+     * @param process The process that is listing the tests.
+     * @param folderToList The folder of the project whose tests will be listed.
+     * @param verbose The stream that verbose logs will be written to.
+     */
+    public QubTestListParameters(DesktopProcess process, Folder folderToList, VerboseCharacterToByteWriteStream verbose)
+    {
+        PreCondition.assertNotNull(process, "process");
+        PreCondition.assertNotNull(folderToList, "folderToList");
+        PreCondition.assertNotNull(verbose, "verbose");
+
+        this.process = process;
+        this.folderToList = folderToList;
+        this.verbose = verbose;
+    }
+
+    /**
+     * Get the process that is listing the tests.
+     * @return The process that is listing the tests.
+     */
+    public DesktopProcess getProcess()
+    {
+        return this.process;
+    }
+
+    /**
+     * Get the folder of the project whose tests will be listed.
+     * @return The folder of the project whose tests will be listed.
+     */
+    public Folder getFolderToList()
+    {
+        return this.folderToList;
+    }
+
+    /**
+     * Get the stream that verbose logs will be written to.
+     * @return The stream that verbose logs will be written to.
+     */
+    public VerboseCharacterToByteWriteStream getVerbose()
+    {
+        return this.verbose;
+    }
+
+    /**
+     * Get the pattern that the listed tests must match.
+     * @return The pattern that the listed tests must match, or null if every test will be listed.
+     */
+    public String getPattern()
+    {
+        return this.pattern;
+    }
+
+    /**
+     * Set the pattern that the listed tests must match.
+     * @param pattern The pattern that the listed tests must match.
+     * @return This object for method chaining.
+     */
+    public QubTestListParameters setPattern(String pattern)
+    {
+        this.pattern = pattern;
+        return this;
+    }
+}
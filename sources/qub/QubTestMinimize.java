@@ -0,0 +1,267 @@
+package qub;
+
+public interface QubTestMinimize
+{
+    static void addAction(CommandLineActions actions)
+    {
+        PreCondition.assertNotNull(actions, "actions");
+
+        actions.addAction("minimize", QubTestMinimize::getParameters, QubTestMinimize::run)
+            .setDescription("Save the smallest set of test classes that preserves code coverage as a named selection.");
+    }
+
+    static CommandLineParameter<String> addSelectionNameParameter(CommandLineParameters parameters)
+    {
+        PreCondition.assertNotNull(parameters, "parameters");
+
+        return parameters.addString("name")
+            .setValueName("<selection-name>")
+            .setDescription("The name that the minimal test selection will be saved as. Defaults to \"" + QubTestMinimizeParameters.getSelectionNameDefault() + "\".");
+    }
+
+    /**
+     * Get the parameters for QubTestMinimize.run().
+     * @param process The Process that is running.
+     * @return The parameters for QubTestMinimize.run(), or null if QubTestMinimize.run() should
+     * not be run.
+     */
+    static QubTestMinimizeParameters getParameters(DesktopProcess process, CommandLineAction action)
+    {
+        PreCondition.assertNotNull(process, "process");
+        PreCondition.assertNotNull(action, "action");
+
+        final CommandLineParameters parameters = action.createCommandLineParameters(process);
+        final CommandLineParameter<Folder> folderToTestParameter = QubTestRun.addFolderToTestParameter(parameters, process);
+        final CommandLineParameter<String> selectionNameParameter = QubTestMinimize.addSelectionNameParameter(parameters);
+        final CommandLineParameterBoolean offlineCoverageParameter = QubTestRun.addOfflineCoverageParameter(parameters);
+        final CommandLineParameterVerbose verboseParameter = parameters.addVerbose(process);
+        final CommandLineParameterProfiler profilerParameter = parameters.addProfiler(process, QubTest.class);
+        final CommandLineParameterHelp helpParameter = parameters.addHelp();
+
+        QubTestMinimizeParameters result = null;
+        if (!helpParameter.showApplicationHelpLines(process).await())
+        {
+            profilerParameter.await();
+            profilerParameter.removeValue().await();
+
+            final CharacterToByteWriteStream output = process.getOutputWriteStream();
+            final CharacterToByteWriteStream error = process.getErrorWriteStream();
+            final DefaultApplicationLauncher defaultApplicationLauncher = process.getDefaultApplicationLauncher();
+            final Folder folderToTest = folderToTestParameter.getValue().await();
+            final EnvironmentVariables environmentVariables = process.getEnvironmentVariables();
+            final ProcessFactory processFactory = process.getProcessFactory();
+            final VerboseCharacterToByteWriteStream verbose = verboseParameter.getVerboseCharacterToByteWriteStream().await();
+            final boolean profiler = profilerParameter.getValue().await();
+            final String jvmClassPath = process.getJVMClasspath().await();
+            final QubFolder qubFolder = process.getQubFolder().await();
+            final Folder projectDataFolder = process.getQubProjectDataFolder().await();
+            final TypeLoader typeLoader = process.getTypeLoader();
+
+            result = new QubTestMinimizeParameters(output, error, folderToTest, environmentVariables, processFactory, defaultApplicationLauncher, jvmClassPath, qubFolder, projectDataFolder, typeLoader);
+
+            final String selectionName = selectionNameParameter.removeValue().await();
+            if (!Strings.isNullOrEmpty(selectionName))
+            {
+                result.setSelectionName(selectionName);
+            }
+
+            result.setOfflineCoverage(offlineCoverageParameter.removeValue().await())
+                .setVerbose(verbose)
+                .setProfiler(profiler);
+        }
+
+        return result;
+    }
+
+    static int run(QubTestMinimizeParameters parameters)
+    {
+        PreCondition.assertNotNull(parameters, "parameters");
+
+        final Folder folderToTest = parameters.getFolderToTest();
+        final String selectionName = parameters.getSelectionName();
+        final CharacterToByteWriteStream output = parameters.getOutputWriteStream();
+        final CharacterToByteWriteStream error = parameters.getErrorWriteStream();
+        final VerboseCharacterToByteWriteStream verbose = parameters.getVerbose();
+
+        int result = QubTestRun.run(parameters);
+        if (result == 0)
+        {
+            final Folder outputFolder = folderToTest.getFolder("outputs").await();
+            final TestCoverageIndex testCoverageIndex = TestCoverageIndex.parse(TestCoverageIndex.getFile(outputFolder))
+                .catchError()
+                .await();
+            if (testCoverageIndex == null)
+            {
+                error.writeLine("Could not read the per-test coverage in " + TestCoverageIndex.getFile(outputFolder) + ".").await();
+                result = 1;
+            }
+            else
+            {
+                final MutableMap<String,Integer> testClassDurations = QubTestMinimize.getTestClassDurations(testCoverageIndex);
+                final Iterable<String> minimalTestClassNames = QubTestMinimize.getMinimalTestClassNames(testCoverageIndex, testClassDurations);
+
+                final File testSelectionsJsonFile = TestSelectionsJSON.getFile(outputFolder);
+                final TestSelectionsJSON testSelectionsJson = TestSelectionsJSON.parse(testSelectionsJsonFile)
+                    .catchError(() -> TestSelectionsJSON.create())
+                    .await();
+                testSelectionsJson.setSelection(selectionName, minimalTestClassNames, testClassDurations);
+                testSelectionsJsonFile.setContentsAsString(testSelectionsJson.toString(JSONFormat.pretty)).await();
+
+                int totalDurationMilliseconds = 0;
+                for (final Integer duration : testClassDurations.getValues())
+                {
+                    totalDurationMilliseconds += duration;
+                }
+                int minimalDurationMilliseconds = 0;
+                for (final String testClassName : minimalTestClassNames)
+                {
+                    minimalDurationMilliseconds += testClassDurations.get(testClassName).await();
+                }
+
+                output.writeLine().await();
+                output.writeLine("Saved " + minimalTestClassNames.getCount() + " of " + testClassDurations.getCount() + " test classes as the " + Strings.escapeAndQuote(selectionName) + " selection (" + minimalDurationMilliseconds + " of " + totalDurationMilliseconds + " milliseconds).").await();
+                output.writeLine("Run it with \"qub-test run --selection=" + selectionName + "\".").await();
+                for (final String testClassName : minimalTestClassNames)
+                {
+                    verbose.writeLine("  " + testClassName).await();
+                }
+            }
+        }
+
+        return result;
+    }
+
+    /**
+     * Get the total recorded duration of the tests in each test class in the provided index.
+     * @param testCoverageIndex The index that contains the tests.
+     * @return The total duration in milliseconds of each test class, in the order that the test
+     * classes first appear in the index.
+     */
+    static MutableMap<String,Integer> getTestClassDurations(TestCoverageIndex testCoverageIndex)
+    {
+        PreCondition.assertNotNull(testCoverageIndex, "testCoverageIndex");
+
+        final MutableMap<String,Integer> result = Map.create();
+        final int testCount = testCoverageIndex.getTestCount();
+        for (int testIndex = 0; testIndex < testCount; ++testIndex)
+        {
+            final String testClassName = testCoverageIndex.getTestClassName(testIndex);
+            final int previousDuration = result.get(testClassName).catchError(() -> 0).await();
+            result.set(testClassName, previousDuration + testCoverageIndex.getTestDurationMilliseconds(testIndex));
+        }
+
+        PostCondition.assertNotNull(result, "result");
+
+        return result;
+    }
+
+    /**
+     * Get a minimal set of test classes that together hit every coverage probe that is hit by the
+     * full set of tests in the provided index. The set is chosen greedily by repeatedly picking
+     * the test class that hits the most not-yet-hit probes per millisecond of recorded duration,
+     * and then dropping any chosen test class whose probes are all hit by the other chosen test
+     * classes.
+     * @param testCoverageIndex The index that contains the per-test coverage.
+     * @param testClassDurations The total duration in milliseconds of each test class.
+     * @return The full names of the test classes in the minimal set, in the order that they
+     * appear in the provided durations map.
+     */
+    static Iterable<String> getMinimalTestClassNames(TestCoverageIndex testCoverageIndex, Map<String,Integer> testClassDurations)
+    {
+        PreCondition.assertNotNull(testCoverageIndex, "testCoverageIndex");
+        PreCondition.assertNotNull(testClassDurations, "testClassDurations");
+
+        // The probes and the selected test classes are kept in maps that are used as sets, so that
+        // checking whether a probe or test class is in them doesn't scan a list.
+        final MutableMap<String,MutableMap<String,Boolean>> testClassProbes = Map.create();
+        for (final String fullClassName : testCoverageIndex.getCoveredClassNames())
+        {
+            for (final Integer testIndex : testCoverageIndex.getTestIndexes(fullClassName))
+            {
+                final String testClassName = testCoverageIndex.getTestClassName(testIndex);
+                MutableMap<String,Boolean> probes = testClassProbes.get(testClassName).catchError().await();
+                if (probes == null)
+                {
+                    probes = Map.create();
+                    testClassProbes.set(testClassName, probes);
+                }
+
+                final String classProbes = testCoverageIndex.getClassProbes(fullClassName, testIndex);
+                for (int probeIndex = 0; probeIndex < classProbes.length(); ++probeIndex)
+                {
+                    if (classProbes.charAt(probeIndex) == '1')
+                    {
+                        probes.set(fullClassName + "#" + probeIndex, true);
+                    }
+                }
+            }
+        }
+
+        final List<String> selectedTestClassNames = List.create();
+        final MutableMap<String,Boolean> selectedTestClassNameSet = Map.create();
+        final MutableMap<String,Integer> probeHitCounts = Map.create();
+        while (true)
+        {
+            String bestTestClassName = null;
+            long bestNewProbeCount = 0;
+            long bestDuration = 1;
+            for (final String testClassName : testClassDurations.getKeys())
+            {
+                if (!selectedTestClassNameSet.containsKey(testClassName))
+                {
+                    final MutableMap<String,Boolean> probes = testClassProbes.get(testClassName).catchError(() -> Map.create()).await();
+                    long newProbeCount = 0;
+                    for (final String probe : probes.getKeys())
+                    {
+                        if (!probeHitCounts.containsKey(probe))
+                        {
+                            ++newProbeCount;
+                        }
+                    }
+                    final long duration = Math.max(1, testClassDurations.get(testClassName).await());
+                    if (newProbeCount > 0 && (bestTestClassName == null || newProbeCount * bestDuration > bestNewProbeCount * duration))
+                    {
+                        bestTestClassName = testClassName;
+                        bestNewProbeCount = newProbeCount;
+                        bestDuration = duration;
+                    }
+                }
+            }
+
+            if (bestTestClassName == null)
+            {
+                break;
+            }
+
+            selectedTestClassNames.add(bestTestClassName);
+            selectedTestClassNameSet.set(bestTestClassName, true);
+            for (final String probe : testClassProbes.get(bestTestClassName).await().getKeys())
+            {
+                probeHitCounts.set(probe, probeHitCounts.get(probe).catchError(() -> 0).await() + 1);
+            }
+        }
+
+        for (int i = selectedTestClassNames.getCount() - 1; i >= 0; --i)
+        {
+            final String selectedTestClassName = selectedTestClassNames.get(i);
+            final Iterable<String> probes = testClassProbes.get(selectedTestClassName).await().getKeys();
+            if (!probes.contains((String probe) -> probeHitCounts.get(probe).await() == 1))
+            {
+                for (final String probe : probes)
+                {
+                    probeHitCounts.set(probe, probeHitCounts.get(probe).await() - 1);
+                }
+                selectedTestClassNames.removeAt(i);
+                selectedTestClassNameSet.set(selectedTestClassName, false);
+            }
+        }
+
+        final Iterable<String> result = testClassDurations.getKeys()
+            .where((String testClassName) -> selectedTestClassNameSet.get(testClassName).catchError(() -> false).await())
+            .toList();
+
+        PostCondition.assertNotNull(result, "result");
+
+        return result;
+    }
+}
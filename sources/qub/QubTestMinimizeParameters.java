@@ -0,0 +1,62 @@
+package qub;
+
+/**
+ * Parameters that are passed to QubTestMinimize.run().
+ */
+public class QubTestMinimizeParameters extends QubTestRunParameters
+{
+    private String selectionName;
+
+    /**
+     * Create a new QubTestMinimizeParameters object.
+     * @param outputByteWriteStream The ByteWriteStream that output should be written to.
+     * @param errorWriteStream The ByteWriteStream that errors should be written to.
+     * @param folderToTest The folder that should have its tests run.
+     * @param environmentVariables The environment variables of the running process.
+     * @param processFactory The factory that will be used to create new processes.
+     * @param typeLoader The TypeLoader that will be used to locate where the qub-build data folder is.
+     */
+    public QubTestMinimizeParameters(CharacterToByteWriteStream outputByteWriteStream, CharacterToByteWriteStream errorWriteStream,
+                                     Folder folderToTest, EnvironmentVariables environmentVariables, ProcessFactory processFactory,
+                                     DefaultApplicationLauncher defaultApplicationLauncher, String jvmClassPath,
+                                     QubFolder qubFolder, Folder qubTestDataFolder, TypeLoader typeLoader)
+    {
+        super(outputByteWriteStream, errorWriteStream, folderToTest, environmentVariables, processFactory, defaultApplicationLauncher, jvmClassPath, qubFolder, qubTestDataFolder, typeLoader);
+
+        this.selectionName = QubTestMinimizeParameters.getSelectionNameDefault();
+        this.setCoverage(Coverage.Sources);
+        this.setCoveragePerTest(true);
+        this.setOpenCoverageReport(false);
+    }
+
+    /**
+     * Get the name that the minimal test selection will be saved as.
+     * @return The name that the minimal test selection will be saved as.
+     */
+    public String getSelectionName()
+    {
+        return this.selectionName;
+    }
+
+    /**
+     * Set the name that the minimal test selection will be saved as.
+     * @param selectionName The name that the minimal test selection will be saved as.
+     * @return This object for method chaining.
+     */
+    public QubTestMinimizeParameters setSelectionName(String selectionName)
+    {
+        PreCondition.assertNotNullAndNotEmpty(selectionName, "selectionName");
+
+        this.selectionName = selectionName;
+        return this;
+    }
+
+    /**
+     * Get the default value for the --name parameter.
+     * @return The default value for the --name parameter.
+     */
+    static String getSelectionNameDefault()
+    {
+        return "minimal";
+    }
+}
@@ -0,0 +1,107 @@
+package qub;
+
+/**
+ * Exports and imports the shared test result cache (see {@link TestResultCache}) as a zip
+ * archive, so that CI jobs and other machines can reuse each other's passing test results.
+ */
+public interface QubTestResults
+{
+    static void addAction(CommandLineActions actions)
+    {
+        PreCondition.assertNotNull(actions, "actions");
+
+        actions.addAction("results", QubTestResults::getParameters, QubTestResults::run)
+            .setDescription("Export or import the shared test result cache as a zip archive.");
+    }
+
+    /**
+     * Get the parameters for QubTestResults.run().
+     * @param process The Process that is running.
+     * @return The parameters for QubTestResults.run(), or null if QubTestResults.run() should not
+     * be run.
+     */
+    static QubTestResultsParameters getParameters(DesktopProcess process, CommandLineAction action)
+    {
+        PreCondition.assertNotNull(process, "process");
+        PreCondition.assertNotNull(action, "action");
+
+        final CommandLineParameters parameters = action.createCommandLineParameters(process);
+        final CommandLineParameter<File> exportParameter = parameters.addFile("export", process)
+            .setValueName("<archive-file>")
+            .setDescription("The zip archive to export the result cache to.");
+        final CommandLineParameter<File> importParameter = parameters.addFile("import", process)
+            .setValueName("<archive-file>")
+            .setDescription("The zip archive to import into the result cache.");
+        final CommandLineParameterHelp helpParameter = parameters.addHelp();
+
+        QubTestResultsParameters result = null;
+        if (!helpParameter.showApplicationHelpLines(process).await())
+        {
+            final Folder qubTestDataFolder = process.getQubProjectDataFolder().await();
+            result = new QubTestResultsParameters(process, TestResultCache.create(qubTestDataFolder))
+                .setExportFile(exportParameter.removeValue().await())
+                .setImportFile(importParameter.removeValue().await());
+        }
+
+        return result;
+    }
+
+    static int run(QubTestResultsParameters parameters)
+    {
+        PreCondition.assertNotNull(parameters, "parameters");
+
+        final DesktopProcess process = parameters.getProcess();
+        final CharacterToByteWriteStream output = process.getOutputWriteStream();
+        final CharacterToByteWriteStream error = process.getErrorWriteStream();
+        final TestResultCache resultCache = parameters.getResultCache();
+        final File importFile = parameters.getImportFile();
+        final File exportFile = parameters.getExportFile();
+
+        int result = 0;
+        if (importFile == null && exportFile == null)
+        {
+            error.writeLine("Either --import or --export must be specified.").await();
+            result = 1;
+        }
+        else
+        {
+            if (importFile != null)
+            {
+                final Integer importedCount = resultCache.importFrom(importFile)
+                    .catchError((Throwable e) ->
+                    {
+                        error.writeLine("Failed to import " + importFile + ": " + e.getMessage()).await();
+                    })
+                    .await();
+                if (importedCount == null)
+                {
+                    result = 1;
+                }
+                else
+                {
+                    output.writeLine("Imported " + importedCount + " test class result" + (importedCount == 1 ? "" : "s") + " from " + importFile + ".").await();
+                }
+            }
+
+            if (result == 0 && exportFile != null)
+            {
+                final Integer exportedCount = resultCache.exportTo(exportFile)
+                    .catchError((Throwable e) ->
+                    {
+                        error.writeLine("Failed to export to " + exportFile + ": " + e.getMessage()).await();
+                    })
+                    .await();
+                if (exportedCount == null)
+                {
+                    result = 1;
+                }
+                else
+                {
+                    output.writeLine("Exported " + exportedCount + " test class result" + (exportedCount == 1 ? "" : "s") + " to " + exportFile + ".").await();
+                }
+            }
+        }
+
+        return result;
+    }
+}
@@ -0,0 +1,86 @@
+package qub;
+
+/**
+ * Parameters that are passed to QubTestResults.run().
+ */
+public class QubTestResultsParameters
+{
+    private final DesktopProcess process;
+    private final TestResultCache resultCache;
+    private File exportFile;
+    private File importFile;
+
+    /**
+     * Create a new QubTestResultsParameters object.
+     * @param process The process that is exporting or importing the result cache.
+     * @param resultCache The shared result cache to export or import.
+     */
+    public QubTestResultsParameters(DesktopProcess process, TestResultCache resultCache)
+    {
+        PreCondition.assertNotNull(process, "process");
+        PreCondition.assertNotNull(resultCache, "resultCache");
+
+        this.process = process;
+        this.resultCache = resultCache;
+    }
+
+    /**
+     * Get the process that is exporting or importing the result cache.
+     * @return The process that is exporting or importing the result cache.
+     */
+    public DesktopProcess getProcess()
+    {
+        return this.process;
+    }
+
+    /**
+     * Get the shared result cache to export or import.
+     * @return The shared result cache to export or import.
+     */
+    public TestResultCache getResultCache()
+    {
+        return this.resultCache;
+    }
+
+    /**
+     * Get the archive file that the result cache will be exported to.
+     * @return The archive file that the result cache will be exported to, or null if the result
+     * cache won't be exported.
+     */
+    public File getExportFile()
+    {
+        return this.exportFile;
+    }
+
+    /**
+     * Set the archive file that the result cache will be exported to.
+     * @param exportFile The archive file that the result cache will be exported to.
+     * @return This object for method chaining.
+     */
+    public QubTestResultsParameters setExportFile(File exportFile)
+    {
+        this.exportFile = exportFile;
+        return this;
+    }
+
+    /**
+     * Get the archive file that will be imported into the result cache.
+     * @return The archive file that will be imported into the result cache, or null if no archive
+     * will be imported.
+     */
+    public File getImportFile()
+    {
+        return this.importFile;
+    }
+
+    /**
+     * Set the archive file that will be imported into the result cache.
+     * @param importFile The archive file that will be imported into the result cache.
+     * @return This object for method chaining.
+     */
+    public QubTestResultsParameters setImportFile(File importFile)
+    {
+        this.importFile = importFile;
+        return this;
+    }
+}
@@ -41,6 +41,184 @@ public interface QubTestRun
             .setDescription("Whether or not to collect code coverage information while running tests.");
     }
 
+    static CommandLineParameterBoolean addOfflineCoverageParameter(CommandLineParameters parameters)
+    {
+        PreCondition.assertNotNull(parameters, "parameters");
+
+        return parameters.addBoolean("offline-coverage", QubTestRunParameters.getOfflineCoverageDefault())
+            .setDescription("Whether or not to run coverage against cached offline-instrumented class files instead of using the JaCoCo agent.");
+    }
+
+    static CommandLineParameterBoolean addCoveragePerTestParameter(CommandLineParameters parameters)
+    {
+        PreCondition.assertNotNull(parameters, "parameters");
+
+        return parameters.addBoolean("coverage-per-test", QubTestRunParameters.getCoveragePerTestDefault())
+            .setDescription("Whether or not to record which classes each test covers in outputs/testcoverage.json while collecting coverage.");
+    }
+
+    static CommandLineParameter<String> addChangedFilesParameter(CommandLineParameters parameters)
+    {
+        PreCondition.assertNotNull(parameters, "parameters");
+
+        return parameters.addString("changed-files")
+            .setValueName("<file>[,<file>...]")
+            .setDescription("The changed project files that will be used with outputs/testcoverage.json to select which test classes to run.");
+    }
+
+    static CommandLineParameter<String> addChangedSinceParameter(CommandLineParameters parameters)
+    {
+        PreCondition.assertNotNull(parameters, "parameters");
+
+        return parameters.addString("changed-since")
+            .setValueName("<git-ref>")
+            .setDescription("The git ref to compare the working tree against to only run the test classes that reference the changed source files.");
+    }
+
+    static CommandLineParameter<String> addSelectionParameter(CommandLineParameters parameters)
+    {
+        PreCondition.assertNotNull(parameters, "parameters");
+
+        return parameters.addString("selection")
+            .setValueName("<selection-name>")
+            .setDescription("The name of a saved test selection (such as one created by the minimize action) to run instead of all test classes.");
+    }
+
+    static CommandLineParameterBoolean addClassDataSharingParameter(CommandLineParameters parameters)
+    {
+        PreCondition.assertNotNull(parameters, "parameters");
+
+        return parameters.addBoolean("class-data-sharing", QubTestRunParameters.getClassDataSharingDefault())
+            .setDescription("Whether or not to launch the test runner with a cached class data sharing archive to reduce its startup time.");
+    }
+
+    static CommandLineParameter<String> addJvmArgsParameter(CommandLineParameters parameters)
+    {
+        PreCondition.assertNotNull(parameters, "parameters");
+
+        return parameters.addString("jvm-args")
+            .setValueName("<jvm-arguments>")
+            .setDescription("Additional whitespace-separated arguments that will be passed to the test runner JVM.");
+    }
+
+    static CommandLineParameter<String> addJvmProfileParameter(CommandLineParameters parameters)
+    {
+        PreCondition.assertNotNull(parameters, "parameters");
+
+        return parameters.addString("jvm-profile")
+            .setValueName("<quick|throughput|low-memory|profile-name>")
+            .setDescription("The named set of JVM options (built-in or declared in project.json) that the test runner JVM will be launched with.");
+    }
+
+    static CommandLineParameterBoolean addTimingsParameter(CommandLineParameters parameters)
+    {
+        PreCondition.assertNotNull(parameters, "parameters");
+
+        return parameters.addBoolean("timings", QubTestRunParameters.getTimingsDefault())
+            .setDescription("Whether or not to report how long each phase of the test run took and write the timings to the qub-test data folder.");
+    }
+
+    static CommandLineParameterBoolean addInProcessParameter(CommandLineParameters parameters)
+    {
+        PreCondition.assertNotNull(parameters, "parameters");
+
+        return parameters.addBoolean("in-process", QubTestRunParameters.getInProcessDefault())
+            .setDescription("Whether or not to run the tests inside the qub-test JVM instead of launching a separate test runner JVM.");
+    }
+
+    static CommandLineParameterBoolean addStreamDiscoveryParameter(CommandLineParameters parameters)
+    {
+        PreCondition.assertNotNull(parameters, "parameters");
+
+        return parameters.addBoolean("stream-discovery", QubTestRunParameters.getStreamDiscoveryDefault())
+            .setDescription("Whether or not to start the test runner while the outputs folder is still being scanned for test classes.");
+    }
+
+    static CommandLineParameterBoolean addPipelineParameter(CommandLineParameters parameters)
+    {
+        PreCondition.assertNotNull(parameters, "parameters");
+
+        return parameters.addBoolean("pipeline", QubTestRunParameters.getPipelineDefault())
+            .setDescription("Whether or not to start the test runner while the project is still compiling and run each test class as soon as it has been compiled.");
+    }
+
+    static CommandLineParameterBoolean addPrelaunchParameter(CommandLineParameters parameters)
+    {
+        PreCondition.assertNotNull(parameters, "parameters");
+
+        return parameters.addBoolean("prelaunch", QubTestRunParameters.getPrelaunchDefault())
+            .setDescription("Whether or not to start the test runner JVM while the project is still compiling and send it the test classes when the compilation succeeds.");
+    }
+
+    static CommandLineParameterBoolean addResultCacheParameter(CommandLineParameters parameters)
+    {
+        PreCondition.assertNotNull(parameters, "parameters");
+
+        return parameters.addBoolean("result-cache", QubTestRunParameters.getResultCacheDefault())
+            .setDescription("Whether or not to reuse and save passing test class results in a cache that is shared by every project folder on this machine.");
+    }
+
+    static CommandLineParameter<Integer> addTestTimeoutParameter(CommandLineParameters parameters)
+    {
+        PreCondition.assertNotNull(parameters, "parameters");
+
+        return parameters.add("test-timeout", TestTimeouts::parseTimeoutSeconds)
+            .setValueName("<seconds>")
+            .setDescription("The number of seconds that a single test can run before it is failed as hung. Overrides the testTimeout in project.json.");
+    }
+
+    static CommandLineParameter<Integer> addClassTimeoutParameter(CommandLineParameters parameters)
+    {
+        PreCondition.assertNotNull(parameters, "parameters");
+
+        return parameters.add("class-timeout", TestTimeouts::parseTimeoutSeconds)
+            .setValueName("<seconds>")
+            .setDescription("The number of seconds that a test class can run before its running test is failed as hung. Overrides the classTimeout in project.json.");
+    }
+
+    static CommandLineParameterBoolean addBenchmarkParameter(CommandLineParameters parameters)
+    {
+        PreCondition.assertNotNull(parameters, "parameters");
+
+        return parameters.addBoolean("benchmark", QubTestRunParameters.getBenchmarkDefault())
+            .setDescription("Whether or not to run the speed tests as microbenchmarks in a dedicated test runner JVM after the other tests.");
+    }
+
+    static CommandLineParameter<Integer> addBenchmarkWarmupIterationsParameter(CommandLineParameters parameters)
+    {
+        PreCondition.assertNotNull(parameters, "parameters");
+
+        return parameters.add("benchmark-warmup-iterations", SpeedTestBenchmark::parseIterationCount)
+            .setValueName("<count>")
+            .setDescription("The number of times each speed test runs before it is measured when --benchmark is used.");
+    }
+
+    static CommandLineParameter<Integer> addBenchmarkIterationsParameter(CommandLineParameters parameters)
+    {
+        PreCondition.assertNotNull(parameters, "parameters");
+
+        return parameters.add("benchmark-iterations", SpeedTestBenchmark::parseIterationCount)
+            .setValueName("<count>")
+            .setDescription("The number of times each speed test is measured when --benchmark is used.");
+    }
+
+    static CommandLineParameter<Integer> addBenchThresholdParameter(CommandLineParameters parameters)
+    {
+        PreCondition.assertNotNull(parameters, "parameters");
+
+        return parameters.add("bench-threshold", BenchmarkComparison::parseThresholdPercent)
+            .setValueName("<percent>")
+            .setDescription("The number of percent that a benchmark can get slower than its baseline in outputs/bench.json before the run fails. Defaults to 10.");
+    }
+
+    static CommandLineParameterBoolean addBenchUpdateBaselineParameter(CommandLineParameters parameters)
+    {
+        PreCondition.assertNotNull(parameters, "parameters");
+
+        return parameters.addBoolean("bench-update-baseline", QubTestRunParameters.getBenchUpdateBaselineDefault())
+            .setDescription("Whether or not to run the benchmarks and accept their results as the new baselines in outputs/bench.json.");
+    }
+
     static CommandLineParameterBoolean addTestJsonParameter(CommandLineParameters parameters)
     {
         PreCondition.assertNotNull(parameters, "parameters");
@@ -63,6 +241,27 @@ public interface QubTestRun
         final CommandLineParameter<Folder> folderToTestParameter = QubTestRun.addFolderToTestParameter(parameters, process);
         final CommandLineParameter<String> patternParameter = QubTestRun.addPatternParameter(parameters);
         final CommandLineParameter<Coverage> coverageParameter = QubTestRun.addCoverageParameter(parameters);
+        final CommandLineParameterBoolean offlineCoverageParameter = QubTestRun.addOfflineCoverageParameter(parameters);
+        final CommandLineParameterBoolean coveragePerTestParameter = QubTestRun.addCoveragePerTestParameter(parameters);
+        final CommandLineParameter<String> changedFilesParameter = QubTestRun.addChangedFilesParameter(parameters);
+        final CommandLineParameter<String> changedSinceParameter = QubTestRun.addChangedSinceParameter(parameters);
+        final CommandLineParameter<String> selectionParameter = QubTestRun.addSelectionParameter(parameters);
+        final CommandLineParameterBoolean classDataSharingParameter = QubTestRun.addClassDataSharingParameter(parameters);
+        final CommandLineParameter<String> jvmArgsParameter = QubTestRun.addJvmArgsParameter(parameters);
+        final CommandLineParameter<String> jvmProfileParameter = QubTestRun.addJvmProfileParameter(parameters);
+        final CommandLineParameterBoolean timingsParameter = QubTestRun.addTimingsParameter(parameters);
+        final CommandLineParameterBoolean inProcessParameter = QubTestRun.addInProcessParameter(parameters);
+        final CommandLineParameterBoolean streamDiscoveryParameter = QubTestRun.addStreamDiscoveryParameter(parameters);
+        final CommandLineParameterBoolean pipelineParameter = QubTestRun.addPipelineParameter(parameters);
+        final CommandLineParameterBoolean prelaunchParameter = QubTestRun.addPrelaunchParameter(parameters);
+        final CommandLineParameterBoolean resultCacheParameter = QubTestRun.addResultCacheParameter(parameters);
+        final CommandLineParameter<Integer> testTimeoutParameter = QubTestRun.addTestTimeoutParameter(parameters);
+        final CommandLineParameter<Integer> classTimeoutParameter = QubTestRun.addClassTimeoutParameter(parameters);
+        final CommandLineParameterBoolean benchmarkParameter = QubTestRun.addBenchmarkParameter(parameters);
+        final CommandLineParameter<Integer> benchmarkWarmupIterationsParameter = QubTestRun.addBenchmarkWarmupIterationsParameter(parameters);
+        final CommandLineParameter<Integer> benchmarkIterationsParameter = QubTestRun.addBenchmarkIterationsParameter(parameters);
+        final CommandLineParameter<Integer> benchThresholdParameter = QubTestRun.addBenchThresholdParameter(parameters);
+        final CommandLineParameterBoolean benchUpdateBaselineParameter = QubTestRun.addBenchUpdateBaselineParameter(parameters);
         final CommandLineParameterBoolean testJsonParameter = QubTestRun.addTestJsonParameter(parameters);
         final CommandLineParameterVerbose verboseParameter = parameters.addVerbose(process);
         final CommandLineParameterProfiler profilerParameter = parameters.addProfiler(process, QubTest.class);
@@ -90,6 +289,30 @@ public interface QubTestRun
             result = new QubTestRunParameters(output, error, folderToTest, environmentVariables, processFactory, defaultApplicationLauncher, jvmClassPath, qubFolder, projectDataFolder, typeLoader)
                 .setPattern(patternParameter.removeValue().await())
                 .setCoverage(coverageParameter.removeValue().await())
+                .setOfflineCoverage(offlineCoverageParameter.removeValue().await())
+                .setCoveragePerTest(coveragePerTestParameter.removeValue().await())
+                .setChangedFiles(QubTestRun.parseChangedFiles(changedFilesParameter.removeValue().await()))
+                .setChangedSince(changedSinceParameter.removeValue().await())
+                .setSelection(selectionParameter.removeValue().await())
+                .setClassDataSharing(classDataSharingParameter.removeValue().await())
+                .setJvmArgs(jvmArgsParameter.removeValue().await())
+                .setJvmProfile(jvmProfileParameter.removeValue().await())
+                .setTimings(timingsParameter.removeValue().await())
+                .setClock(process.getClock())
+                .setInProcess(inProcessParameter.removeValue().await())
+                .setStreamDiscovery(streamDiscoveryParameter.removeValue().await())
+                .setPipeline(pipelineParameter.removeValue().await())
+                .setPrelaunch(prelaunchParameter.removeValue().await())
+                .setResultCache(resultCacheParameter.removeValue().await())
+                .setProcess(process)
+                .setTestTimeoutSeconds(testTimeoutParameter.removeValue().await())
+                .setClassTimeoutSeconds(classTimeoutParameter.removeValue().await())
+                .setBenchmark(benchmarkParameter.removeValue().await())
+                .setBenchmarkWarmupIterations(benchmarkWarmupIterationsParameter.removeValue().await())
+                .setBenchmarkIterations(benchmarkIterationsParameter.removeValue().await())
+                .setBenchThresholdPercent(benchThresholdParameter.removeValue().await())
+                .setBenchUpdateBaseline(benchUpdateBaselineParameter.removeValue().await())
+                .setJavaVersion(process.getJavaVersion())
                 .setTestJson(testJsonParameter.removeValue().await())
                 .setVerbose(verbose)
                 .setProfiler(profiler);
@@ -105,15 +328,25 @@ public interface QubTestRun
         final Folder folderToTest = parameters.getFolderToTest();
         final String pattern = parameters.getPattern();
         final Coverage coverage = parameters.getCoverage();
+        final Iterable<String> changedFiles = parameters.getChangedFiles();
+        final String selection = parameters.getSelection();
+        final boolean classDataSharing = parameters.getClassDataSharing();
+        final String jvmArgs = parameters.getJvmArgs();
+        final String jvmProfile = parameters.getJvmProfile();
+        final boolean benchUpdateBaseline = parameters.getBenchUpdateBaseline();
+        final boolean benchmark = parameters.getBenchmark() || benchUpdateBaseline;
+        final Integer benchmarkIterations = parameters.getBenchmarkIterations();
         final CharacterToByteWriteStream parametersOutput = parameters.getOutputWriteStream();
         final CharacterToByteWriteStream parametersError = parameters.getErrorWriteStream();
         final VerboseCharacterToByteWriteStream parametersVerbose = parameters.getVerbose();
         final DefaultApplicationLauncher defaultApplicationLauncher = parameters.getDefaultApplicationLauncher();
         final ProcessFactory processFactory = parameters.getProcessFactory();
-        final boolean profiler = parameters.getProfiler();
         final boolean testJson = parameters.getTestJson();
         final QubFolder qubFolder = parameters.getQubFolder();
         final Folder qubTestDataFolder = parameters.getQubTestDataFolder();
+        final PhaseTimer phaseTimer = parameters.getTimings() && parameters.getClock() != null
+            ? PhaseTimer.create(parameters.getClock())
+            : PhaseTimer.create();
 
         LogStreams logStreams = CommandLineLogsAction.getLogStreamsFromDataFolder(qubTestDataFolder, parametersOutput, parametersVerbose);
         final File logFile = logStreams.getLogFile();
@@ -121,9 +354,88 @@ public interface QubTestRun
         VerboseCharacterToByteWriteStream verbose = logStreams.getVerbose();
 
         int result;
+        AsyncTask<Integer> backgroundCompile = null;
+        DateTime backgroundCompileStartTime = null;
         try
         {
-            result = QubBuildCompile.run(parameters);
+            Iterable<String> selectionTestClassNames = null;
+            if (!Strings.isNullOrEmpty(selection))
+            {
+                final File testSelectionsJsonFile = TestSelectionsJSON.getFile(folderToTest.getFolder("outputs").await());
+                selectionTestClassNames = TestSelectionsJSON.parse(testSelectionsJsonFile)
+                    .then((TestSelectionsJSON testSelectionsJson) -> testSelectionsJson.getSelectionTestClassNames(selection))
+                    .catchError()
+                    .await();
+            }
+
+            Iterable<String> jvmProfileArguments = null;
+            if (!Strings.isNullOrEmpty(jvmProfile))
+            {
+                final JSONObject projectJsonObject = JSON.parseObject(folderToTest.getFile("project.json").await())
+                    .catchError()
+                    .await();
+                final Integer peakHeapMegabytes = TestJSON.parse(folderToTest.getFile("outputs/test.json").await())
+                    .then((TestJSON previousTestJson) -> previousTestJson.getPeakHeapMegabytes().await())
+                    .catchError()
+                    .await();
+                jvmProfileArguments = TestJvmProfiles.getJvmArguments(jvmProfile, projectJsonObject, peakHeapMegabytes)
+                    .catchError(NotFoundException.class)
+                    .await();
+            }
+
+            if (!Strings.isNullOrEmpty(selection) || !Strings.isNullOrEmpty(jvmProfile))
+            {
+                phaseTimer.endPhase("Read selection and JVM profile");
+            }
+
+            if (!Strings.isNullOrEmpty(selection) && selectionTestClassNames == null)
+            {
+                parametersError.writeLine("No test selection named " + Strings.escapeAndQuote(selection) + " was found. Run \"qub-test minimize --name=" + selection + "\" to create it.").await();
+                result = 1;
+            }
+            else if (!Strings.isNullOrEmpty(jvmProfile) && jvmProfileArguments == null)
+            {
+                parametersError.writeLine("No JVM profile named " + Strings.escapeAndQuote(jvmProfile) + " was found.").await();
+                result = 1;
+            }
+            else if (benchmarkIterations != null && benchmarkIterations == 0)
+            {
+                parametersError.writeLine("The --benchmark-iterations value must be greater than 0.").await();
+                result = 1;
+            }
+            else
+            {
+                if (parameters.getPipeline() || parameters.getPrelaunch())
+                {
+                    // Test classes are streamed to a test runner that starts while the project
+                    // compiles, so anything that blocks streaming also blocks compiling in the
+                    // background. The previous test.json is still used by the test runner to skip
+                    // the unmodified test classes.
+                    final String backgroundCompileBlocker = QubTestRun.getStreamDiscoveryBlocker(parameters, benchmark, null);
+                    if (backgroundCompileBlocker != null)
+                    {
+                        verbose.writeLine("Compiling before starting the test runner because " + backgroundCompileBlocker + ".").await();
+                    }
+                    else
+                    {
+                        final DesktopProcess process = parameters.getProcess();
+                        backgroundCompileStartTime = process.getClock().getCurrentDateTime();
+                        backgroundCompile = process.getParallelAsyncRunner().schedule(() -> QubBuildCompile.run(parameters));
+                    }
+                }
+
+                if (backgroundCompile == null)
+                {
+                    result = QubBuildCompile.run(parameters);
+                    phaseTimer.endPhase("Compile");
+                }
+                else
+                {
+                    result = 0;
+                    phaseTimer.endPhase("Start compile");
+                }
+            }
+
             if (result == 0)
             {
                 output.writeLine("Running tests...").await();
@@ -132,183 +444,853 @@ public interface QubTestRun
                 final Folder sourceFolder = folderToTest.getFolder("sources").await();
                 final Folder testFolder = folderToTest.getFolder("tests").await();
 
-                final Folder coverageFolder = outputFolder.getFolder("coverage").await();
+                TestJSON previousTestJson = null;
+                if (testJson && coverage == Coverage.None && parameters.getJavaVersion() != null)
+                {
+                    previousTestJson = TestJSON.parse(outputFolder.getFile("test.json").await())
+                        .catchError()
+                        .await();
+                }
+
+                final TestRunClassPath testRunClassPath = TestRunClassPath.create(qubTestDataFolder, folderToTest, outputFolder, qubFolder, parameters.getJvmClassPath());
+                final List<String> jvmOptions = List.create();
+                if (jvmProfileArguments != null)
+                {
+                    jvmOptions.addAll(jvmProfileArguments);
+                }
+                if (!Strings.isNullOrEmpty(jvmArgs))
+                {
+                    jvmOptions.addAll(TestJvmProfiles.splitJvmArguments(jvmArgs));
+                }
 
-                final List<String> classPaths = List.create(outputFolder.toString());
+                final boolean useResultCache = parameters.getResultCache() && testJson && coverage == Coverage.None && parameters.getJavaVersion() != null;
+                TestRunFingerprint fingerprint = null;
+                if (previousTestJson != null || useResultCache)
+                {
+                    fingerprint = TestRunFingerprint.create(testRunClassPath, jvmOptions, folderToTest, outputFolder, parameters.getEnvironmentVariables(), previousTestJson, verbose);
+                    if (fingerprint != null)
+                    {
+                        previousTestJson = fingerprint.getPreviousTestJson();
+                    }
+                    phaseTimer.endPhase("Check test.json fingerprint");
+                }
 
-                final File projectJsonFile = folderToTest.getFile("project.json").await();
-                final ProjectJSON projectJson = ProjectJSON.parse(projectJsonFile).await();
-                final ProjectJSONJava projectJsonJava = projectJson.getJava();
+                TestRunResultCache resultCache = null;
+                if (useResultCache && fingerprint != null)
+                {
+                    resultCache = TestRunResultCache.create(qubTestDataFolder, outputFolder, parameters.getJavaVersion(), fingerprint.getFingerprint(), testRunClassPath.getClassPaths().await());
+                }
 
-                Iterable<ProjectSignature> dependencies = projectJsonJava.getDependencies();
-                if (!Iterable.isNullOrEmpty(dependencies))
+                boolean streamDiscovery = false;
+                if (backgroundCompile != null)
                 {
-                    dependencies = projectJsonJava.getTransitiveDependencies(qubFolder);
-                    classPaths.addAll(dependencies.map((ProjectSignature dependency) ->
+                    streamDiscovery = true;
+                }
+                else if (parameters.getStreamDiscovery())
+                {
+                    final String streamDiscoveryBlocker = QubTestRun.getStreamDiscoveryBlocker(parameters, benchmark, previousTestJson);
+                    if (streamDiscoveryBlocker != null)
+                    {
+                        verbose.writeLine("Scanning the outputs folder before starting the test runner because " + streamDiscoveryBlocker + ".").await();
+                    }
+                    else
                     {
-                        final String publisher = dependency.getPublisher();
-                        final String project = dependency.getProject();
-                        final VersionNumber version = dependency.getVersion();
-                        final File compiledSourcesFile = qubFolder.getCompiledSourcesFile(publisher, project, version).await();
-                        return compiledSourcesFile.toString();
-                    }));
+                        streamDiscovery = true;
+                    }
+                }
+
+                // Streamed test classes are discovered while the test runner is already running.
+                final Iterable<String> discoveredClassNames = streamDiscovery
+                    ? Iterable.create()
+                    : outputFolder.getFilesRecursively()
+                        .catchError(FolderNotFoundException.class, () -> Iterable.create())
+                        .await()
+                        .where((File file) -> Comparer.equal(file.getFileExtension(), ".class"))
+                        .map((File classFile) -> QubTestRun.getFullClassName(outputFolder, classFile))
+                        .toList();
+                Iterable<String> testClassNames = discoveredClassNames;
+
+                if (selectionTestClassNames != null)
+                {
+                    final Iterable<String> selectedTestClassNames = selectionTestClassNames;
+                    testClassNames = testClassNames
+                        .where((String testClassName) -> selectedTestClassNames.contains(testClassName))
+                        .toList();
+                    verbose.writeLine("Running " + testClassNames.getCount() + " test class" + (testClassNames.getCount() == 1 ? "" : "es") + " from the " + Strings.escapeAndQuote(selection) + " selection.").await();
                 }
 
-                final String jvmClassPath = parameters.getJvmClassPath();
-                if (!Strings.isNullOrEmpty(jvmClassPath))
+                if (changedFiles != null)
                 {
-                    final String[] jvmClassPaths = jvmClassPath.split(";");
-                    for (final String jvmClassPathString : jvmClassPaths)
+                    final TestCoverageIndex testCoverageIndex = TestCoverageIndex.parse(TestCoverageIndex.getFile(outputFolder))
+                        .catchError()
+                        .await();
+                    final Iterable<String> changedFileRelativePaths = changedFiles.map((String changedFile) ->
                     {
-                        boolean addJvmClassPathString;
-                        if (!qubFolder.isAncestorOf(jvmClassPathString).await())
-                        {
-                            addJvmClassPathString = !classPaths.contains(jvmClassPathString);
-                        }
-                        else
-                        {
-                            final Path relativeJvmClassPath = Path.parse(jvmClassPathString).relativeTo(qubFolder);
-                            final Indexable<String> segments = relativeJvmClassPath.getSegments();
-                            final ProjectSignature jvmProjectSignature = ProjectSignature.create(segments.get(0), segments.get(1), segments.get(2));
-                            addJvmClassPathString = !QubTestRun.equal(jvmProjectSignature, projectJson.getPublisher(), projectJson.getProject()) &&
-                                (Iterable.isNullOrEmpty(dependencies) || !dependencies.contains(jvmProjectSignature::equalsIgnoreVersion));
-                        }
+                        final Path changedFilePath = Path.parse(changedFile);
+                        return (changedFilePath.isRooted() ? changedFilePath.relativeTo(folderToTest) : changedFilePath).toString();
+                    });
+                    final Iterable<String> affectedTestClassNames = testCoverageIndex == null
+                        ? null
+                        : QubTestRun.getTestClassNamesAffectedBy(changedFileRelativePaths, testCoverageIndex, testClassNames);
+                    if (affectedTestClassNames == null)
+                    {
+                        verbose.writeLine("Could not determine which test classes are affected by the changed files. Running all test classes.").await();
+                    }
+                    else
+                    {
+                        verbose.writeLine("Found " + affectedTestClassNames.getCount() + " test class" + (affectedTestClassNames.getCount() == 1 ? "" : "es") + " affected by the changed files.").await();
+                        testClassNames = affectedTestClassNames;
+                    }
+                }
 
-                        if (addJvmClassPathString)
-                        {
-                            classPaths.addAll(jvmClassPathString);
-                        }
+                final String changedSince = parameters.getChangedSince();
+                if (!Strings.isNullOrEmpty(changedSince))
+                {
+                    final Iterable<String> changedFileRelativePaths = QubTestRun.getGitChangedFiles(processFactory, folderToTest, changedSince)
+                        .catchError()
+                        .await();
+                    final Iterable<String> changedTopLevelClassNames = changedFileRelativePaths == null
+                        ? null
+                        : QubTestRun.getChangedTopLevelClassNames(changedFileRelativePaths);
+                    if (changedFileRelativePaths == null)
+                    {
+                        verbose.writeLine("Could not get the files that changed since " + Strings.escapeAndQuote(changedSince) + " from git. Running all test classes.").await();
+                    }
+                    else if (changedTopLevelClassNames == null)
+                    {
+                        verbose.writeLine("Some of the files that changed since " + Strings.escapeAndQuote(changedSince) + " aren't Java source files. Running all test classes.").await();
+                    }
+                    else
+                    {
+                        final Iterable<String> affectedTestClassNames = QubTestRun.getTestClassNamesAffectedByChangedClasses(outputFolder, changedTopLevelClassNames, testClassNames);
+                        verbose.writeLine("Found " + affectedTestClassNames.getCount() + " test class" + (affectedTestClassNames.getCount() == 1 ? "" : "es") + " affected by the files that changed since " + Strings.escapeAndQuote(changedSince) + ".").await();
+                        testClassNames = affectedTestClassNames;
                     }
                 }
 
-                Folder jacocoFolder = null;
-                if (coverage != Coverage.None)
+                // The pattern is parsed once and matched against the test names that the previous
+                // test runs recorded in test.json, so that test classes that can't contain a
+                // matching test aren't sent to the test runner.
+                final PathPattern testPattern = Strings.isNullOrEmpty(pattern) ? null : PathPattern.parse(pattern);
+                if (testPattern != null && !streamDiscovery)
                 {
-                    final QubProjectFolder jacococliProjectFolder = qubFolder.getProjectFolder("jacoco", "jacococli").await();
-                    jacocoFolder = jacococliProjectFolder.getLatestProjectVersionFolder().await();
+                    final TestJSON testNamesJson = previousTestJson != null
+                        ? previousTestJson
+                        : TestJSON.parse(outputFolder.getFile("test.json").await())
+                            .catchError()
+                            .await();
+                    if (testNamesJson != null)
+                    {
+                        final Iterable<String> matchingTestClassNames = QubTestRun.getTestClassNamesMatching(outputFolder, testNamesJson, testPattern, testClassNames);
+                        verbose.writeLine("Found " + matchingTestClassNames.getCount() + " of " + testClassNames.getCount() + " class" + (testClassNames.getCount() == 1 ? "" : "es") + " that may contain a test that matches " + Strings.escapeAndQuote(pattern) + ".").await();
+                        testClassNames = matchingTestClassNames;
+                    }
                 }
 
-                final ConsoleTestRunnerProcessBuilder consoleTestRunner = ConsoleTestRunnerProcessBuilder.create(processFactory).await()
-                    .redirectOutput(parametersOutput)
-                    .redirectError(parametersError)
-                    .setVerbose(verbose);
+                phaseTimer.endPhase("Scan outputs");
 
-                if (jacocoFolder != null)
+                if (resultCache != null)
                 {
-                    final File jacocoAgentJarFile = jacocoFolder.getFile("jacocoagent.jar").await();
-                    final File coverageExecFile = outputFolder.getFile("coverage.exec").await();
-                    consoleTestRunner.addJavaAgent(jacocoAgentJarFile + "=destfile=" + coverageExecFile);
+                    previousTestJson = resultCache.restore(previousTestJson, testClassNames, verbose);
+                    phaseTimer.endPhase("Restore cached results");
                 }
 
-                consoleTestRunner.addClasspath(classPaths);
-                consoleTestRunner.addConsoleTestRunnerFullClassName();
-                consoleTestRunner.addProfiler(profiler);
-                consoleTestRunner.addVerbose(parametersVerbose.isVerbose());
-                consoleTestRunner.addTestJson(testJson);
-                consoleTestRunner.addLogFile(logFile);
+                final File testJsonFile = outputFolder.getFile("test.json").await();
+                final String testJsonHashBeforeRun = testJson
+                    ? QubTestHash.hash(testJsonFile).catchError().await()
+                    : null;
 
-                if (!Strings.isNullOrEmpty(pattern))
+                final TestRunPlan testRunPlan;
+                if (testJson && coverage == Coverage.None && parameters.getJavaVersion() != null)
+                {
+                    final Map<String,Boolean> recompiledSources = previousTestJson == null
+                        ? null
+                        : QubTestRun.getRecompiledSources(qubTestDataFolder, folderToTest, outputFolder, testJsonHashBeforeRun);
+                    if (recompiledSources != null)
+                    {
+                        verbose.writeLine("Using outputs/build.json to find the test classes whose source files were recompiled since the previous run.").await();
+                    }
+                    testRunPlan = TestRunPlan.create(outputFolder, testClassNames, previousTestJson, parameters.getJavaVersion(), recompiledSources, verbose);
+                }
+                else
                 {
-                    consoleTestRunner.addPattern(pattern);
+                    testRunPlan = TestRunPlan.create(testClassNames);
                 }
+                phaseTimer.endPhase("Plan test run");
 
-                consoleTestRunner.addOutputFolder(outputFolder);
+                // The test runner carries the test.json entries of the test classes that it isn't
+                // given forward unchanged, so after a run that filtered out some of the test
+                // classes, test.json doesn't describe the current compilation.
+                final boolean allTestClassesPlanned = testClassNames.getCount() == discoveredClassNames.getCount();
 
-                if (coverage != null)
+                // The speed tests are benchmarked even if none of the test classes changed.
+                if (!benchmark && testRunPlan.getUnmodifiedTestClassNames().any() && !testRunPlan.getTestClassNamesToRun().any())
                 {
-                    consoleTestRunner.addArgument("--coverage=" + coverage);
+                    verbose.writeLine("No test classes need to run. Skipping the test runner.").await();
+                    output.writeLine().await();
+                    output.writeLine().await();
+                    ConsoleTestRunner.createSummaryTable(testRunPlan.getUnmodifiedPassedTestCount(), testRunPlan.getUnmodifiedSkippedTestCount(), 0, 0, 0, 0, Duration.seconds(0))
+                        .toString(output, CharacterTableFormat.consise).await();
+                    output.writeLine().await();
+
+                    // Every planned test class is up to date with test.json, so if every test
+                    // class was planned, the current build.json describes the compilation that
+                    // test.json was written for.
+                    QubTestRun.updateBuildJSONSnapshot(qubTestDataFolder, folderToTest, outputFolder, null, allTestClassesPlanned);
                 }
+                else
+                {
+                    final File projectJsonFile = folderToTest.getFile("project.json").await();
+                    final String projectJsonContents = projectJsonFile.getContentsAsString().await();
+
+                    final List<String> classPaths = List.create();
+                    classPaths.addAll(testRunClassPath.getClassPaths().await());
+                    phaseTimer.endPhase("Resolve classpath");
+
+                    final TestRunBenchmark testRunBenchmark = benchmark
+                        ? TestRunBenchmark.create(parameters, jvmOptions, classPaths)
+                        : null;
+
+                    final JSONObject projectJsonObject = JSON.parseObject(projectJsonContents)
+                        .catchError()
+                        .await();
+                    final Integer testTimeoutSeconds = TestTimeouts.getTimeoutSeconds(parameters.getTestTimeoutSeconds(), projectJsonObject, TestTimeouts.testTimeoutPropertyName);
+                    final Integer classTimeoutSeconds = TestTimeouts.getTimeoutSeconds(parameters.getClassTimeoutSeconds(), projectJsonObject, TestTimeouts.classTimeoutPropertyName);
+
+                    final Iterable<String> inProcessClassPaths = parameters.getInProcess()
+                        ? testRunClassPath.getInProcessClassPaths(parameters, testTimeoutSeconds != null || classTimeoutSeconds != null, verbose)
+                        : null;
+
+                    final TestRunLaunch testRunLaunch = TestRunLaunch.create(parameters, logFile, verbose);
+                    final TestRunCoverage testRunCoverage = TestRunCoverage.create(parameters, outputFolder, sourceFolder, testFolder, verbose);
+                    if (testRunCoverage != null)
+                    {
+                        testRunCoverage.addToTestRunner(parameters, testRunLaunch.getConsoleTestRunner(), classPaths, verbose);
+                        phaseTimer.endPhase("Prepare coverage");
+                    }
 
-                consoleTestRunner.addArguments(outputFolder.getFilesRecursively()
-                    .catchError(FolderNotFoundException.class, () -> Iterable.create())
-                    .await()
-                    .where((File file) -> Comparer.equal(file.getFileExtension(), ".class"))
-                    .map((File classFile) -> QubTestRun.getFullClassName(outputFolder, classFile)));
+                    if (jvmProfileArguments != null)
+                    {
+                        verbose.writeLine("Using the " + Strings.escapeAndQuote(jvmProfile) + " JVM profile: " + Strings.join(' ', jvmProfileArguments)).await();
+                    }
+                    testRunLaunch.getConsoleTestRunner().addArguments(jvmOptions);
 
-                verbose.writeLine("Running " + consoleTestRunner.getCommand()).await();
+                    final Iterable<String> testRunnerClassPaths = classDataSharing
+                        ? testRunLaunch.addClassDataSharingArchive(classPaths, jvmOptions, outputFolder, verbose)
+                        : classPaths;
+                    testRunLaunch.addTestRunnerArguments(testRunnerClassPaths, outputFolder, testRunPlan, testTimeoutSeconds, classTimeoutSeconds, phaseTimer.isEnabled(), streamDiscovery, verbose);
 
-                output.writeLine().await();
+                    if (inProcessClassPaths != null)
+                    {
+                        verbose.writeLine("Running the tests in-process with an isolated class loader for " + Strings.join(';', inProcessClassPaths)).await();
+                    }
+                    else
+                    {
+                        verbose.writeLine("Running " + testRunLaunch.getConsoleTestRunner().getCommand()).await();
+                    }
 
-                logStreams.getLogStream().dispose().await();
+                    output.writeLine().await();
+
+                    logStreams.getLogStream().dispose().await();
 
-                result = consoleTestRunner.run().await();
+                    phaseTimer.endPhase("Prepare test runner");
+                    if (inProcessClassPaths != null)
+                    {
+                        final ConsoleTestRunnerParameters inProcessParameters = new ConsoleTestRunnerParameters(parameters.getProcess(), parametersVerbose, outputFolder, testRunPlan.getTestClassNamesToRun())
+                            .setPattern(testPattern)
+                            .setCoverage(Coverage.None)
+                            .setTestJson(testJson)
+                            .setLogFile(logFile)
+                            .setUnmodifiedPassedTestCount(testRunPlan.getUnmodifiedPassedTestCount())
+                            .setUnmodifiedSkippedTestCount(testRunPlan.getUnmodifiedSkippedTestCount());
+                        result = InProcessTestRunner.run(inProcessParameters, inProcessClassPaths);
+                    }
+                    else
+                    {
+                        result = testRunLaunch.run(outputFolder, Iterable.create(sourceFolder, testFolder), backgroundCompile, backgroundCompileStartTime);
+                    }
+                    phaseTimer.endPhase("Run test runner");
 
-                logStreams = CommandLineLogsAction.getLogStreamsFromLogFile(logFile, parametersOutput, parametersVerbose);
-                output = logStreams.getOutput();
-                verbose = logStreams.getVerbose();
+                    if (testJson)
+                    {
+                        QubTestRun.updateBuildJSONSnapshot(qubTestDataFolder, folderToTest, outputFolder, testJsonHashBeforeRun, allTestClassesPlanned && !testRunLaunch.wasRestarted());
+                    }
+                    if (resultCache != null)
+                    {
+                        resultCache.save(previousTestJson, verbose);
+                        phaseTimer.endPhase("Save cached results");
+                    }
 
-                if (jacocoFolder != null)
-                {
-                    output.writeLine().await();
-                    output.writeLine("Analyzing coverage...").await();
+                    if (phaseTimer.isEnabled())
+                    {
+                        testRunLaunch.addTestRunnerTimings(phaseTimer.getTimings(), "Run test runner");
+                    }
+
+                    logStreams = CommandLineLogsAction.getLogStreamsFromLogFile(logFile, parametersOutput, parametersVerbose);
+                    output = logStreams.getOutput();
+                    verbose = logStreams.getVerbose();
+
+                    testRunLaunch.writeStartupMilliseconds(verbose);
 
-                    final JacocoCliProcessBuilder jacococli = JacocoCliProcessBuilder.create(processFactory).await()
-                        .addJacocoCliJar(jacocoFolder.getFile("jacococli.jar").await())
-                        .addReport()
-                        .addCoverageExec(outputFolder.getFile("coverage.exec").await())
-                        .addClassFiles(QubTestRun.getClassFilesForCoverage(coverage, outputFolder, sourceFolder, testFolder))
-                        .addSourceFiles(coverage, sourceFolder, testFolder)
-                        .addHtml(coverageFolder);
+                    if (testRunCoverage != null)
+                    {
+                        output.writeLine().await();
+                        output.writeLine("Analyzing coverage...").await();
+
+                        final int coverageExitCode = testRunCoverage.report(parameters, verbose);
+                        if (result == 0)
+                        {
+                            result = coverageExitCode;
+                        }
+                        phaseTimer.endPhase("Analyze coverage");
+                    }
 
-                    if (parametersVerbose.isVerbose())
+                    if (testRunBenchmark != null)
                     {
-                        jacococli.redirectOutput(parametersOutput);
-                        jacococli.redirectError(parametersError);
+                        final int benchmarkExitCode = testRunBenchmark.run(logFile, outputFolder, testClassNames, logStreams);
+                        if (result == 0)
+                        {
+                            result = benchmarkExitCode;
+                        }
+                        phaseTimer.endPhase("Benchmark speed tests");
 
-                        verbose.writeLine("Running " + jacococli.getCommand()).await();
+                        logStreams = CommandLineLogsAction.getLogStreamsFromLogFile(logFile, parametersOutput, parametersVerbose);
+                        output = logStreams.getOutput();
+                        verbose = logStreams.getVerbose();
                     }
 
-                    final int coverageExitCode = jacococli.run().await();
-                    if (result == 0)
+                    if (testRunCoverage != null && parameters.getOpenCoverageReport())
                     {
-                        result = coverageExitCode;
+                        defaultApplicationLauncher.openFileWithDefaultApplication(testRunCoverage.getReportFile()).await();
                     }
                 }
+            }
 
-                if (jacocoFolder != null)
+            if (backgroundCompile != null)
+            {
+                // A failed compilation fails the test run even if the test classes that did
+                // compile passed.
+                final int compileExitCode = backgroundCompile.await();
+                if (compileExitCode != 0)
                 {
-                    defaultApplicationLauncher.openFileWithDefaultApplication(coverageFolder.getFile("index.html").await()).await();
+                    result = compileExitCode;
                 }
+                backgroundCompile = null;
+            }
+
+            if (phaseTimer.isEnabled())
+            {
+                final PhaseTimings timings = phaseTimer.getTimings();
+                output.writeLine().await();
+                output.writeLine("Phase Timings:").await();
+                timings.createTable().toString(output, CharacterTableFormat.consise).await();
+                output.writeLine().await();
+
+                final File timingsFile = PhaseTimings.getFile(qubTestDataFolder, folderToTest);
+                timingsFile.setContentsAsString(timings.toString(JSONFormat.pretty))
+                    .catchError()
+                    .await();
+                verbose.writeLine("Wrote phase timings to " + timingsFile + ".").await();
             }
         }
         finally
         {
+            if (backgroundCompile != null)
+            {
+                // Don't leave the compilation writing to the outputs folder after the test run
+                // ends early.
+                backgroundCompile.catchError().await();
+            }
             logStreams.getLogStream().dispose().await();
         }
 
         return result;
     }
 
-    static boolean equal(ProjectSignature dependency, String publisher, String project)
+    /**
+     * Parse the value of the --changed-files parameter.
+     * @param changedFiles The comma-separated list of changed files.
+     * @return The changed files, or null if no value was provided.
+     */
+    static Iterable<String> parseChangedFiles(String changedFiles)
     {
-        PreCondition.assertNotNull(dependency, "dependency");
-
-        return Comparer.equal(dependency.getPublisher(), publisher) &&
-            Comparer.equal(dependency.getProject(), project);
+        Iterable<String> result = null;
+        if (changedFiles != null)
+        {
+            final List<String> changedFileList = List.create();
+            for (final String changedFile : changedFiles.split(","))
+            {
+                final String trimmedChangedFile = changedFile.trim();
+                if (!trimmedChangedFile.isEmpty())
+                {
+                    changedFileList.add(trimmedChangedFile);
+                }
+            }
+            result = changedFileList;
+        }
+        return result;
     }
 
     /**
-     * Get whether or not the provided outputClassFile was created from one of the provided java
-     * files.
-     * @param outputFolder The output folder that the outputClassFiles are entries of.
-     * @param outputClassFile The outputClassFile to check.
-     * @param sourceFolder The source folder that the sourceJavaFiles are entries of.
-     * @param sourceJavaFiles The possible source files that the class file may have come from.
-     * @return Whether or not the provided outputClassFile was created from one of the provided java
-     * files.
+     * Get the test classes that need to run because of the provided changed files.
+     * @param changedFileRelativePaths The paths of the changed files relative to the project folder.
+     * @param testCoverageIndex The index of which classes each test covers.
+     * @param allClassNames The full names of all of the classes in the output folder.
+     * @return The full names of the test classes that are affected by the changed files, or null
+     * if the affected test classes can't be determined because a changed file isn't a Java source
+     * file or a changed source file's class isn't covered by any test in the index.
      */
-    static boolean isSourceClassFile(Folder outputFolder, File outputClassFile, Folder sourceFolder, Iterable<File> sourceJavaFiles)
+    static Iterable<String> getTestClassNamesAffectedBy(Iterable<String> changedFileRelativePaths, TestCoverageIndex testCoverageIndex, Iterable<String> allClassNames)
     {
-        PreCondition.assertNotNull(outputFolder, "outputFolder");
-        PreCondition.assertNotNull(outputClassFile, "outputClassFile");
-        PreCondition.assertNotNull(sourceFolder, "sourceFolder");
-        PreCondition.assertNotNull(sourceJavaFiles, "sourceJavaFiles");
+        PreCondition.assertNotNull(changedFileRelativePaths, "changedFileRelativePaths");
+        PreCondition.assertNotNull(testCoverageIndex, "testCoverageIndex");
+        PreCondition.assertNotNull(allClassNames, "allClassNames");
 
-        Path outputClassFilePath = outputClassFile.relativeTo(outputFolder).withoutFileExtension();
-        if (outputClassFilePath.getSegments().last().contains("$"))
+        final MutableMap<String,Boolean> affectedTestClassNames = Map.create();
+        for (final String changedFileRelativePath : changedFileRelativePaths)
         {
-            final String outputClassFileRelativePathString = outputClassFilePath.toString();
-            final int dollarSignIndex = outputClassFileRelativePathString.lastIndexOf('$');
+            final String changedFilePath = changedFileRelativePath.replace('\\', '/');
+            if (!changedFilePath.endsWith(".java"))
+            {
+                return null;
+            }
+
+            final String changedFilePathWithoutExtension = changedFilePath.substring(0, changedFilePath.length() - ".java".length());
+            final String topLevelClassName;
+            if (changedFilePath.startsWith("sources/"))
+            {
+                topLevelClassName = changedFilePathWithoutExtension.substring("sources/".length()).replace('/', '.');
+            }
+            else if (changedFilePath.startsWith("tests/"))
+            {
+                topLevelClassName = changedFilePathWithoutExtension.substring("tests/".length()).replace('/', '.');
+                affectedTestClassNames.set(topLevelClassName, true);
+            }
+            else
+            {
+                return null;
+            }
+
+            final Iterable<String> coveringTestClassNames = testCoverageIndex.getTestClassNamesThatCover(topLevelClassName);
+            if (changedFilePath.startsWith("sources/") && !coveringTestClassNames.any())
+            {
+                // A new class, a deleted class, or a class that the index doesn't know about
+                // (because the index is older than the class) could be used by any test class.
+                return null;
+            }
+            for (final String testClassName : coveringTestClassNames)
+            {
+                affectedTestClassNames.set(testClassName, true);
+            }
+        }
+
+        return allClassNames
+            .where(affectedTestClassNames::containsKey)
+            .toList();
+    }
+
+    /**
+     * Get the paths (relative to the project folder) of the files in the project folder that have
+     * changed in the git working tree since the provided git ref, including untracked files.
+     * @param processFactory The factory that will be used to run git.
+     * @param projectFolder The folder of the project that is being tested.
+     * @param ref The git ref to compare the working tree against.
+     * @return The paths of the changed files relative to the project folder.
+     */
+    static Result<Iterable<String>> getGitChangedFiles(ProcessFactory processFactory, Folder projectFolder, String ref)
+    {
+        PreCondition.assertNotNull(processFactory, "processFactory");
+        PreCondition.assertNotNull(projectFolder, "projectFolder");
+        PreCondition.assertNotNullAndNotEmpty(ref, "ref");
+
+        return Result.create2(() ->
+        {
+            if (ref.startsWith("-"))
+            {
+                throw new IllegalArgumentException("The git ref can't start with '-': " + ref);
+            }
+
+            final List<String> result = List.create();
+            result.addAll(QubTestRun.runGit(processFactory, projectFolder, "-c", "core.quotePath=false", "diff", "--name-only", "--relative", ref, "--").await());
+            result.addAll(QubTestRun.runGit(processFactory, projectFolder, "-c", "core.quotePath=false", "ls-files", "--others", "--exclude-standard").await());
+            return result;
+        });
+    }
+
+    /**
+     * Run git in the provided folder and get the non-empty lines that it writes to its output.
+     * @param processFactory The factory that will be used to run git.
+     * @param workingFolder The folder that git will run in.
+     * @param arguments The arguments to pass to git.
+     * @return The non-empty lines that git wrote to its output.
+     */
+    static Result<Iterable<String>> runGit(ProcessFactory processFactory, Folder workingFolder, String... arguments)
+    {
+        PreCondition.assertNotNull(processFactory, "processFactory");
+        PreCondition.assertNotNull(workingFolder, "workingFolder");
+        PreCondition.assertNotNullAndNotEmpty(arguments, "arguments");
+
+        return Result.create2(() ->
+        {
+            final ProcessBuilder git = processFactory.getProcessBuilder("git").await();
+            git.setWorkingFolder(workingFolder);
+            git.addArguments(arguments);
+            final InMemoryCharacterToByteStream gitOutput = InMemoryCharacterToByteStream.create();
+            git.redirectOutput(gitOutput);
+            git.redirectError(InMemoryCharacterToByteStream.create());
+
+            final int exitCode = git.run().await();
+            if (exitCode != 0)
+            {
+                throw new RuntimeException("git " + Strings.join(' ', Iterable.create(arguments)) + " failed with exit code " + exitCode + ".");
+            }
+            return Strings.getLines(gitOutput.getText().await())
+                .where((String line) -> !Strings.isNullOrEmpty(line))
+                .toList();
+        });
+    }
+
+    /**
+     * Get the full names of the top-level classes that are declared by the provided changed files.
+     * Changed files in the outputs folder are build outputs and are ignored.
+     * @param changedFileRelativePaths The paths of the changed files relative to the project folder.
+     * @return The full names of the top-level classes that are declared by the changed files, or
+     * null if one of the changed files isn't a Java source file in the sources or tests folder.
+     */
+    static Iterable<String> getChangedTopLevelClassNames(Iterable<String> changedFileRelativePaths)
+    {
+        PreCondition.assertNotNull(changedFileRelativePaths, "changedFileRelativePaths");
+
+        final List<String> result = List.create();
+        for (final String changedFileRelativePath : changedFileRelativePaths)
+        {
+            final String changedFilePath = changedFileRelativePath.replace('\\', '/');
+            if (!changedFilePath.startsWith("outputs/"))
+            {
+                final int firstSlashIndex = changedFilePath.indexOf('/');
+                final String rootFolderName = firstSlashIndex < 0 ? "" : changedFilePath.substring(0, firstSlashIndex);
+                if (!changedFilePath.endsWith(".java") || !(rootFolderName.equals("sources") || rootFolderName.equals("tests")))
+                {
+                    return null;
+                }
+                result.add(changedFilePath.substring(firstSlashIndex + 1, changedFilePath.length() - ".java".length()).replace('/', '.'));
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Get the provided test classes that are declared by or reference (directly or through other
+     * classes in the output folder) one of the provided changed classes.
+     * @param outputFolder The output folder that contains the project's class files.
+     * @param changedTopLevelClassNames The full names of the changed top-level classes.
+     * @param testClassNames The full names of the test classes to filter.
+     * @return The full names of the test classes that are affected by the changed classes.
+     */
+    static Iterable<String> getTestClassNamesAffectedByChangedClasses(Folder outputFolder, Iterable<String> changedTopLevelClassNames, Iterable<String> testClassNames)
+    {
+        PreCondition.assertNotNull(outputFolder, "outputFolder");
+        PreCondition.assertNotNull(changedTopLevelClassNames, "changedTopLevelClassNames");
+        PreCondition.assertNotNull(testClassNames, "testClassNames");
+
+        final MutableMap<String,Boolean> changedTopLevelClassNameSet = Map.create();
+        for (final String changedTopLevelClassName : changedTopLevelClassNames)
+        {
+            changedTopLevelClassNameSet.set(changedTopLevelClassName, true);
+        }
+
+        final MutableMap<String,Boolean> changedClassNames = Map.create();
+        final Iterable<File> classFiles = QubTestRun.getAllClassFiles(outputFolder)
+            .catchError(() -> Iterable.create())
+            .await();
+        for (final File classFile : classFiles)
+        {
+            final String fullClassName = QubTestRun.getFullClassName(outputFolder, classFile);
+            if (changedTopLevelClassNameSet.containsKey(QubTestRun.getTopLevelClassName(fullClassName)))
+            {
+                changedClassNames.set(fullClassName, true);
+            }
+        }
+
+        final Map<String,Boolean> referencingClassNames = changedClassNames.any()
+            ? QubTestRun.getClassNamesReferencingAny(outputFolder, changedClassNames)
+            : Map.create();
+        return testClassNames
+            .where((String testClassName) -> changedClassNames.containsKey(testClassName) || referencingClassNames.containsKey(testClassName))
+            .toList();
+    }
+
+    /**
+     * Get the provided classes that may contain a test that matches the provided pattern,
+     * according to the tests that test.json recorded for each class. A class is kept if test.json
+     * doesn't have an entry for it, if its class file changed since the entry was written, or if
+     * the entry doesn't record all of the class's tests.
+     * @param outputFolder The output folder that contains the project's class files.
+     * @param testJson The test.json file that contains the recorded tests.
+     * @param pattern The pattern that the tests will be matched against.
+     * @param classNames The full names of the classes to filter.
+     * @return The full names of the classes that may contain a test that matches the pattern.
+     */
+    static Iterable<String> getTestClassNamesMatching(Folder outputFolder, TestJSON testJson, PathPattern pattern, Iterable<String> classNames)
+    {
+        PreCondition.assertNotNull(outputFolder, "outputFolder");
+        PreCondition.assertNotNull(testJson, "testJson");
+        PreCondition.assertNotNull(pattern, "pattern");
+        PreCondition.assertNotNull(classNames, "classNames");
+
+        final MutableMap<String,TestJSONClassFile> classFiles = Map.create();
+        for (final TestJSONClassFile classFile : testJson.getClassFiles())
+        {
+            classFiles.set(classFile.getFullClassName(), classFile);
+        }
+
+        final List<String> result = List.create();
+        for (final String className : classNames)
+        {
+            final TestJSONClassFile classFile = classFiles.get(className)
+                .catchError()
+                .await();
+            boolean mayMatch = true;
+            if (classFile != null && classFile.hasAllTests())
+            {
+                final DateTime lastModified = outputFolder.getFile(classFile.getRelativePath()).await()
+                    .getLastModified()
+                    .catchError()
+                    .await();
+                if (lastModified != null && lastModified.equals(classFile.getLastModified()))
+                {
+                    mayMatch = classFile.getTests().contains((TestJSONTest test) -> test.matches(pattern));
+                }
+            }
+
+            if (mayMatch)
+            {
+                result.add(className);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Get whether each of the project's source files has been recompiled since the previous test
+     * run wrote test.json.
+     * @param qubTestDataFolder The qub-test data folder.
+     * @param projectFolder The folder of the project that is being tested.
+     * @param outputFolder The output folder that contains build.json and test.json.
+     * @param testJsonHash The hash of the current test.json file, or null if it doesn't exist.
+     * @return A map from the relative path of each source file to whether it has been recompiled,
+     * or null if that can't be determined from build.json.
+     */
+    static Map<String,Boolean> getRecompiledSources(Folder qubTestDataFolder, Folder projectFolder, Folder outputFolder, String testJsonHash)
+    {
+        PreCondition.assertNotNull(qubTestDataFolder, "qubTestDataFolder");
+        PreCondition.assertNotNull(projectFolder, "projectFolder");
+        PreCondition.assertNotNull(outputFolder, "outputFolder");
+
+        Map<String,Boolean> result = null;
+        if (testJsonHash != null)
+        {
+            final BuildJSONSnapshot buildJsonSnapshot = BuildJSONSnapshot.parse(BuildJSONSnapshot.getFile(qubTestDataFolder, projectFolder))
+                .catchError()
+                .await();
+            // The snapshot only describes test.json if test.json hasn't been written since.
+            if (buildJsonSnapshot != null && testJsonHash.equals(buildJsonSnapshot.getTestJsonHash()))
+            {
+                final JSONObject buildJson = JSON.parseObject(outputFolder.getFile("build.json").await())
+                    .catchError()
+                    .await();
+                if (buildJson != null)
+                {
+                    result = buildJsonSnapshot.getRecompiledSources(buildJson);
+                }
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Update the snapshot of build.json after a test run. The snapshot is only kept if every test
+     * class in the output folder was planned and the test run wrote a new test.json file, because
+     * otherwise test.json may not describe the current compilation.
+     * @param qubTestDataFolder The qub-test data folder.
+     * @param projectFolder The folder of the project that is being tested.
+     * @param outputFolder The output folder that contains build.json and test.json.
+     * @param testJsonHashBeforeRun The hash of test.json before the test run, or null if test.json
+     *                              is known to describe the current compilation.
+     * @param allTestClassesPlanned Whether or not every test class in the output folder was either
+     *                              run or skipped because it was up to date with test.json.
+     */
+    static void updateBuildJSONSnapshot(Folder qubTestDataFolder, Folder projectFolder, Folder outputFolder, String testJsonHashBeforeRun, boolean allTestClassesPlanned)
+    {
+        PreCondition.assertNotNull(qubTestDataFolder, "qubTestDataFolder");
+        PreCondition.assertNotNull(projectFolder, "projectFolder");
+        PreCondition.assertNotNull(outputFolder, "outputFolder");
+
+        final File snapshotFile = BuildJSONSnapshot.getFile(qubTestDataFolder, projectFolder);
+        final String testJsonHash = QubTestHash.hash(outputFolder.getFile("test.json").await())
+            .catchError()
+            .await();
+        final JSONObject buildJson = JSON.parseObject(outputFolder.getFile("build.json").await())
+            .catchError()
+            .await();
+        if (allTestClassesPlanned && testJsonHash != null && buildJson != null && !testJsonHash.equals(testJsonHashBeforeRun))
+        {
+            snapshotFile.setContentsAsString(BuildJSONSnapshot.create(buildJson, testJsonHash).toString())
+                .catchError()
+                .await();
+        }
+        else
+        {
+            snapshotFile.delete()
+                .catchError()
+                .await();
+        }
+    }
+
+    /**
+     * Get the full names of the classes in the provided output folder that reference one of the
+     * provided classes, either directly or through other classes in the output folder. A class
+     * file that can't be parsed is treated as if it referenced one of the provided classes.
+     * @param outputFolder The output folder that contains the project's class files.
+     * @param classNames The full names of the classes to look for.
+     * @return The full names of the classes that reference one of the provided classes.
+     */
+    static Map<String,Boolean> getClassNamesReferencingAny(Folder outputFolder, Map<String,Boolean> classNames)
+    {
+        PreCondition.assertNotNull(outputFolder, "outputFolder");
+        PreCondition.assertNotNull(classNames, "classNames");
+
+        final MutableMap<String,List<String>> referencingClassNames = Map.create();
+        final List<String> classNamesToVisit = List.create();
+        final Iterable<File> classFiles = QubTestRun.getAllClassFiles(outputFolder)
+            .catchError(() -> Iterable.create())
+            .await();
+        for (final File classFile : classFiles)
+        {
+            final String fullClassName = QubTestRun.getFullClassName(outputFolder, classFile);
+            final Iterable<String> referencedClassNames = classFile.getContents()
+                .then((byte[] classFileBytes) -> ClassFileReferences.getReferencedClassNames(classFileBytes).await())
+                .catchError()
+                .await();
+            if (referencedClassNames == null)
+            {
+                classNamesToVisit.add(fullClassName);
+            }
+            else
+            {
+                for (final String referencedClassName : referencedClassNames)
+                {
+                    if (classNames.containsKey(referencedClassName))
+                    {
+                        classNamesToVisit.add(fullClassName);
+                    }
+                    else if (!referencedClassName.equals(fullClassName))
+                    {
+                        List<String> referencing = referencingClassNames.get(referencedClassName)
+                            .catchError()
+                            .await();
+                        if (referencing == null)
+                        {
+                            referencing = List.create();
+                            referencingClassNames.set(referencedClassName, referencing);
+                        }
+                        referencing.add(fullClassName);
+                    }
+                }
+            }
+        }
+
+        final MutableMap<String,Boolean> result = Map.create();
+        while (classNamesToVisit.any())
+        {
+            final int lastIndex = classNamesToVisit.getCount() - 1;
+            final String className = classNamesToVisit.get(lastIndex);
+            classNamesToVisit.removeAt(lastIndex);
+            if (!result.containsKey(className))
+            {
+                result.set(className, true);
+                classNamesToVisit.addAll(referencingClassNames.get(className)
+                    .catchError(() -> List.create())
+                    .await());
+            }
+        }
+
+        PostCondition.assertNotNull(result, "result");
+
+        return result;
+    }
+
+    /**
+     * Get the reason why the test classes can't be streamed to the test runner while they are
+     * discovered.
+     * @param parameters The parameters of the test run.
+     * @param benchmark Whether or not the speed tests will be benchmarked.
+     * @param previousTestJson The test.json file from the previous test run, or null if it
+     *                         doesn't exist or won't be used.
+     * @return The reason why the test classes can't be streamed, or null if they can be streamed.
+     */
+    static String getStreamDiscoveryBlocker(QubTestRunParameters parameters, boolean benchmark, TestJSON previousTestJson)
+    {
+        PreCondition.assertNotNull(parameters, "parameters");
+
+        String result = null;
+        if (!Strings.isNullOrEmpty(parameters.getSelection()))
+        {
+            result = "a test selection is filtered against every discovered test class";
+        }
+        else if (parameters.getChangedFiles() != null)
+        {
+            result = "the changed files are matched against every discovered test class";
+        }
+        else if (!Strings.isNullOrEmpty(parameters.getChangedSince()))
+        {
+            result = "the files changed since the git ref are matched against every discovered test class";
+        }
+        else if (parameters.getCoverage() != Coverage.None)
+        {
+            result = "the JaCoCo agent needs the full list of class files before the test runner starts";
+        }
+        else if (benchmark)
+        {
+            result = "the benchmark runner needs the full list of test classes";
+        }
+        else if (parameters.getInProcess())
+        {
+            result = "in-process tests don't start a separate test runner";
+        }
+        else if (parameters.getResultCache())
+        {
+            result = "the result cache is checked for every discovered test class before the test runner starts";
+        }
+        else if (previousTestJson != null && Comparer.equal(parameters.getJavaVersion(), previousTestJson.getJavaVersion().catchError().await()))
+        {
+            result = "the previous test.json may show that the test runner doesn't need to start";
+        }
+        return result;
+    }
+
+    /**
+     * Get whether or not the provided outputClassFile was created from one of the provided java
+     * files.
+     * @param outputFolder The output folder that the outputClassFiles are entries of.
+     * @param outputClassFile The outputClassFile to check.
+     * @param sourceFolder The source folder that the sourceJavaFiles are entries of.
+     * @param sourceJavaFiles The possible source files that the class file may have come from.
+     * @return Whether or not the provided outputClassFile was created from one of the provided java
+     * files.
+     */
+    static boolean isSourceClassFile(Folder outputFolder, File outputClassFile, Folder sourceFolder, Iterable<File> sourceJavaFiles)
+    {
+        PreCondition.assertNotNull(outputFolder, "outputFolder");
+        PreCondition.assertNotNull(outputClassFile, "outputClassFile");
+        PreCondition.assertNotNull(sourceFolder, "sourceFolder");
+        PreCondition.assertNotNull(sourceJavaFiles, "sourceJavaFiles");
+
+        Path outputClassFilePath = outputClassFile.relativeTo(outputFolder).withoutFileExtension();
+        if (outputClassFilePath.getSegments().last().contains("$"))
+        {
+            final String outputClassFileRelativePathString = outputClassFilePath.toString();
+            final int dollarSignIndex = outputClassFileRelativePathString.lastIndexOf('$');
             final String outputClassFileRelativePathStringWithoutDollarSign = outputClassFileRelativePathString.substring(0, dollarSignIndex);
             outputClassFilePath = Path.parse(outputClassFileRelativePathStringWithoutDollarSign);
         }
@@ -396,6 +1378,255 @@ public interface QubTestRun
         });
     }
 
+    /**
+     * Get the name of the package that contains the class with the provided full name.
+     * @param fullClassName The full name of the class.
+     * @return The name of the package that contains the class, or an empty String if the class is
+     * in the default package.
+     */
+    static String getPackageName(String fullClassName)
+    {
+        PreCondition.assertNotNullAndNotEmpty(fullClassName, "fullClassName");
+
+        final int lastDotIndex = fullClassName.lastIndexOf('.');
+        final String result = lastDotIndex < 0 ? "" : fullClassName.substring(0, lastDotIndex);
+
+        PostCondition.assertNotNull(result, "result");
+
+        return result;
+    }
+
+    /**
+     * Get the full name of the top-level class that contains the class with the provided full
+     * name. If the provided class is not a nested class, then the provided name will be returned.
+     * @param fullClassName The full name of the class.
+     * @return The full name of the top-level class that contains the class.
+     */
+    static String getTopLevelClassName(String fullClassName)
+    {
+        PreCondition.assertNotNullAndNotEmpty(fullClassName, "fullClassName");
+
+        final int dollarSignIndex = fullClassName.indexOf('$');
+        final String result = dollarSignIndex < 0 ? fullClassName : fullClassName.substring(0, dollarSignIndex);
+
+        PostCondition.assertNotNullAndNotEmpty(result, "result");
+
+        return result;
+    }
+
+    /**
+     * Get the class name patterns that the JaCoCo agent should instrument in order to collect
+     * coverage information for the provided coverage class files. A package whose class files
+     * and whose subpackages' class files are all being reported on is collapsed into a single
+     * package pattern, because the agent's package pattern also matches the subpackages. A package
+     * that a dependency also has classes in (such as the qub package) is never collapsed, because
+     * the package pattern would instrument the dependency's classes too. All other coverage
+     * classes (and their nested classes) are included by name.
+     * @param outputFolder The output folder that contains the class files.
+     * @param allClassFiles All of the class files in the output folder.
+     * @param coverageClassFiles The class files that coverage information will be reported for.
+     * @param dependencyPackageNames The names of the packages that the other classpath entries
+     *                               have classes in.
+     * @return The class name patterns that the JaCoCo agent should instrument.
+     */
+    static Iterable<String> getJacocoAgentIncludes(Folder outputFolder, Iterable<File> allClassFiles, Iterable<File> coverageClassFiles, Iterable<String> dependencyPackageNames)
+    {
+        PreCondition.assertNotNull(outputFolder, "outputFolder");
+        PreCondition.assertNotNull(allClassFiles, "allClassFiles");
+        PreCondition.assertNotNull(coverageClassFiles, "coverageClassFiles");
+        PreCondition.assertNotNull(dependencyPackageNames, "dependencyPackageNames");
+
+        final MutableMap<String,Boolean> coverageClassNames = Map.create();
+        for (final File coverageClassFile : coverageClassFiles)
+        {
+            coverageClassNames.set(QubTestRun.getFullClassName(outputFolder, coverageClassFile), true);
+        }
+
+        final List<String> packageNames = List.create();
+        final MutableMap<String,Boolean> packageHasExcludedClasses = Map.create();
+        final MutableMap<String,List<String>> packageCoverageClassNames = Map.create();
+        for (final File classFile : allClassFiles)
+        {
+            final String fullClassName = QubTestRun.getFullClassName(outputFolder, classFile);
+            final String packageName = QubTestRun.getPackageName(fullClassName);
+            if (!packageCoverageClassNames.containsKey(packageName))
+            {
+                packageNames.add(packageName);
+                packageCoverageClassNames.set(packageName, List.create());
+            }
+
+            if (!coverageClassNames.containsKey(fullClassName))
+            {
+                QubTestRun.excludePackage(packageName, packageHasExcludedClasses);
+            }
+            else
+            {
+                final String topLevelClassName = QubTestRun.getTopLevelClassName(fullClassName);
+                final List<String> classNames = packageCoverageClassNames.get(packageName).await();
+                if (!classNames.contains(topLevelClassName))
+                {
+                    classNames.add(topLevelClassName);
+                }
+            }
+        }
+        for (final String dependencyPackageName : dependencyPackageNames)
+        {
+            QubTestRun.excludePackage(dependencyPackageName, packageHasExcludedClasses);
+        }
+
+        final MutableMap<String,Boolean> collapsedPackageNames = Map.create();
+        for (final String packageName : packageNames)
+        {
+            if (!packageName.isEmpty() && !packageHasExcludedClasses.containsKey(packageName) && packageCoverageClassNames.get(packageName).await().any())
+            {
+                collapsedPackageNames.set(packageName, true);
+            }
+        }
+
+        final List<String> result = List.create();
+        for (final String packageName : packageNames)
+        {
+            final List<String> classNames = packageCoverageClassNames.get(packageName).await();
+            if (classNames.any() && !QubTestRun.hasCollapsedParentPackage(packageName, collapsedPackageNames))
+            {
+                if (collapsedPackageNames.containsKey(packageName))
+                {
+                    result.add(packageName + ".*");
+                }
+                else
+                {
+                    for (final String className : classNames)
+                    {
+                        result.add(className);
+                        result.add(className + "$*");
+                    }
+                }
+            }
+        }
+
+        PostCondition.assertNotNull(result, "result");
+
+        return result;
+    }
+
+    /**
+     * Mark the provided package and each of its parent packages as having classes that must not be
+     * instrumented, which keeps them from being collapsed into a package pattern.
+     * @param packageName The name of the package.
+     * @param packageHasExcludedClasses The packages that have classes that must not be instrumented.
+     */
+    private static void excludePackage(String packageName, MutableMap<String,Boolean> packageHasExcludedClasses)
+    {
+        String excludedPackageName = packageName;
+        while (!packageHasExcludedClasses.containsKey(excludedPackageName))
+        {
+            packageHasExcludedClasses.set(excludedPackageName, true);
+            final int lastDotIndex = excludedPackageName.lastIndexOf('.');
+            excludedPackageName = lastDotIndex < 0 ? "" : excludedPackageName.substring(0, lastDotIndex);
+        }
+    }
+
+    /**
+     * Get the names of the packages that the provided classpath entries have classes in. A folder
+     * entry's packages come from its class files and a jar entry's packages come from its class
+     * entries. Entries that don't exist or that can't be read are ignored.
+     * @param classPaths The classpath entries.
+     * @param fileSystem The file system that contains the classpath entries.
+     * @return The names of the packages that the classpath entries have classes in.
+     */
+    static Iterable<String> getClassPathPackageNames(Iterable<String> classPaths, FileSystem fileSystem)
+    {
+        PreCondition.assertNotNull(classPaths, "classPaths");
+        PreCondition.assertNotNull(fileSystem, "fileSystem");
+
+        final MutableMap<String,Boolean> packageNames = Map.create();
+        for (final String classPath : classPaths)
+        {
+            if (fileSystem.folderExists(classPath).catchError(() -> false).await())
+            {
+                final Folder classPathFolder = fileSystem.getFolder(classPath).await();
+                for (final File classFile : classPathFolder.getFilesRecursively().catchError(() -> Iterable.create()).await())
+                {
+                    if (Comparer.equal(classFile.getFileExtension(), ".class"))
+                    {
+                        packageNames.set(QubTestRun.getPackageName(QubTestRun.getFullClassName(classPathFolder, classFile)), true);
+                    }
+                }
+            }
+            else if (classPath.endsWith(".jar") && fileSystem.fileExists(classPath).catchError(() -> false).await())
+            {
+                final byte[] jarBytes = fileSystem.getFile(classPath).await().getContents().catchError().await();
+                if (jarBytes != null)
+                {
+                    try (final java.util.zip.ZipInputStream jarStream = new java.util.zip.ZipInputStream(new java.io.ByteArrayInputStream(jarBytes)))
+                    {
+                        java.util.zip.ZipEntry jarEntry = jarStream.getNextEntry();
+                        while (jarEntry != null)
+                        {
+                            final String entryName = jarEntry.getName();
+                            if (entryName.endsWith(".class") && !entryName.startsWith("META-INF/"))
+                            {
+                                final int lastSlashIndex = entryName.lastIndexOf('/');
+                                packageNames.set(lastSlashIndex < 0 ? "" : entryName.substring(0, lastSlashIndex).replace('/', '.'), true);
+                            }
+                            jarEntry = jarStream.getNextEntry();
+                        }
+                    }
+                    catch (java.io.IOException ignored)
+                    {
+                    }
+                }
+            }
+        }
+
+        final Iterable<String> result = packageNames.getKeys().toList();
+
+        PostCondition.assertNotNull(result, "result");
+
+        return result;
+    }
+
+    static boolean hasCollapsedParentPackage(String packageName, Map<String,Boolean> collapsedPackageNames)
+    {
+        PreCondition.assertNotNull(packageName, "packageName");
+        PreCondition.assertNotNull(collapsedPackageNames, "collapsedPackageNames");
+
+        boolean result = false;
+        int lastDotIndex = packageName.lastIndexOf('.');
+        while (!result && lastDotIndex > 0)
+        {
+            final String parentPackageName = packageName.substring(0, lastDotIndex);
+            result = collapsedPackageNames.containsKey(parentPackageName);
+            lastDotIndex = parentPackageName.lastIndexOf('.');
+        }
+        return result;
+    }
+
+    /**
+     * Get the -javaagent argument value that will attach the JaCoCo agent to the test runner JVM.
+     * @param jacocoAgentJarFile The jacocoagent.jar file.
+     * @param coverageExecFile The file that the agent will write its execution data to.
+     * @param includes The class name patterns that the agent should instrument. If this is empty,
+     *                 then the agent will instrument every class that is loaded.
+     * @return The -javaagent argument value.
+     */
+    static String getJacocoAgentArgument(File jacocoAgentJarFile, File coverageExecFile, Iterable<String> includes)
+    {
+        PreCondition.assertNotNull(jacocoAgentJarFile, "jacocoAgentJarFile");
+        PreCondition.assertNotNull(coverageExecFile, "coverageExecFile");
+        PreCondition.assertNotNull(includes, "includes");
+
+        String result = jacocoAgentJarFile + "=destfile=" + coverageExecFile;
+        if (includes.any())
+        {
+            result += ",includes=" + Strings.join(':', includes);
+        }
+
+        PostCondition.assertNotNullAndNotEmpty(result, "result");
+
+        return result;
+    }
+
     static Iterable<File> getClassFilesForCoverage(Coverage coverage, Folder outputFolder, Folder sourceFolder, Folder testFolder)
     {
         PreCondition.assertNotNull(coverage, "coverage");
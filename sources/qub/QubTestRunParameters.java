@@ -11,6 +11,31 @@ public class QubTestRunParameters extends QubBuildCompileParameters
     private String jvmClassPath;
     private String pattern;
     private Coverage coverage;
+    private boolean offlineCoverage;
+    private boolean coveragePerTest;
+    private Iterable<String> changedFiles;
+    private String changedSince;
+    private String selection;
+    private boolean openCoverageReport;
+    private boolean classDataSharing;
+    private VersionNumber javaVersion;
+    private String jvmArgs;
+    private String jvmProfile;
+    private boolean timings;
+    private boolean inProcess;
+    private boolean streamDiscovery;
+    private boolean pipeline;
+    private boolean prelaunch;
+    private boolean resultCache;
+    private DesktopProcess process;
+    private Integer testTimeoutSeconds;
+    private Integer classTimeoutSeconds;
+    private boolean benchmark;
+    private Integer benchmarkWarmupIterations;
+    private Integer benchmarkIterations;
+    private Integer benchThresholdPercent;
+    private boolean benchUpdateBaseline;
+    private Clock clock;
     private boolean testJson;
     private boolean profiler;
 
@@ -43,7 +68,19 @@ public class QubTestRunParameters extends QubBuildCompileParameters
         this.defaultApplicationLauncher = defaultApplicationLauncher;
         this.jvmClassPath = jvmClassPath;
         this.coverage = QubTestRunParameters.getCoverageDefault();
+        this.offlineCoverage = QubTestRunParameters.getOfflineCoverageDefault();
+        this.coveragePerTest = QubTestRunParameters.getCoveragePerTestDefault();
         this.testJson = QubTestRunParameters.getTestJsonDefault();
+        this.openCoverageReport = true;
+        this.classDataSharing = QubTestRunParameters.getClassDataSharingDefault();
+        this.timings = QubTestRunParameters.getTimingsDefault();
+        this.inProcess = QubTestRunParameters.getInProcessDefault();
+        this.streamDiscovery = QubTestRunParameters.getStreamDiscoveryDefault();
+        this.pipeline = QubTestRunParameters.getPipelineDefault();
+        this.prelaunch = QubTestRunParameters.getPrelaunchDefault();
+        this.resultCache = QubTestRunParameters.getResultCacheDefault();
+        this.benchmark = QubTestRunParameters.getBenchmarkDefault();
+        this.benchUpdateBaseline = QubTestRunParameters.getBenchUpdateBaselineDefault();
         this.qubTestDataFolder = qubTestDataFolder;
     }
 
@@ -142,6 +179,557 @@ public class QubTestRunParameters extends QubBuildCompileParameters
         return this;
     }
 
+    /**
+     * Get whether or not coverage should be collected by running the tests against cached
+     * offline-instrumented class files instead of attaching the JaCoCo agent.
+     * @return Whether or not coverage should be collected using offline-instrumented class files.
+     */
+    public boolean getOfflineCoverage()
+    {
+        return this.offlineCoverage;
+    }
+
+    /**
+     * Set whether or not coverage should be collected by running the tests against cached
+     * offline-instrumented class files instead of attaching the JaCoCo agent.
+     * @param offlineCoverage Whether or not coverage should be collected using
+     *                        offline-instrumented class files.
+     * @return This object for method chaining.
+     */
+    public QubTestRunParameters setOfflineCoverage(boolean offlineCoverage)
+    {
+        this.offlineCoverage = offlineCoverage;
+        return this;
+    }
+
+    /**
+     * Get whether or not the classes that each test covers should be recorded in
+     * outputs/testcoverage.json while collecting coverage.
+     * @return Whether or not the classes that each test covers should be recorded.
+     */
+    public boolean getCoveragePerTest()
+    {
+        return this.coveragePerTest;
+    }
+
+    /**
+     * Set whether or not the classes that each test covers should be recorded in
+     * outputs/testcoverage.json while collecting coverage.
+     * @param coveragePerTest Whether or not the classes that each test covers should be recorded.
+     * @return This object for method chaining.
+     */
+    public QubTestRunParameters setCoveragePerTest(boolean coveragePerTest)
+    {
+        this.coveragePerTest = coveragePerTest;
+        return this;
+    }
+
+    /**
+     * Get the changed project files that will be used to select which test classes to run.
+     * @return The changed project files, or null if all test classes should be run.
+     */
+    public Iterable<String> getChangedFiles()
+    {
+        return this.changedFiles;
+    }
+
+    /**
+     * Set the changed project files that will be used to select which test classes to run.
+     * @param changedFiles The changed project files, or null if all test classes should be run.
+     * @return This object for method chaining.
+     */
+    public QubTestRunParameters setChangedFiles(Iterable<String> changedFiles)
+    {
+        this.changedFiles = changedFiles;
+        return this;
+    }
+
+    /**
+     * Get the git ref that the working tree will be compared against to select which test classes
+     * to run.
+     * @return The git ref, or null if all test classes should be run.
+     */
+    public String getChangedSince()
+    {
+        return this.changedSince;
+    }
+
+    /**
+     * Set the git ref that the working tree will be compared against to select which test classes
+     * to run.
+     * @param changedSince The git ref, or null if all test classes should be run.
+     * @return This object for method chaining.
+     */
+    public QubTestRunParameters setChangedSince(String changedSince)
+    {
+        this.changedSince = changedSince;
+        return this;
+    }
+
+    /**
+     * Get the name of the saved test selection whose test classes should be run.
+     * @return The name of the saved test selection, or null if all test classes should be run.
+     */
+    public String getSelection()
+    {
+        return this.selection;
+    }
+
+    /**
+     * Set the name of the saved test selection whose test classes should be run.
+     * @param selection The name of the saved test selection, or null if all test classes should
+     *                  be run.
+     * @return This object for method chaining.
+     */
+    public QubTestRunParameters setSelection(String selection)
+    {
+        this.selection = selection;
+        return this;
+    }
+
+    /**
+     * Get whether or not the coverage report should be opened after it is generated.
+     * @return Whether or not the coverage report should be opened after it is generated.
+     */
+    public boolean getOpenCoverageReport()
+    {
+        return this.openCoverageReport;
+    }
+
+    /**
+     * Set whether or not the coverage report should be opened after it is generated.
+     * @param openCoverageReport Whether or not the coverage report should be opened after it is
+     *                           generated.
+     * @return This object for method chaining.
+     */
+    public QubTestRunParameters setOpenCoverageReport(boolean openCoverageReport)
+    {
+        this.openCoverageReport = openCoverageReport;
+        return this;
+    }
+
+    /**
+     * Get whether or not the test runner JVM should be launched with a class data sharing
+     * archive.
+     * @return Whether or not the test runner JVM should be launched with a class data sharing
+     * archive.
+     */
+    public boolean getClassDataSharing()
+    {
+        return this.classDataSharing;
+    }
+
+    /**
+     * Set whether or not the test runner JVM should be launched with a class data sharing
+     * archive.
+     * @param classDataSharing Whether or not the test runner JVM should be launched with a class
+     *                         data sharing archive.
+     * @return This object for method chaining.
+     */
+    public QubTestRunParameters setClassDataSharing(boolean classDataSharing)
+    {
+        this.classDataSharing = classDataSharing;
+        return this;
+    }
+
+    /**
+     * Get the version of Java that the test runner JVM will run with.
+     * @return The version of Java that the test runner JVM will run with, or null if it isn't
+     * known.
+     */
+    public VersionNumber getJavaVersion()
+    {
+        return this.javaVersion;
+    }
+
+    /**
+     * Set the version of Java that the test runner JVM will run with.
+     * @param javaVersion The version of Java that the test runner JVM will run with.
+     * @return This object for method chaining.
+     */
+    public QubTestRunParameters setJavaVersion(VersionNumber javaVersion)
+    {
+        this.javaVersion = javaVersion;
+        return this;
+    }
+
+    /**
+     * Get the additional arguments that will be passed to the test runner JVM.
+     * @return The whitespace-separated additional JVM arguments, or null if there are none.
+     */
+    public String getJvmArgs()
+    {
+        return this.jvmArgs;
+    }
+
+    /**
+     * Set the additional arguments that will be passed to the test runner JVM.
+     * @param jvmArgs The whitespace-separated additional JVM arguments, or null if there are none.
+     * @return This object for method chaining.
+     */
+    public QubTestRunParameters setJvmArgs(String jvmArgs)
+    {
+        this.jvmArgs = jvmArgs;
+        return this;
+    }
+
+    /**
+     * Get the name of the JVM profile that the test runner JVM will be launched with.
+     * @return The name of the JVM profile, or null if no profile will be used.
+     */
+    public String getJvmProfile()
+    {
+        return this.jvmProfile;
+    }
+
+    /**
+     * Set the name of the JVM profile that the test runner JVM will be launched with.
+     * @param jvmProfile The name of the JVM profile, or null if no profile will be used.
+     * @return This object for method chaining.
+     */
+    public QubTestRunParameters setJvmProfile(String jvmProfile)
+    {
+        this.jvmProfile = jvmProfile;
+        return this;
+    }
+
+    /**
+     * Get whether or not the duration of each phase of the test run should be measured and
+     * reported.
+     * @return Whether or not the duration of each phase of the test run should be measured and
+     * reported.
+     */
+    public boolean getTimings()
+    {
+        return this.timings;
+    }
+
+    /**
+     * Set whether or not the duration of each phase of the test run should be measured and
+     * reported.
+     * @param timings Whether or not the duration of each phase of the test run should be measured
+     *                and reported.
+     * @return This object for method chaining.
+     */
+    public QubTestRunParameters setTimings(boolean timings)
+    {
+        this.timings = timings;
+        return this;
+    }
+
+    /**
+     * Get whether or not the tests should run inside the qub-test JVM instead of in a separate
+     * test runner JVM.
+     * @return Whether or not the tests should run inside the qub-test JVM.
+     */
+    public boolean getInProcess()
+    {
+        return this.inProcess;
+    }
+
+    /**
+     * Set whether or not the tests should run inside the qub-test JVM instead of in a separate
+     * test runner JVM.
+     * @param inProcess Whether or not the tests should run inside the qub-test JVM.
+     * @return This object for method chaining.
+     */
+    public QubTestRunParameters setInProcess(boolean inProcess)
+    {
+        this.inProcess = inProcess;
+        return this;
+    }
+
+    /**
+     * Get whether or not the test runner should start before the output folder has been scanned
+     * and read the test class names as they are discovered.
+     * @return Whether or not test class discovery should be streamed to the test runner.
+     */
+    public boolean getStreamDiscovery()
+    {
+        return this.streamDiscovery;
+    }
+
+    /**
+     * Set whether or not the test runner should start before the output folder has been scanned
+     * and read the test class names as they are discovered.
+     * @param streamDiscovery Whether or not test class discovery should be streamed to the test
+     *                        runner.
+     * @return This object for method chaining.
+     */
+    public QubTestRunParameters setStreamDiscovery(boolean streamDiscovery)
+    {
+        this.streamDiscovery = streamDiscovery;
+        return this;
+    }
+
+    /**
+     * Get whether or not the test runner should start while the project is still being compiled
+     * and run each test class as soon as it and the classes it depends on have been compiled.
+     * @return Whether or not compiling and testing should be pipelined.
+     */
+    public boolean getPipeline()
+    {
+        return this.pipeline;
+    }
+
+    /**
+     * Set whether or not the test runner should start while the project is still being compiled
+     * and run each test class as soon as it and the classes it depends on have been compiled.
+     * @param pipeline Whether or not compiling and testing should be pipelined.
+     * @return This object for method chaining.
+     */
+    public QubTestRunParameters setPipeline(boolean pipeline)
+    {
+        this.pipeline = pipeline;
+        return this;
+    }
+
+    /**
+     * Get whether or not the test runner JVM should start while the project is still being
+     * compiled and wait for the test classes until the compilation succeeds.
+     * @return Whether or not the test runner JVM should be pre-launched.
+     */
+    public boolean getPrelaunch()
+    {
+        return this.prelaunch;
+    }
+
+    /**
+     * Set whether or not the test runner JVM should start while the project is still being
+     * compiled and wait for the test classes until the compilation succeeds.
+     * @param prelaunch Whether or not the test runner JVM should be pre-launched.
+     * @return This object for method chaining.
+     */
+    public QubTestRunParameters setPrelaunch(boolean prelaunch)
+    {
+        this.prelaunch = prelaunch;
+        return this;
+    }
+
+    /**
+     * Get whether or not the results of passing test classes should be restored from and added
+     * to the result cache that is shared by every project folder on this machine.
+     * @return Whether or not the shared result cache should be used.
+     */
+    public boolean getResultCache()
+    {
+        return this.resultCache;
+    }
+
+    /**
+     * Set whether or not the results of passing test classes should be restored from and added
+     * to the result cache that is shared by every project folder on this machine.
+     * @param resultCache Whether or not the shared result cache should be used.
+     * @return This object for method chaining.
+     */
+    public QubTestRunParameters setResultCache(boolean resultCache)
+    {
+        this.resultCache = resultCache;
+        return this;
+    }
+
+    /**
+     * Get the qub-test process that in-process tests will run in.
+     * @return The qub-test process that in-process tests will run in, or null if no process has
+     * been set.
+     */
+    public DesktopProcess getProcess()
+    {
+        return this.process;
+    }
+
+    /**
+     * Set the qub-test process that in-process tests will run in.
+     * @param process The qub-test process that in-process tests will run in.
+     * @return This object for method chaining.
+     */
+    public QubTestRunParameters setProcess(DesktopProcess process)
+    {
+        this.process = process;
+        return this;
+    }
+
+    /**
+     * Get the number of seconds that a single test can run before it is considered hung. This
+     * overrides the test timeout in the project's project.json file.
+     * @return The number of seconds that a single test can run, or null if the project.json
+     * file's test timeout should be used.
+     */
+    public Integer getTestTimeoutSeconds()
+    {
+        return this.testTimeoutSeconds;
+    }
+
+    /**
+     * Set the number of seconds that a single test can run before it is considered hung. This
+     * overrides the test timeout in the project's project.json file.
+     * @param testTimeoutSeconds The number of seconds that a single test can run (0 for no
+     *                           timeout), or null if the project.json file's test timeout should
+     *                           be used.
+     * @return This object for method chaining.
+     */
+    public QubTestRunParameters setTestTimeoutSeconds(Integer testTimeoutSeconds)
+    {
+        this.testTimeoutSeconds = testTimeoutSeconds;
+        return this;
+    }
+
+    /**
+     * Get the number of seconds that a test class can run before it is considered hung. This
+     * overrides the class timeout in the project's project.json file.
+     * @return The number of seconds that a test class can run, or null if the project.json file's
+     * class timeout should be used.
+     */
+    public Integer getClassTimeoutSeconds()
+    {
+        return this.classTimeoutSeconds;
+    }
+
+    /**
+     * Set the number of seconds that a test class can run before it is considered hung. This
+     * overrides the class timeout in the project's project.json file.
+     * @param classTimeoutSeconds The number of seconds that a test class can run (0 for no
+     *                            timeout), or null if the project.json file's class timeout
+     *                            should be used.
+     * @return This object for method chaining.
+     */
+    public QubTestRunParameters setClassTimeoutSeconds(Integer classTimeoutSeconds)
+    {
+        this.classTimeoutSeconds = classTimeoutSeconds;
+        return this;
+    }
+
+    /**
+     * Get whether or not the speed tests should be run as microbenchmarks in a dedicated test
+     * runner JVM.
+     * @return Whether or not the speed tests should be run as microbenchmarks.
+     */
+    public boolean getBenchmark()
+    {
+        return this.benchmark;
+    }
+
+    /**
+     * Set whether or not the speed tests should be run as microbenchmarks in a dedicated test
+     * runner JVM.
+     * @param benchmark Whether or not the speed tests should be run as microbenchmarks.
+     * @return This object for method chaining.
+     */
+    public QubTestRunParameters setBenchmark(boolean benchmark)
+    {
+        this.benchmark = benchmark;
+        return this;
+    }
+
+    /**
+     * Get the number of times each speed test runs before it is measured.
+     * @return The number of warmup iterations, or null if the default should be used.
+     */
+    public Integer getBenchmarkWarmupIterations()
+    {
+        return this.benchmarkWarmupIterations;
+    }
+
+    /**
+     * Set the number of times each speed test runs before it is measured.
+     * @param benchmarkWarmupIterations The number of warmup iterations, or null if the default
+     *                                  should be used.
+     * @return This object for method chaining.
+     */
+    public QubTestRunParameters setBenchmarkWarmupIterations(Integer benchmarkWarmupIterations)
+    {
+        this.benchmarkWarmupIterations = benchmarkWarmupIterations;
+        return this;
+    }
+
+    /**
+     * Get the number of times each speed test is measured.
+     * @return The number of measured iterations, or null if the default should be used.
+     */
+    public Integer getBenchmarkIterations()
+    {
+        return this.benchmarkIterations;
+    }
+
+    /**
+     * Set the number of times each speed test is measured.
+     * @param benchmarkIterations The number of measured iterations, or null if the default should
+     *                            be used.
+     * @return This object for method chaining.
+     */
+    public QubTestRunParameters setBenchmarkIterations(Integer benchmarkIterations)
+    {
+        this.benchmarkIterations = benchmarkIterations;
+        return this;
+    }
+
+    /**
+     * Get the number of percent that a benchmark can get slower than its baseline before the run
+     * fails.
+     * @return The regression threshold percentage, or null if the default should be used.
+     */
+    public Integer getBenchThresholdPercent()
+    {
+        return this.benchThresholdPercent;
+    }
+
+    /**
+     * Set the number of percent that a benchmark can get slower than its baseline before the run
+     * fails.
+     * @param benchThresholdPercent The regression threshold percentage, or null if the default
+     *                              should be used.
+     * @return This object for method chaining.
+     */
+    public QubTestRunParameters setBenchThresholdPercent(Integer benchThresholdPercent)
+    {
+        this.benchThresholdPercent = benchThresholdPercent;
+        return this;
+    }
+
+    /**
+     * Get whether or not the benchmark results should replace the baselines in bench.json. This
+     * runs the benchmarks even if the benchmark parameter isn't set.
+     * @return Whether or not the benchmark results should replace the baselines.
+     */
+    public boolean getBenchUpdateBaseline()
+    {
+        return this.benchUpdateBaseline;
+    }
+
+    /**
+     * Set whether or not the benchmark results should replace the baselines in bench.json. This
+     * runs the benchmarks even if the benchmark parameter isn't set.
+     * @param benchUpdateBaseline Whether or not the benchmark results should replace the
+     *                            baselines.
+     * @return This object for method chaining.
+     */
+    public QubTestRunParameters setBenchUpdateBaseline(boolean benchUpdateBaseline)
+    {
+        this.benchUpdateBaseline = benchUpdateBaseline;
+        return this;
+    }
+
+    /**
+     * Get the Clock that will be used to measure the phases of the test run.
+     * @return The Clock that will be used to measure the phases of the test run, or null if no
+     * Clock has been set.
+     */
+    public Clock getClock()
+    {
+        return this.clock;
+    }
+
+    /**
+     * Set the Clock that will be used to measure the phases of the test run.
+     * @param clock The Clock that will be used to measure the phases of the test run.
+     * @return This object for method chaining.
+     */
+    public QubTestRunParameters setClock(Clock clock)
+    {
+        this.clock = clock;
+        return this;
+    }
+
     /**
      * Get whether or not a test.json file should be written after the tests are done.
      * @return Whether or not a test.json file should be written after the tests are done.
@@ -220,6 +808,105 @@ public class QubTestRunParameters extends QubBuildCompileParameters
         return true;
     }
 
+    /**
+     * Get the default value for the --offline-coverage parameter.
+     * @return The default value for the --offline-coverage parameter.
+     */
+    static boolean getOfflineCoverageDefault()
+    {
+        return false;
+    }
+
+    /**
+     * Get the default value for the --coverage-per-test parameter.
+     * @return The default value for the --coverage-per-test parameter.
+     */
+    static boolean getCoveragePerTestDefault()
+    {
+        return false;
+    }
+
+    /**
+     * Get the default value for the --class-data-sharing parameter.
+     * @return The default value for the --class-data-sharing parameter.
+     */
+    static boolean getClassDataSharingDefault()
+    {
+        return false;
+    }
+
+    /**
+     * Get the default value for the --timings parameter.
+     * @return The default value for the --timings parameter.
+     */
+    static boolean getTimingsDefault()
+    {
+        return false;
+    }
+
+    /**
+     * Get the default value for the --in-process parameter.
+     * @return The default value for the --in-process parameter.
+     */
+    static boolean getInProcessDefault()
+    {
+        return false;
+    }
+
+    /**
+     * Get the default value for the --stream-discovery parameter.
+     * @return The default value for the --stream-discovery parameter.
+     */
+    static boolean getStreamDiscoveryDefault()
+    {
+        return false;
+    }
+
+    /**
+     * Get the default value for the --pipeline parameter.
+     * @return The default value for the --pipeline parameter.
+     */
+    static boolean getPipelineDefault()
+    {
+        return false;
+    }
+
+    /**
+     * Get the default value for the --prelaunch parameter.
+     * @return The default value for the --prelaunch parameter.
+     */
+    static boolean getPrelaunchDefault()
+    {
+        return false;
+    }
+
+    /**
+     * Get the default value for the --result-cache parameter.
+     * @return The default value for the --result-cache parameter.
+     */
+    static boolean getResultCacheDefault()
+    {
+        return false;
+    }
+
+    /**
+     * Get the default value for the --benchmark parameter.
+     * @return The default value for the --benchmark parameter.
+     */
+    static boolean getBenchmarkDefault()
+    {
+        return false;
+    }
+
+    /**
+     * Get the default value for the --bench-update-baseline parameter.
+     * @return The default value for the --bench-update-baseline parameter.
+     */
+    static boolean getBenchUpdateBaselineDefault()
+    {
+        return false;
+    }
+
     /**
      * Get the default value for the --coverage parameter.
      * @return The default value for the --coverage parameter.
@@ -0,0 +1,336 @@
+package qub;
+
+/**
+ * An end-to-end scalability benchmark for qub-test. For each requested scale, a synthetic project
+ * is generated and tested three times: a cold run of the freshly generated project, a warm run
+ * after one source file has changed, and a no-op run where nothing has changed. The duration,
+ * peak resident set size, and test.json size of each run are appended to a CSV file so that they
+ * can be tracked across qub-test versions.
+ */
+public interface QubTestScale
+{
+    static void addAction(CommandLineActions actions)
+    {
+        PreCondition.assertNotNull(actions, "actions");
+
+        actions.addAction("scale", QubTestScale::getParameters, QubTestScale::run)
+            .setDescription("Measure how qub-test scales by running it against generated projects of increasing size.");
+    }
+
+    static CommandLineParameter<Iterable<Integer>> addScalesParameter(CommandLineParameters parameters)
+    {
+        PreCondition.assertNotNull(parameters, "parameters");
+
+        return parameters.add("scales", QubTestScale::parseClassCounts)
+            .setValueName("<class-count>[,<class-count>...]")
+            .setDescription("The numbers of source classes of the generated projects. Counts can use a k suffix. Defaults to 100,1k,10k,50k.");
+    }
+
+    static CommandLineParameter<Integer> addTestsPerClassParameter(CommandLineParameters parameters)
+    {
+        PreCondition.assertNotNull(parameters, "parameters");
+
+        return parameters.add("tests-per-class", QubTestScale::parsePositiveInteger)
+            .setValueName("<count>")
+            .setDescription("The number of tests in each generated test class. Defaults to " + SyntheticProject.getTestsPerClassDefault() + ".");
+    }
+
+    static CommandLineParameter<Integer> addDependencyDepthParameter(CommandLineParameters parameters)
+    {
+        PreCondition.assertNotNull(parameters, "parameters");
+
+        return parameters.add("dependency-depth", QubTestScale::parsePositiveInteger)
+            .setValueName("<depth>")
+            .setDescription("The length of the dependency chains between generated source classes. Defaults to " + SyntheticProject.getDependencyDepthDefault() + ".");
+    }
+
+    static CommandLineParameter<Double> addFailureRatioParameter(CommandLineParameters parameters)
+    {
+        PreCondition.assertNotNull(parameters, "parameters");
+
+        return parameters.add("failure-ratio", SyntheticProject::parseFailureRatio)
+            .setValueName("<ratio>")
+            .setDescription("The ratio (such as 0.01 or 1%) of generated tests that fail. Defaults to 0.");
+    }
+
+    /**
+     * Get the parameters for QubTestScale.run().
+     * @param process The Process that is running.
+     * @return The parameters for QubTestScale.run(), or null if QubTestScale.run() should not be
+     * run.
+     */
+    static QubTestScaleParameters getParameters(DesktopProcess process, CommandLineAction action)
+    {
+        PreCondition.assertNotNull(process, "process");
+        PreCondition.assertNotNull(action, "action");
+
+        final CommandLineParameters parameters = action.createCommandLineParameters(process);
+        final CommandLineParameter<Iterable<Integer>> scalesParameter = QubTestScale.addScalesParameter(parameters);
+        final CommandLineParameter<Integer> testsPerClassParameter = QubTestScale.addTestsPerClassParameter(parameters);
+        final CommandLineParameter<Integer> dependencyDepthParameter = QubTestScale.addDependencyDepthParameter(parameters);
+        final CommandLineParameter<Double> failureRatioParameter = QubTestScale.addFailureRatioParameter(parameters);
+        final CommandLineParameter<Folder> workFolderParameter = parameters.addFolder("work-folder", process)
+            .setValueName("<folder>")
+            .setDescription("The folder that the synthetic projects will be generated in. Defaults to the scale folder in the qub-test data folder.");
+        final CommandLineParameter<File> csvFileParameter = parameters.addFile("csv", process)
+            .setValueName("<csv-file>")
+            .setDescription("The CSV file that the measurements will be appended to. Defaults to scale.csv in the qub-test data folder.");
+        final CommandLineParameterVerbose verboseParameter = parameters.addVerbose(process);
+        final CommandLineParameterHelp helpParameter = parameters.addHelp();
+
+        QubTestScaleParameters result = null;
+        if (!helpParameter.showApplicationHelpLines(process).await())
+        {
+            final Folder scaleDataFolder = process.getQubProjectDataFolder().await().getFolder("scale").await();
+            Folder workFolder = workFolderParameter.removeValue().await();
+            if (workFolder == null)
+            {
+                workFolder = scaleDataFolder.getFolder("projects").await();
+            }
+            File csvFile = csvFileParameter.removeValue().await();
+            if (csvFile == null)
+            {
+                csvFile = scaleDataFolder.getFile("scale.csv").await();
+            }
+
+            result = new QubTestScaleParameters(process, workFolder, csvFile)
+                .setVerbose(verboseParameter.getVerboseCharacterToByteWriteStream().await());
+
+            final Iterable<Integer> classCounts = scalesParameter.removeValue().await();
+            if (!Iterable.isNullOrEmpty(classCounts))
+            {
+                result.setClassCounts(classCounts);
+            }
+            final Integer testsPerClass = testsPerClassParameter.removeValue().await();
+            if (testsPerClass != null)
+            {
+                result.setTestsPerClass(testsPerClass);
+            }
+            final Integer dependencyDepth = dependencyDepthParameter.removeValue().await();
+            if (dependencyDepth != null)
+            {
+                result.setDependencyDepth(dependencyDepth);
+            }
+            final Double failureRatio = failureRatioParameter.removeValue().await();
+            if (failureRatio != null)
+            {
+                result.setFailureRatio(failureRatio);
+            }
+        }
+
+        return result;
+    }
+
+    /**
+     * Parse a comma-separated list of class counts. Each count can use a k suffix to mean
+     * thousands.
+     * @param argumentValue The comma-separated list of class counts.
+     * @return The parsed class counts, or null if no class counts were specified.
+     */
+    static Result<Iterable<Integer>> parseClassCounts(String argumentValue)
+    {
+        return Result.create2(() ->
+        {
+            List<Integer> result = null;
+            if (!Strings.isNullOrEmpty(argumentValue))
+            {
+                result = List.create();
+                for (final String classCountString : argumentValue.split(","))
+                {
+                    String trimmedClassCountString = classCountString.trim().toLowerCase();
+                    int multiplier = 1;
+                    if (trimmedClassCountString.endsWith("k"))
+                    {
+                        trimmedClassCountString = trimmedClassCountString.substring(0, trimmedClassCountString.length() - 1);
+                        multiplier = 1000;
+                    }
+                    final int classCount = Integer.parseInt(trimmedClassCountString) * multiplier;
+                    if (classCount <= 0)
+                    {
+                        throw new IllegalArgumentException("A class count must be greater than 0: " + classCountString.trim());
+                    }
+                    result.add(classCount);
+                }
+            }
+            return result;
+        });
+    }
+
+    /**
+     * Get the header line of the CSV file that the measurements are appended to.
+     * @return The header line of the CSV file.
+     */
+    static String getCsvHeader()
+    {
+        return "qubTestVersion,javaVersion,classCount,testsPerClass,dependencyDepth,failureRatio,run,exitCode,milliseconds,peakRssKilobytes,testJsonBytes";
+    }
+
+    static Result<Integer> parsePositiveInteger(String argumentValue)
+    {
+        return Result.create2(() ->
+        {
+            Integer result = null;
+            if (!Strings.isNullOrEmpty(argumentValue))
+            {
+                result = Integer.parseInt(argumentValue.trim());
+                if (result <= 0)
+                {
+                    throw new IllegalArgumentException("The value must be greater than 0: " + argumentValue);
+                }
+            }
+            return result;
+        });
+    }
+
+    static int run(QubTestScaleParameters parameters)
+    {
+        PreCondition.assertNotNull(parameters, "parameters");
+
+        final DesktopProcess process = parameters.getProcess();
+        final CharacterToByteWriteStream output = process.getOutputWriteStream();
+        final CharacterToByteWriteStream error = process.getErrorWriteStream();
+        final Folder workFolder = parameters.getWorkFolder();
+        final File csvFile = parameters.getCsvFile();
+
+        int result = 0;
+        final ProjectSignature testTypesProject = QubTestScale.getProjectSignature(process, Test.class)
+            .catchError()
+            .await();
+        if (testTypesProject == null)
+        {
+            error.writeLine("Could not find the published qub project that contains " + Types.getFullTypeName(Test.class) + ", so the generated tests could not be compiled.").await();
+            result = 1;
+        }
+        else
+        {
+            final String qubTestVersion = QubTestScale.getProjectSignature(process, QubTest.class)
+                .then((ProjectSignature qubTestProject) -> qubTestProject.getVersion().toString())
+                .catchError(() -> "unknown")
+                .await();
+            final String javaVersion = process.getJavaVersion().toString();
+            final String failureRatio = new java.text.DecimalFormat("0.####").format(parameters.getFailureRatio());
+
+            final StringBuilder csvContents = new StringBuilder(csvFile.getContentsAsString()
+                .catchError(() -> "")
+                .await());
+            if (csvContents.length() == 0)
+            {
+                csvContents.append(QubTestScale.getCsvHeader()).append('\n');
+            }
+
+            for (final Integer classCount : parameters.getClassCounts())
+            {
+                final Folder projectFolder = workFolder.getFolder("synthetic-" + classCount).await();
+                output.writeLine("Generating a project with " + classCount + " classes in " + projectFolder + "...").await();
+                SyntheticProject.create()
+                    .setSourceClassCount(classCount)
+                    .setTestClassCount(classCount)
+                    .setTestsPerClass(parameters.getTestsPerClass())
+                    .setDependencyDepth(parameters.getDependencyDepth())
+                    .setFailureRatio(parameters.getFailureRatio())
+                    .setDependencies(Iterable.create(testTypesProject))
+                    .writeTo(projectFolder)
+                    .await();
+
+                for (final String runName : Iterable.create("cold", "warm", "no-op"))
+                {
+                    if (runName.equals("warm"))
+                    {
+                        final File changedSourceFile = projectFolder.getFile("sources/" + SyntheticProject.getSourceClassFullName(0).replace('.', '/') + ".java").await();
+                        changedSourceFile.setContentsAsString(changedSourceFile.getContentsAsString().await() + "// Changed for the warm run.\n").await();
+                    }
+
+                    output.writeLine("Running the " + runName + " run with " + classCount + " classes...").await();
+                    final PeakResidentSetSizeMonitor peakRssMonitor = PeakResidentSetSizeMonitor.create().start();
+                    final Stopwatch stopwatch = process.getClock().createStopwatch();
+                    stopwatch.start();
+                    final int exitCode = QubTestRun.run(QubTestScale.createRunParameters(process, projectFolder, parameters.getVerbose()));
+                    final long milliseconds = (long)stopwatch.stop().toMilliseconds().getValue();
+                    final Long peakRssKilobytes = peakRssMonitor.stop();
+                    final Integer testJsonBytes = projectFolder.getFile("outputs/test.json").await().getContents()
+                        .then((byte[] testJsonContents) -> testJsonContents.length)
+                        .catchError()
+                        .await();
+
+                    csvContents.append(Strings.join(',', Iterable.create(
+                        qubTestVersion,
+                        javaVersion,
+                        Integer.toString(classCount),
+                        Integer.toString(parameters.getTestsPerClass()),
+                        Integer.toString(parameters.getDependencyDepth()),
+                        failureRatio,
+                        runName,
+                        Integer.toString(exitCode),
+                        Long.toString(milliseconds),
+                        peakRssKilobytes == null ? "" : peakRssKilobytes.toString(),
+                        testJsonBytes == null ? "" : testJsonBytes.toString())))
+                        .append('\n');
+                    // Write the measurements after every run so that they survive an interrupted benchmark.
+                    csvFile.setContentsAsString(csvContents.toString()).await();
+
+                    output.writeLine("The " + runName + " run took " + milliseconds + " milliseconds" +
+                        (peakRssKilobytes == null ? "" : " with a peak RSS of " + peakRssKilobytes + " KB") +
+                        (testJsonBytes == null ? "" : " and wrote " + testJsonBytes + " bytes of test.json") + ".").await();
+                }
+                output.writeLine().await();
+            }
+
+            output.writeLine("Appended the measurements to " + csvFile + ".").await();
+        }
+
+        return result;
+    }
+
+    /**
+     * Create the parameters of a qub-test run of the provided synthetic project. The tests are
+     * run in a forked test runner like they are in a default qub-test run.
+     * @param process The process that is running the scalability benchmark.
+     * @param projectFolder The folder of the synthetic project.
+     * @param verbose The stream that verbose output will be written to.
+     * @return The parameters of the qub-test run.
+     */
+    static QubTestRunParameters createRunParameters(DesktopProcess process, Folder projectFolder, VerboseCharacterToByteWriteStream verbose)
+    {
+        PreCondition.assertNotNull(process, "process");
+        PreCondition.assertNotNull(projectFolder, "projectFolder");
+
+        return new QubTestRunParameters(
+                process.getOutputWriteStream(),
+                process.getErrorWriteStream(),
+                projectFolder,
+                process.getEnvironmentVariables(),
+                process.getProcessFactory(),
+                process.getDefaultApplicationLauncher(),
+                process.getJVMClasspath().await(),
+                process.getQubFolder().await(),
+                process.getQubProjectDataFolder().await(),
+                process.getTypeLoader())
+            .setOpenCoverageReport(false)
+            .setClock(process.getClock())
+            .setProcess(process)
+            .setJavaVersion(process.getJavaVersion())
+            .setVerbose(verbose);
+    }
+
+    /**
+     * Get the signature of the published qub project that contains the provided type.
+     * @param process The process that is running.
+     * @param type The type to look for.
+     * @return The signature of the published qub project that contains the provided type.
+     */
+    static Result<ProjectSignature> getProjectSignature(DesktopProcess process, Class<?> type)
+    {
+        PreCondition.assertNotNull(process, "process");
+        PreCondition.assertNotNull(type, "type");
+
+        return Result.create2(() ->
+        {
+            final FileSystem fileSystem = process.getFileSystem();
+            final Path path = process.getTypeLoader().getTypeContainerPath(type).await();
+            final Folder projectVersionFolder = fileSystem.fileExists(path).await()
+                ? fileSystem.getFile(path).await().getParentFolder().await()
+                : fileSystem.getFolder(path).await();
+            return QubProjectVersionFolder.get(projectVersionFolder).getProjectSignature().await();
+        });
+    }
+}
@@ -0,0 +1,147 @@
+package qub;
+
+/**
+ * Parameters that are passed to QubTestScale.run().
+ */
+public class QubTestScaleParameters
+{
+    private final DesktopProcess process;
+    private final Folder workFolder;
+    private final File csvFile;
+    private Iterable<Integer> classCounts;
+    private int testsPerClass;
+    private int dependencyDepth;
+    private double failureRatio;
+    private VerboseCharacterToByteWriteStream verbose;
+
+    /**
+     * Create a new QubTestScaleParameters object.
+     * @param process The process that is running the scalability benchmark.
+     * @param workFolder The folder that the synthetic projects will be generated in.
+     * @param csvFile The CSV file that the measurements will be appended to.
+     */
+    public QubTestScaleParameters(DesktopProcess process, Folder workFolder, File csvFile)
+    {
+        PreCondition.assertNotNull(process, "process");
+        PreCondition.assertNotNull(workFolder, "workFolder");
+        PreCondition.assertNotNull(csvFile, "csvFile");
+
+        this.process = process;
+        this.workFolder = workFolder;
+        this.csvFile = csvFile;
+        this.classCounts = QubTestScaleParameters.getClassCountsDefault();
+        this.testsPerClass = SyntheticProject.getTestsPerClassDefault();
+        this.dependencyDepth = SyntheticProject.getDependencyDepthDefault();
+        this.failureRatio = SyntheticProject.getFailureRatioDefault();
+    }
+
+    /**
+     * Get the default value for the --scales parameter.
+     * @return The default value for the --scales parameter.
+     */
+    static Iterable<Integer> getClassCountsDefault()
+    {
+        return Iterable.create(100, 1000, 10000, 50000);
+    }
+
+    /**
+     * Get the process that is running the scalability benchmark.
+     * @return The process that is running the scalability benchmark.
+     */
+    public DesktopProcess getProcess()
+    {
+        return this.process;
+    }
+
+    /**
+     * Get the folder that the synthetic projects will be generated in.
+     * @return The folder that the synthetic projects will be generated in.
+     */
+    public Folder getWorkFolder()
+    {
+        return this.workFolder;
+    }
+
+    /**
+     * Get the CSV file that the measurements will be appended to.
+     * @return The CSV file that the measurements will be appended to.
+     */
+    public File getCsvFile()
+    {
+        return this.csvFile;
+    }
+
+    /**
+     * Get the numbers of source classes (and test classes) of the synthetic projects that will be
+     * measured.
+     * @return The numbers of classes of the synthetic projects that will be measured.
+     */
+    public Iterable<Integer> getClassCounts()
+    {
+        return this.classCounts;
+    }
+
+    /**
+     * Set the numbers of source classes (and test classes) of the synthetic projects that will be
+     * measured.
+     * @param classCounts The numbers of classes of the synthetic projects that will be measured.
+     * @return This object for method chaining.
+     */
+    public QubTestScaleParameters setClassCounts(Iterable<Integer> classCounts)
+    {
+        PreCondition.assertNotNullAndNotEmpty(classCounts, "classCounts");
+
+        this.classCounts = classCounts;
+        return this;
+    }
+
+    public int getTestsPerClass()
+    {
+        return this.testsPerClass;
+    }
+
+    public QubTestScaleParameters setTestsPerClass(int testsPerClass)
+    {
+        PreCondition.assertGreaterThanOrEqualTo(testsPerClass, 1, "testsPerClass");
+
+        this.testsPerClass = testsPerClass;
+        return this;
+    }
+
+    public int getDependencyDepth()
+    {
+        return this.dependencyDepth;
+    }
+
+    public QubTestScaleParameters setDependencyDepth(int dependencyDepth)
+    {
+        PreCondition.assertGreaterThanOrEqualTo(dependencyDepth, 1, "dependencyDepth");
+
+        this.dependencyDepth = dependencyDepth;
+        return this;
+    }
+
+    public double getFailureRatio()
+    {
+        return this.failureRatio;
+    }
+
+    public QubTestScaleParameters setFailureRatio(double failureRatio)
+    {
+        PreCondition.assertTrue(0 <= failureRatio && failureRatio <= 1, "0 <= failureRatio && failureRatio <= 1");
+
+        this.failureRatio = failureRatio;
+        return this;
+    }
+
+    public VerboseCharacterToByteWriteStream getVerbose()
+    {
+        return this.verbose;
+    }
+
+    public QubTestScaleParameters setVerbose(VerboseCharacterToByteWriteStream verbose)
+    {
+        this.verbose = verbose;
+        return this;
+    }
+}
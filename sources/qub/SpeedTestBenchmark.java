@@ -0,0 +1,188 @@
+package qub;
+
+/**
+ * Runs speed tests as microbenchmarks. Each speed test is run for a number of warmup iterations
+ * (so that the JIT compiler has a chance to compile the hot code) before a number of measured
+ * iterations. The wall-clock time and the CPU time of every measured iteration are recorded so
+ * that percentiles and a confidence interval can be reported instead of a single noisy run.
+ */
+public class SpeedTestBenchmark
+{
+    private final int warmupIterations;
+    private final int measuredIterations;
+    private final List<SpeedTestResult> results;
+
+    private SpeedTestBenchmark(int warmupIterations, int measuredIterations)
+    {
+        this.warmupIterations = warmupIterations;
+        this.measuredIterations = measuredIterations;
+        this.results = List.create();
+    }
+
+    /**
+     * Get the default number of warmup iterations.
+     * @return The default number of warmup iterations.
+     */
+    public static int getWarmupIterationsDefault()
+    {
+        return 5;
+    }
+
+    /**
+     * Get the default number of measured iterations.
+     * @return The default number of measured iterations.
+     */
+    public static int getMeasuredIterationsDefault()
+    {
+        return 20;
+    }
+
+    /**
+     * Parse an iteration count command line argument.
+     * @param argumentValue The number of iterations.
+     * @return The number of iterations, or null if no iteration count was specified.
+     */
+    static Result<Integer> parseIterationCount(String argumentValue)
+    {
+        return Result.create2(() ->
+        {
+            Integer result = null;
+            if (!Strings.isNullOrEmpty(argumentValue))
+            {
+                result = Integer.parseInt(argumentValue.trim());
+                if (result < 0)
+                {
+                    throw new IllegalArgumentException("An iteration count cannot be negative: " + argumentValue);
+                }
+            }
+            return result;
+        });
+    }
+
+    /**
+     * Create a new SpeedTestBenchmark with the default number of iterations.
+     * @return The new SpeedTestBenchmark.
+     */
+    public static SpeedTestBenchmark create()
+    {
+        return SpeedTestBenchmark.create(SpeedTestBenchmark.getWarmupIterationsDefault(), SpeedTestBenchmark.getMeasuredIterationsDefault());
+    }
+
+    /**
+     * Create a new SpeedTestBenchmark.
+     * @param warmupIterations The number of iterations to run before measuring starts.
+     * @param measuredIterations The number of iterations to measure.
+     * @return The new SpeedTestBenchmark.
+     */
+    public static SpeedTestBenchmark create(int warmupIterations, int measuredIterations)
+    {
+        PreCondition.assertGreaterThanOrEqualTo(warmupIterations, 0, "warmupIterations");
+        PreCondition.assertGreaterThan(measuredIterations, 0, "measuredIterations");
+
+        return new SpeedTestBenchmark(warmupIterations, measuredIterations);
+    }
+
+    /**
+     * Get the number of iterations that run before measuring starts.
+     * @return The number of iterations that run before measuring starts.
+     */
+    public int getWarmupIterations()
+    {
+        return this.warmupIterations;
+    }
+
+    /**
+     * Get the number of iterations that are measured.
+     * @return The number of iterations that are measured.
+     */
+    public int getMeasuredIterations()
+    {
+        return this.measuredIterations;
+    }
+
+    /**
+     * Benchmark the provided speed test iteration on the current thread and add its result to
+     * this benchmark's results.
+     * @param testFullName The full name of the speed test.
+     * @param maximumDuration The maximum duration that the speed test declared.
+     * @param iteration One iteration of the speed test.
+     * @return The result of the benchmark.
+     */
+    public SpeedTestResult run(String testFullName, Duration maximumDuration, Action0 iteration)
+    {
+        PreCondition.assertNotNullAndNotEmpty(testFullName, "testFullName");
+        PreCondition.assertNotNull(maximumDuration, "maximumDuration");
+        PreCondition.assertNotNull(iteration, "iteration");
+
+        for (int i = 0; i < this.warmupIterations; ++i)
+        {
+            iteration.run();
+        }
+
+        final java.lang.management.ThreadMXBean threadMXBean = java.lang.management.ManagementFactory.getThreadMXBean();
+        final boolean measureCpuTime = threadMXBean.isCurrentThreadCpuTimeSupported() && threadMXBean.isThreadCpuTimeEnabled();
+
+        final long[] wallTimeSamples = new long[this.measuredIterations];
+        final long[] cpuTimeSamples = new long[this.measuredIterations];
+        for (int i = 0; i < this.measuredIterations; ++i)
+        {
+            final long cpuStartNanoseconds = measureCpuTime ? threadMXBean.getCurrentThreadCpuTime() : 0;
+            final long wallStartNanoseconds = System.nanoTime();
+            iteration.run();
+            wallTimeSamples[i] = System.nanoTime() - wallStartNanoseconds;
+            cpuTimeSamples[i] = measureCpuTime ? threadMXBean.getCurrentThreadCpuTime() - cpuStartNanoseconds : 0;
+        }
+
+        final SpeedTestResult result = SpeedTestResult.create(
+            testFullName,
+            maximumDuration,
+            this.warmupIterations,
+            SpeedTestStatistics.create(wallTimeSamples),
+            measureCpuTime ? SpeedTestStatistics.create(cpuTimeSamples) : null);
+        synchronized (this.results)
+        {
+            this.results.add(result);
+        }
+
+        PostCondition.assertNotNull(result, "result");
+
+        return result;
+    }
+
+    /**
+     * Get the results of the speed tests that have been benchmarked.
+     * @return The results of the speed tests that have been benchmarked.
+     */
+    public Iterable<SpeedTestResult> getResults()
+    {
+        return this.results;
+    }
+
+    /**
+     * Create the table of benchmark results that is written at the end of a benchmark run.
+     * @param results The results to put in the table.
+     * @return The benchmark results table.
+     */
+    static CharacterTable createTable(Iterable<SpeedTestResult> results)
+    {
+        PreCondition.assertNotNull(results, "results");
+
+        final CharacterTable table = CharacterTable.create();
+        table.addRow("Test", "Iterations", "Median", "p90", "p99", "Mean (95% CI)", "CPU Median", "Maximum");
+        for (final SpeedTestResult result : results)
+        {
+            final SpeedTestStatistics wallTime = result.getWallTime();
+            final SpeedTestStatistics cpuTime = result.getCpuTime();
+            table.addRow(
+                result.getTestFullName(),
+                Integers.toString(wallTime.getSampleCount()),
+                SpeedTestStatistics.formatNanoseconds(wallTime.getMedian()),
+                SpeedTestStatistics.formatNanoseconds(wallTime.getPercentile(90)),
+                SpeedTestStatistics.formatNanoseconds(wallTime.getPercentile(99)),
+                SpeedTestStatistics.formatNanoseconds(wallTime.getMean()) + " +/- " + SpeedTestStatistics.formatNanoseconds(wallTime.getConfidenceInterval95()),
+                cpuTime == null ? "-" : SpeedTestStatistics.formatNanoseconds(cpuTime.getMedian()),
+                SpeedTestStatistics.formatNanoseconds(result.getMaximumDuration().toMilliseconds().getValue() * 1000000) + (result.exceedsMaximumDuration() ? " (exceeded)" : ""));
+        }
+        return table;
+    }
+}
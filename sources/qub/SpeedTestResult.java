@@ -0,0 +1,99 @@
+package qub;
+
+/**
+ * The measurements of one benchmarked speed test.
+ */
+public class SpeedTestResult
+{
+    private final String testFullName;
+    private final Duration maximumDuration;
+    private final int warmupIterations;
+    private final SpeedTestStatistics wallTime;
+    private final SpeedTestStatistics cpuTime;
+
+    private SpeedTestResult(String testFullName, Duration maximumDuration, int warmupIterations, SpeedTestStatistics wallTime, SpeedTestStatistics cpuTime)
+    {
+        this.testFullName = testFullName;
+        this.maximumDuration = maximumDuration;
+        this.warmupIterations = warmupIterations;
+        this.wallTime = wallTime;
+        this.cpuTime = cpuTime;
+    }
+
+    /**
+     * Create a new SpeedTestResult.
+     * @param testFullName The full name of the speed test.
+     * @param maximumDuration The maximum duration that the speed test declared.
+     * @param warmupIterations The number of iterations that ran before measuring started.
+     * @param wallTime The wall-clock time of each measured iteration.
+     * @param cpuTime The CPU time of each measured iteration, or null if the JVM can't measure the
+     *                CPU time of a thread.
+     * @return The new SpeedTestResult.
+     */
+    public static SpeedTestResult create(String testFullName, Duration maximumDuration, int warmupIterations, SpeedTestStatistics wallTime, SpeedTestStatistics cpuTime)
+    {
+        PreCondition.assertNotNullAndNotEmpty(testFullName, "testFullName");
+        PreCondition.assertNotNull(maximumDuration, "maximumDuration");
+        PreCondition.assertGreaterThanOrEqualTo(warmupIterations, 0, "warmupIterations");
+        PreCondition.assertNotNull(wallTime, "wallTime");
+
+        return new SpeedTestResult(testFullName, maximumDuration, warmupIterations, wallTime, cpuTime);
+    }
+
+    /**
+     * Get the full name of the speed test.
+     * @return The full name of the speed test.
+     */
+    public String getTestFullName()
+    {
+        return this.testFullName;
+    }
+
+    /**
+     * Get the maximum duration that the speed test declared.
+     * @return The maximum duration that the speed test declared.
+     */
+    public Duration getMaximumDuration()
+    {
+        return this.maximumDuration;
+    }
+
+    /**
+     * Get the number of iterations that ran before measuring started.
+     * @return The number of iterations that ran before measuring started.
+     */
+    public int getWarmupIterations()
+    {
+        return this.warmupIterations;
+    }
+
+    /**
+     * Get the wall-clock time statistics of the measured iterations.
+     * @return The wall-clock time statistics of the measured iterations.
+     */
+    public SpeedTestStatistics getWallTime()
+    {
+        return this.wallTime;
+    }
+
+    /**
+     * Get the CPU time statistics of the measured iterations.
+     * @return The CPU time statistics of the measured iterations, or null if the JVM can't
+     * measure the CPU time of a thread.
+     */
+    public SpeedTestStatistics getCpuTime()
+    {
+        return this.cpuTime;
+    }
+
+    /**
+     * Get whether the median wall-clock time of the measured iterations was longer than the
+     * maximum duration that the speed test declared. The median is used instead of a single run
+     * so that one slow iteration (such as a garbage collection pause) doesn't fail the test.
+     * @return Whether the speed test was too slow.
+     */
+    public boolean exceedsMaximumDuration()
+    {
+        return this.wallTime.getMedian() > this.maximumDuration.toMilliseconds().getValue() * 1000000;
+    }
+}
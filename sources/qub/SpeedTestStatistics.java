@@ -0,0 +1,161 @@
+package qub;
+
+/**
+ * Summary statistics of the measured iterations of a speed test. All of the values are in
+ * nanoseconds.
+ */
+public class SpeedTestStatistics
+{
+    /**
+     * The two-sided 95% critical values of Student's t-distribution for 1 to 30 degrees of
+     * freedom. Beyond 30 degrees of freedom the normal distribution's 1.96 is close enough.
+     */
+    private static final double[] tCriticalValues95 =
+    {
+        12.706, 4.303, 3.182, 2.776, 2.571, 2.447, 2.365, 2.306, 2.262, 2.228,
+        2.201, 2.179, 2.160, 2.145, 2.131, 2.120, 2.110, 2.101, 2.093, 2.086,
+        2.080, 2.074, 2.069, 2.064, 2.060, 2.056, 2.052, 2.048, 2.045, 2.042,
+    };
+
+    private final long[] sortedSamples;
+    private final double mean;
+    private final double standardDeviation;
+
+    private SpeedTestStatistics(long[] sortedSamples)
+    {
+        this.sortedSamples = sortedSamples;
+
+        double sum = 0;
+        for (final long sample : sortedSamples)
+        {
+            sum += sample;
+        }
+        this.mean = sum / sortedSamples.length;
+
+        double squaredDifferenceSum = 0;
+        for (final long sample : sortedSamples)
+        {
+            final double difference = sample - this.mean;
+            squaredDifferenceSum += difference * difference;
+        }
+        this.standardDeviation = sortedSamples.length <= 1 ? 0 : Math.sqrt(squaredDifferenceSum / (sortedSamples.length - 1));
+    }
+
+    /**
+     * Create a new SpeedTestStatistics object from the provided samples.
+     * @param samples The measured nanoseconds of each iteration.
+     * @return The new SpeedTestStatistics object.
+     */
+    public static SpeedTestStatistics create(long... samples)
+    {
+        PreCondition.assertNotNull(samples, "samples");
+        PreCondition.assertGreaterThan(samples.length, 0, "samples.length");
+
+        final long[] sortedSamples = java.util.Arrays.copyOf(samples, samples.length);
+        java.util.Arrays.sort(sortedSamples);
+        return new SpeedTestStatistics(sortedSamples);
+    }
+
+    /**
+     * Get the number of samples that these statistics were calculated from.
+     * @return The number of samples.
+     */
+    public int getSampleCount()
+    {
+        return this.sortedSamples.length;
+    }
+
+    /**
+     * Get the smallest sample.
+     * @return The smallest sample.
+     */
+    public long getMinimum()
+    {
+        return this.sortedSamples[0];
+    }
+
+    /**
+     * Get the largest sample.
+     * @return The largest sample.
+     */
+    public long getMaximum()
+    {
+        return this.sortedSamples[this.sortedSamples.length - 1];
+    }
+
+    /**
+     * Get the arithmetic mean of the samples.
+     * @return The arithmetic mean of the samples.
+     */
+    public double getMean()
+    {
+        return this.mean;
+    }
+
+    /**
+     * Get the sample standard deviation of the samples.
+     * @return The sample standard deviation of the samples.
+     */
+    public double getStandardDeviation()
+    {
+        return this.standardDeviation;
+    }
+
+    /**
+     * Get the provided percentile of the samples, interpolating linearly between the two closest
+     * ranks.
+     * @param percentile The percentile to get, between 0 and 100.
+     * @return The provided percentile of the samples.
+     */
+    public double getPercentile(double percentile)
+    {
+        PreCondition.assertTrue(0 <= percentile && percentile <= 100, "0 <= percentile && percentile <= 100");
+
+        final double rank = percentile / 100 * (this.sortedSamples.length - 1);
+        final int lowerIndex = (int)Math.floor(rank);
+        final int upperIndex = (int)Math.ceil(rank);
+        final double fraction = rank - lowerIndex;
+        return this.sortedSamples[lowerIndex] + fraction * (this.sortedSamples[upperIndex] - this.sortedSamples[lowerIndex]);
+    }
+
+    /**
+     * Get the median of the samples.
+     * @return The median of the samples.
+     */
+    public double getMedian()
+    {
+        return this.getPercentile(50);
+    }
+
+    /**
+     * Get the half-width of the 95% confidence interval of the mean. The true mean is within the
+     * mean plus or minus this value with 95% confidence.
+     * @return The half-width of the 95% confidence interval of the mean.
+     */
+    public double getConfidenceInterval95()
+    {
+        final int sampleCount = this.sortedSamples.length;
+        return sampleCount <= 1
+            ? 0
+            : SpeedTestStatistics.getTCriticalValue95(sampleCount - 1) * this.standardDeviation / Math.sqrt(sampleCount);
+    }
+
+    static double getTCriticalValue95(int degreesOfFreedom)
+    {
+        PreCondition.assertGreaterThan(degreesOfFreedom, 0, "degreesOfFreedom");
+
+        return degreesOfFreedom <= SpeedTestStatistics.tCriticalValues95.length
+            ? SpeedTestStatistics.tCriticalValues95[degreesOfFreedom - 1]
+            : 1.96;
+    }
+
+    /**
+     * Format the provided number of nanoseconds as milliseconds.
+     * @param nanoseconds The number of nanoseconds to format.
+     * @return The formatted milliseconds.
+     */
+    static String formatNanoseconds(double nanoseconds)
+    {
+        return new java.text.DecimalFormat("0.000").format(nanoseconds / 1000000) + "ms";
+    }
+}
@@ -0,0 +1,373 @@
+package qub;
+
+/**
+ * A generator for synthetic qub projects that are used to measure how qub-test scales with the
+ * size of the project that it tests. Every generated source class depends on the source class
+ * before it in a chain of the configured dependency depth, and every generated test class tests
+ * one source class. A configurable ratio of the generated tests fail, spread evenly across the
+ * test classes.
+ */
+public class SyntheticProject
+{
+    private static final int classesPerPackage = 100;
+
+    private int sourceClassCount;
+    private int testClassCount;
+    private int testsPerClass;
+    private int dependencyDepth;
+    private double failureRatio;
+    private Iterable<ProjectSignature> dependencies;
+
+    private SyntheticProject()
+    {
+        this.sourceClassCount = 100;
+        this.testClassCount = 100;
+        this.testsPerClass = SyntheticProject.getTestsPerClassDefault();
+        this.dependencyDepth = SyntheticProject.getDependencyDepthDefault();
+        this.failureRatio = SyntheticProject.getFailureRatioDefault();
+        this.dependencies = Iterable.create();
+    }
+
+    /**
+     * Create a new SyntheticProject generator with 100 source classes and 100 test classes.
+     * @return The new SyntheticProject generator.
+     */
+    public static SyntheticProject create()
+    {
+        return new SyntheticProject();
+    }
+
+    /**
+     * Get the default number of tests in each generated test class.
+     * @return The default number of tests in each generated test class.
+     */
+    static int getTestsPerClassDefault()
+    {
+        return 5;
+    }
+
+    /**
+     * Get the default length of the dependency chains between generated source classes.
+     * @return The default length of the dependency chains between generated source classes.
+     */
+    static int getDependencyDepthDefault()
+    {
+        return 3;
+    }
+
+    /**
+     * Get the default ratio of generated tests that fail.
+     * @return The default ratio of generated tests that fail.
+     */
+    static double getFailureRatioDefault()
+    {
+        return 0;
+    }
+
+    /**
+     * Parse a failure ratio command line argument. The ratio can be written either as a number
+     * between 0 and 1 or as a percentage.
+     * @param argumentValue The failure ratio argument value.
+     * @return The failure ratio, or null if no failure ratio was specified.
+     */
+    static Result<Double> parseFailureRatio(String argumentValue)
+    {
+        return Result.create2(() ->
+        {
+            Double result = null;
+            if (!Strings.isNullOrEmpty(argumentValue))
+            {
+                final String failureRatioString = argumentValue.trim();
+                result = failureRatioString.endsWith("%")
+                    ? Double.parseDouble(failureRatioString.substring(0, failureRatioString.length() - 1)) / 100
+                    : Double.parseDouble(failureRatioString);
+                if (result < 0 || 1 < result)
+                {
+                    throw new IllegalArgumentException("A failure ratio must be between 0 and 1: " + argumentValue);
+                }
+            }
+            return result;
+        });
+    }
+
+    public int getSourceClassCount()
+    {
+        return this.sourceClassCount;
+    }
+
+    /**
+     * Set the number of source classes that will be generated.
+     * @param sourceClassCount The number of source classes that will be generated.
+     * @return This object for method chaining.
+     */
+    public SyntheticProject setSourceClassCount(int sourceClassCount)
+    {
+        PreCondition.assertGreaterThanOrEqualTo(sourceClassCount, 1, "sourceClassCount");
+
+        this.sourceClassCount = sourceClassCount;
+        return this;
+    }
+
+    public int getTestClassCount()
+    {
+        return this.testClassCount;
+    }
+
+    /**
+     * Set the number of test classes that will be generated. If there are more test classes than
+     * source classes, then some source classes will be tested by more than one test class.
+     * @param testClassCount The number of test classes that will be generated.
+     * @return This object for method chaining.
+     */
+    public SyntheticProject setTestClassCount(int testClassCount)
+    {
+        PreCondition.assertGreaterThanOrEqualTo(testClassCount, 0, "testClassCount");
+
+        this.testClassCount = testClassCount;
+        return this;
+    }
+
+    public int getTestsPerClass()
+    {
+        return this.testsPerClass;
+    }
+
+    /**
+     * Set the number of tests that will be generated in each test class.
+     * @param testsPerClass The number of tests that will be generated in each test class.
+     * @return This object for method chaining.
+     */
+    public SyntheticProject setTestsPerClass(int testsPerClass)
+    {
+        PreCondition.assertGreaterThanOrEqualTo(testsPerClass, 1, "testsPerClass");
+
+        this.testsPerClass = testsPerClass;
+        return this;
+    }
+
+    public int getDependencyDepth()
+    {
+        return this.dependencyDepth;
+    }
+
+    /**
+     * Set the length of the dependency chains between the generated source classes. A depth of 1
+     * means that no source class depends on another source class.
+     * @param dependencyDepth The length of the dependency chains between source classes.
+     * @return This object for method chaining.
+     */
+    public SyntheticProject setDependencyDepth(int dependencyDepth)
+    {
+        PreCondition.assertGreaterThanOrEqualTo(dependencyDepth, 1, "dependencyDepth");
+
+        this.dependencyDepth = dependencyDepth;
+        return this;
+    }
+
+    public double getFailureRatio()
+    {
+        return this.failureRatio;
+    }
+
+    /**
+     * Set the ratio of generated tests that will fail.
+     * @param failureRatio The ratio (between 0 and 1) of generated tests that will fail.
+     * @return This object for method chaining.
+     */
+    public SyntheticProject setFailureRatio(double failureRatio)
+    {
+        PreCondition.assertTrue(0 <= failureRatio && failureRatio <= 1, "0 <= failureRatio && failureRatio <= 1");
+
+        this.failureRatio = failureRatio;
+        return this;
+    }
+
+    public Iterable<ProjectSignature> getDependencies()
+    {
+        return this.dependencies;
+    }
+
+    /**
+     * Set the dependencies that will be written to the generated project.json file. The generated
+     * tests need a dependency that contains qub's Test and TestRunner types in order to compile.
+     * @param dependencies The dependencies of the generated project.
+     * @return This object for method chaining.
+     */
+    public SyntheticProject setDependencies(Iterable<ProjectSignature> dependencies)
+    {
+        PreCondition.assertNotNull(dependencies, "dependencies");
+
+        this.dependencies = dependencies;
+        return this;
+    }
+
+    /**
+     * Get the full name of the generated source class with the provided index.
+     * @param sourceClassIndex The index of the source class.
+     * @return The full name of the generated source class.
+     */
+    static String getSourceClassFullName(int sourceClassIndex)
+    {
+        PreCondition.assertGreaterThanOrEqualTo(sourceClassIndex, 0, "sourceClassIndex");
+
+        return "synthetic.p" + (sourceClassIndex / SyntheticProject.classesPerPackage) + ".Class" + sourceClassIndex;
+    }
+
+    /**
+     * Get the full name of the generated test class with the provided index.
+     * @param testClassIndex The index of the test class.
+     * @return The full name of the generated test class.
+     */
+    static String getTestClassFullName(int testClassIndex)
+    {
+        PreCondition.assertGreaterThanOrEqualTo(testClassIndex, 0, "testClassIndex");
+
+        return "synthetic.p" + (testClassIndex / SyntheticProject.classesPerPackage) + ".Class" + testClassIndex + "Tests";
+    }
+
+    /**
+     * Get whether or not the generated test with the provided index (counted across all of the
+     * test classes) fails. Failing tests are spread evenly so that any prefix of the tests has
+     * close to the configured failure ratio.
+     * @param testIndex The index of the test across all of the test classes.
+     * @return Whether or not the test fails.
+     */
+    boolean isFailingTest(long testIndex)
+    {
+        PreCondition.assertGreaterThanOrEqualTo(testIndex, 0L, "testIndex");
+
+        return Math.floor((testIndex + 1) * this.failureRatio) > Math.floor(testIndex * this.failureRatio);
+    }
+
+    /**
+     * Get the number of generated tests that fail.
+     * @return The number of generated tests that fail.
+     */
+    public long getFailingTestCount()
+    {
+        return (long)Math.floor((long)this.testClassCount * this.testsPerClass * this.failureRatio);
+    }
+
+    /**
+     * Get the source code of the generated source class with the provided index.
+     * @param sourceClassIndex The index of the source class.
+     * @return The source code of the generated source class.
+     */
+    String getSourceClassCode(int sourceClassIndex)
+    {
+        PreCondition.assertTrue(0 <= sourceClassIndex && sourceClassIndex < this.sourceClassCount, "0 <= sourceClassIndex && sourceClassIndex < this.sourceClassCount");
+
+        final String fullName = SyntheticProject.getSourceClassFullName(sourceClassIndex);
+        final int lastDotIndex = fullName.lastIndexOf('.');
+        final String valueExpression = sourceClassIndex % this.dependencyDepth == 0
+            ? Integer.toString(sourceClassIndex)
+            : SyntheticProject.getSourceClassFullName(sourceClassIndex - 1) + ".getValue() + 1";
+        return "package " + fullName.substring(0, lastDotIndex) + ";\n" +
+            "\n" +
+            "public interface " + fullName.substring(lastDotIndex + 1) + "\n" +
+            "{\n" +
+            "    static int getValue()\n" +
+            "    {\n" +
+            "        return " + valueExpression + ";\n" +
+            "    }\n" +
+            "}\n";
+    }
+
+    /**
+     * Get the source code of the generated test class with the provided index.
+     * @param testClassIndex The index of the test class.
+     * @return The source code of the generated test class.
+     */
+    String getTestClassCode(int testClassIndex)
+    {
+        PreCondition.assertTrue(0 <= testClassIndex && testClassIndex < this.testClassCount, "0 <= testClassIndex && testClassIndex < this.testClassCount");
+
+        final String fullName = SyntheticProject.getTestClassFullName(testClassIndex);
+        final int lastDotIndex = fullName.lastIndexOf('.');
+        final int sourceClassIndex = testClassIndex % this.sourceClassCount;
+        final String sourceClassFullName = SyntheticProject.getSourceClassFullName(sourceClassIndex);
+        // Every link in a dependency chain adds one to the value of the class before it, so each
+        // source class returns its own index.
+        final int expectedValue = sourceClassIndex;
+
+        final StringBuilder builder = new StringBuilder()
+            .append("package " + fullName.substring(0, lastDotIndex) + ";\n")
+            .append("\n")
+            .append("public interface " + fullName.substring(lastDotIndex + 1) + "\n")
+            .append("{\n")
+            .append("    static void test(qub.TestRunner runner)\n")
+            .append("    {\n")
+            .append("        runner.testGroup(" + sourceClassFullName + ".class, () ->\n")
+            .append("        {\n");
+        for (int i = 0; i < this.testsPerClass; ++i)
+        {
+            final long testIndex = (long)testClassIndex * this.testsPerClass + i;
+            builder
+                .append("            runner.test(\"test " + i + "\", (qub.Test test) ->\n")
+                .append("            {\n")
+                .append("                test.assertEqual(" + (this.isFailingTest(testIndex) ? expectedValue + 1 : expectedValue) + ", " + sourceClassFullName + ".getValue());\n")
+                .append("            });\n");
+        }
+        builder
+            .append("        });\n")
+            .append("    }\n")
+            .append("}\n");
+        return builder.toString();
+    }
+
+    /**
+     * Get the contents of the generated project.json file.
+     * @param projectName The name of the generated project.
+     * @return The contents of the generated project.json file.
+     */
+    ProjectJSON getProjectJson(String projectName)
+    {
+        PreCondition.assertNotNullAndNotEmpty(projectName, "projectName");
+
+        return ProjectJSON.create()
+            .setPublisher("qub-test")
+            .setProject(projectName)
+            .setVersion("1")
+            .setJava(ProjectJSONJava.create()
+                .setDependencies(this.dependencies));
+    }
+
+    /**
+     * Write the generated project to the provided folder. Any existing contents of the folder are
+     * deleted first.
+     * @param projectFolder The folder to write the generated project to.
+     * @return The result of writing the generated project.
+     */
+    public Result<Void> writeTo(Folder projectFolder)
+    {
+        PreCondition.assertNotNull(projectFolder, "projectFolder");
+
+        return Result.create2(() ->
+        {
+            projectFolder.delete()
+                .catchError(NotFoundException.class)
+                .await();
+
+            projectFolder.getFile("project.json").await()
+                .setContentsAsString(this.getProjectJson(projectFolder.getName()).toString(JSONFormat.pretty)).await();
+
+            final Folder sourcesFolder = projectFolder.getFolder("sources").await();
+            for (int sourceClassIndex = 0; sourceClassIndex < this.sourceClassCount; ++sourceClassIndex)
+            {
+                final String relativePath = SyntheticProject.getSourceClassFullName(sourceClassIndex).replace('.', '/') + ".java";
+                sourcesFolder.getFile(relativePath).await()
+                    .setContentsAsString(this.getSourceClassCode(sourceClassIndex)).await();
+            }
+
+            final Folder testsFolder = projectFolder.getFolder("tests").await();
+            for (int testClassIndex = 0; testClassIndex < this.testClassCount; ++testClassIndex)
+            {
+                final String relativePath = SyntheticProject.getTestClassFullName(testClassIndex).replace('.', '/') + ".java";
+                testsFolder.getFile(relativePath).await()
+                    .setContentsAsString(this.getTestClassCode(testClassIndex)).await();
+            }
+
+            return null;
+        });
+    }
+}
@@ -0,0 +1,471 @@
+package qub;
+
+/**
+ * A manifest file that streams the full names of test classes from qub-test to a test runner
+ * while the output folder is still being scanned. qub-test appends one test class name per line
+ * as it discovers class files and ends the manifest with an end marker line. The test runner
+ * tails the manifest, so it can start running the first test classes before the rest of a large
+ * output folder has been walked.
+ */
+public class TestClassManifest
+{
+    private static final String endMarker = "#end";
+    private static final String abortMarker = "#abort";
+    private static final Duration pollDuration = Duration.milliseconds(5);
+    private static final Duration compilePollDuration = Duration.milliseconds(100);
+    private static final Duration defaultIdleTimeout = Duration.seconds(60);
+    private static final Duration minimumIdleTimeout = Duration.seconds(5);
+
+    private final File manifestFile;
+    private final AsyncRunner asyncRunner;
+    private final Clock clock;
+    private Result<Void> discovery;
+    private volatile int discoveredTestClassCount;
+    private volatile Throwable discoveryError;
+    private volatile boolean aborted;
+
+    private TestClassManifest(File manifestFile, AsyncRunner asyncRunner, Clock clock)
+    {
+        this.manifestFile = manifestFile;
+        this.asyncRunner = asyncRunner;
+        this.clock = clock;
+    }
+
+    /**
+     * Create a new TestClassManifest that writes to the provided file.
+     * @param manifestFile The file that the test class names will be streamed through.
+     * @param asyncRunner The AsyncRunner that the test class discovery will run on.
+     * @param clock The Clock that the discovery uses to wait between polls of a compilation.
+     * @return The new TestClassManifest.
+     */
+    public static TestClassManifest create(File manifestFile, AsyncRunner asyncRunner, Clock clock)
+    {
+        PreCondition.assertNotNull(manifestFile, "manifestFile");
+        PreCondition.assertNotNull(asyncRunner, "asyncRunner");
+        PreCondition.assertNotNull(clock, "clock");
+
+        return new TestClassManifest(manifestFile, asyncRunner, clock);
+    }
+
+    /**
+     * Get the test class manifest file for the provided project.
+     * @param qubTestDataFolder The qub-test data folder.
+     * @param projectFolder The folder of the project that is being tested.
+     * @return The test class manifest file for the provided project.
+     */
+    static File getFile(Folder qubTestDataFolder, Folder projectFolder)
+    {
+        PreCondition.assertNotNull(qubTestDataFolder, "qubTestDataFolder");
+        PreCondition.assertNotNull(projectFolder, "projectFolder");
+
+        final String projectKey = QubTestHash.hash(projectFolder.toString()).substring(0, 16);
+        return qubTestDataFolder.getFile("manifests/" + projectKey + ".txt").await();
+    }
+
+    /**
+     * Get the file that the test class names are streamed through.
+     * @return The file that the test class names are streamed through.
+     */
+    public File getManifestFile()
+    {
+        return this.manifestFile;
+    }
+
+    /**
+     * Empty the manifest file and start discovering the test classes in the provided output
+     * folder in the background. Each discovered test class name is written to the manifest file
+     * as soon as it is found.
+     * @param outputFolder The output folder that contains the compiled class files.
+     * @return The result of emptying the manifest file.
+     */
+    public Result<Void> startDiscovery(Folder outputFolder)
+    {
+        PreCondition.assertNotNull(outputFolder, "outputFolder");
+        PreCondition.assertNull(this.discovery, "this.discovery");
+
+        return this.startWriting((Action1<String> writeTestClassName) ->
+        {
+            TestClassManifest.visitClassFiles(outputFolder, (File classFile) ->
+            {
+                writeTestClassName.run(QubTestRun.getFullClassName(outputFolder, classFile));
+            });
+        });
+    }
+
+    /**
+     * Empty the manifest file and start discovering the test classes in the provided output
+     * folder in the background while the provided compilation is still writing them. If a
+     * CompilePipeline is provided, a test class name is written to the manifest file as soon as
+     * the test class and the project classes that it depends on have been compiled. The rest of
+     * the test classes are written when the compilation succeeds. If the compilation fails before
+     * any test class names were written, the manifest is aborted so that the waiting test runner
+     * exits without running or reporting anything.
+     * @param outputFolder The output folder that the compilation writes its class files to.
+     * @param compilePipeline The CompilePipeline that decides which test classes can run before
+     *                        the compilation finishes, or null if no test classes should run
+     *                        before the compilation finishes.
+     * @param compilation The compilation's exit code.
+     * @return The result of emptying the manifest file.
+     */
+    public Result<Void> startPipelinedDiscovery(Folder outputFolder, CompilePipeline compilePipeline, AsyncTask<Integer> compilation)
+    {
+        PreCondition.assertNotNull(outputFolder, "outputFolder");
+        PreCondition.assertNotNull(compilation, "compilation");
+        PreCondition.assertNull(this.discovery, "this.discovery");
+
+        return this.startWriting((Action1<String> writeTestClassName) ->
+        {
+            final MutableMap<String,Boolean> writtenTestClassNames = Map.create();
+            final MutableMap<String,DateTime> classFileLastModifiedTimes = Map.create();
+            final MutableMap<String,Boolean> unreadyTestClassNameSet = Map.create();
+            List<String> unreadyTestClassNames = List.create();
+            boolean previousPollChanged = false;
+            boolean compilationFinished = false;
+            while (!compilationFinished)
+            {
+                compilationFinished = compilation.isCompleted();
+                final boolean compilationSucceeded = compilationFinished &&
+                    compilation.catchError(() -> 1).await() == 0;
+                if (compilationSucceeded)
+                {
+                    TestClassManifest.visitClassFiles(outputFolder, (File classFile) ->
+                    {
+                        final String testClassName = QubTestRun.getFullClassName(outputFolder, classFile);
+                        if (!writtenTestClassNames.containsKey(testClassName))
+                        {
+                            writeTestClassName.run(testClassName);
+                            writtenTestClassNames.set(testClassName, true);
+                        }
+                    });
+                }
+                else if (!compilationFinished && compilePipeline != null)
+                {
+                    final List<File> classFiles = List.create();
+                    TestClassManifest.visitClassFiles(outputFolder, classFiles::add);
+
+                    // Only the class files that are new or that changed since the previous
+                    // poll add classes that need to be checked.
+                    boolean changed = false;
+                    for (final File classFile : classFiles)
+                    {
+                        final DateTime lastModified = classFile.getLastModified().catchError().await();
+                        final String classFilePath = classFile.toString();
+                        if (lastModified != null && !lastModified.equals(classFileLastModifiedTimes.get(classFilePath).catchError().await()))
+                        {
+                            classFileLastModifiedTimes.set(classFilePath, lastModified);
+                            changed = true;
+
+                            final String testClassName = QubTestRun.getFullClassName(outputFolder, classFile);
+                            if (!writtenTestClassNames.containsKey(testClassName) &&
+                                !unreadyTestClassNameSet.get(testClassName).catchError(() -> false).await())
+                            {
+                                unreadyTestClassNames.add(testClassName);
+                                unreadyTestClassNameSet.set(testClassName, true);
+                            }
+                        }
+                    }
+
+                    // A class that wasn't ready can only become ready after a class file was
+                    // written, or on the next poll once the written class file's size has
+                    // settled. A class that becomes ready can release the classes that refer
+                    // to it, so that also keeps the next poll checking.
+                    if (changed || previousPollChanged)
+                    {
+                        final List<String> stillUnreadyTestClassNames = List.create();
+                        for (final String testClassName : unreadyTestClassNames)
+                        {
+                            if (compilePipeline.isReady(testClassName))
+                            {
+                                writeTestClassName.run(testClassName);
+                                writtenTestClassNames.set(testClassName, true);
+                                unreadyTestClassNameSet.set(testClassName, false);
+                                changed = true;
+                            }
+                            else
+                            {
+                                stillUnreadyTestClassNames.add(testClassName);
+                            }
+                        }
+                        unreadyTestClassNames = stillUnreadyTestClassNames;
+                    }
+                    previousPollChanged = changed;
+                }
+                else if (compilationFinished && !writtenTestClassNames.any())
+                {
+                    this.aborted = true;
+                }
+
+                if (!compilationFinished)
+                {
+                    // An empty line keeps the test runner waiting while a long compilation
+                    // hasn't finished any test classes yet.
+                    writeTestClassName.run("");
+                    if (compilePipeline != null)
+                    {
+                        compilePipeline.nextPoll();
+                    }
+                    this.clock.delay(TestClassManifest.compilePollDuration).await();
+                }
+            }
+        });
+    }
+
+    private static void visitClassFiles(Folder outputFolder, Action1<File> visitClassFile)
+    {
+        final List<Folder> foldersToVisit = List.create();
+        foldersToVisit.add(outputFolder);
+        while (foldersToVisit.any())
+        {
+            final int lastIndex = foldersToVisit.getCount() - 1;
+            final Folder folder = foldersToVisit.get(lastIndex);
+            foldersToVisit.removeAt(lastIndex);
+            final Iterable<File> files = folder.getFiles()
+                .catchError(FolderNotFoundException.class, () -> Iterable.create())
+                .await();
+            for (final File file : files)
+            {
+                if (Comparer.equal(file.getFileExtension(), ".class"))
+                {
+                    visitClassFile.run(file);
+                }
+            }
+            foldersToVisit.addAll(folder.getFolders()
+                .catchError(FolderNotFoundException.class, () -> Iterable.create())
+                .await());
+        }
+    }
+
+    private Result<Void> startWriting(Action1<Action1<String>> discoverTestClassNames)
+    {
+        return Result.create2(() ->
+        {
+            // Opening the manifest file empties it before the test runner starts reading it.
+            final CharacterToByteWriteStream writeStream = CharacterToByteWriteStream.create(this.manifestFile.getContentsByteWriteStream().await());
+            this.discovery = this.asyncRunner.schedule(() -> this.writeManifest(writeStream, discoverTestClassNames));
+            return null;
+        });
+    }
+
+    private void writeManifest(CharacterToByteWriteStream writeStream, Action1<Action1<String>> discoverTestClassNames)
+    {
+        try
+        {
+            discoverTestClassNames.run((String testClassName) ->
+            {
+                writeStream.writeLine(testClassName).await();
+                if (!testClassName.isEmpty())
+                {
+                    ++this.discoveredTestClassCount;
+                }
+            });
+        }
+        catch (Throwable e)
+        {
+            this.discoveryError = e;
+        }
+
+        try
+        {
+            // The test runner waits for the end marker, so it must be written even if the
+            // discovery failed.
+            writeStream.writeLine(this.aborted ? TestClassManifest.abortMarker : TestClassManifest.endMarker).await();
+        }
+        catch (Throwable e)
+        {
+            if (this.discoveryError == null)
+            {
+                this.discoveryError = e;
+            }
+        }
+        finally
+        {
+            writeStream.dispose().catchError().await();
+        }
+    }
+
+    /**
+     * Wait for the test class discovery that was started by startDiscovery() or
+     * startPipelinedDiscovery() to finish.
+     * @return The number of test classes that were discovered.
+     */
+    public Result<Integer> waitForDiscovery()
+    {
+        PreCondition.assertNotNull(this.discovery, "this.discovery");
+
+        return Result.create2(() ->
+        {
+            this.discovery.await();
+
+            if (this.discoveryError != null)
+            {
+                throw this.discoveryError instanceof RuntimeException
+                    ? (RuntimeException)this.discoveryError
+                    : new RuntimeException(this.discoveryError);
+            }
+            return this.discoveredTestClassCount;
+        });
+    }
+
+    /**
+     * Get whether the provided manifest file was aborted because the compilation that its test
+     * classes were waiting for failed.
+     * @param manifestFile The manifest file to check.
+     * @return Whether the provided manifest file was aborted.
+     */
+    public static boolean isAborted(File manifestFile)
+    {
+        PreCondition.assertNotNull(manifestFile, "manifestFile");
+
+        final String contents = manifestFile.getContentsAsString()
+            .catchError(() -> "")
+            .await();
+        return contents.endsWith(TestClassManifest.abortMarker + "\n");
+    }
+
+    /**
+     * Get how long a test runner waits for the next line of a manifest file before it stops
+     * reading. qub-test writes a line at least every compile poll while it compiles, so a manifest
+     * that stays idle for longer than a test class is allowed to run has been abandoned by the
+     * qub-test process that was writing it.
+     * @param testTimeout The longest that a single test can run, or null if tests don't have a
+     *                    timeout.
+     * @param classTimeout The longest that a test class can run, or null if test classes don't
+     *                     have a timeout.
+     * @return How long a test runner waits for the next line of a manifest file.
+     */
+    static Duration getIdleTimeout(Duration testTimeout, Duration classTimeout)
+    {
+        Duration result = classTimeout != null ? classTimeout
+            : testTimeout != null ? testTimeout
+            : TestClassManifest.defaultIdleTimeout;
+        if (result.toMilliseconds().getValue() < TestClassManifest.minimumIdleTimeout.toMilliseconds().getValue())
+        {
+            result = TestClassManifest.minimumIdleTimeout;
+        }
+
+        PostCondition.assertNotNull(result, "result");
+
+        return result;
+    }
+
+    /**
+     * Read the test class names from the provided manifest file as they are written. Iterating
+     * the returned Iterable blocks until the next test class name has been written, and ends when
+     * the end marker or the abort marker is read or when nothing has been written to the manifest
+     * file for the idle timeout.
+     * @param manifestFile The manifest file to read.
+     * @param idleTimeout How long to wait for the next line of the manifest file before reading
+     *                    ends.
+     * @param clock The Clock that is used to wait for the next line of the manifest file.
+     * @return The test class names in the manifest file.
+     */
+    public static java.lang.Iterable<String> read(File manifestFile, Duration idleTimeout, Clock clock)
+    {
+        PreCondition.assertNotNull(manifestFile, "manifestFile");
+        PreCondition.assertNotNull(idleTimeout, "idleTimeout");
+        PreCondition.assertNotNull(clock, "clock");
+
+        return () -> new java.util.Iterator<String>()
+        {
+            private ByteReadStream readStream;
+            private byte[] buffer;
+            private int bufferIndex;
+            private String nextTestClassName;
+            private boolean ended;
+
+            @Override
+            public boolean hasNext()
+            {
+                if (this.nextTestClassName == null && !this.ended)
+                {
+                    this.nextTestClassName = this.readLine();
+                    if (this.nextTestClassName == null)
+                    {
+                        this.ended = true;
+                        if (this.readStream != null)
+                        {
+                            this.readStream.dispose().catchError().await();
+                        }
+                    }
+                }
+                return this.nextTestClassName != null;
+            }
+
+            @Override
+            public String next()
+            {
+                if (!this.hasNext())
+                {
+                    throw new java.util.NoSuchElementException();
+                }
+                final String result = this.nextTestClassName;
+                this.nextTestClassName = null;
+                return result;
+            }
+
+            private String readLine()
+            {
+                if (this.readStream == null)
+                {
+                    this.readStream = manifestFile.getContentsReadStream()
+                        .catchError()
+                        .await();
+                }
+
+                String result = null;
+                if (this.readStream != null)
+                {
+                    final java.io.ByteArrayOutputStream line = new java.io.ByteArrayOutputStream();
+                    DateTime idleStartTime = null;
+                    while (result == null)
+                    {
+                        if (this.buffer == null || this.bufferIndex == this.buffer.length)
+                        {
+                            this.buffer = this.readStream.readBytes(1024)
+                                .catchError()
+                                .await();
+                            this.bufferIndex = 0;
+                        }
+
+                        if (this.buffer == null || this.buffer.length == 0)
+                        {
+                            // The rest of the manifest hasn't been written yet.
+                            if (idleStartTime == null)
+                            {
+                                idleStartTime = clock.getCurrentDateTime();
+                            }
+                            if (clock.getCurrentDateTime().minus(idleStartTime).toMilliseconds().getValue() >= idleTimeout.toMilliseconds().getValue())
+                            {
+                                break;
+                            }
+                            clock.delay(TestClassManifest.pollDuration).await();
+                        }
+                        else
+                        {
+                            idleStartTime = null;
+                            final byte b = this.buffer[this.bufferIndex++];
+                            if (b != '\n')
+                            {
+                                line.write(b);
+                            }
+                            else
+                            {
+                                final String lineText = new String(line.toByteArray(), java.nio.charset.StandardCharsets.UTF_8);
+                                line.reset();
+                                if (TestClassManifest.endMarker.equals(lineText) || TestClassManifest.abortMarker.equals(lineText))
+                                {
+                                    break;
+                                }
+                                else if (!lineText.isEmpty())
+                                {
+                                    result = lineText;
+                                }
+                            }
+                        }
+                    }
+                }
+                return result;
+            }
+        };
+    }
+}
@@ -0,0 +1,389 @@
+package qub;
+
+/**
+ * An index of which tests executed which classes, and which of each class's coverage probes
+ * (JaCoCo's stand-in for lines and branches) each test hit. The index is written to the
+ * testcoverage.json file in the output folder when tests are run with --coverage-per-test.
+ */
+public class TestCoverageIndex
+{
+    private static final String testsPropertyName = "tests";
+    private static final String classesPropertyName = "classes";
+    private static final String testNamePropertyName = "name";
+    private static final String testClassNamePropertyName = "class";
+    private static final String testDurationPropertyName = "durationMilliseconds";
+
+    private final List<String> testNames;
+    private final List<String> testClassNames;
+    private final List<Integer> testDurations;
+    private final List<String> classNames;
+    private final MutableMap<String,MutableMap<Integer,String>> classTestProbes;
+
+    private TestCoverageIndex()
+    {
+        this.testNames = List.create();
+        this.testClassNames = List.create();
+        this.testDurations = List.create();
+        this.classNames = List.create();
+        this.classTestProbes = Map.create();
+    }
+
+    /**
+     * Create a new empty TestCoverageIndex.
+     * @return The new TestCoverageIndex.
+     */
+    public static TestCoverageIndex create()
+    {
+        return new TestCoverageIndex();
+    }
+
+    /**
+     * Get the testcoverage.json file in the provided output folder.
+     * @param outputFolder The output folder.
+     * @return The testcoverage.json file in the provided output folder.
+     */
+    public static File getFile(Folder outputFolder)
+    {
+        PreCondition.assertNotNull(outputFolder, "outputFolder");
+
+        return outputFolder.getFile("testcoverage.json").await();
+    }
+
+    /**
+     * Parse a TestCoverageIndex from the provided testcoverage.json file.
+     * @param indexFile The testcoverage.json file to parse.
+     * @return The parsed TestCoverageIndex.
+     */
+    public static Result<TestCoverageIndex> parse(File indexFile)
+    {
+        PreCondition.assertNotNull(indexFile, "indexFile");
+
+        return JSON.parseObject(indexFile)
+            .then((JSONObject json) -> TestCoverageIndex.parse(json).await());
+    }
+
+    /**
+     * Parse a TestCoverageIndex from the provided JSON object.
+     * @param json The JSON object to parse.
+     * @return The parsed TestCoverageIndex.
+     */
+    public static Result<TestCoverageIndex> parse(JSONObject json)
+    {
+        PreCondition.assertNotNull(json, "json");
+
+        return Result.create2(() ->
+        {
+            final TestCoverageIndex result = TestCoverageIndex.create();
+
+            final JSONObject testsObject = json.getObject(TestCoverageIndex.testsPropertyName).await();
+            for (final JSONProperty testProperty : testsObject.getProperties())
+            {
+                final JSONObject testObject = testProperty.getObjectValue().await();
+                result.addTest(
+                    testObject.getString(TestCoverageIndex.testNamePropertyName).await(),
+                    testObject.getString(TestCoverageIndex.testClassNamePropertyName).await(),
+                    testObject.getInteger(TestCoverageIndex.testDurationPropertyName).catchError(() -> 0).await());
+            }
+
+            final JSONObject classesObject = json.getObject(TestCoverageIndex.classesPropertyName).await();
+            for (final JSONProperty classProperty : classesObject.getProperties())
+            {
+                final String fullClassName = classProperty.getName();
+                final JSONObject classObject = classProperty.getObjectValue().await();
+                for (final JSONProperty classTestProperty : classObject.getProperties())
+                {
+                    final int testIndex = Integer.parseInt(classTestProperty.getName());
+                    final String encodedProbes = classObject.getString(classTestProperty.getName()).await();
+                    result.addClassProbes(testIndex, fullClassName, TestCoverageIndex.decodeProbes(encodedProbes));
+                }
+            }
+
+            return result;
+        });
+    }
+
+    /**
+     * Add a test to this index.
+     * @param fullTestName The full name of the test.
+     * @param fullTestClassName The full name of the test class that contains the test.
+     * @param durationMilliseconds The number of milliseconds that the test took to run.
+     * @return The index of the added test.
+     */
+    public int addTest(String fullTestName, String fullTestClassName, int durationMilliseconds)
+    {
+        PreCondition.assertNotNullAndNotEmpty(fullTestName, "fullTestName");
+        PreCondition.assertNotNullAndNotEmpty(fullTestClassName, "fullTestClassName");
+        PreCondition.assertGreaterThanOrEqualTo(durationMilliseconds, 0, "durationMilliseconds");
+
+        final int result = this.testNames.getCount();
+        this.testNames.add(fullTestName);
+        this.testClassNames.add(fullTestClassName);
+        this.testDurations.add(durationMilliseconds);
+        return result;
+    }
+
+    /**
+     * Record the probes of the provided class that the provided test hit. If the test didn't hit
+     * any of the class's probes, then nothing is recorded.
+     * @param testIndex The index of the test.
+     * @param fullClassName The full name of the class.
+     * @param probes A String that contains a '1' for each probe that was hit and a '0' for each
+     *               probe that was not hit.
+     * @return This object for method chaining.
+     */
+    public TestCoverageIndex addClassProbes(int testIndex, String fullClassName, String probes)
+    {
+        PreCondition.assertBetween(0, testIndex, this.getTestCount() - 1, "testIndex");
+        PreCondition.assertNotNullAndNotEmpty(fullClassName, "fullClassName");
+        PreCondition.assertNotNull(probes, "probes");
+
+        if (probes.indexOf('1') >= 0)
+        {
+            MutableMap<Integer,String> testProbes = this.classTestProbes.get(fullClassName).catchError().await();
+            if (testProbes == null)
+            {
+                testProbes = Map.create();
+                this.classNames.add(fullClassName);
+                this.classTestProbes.set(fullClassName, testProbes);
+            }
+            testProbes.set(testIndex, probes);
+        }
+
+        return this;
+    }
+
+    /**
+     * Get the number of tests in this index.
+     * @return The number of tests in this index.
+     */
+    public int getTestCount()
+    {
+        return this.testNames.getCount();
+    }
+
+    /**
+     * Get the full name of the test at the provided index.
+     * @param testIndex The index of the test.
+     * @return The full name of the test.
+     */
+    public String getTestName(int testIndex)
+    {
+        return this.testNames.get(testIndex);
+    }
+
+    /**
+     * Get the full name of the test class that contains the test at the provided index.
+     * @param testIndex The index of the test.
+     * @return The full name of the test class that contains the test.
+     */
+    public String getTestClassName(int testIndex)
+    {
+        return this.testClassNames.get(testIndex);
+    }
+
+    /**
+     * Get the number of milliseconds that the test at the provided index took to run.
+     * @param testIndex The index of the test.
+     * @return The number of milliseconds that the test took to run.
+     */
+    public int getTestDurationMilliseconds(int testIndex)
+    {
+        return this.testDurations.get(testIndex);
+    }
+
+    /**
+     * Get the full names of the classes that were executed by at least one test.
+     * @return The full names of the classes that were executed by at least one test.
+     */
+    public Iterable<String> getCoveredClassNames()
+    {
+        return this.classNames;
+    }
+
+    /**
+     * Get the indexes of the tests that executed the provided class.
+     * @param fullClassName The full name of the class.
+     * @return The indexes of the tests that executed the provided class.
+     */
+    public Iterable<Integer> getTestIndexes(String fullClassName)
+    {
+        PreCondition.assertNotNullAndNotEmpty(fullClassName, "fullClassName");
+
+        final MutableMap<Integer,String> testProbes = this.classTestProbes.get(fullClassName).catchError().await();
+        return testProbes == null ? Iterable.create() : testProbes.getKeys();
+    }
+
+    /**
+     * Get the probes of the provided class that the test at the provided index hit.
+     * @param fullClassName The full name of the class.
+     * @param testIndex The index of the test.
+     * @return A String that contains a '1' for each probe that was hit and a '0' for each probe
+     * that was not hit, or an empty String if the test didn't execute the class.
+     */
+    public String getClassProbes(String fullClassName, int testIndex)
+    {
+        PreCondition.assertNotNullAndNotEmpty(fullClassName, "fullClassName");
+
+        final MutableMap<Integer,String> testProbes = this.classTestProbes.get(fullClassName).catchError().await();
+        return testProbes == null ? "" : testProbes.get(testIndex).catchError(() -> "").await();
+    }
+
+    /**
+     * Get the full names of the test classes that contain a test that executed any class (or
+     * nested class) of the provided top-level class.
+     * @param topLevelClassName The full name of the top-level class.
+     * @return The full names of the test classes.
+     */
+    public Iterable<String> getTestClassNamesThatCover(String topLevelClassName)
+    {
+        PreCondition.assertNotNullAndNotEmpty(topLevelClassName, "topLevelClassName");
+
+        final List<String> result = List.create();
+        for (final String fullClassName : this.classNames)
+        {
+            if (QubTestRun.getTopLevelClassName(fullClassName).equals(topLevelClassName))
+            {
+                for (final Integer testIndex : this.getTestIndexes(fullClassName))
+                {
+                    final String testClassName = this.getTestClassName(testIndex);
+                    if (!result.contains(testClassName))
+                    {
+                        result.add(testClassName);
+                    }
+                }
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Add the tests (and their coverage) from the provided index whose test classes are not in
+     * the provided list of test class names. This is used to keep the coverage of test classes
+     * that weren't run this time.
+     * @param previousIndex The index to copy tests from.
+     * @param excludedTestClassNames The test classes whose tests should not be copied.
+     * @return This object for method chaining.
+     */
+    public TestCoverageIndex addTestsFrom(TestCoverageIndex previousIndex, Iterable<String> excludedTestClassNames)
+    {
+        PreCondition.assertNotNull(previousIndex, "previousIndex");
+        PreCondition.assertNotNull(excludedTestClassNames, "excludedTestClassNames");
+
+        final MutableMap<String,Boolean> excluded = Map.create();
+        for (final String excludedTestClassName : excludedTestClassNames)
+        {
+            excluded.set(excludedTestClassName, true);
+        }
+
+        final MutableMap<Integer,Integer> testIndexMap = Map.create();
+        for (int previousTestIndex = 0; previousTestIndex < previousIndex.getTestCount(); ++previousTestIndex)
+        {
+            final String testClassName = previousIndex.getTestClassName(previousTestIndex);
+            if (!excluded.containsKey(testClassName))
+            {
+                final int testIndex = this.addTest(previousIndex.getTestName(previousTestIndex), testClassName, previousIndex.getTestDurationMilliseconds(previousTestIndex));
+                testIndexMap.set(previousTestIndex, testIndex);
+            }
+        }
+
+        for (final String fullClassName : previousIndex.getCoveredClassNames())
+        {
+            for (final Integer previousTestIndex : previousIndex.getTestIndexes(fullClassName))
+            {
+                final Integer testIndex = testIndexMap.get(previousTestIndex).catchError().await();
+                if (testIndex != null)
+                {
+                    this.addClassProbes(testIndex, fullClassName, previousIndex.getClassProbes(fullClassName, previousTestIndex));
+                }
+            }
+        }
+
+        return this;
+    }
+
+    /**
+     * Get the JSON representation of this index.
+     * @return The JSON representation of this index.
+     */
+    public JSONObject toJson()
+    {
+        final JSONObject testsObject = JSONObject.create();
+        for (int testIndex = 0; testIndex < this.getTestCount(); ++testIndex)
+        {
+            final JSONObject testObject = JSONObject.create();
+            testObject.setString(TestCoverageIndex.testNamePropertyName, this.getTestName(testIndex));
+            testObject.setString(TestCoverageIndex.testClassNamePropertyName, this.getTestClassName(testIndex));
+            testObject.setNumber(TestCoverageIndex.testDurationPropertyName, this.getTestDurationMilliseconds(testIndex));
+            testsObject.set(Integers.toString(testIndex), testObject);
+        }
+
+        final JSONObject classesObject = JSONObject.create();
+        for (final String fullClassName : this.classNames)
+        {
+            final JSONObject classObject = JSONObject.create();
+            for (final Integer testIndex : this.getTestIndexes(fullClassName))
+            {
+                classObject.setString(Integers.toString(testIndex), TestCoverageIndex.encodeProbes(this.getClassProbes(fullClassName, testIndex)));
+            }
+            classesObject.set(fullClassName, classObject);
+        }
+
+        final JSONObject result = JSONObject.create();
+        result.set(TestCoverageIndex.testsPropertyName, testsObject);
+        result.set(TestCoverageIndex.classesPropertyName, classesObject);
+        return result;
+    }
+
+    @Override
+    public String toString()
+    {
+        return this.toJson().toString();
+    }
+
+    /**
+     * Encode the provided probes String in a compact form: the number of probes, a colon, and then
+     * the probes as hexadecimal digits where each digit holds four probes.
+     * @param probes The probes String to encode.
+     * @return The encoded probes.
+     */
+    static String encodeProbes(String probes)
+    {
+        PreCondition.assertNotNull(probes, "probes");
+
+        final StringBuilder result = new StringBuilder();
+        result.append(probes.length()).append(':');
+        for (int i = 0; i < probes.length(); i += 4)
+        {
+            int digit = 0;
+            for (int bit = 0; bit < 4 && i + bit < probes.length(); ++bit)
+            {
+                if (probes.charAt(i + bit) == '1')
+                {
+                    digit |= (1 << bit);
+                }
+            }
+            result.append(Character.forDigit(digit, 16));
+        }
+        return result.toString();
+    }
+
+    /**
+     * Decode probes that were encoded with encodeProbes().
+     * @param encodedProbes The encoded probes.
+     * @return The decoded probes String.
+     */
+    static String decodeProbes(String encodedProbes)
+    {
+        PreCondition.assertNotNullAndNotEmpty(encodedProbes, "encodedProbes");
+
+        final int colonIndex = encodedProbes.indexOf(':');
+        final int probeCount = Integer.parseInt(encodedProbes.substring(0, colonIndex));
+        final char[] result = new char[probeCount];
+        for (int i = 0; i < probeCount; ++i)
+        {
+            final int digit = Character.digit(encodedProbes.charAt(colonIndex + 1 + (i / 4)), 16);
+            result[i] = (digit & (1 << (i % 4))) != 0 ? '1' : '0';
+        }
+        return new String(result);
+    }
+}
@@ -0,0 +1,165 @@
+package qub;
+
+/**
+ * The inputs outside of a project's own class files that its test results depend on: the entries
+ * of the test runner's classpath, the JVM options that the test runner was launched with, and the
+ * values of the environment variables that the project's tests read. A test.json file stores the
+ * fingerprint of the test run that wrote it, so that test results can be invalidated when any of
+ * these inputs change.
+ */
+public class TestFingerprint extends JSONObjectWrapperBase
+{
+    private static final String classPathPropertyName = "classpath";
+    private static final String jvmOptionsPropertyName = "jvmOptions";
+    private static final String environmentPropertyName = "environment";
+    private static final String environmentVariablesPropertyName = "environmentVariables";
+
+    private TestFingerprint(JSONObject json)
+    {
+        super(json);
+    }
+
+    /**
+     * Create a new TestFingerprint.
+     * @param classPathStamps A map from each classpath entry to a stamp (such as its last
+     *                        modified time) that changes when the entry's contents change.
+     * @param jvmOptions The JVM options that the test runner is launched with.
+     * @param environmentVariables A map from the name of each environment variable that the
+     *                             tests read to its value (or null if it isn't set).
+     * @return The new TestFingerprint.
+     */
+    public static TestFingerprint create(Map<String,String> classPathStamps, Iterable<String> jvmOptions, Map<String,String> environmentVariables)
+    {
+        PreCondition.assertNotNull(classPathStamps, "classPathStamps");
+        PreCondition.assertNotNull(jvmOptions, "jvmOptions");
+        PreCondition.assertNotNull(environmentVariables, "environmentVariables");
+
+        final JSONObject classPathObject = JSONObject.create();
+        for (final String classPath : classPathStamps.getKeys())
+        {
+            classPathObject.setString(classPath, classPathStamps.get(classPath).await());
+        }
+
+        final StringBuilder environment = new StringBuilder();
+        for (final String environmentVariableName : environmentVariables.getKeys())
+        {
+            final String environmentVariableValue = environmentVariables.get(environmentVariableName).await();
+            environment.append(environmentVariableName).append('=');
+            environment.append(environmentVariableValue == null ? "" : Strings.escapeAndQuote(environmentVariableValue)).append('\n');
+        }
+
+        final JSONObject json = JSONObject.create();
+        json.set(TestFingerprint.classPathPropertyName, classPathObject);
+        json.setString(TestFingerprint.jvmOptionsPropertyName, QubTestHash.hash(Strings.join('\n', jvmOptions)));
+        json.setString(TestFingerprint.environmentPropertyName, QubTestHash.hash(environment.toString()));
+        return new TestFingerprint(json);
+    }
+
+    /**
+     * Create a TestFingerprint from the provided JSON object.
+     * @param json The JSON object of the fingerprint.
+     * @return The TestFingerprint.
+     */
+    public static TestFingerprint create(JSONObject json)
+    {
+        PreCondition.assertNotNull(json, "json");
+
+        return new TestFingerprint(json);
+    }
+
+    /**
+     * Get the names of the environment variables that the project's tests read from the
+     * "environmentVariables" array in the "test" object of the project's project.json file.
+     * @param projectJson The contents of the project's project.json file, or null if it couldn't
+     *                    be parsed.
+     * @return The names of the environment variables that the project's tests read.
+     */
+    static Iterable<String> getEnvironmentVariableNames(JSONObject projectJson)
+    {
+        final List<String> result = List.create();
+        if (projectJson != null)
+        {
+            final JSONArray environmentVariableNames = projectJson.getObject(TestTimeouts.testPropertyName)
+                .then((JSONObject test) -> test.getArray(TestFingerprint.environmentVariablesPropertyName).await())
+                .catchError()
+                .await();
+            if (environmentVariableNames != null)
+            {
+                for (final JSONSegment environmentVariableName : environmentVariableNames)
+                {
+                    if (environmentVariableName instanceof JSONString)
+                    {
+                        result.add(((JSONString)environmentVariableName).getValue());
+                    }
+                }
+            }
+        }
+        return result;
+    }
+
+    private JSONObject getClassPathObject()
+    {
+        return this.json.getObject(TestFingerprint.classPathPropertyName)
+            .catchError(() -> JSONObject.create())
+            .await();
+    }
+
+    /**
+     * Get whether the provided fingerprint has the same JVM options and environment variable
+     * values as this fingerprint. A change to either of them can affect any test.
+     * @param other The fingerprint to compare against.
+     * @return Whether the provided fingerprint has the same JVM options and environment variable
+     * values.
+     */
+    public boolean hasSameRuntime(TestFingerprint other)
+    {
+        PreCondition.assertNotNull(other, "other");
+
+        return Comparer.equal(this.json.getString(TestFingerprint.jvmOptionsPropertyName).catchError().await(), other.json.getString(TestFingerprint.jvmOptionsPropertyName).catchError().await()) &&
+            Comparer.equal(this.json.getString(TestFingerprint.environmentPropertyName).catchError().await(), other.json.getString(TestFingerprint.environmentPropertyName).catchError().await());
+    }
+
+    /**
+     * Get a hash of the JVM options and environment variable values of this fingerprint.
+     * @return A hash of the JVM options and environment variable values of this fingerprint.
+     */
+    public String getRuntimeHash()
+    {
+        return QubTestHash.hash(this.json.getString(TestFingerprint.jvmOptionsPropertyName).catchError(() -> "").await() + "\n" +
+            this.json.getString(TestFingerprint.environmentPropertyName).catchError(() -> "").await());
+    }
+
+    /**
+     * Get the classpath entries that were added, removed, or changed between the provided
+     * fingerprint and this fingerprint.
+     * @param previous The fingerprint of the previous test run.
+     * @return The classpath entries that were added, removed, or changed.
+     */
+    public Iterable<String> getChangedClassPaths(TestFingerprint previous)
+    {
+        PreCondition.assertNotNull(previous, "previous");
+
+        final JSONObject classPathObject = this.getClassPathObject();
+        final JSONObject previousClassPathObject = previous.getClassPathObject();
+
+        final List<String> result = List.create();
+        for (final JSONProperty classPathProperty : classPathObject.getProperties())
+        {
+            final String previousStamp = previousClassPathObject.getString(classPathProperty.getName())
+                .catchError()
+                .await();
+            if (!Comparer.equal(previousStamp, classPathObject.getString(classPathProperty.getName()).catchError().await()))
+            {
+                result.add(classPathProperty.getName());
+            }
+        }
+        for (final JSONProperty previousClassPathProperty : previousClassPathObject.getProperties())
+        {
+            if (classPathObject.getString(previousClassPathProperty.getName()).catchError().await() == null)
+            {
+                result.add(previousClassPathProperty.getName());
+            }
+        }
+        return result;
+    }
+}
@@ -0,0 +1,82 @@
+package qub;
+
+/**
+ * An index of the tests that each class file in an output folder registers. The index is written
+ * to the testindex.json file in the output folder by qub-test list, and each entry is only used
+ * while the class file's last modified time matches the time that is stored in the entry.
+ */
+public class TestIndex extends JSONObjectWrapperBase
+{
+    private static final String classFilesPropertyName = "classFiles";
+
+    private TestIndex(JSONObject json)
+    {
+        super(json);
+    }
+
+    /**
+     * Create a new empty TestIndex.
+     * @return The new TestIndex.
+     */
+    public static TestIndex create()
+    {
+        return new TestIndex(JSONObject.create());
+    }
+
+    /**
+     * Get the testindex.json file in the provided output folder.
+     * @param outputFolder The output folder.
+     * @return The testindex.json file in the provided output folder.
+     */
+    public static File getFile(Folder outputFolder)
+    {
+        PreCondition.assertNotNull(outputFolder, "outputFolder");
+
+        return outputFolder.getFile("testindex.json").await();
+    }
+
+    /**
+     * Parse a TestIndex from the provided testindex.json file.
+     * @param indexFile The testindex.json file to parse.
+     * @return The parsed TestIndex.
+     */
+    public static Result<TestIndex> parse(File indexFile)
+    {
+        PreCondition.assertNotNull(indexFile, "indexFile");
+
+        return JSON.parseObject(indexFile)
+            .then((JSONObject json) -> new TestIndex(json));
+    }
+
+    /**
+     * Set the class files that are stored in this index. Each class file should have its last
+     * modified time and its tests set.
+     * @param classFiles The class files that are stored in this index.
+     * @return This object for method chaining.
+     */
+    public TestIndex setClassFiles(Iterable<TestJSONClassFile> classFiles)
+    {
+        PreCondition.assertNotNull(classFiles, "classFiles");
+
+        this.json.set(TestIndex.classFilesPropertyName, JSONObject.create()
+            .setAll(classFiles.map(TestJSONClassFile::toJsonProperty)));
+
+        return this;
+    }
+
+    /**
+     * Get the class files that are stored in this index.
+     * @return The class files that are stored in this index.
+     */
+    public Iterable<TestJSONClassFile> getClassFiles()
+    {
+        return this.json.getObject(TestIndex.classFilesPropertyName)
+            .then((JSONObject classFilesJsonObject) ->
+            {
+                return classFilesJsonObject.getProperties()
+                    .map((JSONProperty classFileJsonProperty) -> TestJSONClassFile.parse(classFileJsonProperty).await());
+            })
+            .catchError(() -> Iterable.create())
+            .await();
+    }
+}
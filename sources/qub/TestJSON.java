@@ -7,6 +7,8 @@ public class TestJSON extends JSONObjectWrapperBase
 {
     private static final String javaVersionPropertyName = "javaVersion";
     private static final String classFilesPropertyName = "classFiles";
+    private static final String peakHeapMegabytesPropertyName = "peakHeapMegabytes";
+    private static final String fingerprintPropertyName = "fingerprint";
 
     private TestJSON(JSONObject json)
     {
@@ -94,6 +96,55 @@ public class TestJSON extends JSONObjectWrapperBase
         });
     }
 
+    /**
+     * Set the peak amount of heap memory (in megabytes) that the test runner used while running
+     * the tests.
+     * @param peakHeapMegabytes The peak amount of heap memory in megabytes.
+     * @return This object for method chaining.
+     */
+    public TestJSON setPeakHeapMegabytes(int peakHeapMegabytes)
+    {
+        PreCondition.assertGreaterThanOrEqualTo(peakHeapMegabytes, 0, "peakHeapMegabytes");
+
+        this.json.setNumber(TestJSON.peakHeapMegabytesPropertyName, peakHeapMegabytes);
+        return this;
+    }
+
+    /**
+     * Get the peak amount of heap memory (in megabytes) that the test runner used while running
+     * the tests.
+     * @return The peak amount of heap memory in megabytes.
+     */
+    public Result<Integer> getPeakHeapMegabytes()
+    {
+        return this.json.getInteger(TestJSON.peakHeapMegabytesPropertyName);
+    }
+
+    /**
+     * Set the fingerprint of the classpath, JVM options, and environment variables that the tests
+     * ran with.
+     * @param fingerprint The fingerprint that the tests ran with.
+     * @return This object for method chaining.
+     */
+    public TestJSON setFingerprint(TestFingerprint fingerprint)
+    {
+        PreCondition.assertNotNull(fingerprint, "fingerprint");
+
+        this.json.set(TestJSON.fingerprintPropertyName, fingerprint.json);
+        return this;
+    }
+
+    /**
+     * Get the fingerprint of the classpath, JVM options, and environment variables that the tests
+     * ran with.
+     * @return The fingerprint that the tests ran with.
+     */
+    public Result<TestFingerprint> getFingerprint()
+    {
+        return this.json.getObject(TestJSON.fingerprintPropertyName)
+            .then((JSONObject fingerprintJson) -> TestFingerprint.create(fingerprintJson));
+    }
+
     /**
      * Set the TestJSONClassFile objects for a test.json file.
      * @param classFiles The TestJSONClassFile objects for a test.json file.
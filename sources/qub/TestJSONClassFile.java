@@ -9,6 +9,7 @@ public class TestJSONClassFile
     private static final String passedTestCountPropertyName = "passedTestCount";
     private static final String skippedTestCountPropertyName = "skippedTestCount";
     private static final String failedTestCountPropertyName = "failedTestCount";
+    private static final String testsPropertyName = "tests";
 
     private final JSONProperty jsonProperty;
 
@@ -146,6 +147,51 @@ public class TestJSONClassFile
             .await();
     }
 
+    /**
+     * Set the tests that ran in the class file.
+     * @param tests The tests that ran in the class file.
+     * @return This object for method chaining.
+     */
+    public TestJSONClassFile setTests(Iterable<TestJSONTest> tests)
+    {
+        PreCondition.assertNotNull(tests, "tests");
+
+        this.getPropertyValue().set(TestJSONClassFile.testsPropertyName, JSONObject.create()
+            .setAll(tests.map(TestJSONTest::toJsonProperty)));
+
+        return this;
+    }
+
+    /**
+     * Get the tests that ran in the class file.
+     * @return The tests that ran in the class file, or null if they weren't recorded.
+     */
+    public Iterable<TestJSONTest> getTests()
+    {
+        return this.getPropertyValue().getObject(TestJSONClassFile.testsPropertyName)
+            .then((JSONObject testsJsonObject) ->
+            {
+                return testsJsonObject.getProperties()
+                    .map((JSONProperty testJsonProperty) -> TestJSONTest.parse(testJsonProperty).await())
+                    .toList();
+            })
+            .catchError()
+            .await();
+    }
+
+    /**
+     * Get whether the recorded tests of the class file account for every test that was counted
+     * when the class file ran. Tests that didn't run (for example because their test group was
+     * skipped) aren't recorded.
+     * @return Whether every counted test of the class file was recorded.
+     */
+    public boolean hasAllTests()
+    {
+        final Iterable<TestJSONTest> tests = this.getTests();
+        return tests != null &&
+            tests.getCount() == this.getPassedTestCount() + this.getSkippedTestCount() + this.getFailedTestCount();
+    }
+
     @Override
     public String toString()
     {
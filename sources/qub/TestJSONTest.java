@@ -0,0 +1,216 @@
+package qub;
+
+/**
+ * The saved result of running a single test within a Java class file.
+ */
+public class TestJSONTest
+{
+    public static final String passedStatus = "passed";
+    public static final String skippedStatus = "skipped";
+    public static final String failedStatus = "failed";
+
+    private static final String statusPropertyName = "status";
+    private static final String namesPropertyName = "names";
+    private static final String durationMillisecondsPropertyName = "durationMilliseconds";
+
+    private final JSONProperty jsonProperty;
+
+    private TestJSONTest(JSONProperty jsonProperty)
+    {
+        PreCondition.assertNotNull(jsonProperty, "jsonProperty");
+
+        this.jsonProperty = jsonProperty;
+    }
+
+    public static TestJSONTest create(String fullName)
+    {
+        PreCondition.assertNotNullAndNotEmpty(fullName, "fullName");
+
+        return new TestJSONTest(JSONProperty.create(fullName, JSONObject.create()));
+    }
+
+    /**
+     * Create a TestJSONTest from the provided test.
+     * @param test The test.
+     * @param status The status of the test.
+     * @return The new TestJSONTest.
+     */
+    public static TestJSONTest create(Test test, String status)
+    {
+        PreCondition.assertNotNull(test, "test");
+
+        final List<String> names = List.create();
+        names.add(test.getName());
+        TestParent testParent = test.getParent();
+        while (testParent != null)
+        {
+            names.insert(0, testParent.getName());
+            testParent = testParent.getParent();
+        }
+
+        return TestJSONTest.create(test.getFullName())
+            .setStatus(status)
+            .setNames(names);
+    }
+
+    public static Result<TestJSONTest> parse(JSONProperty property)
+    {
+        PreCondition.assertNotNull(property, "property");
+
+        return Result.create2(() ->
+        {
+            return new TestJSONTest(property);
+        });
+    }
+
+    private JSONObject getPropertyValue()
+    {
+        return this.jsonProperty.getObjectValue().await();
+    }
+
+    /**
+     * Get the full name of the test.
+     * @return The full name of the test.
+     */
+    public String getFullName()
+    {
+        return this.jsonProperty.getName();
+    }
+
+    /**
+     * Set the status of the test.
+     * @param status The status of the test.
+     * @return This object for method chaining.
+     */
+    public TestJSONTest setStatus(String status)
+    {
+        PreCondition.assertNotNullAndNotEmpty(status, "status");
+
+        this.getPropertyValue().setString(TestJSONTest.statusPropertyName, status);
+
+        return this;
+    }
+
+    /**
+     * Get the status of the test.
+     * @return The status of the test, or null if it wasn't recorded.
+     */
+    public String getStatus()
+    {
+        return this.getPropertyValue().getString(TestJSONTest.statusPropertyName)
+            .catchError()
+            .await();
+    }
+
+    /**
+     * Set how long the test took to run.
+     * @param durationMilliseconds How long the test took to run in milliseconds.
+     * @return This object for method chaining.
+     */
+    public TestJSONTest setDurationMilliseconds(int durationMilliseconds)
+    {
+        PreCondition.assertGreaterThanOrEqualTo(durationMilliseconds, 0, "durationMilliseconds");
+
+        this.getPropertyValue().setNumber(TestJSONTest.durationMillisecondsPropertyName, durationMilliseconds);
+
+        return this;
+    }
+
+    /**
+     * Get how long the test took to run.
+     * @return How long the test took to run in milliseconds, or null if it wasn't recorded.
+     */
+    public Integer getDurationMilliseconds()
+    {
+        return this.getPropertyValue().getInteger(TestJSONTest.durationMillisecondsPropertyName)
+            .catchError()
+            .await();
+    }
+
+    /**
+     * Set the names of the test and of the test groups that contain it, from the outermost test
+     * group to the test.
+     * @param names The names of the test and of the test groups that contain it.
+     * @return This object for method chaining.
+     */
+    public TestJSONTest setNames(Iterable<String> names)
+    {
+        PreCondition.assertNotNull(names, "names");
+
+        final List<JSONSegment> nameSegments = List.create();
+        for (final String name : names)
+        {
+            nameSegments.add(JSONString.get(name));
+        }
+        this.getPropertyValue().set(TestJSONTest.namesPropertyName, JSONArray.create(nameSegments));
+
+        return this;
+    }
+
+    /**
+     * Get the names of the test and of the test groups that contain it, from the outermost test
+     * group to the test.
+     * @return The names of the test and of the test groups that contain it.
+     */
+    public Iterable<String> getNames()
+    {
+        final List<String> result = List.create();
+        final JSONArray names = this.getPropertyValue().getArray(TestJSONTest.namesPropertyName)
+            .catchError()
+            .await();
+        if (names != null)
+        {
+            for (final JSONSegment name : names)
+            {
+                if (name instanceof JSONString)
+                {
+                    result.add(((JSONString)name).getValue());
+                }
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Get whether the provided pattern matches this test. A test runner matches a pattern against
+     * the name and the full name of a test and of each test group that contains it, so this
+     * matches the pattern against the same names.
+     * @param pattern The pattern to match.
+     * @return Whether the provided pattern matches this test.
+     */
+    public boolean matches(PathPattern pattern)
+    {
+        PreCondition.assertNotNull(pattern, "pattern");
+
+        boolean result = pattern.isMatch(this.getFullName());
+        if (!result)
+        {
+            final StringBuilder fullName = new StringBuilder();
+            for (final String name : this.getNames())
+            {
+                if (fullName.length() > 0)
+                {
+                    fullName.append(' ');
+                }
+                fullName.append(name);
+                if (pattern.isMatch(name) || pattern.isMatch(fullName.toString()))
+                {
+                    result = true;
+                    break;
+                }
+            }
+        }
+        return result;
+    }
+
+    @Override
+    public String toString()
+    {
+        return this.toJsonProperty().toString();
+    }
+
+    public JSONProperty toJsonProperty()
+    {
+        return this.jsonProperty;
+    }
+}
@@ -0,0 +1,140 @@
+package qub;
+
+/**
+ * Named sets of JVM options for the test runner JVM. A project can declare its own profiles (or
+ * override the built-in quick, throughput, and low-memory profiles) in its project.json file:
+ * <pre>
+ * "test": {
+ *   "jvmProfiles": {
+ *     "quick": { "jvmArgs": "-XX:TieredStopAtLevel=1", "heap": "auto" }
+ *   }
+ * }
+ * </pre>
+ * A profile's heap can be a fixed size (such as "512m") or "auto", which sizes the maximum heap
+ * from the peak heap usage that was recorded in the previous test run's test.json file.
+ */
+public interface TestJvmProfiles
+{
+    String testPropertyName = "test";
+    String jvmProfilesPropertyName = "jvmProfiles";
+    String jvmArgsPropertyName = "jvmArgs";
+    String heapPropertyName = "heap";
+    String autoHeap = "auto";
+
+    /**
+     * The smallest maximum heap size (in megabytes) that an "auto" heap will be given.
+     */
+    int minimumAutoHeapMegabytes = 64;
+
+    /**
+     * Get the built-in profiles.
+     * @return The built-in profiles.
+     */
+    static JSONObject getBuiltInProfiles()
+    {
+        final JSONObject quick = JSONObject.create();
+        quick.setString(TestJvmProfiles.jvmArgsPropertyName, "-XX:TieredStopAtLevel=1 -XX:+UseSerialGC");
+
+        final JSONObject throughput = JSONObject.create();
+        throughput.setString(TestJvmProfiles.jvmArgsPropertyName, "-XX:+UseParallelGC");
+
+        final JSONObject lowMemory = JSONObject.create();
+        lowMemory.setString(TestJvmProfiles.jvmArgsPropertyName, "-XX:+UseSerialGC -XX:MinHeapFreeRatio=10 -XX:MaxHeapFreeRatio=20");
+        lowMemory.setString(TestJvmProfiles.heapPropertyName, TestJvmProfiles.autoHeap);
+
+        final JSONObject result = JSONObject.create();
+        result.set("quick", quick);
+        result.set("throughput", throughput);
+        result.set("low-memory", lowMemory);
+        return result;
+    }
+
+    /**
+     * Get the JVM arguments of the profile with the provided name.
+     * @param profileName The name of the profile.
+     * @param projectJson The contents of the project's project.json file, or null to only use the
+     *                    built-in profiles.
+     * @param peakHeapMegabytes The peak heap usage that was recorded in the previous test run, or
+     *                          null if no peak heap usage was recorded.
+     * @return The JVM arguments of the profile.
+     */
+    static Result<Iterable<String>> getJvmArguments(String profileName, JSONObject projectJson, Integer peakHeapMegabytes)
+    {
+        PreCondition.assertNotNullAndNotEmpty(profileName, "profileName");
+
+        return Result.create2(() ->
+        {
+            JSONObject profile = null;
+            if (projectJson != null)
+            {
+                profile = projectJson.getObject(TestJvmProfiles.testPropertyName)
+                    .then((JSONObject test) -> test.getObject(TestJvmProfiles.jvmProfilesPropertyName).await())
+                    .then((JSONObject jvmProfiles) -> jvmProfiles.getObject(profileName).await())
+                    .catchError()
+                    .await();
+            }
+            if (profile == null)
+            {
+                profile = TestJvmProfiles.getBuiltInProfiles().getObject(profileName)
+                    .catchError()
+                    .await();
+            }
+            if (profile == null)
+            {
+                throw new NotFoundException("No JVM profile named " + Strings.escapeAndQuote(profileName) + " was found.");
+            }
+
+            final List<String> result = List.create();
+            result.addAll(TestJvmProfiles.splitJvmArguments(profile.getString(TestJvmProfiles.jvmArgsPropertyName).catchError().await()));
+
+            final String heap = profile.getString(TestJvmProfiles.heapPropertyName).catchError().await();
+            if (TestJvmProfiles.autoHeap.equalsIgnoreCase(heap))
+            {
+                if (peakHeapMegabytes != null)
+                {
+                    result.add(TestJvmProfiles.getAutoHeapArgument(peakHeapMegabytes));
+                }
+            }
+            else if (!Strings.isNullOrEmpty(heap))
+            {
+                result.add("-Xmx" + heap);
+            }
+            return result;
+        });
+    }
+
+    /**
+     * Get the maximum heap argument for an "auto" heap: the recorded peak heap usage with 50%
+     * headroom, but never less than 64 megabytes.
+     * @param peakHeapMegabytes The peak heap usage that was recorded in the previous test run.
+     * @return The maximum heap argument.
+     */
+    static String getAutoHeapArgument(int peakHeapMegabytes)
+    {
+        PreCondition.assertGreaterThanOrEqualTo(peakHeapMegabytes, 0, "peakHeapMegabytes");
+
+        final int heapMegabytes = Math.max(TestJvmProfiles.minimumAutoHeapMegabytes, peakHeapMegabytes + (peakHeapMegabytes + 1) / 2);
+        return "-Xmx" + heapMegabytes + "m";
+    }
+
+    /**
+     * Split the provided whitespace-separated JVM arguments.
+     * @param jvmArguments The whitespace-separated JVM arguments.
+     * @return The individual JVM arguments.
+     */
+    static Iterable<String> splitJvmArguments(String jvmArguments)
+    {
+        final List<String> result = List.create();
+        if (!Strings.isNullOrEmpty(jvmArguments))
+        {
+            for (final String jvmArgument : jvmArguments.trim().split("\\s+"))
+            {
+                if (!jvmArgument.isEmpty())
+                {
+                    result.add(jvmArgument);
+                }
+            }
+        }
+        return result;
+    }
+}
@@ -0,0 +1,283 @@
+package qub;
+
+/**
+ * A TestRunner that records the tests that a test class registers without running them. Test
+ * group actions are run so that the tests inside of them are registered, but test actions are
+ * not. Test group actions that ask for test resources are given null resources, and a test group
+ * action that throws only loses the tests that it hadn't registered yet.
+ */
+public class TestRegistrationRunner implements TestRunner
+{
+    private final BasicTestRunner skipRunner;
+    private final ClassLoader testClassLoader;
+    private final List<String> testParentNames;
+    private final List<TestJSONTest> tests;
+
+    private TestRegistrationRunner(DesktopProcess process, ClassLoader testClassLoader)
+    {
+        PreCondition.assertNotNull(process, "process");
+        PreCondition.assertNotNull(testClassLoader, "testClassLoader");
+
+        this.skipRunner = BasicTestRunner.create(process, null);
+        this.testClassLoader = testClassLoader;
+        this.testParentNames = List.create();
+        this.tests = List.create();
+    }
+
+    /**
+     * Create a new TestRegistrationRunner.
+     * @param process The process that is registering the tests.
+     * @param testClassLoader The ClassLoader that test classes will be loaded from.
+     * @return The new TestRegistrationRunner.
+     */
+    public static TestRegistrationRunner create(DesktopProcess process, ClassLoader testClassLoader)
+    {
+        return new TestRegistrationRunner(process, testClassLoader);
+    }
+
+    /**
+     * Get the tests that the provided class registers.
+     * @param fullClassName The full name of the class.
+     * @return The tests that the provided class registers. A class that doesn't have a static
+     * test(TestRunner) method doesn't register any tests.
+     */
+    public Result<Iterable<TestJSONTest>> getTests(String fullClassName)
+    {
+        PreCondition.assertNotNullAndNotEmpty(fullClassName, "fullClassName");
+
+        return Result.create2(() ->
+        {
+            this.tests.clear();
+            this.testClass(fullClassName).await();
+            final List<TestJSONTest> result = List.create();
+            result.addAll(this.tests);
+            this.tests.clear();
+            return result;
+        });
+    }
+
+    private void runTestParent(String testParentName, Action0 testParentAction)
+    {
+        this.testParentNames.add(testParentName);
+        try
+        {
+            testParentAction.run();
+        }
+        catch (Throwable ignored)
+        {
+        }
+        finally
+        {
+            this.testParentNames.removeAt(this.testParentNames.getCount() - 1);
+        }
+    }
+
+    private void addTest(String testName)
+    {
+        final List<String> names = List.create();
+        names.addAll(this.testParentNames);
+        names.add(testName);
+        this.tests.add(TestJSONTest.create(Strings.join(' ', names)).setNames(names));
+    }
+
+    @Override
+    public Skip skip()
+    {
+        return this.skipRunner.skip();
+    }
+
+    @Override
+    public Skip skip(boolean toSkip)
+    {
+        return this.skipRunner.skip(toSkip);
+    }
+
+    @Override
+    public Skip skip(boolean toSkip, String message)
+    {
+        return this.skipRunner.skip(toSkip, message);
+    }
+
+    @Override
+    public Skip skip(String message)
+    {
+        return this.skipRunner.skip(message);
+    }
+
+    @Override
+    public Result<Void> testClass(String fullClassName)
+    {
+        PreCondition.assertNotNullAndNotEmpty(fullClassName, "fullClassName");
+
+        return ConsoleTestRunner.loadTestClass(this.testClassLoader, fullClassName)
+            .then((Class<?> testClass) -> this.testClass(testClass).await());
+    }
+
+    @Override
+    public Result<Void> testClass(Class<?> testClass)
+    {
+        PreCondition.assertNotNull(testClass, "testClass");
+
+        return Result.create2(() ->
+        {
+            java.lang.reflect.Method testMethod = null;
+            try
+            {
+                testMethod = testClass.getDeclaredMethod("test", TestRunner.class);
+            }
+            catch (NoSuchMethodException ignored)
+            {
+            }
+
+            if (testMethod != null && java.lang.reflect.Modifier.isStatic(testMethod.getModifiers()))
+            {
+                final java.lang.reflect.Method staticTestMethod = testMethod;
+                staticTestMethod.setAccessible(true);
+                this.runTestParent(testClass.getName(), () ->
+                {
+                    try
+                    {
+                        staticTestMethod.invoke(null, this);
+                    }
+                    catch (IllegalAccessException | java.lang.reflect.InvocationTargetException e)
+                    {
+                        throw new RuntimeException(e);
+                    }
+                });
+            }
+        });
+    }
+
+    @Override
+    public void testGroup(String testGroupName, Action0 testGroupAction)
+    {
+        this.runTestParent(testGroupName, testGroupAction);
+    }
+
+    @Override
+    public void testGroup(Class<?> testClass, Action0 testGroupAction)
+    {
+        this.runTestParent(testClass.getSimpleName(), testGroupAction);
+    }
+
+    @Override
+    public void testGroup(String testGroupName, Skip skip, Action0 testGroupAction)
+    {
+        this.runTestParent(testGroupName, testGroupAction);
+    }
+
+    @Override
+    public <T1> void testGroup(String testGroupName, Skip skip, Function1<TestResources, Tuple1<T1>> resourcesFunction, Action1<T1> testGroupAction)
+    {
+        this.runTestParent(testGroupName, () -> testGroupAction.run(null));
+    }
+
+    @Override
+    public <T1, T2> void testGroup(String testGroupName, Skip skip, Function1<TestResources, Tuple2<T1, T2>> resourcesFunction, Action2<T1, T2> testGroupAction)
+    {
+        this.runTestParent(testGroupName, () -> testGroupAction.run(null, null));
+    }
+
+    @Override
+    public <T1, T2, T3> void testGroup(String testGroupName, Skip skip, Function1<TestResources, Tuple3<T1, T2, T3>> resourcesFunction, Action3<T1, T2, T3> testGroupAction)
+    {
+        this.runTestParent(testGroupName, () -> testGroupAction.run(null, null, null));
+    }
+
+    @Override
+    public void testGroup(Class<?> testClass, Skip skip, Action0 testGroupAction)
+    {
+        this.runTestParent(testClass.getSimpleName(), testGroupAction);
+    }
+
+    @Override
+    public void test(String testName, Action1<Test> testAction)
+    {
+        this.addTest(testName);
+    }
+
+    @Override
+    public void test(String testName, Skip skip, Action1<Test> testAction)
+    {
+        this.addTest(testName);
+    }
+
+    @Override
+    public <T1> void test(String testName, Skip skip, Function1<TestResources, Tuple1<T1>> resourcesFunction, Action2<Test, T1> testAction)
+    {
+        this.addTest(testName);
+    }
+
+    @Override
+    public <T1, T2> void test(String testName, Skip skip, Function1<TestResources, Tuple2<T1, T2>> resourcesFunction, Action3<Test, T1, T2> testAction)
+    {
+        this.addTest(testName);
+    }
+
+    @Override
+    public <T1, T2, T3> void test(String testName, Skip skip, Function1<TestResources, Tuple3<T1, T2, T3>> resourcesFunction, Action4<Test, T1, T2, T3> testAction)
+    {
+        this.addTest(testName);
+    }
+
+    @Override
+    public void speedTest(String testName, Duration maximumDuration, Action1<Test> testAction)
+    {
+        this.addTest(testName);
+    }
+
+    @Override
+    public void beforeTestClass(Action1<TestClass> beforeTestClassAction)
+    {
+    }
+
+    @Override
+    public void afterTestClass(Action1<TestClass> afterTestClassAction)
+    {
+    }
+
+    @Override
+    public void beforeTestGroup(Action1<TestGroup> beforeTestGroupAction)
+    {
+    }
+
+    @Override
+    public void afterTestGroupFailure(Action2<TestGroup,TestError> afterTestGroupFailureAction)
+    {
+    }
+
+    @Override
+    public void afterTestGroupSkipped(Action1<TestGroup> afterTestGroupSkipped)
+    {
+    }
+
+    @Override
+    public void afterTestGroup(Action1<TestGroup> afterTestGroupAction)
+    {
+    }
+
+    @Override
+    public void beforeTest(Action1<Test> beforeTestAction)
+    {
+    }
+
+    @Override
+    public void afterTestFailure(Action2<Test,TestError> afterTestFailureAction)
+    {
+    }
+
+    @Override
+    public void afterTestSuccess(Action1<Test> afterTestSuccessAction)
+    {
+    }
+
+    @Override
+    public void afterTestSkipped(Action1<Test> afterTestSkippedAction)
+    {
+    }
+
+    @Override
+    public void afterTest(Action1<Test> afterTestAction)
+    {
+    }
+}
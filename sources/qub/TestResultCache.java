@@ -0,0 +1,407 @@
+package qub;
+
+/**
+ * A content-addressed cache of passing test class results that is shared by every project
+ * folder, branch, and worktree on the machine. Each result is stored under a key that covers the
+ * contents of the test class, the contents of the project classes that it references (directly
+ * or transitively), and the runtime that it ran in (see {@link TestResultKeys}). A test class
+ * whose key is in the cache doesn't need to run again, even if its outputs folder was cleaned or
+ * was never tested before.
+ * <p>
+ * The cache is bounded by the total size of its entries. When the bound is exceeded, the least
+ * recently used entries are evicted. The entries can be exported to and imported from a zip
+ * archive so that CI jobs can share them.
+ */
+public class TestResultCache
+{
+    private static final String sequencePropertyName = "sequence";
+    private static final String bytesPropertyName = "bytes";
+    private static final String lastUsedPropertyName = "lastUsed";
+    private static final String passedTestCountPropertyName = "passedTestCount";
+    private static final String skippedTestCountPropertyName = "skippedTestCount";
+    private static final String entryFileExtension = ".json";
+    private static final long defaultMaximumBytes = 16 * 1024 * 1024;
+
+    private final Folder cacheFolder;
+    private final long maximumBytes;
+    private boolean indexLoaded;
+    private long sequence;
+    private long bytesDelta;
+
+    private TestResultCache(Folder cacheFolder, long maximumBytes)
+    {
+        PreCondition.assertNotNull(cacheFolder, "cacheFolder");
+        PreCondition.assertGreaterThan(maximumBytes, 0, "maximumBytes");
+
+        this.cacheFolder = cacheFolder;
+        this.maximumBytes = maximumBytes;
+    }
+
+    /**
+     * Create a new TestResultCache that is stored in the provided folder.
+     * @param cacheFolder The folder that the cache is stored in.
+     * @param maximumBytes The maximum total size of the cache's entries.
+     * @return The new TestResultCache.
+     */
+    public static TestResultCache create(Folder cacheFolder, long maximumBytes)
+    {
+        return new TestResultCache(cacheFolder, maximumBytes);
+    }
+
+    /**
+     * Create a new TestResultCache that is stored in the provided qub-test data folder.
+     * @param qubTestDataFolder The data folder of the qub-test application.
+     * @return The new TestResultCache.
+     */
+    public static TestResultCache create(Folder qubTestDataFolder)
+    {
+        PreCondition.assertNotNull(qubTestDataFolder, "qubTestDataFolder");
+
+        return TestResultCache.create(qubTestDataFolder.getFolder("results").await(), TestResultCache.defaultMaximumBytes);
+    }
+
+    /**
+     * Get the folder that this cache is stored in.
+     * @return The folder that this cache is stored in.
+     */
+    public Folder getCacheFolder()
+    {
+        return this.cacheFolder;
+    }
+
+    /**
+     * Get the maximum total size of this cache's entries.
+     * @return The maximum total size of this cache's entries.
+     */
+    public long getMaximumBytes()
+    {
+        return this.maximumBytes;
+    }
+
+    private File getIndexFile()
+    {
+        return this.cacheFolder.getFile("index.json").await();
+    }
+
+    private Folder getEntriesFolder()
+    {
+        return this.cacheFolder.getFolder("entries").await();
+    }
+
+    private File getEntryFile(String key)
+    {
+        PreCondition.assertNotNullAndNotEmpty(key, "key");
+
+        return this.getEntriesFolder().getFile(key.substring(0, Math.min(2, key.length())) + "/" + key + TestResultCache.entryFileExtension).await();
+    }
+
+    private void loadIndex()
+    {
+        if (!this.indexLoaded)
+        {
+            this.indexLoaded = true;
+
+            final JSONObject indexJson = JSON.parseObject(this.getIndexFile())
+                .catchError()
+                .await();
+            if (indexJson != null)
+            {
+                this.sequence = TestResultCache.getLong(indexJson, TestResultCache.sequencePropertyName);
+            }
+        }
+    }
+
+    private static long getLong(JSONObject json, String propertyName)
+    {
+        return json.getNumber(propertyName)
+            .then((Double value) -> value.longValue())
+            .catchError(() -> 0L)
+            .await();
+    }
+
+    private void writeEntry(String key, JSONObject entryJson, int previousEntryBytes)
+    {
+        entryJson.setNumber(TestResultCache.lastUsedPropertyName, ++this.sequence);
+        final String entryContents = entryJson.toString();
+        this.getEntryFile(key).setContentsAsString(entryContents)
+            .catchError()
+            .await();
+        this.bytesDelta += entryContents.length() - previousEntryBytes;
+    }
+
+    /**
+     * Get the cached result for the provided key. A cached result is marked as the most recently
+     * used entry.
+     * @param key The key of the test class result.
+     * @param classFileRelativePath The path of the test class file relative to the outputs folder.
+     * @param lastModified The current last modified time of the test class file.
+     * @return The cached result as a test.json class file entry, or null if the key isn't in the
+     * cache.
+     */
+    public TestJSONClassFile get(String key, Path classFileRelativePath, DateTime lastModified)
+    {
+        PreCondition.assertNotNullAndNotEmpty(key, "key");
+        PreCondition.assertNotNull(classFileRelativePath, "classFileRelativePath");
+        PreCondition.assertNotNull(lastModified, "lastModified");
+
+        TestJSONClassFile result = null;
+        final String entryContents = this.getEntryFile(key).getContentsAsString()
+            .catchError()
+            .await();
+        if (entryContents != null)
+        {
+            final JSONObject entryJson = JSON.parseObject(entryContents)
+                .catchError()
+                .await();
+            if (entryJson != null)
+            {
+                this.loadIndex();
+                this.writeEntry(key, entryJson, entryContents.length());
+
+                result = TestJSONClassFile.create(classFileRelativePath)
+                    .setLastModified(lastModified)
+                    .setPassedTestCount(entryJson.getInteger(TestResultCache.passedTestCountPropertyName).catchError(() -> 0).await())
+                    .setSkippedTestCount(entryJson.getInteger(TestResultCache.skippedTestCountPropertyName).catchError(() -> 0).await())
+                    .setFailedTestCount(0);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Add the result of a passing test class to the cache. Results with failed tests aren't
+     * cached.
+     * @param key The key of the test class result.
+     * @param classFile The test.json class file entry of the test class.
+     * @return Whether the result was added to the cache.
+     */
+    public boolean set(String key, TestJSONClassFile classFile)
+    {
+        PreCondition.assertNotNullAndNotEmpty(key, "key");
+        PreCondition.assertNotNull(classFile, "classFile");
+
+        final boolean result = (classFile.getFailedTestCount() == 0);
+        if (result)
+        {
+            this.loadIndex();
+
+            final String previousEntryContents = this.getEntryFile(key).getContentsAsString()
+                .catchError()
+                .await();
+            final JSONObject entryJson = JSONObject.create();
+            entryJson.setNumber(TestResultCache.passedTestCountPropertyName, classFile.getPassedTestCount());
+            entryJson.setNumber(TestResultCache.skippedTestCountPropertyName, classFile.getSkippedTestCount());
+            this.writeEntry(key, entryJson, previousEntryContents == null ? 0 : previousEntryContents.length());
+        }
+        return result;
+    }
+
+    /**
+     * Evict the least recently used entries if the cache has grown past its maximum size, and then
+     * write the cache's index. Other processes may have written the index since this cache loaded
+     * it, so the size that this cache's writes added is added to the index's current size instead
+     * of replacing it, and eviction recomputes the size from the entry files.
+     */
+    public void save()
+    {
+        if (this.indexLoaded)
+        {
+            long sequence = this.sequence;
+            long bytes = this.bytesDelta;
+            final JSONObject currentIndexJson = JSON.parseObject(this.getIndexFile())
+                .catchError()
+                .await();
+            if (currentIndexJson != null)
+            {
+                sequence = Math.max(sequence, TestResultCache.getLong(currentIndexJson, TestResultCache.sequencePropertyName));
+                bytes += TestResultCache.getLong(currentIndexJson, TestResultCache.bytesPropertyName);
+            }
+            this.sequence = sequence;
+            this.bytesDelta = 0;
+
+            if (bytes > this.maximumBytes)
+            {
+                bytes = this.evict();
+            }
+
+            final JSONObject indexJson = JSONObject.create();
+            indexJson.setNumber(TestResultCache.sequencePropertyName, sequence);
+            indexJson.setNumber(TestResultCache.bytesPropertyName, Math.max(0, bytes));
+            this.getIndexFile().setContentsAsString(indexJson.toString())
+                .catchError()
+                .await();
+        }
+    }
+
+    /**
+     * Delete the least recently used entries until the cache is three quarters of its maximum
+     * size, so that the entries don't need to be scanned again on every run.
+     * @return The total size of the entries that remain.
+     */
+    private long evict()
+    {
+        final Iterable<File> entryFiles = this.getEntriesFolder().getFilesRecursively()
+            .catchError(() -> Iterable.create())
+            .await();
+        final MutableMap<Long,Long> lastUsedBytes = Map.create();
+        final List<File> lastUsedEntryFiles = List.create();
+        final List<Long> lastUseds = List.create();
+        long totalBytes = 0;
+        for (final File entryFile : entryFiles)
+        {
+            final String entryContents = entryFile.getContentsAsString()
+                .catchError()
+                .await();
+            if (entryContents != null)
+            {
+                final JSONObject entryJson = JSON.parseObject(entryContents)
+                    .catchError()
+                    .await();
+                final long lastUsed = entryJson == null ? 0 : TestResultCache.getLong(entryJson, TestResultCache.lastUsedPropertyName);
+                lastUsedBytes.set(lastUsed, lastUsedBytes.get(lastUsed).catchError(() -> 0L).await() + entryContents.length());
+                lastUsedEntryFiles.add(entryFile);
+                lastUseds.add(lastUsed);
+                totalBytes += entryContents.length();
+            }
+        }
+
+        final long[] sortedLastUseds = new long[lastUseds.getCount()];
+        for (int i = 0; i < sortedLastUseds.length; ++i)
+        {
+            sortedLastUseds[i] = lastUseds.get(i);
+        }
+        java.util.Arrays.sort(sortedLastUseds);
+
+        final long targetBytes = this.maximumBytes / 4 * 3;
+        long evictedLastUsed = -1;
+        for (int i = 0; i < sortedLastUseds.length && totalBytes > targetBytes; ++i)
+        {
+            if (sortedLastUseds[i] != evictedLastUsed)
+            {
+                evictedLastUsed = sortedLastUseds[i];
+                totalBytes -= lastUsedBytes.get(evictedLastUsed).await();
+            }
+        }
+
+        for (int i = 0; i < lastUsedEntryFiles.getCount(); ++i)
+        {
+            if (lastUseds.get(i) <= evictedLastUsed)
+            {
+                lastUsedEntryFiles.get(i).delete()
+                    .catchError()
+                    .await();
+            }
+        }
+        return totalBytes;
+    }
+
+    /**
+     * Write every entry of this cache to the provided zip archive.
+     * @param archiveFile The zip archive to write.
+     * @return The number of entries that were exported.
+     */
+    public Result<Integer> exportTo(File archiveFile)
+    {
+        PreCondition.assertNotNull(archiveFile, "archiveFile");
+
+        return Result.create2(() ->
+        {
+            int result = 0;
+            final java.io.ByteArrayOutputStream archiveBytes = new java.io.ByteArrayOutputStream();
+            try (final java.util.zip.ZipOutputStream archive = new java.util.zip.ZipOutputStream(archiveBytes))
+            {
+                final Iterable<File> entryFiles = this.getEntriesFolder().getFilesRecursively()
+                    .catchError(FolderNotFoundException.class, () -> Iterable.create())
+                    .await();
+                for (final File entryFile : entryFiles)
+                {
+                    archive.putNextEntry(new java.util.zip.ZipEntry(entryFile.getName()));
+                    archive.write(entryFile.getContents().await());
+                    archive.closeEntry();
+                    ++result;
+                }
+            }
+            catch (java.io.IOException e)
+            {
+                throw new RuntimeException(e);
+            }
+            archiveFile.setContents(archiveBytes.toByteArray()).await();
+            return result;
+        });
+    }
+
+    /**
+     * Add the entries in the provided zip archive that aren't already in this cache. The
+     * imported entries are marked as the most recently used entries, and then the cache is saved.
+     * @param archiveFile The zip archive to read.
+     * @return The number of entries that were imported.
+     */
+    public Result<Integer> importFrom(File archiveFile)
+    {
+        PreCondition.assertNotNull(archiveFile, "archiveFile");
+
+        return Result.create2(() ->
+        {
+            int result = 0;
+            final byte[] archiveBytes = archiveFile.getContents().await();
+            try (final java.util.zip.ZipInputStream archive = new java.util.zip.ZipInputStream(new java.io.ByteArrayInputStream(archiveBytes)))
+            {
+                java.util.zip.ZipEntry archiveEntry = archive.getNextEntry();
+                while (archiveEntry != null)
+                {
+                    final String entryName = archiveEntry.getName();
+                    final String key = entryName.endsWith(TestResultCache.entryFileExtension)
+                        ? entryName.substring(0, entryName.length() - TestResultCache.entryFileExtension.length())
+                        : null;
+                    if (TestResultCache.isKey(key) && !this.getEntryFile(key).exists().await())
+                    {
+                        final java.io.ByteArrayOutputStream entryBytes = new java.io.ByteArrayOutputStream();
+                        final byte[] buffer = new byte[4096];
+                        int bytesRead = archive.read(buffer);
+                        while (bytesRead > 0)
+                        {
+                            entryBytes.write(buffer, 0, bytesRead);
+                            bytesRead = archive.read(buffer);
+                        }
+                        final JSONObject entryJson = JSON.parseObject(new String(entryBytes.toByteArray(), java.nio.charset.StandardCharsets.UTF_8))
+                            .catchError()
+                            .await();
+                        if (entryJson != null)
+                        {
+                            this.loadIndex();
+                            this.writeEntry(key, entryJson, 0);
+                            ++result;
+                        }
+                    }
+                    archiveEntry = archive.getNextEntry();
+                }
+            }
+            catch (java.io.IOException e)
+            {
+                throw new RuntimeException(e);
+            }
+            this.save();
+            return result;
+        });
+    }
+
+    /**
+     * Get whether the provided value can be a key of this cache. Keys are hexadecimal hashes, so
+     * an archive entry can't name a file outside of the cache folder.
+     * @param value The value to check.
+     * @return Whether the provided value can be a key of this cache.
+     */
+    static boolean isKey(String value)
+    {
+        boolean result = !Strings.isNullOrEmpty(value);
+        if (result)
+        {
+            for (int i = 0; result && i < value.length(); ++i)
+            {
+                final char character = value.charAt(i);
+                result = ('0' <= character && character <= '9') || ('a' <= character && character <= 'f') || ('A' <= character && character <= 'F');
+            }
+        }
+        return result;
+    }
+}
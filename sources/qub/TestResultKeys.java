@@ -0,0 +1,161 @@
+package qub;
+
+/**
+ * Computes the keys that test class results are stored under in a {@link TestResultCache}. The
+ * key of a test class covers the runtime that it runs in, the contents of its class file, and the
+ * contents of every project class file that it references directly or transitively. Class files
+ * are only read and hashed once, no matter how many test classes reference them.
+ */
+public class TestResultKeys
+{
+    private final Folder outputFolder;
+    private final String runtimeKey;
+    private final MutableMap<String,String> classFileHashes;
+    private final MutableMap<String,Iterable<String>> referencedClassNames;
+
+    private TestResultKeys(Folder outputFolder, String runtimeKey)
+    {
+        PreCondition.assertNotNull(outputFolder, "outputFolder");
+        PreCondition.assertNotNullAndNotEmpty(runtimeKey, "runtimeKey");
+
+        this.outputFolder = outputFolder;
+        this.runtimeKey = runtimeKey;
+        this.classFileHashes = Map.create();
+        this.referencedClassNames = Map.create();
+    }
+
+    /**
+     * Create a new TestResultKeys object.
+     * @param outputFolder The output folder that contains the project's class files.
+     * @param runtimeKey The key of the runtime that the tests run in.
+     * @return The new TestResultKeys object.
+     */
+    public static TestResultKeys create(Folder outputFolder, String runtimeKey)
+    {
+        return new TestResultKeys(outputFolder, runtimeKey);
+    }
+
+    /**
+     * Get the key of the runtime that the tests run in. Unlike the fingerprint that is stored in
+     * test.json, the key covers the contents of the jar files on the classpath rather than their
+     * paths and timestamps, so that it is the same on every machine that has the same
+     * dependencies.
+     * @param javaVersion The version of Java that the tests run in.
+     * @param fingerprint The fingerprint of the JVM options and environment variables that the
+     *                    tests run with.
+     * @param classPaths The classpath that the test runner will be launched with.
+     * @param outputFolder The output folder of the project, which is left out of the key.
+     * @return The key of the runtime that the tests run in.
+     */
+    public static String getRuntimeKey(VersionNumber javaVersion, TestFingerprint fingerprint, Iterable<String> classPaths, Folder outputFolder)
+    {
+        PreCondition.assertNotNull(javaVersion, "javaVersion");
+        PreCondition.assertNotNull(fingerprint, "fingerprint");
+        PreCondition.assertNotNull(classPaths, "classPaths");
+        PreCondition.assertNotNull(outputFolder, "outputFolder");
+
+        final FileSystem fileSystem = outputFolder.getFileSystem();
+        final StringBuilder keyBuilder = new StringBuilder();
+        keyBuilder.append(javaVersion.toString()).append('\n');
+        keyBuilder.append(fingerprint.getRuntimeHash()).append('\n');
+        for (final String classPath : classPaths)
+        {
+            if (!classPath.equals(outputFolder.toString()))
+            {
+                if (fileSystem.fileExists(classPath).await())
+                {
+                    keyBuilder.append(QubTestHash.hash(fileSystem.getFile(classPath).await()).catchError(() -> "").await()).append('\n');
+                }
+                else
+                {
+                    keyBuilder.append(classPath).append('\n');
+                }
+            }
+        }
+        final String result = QubTestHash.hash(keyBuilder.toString());
+
+        PostCondition.assertNotNullAndNotEmpty(result, "result");
+
+        return result;
+    }
+
+    /**
+     * Get the hash of the class file of the provided class.
+     * @param fullClassName The full name of the class.
+     * @return The hash of the class file, an empty String if the class file can't be parsed, or
+     * null if the class doesn't have a class file in the outputs folder.
+     */
+    private String getClassFileHash(String fullClassName)
+    {
+        String result;
+        if (this.classFileHashes.containsKey(fullClassName))
+        {
+            result = this.classFileHashes.get(fullClassName).await();
+        }
+        else
+        {
+            result = null;
+            final byte[] classFileBytes = QubTestRun.getClassFile(this.outputFolder, fullClassName).getContents()
+                .catchError()
+                .await();
+            if (classFileBytes != null)
+            {
+                result = "";
+                final Iterable<String> referencedClassNames = ClassFileReferences.getReferencedClassNames(classFileBytes)
+                    .catchError()
+                    .await();
+                if (referencedClassNames != null)
+                {
+                    result = QubTestHash.hash(classFileBytes);
+                    this.referencedClassNames.set(fullClassName, referencedClassNames);
+                }
+            }
+            this.classFileHashes.set(fullClassName, result);
+        }
+        return result;
+    }
+
+    /**
+     * Get the key of the provided test class.
+     * @param fullClassName The full name of the test class.
+     * @return The key of the test class, or null if its class file (or the class file of a project
+     * class that it references) can't be read.
+     */
+    public String getKey(String fullClassName)
+    {
+        PreCondition.assertNotNullAndNotEmpty(fullClassName, "fullClassName");
+
+        final StringBuilder keyBuilder = new StringBuilder();
+        keyBuilder.append(this.runtimeKey).append('\n');
+
+        boolean readable = true;
+        final MutableMap<String,Boolean> visitedClassNames = Map.create();
+        final List<String> classNamesToVisit = List.create();
+        classNamesToVisit.add(fullClassName);
+        while (readable && classNamesToVisit.any())
+        {
+            final int lastIndex = classNamesToVisit.getCount() - 1;
+            final String className = classNamesToVisit.get(lastIndex);
+            classNamesToVisit.removeAt(lastIndex);
+            if (!visitedClassNames.containsKey(className))
+            {
+                visitedClassNames.set(className, true);
+
+                // Classes without a class file in the outputs folder come from the classpath,
+                // which the runtime key already covers.
+                final String classFileHash = this.getClassFileHash(className);
+                if (Strings.isNullOrEmpty(classFileHash))
+                {
+                    readable = (classFileHash == null && !className.equals(fullClassName));
+                }
+                else
+                {
+                    keyBuilder.append(className).append('=').append(classFileHash).append('\n');
+                    classNamesToVisit.addAll(this.referencedClassNames.get(className).await());
+                }
+            }
+        }
+
+        return readable ? QubTestHash.hash(keyBuilder.toString()) : null;
+    }
+}
@@ -0,0 +1,125 @@
+package qub;
+
+/**
+ * The benchmark runner of a test run. Speed tests are measured in their own JVM so that the JIT
+ * and heap state left behind by the other tests (and by coverage agents) don't skew them.
+ */
+public class TestRunBenchmark
+{
+    private final QubTestRunParameters parameters;
+    private final Iterable<String> jvmOptions;
+    private final Iterable<String> classPaths;
+
+    private TestRunBenchmark(QubTestRunParameters parameters, Iterable<String> jvmOptions, Iterable<String> classPaths)
+    {
+        this.parameters = parameters;
+        this.jvmOptions = jvmOptions;
+        this.classPaths = classPaths;
+    }
+
+    /**
+     * Create a new TestRunBenchmark for the provided test run. The classpath is copied before
+     * coverage adds instrumented classes to the test runner's classpath, because the benchmark
+     * runner must measure the uninstrumented classes.
+     * @param parameters The parameters of the test run.
+     * @param jvmOptions The JVM options that the benchmark runner will be launched with.
+     * @param classPaths The classpath that the benchmark runner will be launched with.
+     * @return The new TestRunBenchmark.
+     */
+    public static TestRunBenchmark create(QubTestRunParameters parameters, Iterable<String> jvmOptions, Iterable<String> classPaths)
+    {
+        PreCondition.assertNotNull(parameters, "parameters");
+        PreCondition.assertNotNull(jvmOptions, "jvmOptions");
+        PreCondition.assertNotNull(classPaths, "classPaths");
+
+        return new TestRunBenchmark(parameters, jvmOptions, classPaths.toList());
+    }
+
+    /**
+     * Create the process builder of the benchmark runner.
+     * @param logFile The log file that the benchmark runner will write its logs to.
+     * @param outputFolder The output folder of the project.
+     * @param testClassNames The full names of the test classes that contain the speed tests.
+     * @param verbose The stream that verbose logs will be written to.
+     * @return The process builder of the benchmark runner.
+     */
+    public ConsoleTestRunnerProcessBuilder createBenchmarkRunner(File logFile, Folder outputFolder, Iterable<String> testClassNames, VerboseCharacterToByteWriteStream verbose)
+    {
+        PreCondition.assertNotNull(logFile, "logFile");
+        PreCondition.assertNotNull(outputFolder, "outputFolder");
+        PreCondition.assertNotNull(testClassNames, "testClassNames");
+        PreCondition.assertNotNull(verbose, "verbose");
+
+        final String pattern = this.parameters.getPattern();
+        final Integer benchmarkWarmupIterations = this.parameters.getBenchmarkWarmupIterations();
+        final Integer benchmarkIterations = this.parameters.getBenchmarkIterations();
+        final Integer benchThresholdPercent = this.parameters.getBenchThresholdPercent();
+
+        final ConsoleTestRunnerProcessBuilder result = ConsoleTestRunnerProcessBuilder.create(this.parameters.getProcessFactory()).await()
+            .redirectOutput(this.parameters.getOutputWriteStream())
+            .redirectError(this.parameters.getErrorWriteStream())
+            .setVerbose(verbose);
+        result.addArguments(this.jvmOptions);
+        result.addClasspath(this.classPaths);
+        result.addConsoleTestRunnerFullClassName();
+        result.addVerbose(this.parameters.getVerbose().isVerbose());
+        result.addTestJson(false);
+        result.addLogFile(logFile);
+        if (!Strings.isNullOrEmpty(pattern))
+        {
+            result.addPattern(pattern);
+        }
+        result.addOutputFolder(outputFolder);
+        result.addBenchmark(true);
+        if (benchmarkWarmupIterations != null)
+        {
+            result.addBenchmarkWarmupIterations(benchmarkWarmupIterations);
+        }
+        if (benchmarkIterations != null)
+        {
+            result.addBenchmarkIterations(benchmarkIterations);
+        }
+        if (benchThresholdPercent != null)
+        {
+            result.addBenchThreshold(benchThresholdPercent);
+        }
+        if (this.parameters.getBenchUpdateBaseline())
+        {
+            result.addBenchUpdateBaseline(true);
+        }
+        result.addArguments(testClassNames);
+
+        PostCondition.assertNotNull(result, "result");
+
+        return result;
+    }
+
+    /**
+     * Run the benchmark runner. The log stream of the provided log streams is disposed before the
+     * benchmark runner starts so that the benchmark runner can write to the log file.
+     * @param logFile The log file that the benchmark runner will write its logs to.
+     * @param outputFolder The output folder of the project.
+     * @param testClassNames The full names of the test classes that contain the speed tests.
+     * @param logStreams The log streams of the test run.
+     * @return The exit code of the benchmark runner.
+     */
+    public int run(File logFile, Folder outputFolder, Iterable<String> testClassNames, LogStreams logStreams)
+    {
+        PreCondition.assertNotNull(logFile, "logFile");
+        PreCondition.assertNotNull(outputFolder, "outputFolder");
+        PreCondition.assertNotNull(testClassNames, "testClassNames");
+        PreCondition.assertNotNull(logStreams, "logStreams");
+
+        final CharacterToByteWriteStream output = logStreams.getOutput();
+        final VerboseCharacterToByteWriteStream verbose = logStreams.getVerbose();
+        final ConsoleTestRunnerProcessBuilder benchmarkRunner = this.createBenchmarkRunner(logFile, outputFolder, testClassNames, verbose);
+
+        output.writeLine().await();
+        output.writeLine("Benchmarking speed tests...").await();
+        verbose.writeLine("Running " + benchmarkRunner.getCommand()).await();
+        output.writeLine().await();
+
+        logStreams.getLogStream().dispose().await();
+        return benchmarkRunner.run().await();
+    }
+}
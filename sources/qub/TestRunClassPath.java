@@ -0,0 +1,242 @@
+package qub;
+
+/**
+ * The classpath that the test runner of a test run will be launched with. The classpath is only
+ * resolved the first time that it is needed, and it comes from the project's classpath cache if
+ * the cache has an entry for the current project.json file and dependencies.
+ */
+public class TestRunClassPath
+{
+    private final Folder qubTestDataFolder;
+    private final Folder projectFolder;
+    private final Folder outputFolder;
+    private final QubFolder qubFolder;
+    private final String jvmClassPath;
+    private Result<Iterable<String>> classPaths;
+
+    private TestRunClassPath(Folder qubTestDataFolder, Folder projectFolder, Folder outputFolder, QubFolder qubFolder, String jvmClassPath)
+    {
+        this.qubTestDataFolder = qubTestDataFolder;
+        this.projectFolder = projectFolder;
+        this.outputFolder = outputFolder;
+        this.qubFolder = qubFolder;
+        this.jvmClassPath = jvmClassPath;
+    }
+
+    /**
+     * Create a new TestRunClassPath for the provided project.
+     * @param qubTestDataFolder The qub-test data folder.
+     * @param projectFolder The folder of the project that is being tested.
+     * @param outputFolder The output folder of the project.
+     * @param qubFolder The qub folder that the dependencies are installed in.
+     * @param jvmClassPath The classpath of the qub-test JVM.
+     * @return The new TestRunClassPath.
+     */
+    public static TestRunClassPath create(Folder qubTestDataFolder, Folder projectFolder, Folder outputFolder, QubFolder qubFolder, String jvmClassPath)
+    {
+        PreCondition.assertNotNull(qubTestDataFolder, "qubTestDataFolder");
+        PreCondition.assertNotNull(projectFolder, "projectFolder");
+        PreCondition.assertNotNull(outputFolder, "outputFolder");
+        PreCondition.assertNotNull(qubFolder, "qubFolder");
+
+        return new TestRunClassPath(qubTestDataFolder, projectFolder, outputFolder, qubFolder, jvmClassPath);
+    }
+
+    /**
+     * Get the classpath that the test runner will be launched with. The classpath is resolved the
+     * first time that this is called, and the same result is returned after that.
+     * @return The classpath that the test runner will be launched with.
+     */
+    public Result<Iterable<String>> getClassPaths()
+    {
+        if (this.classPaths == null)
+        {
+            this.classPaths = TestRunClassPath.getClassPaths(this.qubTestDataFolder, this.projectFolder, this.outputFolder, this.qubFolder, this.jvmClassPath);
+        }
+        return this.classPaths;
+    }
+
+    /**
+     * Get the classpath that the tests can be run with in an isolated class loader inside the
+     * qub-test JVM. If the tests must run in a separate JVM, the reason is written to the verbose
+     * stream.
+     * @param parameters The parameters of the test run.
+     * @param timeouts Whether the test run has a test or test class timeout.
+     * @param verbose The stream that verbose logs will be written to.
+     * @return The isolated classpath, or null if the tests must run in a separate JVM.
+     */
+    public Iterable<String> getInProcessClassPaths(QubTestRunParameters parameters, boolean timeouts, VerboseCharacterToByteWriteStream verbose)
+    {
+        PreCondition.assertNotNull(parameters, "parameters");
+        PreCondition.assertNotNull(verbose, "verbose");
+
+        Iterable<String> result = null;
+        String forkReason = null;
+        if (parameters.getCoverage() != Coverage.None)
+        {
+            forkReason = "collecting coverage requires the JaCoCo agent";
+        }
+        else if (parameters.getClassDataSharing() || !Strings.isNullOrEmpty(parameters.getJvmArgs()) || !Strings.isNullOrEmpty(parameters.getJvmProfile()))
+        {
+            forkReason = "JVM options can only be applied to a new JVM";
+        }
+        else if (timeouts)
+        {
+            forkReason = "hung tests can only be abandoned by restarting a separate JVM";
+        }
+        else if (parameters.getProcess() == null)
+        {
+            forkReason = "the qub-test process isn't available";
+        }
+        else
+        {
+            result = InProcessTestRunner.getIsolatedClassPaths(this.getClassPaths().await(), this.jvmClassPath);
+            if (result == null)
+            {
+                forkReason = "the project's classpath replaces part of the qub-test classpath";
+            }
+        }
+
+        if (forkReason != null)
+        {
+            verbose.writeLine("Running the tests in a separate JVM because " + forkReason + ".").await();
+        }
+
+        return result;
+    }
+
+    /**
+     * Get the classpath that the test runner will be launched with. The project's classpath cache
+     * is used if it has an entry for the current project.json file and dependencies. Otherwise
+     * the classpath is resolved and added to the cache.
+     * @param qubTestDataFolder The qub-test data folder.
+     * @param projectFolder The folder of the project that is being tested.
+     * @param outputFolder The output folder of the project.
+     * @param qubFolder The qub folder that the dependencies are installed in.
+     * @param jvmClassPath The classpath of the qub-test JVM.
+     * @return The classpath that the test runner will be launched with.
+     */
+    static Result<Iterable<String>> getClassPaths(Folder qubTestDataFolder, Folder projectFolder, Folder outputFolder, QubFolder qubFolder, String jvmClassPath)
+    {
+        PreCondition.assertNotNull(qubTestDataFolder, "qubTestDataFolder");
+        PreCondition.assertNotNull(projectFolder, "projectFolder");
+        PreCondition.assertNotNull(outputFolder, "outputFolder");
+        PreCondition.assertNotNull(qubFolder, "qubFolder");
+
+        return Result.create2(() ->
+        {
+            final File projectJsonFile = projectFolder.getFile("project.json").await();
+            final String projectJsonContents = projectJsonFile.getContentsAsString().await();
+            final ProjectJSON projectJson = ProjectJSON.parse(projectJsonFile).await();
+            final Iterable<ProjectSignature> dependencies = projectJson.getJava().getDependencies();
+
+            final ClasspathCache classpathCache = ClasspathCache.create(qubTestDataFolder, projectFolder);
+            final String classpathKey = ClasspathCache.getKey(projectJsonContents, dependencies, qubFolder, jvmClassPath);
+            Iterable<String> result = classpathCache.get(classpathKey);
+            if (result == null)
+            {
+                result = TestRunClassPath.resolveClassPaths(outputFolder, projectJson, qubFolder, jvmClassPath);
+                classpathCache.set(classpathKey, result)
+                    .catchError()
+                    .await();
+            }
+            return result;
+        });
+    }
+
+    /**
+     * Resolve the classpath that the test runner will be launched with. The classpath contains the
+     * output folder, the compiled sources of the project's transitive dependencies, and the
+     * entries of the qub-test JVM's classpath that aren't already provided by the project or its
+     * dependencies.
+     * @param outputFolder The output folder of the project.
+     * @param projectJson The parsed project.json file of the project.
+     * @param qubFolder The qub folder that the dependencies are installed in.
+     * @param jvmClassPath The classpath of the qub-test JVM.
+     * @return The resolved classpath.
+     */
+    static Iterable<String> resolveClassPaths(Folder outputFolder, ProjectJSON projectJson, QubFolder qubFolder, String jvmClassPath)
+    {
+        PreCondition.assertNotNull(outputFolder, "outputFolder");
+        PreCondition.assertNotNull(projectJson, "projectJson");
+        PreCondition.assertNotNull(qubFolder, "qubFolder");
+
+        final List<String> result = List.create();
+        final MutableMap<String,Boolean> resultSet = Map.create();
+        final Action1<String> addClassPath = (String classPath) ->
+        {
+            result.add(classPath);
+            resultSet.set(classPath, true);
+        };
+        addClassPath.run(outputFolder.toString());
+
+        final ProjectJSONJava projectJsonJava = projectJson.getJava();
+        final MutableMap<String,Boolean> dependencyKeys = Map.create();
+        Iterable<ProjectSignature> dependencies = projectJsonJava.getDependencies();
+        if (!Iterable.isNullOrEmpty(dependencies))
+        {
+            dependencies = projectJsonJava.getTransitiveDependencies(qubFolder);
+            for (final ProjectSignature dependency : dependencies)
+            {
+                final String publisher = dependency.getPublisher();
+                final String project = dependency.getProject();
+                final VersionNumber version = dependency.getVersion();
+                final File compiledSourcesFile = qubFolder.getCompiledSourcesFile(publisher, project, version).await();
+                addClassPath.run(compiledSourcesFile.toString());
+                dependencyKeys.set(TestRunClassPath.getDependencyKey(publisher, project), true);
+            }
+        }
+
+        if (!Strings.isNullOrEmpty(jvmClassPath))
+        {
+            final String[] jvmClassPaths = jvmClassPath.split(";");
+            for (final String jvmClassPathString : jvmClassPaths)
+            {
+                boolean addJvmClassPathString;
+                if (!qubFolder.isAncestorOf(jvmClassPathString).await())
+                {
+                    addJvmClassPathString = !resultSet.containsKey(jvmClassPathString);
+                }
+                else
+                {
+                    final Path relativeJvmClassPath = Path.parse(jvmClassPathString).relativeTo(qubFolder);
+                    final Indexable<String> segments = relativeJvmClassPath.getSegments();
+                    final ProjectSignature jvmProjectSignature = ProjectSignature.create(segments.get(0), segments.get(1), segments.get(2));
+                    addJvmClassPathString = !TestRunClassPath.equal(jvmProjectSignature, projectJson.getPublisher(), projectJson.getProject()) &&
+                        !dependencyKeys.containsKey(TestRunClassPath.getDependencyKey(jvmProjectSignature.getPublisher(), jvmProjectSignature.getProject()));
+                }
+
+                if (addJvmClassPathString)
+                {
+                    addClassPath.run(jvmClassPathString);
+                }
+            }
+        }
+
+        PostCondition.assertNotNull(result, "result");
+
+        return result;
+    }
+
+    /**
+     * Get the key that identifies the dependency with the provided publisher and project.
+     * @param publisher The publisher of the dependency.
+     * @param project The project of the dependency.
+     * @return The key that identifies the dependency.
+     */
+    static String getDependencyKey(String publisher, String project)
+    {
+        PreCondition.assertNotNullAndNotEmpty(publisher, "publisher");
+        PreCondition.assertNotNullAndNotEmpty(project, "project");
+
+        return publisher + "/" + project;
+    }
+
+    static boolean equal(ProjectSignature dependency, String publisher, String project)
+    {
+        PreCondition.assertNotNull(dependency, "dependency");
+
+        return Comparer.equal(dependency.getPublisher(), publisher) &&
+            Comparer.equal(dependency.getProject(), project);
+    }
+}
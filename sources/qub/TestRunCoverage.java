@@ -0,0 +1,157 @@
+package qub;
+
+/**
+ * The JaCoCo coverage of a test run. The JaCoCo agent, or the offline instrumented classes, are
+ * added to the test runner before the tests run, and the coverage report is generated from the
+ * collected execution data after the tests run.
+ */
+public class TestRunCoverage
+{
+    private final Coverage coverage;
+    private final Folder jacocoFolder;
+    private final Folder outputFolder;
+    private final Folder sourceFolder;
+    private final Folder testFolder;
+    private final Iterable<File> coverageClassFiles;
+
+    private TestRunCoverage(Coverage coverage, Folder jacocoFolder, Folder outputFolder, Folder sourceFolder, Folder testFolder, Iterable<File> coverageClassFiles)
+    {
+        this.coverage = coverage;
+        this.jacocoFolder = jacocoFolder;
+        this.outputFolder = outputFolder;
+        this.sourceFolder = sourceFolder;
+        this.testFolder = testFolder;
+        this.coverageClassFiles = coverageClassFiles;
+    }
+
+    /**
+     * Create a new TestRunCoverage for the provided test run.
+     * @param parameters The parameters of the test run.
+     * @param outputFolder The output folder of the project.
+     * @param sourceFolder The folder that contains the project's source files.
+     * @param testFolder The folder that contains the project's test files.
+     * @param verbose The stream that verbose logs will be written to.
+     * @return The new TestRunCoverage, or null if the test run doesn't collect coverage or there
+     * are no class files to collect coverage for.
+     */
+    public static TestRunCoverage create(QubTestRunParameters parameters, Folder outputFolder, Folder sourceFolder, Folder testFolder, VerboseCharacterToByteWriteStream verbose)
+    {
+        PreCondition.assertNotNull(parameters, "parameters");
+        PreCondition.assertNotNull(outputFolder, "outputFolder");
+        PreCondition.assertNotNull(sourceFolder, "sourceFolder");
+        PreCondition.assertNotNull(testFolder, "testFolder");
+        PreCondition.assertNotNull(verbose, "verbose");
+
+        TestRunCoverage result = null;
+        final Coverage coverage = parameters.getCoverage();
+        if (coverage != Coverage.None)
+        {
+            final QubProjectFolder jacococliProjectFolder = parameters.getQubFolder().getProjectFolder("jacoco", "jacococli").await();
+            final Folder jacocoFolder = jacococliProjectFolder.getLatestProjectVersionFolder().await();
+
+            final Iterable<File> coverageClassFiles = QubTestRun.getClassFilesForCoverage(coverage, outputFolder, sourceFolder, testFolder).toList();
+            // The JaCoCo agent instruments every class when it isn't given any includes.
+            if (!coverageClassFiles.any())
+            {
+                verbose.writeLine("There are no class files to collect coverage for. Skipping coverage.").await();
+            }
+            else
+            {
+                result = new TestRunCoverage(coverage, jacocoFolder, outputFolder, sourceFolder, testFolder, coverageClassFiles);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Get the root page of the coverage report.
+     * @return The root page of the coverage report.
+     */
+    public File getReportFile()
+    {
+        return this.outputFolder.getFile("coverage/index.html").await();
+    }
+
+    /**
+     * Add the JaCoCo agent to the provided test runner. If the test run uses offline coverage, the
+     * instrumented classes are added to the front of the provided classpath instead, and the
+     * JaCoCo agent is only used if the classes can't be instrumented.
+     * @param parameters The parameters of the test run.
+     * @param consoleTestRunner The test runner to collect coverage from.
+     * @param classPaths The classpath that the test runner will be launched with.
+     * @param verbose The stream that verbose logs will be written to.
+     */
+    public void addToTestRunner(QubTestRunParameters parameters, ConsoleTestRunnerProcessBuilder consoleTestRunner, List<String> classPaths, VerboseCharacterToByteWriteStream verbose)
+    {
+        PreCondition.assertNotNull(parameters, "parameters");
+        PreCondition.assertNotNull(consoleTestRunner, "consoleTestRunner");
+        PreCondition.assertNotNull(classPaths, "classPaths");
+        PreCondition.assertNotNull(verbose, "verbose");
+
+        final Folder projectFolder = parameters.getFolderToTest();
+        final Folder outputFolder = this.outputFolder;
+        final Iterable<File> allClassFiles = QubTestRun.getAllClassFiles(outputFolder).await().toList();
+        final Iterable<String> dependencyPackageNames = QubTestRun.getClassPathPackageNames(classPaths.where((String classPath) -> !outputFolder.toString().equals(classPath)), projectFolder.getFileSystem());
+        final Iterable<String> jacocoAgentIncludes = QubTestRun.getJacocoAgentIncludes(outputFolder, allClassFiles, this.coverageClassFiles, dependencyPackageNames);
+
+        final File jacocoAgentJarFile = this.jacocoFolder.getFile("jacocoagent.jar").await();
+        final File coverageExecFile = outputFolder.getFile("coverage.exec").await();
+
+        int instrumentExitCode = -1;
+        if (parameters.getOfflineCoverage())
+        {
+            final ProcessFactory processFactory = parameters.getProcessFactory();
+            final File jacocoCliJarFile = this.jacocoFolder.getFile("jacococli.jar").await();
+            final InstrumentedClassesCache instrumentedClassesCache = InstrumentedClassesCache.create(parameters.getQubTestDataFolder(), projectFolder);
+            final String instrumenterKey = InstrumentedClassesCache.getInstrumenterKey(jacocoCliJarFile, jacocoAgentJarFile).await();
+            instrumentExitCode = instrumentedClassesCache.update(instrumenterKey, outputFolder, this.coverageClassFiles, verbose, (Folder stagingFolder, Folder instrumentedClassesFolder) ->
+            {
+                final JacocoCliProcessBuilder jacococli = JacocoCliProcessBuilder.create(processFactory).await()
+                    .addJacocoCliJar(jacocoCliJarFile);
+                jacococli.addArguments("instrument", stagingFolder.toString(), "--dest", instrumentedClassesFolder.toString());
+
+                if (parameters.getVerbose().isVerbose())
+                {
+                    jacococli.redirectOutput(parameters.getOutputWriteStream());
+                    jacococli.redirectError(parameters.getErrorWriteStream());
+
+                    verbose.writeLine("Running " + jacococli.getCommand()).await();
+                }
+
+                return jacococli.run().await();
+            }).await();
+
+            if (instrumentExitCode == 0)
+            {
+                classPaths.insert(0, instrumentedClassesCache.getClassesFolder().toString());
+                classPaths.add(jacocoAgentJarFile.toString());
+                consoleTestRunner.addArguments("-Djacoco-agent.destfile=" + coverageExecFile);
+            }
+            else
+            {
+                verbose.writeLine("Offline instrumentation failed with exit code " + instrumentExitCode + ". Falling back to the JaCoCo agent.").await();
+            }
+        }
+
+        if (instrumentExitCode != 0)
+        {
+            consoleTestRunner.addJavaAgent(QubTestRun.getJacocoAgentArgument(jacocoAgentJarFile, coverageExecFile, jacocoAgentIncludes));
+        }
+    }
+
+    /**
+     * Generate (or update) the coverage report from the execution data that the test runner
+     * collected.
+     * @param parameters The parameters of the test run.
+     * @param verbose The stream that verbose logs will be written to.
+     * @return The exit code of the report generation.
+     */
+    public int report(QubTestRunParameters parameters, VerboseCharacterToByteWriteStream verbose)
+    {
+        PreCondition.assertNotNull(parameters, "parameters");
+        PreCondition.assertNotNull(verbose, "verbose");
+
+        final File jacocoCliJarFile = this.jacocoFolder.getFile("jacococli.jar").await();
+        return QubTestCoverageReport.run(parameters.getProcessFactory(), jacocoCliJarFile, this.coverage, this.outputFolder, this.sourceFolder, this.testFolder, this.coverageClassFiles, parameters.getOutputWriteStream(), parameters.getErrorWriteStream(), verbose);
+    }
+}
@@ -0,0 +1,270 @@
+package qub;
+
+/**
+ * The fingerprint of a test run. The fingerprint covers the inputs outside of the project's class
+ * files that the test results depend on. It is compared against the fingerprint of the previous
+ * test run so that the test classes whose results may have changed are removed from test.json.
+ */
+public class TestRunFingerprint
+{
+    private final TestFingerprint fingerprint;
+    private final TestJSON previousTestJson;
+
+    private TestRunFingerprint(TestFingerprint fingerprint, TestJSON previousTestJson)
+    {
+        this.fingerprint = fingerprint;
+        this.previousTestJson = previousTestJson;
+    }
+
+    /**
+     * Create the fingerprint of a test run and update the previous test.json file with it.
+     * @param classPath The classpath that the test runner will be launched with.
+     * @param jvmOptions The JVM options that the test runner will be launched with.
+     * @param projectFolder The folder of the project that is being tested.
+     * @param outputFolder The output folder that contains test.json.
+     * @param environmentVariables The environment variables of the running process.
+     * @param previousTestJson The test.json file from the previous test run, or null if it
+     *                         doesn't exist.
+     * @param verbose The stream that verbose logs will be written to.
+     * @return The new TestRunFingerprint, or null if the classpath couldn't be resolved.
+     */
+    public static TestRunFingerprint create(TestRunClassPath classPath, Iterable<String> jvmOptions, Folder projectFolder, Folder outputFolder, EnvironmentVariables environmentVariables, TestJSON previousTestJson, VerboseCharacterToByteWriteStream verbose)
+    {
+        PreCondition.assertNotNull(classPath, "classPath");
+        PreCondition.assertNotNull(jvmOptions, "jvmOptions");
+        PreCondition.assertNotNull(projectFolder, "projectFolder");
+        PreCondition.assertNotNull(outputFolder, "outputFolder");
+        PreCondition.assertNotNull(environmentVariables, "environmentVariables");
+        PreCondition.assertNotNull(verbose, "verbose");
+
+        TestRunFingerprint result = null;
+        final Iterable<String> classPaths = classPath.getClassPaths()
+            .catchError()
+            .await();
+        if (classPaths != null)
+        {
+            final JSONObject projectJson = JSON.parseObject(projectFolder.getFile("project.json").await())
+                .catchError()
+                .await();
+            final TestFingerprint fingerprint = TestRunFingerprint.createFingerprint(outputFolder, classPaths, jvmOptions, projectJson, environmentVariables);
+            result = new TestRunFingerprint(fingerprint, previousTestJson == null
+                ? null
+                : TestRunFingerprint.updateFingerprint(previousTestJson, fingerprint, outputFolder, verbose));
+        }
+        return result;
+    }
+
+    /**
+     * Get the fingerprint of the test run.
+     * @return The fingerprint of the test run.
+     */
+    public TestFingerprint getFingerprint()
+    {
+        return this.fingerprint;
+    }
+
+    /**
+     * Get the test.json file from the previous test run without the test classes whose results
+     * may have changed since then.
+     * @return The updated test.json file from the previous test run, or null if it doesn't exist.
+     */
+    public TestJSON getPreviousTestJson()
+    {
+        return this.previousTestJson;
+    }
+
+    /**
+     * Create the fingerprint of the inputs outside of the project's class files that the test
+     * results depend on.
+     * @param outputFolder The output folder of the project. The output folder is left out of the
+     *                     fingerprint because test.json already tracks its class files.
+     * @param classPaths The classpath that the test runner will be launched with.
+     * @param jvmOptions The JVM options that the test runner will be launched with.
+     * @param projectJson The contents of the project's project.json file, or null if it couldn't
+     *                    be parsed.
+     * @param environmentVariables The environment variables of the running process.
+     * @return The fingerprint of the test run.
+     */
+    static TestFingerprint createFingerprint(Folder outputFolder, Iterable<String> classPaths, Iterable<String> jvmOptions, JSONObject projectJson, EnvironmentVariables environmentVariables)
+    {
+        PreCondition.assertNotNull(outputFolder, "outputFolder");
+        PreCondition.assertNotNull(classPaths, "classPaths");
+        PreCondition.assertNotNull(jvmOptions, "jvmOptions");
+        PreCondition.assertNotNull(environmentVariables, "environmentVariables");
+
+        final FileSystem fileSystem = outputFolder.getFileSystem();
+        final MutableMap<String,String> classPathStamps = Map.create();
+        for (final String classPath : classPaths)
+        {
+            if (!classPath.equals(outputFolder.toString()))
+            {
+                String stamp = "";
+                if (fileSystem.fileExists(classPath).await())
+                {
+                    stamp = fileSystem.getFile(classPath).await().getLastModified()
+                        .then((DateTime lastModified) -> lastModified.toString())
+                        .catchError(() -> "")
+                        .await();
+                }
+                else if (fileSystem.folderExists(classPath).await())
+                {
+                    stamp = "folder";
+                }
+                classPathStamps.set(classPath, stamp);
+            }
+        }
+
+        // The auto heap profile resizes the heap after every run, and the heap size doesn't
+        // change what the tests do, so heap size arguments are left out of the fingerprint.
+        final List<String> fingerprintJvmOptions = List.create();
+        for (final String jvmOption : jvmOptions)
+        {
+            if (!jvmOption.startsWith("-Xmx") && !jvmOption.startsWith("-Xms"))
+            {
+                fingerprintJvmOptions.add(jvmOption);
+            }
+        }
+
+        final MutableMap<String,String> environment = Map.create();
+        for (final String environmentVariableName : TestFingerprint.getEnvironmentVariableNames(projectJson))
+        {
+            environment.set(environmentVariableName, environmentVariables.get(environmentVariableName).catchError().await());
+        }
+
+        return TestFingerprint.create(classPathStamps, fingerprintJvmOptions, environment);
+    }
+
+    /**
+     * Compare the provided fingerprint against the fingerprint of the previous test run and
+     * remove the test classes whose results may have changed from test.json. A change to the JVM
+     * options or environment variables removes every test class. A change to a classpath entry
+     * only removes the test classes that reference (directly or through other project classes) a
+     * class in that entry. The updated test.json file is written with the provided fingerprint.
+     * @param previousTestJson The test.json file from the previous test run.
+     * @param fingerprint The fingerprint of the current test run.
+     * @param outputFolder The output folder that contains test.json.
+     * @param verbose The stream that verbose logs will be written to.
+     * @return The updated test.json file.
+     */
+    static TestJSON updateFingerprint(TestJSON previousTestJson, TestFingerprint fingerprint, Folder outputFolder, VerboseCharacterToByteWriteStream verbose)
+    {
+        PreCondition.assertNotNull(previousTestJson, "previousTestJson");
+        PreCondition.assertNotNull(fingerprint, "fingerprint");
+        PreCondition.assertNotNull(outputFolder, "outputFolder");
+        PreCondition.assertNotNull(verbose, "verbose");
+
+        final TestFingerprint previousFingerprint = previousTestJson.getFingerprint().catchError().await();
+        boolean writeTestJson = (previousFingerprint == null);
+        if (previousFingerprint != null)
+        {
+            final Iterable<String> changedClassPaths = fingerprint.getChangedClassPaths(previousFingerprint);
+            if (!fingerprint.hasSameRuntime(previousFingerprint))
+            {
+                verbose.writeLine("The JVM options or environment variables changed since the previous run. Running all test classes.").await();
+                previousTestJson.setClassFiles(Iterable.create());
+                writeTestJson = true;
+            }
+            else if (changedClassPaths.any())
+            {
+                final FileSystem fileSystem = outputFolder.getFileSystem();
+                final MutableMap<String,Boolean> changedClassNames = Map.create();
+                boolean runAllTestClasses = false;
+                for (final String changedClassPath : changedClassPaths)
+                {
+                    final Iterable<String> classNames = TestRunFingerprint.getClassPathClassNames(changedClassPath, fileSystem)
+                        .catchError()
+                        .await();
+                    if (classNames == null)
+                    {
+                        verbose.writeLine("Couldn't list the classes in the changed classpath entry " + Strings.escapeAndQuote(changedClassPath) + ". Running all test classes.").await();
+                        runAllTestClasses = true;
+                        break;
+                    }
+                    for (final String className : classNames)
+                    {
+                        changedClassNames.set(className, true);
+                    }
+                }
+
+                final List<TestJSONClassFile> unaffectedClassFiles = List.create();
+                if (!runAllTestClasses)
+                {
+                    final Map<String,Boolean> affectedClassNames = QubTestRun.getClassNamesReferencingAny(outputFolder, changedClassNames);
+                    int affectedTestClassCount = 0;
+                    for (final TestJSONClassFile classFile : previousTestJson.getClassFiles())
+                    {
+                        if (affectedClassNames.containsKey(classFile.getFullClassName()))
+                        {
+                            ++affectedTestClassCount;
+                        }
+                        else
+                        {
+                            unaffectedClassFiles.add(classFile);
+                        }
+                    }
+                    verbose.writeLine("Found " + affectedTestClassCount + " test class" + (affectedTestClassCount == 1 ? "" : "es") + " that reference" + (affectedTestClassCount == 1 ? "s" : "") + " classes from the " + changedClassPaths.getCount() + " changed classpath entr" + (changedClassPaths.getCount() == 1 ? "y" : "ies") + ".").await();
+                }
+                previousTestJson.setClassFiles(unaffectedClassFiles);
+                writeTestJson = true;
+            }
+        }
+
+        if (writeTestJson)
+        {
+            previousTestJson.setFingerprint(fingerprint);
+            outputFolder.getFile("test.json").await()
+                .setContentsAsString(previousTestJson.toString(JSONFormat.pretty))
+                .catchError()
+                .await();
+        }
+
+        PostCondition.assertNotNull(previousTestJson, "previousTestJson");
+
+        return previousTestJson;
+    }
+
+    /**
+     * Get the full names of the classes in the provided classpath entry.
+     * @param classPath The jar file or folder classpath entry.
+     * @param fileSystem The file system that the classpath entry is in.
+     * @return The full names of the classes in the classpath entry.
+     */
+    static Result<Iterable<String>> getClassPathClassNames(String classPath, FileSystem fileSystem)
+    {
+        PreCondition.assertNotNullAndNotEmpty(classPath, "classPath");
+        PreCondition.assertNotNull(fileSystem, "fileSystem");
+
+        return Result.create2(() ->
+        {
+            final List<String> result = List.create();
+            if (fileSystem.folderExists(classPath).await())
+            {
+                final Folder classPathFolder = fileSystem.getFolder(classPath).await();
+                for (final File classFile : QubTestRun.getAllClassFiles(classPathFolder).await())
+                {
+                    result.add(QubTestRun.getFullClassName(classPathFolder, classFile));
+                }
+            }
+            else
+            {
+                try (final java.util.zip.ZipFile zipFile = new java.util.zip.ZipFile(classPath))
+                {
+                    final java.util.Enumeration<? extends java.util.zip.ZipEntry> entries = zipFile.entries();
+                    while (entries.hasMoreElements())
+                    {
+                        final String entryName = entries.nextElement().getName();
+                        if (entryName.endsWith(".class"))
+                        {
+                            result.add(entryName.substring(0, entryName.length() - ".class".length()).replace('/', '.'));
+                        }
+                    }
+                }
+                catch (java.io.IOException e)
+                {
+                    throw new RuntimeException(e);
+                }
+            }
+            return result;
+        });
+    }
+}
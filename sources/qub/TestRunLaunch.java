@@ -0,0 +1,362 @@
+package qub;
+
+/**
+ * The launch of the test runner JVM of a test run. The test runner is given the test classes to
+ * run (or a manifest that they are streamed to), and a test runner that has to abandon a hung
+ * test is restarted in a new JVM until every test class has run.
+ */
+public class TestRunLaunch
+{
+    private final QubTestRunParameters parameters;
+    private final File logFile;
+    private final ConsoleTestRunnerProcessBuilder consoleTestRunner;
+    private ClassDataSharingArchive classDataSharingArchive;
+    private String classDataSharingKey;
+    private File resumeFile;
+    private File timingsFile;
+    private TestClassManifest testClassManifest;
+    private boolean restarted;
+
+    private TestRunLaunch(QubTestRunParameters parameters, File logFile, ConsoleTestRunnerProcessBuilder consoleTestRunner)
+    {
+        this.parameters = parameters;
+        this.logFile = logFile;
+        this.consoleTestRunner = consoleTestRunner;
+    }
+
+    /**
+     * Create a new TestRunLaunch for the provided test run.
+     * @param parameters The parameters of the test run.
+     * @param logFile The log file that the test runner will write its logs to.
+     * @param verbose The stream that verbose logs will be written to.
+     * @return The new TestRunLaunch.
+     */
+    public static TestRunLaunch create(QubTestRunParameters parameters, File logFile, VerboseCharacterToByteWriteStream verbose)
+    {
+        PreCondition.assertNotNull(parameters, "parameters");
+        PreCondition.assertNotNull(logFile, "logFile");
+        PreCondition.assertNotNull(verbose, "verbose");
+
+        final ConsoleTestRunnerProcessBuilder consoleTestRunner = ConsoleTestRunnerProcessBuilder.create(parameters.getProcessFactory()).await()
+            .redirectOutput(parameters.getOutputWriteStream())
+            .redirectError(parameters.getErrorWriteStream())
+            .setVerbose(verbose);
+        return new TestRunLaunch(parameters, logFile, consoleTestRunner);
+    }
+
+    /**
+     * Get the process builder of the test runner.
+     * @return The process builder of the test runner.
+     */
+    public ConsoleTestRunnerProcessBuilder getConsoleTestRunner()
+    {
+        return this.consoleTestRunner;
+    }
+
+    /**
+     * Get whether the test runner had to be restarted for a hung test, which means that it didn't
+     * run every test class in one pass.
+     * @return Whether the test runner had to be restarted.
+     */
+    public boolean wasRestarted()
+    {
+        return this.restarted;
+    }
+
+    /**
+     * Start the test runner with a class data sharing archive of the jar files on its classpath.
+     * The archive is created by a training run of the test runner if it doesn't exist yet.
+     * @param classPaths The classpath that the test runner will be launched with.
+     * @param jvmOptions The JVM options that the test runner will be launched with.
+     * @param outputFolder The output folder of the project.
+     * @param verbose The stream that verbose logs will be written to.
+     * @return The classpath that the test runner should be launched with, which doesn't contain
+     * the archived jar files if an archive is used.
+     */
+    public Iterable<String> addClassDataSharingArchive(Iterable<String> classPaths, Iterable<String> jvmOptions, Folder outputFolder, VerboseCharacterToByteWriteStream verbose)
+    {
+        PreCondition.assertNotNull(classPaths, "classPaths");
+        PreCondition.assertNotNull(jvmOptions, "jvmOptions");
+        PreCondition.assertNotNull(outputFolder, "outputFolder");
+        PreCondition.assertNotNull(verbose, "verbose");
+
+        Iterable<String> result = classPaths;
+        final Folder projectFolder = this.parameters.getFolderToTest();
+        final VersionNumber javaVersion = this.parameters.getJavaVersion();
+        final boolean aotCache = ClassDataSharingArchive.supportsAOTCache(javaVersion);
+        final FileSystem fileSystem = projectFolder.getFileSystem();
+        final Iterable<String> archivedClassPaths = ClassDataSharingArchive.getArchivedClassPaths(classPaths, fileSystem);
+        if (!aotCache && !ClassDataSharingArchive.supportsDynamicArchive(javaVersion))
+        {
+            verbose.writeLine("Class data sharing archives require Java 13 or later. The test runner will start without one.").await();
+        }
+        else if (!archivedClassPaths.any())
+        {
+            verbose.writeLine("The test runner's classpath doesn't contain any jar files to archive. The test runner will start without a class data sharing archive.").await();
+        }
+        else
+        {
+            final ClassDataSharingArchive archive = ClassDataSharingArchive.create(this.parameters.getQubTestDataFolder(), projectFolder);
+            final String archiveKey = ClassDataSharingArchive.getKey(javaVersion, archivedClassPaths, fileSystem);
+            archive.deleteStaleArchives(archiveKey)
+                .catchError()
+                .await();
+
+            final File archiveFile = archive.getArchiveFile(archiveKey, aotCache);
+            if (!archiveFile.exists().await())
+            {
+                // The JDK can't archive the classes in the project's output folder, so the archive
+                // is created by a separate training run that only has the jar files on its
+                // classpath.
+                verbose.writeLine("Creating class data sharing archive at " + archiveFile + " with a training run of the test runner...").await();
+                final Integer trainingExitCode = archive.train(this.parameters.getProcessFactory(), archiveFile, aotCache, jvmOptions, archivedClassPaths, outputFolder)
+                    .catchError()
+                    .await();
+                final Integer baselineStartupMilliseconds = archive.takeStartupMilliseconds();
+                if (!archiveFile.exists().await())
+                {
+                    verbose.writeLine("The training run " + (trainingExitCode == null ? "couldn't be started" : "exited with code " + trainingExitCode) + " and didn't create the archive. The test runner will start without one.").await();
+                }
+                else if (baselineStartupMilliseconds != null)
+                {
+                    archive.setBaselineStartupMilliseconds(archiveKey, baselineStartupMilliseconds)
+                        .catchError()
+                        .await();
+                    verbose.writeLine("Test runner started in " + baselineStartupMilliseconds + " milliseconds without a class data sharing archive.").await();
+                }
+            }
+
+            if (archiveFile.exists().await())
+            {
+                verbose.writeLine("Using class data sharing archive at " + archiveFile + ".").await();
+                this.consoleTestRunner.addArguments(ClassDataSharingArchive.getUseArchiveOption(aotCache) + archiveFile);
+                result = ClassDataSharingArchive.getTestRunnerClassPaths(classPaths, fileSystem);
+                this.classDataSharingArchive = archive;
+                this.classDataSharingKey = archiveKey;
+            }
+        }
+
+        PostCondition.assertNotNull(result, "result");
+
+        return result;
+    }
+
+    /**
+     * Add the classpath, the test runner's options and the test classes to run to the test
+     * runner.
+     * @param classPaths The classpath that the test runner will be launched with.
+     * @param outputFolder The output folder of the project.
+     * @param testRunPlan The plan of the test classes to run.
+     * @param testTimeoutSeconds The number of seconds that a test can run before it is abandoned,
+     *                           or null if tests don't time out.
+     * @param classTimeoutSeconds The number of seconds that a test class can run before it is
+     *                            abandoned, or null if test classes don't time out.
+     * @param timings Whether the test runner should write the timings of its phases.
+     * @param streamDiscovery Whether the test classes are streamed to the test runner through a
+     *                        test class manifest while they are discovered.
+     * @param verbose The stream that verbose logs will be written to.
+     */
+    public void addTestRunnerArguments(Iterable<String> classPaths, Folder outputFolder, TestRunPlan testRunPlan, Integer testTimeoutSeconds, Integer classTimeoutSeconds, boolean timings, boolean streamDiscovery, VerboseCharacterToByteWriteStream verbose)
+    {
+        PreCondition.assertNotNull(classPaths, "classPaths");
+        PreCondition.assertNotNull(outputFolder, "outputFolder");
+        PreCondition.assertNotNull(testRunPlan, "testRunPlan");
+        PreCondition.assertNotNull(verbose, "verbose");
+
+        final Folder qubTestDataFolder = this.parameters.getQubTestDataFolder();
+        final Folder projectFolder = this.parameters.getFolderToTest();
+        final String pattern = this.parameters.getPattern();
+        final Coverage coverage = this.parameters.getCoverage();
+
+        this.consoleTestRunner.addClasspath(classPaths);
+        this.consoleTestRunner.addConsoleTestRunnerFullClassName();
+        this.consoleTestRunner.addProfiler(this.parameters.getProfiler());
+        this.consoleTestRunner.addVerbose(this.parameters.getVerbose().isVerbose());
+        this.consoleTestRunner.addTestJson(this.parameters.getTestJson());
+        this.consoleTestRunner.addLogFile(this.logFile);
+
+        if (!Strings.isNullOrEmpty(pattern))
+        {
+            this.consoleTestRunner.addPattern(pattern);
+        }
+
+        this.consoleTestRunner.addOutputFolder(outputFolder);
+
+        if (coverage != null)
+        {
+            this.consoleTestRunner.addArgument("--coverage=" + coverage);
+        }
+
+        if (this.parameters.getCoveragePerTest() && coverage != Coverage.None)
+        {
+            this.consoleTestRunner.addCoveragePerTest(true);
+        }
+
+        if (testRunPlan.getUnmodifiedPassedTestCount() > 0)
+        {
+            this.consoleTestRunner.addUnmodifiedPassedTests(testRunPlan.getUnmodifiedPassedTestCount());
+        }
+
+        if (testRunPlan.getUnmodifiedSkippedTestCount() > 0)
+        {
+            this.consoleTestRunner.addUnmodifiedSkippedTests(testRunPlan.getUnmodifiedSkippedTestCount());
+        }
+
+        if (this.classDataSharingArchive != null)
+        {
+            this.classDataSharingArchive.getStartupFile().delete()
+                .catchError()
+                .await();
+            this.consoleTestRunner.addStartupFile(this.classDataSharingArchive.getStartupFile());
+        }
+
+        if (testTimeoutSeconds != null || classTimeoutSeconds != null)
+        {
+            if (testTimeoutSeconds != null)
+            {
+                this.consoleTestRunner.addTestTimeout(testTimeoutSeconds);
+            }
+            if (classTimeoutSeconds != null)
+            {
+                this.consoleTestRunner.addClassTimeout(classTimeoutSeconds);
+            }
+
+            this.resumeFile = TestTimeouts.getResumeFile(qubTestDataFolder, projectFolder);
+            this.resumeFile.delete()
+                .catchError()
+                .await();
+            this.consoleTestRunner.addResumeFile(this.resumeFile);
+        }
+
+        if (timings)
+        {
+            this.timingsFile = PhaseTimings.getTestRunnerFile(qubTestDataFolder, projectFolder);
+            this.timingsFile.delete()
+                .catchError()
+                .await();
+            this.consoleTestRunner.addTimingsFile(this.timingsFile);
+        }
+
+        if (streamDiscovery)
+        {
+            final DesktopProcess process = this.parameters.getProcess();
+            this.testClassManifest = TestClassManifest.create(TestClassManifest.getFile(qubTestDataFolder, projectFolder), process.getParallelAsyncRunner(), process.getClock());
+            this.consoleTestRunner.addTestClassManifest(this.testClassManifest.getManifestFile());
+            verbose.writeLine("Streaming the test classes in " + outputFolder + " to the test runner through " + this.testClassManifest.getManifestFile() + ".").await();
+        }
+        else
+        {
+            this.consoleTestRunner.addArguments(testRunPlan.getTestClassNamesToRun());
+        }
+    }
+
+    /**
+     * Run the test runner. If the test classes are streamed to the test runner, they are
+     * discovered while it runs. A test runner that abandoned a hung test is restarted in a new JVM
+     * until it has run every test class.
+     * @param outputFolder The output folder of the project.
+     * @param projectSourceFolders The folders that contain the project's source and test files.
+     * @param backgroundCompile The compilation that runs while the test runner runs, or null if
+     *                          the project was compiled before the test runner started.
+     * @param backgroundCompileStartTime The time that the background compilation started, or null
+     *                                   if there isn't a background compilation.
+     * @return The sum of the exit codes of the test runners.
+     */
+    public int run(Folder outputFolder, Iterable<Folder> projectSourceFolders, AsyncTask<Integer> backgroundCompile, DateTime backgroundCompileStartTime)
+    {
+        PreCondition.assertNotNull(outputFolder, "outputFolder");
+        PreCondition.assertNotNull(projectSourceFolders, "projectSourceFolders");
+
+        if (this.testClassManifest != null && backgroundCompile != null)
+        {
+            // A pre-launched test runner only waits for the compilation, while a pipelined test
+            // runner also runs the test classes that have already been compiled.
+            final CompilePipeline compilePipeline = this.parameters.getPipeline()
+                ? CompilePipeline.create(outputFolder, projectSourceFolders, backgroundCompileStartTime)
+                : null;
+            this.testClassManifest.startPipelinedDiscovery(outputFolder, compilePipeline, backgroundCompile).await();
+        }
+        else if (this.testClassManifest != null)
+        {
+            this.testClassManifest.startDiscovery(outputFolder).await();
+        }
+        int result = this.consoleTestRunner.run().await();
+        if (this.testClassManifest != null)
+        {
+            this.testClassManifest.waitForDiscovery().await();
+        }
+
+        // A test runner that had to abandon a hung test leaves the test classes that it didn't get
+        // to in the resume file for a new test runner.
+        while (this.resumeFile != null && this.resumeFile.exists().await())
+        {
+            final LogStreams logStreams = CommandLineLogsAction.getLogStreamsFromLogFile(this.logFile, this.parameters.getOutputWriteStream(), this.parameters.getVerbose());
+            logStreams.getOutput().writeLine().await();
+            logStreams.getOutput().writeLine("Restarting the test runner in a new JVM...").await();
+            logStreams.getOutput().writeLine().await();
+            logStreams.getLogStream().dispose().await();
+
+            result += this.consoleTestRunner.run().await();
+            this.restarted = true;
+        }
+
+        return result;
+    }
+
+    /**
+     * Add the timings that the test runner wrote to the provided phase as its sub-phases.
+     * Whatever the test runner didn't measure itself is added as the time that was spent
+     * launching and shutting down its JVM process.
+     * @param timings The timings of the test run.
+     * @param testRunnerPhaseName The name of the phase that the test runner ran in.
+     */
+    public void addTestRunnerTimings(PhaseTimings timings, String testRunnerPhaseName)
+    {
+        PreCondition.assertNotNull(timings, "timings");
+        PreCondition.assertNotNullAndNotEmpty(testRunnerPhaseName, "testRunnerPhaseName");
+
+        if (this.timingsFile != null)
+        {
+            final PhaseTimings testRunnerTimings = PhaseTimings.parse(this.timingsFile)
+                .catchError()
+                .await();
+            if (testRunnerTimings != null)
+            {
+                this.timingsFile.delete()
+                    .catchError()
+                    .await();
+
+                final int testRunnerMilliseconds = timings.getPhaseMilliseconds(testRunnerPhaseName);
+                testRunnerTimings.addPhase("Process launch and exit", Math.max(0, testRunnerMilliseconds - testRunnerTimings.getTotalMilliseconds()));
+                timings.setSubPhases(testRunnerPhaseName, testRunnerTimings);
+            }
+        }
+    }
+
+    /**
+     * Write how long the test runner took to start with the class data sharing archive, and how
+     * long it took to start without it, if the test runner used an archive.
+     * @param verbose The stream that verbose logs will be written to.
+     */
+    public void writeStartupMilliseconds(VerboseCharacterToByteWriteStream verbose)
+    {
+        PreCondition.assertNotNull(verbose, "verbose");
+
+        if (this.classDataSharingArchive != null)
+        {
+            final Integer startupMilliseconds = this.classDataSharingArchive.takeStartupMilliseconds();
+            if (startupMilliseconds != null)
+            {
+                final Integer baselineStartupMilliseconds = this.classDataSharingArchive.getBaselineStartupMilliseconds(this.classDataSharingKey);
+                if (baselineStartupMilliseconds == null)
+                {
+                    verbose.writeLine("Test runner started in " + startupMilliseconds + " milliseconds with a class data sharing archive.").await();
+                }
+                else
+                {
+                    verbose.writeLine("Test runner started in " + startupMilliseconds + " milliseconds with a class data sharing archive (" + baselineStartupMilliseconds + " milliseconds without it, saving " + (baselineStartupMilliseconds - startupMilliseconds) + " milliseconds).").await();
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,260 @@
+package qub;
+
+/**
+ * The plan for a test run: which test classes need to run, and which can be skipped because they
+ * passed in the previous run recorded in test.json and haven't changed since then.
+ */
+public class TestRunPlan
+{
+    private final List<String> testClassNamesToRun;
+    private final List<String> unmodifiedTestClassNames;
+    private int unmodifiedPassedTestCount;
+    private int unmodifiedSkippedTestCount;
+
+    private TestRunPlan()
+    {
+        this.testClassNamesToRun = List.create();
+        this.unmodifiedTestClassNames = List.create();
+    }
+
+    /**
+     * Create a new TestRunPlan that runs all of the provided test classes.
+     * @param testClassNames The full names of the test classes to run.
+     * @return The new TestRunPlan.
+     */
+    public static TestRunPlan create(Iterable<String> testClassNames)
+    {
+        PreCondition.assertNotNull(testClassNames, "testClassNames");
+
+        final TestRunPlan result = new TestRunPlan();
+        result.testClassNamesToRun.addAll(testClassNames);
+        return result;
+    }
+
+    /**
+     * Create a new TestRunPlan that skips the provided test classes that passed in the previous
+     * test run and whose class files haven't changed since then.
+     * @param outputFolder The output folder that contains the test class files.
+     * @param testClassNames The full names of the test classes that could run.
+     * @param previousTestJson The test.json file from the previous test run, or null if there
+     *                         wasn't a previous test run.
+     * @param currentJavaVersion The version of Java that the tests will run with.
+     * @param verbose The stream that verbose logs will be written to.
+     * @return The new TestRunPlan.
+     */
+    public static TestRunPlan create(Folder outputFolder, Iterable<String> testClassNames, TestJSON previousTestJson, VersionNumber currentJavaVersion, VerboseCharacterToByteWriteStream verbose)
+    {
+        return TestRunPlan.create(outputFolder, testClassNames, previousTestJson, currentJavaVersion, null, verbose);
+    }
+
+    /**
+     * Create a new TestRunPlan that skips the provided test classes that passed in the previous
+     * test run and whose class files haven't changed since then. If it is known whether a test
+     * class's source file has been recompiled since the previous test run, the timestamp of the
+     * test class's class file isn't checked.
+     * @param outputFolder The output folder that contains the test class files.
+     * @param testClassNames The full names of the test classes that could run.
+     * @param previousTestJson The test.json file from the previous test run, or null if there
+     *                         wasn't a previous test run.
+     * @param currentJavaVersion The version of Java that the tests will run with.
+     * @param recompiledSources A map from the relative path of each source file to whether it
+     *                          has been recompiled since the previous test run, or null if that
+     *                          isn't known.
+     * @param verbose The stream that verbose logs will be written to.
+     * @return The new TestRunPlan.
+     */
+    public static TestRunPlan create(Folder outputFolder, Iterable<String> testClassNames, TestJSON previousTestJson, VersionNumber currentJavaVersion, Map<String,Boolean> recompiledSources, VerboseCharacterToByteWriteStream verbose)
+    {
+        PreCondition.assertNotNull(outputFolder, "outputFolder");
+        PreCondition.assertNotNull(testClassNames, "testClassNames");
+        PreCondition.assertNotNull(currentJavaVersion, "currentJavaVersion");
+        PreCondition.assertNotNull(verbose, "verbose");
+
+        TestRunPlan result;
+        if (previousTestJson == null)
+        {
+            result = TestRunPlan.create(testClassNames);
+        }
+        else
+        {
+            verbose.writeLine("Found and parsed test.json file.").await();
+
+            final VersionNumber previousJavaVersion = previousTestJson.getJavaVersion().catchError().await();
+            if (!currentJavaVersion.equals(previousJavaVersion))
+            {
+                result = TestRunPlan.create(testClassNames);
+            }
+            else
+            {
+                final MutableMap<String,TestJSONClassFile> fullClassNameToTestJSONClassFileMap = Map.create();
+                for (final TestJSONClassFile testJSONClassFile : previousTestJson.getClassFiles())
+                {
+                    fullClassNameToTestJSONClassFileMap.set(testJSONClassFile.getFullClassName(), testJSONClassFile);
+                }
+
+                // Source files are keyed by their path relative to the project folder, which starts
+                // with the name of the sources or tests folder.
+                final MutableMap<String,Boolean> recompiledSourcePaths = Map.create();
+                if (recompiledSources != null)
+                {
+                    for (final String sourceRelativePath : recompiledSources.getKeys())
+                    {
+                        final String sourcePath = sourceRelativePath.replace('\\', '/');
+                        final int firstSeparatorIndex = sourcePath.indexOf('/');
+                        final String sourcePathKey = firstSeparatorIndex == -1 ? sourcePath : sourcePath.substring(firstSeparatorIndex + 1);
+                        final boolean recompiled = recompiledSources.get(sourceRelativePath).await() ||
+                            recompiledSourcePaths.get(sourcePathKey).catchError(() -> false).await();
+                        recompiledSourcePaths.set(sourcePathKey, recompiled);
+                    }
+                }
+
+                result = new TestRunPlan();
+                for (final String testClassName : testClassNames)
+                {
+                    final TestJSONClassFile testJSONClassFile = fullClassNameToTestJSONClassFileMap.get(testClassName)
+                        .catchError(NotFoundException.class)
+                        .await();
+                    if (TestRunPlan.canSkip(outputFolder, testClassName, testJSONClassFile, recompiledSourcePaths, verbose))
+                    {
+                        result.addUnmodifiedTestClass(testClassName, testJSONClassFile);
+                    }
+                    else
+                    {
+                        result.testClassNamesToRun.add(testClassName);
+                    }
+                }
+            }
+        }
+
+        PostCondition.assertNotNull(result, "result");
+
+        return result;
+    }
+
+    /**
+     * Get whether the provided test class can be skipped because it passed in the previous test
+     * run and it hasn't changed since then. If it is known whether the test class's source file
+     * has been recompiled since the previous test run, the timestamp of the test class's class
+     * file isn't checked.
+     * @param outputFolder The output folder that contains the test class files.
+     * @param testClassName The full name of the test class.
+     * @param testJSONClassFile The test class's entry in the previous test.json file, or null if
+     *                          it doesn't have one.
+     * @param recompiledSourcePaths A map from the path of each source file relative to the sources
+     *                              or tests folder to whether it has been recompiled since the
+     *                              previous test run, or null if that isn't known.
+     * @param verbose The stream that verbose logs will be written to.
+     * @return Whether the test class can be skipped.
+     */
+    public static boolean canSkip(Folder outputFolder, String testClassName, TestJSONClassFile testJSONClassFile, Map<String,Boolean> recompiledSourcePaths, VerboseCharacterToByteWriteStream verbose)
+    {
+        PreCondition.assertNotNull(outputFolder, "outputFolder");
+        PreCondition.assertNotNullAndNotEmpty(testClassName, "testClassName");
+        PreCondition.assertNotNull(verbose, "verbose");
+
+        boolean result = false;
+        if (testJSONClassFile == null)
+        {
+            verbose.writeLine("Found class that didn't exist in previous test run: " + testClassName).await();
+        }
+        else if (recompiledSourcePaths != null && recompiledSourcePaths.containsKey(TestRunPlan.getSourcePath(testClassName)))
+        {
+            // A class that isn't declared in a source file with its own name falls back to
+            // checking its class file's timestamp below.
+            if (recompiledSourcePaths.get(TestRunPlan.getSourcePath(testClassName)).await())
+            {
+                verbose.writeLine("The source file of " + testClassName + " was recompiled since the previous run. Running test class tests.").await();
+            }
+            else if (testJSONClassFile.getFailedTestCount() > 0)
+            {
+                verbose.writeLine("Previous run of " + testClassName + " contained errors. Running test class tests...").await();
+            }
+            else
+            {
+                verbose.writeLine("Previous run of " + testClassName + " didn't contain errors and its source file hasn't been recompiled since then. Skipping test class tests.").await();
+                result = true;
+            }
+        }
+        else
+        {
+            final File testClassFile = outputFolder.getFile(testJSONClassFile.getRelativePath()).await();
+            final DateTime testClassFileLastModified = testClassFile.getLastModified().await();
+            if (!testClassFileLastModified.equals(testJSONClassFile.getLastModified()))
+            {
+                verbose.writeLine("Timestamp of " + testClassName + " from the previous run (" + testJSONClassFile.getLastModified() + ") was not the same as the current class file timestamp (" + testClassFileLastModified + "). Running test class tests.").await();
+            }
+            else if (testJSONClassFile.getFailedTestCount() > 0)
+            {
+                verbose.writeLine("Previous run of " + testClassName + " contained errors. Running test class tests...").await();
+            }
+            else
+            {
+                verbose.writeLine("Previous run of " + testClassName + " didn't contain errors and the test class hasn't changed since then. Skipping test class tests.").await();
+                result = true;
+            }
+        }
+        return result;
+    }
+
+    private void addUnmodifiedTestClass(String testClassName, TestJSONClassFile testJSONClassFile)
+    {
+        this.unmodifiedTestClassNames.add(testClassName);
+        this.unmodifiedPassedTestCount += testJSONClassFile.getPassedTestCount();
+        this.unmodifiedSkippedTestCount += testJSONClassFile.getSkippedTestCount();
+    }
+
+    /**
+     * Get the path of the source file that the provided class is compiled from, relative to the
+     * sources or tests folder.
+     * @param fullClassName The full name of the class.
+     * @return The path of the class's source file relative to the sources or tests folder.
+     */
+    static String getSourcePath(String fullClassName)
+    {
+        PreCondition.assertNotNullAndNotEmpty(fullClassName, "fullClassName");
+
+        // Nested classes are compiled from the same source file as their top-level class.
+        final int nestedClassIndex = fullClassName.indexOf('$');
+        final String topLevelClassName = nestedClassIndex == -1 ? fullClassName : fullClassName.substring(0, nestedClassIndex);
+        return topLevelClassName.replace('.', '/') + ".java";
+    }
+
+    /**
+     * Get the full names of the test classes that need to run.
+     * @return The full names of the test classes that need to run.
+     */
+    public Iterable<String> getTestClassNamesToRun()
+    {
+        return this.testClassNamesToRun;
+    }
+
+    /**
+     * Get the full names of the test classes that can be skipped because they haven't changed
+     * since they passed in the previous test run.
+     * @return The full names of the test classes that can be skipped.
+     */
+    public Iterable<String> getUnmodifiedTestClassNames()
+    {
+        return this.unmodifiedTestClassNames;
+    }
+
+    /**
+     * Get the number of tests that passed in the previous test run in the test classes that can
+     * be skipped.
+     * @return The number of unmodified passed tests.
+     */
+    public int getUnmodifiedPassedTestCount()
+    {
+        return this.unmodifiedPassedTestCount;
+    }
+
+    /**
+     * Get the number of tests that were skipped in the previous test run in the test classes that
+     * can be skipped.
+     * @return The number of unmodified skipped tests.
+     */
+    public int getUnmodifiedSkippedTestCount()
+    {
+        return this.unmodifiedSkippedTestCount;
+    }
+}
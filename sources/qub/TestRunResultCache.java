@@ -0,0 +1,230 @@
+package qub;
+
+/**
+ * The shared result cache of a test run. The results of the test classes that aren't up to date
+ * in test.json are restored from the cache before the test run, and the results of the test
+ * classes that ran are added to the cache after the test run.
+ */
+public class TestRunResultCache
+{
+    private final TestResultCache resultCache;
+    private final TestResultKeys resultKeys;
+    private final TestFingerprint fingerprint;
+    private final Folder outputFolder;
+    private final VersionNumber javaVersion;
+
+    private TestRunResultCache(TestResultCache resultCache, TestResultKeys resultKeys, TestFingerprint fingerprint, Folder outputFolder, VersionNumber javaVersion)
+    {
+        this.resultCache = resultCache;
+        this.resultKeys = resultKeys;
+        this.fingerprint = fingerprint;
+        this.outputFolder = outputFolder;
+        this.javaVersion = javaVersion;
+    }
+
+    /**
+     * Create a new TestRunResultCache for the provided test run.
+     * @param qubTestDataFolder The qub-test data folder that contains the shared result cache.
+     * @param outputFolder The output folder that contains test.json.
+     * @param javaVersion The version of Java that the tests run in.
+     * @param fingerprint The fingerprint of the test run.
+     * @param classPaths The classpath that the test runner will be launched with.
+     * @return The new TestRunResultCache.
+     */
+    public static TestRunResultCache create(Folder qubTestDataFolder, Folder outputFolder, VersionNumber javaVersion, TestFingerprint fingerprint, Iterable<String> classPaths)
+    {
+        PreCondition.assertNotNull(qubTestDataFolder, "qubTestDataFolder");
+        PreCondition.assertNotNull(outputFolder, "outputFolder");
+        PreCondition.assertNotNull(javaVersion, "javaVersion");
+        PreCondition.assertNotNull(fingerprint, "fingerprint");
+        PreCondition.assertNotNull(classPaths, "classPaths");
+
+        final TestResultCache resultCache = TestResultCache.create(qubTestDataFolder);
+        final TestResultKeys resultKeys = TestResultKeys.create(outputFolder, TestResultKeys.getRuntimeKey(javaVersion, fingerprint, classPaths, outputFolder));
+        return new TestRunResultCache(resultCache, resultKeys, fingerprint, outputFolder, javaVersion);
+    }
+
+    /**
+     * Add the cached results of the provided classes that aren't up to date in test.json to
+     * test.json.
+     * @param previousTestJson The test.json file from the previous test run, or null if it
+     *                         doesn't exist.
+     * @param classNames The full names of the classes that may run.
+     * @param verbose The stream that verbose logs will be written to.
+     * @return The updated test.json file, or the previous test.json file if no results were
+     * restored.
+     */
+    public TestJSON restore(TestJSON previousTestJson, Iterable<String> classNames, VerboseCharacterToByteWriteStream verbose)
+    {
+        return TestRunResultCache.restoreCachedResults(this.resultCache, this.resultKeys, previousTestJson, this.fingerprint, classNames, this.outputFolder, this.javaVersion, verbose);
+    }
+
+    /**
+     * Add the results of the passing test classes that ran in the test run to the cache.
+     * @param previousTestJson The test.json file from before the test run, or null if it didn't
+     *                         exist.
+     * @param verbose The stream that verbose logs will be written to.
+     */
+    public void save(TestJSON previousTestJson, VerboseCharacterToByteWriteStream verbose)
+    {
+        TestRunResultCache.saveCachedResults(this.resultCache, this.resultKeys, previousTestJson, this.outputFolder, verbose);
+    }
+
+    /**
+     * Add the results of the test classes that aren't up to date in test.json but whose keys are
+     * in the shared result cache to test.json, so that they don't run again.
+     * @param resultCache The shared result cache.
+     * @param resultKeys The keys of the project's test classes.
+     * @param previousTestJson The test.json file from the previous test run, or null if it
+     *                         doesn't exist.
+     * @param fingerprint The fingerprint of the current test run.
+     * @param classNames The full names of the classes in the outputs folder.
+     * @param outputFolder The output folder that contains test.json.
+     * @param javaVersion The version of Java that the tests run in.
+     * @param verbose The stream that verbose logs will be written to.
+     * @return The updated test.json file, or the previous test.json file if no results were
+     * restored.
+     */
+    static TestJSON restoreCachedResults(TestResultCache resultCache, TestResultKeys resultKeys, TestJSON previousTestJson, TestFingerprint fingerprint, Iterable<String> classNames, Folder outputFolder, VersionNumber javaVersion, VerboseCharacterToByteWriteStream verbose)
+    {
+        PreCondition.assertNotNull(resultCache, "resultCache");
+        PreCondition.assertNotNull(resultKeys, "resultKeys");
+        PreCondition.assertNotNull(fingerprint, "fingerprint");
+        PreCondition.assertNotNull(classNames, "classNames");
+        PreCondition.assertNotNull(outputFolder, "outputFolder");
+        PreCondition.assertNotNull(javaVersion, "javaVersion");
+        PreCondition.assertNotNull(verbose, "verbose");
+
+        final MutableMap<String,TestJSONClassFile> classFiles = Map.create();
+        final List<String> classFileNames = List.create();
+        if (previousTestJson != null && javaVersion.equals(previousTestJson.getJavaVersion().catchError().await()))
+        {
+            for (final TestJSONClassFile classFile : previousTestJson.getClassFiles())
+            {
+                classFiles.set(classFile.getFullClassName(), classFile);
+                classFileNames.add(classFile.getFullClassName());
+            }
+        }
+
+        int restoredCount = 0;
+        for (final String className : classNames)
+        {
+            // Test classes are top-level classes. Their nested classes are part of their keys.
+            if (!className.contains("$"))
+            {
+                final File classFile = QubTestRun.getClassFile(outputFolder, className);
+                final DateTime lastModified = classFile.getLastModified()
+                    .catchError()
+                    .await();
+                final TestJSONClassFile previousClassFile = classFiles.get(className)
+                    .catchError()
+                    .await();
+                if (lastModified != null && (previousClassFile == null || !lastModified.equals(previousClassFile.getLastModified())))
+                {
+                    final String key = resultKeys.getKey(className);
+                    final TestJSONClassFile cachedClassFile = key == null
+                        ? null
+                        : resultCache.get(key, classFile.relativeTo(outputFolder), lastModified);
+                    if (cachedClassFile != null)
+                    {
+                        if (previousClassFile == null)
+                        {
+                            classFileNames.add(className);
+                        }
+                        classFiles.set(className, cachedClassFile);
+                        ++restoredCount;
+                    }
+                }
+            }
+        }
+
+        TestJSON result = previousTestJson;
+        if (restoredCount > 0)
+        {
+            verbose.writeLine("Restored " + restoredCount + " test class result" + (restoredCount == 1 ? "" : "s") + " from the result cache.").await();
+
+            final List<TestJSONClassFile> restoredClassFiles = List.create();
+            for (final String classFileName : classFileNames)
+            {
+                restoredClassFiles.add(classFiles.get(classFileName).await());
+            }
+            result = TestJSON.create()
+                .setJavaVersion(javaVersion)
+                .setFingerprint(fingerprint)
+                .setClassFiles(restoredClassFiles);
+            if (previousTestJson != null)
+            {
+                final Integer peakHeapMegabytes = previousTestJson.getPeakHeapMegabytes().catchError().await();
+                if (peakHeapMegabytes != null)
+                {
+                    result.setPeakHeapMegabytes(peakHeapMegabytes);
+                }
+            }
+            outputFolder.getFile("test.json").await()
+                .setContentsAsString(result.toString(JSONFormat.pretty))
+                .catchError()
+                .await();
+            resultCache.save();
+        }
+        return result;
+    }
+
+    /**
+     * Add the results of the passing test classes that ran in this test run to the shared result
+     * cache. A test class ran if its test.json entry changed during the test run and its class file
+     * hasn't changed since then. The results of the test classes that didn't run are already in
+     * the cache (or can't be keyed), so they aren't keyed again.
+     * @param resultCache The shared result cache.
+     * @param resultKeys The keys of the project's test classes.
+     * @param previousTestJson The test.json file from before the test run, or null if it didn't
+     *                         exist.
+     * @param outputFolder The output folder that contains test.json.
+     * @param verbose The stream that verbose logs will be written to.
+     */
+    static void saveCachedResults(TestResultCache resultCache, TestResultKeys resultKeys, TestJSON previousTestJson, Folder outputFolder, VerboseCharacterToByteWriteStream verbose)
+    {
+        PreCondition.assertNotNull(resultCache, "resultCache");
+        PreCondition.assertNotNull(resultKeys, "resultKeys");
+        PreCondition.assertNotNull(outputFolder, "outputFolder");
+        PreCondition.assertNotNull(verbose, "verbose");
+
+        final TestJSON testJson = TestJSON.parse(outputFolder.getFile("test.json").await())
+            .catchError()
+            .await();
+        if (testJson != null)
+        {
+            final MutableMap<String,String> previousClassFileJsons = Map.create();
+            if (previousTestJson != null)
+            {
+                for (final TestJSONClassFile previousClassFile : previousTestJson.getClassFiles())
+                {
+                    previousClassFileJsons.set(previousClassFile.getFullClassName(), previousClassFile.toJsonProperty().toString());
+                }
+            }
+
+            int savedCount = 0;
+            for (final TestJSONClassFile classFile : testJson.getClassFiles())
+            {
+                final String previousClassFileJson = previousClassFileJsons.get(classFile.getFullClassName())
+                    .catchError()
+                    .await();
+                if (!classFile.toJsonProperty().toString().equals(previousClassFileJson))
+                {
+                    final DateTime lastModified = outputFolder.getFile(classFile.getRelativePath()).await().getLastModified()
+                        .catchError()
+                        .await();
+                    if (lastModified != null && lastModified.equals(classFile.getLastModified()))
+                    {
+                        final String key = resultKeys.getKey(classFile.getFullClassName());
+                        if (key != null && resultCache.set(key, classFile))
+                        {
+                            ++savedCount;
+                        }
+                    }
+                }
+            }
+            resultCache.save();
+            verbose.writeLine("Saved " + savedCount + " test class result" + (savedCount == 1 ? "" : "s") + " to the result cache.").await();
+        }
+    }
+}
@@ -0,0 +1,149 @@
+package qub;
+
+/**
+ * The data of the testselections.json file in a project's output folder. It records named
+ * selections of test classes (such as the minimal set that is computed by the minimize action) so
+ * that they can be run later with --selection=&lt;name&gt;.
+ */
+public class TestSelectionsJSON extends JSONObjectWrapperBase
+{
+    private static final String selectionsPropertyName = "selections";
+    private static final String testClassesPropertyName = "testClasses";
+
+    private TestSelectionsJSON(JSONObject json)
+    {
+        super(json);
+    }
+
+    public static TestSelectionsJSON create()
+    {
+        return TestSelectionsJSON.create(JSONObject.create());
+    }
+
+    public static TestSelectionsJSON create(JSONObject rootObject)
+    {
+        PreCondition.assertNotNull(rootObject, "rootObject");
+
+        return new TestSelectionsJSON(rootObject);
+    }
+
+    /**
+     * Get the testselections.json file in the provided output folder.
+     * @param outputFolder The output folder.
+     * @return The testselections.json file in the provided output folder.
+     */
+    public static File getFile(Folder outputFolder)
+    {
+        PreCondition.assertNotNull(outputFolder, "outputFolder");
+
+        return outputFolder.getFile("testselections.json").await();
+    }
+
+    /**
+     * Parse a TestSelectionsJSON object from the provided testselections.json file.
+     * @param testSelectionsJsonFile The testselections.json file to parse.
+     * @return The parsed TestSelectionsJSON object.
+     */
+    public static Result<TestSelectionsJSON> parse(File testSelectionsJsonFile)
+    {
+        PreCondition.assertNotNull(testSelectionsJsonFile, "testSelectionsJsonFile");
+
+        return JSON.parseObject(testSelectionsJsonFile)
+            .then((JSONObject json) -> TestSelectionsJSON.create(json));
+    }
+
+    private JSONObject getSelectionsObject()
+    {
+        JSONObject result = this.json.getObject(TestSelectionsJSON.selectionsPropertyName)
+            .catchError()
+            .await();
+        if (result == null)
+        {
+            result = JSONObject.create();
+            this.json.set(TestSelectionsJSON.selectionsPropertyName, result);
+        }
+        return result;
+    }
+
+    /**
+     * Get the names of the selections that are recorded in this object.
+     * @return The names of the selections that are recorded in this object.
+     */
+    public Iterable<String> getSelectionNames()
+    {
+        return this.getSelectionsObject().getProperties()
+            .map(JSONProperty::getName)
+            .toList();
+    }
+
+    /**
+     * Get the full names of the test classes in the selection with the provided name.
+     * @param selectionName The name of the selection.
+     * @return The full names of the test classes in the selection, or null if no selection with
+     * the provided name exists.
+     */
+    public Iterable<String> getSelectionTestClassNames(String selectionName)
+    {
+        PreCondition.assertNotNullAndNotEmpty(selectionName, "selectionName");
+
+        return this.getSelectionsObject().getObject(selectionName)
+            .then((JSONObject selectionObject) ->
+            {
+                return selectionObject.getObject(TestSelectionsJSON.testClassesPropertyName).await()
+                    .getProperties()
+                    .map(JSONProperty::getName)
+                    .toList();
+            })
+            .catchError()
+            .await();
+    }
+
+    /**
+     * Get the recorded duration of the provided test class in the provided selection.
+     * @param selectionName The name of the selection.
+     * @param testClassName The full name of the test class.
+     * @return The recorded duration of the test class in milliseconds, or null if the test class
+     * isn't in the selection.
+     */
+    public Integer getSelectionTestClassDurationMilliseconds(String selectionName, String testClassName)
+    {
+        PreCondition.assertNotNullAndNotEmpty(selectionName, "selectionName");
+        PreCondition.assertNotNullAndNotEmpty(testClassName, "testClassName");
+
+        return this.getSelectionsObject().getObject(selectionName)
+            .then((JSONObject selectionObject) ->
+            {
+                return selectionObject.getObject(TestSelectionsJSON.testClassesPropertyName).await()
+                    .getInteger(testClassName).await();
+            })
+            .catchError()
+            .await();
+    }
+
+    /**
+     * Set the test classes of the selection with the provided name. Any existing selection with
+     * the same name will be replaced.
+     * @param selectionName The name of the selection.
+     * @param testClassNames The full names of the test classes in the selection.
+     * @param testClassDurations The recorded durations (in milliseconds) of the test classes.
+     * @return This object for method chaining.
+     */
+    public TestSelectionsJSON setSelection(String selectionName, Iterable<String> testClassNames, Map<String,Integer> testClassDurations)
+    {
+        PreCondition.assertNotNullAndNotEmpty(selectionName, "selectionName");
+        PreCondition.assertNotNull(testClassNames, "testClassNames");
+        PreCondition.assertNotNull(testClassDurations, "testClassDurations");
+
+        final JSONObject testClassesObject = JSONObject.create();
+        for (final String testClassName : testClassNames)
+        {
+            testClassesObject.setNumber(testClassName, testClassDurations.get(testClassName).catchError(() -> 0).await());
+        }
+
+        final JSONObject selectionObject = JSONObject.create();
+        selectionObject.set(TestSelectionsJSON.testClassesPropertyName, testClassesObject);
+        this.getSelectionsObject().set(selectionName, selectionObject);
+
+        return this;
+    }
+}
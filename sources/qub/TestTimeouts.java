@@ -0,0 +1,88 @@
+package qub;
+
+/**
+ * The per-test and per-class timeouts of a test run. A project can declare default timeouts (in
+ * seconds) in its project.json file, and they can be overridden from the command line:
+ * <pre>
+ * "test": {
+ *   "testTimeout": 60,
+ *   "classTimeout": 600
+ * }
+ * </pre>
+ * A timeout of 0 means that there is no timeout.
+ */
+public interface TestTimeouts
+{
+    String testPropertyName = "test";
+    String testTimeoutPropertyName = "testTimeout";
+    String classTimeoutPropertyName = "classTimeout";
+
+    /**
+     * Parse a timeout command line argument.
+     * @param argumentValue The number of seconds of the timeout.
+     * @return The number of seconds of the timeout, or null if no timeout was specified.
+     */
+    static Result<Integer> parseTimeoutSeconds(String argumentValue)
+    {
+        return Result.create2(() ->
+        {
+            Integer result = null;
+            if (!Strings.isNullOrEmpty(argumentValue))
+            {
+                result = Integer.parseInt(argumentValue.trim());
+                if (result < 0)
+                {
+                    throw new IllegalArgumentException("A timeout cannot be negative: " + argumentValue);
+                }
+            }
+            return result;
+        });
+    }
+
+    /**
+     * Get the number of seconds of the timeout with the provided project.json property name.
+     * @param overrideSeconds The number of seconds that was specified on the command line, or
+     *                        null if the timeout wasn't specified on the command line.
+     * @param projectJson The contents of the project's project.json file, or null if it couldn't
+     *                    be parsed.
+     * @param timeoutPropertyName The name of the timeout's property in the project.json file.
+     * @return The number of seconds of the timeout, or null if there is no timeout.
+     */
+    static Integer getTimeoutSeconds(Integer overrideSeconds, JSONObject projectJson, String timeoutPropertyName)
+    {
+        PreCondition.assertNotNullAndNotEmpty(timeoutPropertyName, "timeoutPropertyName");
+
+        Integer result = overrideSeconds;
+        if (result == null && projectJson != null)
+        {
+            result = projectJson.getObject(TestTimeouts.testPropertyName)
+                .then((JSONObject test) -> test.getInteger(timeoutPropertyName).await())
+                .catchError()
+                .await();
+        }
+        if (result != null && result <= 0)
+        {
+            result = null;
+        }
+
+        PostCondition.assertTrue(result == null || result > 0, "result == null || result > 0");
+
+        return result;
+    }
+
+    /**
+     * Get the file in the qub-test data folder that a test runner JVM writes the names of the
+     * test classes that it didn't get to run to when it had to stop because of a hung test.
+     * @param qubTestDataFolder The data folder of the qub-test application.
+     * @param projectFolder The folder of the project that is being tested.
+     * @return The file that the remaining test class names are written to.
+     */
+    static File getResumeFile(Folder qubTestDataFolder, Folder projectFolder)
+    {
+        PreCondition.assertNotNull(qubTestDataFolder, "qubTestDataFolder");
+        PreCondition.assertNotNull(projectFolder, "projectFolder");
+
+        final String projectKey = QubTestHash.hash(projectFolder.toString()).substring(0, 16);
+        return qubTestDataFolder.getFile("resume/" + projectKey + ".txt").await();
+    }
+}
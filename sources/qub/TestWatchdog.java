@@ -0,0 +1,271 @@
+package qub;
+
+/**
+ * Runs test classes on a worker thread and watches for tests that run longer than the per-test
+ * timeout and for test classes that run longer than the per-class timeout. When a timeout is
+ * exceeded, a full thread dump is captured and the worker thread is interrupted. A test that
+ * exceeded its timeout has to end within the abandon timeout, and a test class that exceeded its
+ * timeout has to finish within the abandon timeout. If it doesn't, then the worker thread is
+ * abandoned and it can't be assumed that the test runner's state is still safe to use.
+ */
+public class TestWatchdog
+{
+    private static final long pollMilliseconds = 50;
+
+    private final Duration testTimeout;
+    private final Duration classTimeout;
+    private final Clock clock;
+    private Duration abandonTimeout;
+    private volatile Test currentTest;
+    private volatile DateTime currentTestStartTime;
+
+    private TestWatchdog(Duration testTimeout, Duration classTimeout, Clock clock)
+    {
+        this.testTimeout = testTimeout;
+        this.classTimeout = classTimeout;
+        this.clock = clock;
+        this.abandonTimeout = Duration.seconds(5);
+    }
+
+    /**
+     * Create a new TestWatchdog.
+     * @param testTimeout The longest that a single test can run, or null if tests don't have a
+     *                    timeout.
+     * @param classTimeout The longest that a test class can run, or null if test classes don't
+     *                     have a timeout.
+     * @param clock The Clock that will be used to measure how long tests and test classes run.
+     * @return The new TestWatchdog.
+     */
+    public static TestWatchdog create(Duration testTimeout, Duration classTimeout, Clock clock)
+    {
+        PreCondition.assertTrue(testTimeout != null || classTimeout != null, "testTimeout != null || classTimeout != null");
+        PreCondition.assertNotNull(clock, "clock");
+
+        return new TestWatchdog(testTimeout, classTimeout, clock);
+    }
+
+    /**
+     * Get the longest that a single test can run.
+     * @return The longest that a single test can run, or null if tests don't have a timeout.
+     */
+    public Duration getTestTimeout()
+    {
+        return this.testTimeout;
+    }
+
+    /**
+     * Get the longest that a test class can run.
+     * @return The longest that a test class can run, or null if test classes don't have a
+     * timeout.
+     */
+    public Duration getClassTimeout()
+    {
+        return this.classTimeout;
+    }
+
+    /**
+     * Get how long a hung test or test class has to end after its thread is interrupted before
+     * the thread is abandoned.
+     * @return How long a hung test or test class has to end after its thread is interrupted.
+     */
+    public Duration getAbandonTimeout()
+    {
+        return this.abandonTimeout;
+    }
+
+    /**
+     * Set how long a hung test or test class has to end after its thread is interrupted before
+     * the thread is abandoned.
+     * @param abandonTimeout How long a hung test or test class has to end after its thread is
+     *                       interrupted.
+     * @return This object for method chaining.
+     */
+    public TestWatchdog setAbandonTimeout(Duration abandonTimeout)
+    {
+        PreCondition.assertNotNull(abandonTimeout, "abandonTimeout");
+
+        this.abandonTimeout = abandonTimeout;
+        return this;
+    }
+
+    /**
+     * Notify this watchdog that the provided test has started. This must be called from the
+     * worker thread.
+     * @param test The test that started.
+     */
+    public void testStarted(Test test)
+    {
+        PreCondition.assertNotNull(test, "test");
+
+        // An interrupt that was meant for a previous test that exceeded its timeout must not
+        // interrupt this test.
+        Thread.interrupted();
+
+        this.currentTestStartTime = this.clock.getCurrentDateTime();
+        this.currentTest = test;
+    }
+
+    /**
+     * Notify this watchdog that the current test has ended. This must be called from the worker
+     * thread.
+     */
+    public void testEnded()
+    {
+        this.currentTest = null;
+    }
+
+    /**
+     * Run the provided test class action on a new worker thread and watch it until it finishes or
+     * until a hung test or test class can't be recovered. A test class that exceeds its timeout is
+     * stopped: it has to finish within the abandon timeout after its thread is interrupted, or
+     * else its thread is abandoned.
+     * @param testClassName The full name of the test class that is being run.
+     * @param testClassAction The action that runs the test class.
+     * @param onTimeout The action that will be run when a timeout is exceeded. It is given the test
+     *                  that was running when the timeout was exceeded (or null if no test was
+     *                  running), a message that describes the timeout, and a full thread dump.
+     * @return True if the test class finished, or false if its worker thread had to be abandoned.
+     */
+    public boolean run(String testClassName, Action0 testClassAction, Action3<Test,String,String> onTimeout)
+    {
+        PreCondition.assertNotNullAndNotEmpty(testClassName, "testClassName");
+        PreCondition.assertNotNull(testClassAction, "testClassAction");
+        PreCondition.assertNotNull(onTimeout, "onTimeout");
+
+        final Thread worker = new Thread(testClassAction::run, "qub-test: " + testClassName);
+        worker.setDaemon(true);
+
+        this.currentTest = null;
+        final DateTime classStartTime = this.clock.getCurrentDateTime();
+        Test timedOutTest = null;
+        boolean result = true;
+
+        worker.start();
+        while (worker.isAlive())
+        {
+            final Test test = this.currentTest;
+            if (this.classTimeout != null && this.hasElapsed(classStartTime, this.classTimeout))
+            {
+                onTimeout.run(test, "The test class " + testClassName + " did not finish within its timeout of " + TestWatchdog.formatDuration(this.classTimeout) + ".", TestWatchdog.getThreadDump());
+
+                worker.interrupt();
+                result = this.waitForWorker(worker, () -> false);
+                break;
+            }
+            else if (test != null && test != timedOutTest && this.testTimeout != null && this.hasElapsed(this.currentTestStartTime, this.testTimeout))
+            {
+                timedOutTest = test;
+                onTimeout.run(test, "The test " + test.getFullName() + " did not finish within its timeout of " + TestWatchdog.formatDuration(this.testTimeout) + ".", TestWatchdog.getThreadDump());
+
+                if (this.currentTest == test)
+                {
+                    worker.interrupt();
+                }
+                if (!this.waitForWorker(worker, () -> this.currentTest != test))
+                {
+                    result = false;
+                    break;
+                }
+            }
+            else
+            {
+                TestWatchdog.join(worker, TestWatchdog.pollMilliseconds);
+            }
+        }
+
+        return result;
+    }
+
+    /**
+     * Wait for the provided worker thread to finish or for the provided condition to become true.
+     * @param worker The worker thread.
+     * @param condition The condition that ends the wait before the worker thread finishes.
+     * @return Whether the worker thread finished or the condition became true before the abandon
+     * timeout elapsed.
+     */
+    private boolean waitForWorker(Thread worker, Function0<Boolean> condition)
+    {
+        final DateTime waitStartTime = this.clock.getCurrentDateTime();
+        while (worker.isAlive() && !condition.run() && !this.hasElapsed(waitStartTime, this.abandonTimeout))
+        {
+            TestWatchdog.join(worker, TestWatchdog.pollMilliseconds);
+        }
+        return !worker.isAlive() || condition.run();
+    }
+
+    private boolean hasElapsed(DateTime startTime, Duration duration)
+    {
+        return this.clock.getCurrentDateTime().minus(startTime).toMilliseconds().getValue() >= duration.toMilliseconds().getValue();
+    }
+
+    private static void join(Thread worker, long milliseconds)
+    {
+        try
+        {
+            worker.join(milliseconds);
+        }
+        catch (InterruptedException e)
+        {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException(e);
+        }
+    }
+
+    static String formatDuration(Duration duration)
+    {
+        PreCondition.assertNotNull(duration, "duration");
+
+        return new java.text.DecimalFormat("0.###").format(duration.toSeconds().getValue()) + " seconds";
+    }
+
+    /**
+     * Get a full thread dump of every thread in this JVM, including the monitors and
+     * synchronizers that each thread holds.
+     * @return The thread dump.
+     */
+    static String getThreadDump()
+    {
+        final StringBuilder builder = new StringBuilder();
+        final java.lang.management.ThreadMXBean threadMXBean = java.lang.management.ManagementFactory.getThreadMXBean();
+        for (final java.lang.management.ThreadInfo threadInfo : threadMXBean.dumpAllThreads(true, true))
+        {
+            builder.append('"').append(threadInfo.getThreadName()).append("\" #").append(threadInfo.getThreadId())
+                .append(' ').append(threadInfo.getThreadState());
+            if (threadInfo.getLockName() != null)
+            {
+                builder.append(" on ").append(threadInfo.getLockName());
+            }
+            if (threadInfo.getLockOwnerName() != null)
+            {
+                builder.append(" owned by \"").append(threadInfo.getLockOwnerName()).append('"');
+            }
+            builder.append('\n');
+
+            final StackTraceElement[] stackTrace = threadInfo.getStackTrace();
+            final java.lang.management.MonitorInfo[] lockedMonitors = threadInfo.getLockedMonitors();
+            for (int depth = 0; depth < stackTrace.length; ++depth)
+            {
+                builder.append("\tat ").append(stackTrace[depth]).append('\n');
+                for (final java.lang.management.MonitorInfo lockedMonitor : lockedMonitors)
+                {
+                    if (lockedMonitor.getLockedStackDepth() == depth)
+                    {
+                        builder.append("\t- locked ").append(lockedMonitor).append('\n');
+                    }
+                }
+            }
+
+            final java.lang.management.LockInfo[] lockedSynchronizers = threadInfo.getLockedSynchronizers();
+            if (lockedSynchronizers.length > 0)
+            {
+                builder.append("\tLocked synchronizers:\n");
+                for (final java.lang.management.LockInfo lockedSynchronizer : lockedSynchronizers)
+                {
+                    builder.append("\t- ").append(lockedSynchronizer).append('\n');
+                }
+            }
+            builder.append('\n');
+        }
+        return builder.toString();
+    }
+}
@@ -0,0 +1,81 @@
+package qub;
+
+public interface BenchmarkBaselinesTests
+{
+    static void test(TestRunner runner)
+    {
+        PreCondition.assertNotNull(runner, "runner");
+
+        runner.testGroup(BenchmarkBaselines.class, () ->
+        {
+            runner.testGroup("update(Iterable<SpeedTestResult>,File,VersionNumber,int,boolean,CharacterToByteWriteStream)", () ->
+            {
+                final VersionNumber javaVersion = VersionNumber.parse("11").await();
+                final SpeedTestResult fastResult = SpeedTestResult.create("a.b", Duration.seconds(1), 5, SpeedTestStatistics.create(100, 110, 90, 105, 95), null);
+                final SpeedTestResult slowResult = SpeedTestResult.create("a.b", Duration.seconds(1), 5, SpeedTestStatistics.create(200, 210, 190, 205, 195), null);
+
+                runner.test("with no bench.json file",
+                    (TestResources resources) -> Tuple.create(resources.createFakeDesktopProcess()),
+                    (Test test, FakeDesktopProcess process) ->
+                {
+                    final File benchJsonFile = BenchJSON.getFile(process.getCurrentFolder());
+                    final InMemoryCharacterToByteStream output = InMemoryCharacterToByteStream.create();
+
+                    test.assertEqual(0, BenchmarkBaselines.update(Iterable.create(fastResult), benchJsonFile, javaVersion, 10, false, output));
+
+                    final BenchJSON benchJson = BenchJSON.parse(benchJsonFile).await();
+                    test.assertEqual(javaVersion, benchJson.getJavaVersion().await());
+                    test.assertEqual(Iterable.create("a.b"), benchJson.getTestFullNames());
+                    test.assertEqual(100.0, benchJson.getBaseline("a.b").getMean());
+                    test.assertEqual(100.0, benchJson.getLatest("a.b").getMean());
+                    test.assertEqual(5, benchJson.getBaseline("a.b").getCount());
+                });
+
+                runner.test("with a regression",
+                    (TestResources resources) -> Tuple.create(resources.createFakeDesktopProcess()),
+                    (Test test, FakeDesktopProcess process) ->
+                {
+                    final File benchJsonFile = BenchJSON.getFile(process.getCurrentFolder());
+                    final InMemoryCharacterToByteStream output = InMemoryCharacterToByteStream.create();
+                    BenchmarkBaselines.update(Iterable.create(fastResult), benchJsonFile, javaVersion, 10, false, output);
+
+                    test.assertEqual(1, BenchmarkBaselines.update(Iterable.create(slowResult), benchJsonFile, javaVersion, 10, false, output));
+
+                    final BenchJSON benchJson = BenchJSON.parse(benchJsonFile).await();
+                    test.assertEqual(100.0, benchJson.getBaseline("a.b").getMean());
+                    test.assertEqual(200.0, benchJson.getLatest("a.b").getMean());
+                });
+
+                runner.test("with a regression and updateBaseline",
+                    (TestResources resources) -> Tuple.create(resources.createFakeDesktopProcess()),
+                    (Test test, FakeDesktopProcess process) ->
+                {
+                    final File benchJsonFile = BenchJSON.getFile(process.getCurrentFolder());
+                    final InMemoryCharacterToByteStream output = InMemoryCharacterToByteStream.create();
+                    BenchmarkBaselines.update(Iterable.create(fastResult), benchJsonFile, javaVersion, 10, false, output);
+
+                    test.assertEqual(0, BenchmarkBaselines.update(Iterable.create(slowResult), benchJsonFile, javaVersion, 10, true, output));
+
+                    final BenchJSON benchJson = BenchJSON.parse(benchJsonFile).await();
+                    test.assertEqual(200.0, benchJson.getBaseline("a.b").getMean());
+                });
+
+                runner.test("with baselines from a different Java version",
+                    (TestResources resources) -> Tuple.create(resources.createFakeDesktopProcess()),
+                    (Test test, FakeDesktopProcess process) ->
+                {
+                    final File benchJsonFile = BenchJSON.getFile(process.getCurrentFolder());
+                    final InMemoryCharacterToByteStream output = InMemoryCharacterToByteStream.create();
+                    BenchmarkBaselines.update(Iterable.create(fastResult), benchJsonFile, javaVersion, 10, false, output);
+
+                    test.assertEqual(0, BenchmarkBaselines.update(Iterable.create(slowResult), benchJsonFile, VersionNumber.parse("17").await(), 10, false, output));
+
+                    final BenchJSON benchJson = BenchJSON.parse(benchJsonFile).await();
+                    test.assertEqual(javaVersion, benchJson.getJavaVersion().await());
+                    test.assertEqual(100.0, benchJson.getBaseline("a.b").getMean());
+                    test.assertEqual(200.0, benchJson.getLatest("a.b").getMean());
+                });
+            });
+        });
+    }
+}
@@ -0,0 +1,91 @@
+package qub;
+
+public interface BenchmarkComparisonTests
+{
+    static void test(TestRunner runner)
+    {
+        PreCondition.assertNotNull(runner, "runner");
+
+        runner.testGroup(BenchmarkComparison.class, () ->
+        {
+            runner.testGroup("parseThresholdPercent(String)", () ->
+            {
+                runner.test("with empty", (Test test) ->
+                {
+                    test.assertNull(BenchmarkComparison.parseThresholdPercent("").await());
+                });
+
+                runner.test("with 15", (Test test) ->
+                {
+                    test.assertEqual(15, BenchmarkComparison.parseThresholdPercent("15").await());
+                });
+
+                runner.test("with 15%", (Test test) ->
+                {
+                    test.assertEqual(15, BenchmarkComparison.parseThresholdPercent("15%").await());
+                });
+
+                runner.test("with -5", (Test test) ->
+                {
+                    test.assertThrows(() -> BenchmarkComparison.parseThresholdPercent("-5").await(),
+                        new IllegalArgumentException("A regression threshold cannot be negative: -5"));
+                });
+            });
+
+            runner.testGroup("create(String,BenchJSONEntry,BenchJSONEntry,int)", () ->
+            {
+                final BenchJSONEntry baseline = BenchJSONEntry.create(SpeedTestStatistics.create(100, 110, 90, 105, 95));
+
+                runner.test("with no change", (Test test) ->
+                {
+                    final BenchmarkComparison comparison = BenchmarkComparison.create("a.b", baseline, baseline, 10);
+                    test.assertEqual("a.b", comparison.getTestFullName());
+                    test.assertEqual(0.0, comparison.getChangePercent());
+                    test.assertEqual(0.0, comparison.getTStatistic());
+                    test.assertFalse(comparison.isRegressed());
+                });
+
+                runner.test("with a significant slowdown past the threshold", (Test test) ->
+                {
+                    final BenchJSONEntry current = BenchJSONEntry.create(SpeedTestStatistics.create(200, 210, 190, 205, 195));
+                    final BenchmarkComparison comparison = BenchmarkComparison.create("a.b", baseline, current, 10);
+                    test.assertEqual(100.0, comparison.getChangePercent());
+                    test.assertTrue(comparison.getTStatistic() > 0);
+                    test.assertTrue(comparison.isRegressed());
+                });
+
+                runner.test("with a significant slowdown under the threshold", (Test test) ->
+                {
+                    final BenchJSONEntry current = BenchJSONEntry.create(SpeedTestStatistics.create(200, 210, 190, 205, 195));
+                    final BenchmarkComparison comparison = BenchmarkComparison.create("a.b", baseline, current, 150);
+                    test.assertFalse(comparison.isRegressed());
+                });
+
+                runner.test("with a noisy slowdown past the threshold", (Test test) ->
+                {
+                    final BenchJSONEntry current = BenchJSONEntry.create(SpeedTestStatistics.create(10, 300, 20, 250, 15));
+                    final BenchmarkComparison comparison = BenchmarkComparison.create("a.b", baseline, current, 10);
+                    test.assertTrue(comparison.getChangePercent() > 10);
+                    test.assertFalse(comparison.isRegressed());
+                });
+
+                runner.test("with a speedup", (Test test) ->
+                {
+                    final BenchJSONEntry current = BenchJSONEntry.create(SpeedTestStatistics.create(50, 55, 45, 52, 48));
+                    final BenchmarkComparison comparison = BenchmarkComparison.create("a.b", baseline, current, 10);
+                    test.assertEqual(-50.0, comparison.getChangePercent());
+                    test.assertFalse(comparison.isRegressed());
+                });
+
+                runner.test("with no variance and a slowdown past the threshold", (Test test) ->
+                {
+                    final BenchmarkComparison comparison = BenchmarkComparison.create("a.b",
+                        BenchJSONEntry.create(SpeedTestStatistics.create(100, 100)),
+                        BenchJSONEntry.create(SpeedTestStatistics.create(120, 120)),
+                        10);
+                    test.assertTrue(comparison.isRegressed());
+                });
+            });
+        });
+    }
+}
@@ -0,0 +1,120 @@
+package qub;
+
+public interface BuildJSONSnapshotTests
+{
+    static void test(TestRunner runner)
+    {
+        PreCondition.assertNotNull(runner, "runner");
+
+        runner.testGroup(BuildJSONSnapshot.class, () ->
+        {
+            final String previousBuildJson = Strings.join('\n', Iterable.create(
+                "{",
+                "  \"javacVersion\": \"17\",",
+                "  \"javaFiles\": {",
+                "    \"sources/a/A.java\": { \"lastModified\": \"1\" },",
+                "    \"sources/a/B.java\": { \"lastModified\": \"1\", \"dependencies\": [\"sources/a/A.java\"] },",
+                "    \"tests/a/BTests.java\": { \"lastModified\": \"1\", \"dependencies\": [\"sources/a/B.java\"] },",
+                "    \"sources/a/C.java\": { \"lastModified\": \"1\" },",
+                "    \"sources/a/D.java\": { \"lastModified\": \"1\" },",
+                "    \"tests/a/DTests.java\": { \"lastModified\": \"1\", \"dependencies\": [\"sources/a/D.java\"] }",
+                "  }",
+                "}"));
+
+            runner.testGroup("create(JSONObject,String)", () ->
+            {
+                runner.test("with null buildJson", (Test test) ->
+                {
+                    test.assertThrows(() -> BuildJSONSnapshot.create(null, "abc"),
+                        new PreConditionFailure("buildJson cannot be null."));
+                });
+
+                runner.test("with empty testJsonHash", (Test test) ->
+                {
+                    test.assertThrows(() -> BuildJSONSnapshot.create(JSONObject.create(), ""),
+                        new PreConditionFailure("testJsonHash cannot be empty."));
+                });
+
+                runner.test("with valid arguments", (Test test) ->
+                {
+                    final BuildJSONSnapshot snapshot = BuildJSONSnapshot.create(JSON.parseObject(previousBuildJson).await(), "abc");
+                    test.assertEqual("abc", snapshot.getTestJsonHash());
+                });
+            });
+
+            runner.test("getFile(Folder,Folder)",
+                (TestResources resources) -> Tuple.create(resources.createFakeDesktopProcess()),
+                (Test test, FakeDesktopProcess process) ->
+            {
+                final Folder dataFolder = process.getCurrentFolder().getFolder("data").await();
+                final File snapshotFile = BuildJSONSnapshot.getFile(dataFolder, process.getCurrentFolder().getFolder("project").await());
+                test.assertEqual(dataFolder.getFolder("buildsnapshots").await(), snapshotFile.getParentFolder().await());
+                test.assertEqual(".json", snapshotFile.getFileExtension());
+            });
+
+            runner.test("parse(File)",
+                (TestResources resources) -> Tuple.create(resources.createFakeDesktopProcess()),
+                (Test test, FakeDesktopProcess process) ->
+            {
+                final File snapshotFile = process.getCurrentFolder().getFile("snapshot.json").await();
+                snapshotFile.setContentsAsString(BuildJSONSnapshot.create(JSON.parseObject(previousBuildJson).await(), "abc").toString()).await();
+
+                final BuildJSONSnapshot snapshot = BuildJSONSnapshot.parse(snapshotFile).await();
+                test.assertEqual("abc", snapshot.getTestJsonHash());
+                final Map<String,Boolean> recompiledSources = snapshot.getRecompiledSources(JSON.parseObject(previousBuildJson).await());
+                test.assertEqual(6, recompiledSources.getCount());
+                for (final String sourceRelativePath : recompiledSources.getKeys())
+                {
+                    test.assertEqual(false, recompiledSources.get(sourceRelativePath).await());
+                }
+            });
+
+            runner.testGroup("getRecompiledSources(JSONObject)", () ->
+            {
+                final BuildJSONSnapshot snapshot = BuildJSONSnapshot.create(JSON.parseObject(previousBuildJson).await(), "abc");
+
+                runner.test("with null", (Test test) ->
+                {
+                    test.assertThrows(() -> snapshot.getRecompiledSources(null),
+                        new PreConditionFailure("currentBuildJson cannot be null."));
+                });
+
+                runner.test("with different settings", (Test test) ->
+                {
+                    final JSONObject currentBuildJson = JSON.parseObject(previousBuildJson.replace("\"17\"", "\"21\"")).await();
+                    test.assertNull(snapshot.getRecompiledSources(currentBuildJson));
+                });
+
+                runner.test("with no javaFiles", (Test test) ->
+                {
+                    final JSONObject currentBuildJson = JSON.parseObject("{\"javacVersion\": \"17\"}").await();
+                    test.assertNull(snapshot.getRecompiledSources(currentBuildJson));
+                });
+
+                runner.test("with changed and deleted source files", (Test test) ->
+                {
+                    final JSONObject currentBuildJson = JSON.parseObject(Strings.join('\n', Iterable.create(
+                        "{",
+                        "  \"javacVersion\": \"17\",",
+                        "  \"javaFiles\": {",
+                        "    \"sources/a/A.java\": { \"lastModified\": \"2\" },",
+                        "    \"sources/a/B.java\": { \"lastModified\": \"1\", \"dependencies\": [\"sources/a/A.java\"] },",
+                        "    \"tests/a/BTests.java\": { \"lastModified\": \"1\", \"dependencies\": [\"sources/a/B.java\"] },",
+                        "    \"sources/a/C.java\": { \"lastModified\": \"1\" },",
+                        "    \"tests/a/DTests.java\": { \"lastModified\": \"1\", \"dependencies\": [\"sources/a/D.java\"] },",
+                        "    \"tests/a/ETests.java\": { \"lastModified\": \"1\" }",
+                        "  }",
+                        "}"))).await();
+                    final Map<String,Boolean> recompiledSources = snapshot.getRecompiledSources(currentBuildJson);
+                    test.assertEqual(true, recompiledSources.get("sources/a/A.java").await());
+                    test.assertEqual(true, recompiledSources.get("sources/a/B.java").await());
+                    test.assertEqual(true, recompiledSources.get("tests/a/BTests.java").await());
+                    test.assertEqual(false, recompiledSources.get("sources/a/C.java").await());
+                    test.assertEqual(true, recompiledSources.get("tests/a/DTests.java").await());
+                    test.assertEqual(true, recompiledSources.get("tests/a/ETests.java").await());
+                    test.assertFalse(recompiledSources.containsKey("sources/a/D.java"));
+                });
+            });
+        });
+    }
+}
@@ -0,0 +1,168 @@
+package qub;
+
+public interface ClassDataSharingArchiveTests
+{
+    static void test(TestRunner runner)
+    {
+        PreCondition.assertNotNull(runner, "runner");
+
+        runner.testGroup(ClassDataSharingArchive.class, () ->
+        {
+            runner.testGroup("create(Folder)", () ->
+            {
+                runner.test("with null", (Test test) ->
+                {
+                    test.assertThrows(() -> ClassDataSharingArchive.create(null),
+                        new PreConditionFailure("archiveFolder cannot be null."));
+                });
+
+                runner.test("with non-null",
+                    (TestResources resources) -> Tuple.create(resources.createFakeDesktopProcess()),
+                    (Test test, FakeDesktopProcess process) ->
+                {
+                    final Folder archiveFolder = process.getCurrentFolder().getFolder("cds").await();
+                    final ClassDataSharingArchive archive = ClassDataSharingArchive.create(archiveFolder);
+                    test.assertEqual(archiveFolder, archive.getArchiveFolder());
+                    test.assertEqual(archiveFolder.getFile("archive.json").await(), archive.getArchiveJsonFile());
+                    test.assertEqual(archiveFolder.getFile("startup.txt").await(), archive.getStartupFile());
+                    test.assertEqual(archiveFolder.getFile("0123456789abcdef.jsa").await(), archive.getArchiveFile("0123456789abcdef0123", false));
+                    test.assertEqual(archiveFolder.getFile("0123456789abcdef.aot").await(), archive.getArchiveFile("0123456789abcdef0123", true));
+                });
+            });
+
+            runner.testGroup("supportsAOTCache(VersionNumber) and supportsDynamicArchive(VersionNumber)", () ->
+            {
+                final Action3<String,Boolean,Boolean> supportsTest = (String javaVersion, Boolean expectedAOTCache, Boolean expectedDynamicArchive) ->
+                {
+                    runner.test("with " + Strings.escapeAndQuote(javaVersion), (Test test) ->
+                    {
+                        final VersionNumber version = VersionNumber.parse(javaVersion).await();
+                        test.assertEqual(expectedAOTCache, ClassDataSharingArchive.supportsAOTCache(version));
+                        test.assertEqual(expectedDynamicArchive, ClassDataSharingArchive.supportsDynamicArchive(version));
+                    });
+                };
+
+                supportsTest.run("1.8.0", false, false);
+                supportsTest.run("11.0.2", false, false);
+                supportsTest.run("17.0.1", false, true);
+                supportsTest.run("25", true, true);
+            });
+
+            runner.test("getArchivedClassPaths(Iterable<String>,FileSystem) and getTestRunnerClassPaths(Iterable<String>,FileSystem)",
+                (TestResources resources) -> Tuple.create(resources.createFakeDesktopProcess()),
+                (Test test, FakeDesktopProcess process) ->
+            {
+                final Folder currentFolder = process.getCurrentFolder();
+                final Folder outputFolder = currentFolder.createFolder("outputs").await();
+                outputFolder.getFile("A.class").await().setContentsAsString("A").await();
+                final File aJarFile = currentFolder.getFile("a.jar").await();
+                aJarFile.setContentsAsString("a").await();
+                final File bJarFile = currentFolder.getFile("b.jar").await();
+                bJarFile.setContentsAsString("b").await();
+                final String missingClassPath = currentFolder.getFile("missing.jar").await().toString();
+                final Iterable<String> classPaths = Iterable.create(outputFolder.toString(), aJarFile.toString(), missingClassPath, bJarFile.toString());
+                final FileSystem fileSystem = currentFolder.getFileSystem();
+
+                test.assertEqual(
+                    Iterable.create(aJarFile.toString(), bJarFile.toString()),
+                    ClassDataSharingArchive.getArchivedClassPaths(classPaths, fileSystem));
+                test.assertEqual(
+                    Iterable.create(aJarFile.toString(), bJarFile.toString(), outputFolder.toString(), missingClassPath),
+                    ClassDataSharingArchive.getTestRunnerClassPaths(classPaths, fileSystem));
+            });
+
+            runner.test("getKey(VersionNumber,Iterable<String>,FileSystem)",
+                (TestResources resources) -> Tuple.create(resources.createFakeDesktopProcess()),
+                (Test test, FakeDesktopProcess process) ->
+            {
+                final Folder currentFolder = process.getCurrentFolder();
+                final File aJarFile = currentFolder.getFile("a.jar").await();
+                aJarFile.setContentsAsString("a").await();
+                final File bJarFile = currentFolder.getFile("b.jar").await();
+                bJarFile.setContentsAsString("b").await();
+                final VersionNumber javaVersion = VersionNumber.parse("17.0.1").await();
+                final FileSystem fileSystem = currentFolder.getFileSystem();
+
+                final String key = ClassDataSharingArchive.getKey(javaVersion, Iterable.create(aJarFile.toString()), fileSystem);
+                test.assertEqual(key, ClassDataSharingArchive.getKey(javaVersion, Iterable.create(aJarFile.toString()), fileSystem));
+                test.assertNotEqual(key, ClassDataSharingArchive.getKey(VersionNumber.parse("21.0.1").await(), Iterable.create(aJarFile.toString()), fileSystem));
+                test.assertNotEqual(key, ClassDataSharingArchive.getKey(javaVersion, Iterable.create(bJarFile.toString()), fileSystem));
+                test.assertNotEqual(key, ClassDataSharingArchive.getKey(javaVersion, Iterable.create(aJarFile.toString(), bJarFile.toString()), fileSystem));
+            });
+
+            runner.test("train(ProcessFactory,File,boolean,Iterable<String>,Iterable<String>,Folder)",
+                (TestResources resources) -> Tuple.create(resources.createFakeDesktopProcess()),
+                (Test test, FakeDesktopProcess process) ->
+            {
+                final Folder currentFolder = process.getCurrentFolder();
+                final Folder outputFolder = currentFolder.createFolder("outputs").await();
+                final File aJarFile = currentFolder.getFile("a.jar").await();
+                aJarFile.setContentsAsString("a").await();
+                final ClassDataSharingArchive archive = ClassDataSharingArchive.create(currentFolder.getFolder("cds").await());
+                final File archiveFile = archive.getArchiveFile("0123456789abcdef0123", false);
+                process.getProcessFactory()
+                    .add(new FakeConsoleTestRunnerProcessRun()
+                        .setWorkingFolder(currentFolder)
+                        .addArguments("-Xmx512m", "-XX:ArchiveClassesAtExit=" + archiveFile)
+                        .addClasspath(Iterable.create(aJarFile.toString()))
+                        .addConsoleTestRunnerFullClassName()
+                        .addTestJson(false)
+                        .addOutputFolder(outputFolder)
+                        .addStartupFile(archive.getStartupFile())
+                        .setFunction((ByteWriteStream functionOutput) ->
+                        {
+                            archiveFile.setContentsAsString("archive").await();
+                            archive.getStartupFile().setContentsAsString("321").await();
+                        }));
+
+                final Integer exitCode = archive.train(process.getProcessFactory(), archiveFile, false, Iterable.create("-Xmx512m"), Iterable.create(aJarFile.toString()), outputFolder).await();
+
+                test.assertEqual(0, exitCode);
+                test.assertTrue(archiveFile.exists().await());
+                test.assertEqual(321, archive.takeStartupMilliseconds());
+            });
+
+            runner.test("setBaselineStartupMilliseconds(String,int) and getBaselineStartupMilliseconds(String)",
+                (TestResources resources) -> Tuple.create(resources.createFakeDesktopProcess()),
+                (Test test, FakeDesktopProcess process) ->
+            {
+                final ClassDataSharingArchive archive = ClassDataSharingArchive.create(process.getCurrentFolder().getFolder("cds").await());
+                test.assertNull(archive.getBaselineStartupMilliseconds("key"));
+
+                archive.setBaselineStartupMilliseconds("key", 250).await();
+                test.assertEqual(250, archive.getBaselineStartupMilliseconds("key"));
+                test.assertNull(archive.getBaselineStartupMilliseconds("other-key"));
+            });
+
+            runner.test("takeStartupMilliseconds()",
+                (TestResources resources) -> Tuple.create(resources.createFakeDesktopProcess()),
+                (Test test, FakeDesktopProcess process) ->
+            {
+                final ClassDataSharingArchive archive = ClassDataSharingArchive.create(process.getCurrentFolder().getFolder("cds").await());
+                test.assertNull(archive.takeStartupMilliseconds());
+
+                archive.getStartupFile().setContentsAsString("123").await();
+                test.assertEqual(123, archive.takeStartupMilliseconds());
+                test.assertFalse(archive.getStartupFile().exists().await());
+            });
+
+            runner.test("deleteStaleArchives(String)",
+                (TestResources resources) -> Tuple.create(resources.createFakeDesktopProcess()),
+                (Test test, FakeDesktopProcess process) ->
+            {
+                final ClassDataSharingArchive archive = ClassDataSharingArchive.create(process.getCurrentFolder().getFolder("cds").await());
+                final File currentArchiveFile = archive.getArchiveFile("0123456789abcdef0123", false);
+                currentArchiveFile.setContentsAsString("current").await();
+                final File staleArchiveFile = archive.getArchiveFile("fedcba98765432100123", true);
+                staleArchiveFile.setContentsAsString("stale").await();
+                archive.setBaselineStartupMilliseconds("0123456789abcdef0123", 100).await();
+
+                archive.deleteStaleArchives("0123456789abcdef0123").await();
+
+                test.assertTrue(currentArchiveFile.exists().await());
+                test.assertFalse(staleArchiveFile.exists().await());
+                test.assertTrue(archive.getArchiveJsonFile().exists().await());
+            });
+        });
+    }
+}
@@ -0,0 +1,112 @@
+package qub;
+
+public interface ClassFileReferencesTests
+{
+    static void test(TestRunner runner)
+    {
+        PreCondition.assertNotNull(runner, "runner");
+
+        runner.testGroup(ClassFileReferences.class, () ->
+        {
+            runner.testGroup("getReferencedClassNames(byte[])", () ->
+            {
+                runner.test("with null", (Test test) ->
+                {
+                    test.assertThrows(() -> ClassFileReferences.getReferencedClassNames(null),
+                        new PreConditionFailure("classFileBytes cannot be null."));
+                });
+
+                runner.test("with bytes that aren't a class file", (Test test) ->
+                {
+                    test.assertThrows(() -> ClassFileReferences.getReferencedClassNames(new byte[] { 1, 2, 3, 4, 5, 6, 7, 8 }).await(),
+                        new ParseException("The provided bytes are not a class file."));
+                });
+
+                runner.test("with truncated constant pool", (Test test) ->
+                {
+                    final byte[] classFileBytes = ClassFileReferencesTests.createClassFileBytes((java.io.DataOutputStream constantPool) ->
+                    {
+                        constantPool.writeByte(1);
+                        constantPool.writeUTF("a/B");
+                    }, 3);
+                    test.assertThrows(() -> ClassFileReferences.getReferencedClassNames(classFileBytes).await(),
+                        new ParseException("The class file ended before its constant pool did."));
+                });
+
+                runner.test("with class and descriptor references", (Test test) ->
+                {
+                    final byte[] classFileBytes = ClassFileReferencesTests.createClassFileBytes((java.io.DataOutputStream constantPool) ->
+                    {
+                        constantPool.writeByte(1); // #1 Utf8
+                        constantPool.writeUTF("a/b/Tests");
+                        constantPool.writeByte(7); // #2 Class
+                        constantPool.writeShort(1);
+                        constantPool.writeByte(5); // #3 and #4 Long
+                        constantPool.writeLong(50);
+                        constantPool.writeByte(1); // #5 Utf8
+                        constantPool.writeUTF("(La/b/Helper;I)Ljava/util/List<La/b/Item$Nested;>;");
+                        constantPool.writeByte(7); // #6 Class
+                        constantPool.writeShort(7);
+                        constantPool.writeByte(1); // #7 Utf8
+                        constantPool.writeUTF("[La/b/Element;");
+                        constantPool.writeByte(8); // #8 String
+                        constantPool.writeShort(9);
+                        constantPool.writeByte(1); // #9 Utf8
+                        constantPool.writeUTF("Loading...");
+                    }, 10);
+                    test.assertEqual(
+                        Iterable.create("a.b.Tests", "a.b.Element", "a.b.Helper", "java.util.List", "a.b.Item$Nested"),
+                        ClassFileReferences.getReferencedClassNames(classFileBytes).await());
+                });
+            });
+
+            runner.testGroup("addDescriptorClassNames(String,Action1<String>)", () ->
+            {
+                final Action2<String,Iterable<String>> addDescriptorClassNamesTest = (String descriptor, Iterable<String> expected) ->
+                {
+                    runner.test("with " + Strings.escapeAndQuote(descriptor), (Test test) ->
+                    {
+                        final List<String> internalNames = List.create();
+                        ClassFileReferences.addDescriptorClassNames(descriptor, internalNames::add);
+                        test.assertEqual(expected, internalNames);
+                    });
+                };
+
+                addDescriptorClassNamesTest.run("", Iterable.create());
+                addDescriptorClassNamesTest.run("I", Iterable.create());
+                addDescriptorClassNamesTest.run("Ljava/lang/String;", Iterable.create("java/lang/String"));
+                addDescriptorClassNamesTest.run("(IJ)V", Iterable.create());
+                addDescriptorClassNamesTest.run("(ILa/B;J)V", Iterable.create("a/B"));
+                addDescriptorClassNamesTest.run("([Ljava/lang/String;)La/B;", Iterable.create("java/lang/String", "a/B"));
+                addDescriptorClassNamesTest.run("<T:Ljava/lang/Object;>(TT;)La/B<TT;>.C;", Iterable.create("java/lang/Object", "a/B"));
+                addDescriptorClassNamesTest.run("Ljava/util/Map<+La/K;*>;", Iterable.create("java/util/Map", "a/K"));
+                addDescriptorClassNamesTest.run("Loading", Iterable.create());
+            });
+        });
+    }
+
+    interface ConstantPoolWriter
+    {
+        void write(java.io.DataOutputStream constantPool) throws java.io.IOException;
+    }
+
+    static byte[] createClassFileBytes(ConstantPoolWriter writeConstantPool, int constantPoolCount)
+    {
+        try
+        {
+            final java.io.ByteArrayOutputStream bytes = new java.io.ByteArrayOutputStream();
+            final java.io.DataOutputStream output = new java.io.DataOutputStream(bytes);
+            output.writeInt(0xCAFEBABE);
+            output.writeShort(0);
+            output.writeShort(52);
+            output.writeShort(constantPoolCount);
+            writeConstantPool.write(output);
+            output.flush();
+            return bytes.toByteArray();
+        }
+        catch (java.io.IOException e)
+        {
+            throw new RuntimeException(e);
+        }
+    }
+}
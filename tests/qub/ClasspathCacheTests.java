@@ -0,0 +1,85 @@
+package qub;
+
+public interface ClasspathCacheTests
+{
+    static void test(TestRunner runner)
+    {
+        PreCondition.assertNotNull(runner, "runner");
+
+        runner.testGroup(ClasspathCache.class, () ->
+        {
+            runner.testGroup("create(File)", () ->
+            {
+                runner.test("with null", (Test test) ->
+                {
+                    test.assertThrows(() -> ClasspathCache.create(null),
+                        new PreConditionFailure("cacheFile cannot be null."));
+                });
+
+                runner.test("with non-null",
+                    (TestResources resources) -> Tuple.create(resources.createFakeDesktopProcess()),
+                    (Test test, FakeDesktopProcess process) ->
+                {
+                    final File cacheFile = process.getCurrentFolder().getFile("classpath.json").await();
+                    final ClasspathCache cache = ClasspathCache.create(cacheFile);
+                    test.assertEqual(cacheFile, cache.getCacheFile());
+                });
+            });
+
+            runner.testGroup("getKey(String,Iterable<ProjectSignature>,QubFolder,String)", () ->
+            {
+                runner.test("changes when its inputs change",
+                    (TestResources resources) -> Tuple.create(resources.createFakeDesktopProcess()),
+                    (Test test, FakeDesktopProcess process) ->
+                {
+                    final QubFolder qubFolder = process.getQubFolder().await();
+                    final String key = ClasspathCache.getKey("{}", Iterable.create(), qubFolder, "/a.jar");
+                    test.assertEqual(key, ClasspathCache.getKey("{}", Iterable.create(), qubFolder, "/a.jar"));
+                    test.assertNotEqual(key, ClasspathCache.getKey("{\"java\":{}}", Iterable.create(), qubFolder, "/a.jar"));
+                    test.assertNotEqual(key, ClasspathCache.getKey("{}", Iterable.create(), qubFolder, "/b.jar"));
+                });
+            });
+
+            runner.testGroup("get(String)", () ->
+            {
+                runner.test("with no cache file",
+                    (TestResources resources) -> Tuple.create(resources.createFakeDesktopProcess()),
+                    (Test test, FakeDesktopProcess process) ->
+                {
+                    final ClasspathCache cache = ClasspathCache.create(process.getCurrentFolder().getFile("classpath.json").await());
+                    test.assertNull(cache.get("key"));
+                });
+
+                runner.test("with matching key and existing entries",
+                    (TestResources resources) -> Tuple.create(resources.createFakeDesktopProcess()),
+                    (Test test, FakeDesktopProcess process) ->
+                {
+                    final Folder currentFolder = process.getCurrentFolder();
+                    final Folder outputFolder = currentFolder.createFolder("outputs").await();
+                    final File jarFile = currentFolder.getFile("a.jar").await();
+                    jarFile.setContentsAsString("jar").await();
+                    final ClasspathCache cache = ClasspathCache.create(currentFolder.getFile("classpath.json").await());
+
+                    cache.set("key", Iterable.create(outputFolder.toString(), jarFile.toString())).await();
+
+                    test.assertEqual(Iterable.create(outputFolder.toString(), jarFile.toString()), cache.get("key"));
+                    test.assertNull(cache.get("other-key"));
+                });
+
+                runner.test("with a missing entry",
+                    (TestResources resources) -> Tuple.create(resources.createFakeDesktopProcess()),
+                    (Test test, FakeDesktopProcess process) ->
+                {
+                    final Folder currentFolder = process.getCurrentFolder();
+                    final Folder outputFolder = currentFolder.createFolder("outputs").await();
+                    final File jarFile = currentFolder.getFile("a.jar").await();
+                    final ClasspathCache cache = ClasspathCache.create(currentFolder.getFile("classpath.json").await());
+
+                    cache.set("key", Iterable.create(outputFolder.toString(), jarFile.toString())).await();
+
+                    test.assertNull(cache.get("key"));
+                });
+            });
+        });
+    }
+}
@@ -0,0 +1,144 @@
+package qub;
+
+public interface CompilePipelineTests
+{
+    static void test(TestRunner runner)
+    {
+        PreCondition.assertNotNull(runner, "runner");
+
+        runner.testGroup(CompilePipeline.class, () ->
+        {
+            runner.testGroup("create(Folder,Iterable<Folder>,DateTime)", () ->
+            {
+                runner.test("with null compileStartTime",
+                    (TestResources resources) -> Tuple.create(resources.createFakeDesktopProcess()),
+                    (Test test, FakeDesktopProcess process) ->
+                {
+                    test.assertThrows(() -> CompilePipeline.create(process.getCurrentFolder(), Iterable.create(), null),
+                        new PreConditionFailure("compileStartTime cannot be null."));
+                });
+            });
+
+            runner.testGroup("isReady(String)", () ->
+            {
+                runner.test("with a class that hasn't been written",
+                    (TestResources resources) -> Tuple.create(resources.createFakeDesktopProcess()),
+                    (Test test, FakeDesktopProcess process) ->
+                {
+                    final Folder outputFolder = process.getCurrentFolder().getFolder("outputs").await();
+                    final CompilePipeline compilePipeline = CompilePipeline.create(outputFolder, Iterable.create(), process.getClock().getCurrentDateTime());
+
+                    test.assertFalse(compilePipeline.isReady("ATests"));
+                    compilePipeline.nextPoll();
+                    test.assertFalse(compilePipeline.isReady("ATests"));
+                });
+
+                runner.test("with a written class",
+                    (TestResources resources) -> Tuple.create(resources.createFakeDesktopProcess()),
+                    (Test test, FakeDesktopProcess process) ->
+                {
+                    final Folder outputFolder = process.getCurrentFolder().getFolder("outputs").await();
+                    final File classFile = outputFolder.getFile("ATests.class").await();
+                    classFile.setContents(CompilePipelineTests.createClassFileBytes("ATests")).await();
+                    final CompilePipeline compilePipeline = CompilePipeline.create(outputFolder, Iterable.create(), classFile.getLastModified().await());
+
+                    // A class file is only completely written once its size is the same in two
+                    // polls.
+                    test.assertFalse(compilePipeline.isReady("ATests"));
+                    compilePipeline.nextPoll();
+                    test.assertTrue(compilePipeline.isReady("ATests"));
+                });
+
+                runner.test("with a class that is still being written",
+                    (TestResources resources) -> Tuple.create(resources.createFakeDesktopProcess()),
+                    (Test test, FakeDesktopProcess process) ->
+                {
+                    final Folder outputFolder = process.getCurrentFolder().getFolder("outputs").await();
+                    final File classFile = outputFolder.getFile("ATests.class").await();
+                    final byte[] classFileBytes = CompilePipelineTests.createClassFileBytes("ATests");
+                    classFile.setContents(java.util.Arrays.copyOf(classFileBytes, 8)).await();
+                    final CompilePipeline compilePipeline = CompilePipeline.create(outputFolder, Iterable.create(), classFile.getLastModified().await());
+
+                    test.assertFalse(compilePipeline.isReady("ATests"));
+                    compilePipeline.nextPoll();
+                    classFile.setContents(classFileBytes).await();
+                    test.assertFalse(compilePipeline.isReady("ATests"));
+                    compilePipeline.nextPoll();
+                    test.assertTrue(compilePipeline.isReady("ATests"));
+                });
+
+                runner.test("with a class that is unchanged from a previous compilation",
+                    (TestResources resources) -> Tuple.create(resources.createFakeDesktopProcess()),
+                    (Test test, FakeDesktopProcess process) ->
+                {
+                    final Folder outputFolder = process.getCurrentFolder().getFolder("outputs").await();
+                    final File classFile = outputFolder.getFile("ATests.class").await();
+                    classFile.setContents(CompilePipelineTests.createClassFileBytes("ATests")).await();
+                    final DateTime compileStartTime = classFile.getLastModified().await().plus(Duration.seconds(1));
+                    final CompilePipeline compilePipeline = CompilePipeline.create(outputFolder, Iterable.create(), compileStartTime);
+
+                    test.assertFalse(compilePipeline.isReady("ATests"));
+                    compilePipeline.nextPoll();
+                    test.assertFalse(compilePipeline.isReady("ATests"));
+                });
+
+                runner.test("with a class that is waiting on a dependency",
+                    (TestResources resources) -> Tuple.create(resources.createFakeDesktopProcess()),
+                    (Test test, FakeDesktopProcess process) ->
+                {
+                    final Folder outputFolder = process.getCurrentFolder().getFolder("outputs").await();
+                    final Folder sourceFolder = process.getCurrentFolder().getFolder("sources").await();
+                    sourceFolder.createFile("A.java").await();
+                    final File testClassFile = outputFolder.getFile("ATests.class").await();
+                    testClassFile.setContents(CompilePipelineTests.createClassFileBytes("ATests", "A")).await();
+                    final CompilePipeline compilePipeline = CompilePipeline.create(outputFolder, Iterable.create(sourceFolder), testClassFile.getLastModified().await());
+
+                    test.assertFalse(compilePipeline.isReady("ATests"));
+                    compilePipeline.nextPoll();
+                    test.assertFalse(compilePipeline.isReady("ATests"));
+
+                    outputFolder.getFile("A.class").await()
+                        .setContents(CompilePipelineTests.createClassFileBytes("A")).await();
+                    compilePipeline.nextPoll();
+                    test.assertFalse(compilePipeline.isReady("ATests"));
+                    compilePipeline.nextPoll();
+                    test.assertTrue(compilePipeline.isReady("ATests"));
+                });
+
+                runner.test("with a class that refers to a class outside of the project",
+                    (TestResources resources) -> Tuple.create(resources.createFakeDesktopProcess()),
+                    (Test test, FakeDesktopProcess process) ->
+                {
+                    final Folder outputFolder = process.getCurrentFolder().getFolder("outputs").await();
+                    final Folder sourceFolder = process.getCurrentFolder().getFolder("sources").await();
+                    final File testClassFile = outputFolder.getFile("ATests.class").await();
+                    testClassFile.setContents(CompilePipelineTests.createClassFileBytes("ATests", "qub/Test")).await();
+                    final CompilePipeline compilePipeline = CompilePipeline.create(outputFolder, Iterable.create(sourceFolder), testClassFile.getLastModified().await());
+
+                    test.assertFalse(compilePipeline.isReady("ATests"));
+                    compilePipeline.nextPoll();
+                    test.assertTrue(compilePipeline.isReady("ATests"));
+                });
+            });
+        });
+    }
+
+    /**
+     * Create the bytes of a class file whose constant pool refers to the provided classes.
+     * @param internalClassNames The internal names of the classes that the class file refers to.
+     * @return The bytes of the class file.
+     */
+    static byte[] createClassFileBytes(String... internalClassNames)
+    {
+        return ClassFileReferencesTests.createClassFileBytes((java.io.DataOutputStream constantPool) ->
+        {
+            for (int i = 0; i < internalClassNames.length; ++i)
+            {
+                constantPool.writeByte(1); // Utf8
+                constantPool.writeUTF(internalClassNames[i]);
+                constantPool.writeByte(7); // Class
+                constantPool.writeShort(i * 2 + 1);
+            }
+        }, internalClassNames.length * 2 + 1);
+    }
+}
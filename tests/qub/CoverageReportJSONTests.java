@@ -0,0 +1,81 @@
+package qub;
+
+public interface CoverageReportJSONTests
+{
+    static void test(TestRunner runner)
+    {
+        PreCondition.assertNotNull(runner, "runner");
+
+        runner.testGroup(CoverageReportJSON.class, () ->
+        {
+            runner.test("create()", (Test test) ->
+            {
+                final CoverageReportJSON report = CoverageReportJSON.create();
+                test.assertEqual(Iterable.create(), report.getPackageNames());
+                test.assertNull(report.getPackageFingerprint("a"));
+                test.assertEqual(0, report.getPackageCounter("a", "INSTRUCTION_MISSED"));
+            });
+
+            runner.testGroup("setPackageFingerprint(String,String)", () ->
+            {
+                runner.test("with empty packageName", (Test test) ->
+                {
+                    test.assertThrows(() -> CoverageReportJSON.create().setPackageFingerprint("", "abc"),
+                        new PreConditionFailure("packageName cannot be empty."));
+                });
+
+                runner.test("with empty fingerprint", (Test test) ->
+                {
+                    test.assertThrows(() -> CoverageReportJSON.create().setPackageFingerprint("a", ""),
+                        new PreConditionFailure("fingerprint cannot be empty."));
+                });
+
+                runner.test("with valid arguments", (Test test) ->
+                {
+                    final CoverageReportJSON report = CoverageReportJSON.create();
+                    test.assertSame(report, report.setPackageFingerprint("a", "abc"));
+                    test.assertEqual("abc", report.getPackageFingerprint("a"));
+                    test.assertEqual(Iterable.create("a"), report.getPackageNames());
+                });
+            });
+
+            runner.testGroup("setPackageCounter(String,String,int)", () ->
+            {
+                runner.test("with negative value", (Test test) ->
+                {
+                    test.assertThrows(() -> CoverageReportJSON.create().setPackageCounter("a", "INSTRUCTION_MISSED", -1),
+                        new PreConditionFailure("value (-1) must be greater than or equal to 0."));
+                });
+
+                runner.test("with valid arguments", (Test test) ->
+                {
+                    final CoverageReportJSON report = CoverageReportJSON.create()
+                        .setPackageFingerprint("a", "abc");
+                    test.assertSame(report, report.setPackageCounter("a", "INSTRUCTION_MISSED", 3));
+                    test.assertEqual(3, report.getPackageCounter("a", "INSTRUCTION_MISSED"));
+                    test.assertEqual(0, report.getPackageCounter("a", "INSTRUCTION_COVERED"));
+                    test.assertEqual("abc", report.getPackageFingerprint("a"));
+                });
+            });
+
+            runner.test("parse(File)",
+                (TestResources resources) -> Tuple.create(resources.createFakeDesktopProcess()),
+                (Test test, FakeDesktopProcess process) ->
+            {
+                final File reportJsonFile = process.getCurrentFolder().getFile("report.json").await();
+                reportJsonFile.setContentsAsString(CoverageReportJSON.create()
+                    .setPackageFingerprint("a", "abc")
+                    .setPackageCounter("a", "CLASS_COVERED", 2)
+                    .setPackageFingerprint("b", "def")
+                    .toString(JSONFormat.pretty)).await();
+
+                final CoverageReportJSON report = CoverageReportJSON.parse(reportJsonFile).await();
+                test.assertEqual(Iterable.create("a", "b"), report.getPackageNames());
+                test.assertEqual("abc", report.getPackageFingerprint("a"));
+                test.assertEqual(2, report.getPackageCounter("a", "CLASS_COVERED"));
+                test.assertEqual("def", report.getPackageFingerprint("b"));
+                test.assertEqual(0, report.getPackageCounter("b", "CLASS_COVERED"));
+            });
+        });
+    }
+}
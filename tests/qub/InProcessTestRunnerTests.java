@@ -0,0 +1,52 @@
+package qub;
+
+public interface InProcessTestRunnerTests
+{
+    static void test(TestRunner runner)
+    {
+        PreCondition.assertNotNull(runner, "runner");
+
+        runner.testGroup(InProcessTestRunner.class, () ->
+        {
+            runner.testGroup("getIsolatedClassPaths(Iterable<String>,String)", () ->
+            {
+                runner.test("with null classPaths", (Test test) ->
+                {
+                    test.assertThrows(() -> InProcessTestRunner.getIsolatedClassPaths(null, "/qub-test.jar"),
+                        new PreConditionFailure("classPaths cannot be null."));
+                });
+
+                runner.test("with null jvmClassPath", (Test test) ->
+                {
+                    test.assertEqual(
+                        Iterable.create("/project/outputs", "/dependency.jar"),
+                        InProcessTestRunner.getIsolatedClassPaths(Iterable.create("/project/outputs", "/dependency.jar"), null));
+                });
+
+                runner.test("with classPaths that contain all of the jvmClassPath", (Test test) ->
+                {
+                    test.assertEqual(
+                        Iterable.create("/project/outputs", "/dependency.jar"),
+                        InProcessTestRunner.getIsolatedClassPaths(
+                            Iterable.create("/project/outputs", "/dependency.jar", "/qub-test.jar", "/lib.jar"),
+                            "/qub-test.jar;/lib.jar"));
+                });
+
+                runner.test("with classPaths that replace part of the jvmClassPath", (Test test) ->
+                {
+                    test.assertNull(InProcessTestRunner.getIsolatedClassPaths(
+                        Iterable.create("/project/outputs", "/lib-2.jar", "/qub-test.jar"),
+                        "/qub-test.jar;/lib-1.jar"));
+                });
+            });
+
+            runner.test("createClassLoader(Iterable<String>)", (Test test) ->
+            {
+                final java.net.URLClassLoader classLoader = InProcessTestRunner.createClassLoader(Iterable.create());
+                test.assertNotNull(classLoader);
+                test.assertSame(InProcessTestRunner.class.getClassLoader(), classLoader.getParent());
+                test.assertEqual(0, classLoader.getURLs().length);
+            });
+        });
+    }
+}
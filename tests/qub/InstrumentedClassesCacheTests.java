@@ -0,0 +1,181 @@
+package qub;
+
+public interface InstrumentedClassesCacheTests
+{
+    static void test(TestRunner runner)
+    {
+        PreCondition.assertNotNull(runner, "runner");
+
+        runner.testGroup(InstrumentedClassesCache.class, () ->
+        {
+            runner.testGroup("create(Folder)", () ->
+            {
+                runner.test("with null", (Test test) ->
+                {
+                    test.assertThrows(() -> InstrumentedClassesCache.create(null),
+                        new PreConditionFailure("cacheFolder cannot be null."));
+                });
+
+                runner.test("with non-null",
+                    (TestResources resources) -> Tuple.create(resources.createFakeDesktopProcess()),
+                    (Test test, FakeDesktopProcess process) ->
+                {
+                    final Folder cacheFolder = process.getCurrentFolder().getFolder("cache").await();
+                    final InstrumentedClassesCache cache = InstrumentedClassesCache.create(cacheFolder);
+                    test.assertEqual(cacheFolder, cache.getCacheFolder());
+                    test.assertEqual(cacheFolder.getFolder("classes").await(), cache.getClassesFolder());
+                    test.assertEqual(cacheFolder.getFolder("staging").await(), cache.getStagingFolder());
+                    test.assertEqual(cacheFolder.getFile("instrumented.json").await(), cache.getIndexFile());
+                });
+            });
+
+            runner.testGroup("getInstrumenterKey(File,File)", () ->
+            {
+                runner.test("changes when either jar changes",
+                    (TestResources resources) -> Tuple.create(resources.createFakeDesktopProcess()),
+                    (Test test, FakeDesktopProcess process) ->
+                {
+                    final File jacocoCliJarFile = process.getCurrentFolder().getFile("jacococli.jar").await();
+                    jacocoCliJarFile.setContentsAsString("cli 1").await();
+                    final File jacocoAgentJarFile = process.getCurrentFolder().getFile("jacocoagent.jar").await();
+                    jacocoAgentJarFile.setContentsAsString("agent 1").await();
+
+                    final String key = InstrumentedClassesCache.getInstrumenterKey(jacocoCliJarFile, jacocoAgentJarFile).await();
+                    test.assertEqual(key, InstrumentedClassesCache.getInstrumenterKey(jacocoCliJarFile, jacocoAgentJarFile).await());
+
+                    jacocoAgentJarFile.setContentsAsString("agent 2").await();
+                    final String agentChangedKey = InstrumentedClassesCache.getInstrumenterKey(jacocoCliJarFile, jacocoAgentJarFile).await();
+                    test.assertNotEqual(key, agentChangedKey);
+
+                    jacocoCliJarFile.setContentsAsString("cli 2").await();
+                    test.assertNotEqual(agentChangedKey, InstrumentedClassesCache.getInstrumenterKey(jacocoCliJarFile, jacocoAgentJarFile).await());
+                });
+            });
+
+            runner.testGroup("update(String,Folder,Iterable<File>,VerboseCharacterToByteWriteStream,Function2<Folder,Folder,Integer>)", () ->
+            {
+                runner.test("with no class files",
+                    (TestResources resources) -> Tuple.create(resources.createFakeDesktopProcess()),
+                    (Test test, FakeDesktopProcess process) ->
+                {
+                    final Folder outputFolder = process.getCurrentFolder().getFolder("outputs").await();
+                    final InstrumentedClassesCache cache = InstrumentedClassesCache.create(process.getCurrentFolder().getFolder("cache").await());
+                    final VerboseCharacterToByteWriteStream verbose = VerboseCharacterToByteWriteStream.create(process.getOutputWriteStream());
+                    final List<Folder> instrumentedStagingFolders = List.create();
+
+                    test.assertEqual(0, cache.update("jacoco-1", outputFolder, Iterable.create(), verbose, (Folder stagingFolder, Folder classesFolder) ->
+                    {
+                        instrumentedStagingFolders.add(stagingFolder);
+                        return 0;
+                    }).await());
+                    test.assertFalse(instrumentedStagingFolders.any());
+                    test.assertTrue(cache.getIndexFile().exists().await());
+                });
+
+                runner.test("only instruments class files whose contents changed",
+                    (TestResources resources) -> Tuple.create(resources.createFakeDesktopProcess()),
+                    (Test test, FakeDesktopProcess process) ->
+                {
+                    final Folder outputFolder = process.getCurrentFolder().getFolder("outputs").await();
+                    final File aClassFile = outputFolder.getFile("a/A.class").await();
+                    aClassFile.setContentsAsString("A version 1").await();
+                    final File bClassFile = outputFolder.getFile("a/B.class").await();
+                    bClassFile.setContentsAsString("B version 1").await();
+                    final InstrumentedClassesCache cache = InstrumentedClassesCache.create(process.getCurrentFolder().getFolder("cache").await());
+                    final VerboseCharacterToByteWriteStream verbose = VerboseCharacterToByteWriteStream.create(process.getOutputWriteStream());
+                    final List<String> stagedFiles = List.create();
+                    final Function2<Folder,Folder,Integer> instrumentFunction = (Folder stagingFolder, Folder classesFolder) ->
+                    {
+                        for (final File stagedFile : stagingFolder.getFilesRecursively().await())
+                        {
+                            final Path relativePath = stagedFile.relativeTo(stagingFolder);
+                            stagedFiles.add(relativePath.toString());
+                            classesFolder.getFile(relativePath).await()
+                                .setContentsAsString("instrumented " + stagedFile.getContentsAsString().await()).await();
+                        }
+                        return 0;
+                    };
+
+                    test.assertEqual(0, cache.update("jacoco-1", outputFolder, Iterable.create(aClassFile, bClassFile), verbose, instrumentFunction).await());
+                    test.assertEqual(Iterable.create("a/A.class", "a/B.class"), stagedFiles);
+                    test.assertFalse(cache.getStagingFolder().exists().await());
+
+                    stagedFiles.clear();
+                    test.assertEqual(0, cache.update("jacoco-1", outputFolder, Iterable.create(aClassFile, bClassFile), verbose, instrumentFunction).await());
+                    test.assertEqual(Iterable.create(), stagedFiles);
+
+                    bClassFile.setContentsAsString("B version 2").await();
+                    test.assertEqual(0, cache.update("jacoco-1", outputFolder, Iterable.create(aClassFile, bClassFile), verbose, instrumentFunction).await());
+                    test.assertEqual(Iterable.create("a/B.class"), stagedFiles);
+                    test.assertEqual("instrumented B version 2", cache.getClassesFolder().getFileContentsAsString("a/B.class").await());
+                });
+
+                runner.test("removes instrumented class files that are no longer requested",
+                    (TestResources resources) -> Tuple.create(resources.createFakeDesktopProcess()),
+                    (Test test, FakeDesktopProcess process) ->
+                {
+                    final Folder outputFolder = process.getCurrentFolder().getFolder("outputs").await();
+                    final File aClassFile = outputFolder.getFile("A.class").await();
+                    aClassFile.setContentsAsString("A").await();
+                    final InstrumentedClassesCache cache = InstrumentedClassesCache.create(process.getCurrentFolder().getFolder("cache").await());
+                    final VerboseCharacterToByteWriteStream verbose = VerboseCharacterToByteWriteStream.create(process.getOutputWriteStream());
+                    final Function2<Folder,Folder,Integer> instrumentFunction = (Folder stagingFolder, Folder classesFolder) ->
+                    {
+                        classesFolder.getFile("A.class").await().setContentsAsString("instrumented A").await();
+                        return 0;
+                    };
+
+                    test.assertEqual(0, cache.update("jacoco-1", outputFolder, Iterable.create(aClassFile), verbose, instrumentFunction).await());
+                    test.assertTrue(cache.getClassesFolder().fileExists("A.class").await());
+
+                    test.assertEqual(0, cache.update("jacoco-1", outputFolder, Iterable.create(), verbose, instrumentFunction).await());
+                    test.assertFalse(cache.getClassesFolder().fileExists("A.class").await());
+                });
+
+                runner.test("instruments every class file again when the instrumenter key changes",
+                    (TestResources resources) -> Tuple.create(resources.createFakeDesktopProcess()),
+                    (Test test, FakeDesktopProcess process) ->
+                {
+                    final Folder outputFolder = process.getCurrentFolder().getFolder("outputs").await();
+                    final File aClassFile = outputFolder.getFile("A.class").await();
+                    aClassFile.setContentsAsString("A").await();
+                    final InstrumentedClassesCache cache = InstrumentedClassesCache.create(process.getCurrentFolder().getFolder("cache").await());
+                    final VerboseCharacterToByteWriteStream verbose = VerboseCharacterToByteWriteStream.create(process.getOutputWriteStream());
+                    final List<String> instrumentedBy = List.create();
+                    final Function1<String,Integer> instrument = (String instrumenterKey) ->
+                        cache.update(instrumenterKey, outputFolder, Iterable.create(aClassFile), verbose, (Folder stagingFolder, Folder classesFolder) ->
+                        {
+                            instrumentedBy.add(instrumenterKey);
+                            classesFolder.getFile("A.class").await().setContentsAsString("A instrumented by " + instrumenterKey).await();
+                            return 0;
+                        }).await();
+
+                    test.assertEqual(0, instrument.run("jacoco-1"));
+                    test.assertEqual(0, instrument.run("jacoco-1"));
+                    test.assertEqual(Iterable.create("jacoco-1"), instrumentedBy);
+
+                    cache.getClassesFolder().getFile("Stale.class").await().setContentsAsString("stale").await();
+                    test.assertEqual(0, instrument.run("jacoco-2"));
+                    test.assertEqual(Iterable.create("jacoco-1", "jacoco-2"), instrumentedBy);
+                    test.assertEqual("A instrumented by jacoco-2", cache.getClassesFolder().getFileContentsAsString("A.class").await());
+                    test.assertFalse(cache.getClassesFolder().fileExists("Stale.class").await());
+                    test.assertTrue(cache.getIndexFile().getContentsAsString().await().contains("jacoco-2"));
+                });
+
+                runner.test("with failed instrumentation",
+                    (TestResources resources) -> Tuple.create(resources.createFakeDesktopProcess()),
+                    (Test test, FakeDesktopProcess process) ->
+                {
+                    final Folder outputFolder = process.getCurrentFolder().getFolder("outputs").await();
+                    final File aClassFile = outputFolder.getFile("A.class").await();
+                    aClassFile.setContentsAsString("A").await();
+                    final InstrumentedClassesCache cache = InstrumentedClassesCache.create(process.getCurrentFolder().getFolder("cache").await());
+                    final VerboseCharacterToByteWriteStream verbose = VerboseCharacterToByteWriteStream.create(process.getOutputWriteStream());
+
+                    test.assertEqual(1, cache.update("jacoco-1", outputFolder, Iterable.create(aClassFile), verbose, (Folder stagingFolder, Folder classesFolder) -> 1).await());
+                    test.assertFalse(cache.getIndexFile().exists().await());
+                });
+            });
+        });
+    }
+}
@@ -0,0 +1,57 @@
+package qub;
+
+public interface JacocoExecFileTests
+{
+    static void test(TestRunner runner)
+    {
+        PreCondition.assertNotNull(runner, "runner");
+
+        runner.testGroup(JacocoExecFile.class, () ->
+        {
+            runner.testGroup("getClassProbes(byte[])", () ->
+            {
+                runner.test("with null", (Test test) ->
+                {
+                    test.assertThrows(() -> JacocoExecFile.getClassProbes((byte[])null),
+                        new PreConditionFailure("execFileContents cannot be null."));
+                });
+
+                runner.test("with empty", (Test test) ->
+                {
+                    final MutableMap<String,String> classProbes = JacocoExecFile.getClassProbes(new byte[0]);
+                    test.assertEqual(0, classProbes.getCount());
+                });
+
+                runner.test("with header, session, and one class", (Test test) ->
+                {
+                    final byte[] execFileContents = new byte[]
+                    {
+                        0x01, (byte)0xC0, (byte)0xC0, 0x10, 0x07,
+                        0x10, 0x00, 0x01, 's', 0, 0, 0, 0, 0, 0, 0, 1, 0, 0, 0, 0, 0, 0, 0, 2,
+                        0x11, 0, 0, 0, 0, 0, 0, 0, 3, 0x00, 0x05, 'q', 'u', 'b', '/', 'A', 0x03, 0x05
+                    };
+                    final MutableMap<String,String> classProbes = JacocoExecFile.getClassProbes(execFileContents);
+                    test.assertEqual(1, classProbes.getCount());
+                    test.assertEqual("101", classProbes.get("qub.A").await());
+                });
+
+                runner.test("with the same class in two sessions", (Test test) ->
+                {
+                    final byte[] execFileContents = new byte[]
+                    {
+                        0x11, 0, 0, 0, 0, 0, 0, 0, 3, 0x00, 0x01, 'A', 0x03, 0x01,
+                        0x11, 0, 0, 0, 0, 0, 0, 0, 3, 0x00, 0x01, 'A', 0x03, 0x02
+                    };
+                    final MutableMap<String,String> classProbes = JacocoExecFile.getClassProbes(execFileContents);
+                    test.assertEqual("110", classProbes.get("A").await());
+                });
+
+                runner.test("with unrecognized block type", (Test test) ->
+                {
+                    test.assertThrows(() -> JacocoExecFile.getClassProbes(new byte[] { 0x42 }),
+                        new ParseException("Unrecognized coverage.exec block type: 66"));
+                });
+            });
+        });
+    }
+}
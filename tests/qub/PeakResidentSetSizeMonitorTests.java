@@ -0,0 +1,43 @@
+package qub;
+
+public interface PeakResidentSetSizeMonitorTests
+{
+    static void test(TestRunner runner)
+    {
+        PreCondition.assertNotNull(runner, "runner");
+
+        runner.testGroup(PeakResidentSetSizeMonitor.class, () ->
+        {
+            runner.testGroup("parseParentProcessId(String)", () ->
+            {
+                runner.test("with stat contents", (Test test) ->
+                {
+                    test.assertEqual("1200", PeakResidentSetSizeMonitor.parseParentProcessId("1234 (java) S 1200 1234 1200 0 -1"));
+                });
+
+                runner.test("with process name that contains spaces and parentheses", (Test test) ->
+                {
+                    test.assertEqual("1200", PeakResidentSetSizeMonitor.parseParentProcessId("1234 (a (b) c) S 1200 1234 1200 0 -1"));
+                });
+
+                runner.test("with contents without a process name", (Test test) ->
+                {
+                    test.assertNull(PeakResidentSetSizeMonitor.parseParentProcessId("1234 S 1200"));
+                });
+            });
+
+            runner.testGroup("parseStatusKilobytes(String)", () ->
+            {
+                runner.test("with VmHWM line", (Test test) ->
+                {
+                    test.assertEqual(123456L, PeakResidentSetSizeMonitor.parseStatusKilobytes("VmHWM:\t  123456 kB"));
+                });
+
+                runner.test("with line without kilobytes", (Test test) ->
+                {
+                    test.assertNull(PeakResidentSetSizeMonitor.parseStatusKilobytes("Name:\tjava"));
+                });
+            });
+        });
+    }
+}
@@ -0,0 +1,109 @@
+package qub;
+
+public interface PhaseTimingsTests
+{
+    static void test(TestRunner runner)
+    {
+        PreCondition.assertNotNull(runner, "runner");
+
+        runner.testGroup(PhaseTimings.class, () ->
+        {
+            runner.test("create()", (Test test) ->
+            {
+                final PhaseTimings timings = PhaseTimings.create();
+                test.assertEqual(Iterable.create(), timings.getPhaseNames());
+                test.assertEqual(0, timings.getTotalMilliseconds());
+                test.assertEqual(0, timings.getPhaseMilliseconds("Compile"));
+                test.assertNull(timings.getSubPhases("Compile"));
+            });
+
+            runner.testGroup("addPhase(String,int)", () ->
+            {
+                runner.test("with null phaseName", (Test test) ->
+                {
+                    test.assertThrows(() -> PhaseTimings.create().addPhase(null, 1),
+                        new PreConditionFailure("phaseName cannot be null."));
+                });
+
+                runner.test("with negative milliseconds", (Test test) ->
+                {
+                    test.assertThrows(() -> PhaseTimings.create().addPhase("Compile", -1),
+                        new PreConditionFailure("milliseconds (-1) must be greater than or equal to 0."));
+                });
+
+                runner.test("with new and existing phases", (Test test) ->
+                {
+                    final PhaseTimings timings = PhaseTimings.create()
+                        .addPhase("Compile", 100)
+                        .addPhase("Run tests", 250)
+                        .addPhase("Compile", 20);
+                    test.assertEqual(Iterable.create("Compile", "Run tests"), timings.getPhaseNames());
+                    test.assertEqual(120, timings.getPhaseMilliseconds("Compile"));
+                    test.assertEqual(250, timings.getPhaseMilliseconds("Run tests"));
+                    test.assertEqual(370, timings.getTotalMilliseconds());
+                });
+            });
+
+            runner.test("setSubPhases(String,PhaseTimings)", (Test test) ->
+            {
+                final PhaseTimings timings = PhaseTimings.create()
+                    .addPhase("Run test runner", 300)
+                    .setSubPhases("Run test runner", PhaseTimings.create()
+                        .addPhase("JVM startup", 100)
+                        .addPhase("Run tests", 200));
+                test.assertEqual(300, timings.getTotalMilliseconds());
+
+                final PhaseTimings subPhases = timings.getSubPhases("Run test runner");
+                test.assertNotNull(subPhases);
+                test.assertEqual(Iterable.create("JVM startup", "Run tests"), subPhases.getPhaseNames());
+                test.assertEqual(200, subPhases.getPhaseMilliseconds("Run tests"));
+            });
+
+            runner.test("parse(File)",
+                (TestResources resources) -> Tuple.create(resources.createFakeDesktopProcess()),
+                (Test test, FakeDesktopProcess process) ->
+            {
+                final File timingsFile = process.getCurrentFolder().getFile("timings.json").await();
+                timingsFile.setContentsAsString(PhaseTimings.create()
+                    .addPhase("Compile", 100)
+                    .setSubPhases("Compile", PhaseTimings.create().addPhase("javac", 90))
+                    .toString()).await();
+
+                final PhaseTimings timings = PhaseTimings.parse(timingsFile).await();
+                test.assertEqual(Iterable.create("Compile"), timings.getPhaseNames());
+                test.assertEqual(100, timings.getPhaseMilliseconds("Compile"));
+                test.assertEqual(90, timings.getSubPhases("Compile").getPhaseMilliseconds("javac"));
+            });
+
+            runner.test("getFile(Folder,Folder) and getTestRunnerFile(Folder,Folder)",
+                (TestResources resources) -> Tuple.create(resources.createFakeDesktopProcess()),
+                (Test test, FakeDesktopProcess process) ->
+            {
+                final Folder dataFolder = process.getCurrentFolder().getFolder("data").await();
+                final Folder projectFolder = process.getCurrentFolder().getFolder("project").await();
+                final File timingsFile = PhaseTimings.getFile(dataFolder, projectFolder);
+                final File testRunnerTimingsFile = PhaseTimings.getTestRunnerFile(dataFolder, projectFolder);
+                test.assertEqual(dataFolder.getFolder("timings").await(), timingsFile.getParentFolder().await());
+                test.assertEqual(dataFolder.getFolder("timings").await(), testRunnerTimingsFile.getParentFolder().await());
+                test.assertNotEqual(timingsFile, testRunnerTimingsFile);
+                test.assertNotEqual(timingsFile, PhaseTimings.getFile(dataFolder, process.getCurrentFolder().getFolder("other").await()));
+            });
+
+            runner.testGroup("formatPercentage(int,int)", () ->
+            {
+                final Action3<Integer,Integer,String> formatPercentageTest = (Integer milliseconds, Integer totalMilliseconds, String expected) ->
+                {
+                    runner.test("with " + milliseconds + " and " + totalMilliseconds, (Test test) ->
+                    {
+                        test.assertEqual(expected, PhaseTimings.formatPercentage(milliseconds, totalMilliseconds));
+                    });
+                };
+
+                formatPercentageTest.run(0, 0, "0%");
+                formatPercentageTest.run(1, 3, "33%");
+                formatPercentageTest.run(2, 3, "67%");
+                formatPercentageTest.run(5, 5, "100%");
+            });
+        });
+    }
+}
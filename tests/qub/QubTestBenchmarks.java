@@ -0,0 +1,168 @@
+package qub;
+
+/**
+ * Speed tests for qub-test's own hot paths. Run them with "qub-test --benchmark --pattern=*speed*"
+ * to get warmed-up measurements and to compare them with the baselines in outputs/bench.json.
+ * Outside of a benchmark run, only the smallest input sizes are run.
+ */
+public interface QubTestBenchmarks
+{
+    static void test(TestRunner runner)
+    {
+        PreCondition.assertNotNull(runner, "runner");
+
+        final boolean benchmarking = runner instanceof ConsoleTestRunner && ((ConsoleTestRunner)runner).isBenchmarking();
+        final Iterable<Integer> classCounts = benchmarking
+            ? Iterable.create(1000, 10000, 100000)
+            : Iterable.create(1000);
+        // Matching class files to source files is quadratic, so its trees are kept smaller.
+        final Iterable<Integer> sourceFileCounts = benchmarking
+            ? Iterable.create(100, 1000)
+            : Iterable.create(100);
+
+        runner.testGroup(QubTestBenchmarks.class, () ->
+        {
+            runner.testGroup(TestJSON.class, () ->
+            {
+                for (final int classCount : classCounts)
+                {
+                    final TestJSON testJson = QubTestBenchmarks.createTestJson(classCount);
+                    final String testJsonText = testJson.toString(JSONFormat.pretty);
+
+                    runner.speedTest("toString(JSONFormat) with " + classCount + " class files speed", Duration.seconds(classCount / 1000 + 1), (Test test) ->
+                    {
+                        test.assertNotNullAndNotEmpty(testJson.toString(JSONFormat.pretty));
+                    });
+
+                    runner.speedTest("parse() with " + classCount + " class files speed", Duration.seconds(classCount / 1000 + 1), (Test test) ->
+                    {
+                        final TestJSON parsedTestJson = TestJSON.create(JSON.parseObject(testJsonText).await());
+                        test.assertEqual(classCount, parsedTestJson.getClassFiles().toList().getCount());
+                    });
+                }
+            });
+
+            runner.testGroup("QubTestRun.getFullClassName(Path)", () ->
+            {
+                for (final int classCount : classCounts)
+                {
+                    final List<Path> classFileRelativePaths = List.create();
+                    for (int i = 0; i < classCount; ++i)
+                    {
+                        classFileRelativePaths.add(Path.parse(QubTestBenchmarks.getClassName(i).replace('.', '/') + ".class"));
+                    }
+
+                    runner.speedTest("with " + classCount + " class files speed", Duration.seconds(classCount / 10000 + 1), (Test test) ->
+                    {
+                        int totalLength = 0;
+                        for (final Path classFileRelativePath : classFileRelativePaths)
+                        {
+                            totalLength += QubTestRun.getFullClassName(classFileRelativePath).length();
+                        }
+                        test.assertTrue(totalLength > 0);
+                    });
+                }
+            });
+
+            runner.testGroup("QubTestRun.getClassFilesForCoverage(Coverage,Folder,Folder,Folder)", () ->
+            {
+                try (final FakeDesktopProcess process = FakeDesktopProcess.create())
+                {
+                    for (final int classCount : sourceFileCounts)
+                    {
+                        final Folder projectFolder = process.getCurrentFolder().getFolder("project" + classCount).await();
+                        final Folder outputFolder = projectFolder.getFolder("outputs").await();
+                        final Folder sourceFolder = projectFolder.getFolder("sources").await();
+                        final Folder testFolder = projectFolder.getFolder("tests").await();
+                        for (int i = 0; i < classCount; ++i)
+                        {
+                            final String classPath = QubTestBenchmarks.getClassName(i).replace('.', '/');
+                            sourceFolder.createFile(classPath + ".java").await();
+                            outputFolder.createFile(classPath + ".class").await();
+                            outputFolder.createFile(classPath + "$1.class").await();
+                            testFolder.createFile(classPath + "Tests.java").await();
+                            outputFolder.createFile(classPath + "Tests.class").await();
+                        }
+
+                        runner.speedTest("with " + classCount + " source files speed", Duration.seconds(classCount / 20 + 1), (Test test) ->
+                        {
+                            final Iterable<File> coverageClassFiles = QubTestRun.getClassFilesForCoverage(Coverage.Sources, outputFolder, sourceFolder, testFolder).toList();
+                            test.assertEqual(classCount * 2, coverageClassFiles.getCount());
+                        });
+                    }
+                }
+            });
+
+            runner.testGroup(ConsoleTestRunner.class, () ->
+            {
+                runner.speedTest("1000 no-op tests in nested test groups speed", Duration.seconds(2), (Test test) ->
+                {
+                    try (final FakeDesktopProcess process = FakeDesktopProcess.create())
+                    {
+                        final InMemoryCharacterToByteStream output = InMemoryCharacterToByteStream.create();
+                        final ConsoleTestRunner consoleTestRunner = new ConsoleTestRunner(process, output, null);
+                        for (int groupIndex = 0; groupIndex < 10; ++groupIndex)
+                        {
+                            consoleTestRunner.testGroup("group " + groupIndex, () ->
+                            {
+                                for (int subGroupIndex = 0; subGroupIndex < 10; ++subGroupIndex)
+                                {
+                                    consoleTestRunner.testGroup("sub-group " + subGroupIndex, () ->
+                                    {
+                                        for (int testIndex = 0; testIndex < 10; ++testIndex)
+                                        {
+                                            consoleTestRunner.test("test " + testIndex, (Test innerTest) ->
+                                            {
+                                            });
+                                        }
+                                    });
+                                }
+                            });
+                        }
+                        test.assertEqual(0, consoleTestRunner.getFailedTestCount());
+                    }
+                });
+
+                runner.speedTest("writeFailure(TestError) with a cause chain that is 50 deep speed", Duration.seconds(1), (Test test) ->
+                {
+                    Throwable cause = new Exception("root cause");
+                    for (int depth = 1; depth < 50; ++depth)
+                    {
+                        cause = new RuntimeException("cause " + depth, cause);
+                    }
+                    final TestError failure = new TestError("fake test scope", Iterable.create("message line 1", "message line 2"), cause);
+
+                    try (final FakeDesktopProcess process = FakeDesktopProcess.create())
+                    {
+                        final InMemoryCharacterToByteStream output = InMemoryCharacterToByteStream.create();
+                        final ConsoleTestRunner consoleTestRunner = new ConsoleTestRunner(process, output, null);
+                        consoleTestRunner.writeFailure(failure);
+                        test.assertTrue(output.getText().await().contains("root cause"));
+                    }
+                });
+            });
+        });
+    }
+
+    static String getClassName(int classIndex)
+    {
+        return "qub.package" + (classIndex % 50) + ".Class" + classIndex;
+    }
+
+    static TestJSON createTestJson(int classCount)
+    {
+        final DateTime lastModified = DateTime.create(2020, 1, 1);
+        final List<TestJSONClassFile> classFiles = List.create();
+        for (int i = 0; i < classCount; ++i)
+        {
+            classFiles.add(TestJSONClassFile.create(QubTestBenchmarks.getClassName(i).replace('.', '/') + "Tests.class")
+                .setLastModified(lastModified)
+                .setPassedTestCount(10)
+                .setSkippedTestCount(1)
+                .setFailedTestCount(0));
+        }
+        return TestJSON.create()
+            .setJavaVersion("11")
+            .setClassFiles(classFiles);
+    }
+}
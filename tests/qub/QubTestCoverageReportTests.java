@@ -0,0 +1,161 @@
+package qub;
+
+public interface QubTestCoverageReportTests
+{
+    static void test(TestRunner runner)
+    {
+        PreCondition.assertNotNull(runner, "runner");
+
+        runner.testGroup(QubTestCoverageReport.class, () ->
+        {
+            final String csvHeader = "GROUP,PACKAGE,CLASS,INSTRUCTION_MISSED,INSTRUCTION_COVERED,BRANCH_MISSED,BRANCH_COVERED,LINE_MISSED,LINE_COVERED,COMPLEXITY_MISSED,COMPLEXITY_COVERED,METHOD_MISSED,METHOD_COVERED";
+
+            runner.testGroup("getReportPackageName(String)", () ->
+            {
+                runner.test("with a class in a package", (Test test) ->
+                {
+                    test.assertEqual("a.b", QubTestCoverageReport.getReportPackageName("a.b.C"));
+                });
+
+                runner.test("with a class in the default package", (Test test) ->
+                {
+                    test.assertEqual("default", QubTestCoverageReport.getReportPackageName("C"));
+                });
+            });
+
+            runner.testGroup("setCounters(CoverageReportJSON,File)", () ->
+            {
+                runner.test("with no CSV rows",
+                    (TestResources resources) -> Tuple.create(resources.createFakeDesktopProcess()),
+                    (Test test, FakeDesktopProcess process) ->
+                {
+                    final File csvFile = process.getCurrentFolder().getFile("coverage.csv").await();
+                    csvFile.setContentsAsString("").await();
+
+                    test.assertFalse(QubTestCoverageReport.setCounters(CoverageReportJSON.create(), csvFile).await());
+                });
+
+                runner.test("with class rows",
+                    (TestResources resources) -> Tuple.create(resources.createFakeDesktopProcess()),
+                    (Test test, FakeDesktopProcess process) ->
+                {
+                    final File csvFile = process.getCurrentFolder().getFile("coverage.csv").await();
+                    csvFile.setContentsAsString(Strings.join('\n', Iterable.create(
+                        csvHeader,
+                        "Report,a,A,1,9,0,2,1,4,1,3,1,2",
+                        "Report,a,B,4,0,0,0,2,0,1,0,1,0"))).await();
+                    final CoverageReportJSON report = CoverageReportJSON.create();
+
+                    test.assertTrue(QubTestCoverageReport.setCounters(report, csvFile).await());
+                    test.assertEqual(5, report.getPackageCounter("a", "INSTRUCTION_MISSED"));
+                    test.assertEqual(9, report.getPackageCounter("a", "INSTRUCTION_COVERED"));
+                    test.assertEqual(2, report.getPackageCounter("a", "METHOD_COVERED"));
+                    test.assertEqual(1, report.getPackageCounter("a", "CLASS_MISSED"));
+                    test.assertEqual(1, report.getPackageCounter("a", "CLASS_COVERED"));
+                });
+            });
+
+            runner.test("run(ProcessFactory,File,Coverage,Folder,Folder,Folder,Iterable<File>,CharacterToByteWriteStream,CharacterToByteWriteStream,VerboseCharacterToByteWriteStream) with a full report followed by an incremental report",
+                (TestResources resources) -> Tuple.create(resources.createFakeDesktopProcess()),
+                (Test test, FakeDesktopProcess process) ->
+            {
+                final Folder currentFolder = process.getCurrentFolder();
+                final File jacocoCliJarFile = currentFolder.createFile("jacoco/jacococli.jar").await();
+                final Folder sourceFolder = currentFolder.getFolder("sources").await();
+                final Folder testFolder = currentFolder.getFolder("tests").await();
+                final Folder outputFolder = currentFolder.getFolder("outputs").await();
+                final File coverageExecFile = outputFolder.getFile("coverage.exec").await();
+                final Folder coverageFolder = outputFolder.getFolder("coverage").await();
+                final File coverageCsvFile = coverageFolder.getFile("coverage.csv").await();
+                final Folder stagingFolder = outputFolder.getFolder("coverage-staging").await();
+                final File aClassFile = outputFolder.getFile("a/A.class").await();
+                aClassFile.setContentsAsString("A").await();
+                final File bClassFile = outputFolder.getFile("b/B.class").await();
+                bClassFile.setContentsAsString("B").await();
+                final Iterable<File> coverageClassFiles = Iterable.create(aClassFile, bClassFile);
+                final InMemoryCharacterToByteStream verboseStream = InMemoryCharacterToByteStream.create();
+                final VerboseCharacterToByteWriteStream verbose = VerboseCharacterToByteWriteStream.create(verboseStream);
+                process.getProcessFactory()
+                    .add(new FakeJacocoCliProcessRun()
+                        .setWorkingFolder(currentFolder)
+                        .addJacocoCliJar(jacocoCliJarFile)
+                        .addReport()
+                        .addCoverageExec(coverageExecFile)
+                        .addClassFile(aClassFile)
+                        .addClassFile(bClassFile)
+                        .addSourceFiles(sourceFolder)
+                        .addHtml(coverageFolder)
+                        .addArguments("--csv", coverageCsvFile.toString())
+                        .setFunction(() ->
+                        {
+                            coverageFolder.getFile("index.html").await().setContentsAsString("JaCoCo root page").await();
+                            coverageFolder.getFile("a/index.html").await().setContentsAsString("a page").await();
+                            coverageFolder.getFile("b/index.html").await().setContentsAsString("b page").await();
+                            coverageCsvFile.setContentsAsString(Strings.join('\n', Iterable.create(
+                                csvHeader,
+                                "Report,a,A,1,9,0,2,1,4,1,3,1,2",
+                                "Report,b,B,5,5,1,1,2,2,2,2,1,1"))).await();
+                        }))
+                    .add(new FakeJacocoCliProcessRun()
+                        .setWorkingFolder(currentFolder)
+                        .addJacocoCliJar(jacocoCliJarFile)
+                        .addReport()
+                        .addCoverageExec(coverageExecFile)
+                        .addClassFile(bClassFile)
+                        .addSourceFiles(sourceFolder)
+                        .addHtml(stagingFolder)
+                        .setFunction(() ->
+                        {
+                            stagingFolder.getFile("index.html").await().setContentsAsString("JaCoCo partial root page").await();
+                            stagingFolder.getFile("b/index.html").await().setContentsAsString("new b page").await();
+                        }))
+                    .add(new FakeJacocoCliProcessRun()
+                        .setWorkingFolder(currentFolder)
+                        .addJacocoCliJar(jacocoCliJarFile)
+                        .addReport()
+                        .addCoverageExec(coverageExecFile)
+                        .addClassFile(aClassFile)
+                        .addClassFile(bClassFile)
+                        .addHtml(stagingFolder)
+                        .addArguments("--csv", coverageCsvFile.toString())
+                        .setFunction(() ->
+                        {
+                            stagingFolder.getFile("index.html").await().setContentsAsString("JaCoCo regenerated root page").await();
+                            stagingFolder.getFile("jacoco-sessions.html").await().setContentsAsString("JaCoCo regenerated sessions page").await();
+                            stagingFolder.getFile("a/index.html").await().setContentsAsString("a page without sources").await();
+                            stagingFolder.getFile("b/index.html").await().setContentsAsString("b page without sources").await();
+                            coverageCsvFile.setContentsAsString(Strings.join('\n', Iterable.create(
+                                csvHeader,
+                                "Report,a,A,1,9,0,2,1,4,1,3,1,2",
+                                "Report,b,B,0,10,0,2,0,4,0,4,0,2"))).await();
+                        }));
+
+                test.assertEqual(0, QubTestCoverageReport.run(process.getProcessFactory(), jacocoCliJarFile, Coverage.Sources, outputFolder, sourceFolder, testFolder, coverageClassFiles, process.getOutputWriteStream(), process.getErrorWriteStream(), verbose));
+                test.assertEqual("JaCoCo root page", coverageFolder.getFile("index.html").await().getContentsAsString().await());
+                final CoverageReportJSON fullReport = CoverageReportJSON.parse(coverageFolder.getFile("report.json").await()).await();
+                test.assertEqual(Iterable.create("a", "b"), fullReport.getPackageNames());
+                test.assertEqual(5, fullReport.getPackageCounter("b", "INSTRUCTION_MISSED"));
+
+                // Only package b changed, so only its pages are regenerated with their sources. The
+                // pages that list every package are regenerated without sources.
+                bClassFile.setContentsAsString("B2").await();
+                test.assertEqual(0, QubTestCoverageReport.run(process.getProcessFactory(), jacocoCliJarFile, Coverage.Sources, outputFolder, sourceFolder, testFolder, coverageClassFiles, process.getOutputWriteStream(), process.getErrorWriteStream(), verbose));
+                test.assertFalse(stagingFolder.exists().await());
+                test.assertEqual("a page", coverageFolder.getFile("a/index.html").await().getContentsAsString().await());
+                test.assertEqual("new b page", coverageFolder.getFile("b/index.html").await().getContentsAsString().await());
+                test.assertEqual(
+                    Iterable.create(
+                        csvHeader,
+                        "Report,a,A,1,9,0,2,1,4,1,3,1,2",
+                        "Report,b,B,0,10,0,2,0,4,0,4,0,2"),
+                    Strings.getLines(coverageCsvFile.getContentsAsString().await()));
+                final CoverageReportJSON incrementalReport = CoverageReportJSON.parse(coverageFolder.getFile("report.json").await()).await();
+                test.assertEqual(1, incrementalReport.getPackageCounter("a", "INSTRUCTION_MISSED"));
+                test.assertEqual(0, incrementalReport.getPackageCounter("b", "INSTRUCTION_MISSED"));
+                test.assertEqual(2, incrementalReport.getPackageCounter("b", "CLASS_COVERED") + incrementalReport.getPackageCounter("a", "CLASS_COVERED"));
+                test.assertEqual("JaCoCo regenerated root page", coverageFolder.getFile("index.html").await().getContentsAsString().await());
+                test.assertEqual("JaCoCo regenerated sessions page", coverageFolder.getFile("jacoco-sessions.html").await().getContentsAsString().await());
+            });
+        });
+    }
+}
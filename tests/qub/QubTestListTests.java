@@ -0,0 +1,133 @@
+package qub;
+
+public interface QubTestListTests
+{
+    static void test(TestRunner runner)
+    {
+        PreCondition.assertNotNull(runner, "runner");
+
+        runner.testGroup(QubTestList.class, () ->
+        {
+            final Function1<FakeDesktopProcess,QubTestListParameters> createParameters = (FakeDesktopProcess process) ->
+            {
+                return new QubTestListParameters(process, process.getCurrentFolder(), VerboseCharacterToByteWriteStream.create(InMemoryCharacterToByteStream.create()));
+            };
+
+            runner.testGroup("run(QubTestListParameters)", () ->
+            {
+                runner.test("with null", (Test test) ->
+                {
+                    test.assertThrows(() -> QubTestList.run(null),
+                        new PreConditionFailure("parameters cannot be null."));
+                });
+
+                runner.test("with no outputs folder",
+                    (TestResources resources) -> Tuple.create(resources.createFakeDesktopProcess()),
+                    (Test test, FakeDesktopProcess process) ->
+                {
+                    test.assertEqual(1, QubTestList.run(createParameters.run(process)));
+                    test.assertEqual(
+                        Iterable.create("Could not find the outputs folder at " + process.getCurrentFolder().getFolder("outputs").await() + ". Build the project before listing its tests."),
+                        Strings.getLines(process.getErrorWriteStream().getText().await()));
+                });
+
+                runner.test("with tests in test.json and testindex.json",
+                    (TestResources resources) -> Tuple.create(resources.createFakeDesktopProcess()),
+                    (Test test, FakeDesktopProcess process) ->
+                {
+                    final Folder outputFolder = process.getCurrentFolder().getFolder("outputs").await();
+                    final File aTestsClassFile = outputFolder.getFile("a/ATests.class").await();
+                    aTestsClassFile.setContentsAsString("ATests").await();
+                    final File bTestsClassFile = outputFolder.getFile("a/BTests.class").await();
+                    bTestsClassFile.setContentsAsString("BTests").await();
+                    outputFolder.getFile("a/ATests$1.class").await().setContentsAsString("ATests$1").await();
+
+                    outputFolder.getFile("test.json").await().setContentsAsString(TestJSON.create()
+                        .setClassFiles(Iterable.create(
+                            TestJSONClassFile.create("a/ATests.class")
+                                .setLastModified(aTestsClassFile.getLastModified().await())
+                                .setPassedTestCount(1)
+                                .setFailedTestCount(1)
+                                .setTests(Iterable.create(
+                                    TestJSONTest.create("ATests getX()").setNames(Iterable.create("ATests", "getX()")).setStatus(TestJSONTest.passedStatus).setDurationMilliseconds(3),
+                                    TestJSONTest.create("ATests getY()").setNames(Iterable.create("ATests", "getY()")).setStatus(TestJSONTest.failedStatus).setDurationMilliseconds(5))),
+                            TestJSONClassFile.create("a/BTests.class")
+                                .setLastModified(DateTime.create(2000, 1, 1))
+                                .setPassedTestCount(1)
+                                .setTests(Iterable.create(
+                                    TestJSONTest.create("BTests getZ()").setNames(Iterable.create("BTests", "getZ()")).setStatus(TestJSONTest.passedStatus).setDurationMilliseconds(7)))))
+                        .toString()).await();
+                    TestIndex.getFile(outputFolder).setContentsAsString(TestIndex.create()
+                        .setClassFiles(Iterable.create(
+                            TestJSONClassFile.create("a/BTests.class")
+                                .setLastModified(bTestsClassFile.getLastModified().await())
+                                .setTests(Iterable.create(
+                                    TestJSONTest.create("BTests getZ()").setNames(Iterable.create("BTests", "getZ()")),
+                                    TestJSONTest.create("BTests getW()").setNames(Iterable.create("BTests", "getW()"))))))
+                        .toString()).await();
+
+                    test.assertEqual(0, QubTestList.run(createParameters.run(process)));
+                    test.assertEqual(
+                        Iterable.create(
+                            "a.ATests",
+                            "  ATests getX() - passed (3 ms)",
+                            "  ATests getY() - failed (5 ms)",
+                            "a.BTests",
+                            "  BTests getZ() - passed (7 ms)",
+                            "  BTests getW()"),
+                        Strings.getLines(process.getOutputWriteStream().getText().await()));
+                    test.assertEqual("", process.getErrorWriteStream().getText().await());
+                });
+
+                runner.test("with pattern",
+                    (TestResources resources) -> Tuple.create(resources.createFakeDesktopProcess()),
+                    (Test test, FakeDesktopProcess process) ->
+                {
+                    final Folder outputFolder = process.getCurrentFolder().getFolder("outputs").await();
+                    final File aTestsClassFile = outputFolder.getFile("a/ATests.class").await();
+                    aTestsClassFile.setContentsAsString("ATests").await();
+                    outputFolder.getFile("test.json").await().setContentsAsString(TestJSON.create()
+                        .setClassFiles(Iterable.create(
+                            TestJSONClassFile.create("a/ATests.class")
+                                .setLastModified(aTestsClassFile.getLastModified().await())
+                                .setPassedTestCount(2)
+                                .setTests(Iterable.create(
+                                    TestJSONTest.create("ATests getX()").setNames(Iterable.create("ATests", "getX()")).setStatus(TestJSONTest.passedStatus),
+                                    TestJSONTest.create("ATests getY()").setNames(Iterable.create("ATests", "getY()")).setStatus(TestJSONTest.passedStatus)))))
+                        .toString()).await();
+
+                    test.assertEqual(0, QubTestList.run(createParameters.run(process).setPattern("getY()")));
+                    test.assertEqual(
+                        Iterable.create(
+                            "a.ATests",
+                            "  ATests getY() - passed"),
+                        Strings.getLines(process.getOutputWriteStream().getText().await()));
+                });
+            });
+
+            runner.testGroup("getTestLine(TestJSONTest)", () ->
+            {
+                runner.test("with null", (Test test) ->
+                {
+                    test.assertThrows(() -> QubTestList.getTestLine(null),
+                        new PreConditionFailure("test cannot be null."));
+                });
+
+                runner.test("with no status", (Test test) ->
+                {
+                    test.assertEqual("ATests a", QubTestList.getTestLine(TestJSONTest.create("ATests a").setDurationMilliseconds(3)));
+                });
+
+                runner.test("with status and no duration", (Test test) ->
+                {
+                    test.assertEqual("ATests a - skipped", QubTestList.getTestLine(TestJSONTest.create("ATests a").setStatus(TestJSONTest.skippedStatus)));
+                });
+
+                runner.test("with status and duration", (Test test) ->
+                {
+                    test.assertEqual("ATests a - passed (3 ms)", QubTestList.getTestLine(TestJSONTest.create("ATests a").setStatus(TestJSONTest.passedStatus).setDurationMilliseconds(3)));
+                });
+            });
+        });
+    }
+}
@@ -0,0 +1,78 @@
+package qub;
+
+public interface QubTestMinimizeTests
+{
+    static void test(TestRunner runner)
+    {
+        PreCondition.assertNotNull(runner, "runner");
+
+        runner.testGroup(QubTestMinimize.class, () ->
+        {
+            runner.testGroup("getTestClassDurations(TestCoverageIndex)", () ->
+            {
+                runner.test("with null", (Test test) ->
+                {
+                    test.assertThrows(() -> QubTestMinimize.getTestClassDurations(null),
+                        new PreConditionFailure("testCoverageIndex cannot be null."));
+                });
+
+                runner.test("with tests in multiple classes", (Test test) ->
+                {
+                    final TestCoverageIndex index = TestCoverageIndex.create();
+                    index.addTest("ATests a", "ATests", 5);
+                    index.addTest("BTests b", "BTests", 7);
+                    index.addTest("ATests c", "ATests", 3);
+
+                    final MutableMap<String,Integer> durations = QubTestMinimize.getTestClassDurations(index);
+                    test.assertEqual(Iterable.create("ATests", "BTests"), durations.getKeys());
+                    test.assertEqual(8, durations.get("ATests").await());
+                    test.assertEqual(7, durations.get("BTests").await());
+                });
+            });
+
+            runner.testGroup("getMinimalTestClassNames(TestCoverageIndex,Map<String,Integer>)", () ->
+            {
+                runner.test("with no coverage", (Test test) ->
+                {
+                    final TestCoverageIndex index = TestCoverageIndex.create();
+                    index.addTest("ATests a", "ATests", 5);
+
+                    final Iterable<String> result = QubTestMinimize.getMinimalTestClassNames(index, QubTestMinimize.getTestClassDurations(index));
+                    test.assertEqual(Iterable.create(), result);
+                });
+
+                runner.test("with a test class that is covered by another", (Test test) ->
+                {
+                    final TestCoverageIndex index = TestCoverageIndex.create();
+                    index.addClassProbes(index.addTest("ATests a", "ATests", 5), "A", "110");
+                    index.addClassProbes(index.addTest("BTests b", "BTests", 5), "A", "111");
+
+                    final Iterable<String> result = QubTestMinimize.getMinimalTestClassNames(index, QubTestMinimize.getTestClassDurations(index));
+                    test.assertEqual(Iterable.create("BTests"), result);
+                });
+
+                runner.test("with a cheaper combination of test classes", (Test test) ->
+                {
+                    final TestCoverageIndex index = TestCoverageIndex.create();
+                    index.addClassProbes(index.addTest("SlowTests a", "SlowTests", 100), "A", "1111");
+                    index.addClassProbes(index.addTest("FastTests a", "FastTests", 1), "A", "1100");
+                    index.addClassProbes(index.addTest("OtherFastTests a", "OtherFastTests", 1), "A", "0011");
+
+                    final Iterable<String> result = QubTestMinimize.getMinimalTestClassNames(index, QubTestMinimize.getTestClassDurations(index));
+                    test.assertEqual(Iterable.create("FastTests", "OtherFastTests"), result);
+                });
+
+                runner.test("with a test class made redundant by later choices", (Test test) ->
+                {
+                    final TestCoverageIndex index = TestCoverageIndex.create();
+                    index.addClassProbes(index.addTest("MiddleTests a", "MiddleTests", 4), "A", "0110");
+                    index.addClassProbes(index.addTest("LeftTests a", "LeftTests", 4), "A", "1100");
+                    index.addClassProbes(index.addTest("RightTests a", "RightTests", 4), "A", "0011");
+
+                    final Iterable<String> result = QubTestMinimize.getMinimalTestClassNames(index, QubTestMinimize.getTestClassDurations(index));
+                    test.assertEqual(Iterable.create("LeftTests", "RightTests"), result);
+                });
+            });
+        });
+    }
+}
@@ -0,0 +1,58 @@
+package qub;
+
+public interface QubTestResultsTests
+{
+    static void test(TestRunner runner)
+    {
+        PreCondition.assertNotNull(runner, "runner");
+
+        runner.testGroup(QubTestResults.class, () ->
+        {
+            runner.testGroup("run(QubTestResultsParameters)", () ->
+            {
+                runner.test("with null", (Test test) ->
+                {
+                    test.assertThrows(() -> QubTestResults.run(null),
+                        new PreConditionFailure("parameters cannot be null."));
+                });
+
+                runner.test("with no archive",
+                    (TestResources resources) -> Tuple.create(resources.createFakeDesktopProcess()),
+                    (Test test, FakeDesktopProcess process) ->
+                {
+                    final QubTestResultsParameters parameters = new QubTestResultsParameters(process, TestResultCache.create(process.getCurrentFolder()));
+
+                    test.assertEqual(1, QubTestResults.run(parameters));
+                    test.assertEqual(
+                        Iterable.create("Either --import or --export must be specified."),
+                        Strings.getLines(process.getErrorWriteStream().getText().await()));
+                });
+
+                runner.test("with missing import archive",
+                    (TestResources resources) -> Tuple.create(resources.createFakeDesktopProcess()),
+                    (Test test, FakeDesktopProcess process) ->
+                {
+                    final QubTestResultsParameters parameters = new QubTestResultsParameters(process, TestResultCache.create(process.getCurrentFolder()))
+                        .setImportFile(process.getCurrentFolder().getFile("missing.zip").await());
+
+                    test.assertEqual(1, QubTestResults.run(parameters));
+                });
+
+                runner.test("with export archive",
+                    (TestResources resources) -> Tuple.create(resources.createFakeDesktopProcess()),
+                    (Test test, FakeDesktopProcess process) ->
+                {
+                    final File archiveFile = process.getCurrentFolder().getFile("results.zip").await();
+                    final QubTestResultsParameters parameters = new QubTestResultsParameters(process, TestResultCache.create(process.getCurrentFolder()))
+                        .setExportFile(archiveFile);
+
+                    test.assertEqual(0, QubTestResults.run(parameters));
+                    test.assertTrue(archiveFile.exists().await());
+                    test.assertEqual(
+                        Iterable.create("Exported 0 test class results to " + archiveFile + "."),
+                        Strings.getLines(process.getOutputWriteStream().getText().await()));
+                });
+            });
+        });
+    }
+}
@@ -37,15 +37,36 @@ public interface QubTestRunTests
 
                         test.assertEqual(
                             Iterable.create(
-                                "Usage: fake-action-name [[--folder=]<folder-to-test>] [--pattern=<test-name-pattern>] [--coverage[=<None|Sources|Tests|All>]] [--testjson] [--verbose] [--profiler] [--help]",
+                                "Usage: fake-action-name [[--folder=]<folder-to-test>] [--pattern=<test-name-pattern>] [--coverage[=<None|Sources|Tests|All>]] [--offline-coverage] [--coverage-per-test] [--changed-files=<file>[,<file>...]] [--changed-since=<git-ref>] [--selection=<selection-name>] [--class-data-sharing] [--jvm-args=<jvm-arguments>] [--jvm-profile=<quick|throughput|low-memory|profile-name>] [--timings] [--in-process] [--stream-discovery] [--pipeline] [--prelaunch] [--result-cache] [--test-timeout=<seconds>] [--class-timeout=<seconds>] [--benchmark] [--benchmark-warmup-iterations=<count>] [--benchmark-iterations=<count>] [--bench-threshold=<percent>] [--bench-update-baseline] [--testjson] [--verbose] [--profiler] [--help]",
                                 "  fake-description",
-                                "  --folder:      The folder to run tests in. Defaults to the current folder.",
-                                "  --pattern:     The pattern to match against tests to determine if they will be run or not.",
-                                "  --coverage(c): Whether or not to collect code coverage information while running tests.",
-                                "  --testjson:    Whether or not to write the test results to a test.json file.",
-                                "  --verbose(v):  Whether or not to show verbose logs.",
-                                "  --profiler:    Whether or not this application should pause before it is run to allow a profiler to be attached.",
-                                "  --help(?):     Show the help message for this application."),
+                                "  --folder:                      The folder to run tests in. Defaults to the current folder.",
+                                "  --pattern:                     The pattern to match against tests to determine if they will be run or not.",
+                                "  --coverage(c):                 Whether or not to collect code coverage information while running tests.",
+                                "  --offline-coverage:            Whether or not to run coverage against cached offline-instrumented class files instead of using the JaCoCo agent.",
+                                "  --coverage-per-test:           Whether or not to record which classes each test covers in outputs/testcoverage.json while collecting coverage.",
+                                "  --changed-files:               The changed project files that will be used with outputs/testcoverage.json to select which test classes to run.",
+                                "  --changed-since:               The git ref to compare the working tree against to only run the test classes that reference the changed source files.",
+                                "  --selection:                   The name of a saved test selection (such as one created by the minimize action) to run instead of all test classes.",
+                                "  --class-data-sharing:          Whether or not to launch the test runner with a cached class data sharing archive to reduce its startup time.",
+                                "  --jvm-args:                    Additional whitespace-separated arguments that will be passed to the test runner JVM.",
+                                "  --jvm-profile:                 The named set of JVM options (built-in or declared in project.json) that the test runner JVM will be launched with.",
+                                "  --timings:                     Whether or not to report how long each phase of the test run took and write the timings to the qub-test data folder.",
+                                "  --in-process:                  Whether or not to run the tests inside the qub-test JVM instead of launching a separate test runner JVM.",
+                                "  --stream-discovery:            Whether or not to start the test runner while the outputs folder is still being scanned for test classes.",
+                                "  --pipeline:                    Whether or not to start the test runner while the project is still compiling and run each test class as soon as it has been compiled.",
+                                "  --prelaunch:                   Whether or not to start the test runner JVM while the project is still compiling and send it the test classes when the compilation succeeds.",
+                                "  --result-cache:                Whether or not to reuse and save passing test class results in a cache that is shared by every project folder on this machine.",
+                                "  --test-timeout:                The number of seconds that a single test can run before it is failed as hung. Overrides the testTimeout in project.json.",
+                                "  --class-timeout:               The number of seconds that a test class can run before its running test is failed as hung. Overrides the classTimeout in project.json.",
+                                "  --benchmark:                   Whether or not to run the speed tests as microbenchmarks in a dedicated test runner JVM after the other tests.",
+                                "  --benchmark-warmup-iterations: The number of times each speed test runs before it is measured when --benchmark is used.",
+                                "  --benchmark-iterations:        The number of times each speed test is measured when --benchmark is used.",
+                                "  --bench-threshold:             The number of percent that a benchmark can get slower than its baseline in outputs/bench.json before the run fails. Defaults to 10.",
+                                "  --bench-update-baseline:       Whether or not to run the benchmarks and accept their results as the new baselines in outputs/bench.json.",
+                                "  --testjson:                    Whether or not to write the test results to a test.json file.",
+                                "  --verbose(v):                  Whether or not to show verbose logs.",
+                                "  --profiler:                    Whether or not this application should pause before it is run to allow a profiler to be attached.",
+                                "  --help(?):                     Show the help message for this application."),
                             Strings.getLines(process.getOutputWriteStream().getText().await()));
                     }
                 });
@@ -61,15 +82,36 @@ public interface QubTestRunTests
 
                         test.assertEqual(
                             Iterable.create(
-                                "Usage: fake-action-name [[--folder=]<folder-to-test>] [--pattern=<test-name-pattern>] [--coverage[=<None|Sources|Tests|All>]] [--testjson] [--verbose] [--profiler] [--help]",
+                                "Usage: fake-action-name [[--folder=]<folder-to-test>] [--pattern=<test-name-pattern>] [--coverage[=<None|Sources|Tests|All>]] [--offline-coverage] [--coverage-per-test] [--changed-files=<file>[,<file>...]] [--changed-since=<git-ref>] [--selection=<selection-name>] [--class-data-sharing] [--jvm-args=<jvm-arguments>] [--jvm-profile=<quick|throughput|low-memory|profile-name>] [--timings] [--in-process] [--stream-discovery] [--pipeline] [--prelaunch] [--result-cache] [--test-timeout=<seconds>] [--class-timeout=<seconds>] [--benchmark] [--benchmark-warmup-iterations=<count>] [--benchmark-iterations=<count>] [--bench-threshold=<percent>] [--bench-update-baseline] [--testjson] [--verbose] [--profiler] [--help]",
                                 "  fake-description",
-                                "  --folder:      The folder to run tests in. Defaults to the current folder.",
-                                "  --pattern:     The pattern to match against tests to determine if they will be run or not.",
-                                "  --coverage(c): Whether or not to collect code coverage information while running tests.",
-                                "  --testjson:    Whether or not to write the test results to a test.json file.",
-                                "  --verbose(v):  Whether or not to show verbose logs.",
-                                "  --profiler:    Whether or not this application should pause before it is run to allow a profiler to be attached.",
-                                "  --help(?):     Show the help message for this application."),
+                                "  --folder:                      The folder to run tests in. Defaults to the current folder.",
+                                "  --pattern:                     The pattern to match against tests to determine if they will be run or not.",
+                                "  --coverage(c):                 Whether or not to collect code coverage information while running tests.",
+                                "  --offline-coverage:            Whether or not to run coverage against cached offline-instrumented class files instead of using the JaCoCo agent.",
+                                "  --coverage-per-test:           Whether or not to record which classes each test covers in outputs/testcoverage.json while collecting coverage.",
+                                "  --changed-files:               The changed project files that will be used with outputs/testcoverage.json to select which test classes to run.",
+                                "  --changed-since:               The git ref to compare the working tree against to only run the test classes that reference the changed source files.",
+                                "  --selection:                   The name of a saved test selection (such as one created by the minimize action) to run instead of all test classes.",
+                                "  --class-data-sharing:          Whether or not to launch the test runner with a cached class data sharing archive to reduce its startup time.",
+                                "  --jvm-args:                    Additional whitespace-separated arguments that will be passed to the test runner JVM.",
+                                "  --jvm-profile:                 The named set of JVM options (built-in or declared in project.json) that the test runner JVM will be launched with.",
+                                "  --timings:                     Whether or not to report how long each phase of the test run took and write the timings to the qub-test data folder.",
+                                "  --in-process:                  Whether or not to run the tests inside the qub-test JVM instead of launching a separate test runner JVM.",
+                                "  --stream-discovery:            Whether or not to start the test runner while the outputs folder is still being scanned for test classes.",
+                                "  --pipeline:                    Whether or not to start the test runner while the project is still compiling and run each test class as soon as it has been compiled.",
+                                "  --prelaunch:                   Whether or not to start the test runner JVM while the project is still compiling and send it the test classes when the compilation succeeds.",
+                                "  --result-cache:                Whether or not to reuse and save passing test class results in a cache that is shared by every project folder on this machine.",
+                                "  --test-timeout:                The number of seconds that a single test can run before it is failed as hung. Overrides the testTimeout in project.json.",
+                                "  --class-timeout:               The number of seconds that a test class can run before its running test is failed as hung. Overrides the classTimeout in project.json.",
+                                "  --benchmark:                   Whether or not to run the speed tests as microbenchmarks in a dedicated test runner JVM after the other tests.",
+                                "  --benchmark-warmup-iterations: The number of times each speed test runs before it is measured when --benchmark is used.",
+                                "  --benchmark-iterations:        The number of times each speed test is measured when --benchmark is used.",
+                                "  --bench-threshold:             The number of percent that a benchmark can get slower than its baseline in outputs/bench.json before the run fails. Defaults to 10.",
+                                "  --bench-update-baseline:       Whether or not to run the benchmarks and accept their results as the new baselines in outputs/bench.json.",
+                                "  --testjson:                    Whether or not to write the test results to a test.json file.",
+                                "  --verbose(v):                  Whether or not to show verbose logs.",
+                                "  --profiler:                    Whether or not this application should pause before it is run to allow a profiler to be attached.",
+                                "  --help(?):                     Show the help message for this application."),
                             Strings.getLines(process.getOutputWriteStream().getText().await()));
                     }
                 });
@@ -94,6 +136,27 @@ public interface QubTestRunTests
                         test.assertNotNull(parameters);
                         test.assertTrue(parameters.getBuildJson());
                         test.assertEqual(Coverage.None, parameters.getCoverage());
+                        test.assertFalse(parameters.getOfflineCoverage());
+                        test.assertFalse(parameters.getCoveragePerTest());
+                        test.assertNull(parameters.getChangedFiles());
+                        test.assertNull(parameters.getChangedSince());
+                        test.assertNull(parameters.getSelection());
+                        test.assertFalse(parameters.getClassDataSharing());
+                        test.assertNull(parameters.getJvmArgs());
+                        test.assertNull(parameters.getJvmProfile());
+                        test.assertFalse(parameters.getTimings());
+                        test.assertFalse(parameters.getInProcess());
+                        test.assertFalse(parameters.getStreamDiscovery());
+                        test.assertFalse(parameters.getPipeline());
+                        test.assertFalse(parameters.getPrelaunch());
+                        test.assertFalse(parameters.getResultCache());
+                        test.assertNull(parameters.getTestTimeoutSeconds());
+                        test.assertNull(parameters.getClassTimeoutSeconds());
+                        test.assertFalse(parameters.getBenchmark());
+                        test.assertNull(parameters.getBenchmarkWarmupIterations());
+                        test.assertNull(parameters.getBenchmarkIterations());
+                        test.assertNull(parameters.getBenchThresholdPercent());
+                        test.assertFalse(parameters.getBenchUpdateBaseline());
                         test.assertSame(process.getDefaultApplicationLauncher(), parameters.getDefaultApplicationLauncher());
                         test.assertSame(process.getEnvironmentVariables(), parameters.getEnvironmentVariables());
                         test.assertSame(process.getErrorWriteStream(), parameters.getErrorWriteStream());
@@ -138,6 +201,27 @@ public interface QubTestRunTests
                         test.assertNotNull(parameters);
                         test.assertTrue(parameters.getBuildJson());
                         test.assertEqual(Coverage.None, parameters.getCoverage());
+                        test.assertFalse(parameters.getOfflineCoverage());
+                        test.assertFalse(parameters.getCoveragePerTest());
+                        test.assertNull(parameters.getChangedFiles());
+                        test.assertNull(parameters.getChangedSince());
+                        test.assertNull(parameters.getSelection());
+                        test.assertFalse(parameters.getClassDataSharing());
+                        test.assertNull(parameters.getJvmArgs());
+                        test.assertNull(parameters.getJvmProfile());
+                        test.assertFalse(parameters.getTimings());
+                        test.assertFalse(parameters.getInProcess());
+                        test.assertFalse(parameters.getStreamDiscovery());
+                        test.assertFalse(parameters.getPipeline());
+                        test.assertFalse(parameters.getPrelaunch());
+                        test.assertFalse(parameters.getResultCache());
+                        test.assertNull(parameters.getTestTimeoutSeconds());
+                        test.assertNull(parameters.getClassTimeoutSeconds());
+                        test.assertFalse(parameters.getBenchmark());
+                        test.assertNull(parameters.getBenchmarkWarmupIterations());
+                        test.assertNull(parameters.getBenchmarkIterations());
+                        test.assertNull(parameters.getBenchThresholdPercent());
+                        test.assertFalse(parameters.getBenchUpdateBaseline());
                         test.assertSame(process.getDefaultApplicationLauncher(), parameters.getDefaultApplicationLauncher());
                         test.assertSame(process.getEnvironmentVariables(), parameters.getEnvironmentVariables());
                         test.assertSame(process.getErrorWriteStream(), parameters.getErrorWriteStream());
@@ -181,6 +265,27 @@ public interface QubTestRunTests
                         test.assertNotNull(parameters);
                         test.assertTrue(parameters.getBuildJson());
                         test.assertEqual(Coverage.None, parameters.getCoverage());
+                        test.assertFalse(parameters.getOfflineCoverage());
+                        test.assertFalse(parameters.getCoveragePerTest());
+                        test.assertNull(parameters.getChangedFiles());
+                        test.assertNull(parameters.getChangedSince());
+                        test.assertNull(parameters.getSelection());
+                        test.assertFalse(parameters.getClassDataSharing());
+                        test.assertNull(parameters.getJvmArgs());
+                        test.assertNull(parameters.getJvmProfile());
+                        test.assertFalse(parameters.getTimings());
+                        test.assertFalse(parameters.getInProcess());
+                        test.assertFalse(parameters.getStreamDiscovery());
+                        test.assertFalse(parameters.getPipeline());
+                        test.assertFalse(parameters.getPrelaunch());
+                        test.assertFalse(parameters.getResultCache());
+                        test.assertNull(parameters.getTestTimeoutSeconds());
+                        test.assertNull(parameters.getClassTimeoutSeconds());
+                        test.assertFalse(parameters.getBenchmark());
+                        test.assertNull(parameters.getBenchmarkWarmupIterations());
+                        test.assertNull(parameters.getBenchmarkIterations());
+                        test.assertNull(parameters.getBenchThresholdPercent());
+                        test.assertFalse(parameters.getBenchUpdateBaseline());
                         test.assertSame(process.getDefaultApplicationLauncher(), parameters.getDefaultApplicationLauncher());
                         test.assertSame(process.getEnvironmentVariables(), parameters.getEnvironmentVariables());
                         test.assertSame(process.getErrorWriteStream(), parameters.getErrorWriteStream());
@@ -223,6 +328,27 @@ public interface QubTestRunTests
                         test.assertNotNull(parameters);
                         test.assertTrue(parameters.getBuildJson());
                         test.assertEqual(Coverage.None, parameters.getCoverage());
+                        test.assertFalse(parameters.getOfflineCoverage());
+                        test.assertFalse(parameters.getCoveragePerTest());
+                        test.assertNull(parameters.getChangedFiles());
+                        test.assertNull(parameters.getChangedSince());
+                        test.assertNull(parameters.getSelection());
+                        test.assertFalse(parameters.getClassDataSharing());
+                        test.assertNull(parameters.getJvmArgs());
+                        test.assertNull(parameters.getJvmProfile());
+                        test.assertFalse(parameters.getTimings());
+                        test.assertFalse(parameters.getInProcess());
+                        test.assertFalse(parameters.getStreamDiscovery());
+                        test.assertFalse(parameters.getPipeline());
+                        test.assertFalse(parameters.getPrelaunch());
+                        test.assertFalse(parameters.getResultCache());
+                        test.assertNull(parameters.getTestTimeoutSeconds());
+                        test.assertNull(parameters.getClassTimeoutSeconds());
+                        test.assertFalse(parameters.getBenchmark());
+                        test.assertNull(parameters.getBenchmarkWarmupIterations());
+                        test.assertNull(parameters.getBenchmarkIterations());
+                        test.assertNull(parameters.getBenchThresholdPercent());
+                        test.assertFalse(parameters.getBenchUpdateBaseline());
                         test.assertSame(process.getDefaultApplicationLauncher(), parameters.getDefaultApplicationLauncher());
                         test.assertSame(process.getEnvironmentVariables(), parameters.getEnvironmentVariables());
                         test.assertSame(process.getErrorWriteStream(), parameters.getErrorWriteStream());
@@ -268,6 +394,27 @@ public interface QubTestRunTests
                         test.assertNotNull(parameters);
                         test.assertTrue(parameters.getBuildJson());
                         test.assertEqual(Coverage.None, parameters.getCoverage());
+                        test.assertFalse(parameters.getOfflineCoverage());
+                        test.assertFalse(parameters.getCoveragePerTest());
+                        test.assertNull(parameters.getChangedFiles());
+                        test.assertNull(parameters.getChangedSince());
+                        test.assertNull(parameters.getSelection());
+                        test.assertFalse(parameters.getClassDataSharing());
+                        test.assertNull(parameters.getJvmArgs());
+                        test.assertNull(parameters.getJvmProfile());
+                        test.assertFalse(parameters.getTimings());
+                        test.assertFalse(parameters.getInProcess());
+                        test.assertFalse(parameters.getStreamDiscovery());
+                        test.assertFalse(parameters.getPipeline());
+                        test.assertFalse(parameters.getPrelaunch());
+                        test.assertFalse(parameters.getResultCache());
+                        test.assertNull(parameters.getTestTimeoutSeconds());
+                        test.assertNull(parameters.getClassTimeoutSeconds());
+                        test.assertFalse(parameters.getBenchmark());
+                        test.assertNull(parameters.getBenchmarkWarmupIterations());
+                        test.assertNull(parameters.getBenchmarkIterations());
+                        test.assertNull(parameters.getBenchThresholdPercent());
+                        test.assertFalse(parameters.getBenchUpdateBaseline());
                         test.assertSame(process.getDefaultApplicationLauncher(), parameters.getDefaultApplicationLauncher());
                         test.assertSame(process.getEnvironmentVariables(), parameters.getEnvironmentVariables());
                         test.assertSame(process.getErrorWriteStream(), parameters.getErrorWriteStream());
@@ -353,6 +500,32 @@ public interface QubTestRunTests
                         Strings.getLines(qubTestDataFolder.getFileContentsAsString("logs/1.log").await()));
                 });
 
+                runner.test("with selection that doesn't exist",
+                    (TestResources resources) -> Tuple.create(resources.createFakeDesktopProcess()),
+                    (Test test, FakeDesktopProcess process) ->
+                {
+                    final Folder currentFolder = process.getCurrentFolder();
+                    final File projectJsonFile = currentFolder.getFile("project.json").await();
+                    projectJsonFile.setContentsAsString(
+                        ProjectJSON.create()
+                            .setJava(ProjectJSONJava.create())
+                            .toString())
+                        .await();
+                    final QubTestRunParameters parameters = QubTestRunTests.getParameters(process)
+                        .setSelection("minimal");
+
+                    final int exitCode = QubTestRun.run(parameters);
+
+                    test.assertLinesEqual(
+                        Iterable.create(),
+                        process.getOutputWriteStream());
+                    test.assertLinesEqual(
+                        Iterable.create(
+                            "No test selection named \"minimal\" was found. Run \"qub-test minimize --name=minimal\" to create it."),
+                        process.getErrorWriteStream());
+                    test.assertEqual(1, exitCode);
+                });
+
                 runner.test("with one source file",
                     (TestResources resources) -> Tuple.create(resources.createFakeDesktopProcess()),
                     (Test test, FakeDesktopProcess process) ->
@@ -675,6 +848,88 @@ public interface QubTestRunTests
                         Strings.getLines(qubTestDataFolder.getFileContentsAsString("logs/1.log").await()));
                 });
 
+                runner.test("with one source file, verbose, in-process, and jvm.classpath with same dependency with newer version",
+                    (TestResources resources) -> Tuple.create(resources.createFakeDesktopProcess()),
+                    (Test test, FakeDesktopProcess process) ->
+                {
+                    final QubFolder qubFolder = process.getQubFolder().await();
+                    final Folder qubTestDataFolder = qubFolder.getProjectDataFolder("qub", "test-java").await();
+                    final File logFile = qubTestDataFolder.getFile("logs/1.log").await();
+                    final QubProjectVersionFolder meA5VersionFolder = qubFolder.getProjectVersionFolder("me", "a", "5").await();
+                    meA5VersionFolder.getCompiledSourcesFile().await().create().await();
+                    final QubProjectVersionFolder meA6VersionFolder = qubFolder.getProjectVersionFolder("me", "a", "6").await();
+                    meA6VersionFolder.getCompiledSourcesFile().await().create().await();
+                    final Folder currentFolder = process.getCurrentFolder();
+                    final File projectJsonFile = currentFolder.getFile("project.json").await();
+                    projectJsonFile.setContentsAsString(
+                        ProjectJSON.create()
+                            .setJava(ProjectJSONJava.create()
+                                .setDependencies(Iterable.create(
+                                    meA5VersionFolder.getProjectSignature().await())))
+                            .toString())
+                        .await();
+                    final File aJavaFile = currentFolder.getFile("sources/A.java").await();
+                    aJavaFile.setContentsAsString("A.java source").await();
+                    final Folder outputsFolder = currentFolder.getFolder("outputs").await();
+                    final String jvmClassPath = meA6VersionFolder.toString();
+                    process.getProcessFactory()
+                        .add(new FakeJavacProcessRun()
+                            .setWorkingFolder(currentFolder)
+                            .addVersion()
+                            .setVersionFunctionAutomatically("javac 14.0.1"))
+                        .add(new FakeJavacProcessRun()
+                            .setWorkingFolder(currentFolder)
+                            .addOutputFolder(outputsFolder)
+                            .addXlintUnchecked()
+                            .addXlintDeprecation()
+                            .addClasspath(Iterable.create(outputsFolder.toString(), meA5VersionFolder.getCompiledSourcesFile().await().toString()))
+                            .addSourceFile(aJavaFile.relativeTo(currentFolder))
+                            .setCompileFunctionAutomatically())
+                        .add(new FakeConsoleTestRunnerProcessRun()
+                            .setWorkingFolder(currentFolder)
+                            .addClasspath(Iterable.create(outputsFolder.toString(), meA5VersionFolder.getCompiledSourcesFile().await().toString()))
+                            .addConsoleTestRunnerFullClassName()
+                            .addProfiler(false)
+                            .addVerbose(true)
+                            .addTestJson(true)
+                            .addLogFile(logFile)
+                            .addOutputFolder(outputsFolder)
+                            .addCoverage(Coverage.None)
+                            .addFullClassNamesToTest(Iterable.create("A")));
+                    final QubTestRunParameters parameters = QubTestRunTests.getParameters(process, jvmClassPath)
+                        .setInProcess(true)
+                        .setProcess(process)
+                        .setVerbose(VerboseCharacterToByteWriteStream.create(process.getOutputWriteStream()));
+
+                    final int exitCode = QubTestRun.run(parameters);
+
+                    test.assertLinesEqual(
+                        Iterable.create(
+                            "VERBOSE: Parsing project.json...",
+                            "VERBOSE: Getting javac version...",
+                            "VERBOSE: Running /: javac --version...",
+                            "VERBOSE: javac 14.0.1",
+                            "VERBOSE: Updating outputs/build.json...",
+                            "VERBOSE: Setting project.json...",
+                            "VERBOSE: Setting source files...",
+                            "VERBOSE: Detecting java source files to compile...",
+                            "VERBOSE: Compiling all source files.",
+                            "Compiling 1 file...",
+                            "VERBOSE: Running /: javac -d outputs -Xlint:unchecked -Xlint:deprecation -classpath /outputs/;/qub/me/a/versions/5/a.jar sources/A.java...",
+                            "VERBOSE: Compilation finished.",
+                            "VERBOSE: Writing build.json file...",
+                            "VERBOSE: Done writing build.json file.",
+                            "Running tests...",
+                            "VERBOSE: Running the tests in a separate JVM because the project's classpath replaces part of the qub-test classpath.",
+                            "VERBOSE: Running /: java -classpath /outputs/;/qub/me/a/versions/5/a.jar qub.ConsoleTestRunner --profiler=false --verbose=true --testjson=true --logfile=/qub/qub/test-java/data/logs/1.log --output-folder=/outputs/ --coverage=None A",
+                            ""),
+                        process.getOutputWriteStream());
+                    test.assertLinesEqual(
+                        Iterable.create(),
+                        process.getErrorWriteStream());
+                    test.assertEqual(0, exitCode);
+                });
+
                 runner.test("with one source file, verbose, 1 dependency, and jvm.classpath with same dependency with older version",
                     (TestResources resources) -> Tuple.create(resources.createFakeDesktopProcess()),
                     (Test test, FakeDesktopProcess process) ->
@@ -1041,7 +1296,7 @@ public interface QubTestRunTests
                             .setCompileFunctionAutomatically())
                         .add(new FakeConsoleTestRunnerProcessRun()
                             .setWorkingFolder(currentFolder)
-                            .addJavaAgent(jacocoAgentJarFile + "=destfile=" + coverageExecFile)
+                            .addJavaAgent(jacocoAgentJarFile + "=destfile=" + coverageExecFile + ",includes=A:A$*")
                             .addClasspath(Iterable.create(outputsFolder.toString(), jvmClassPath))
                             .addConsoleTestRunnerFullClassName()
                             .addProfiler(false)
@@ -1059,6 +1314,7 @@ public interface QubTestRunTests
                             .addClassFile(outputsFolder.getFile("A.class").await())
                             .addSourceFiles(currentFolder.getFolder("sources").await())
                             .addHtml(coverageFolder)
+                            .addArguments("--csv", coverageFolder.getFile("coverage.csv").await().toString())
                             .setFunction(() ->
                             {
                                 coverageFolder.createFile("index.html").await();
@@ -1084,7 +1340,7 @@ public interface QubTestRunTests
                     test.assertEqual(
                         Iterable.create(
                             "Running tests...",
-                            "VERBOSE: Running /: java -javaagent:/qub/jacoco/jacococli/versions/0.8.1/jacocoagent.jar=destfile=/outputs/coverage.exec -classpath /outputs/;/fake-jvm-classpath qub.ConsoleTestRunner --profiler=false --verbose=false --testjson=true --logfile=/qub/qub/test-java/data/logs/1.log --output-folder=/outputs/ --coverage=Sources A",
+                            "VERBOSE: Running /: java -javaagent:/qub/jacoco/jacococli/versions/0.8.1/jacocoagent.jar=destfile=/outputs/coverage.exec,includes=A:A$* -classpath /outputs/;/fake-jvm-classpath qub.ConsoleTestRunner --profiler=false --verbose=false --testjson=true --logfile=/qub/qub/test-java/data/logs/1.log --output-folder=/outputs/ --coverage=Sources A",
                             "",
                             "",
                             "Analyzing coverage..."
@@ -1130,7 +1386,7 @@ public interface QubTestRunTests
                             .setCompileFunctionAutomatically())
                         .add(new FakeConsoleTestRunnerProcessRun()
                             .setWorkingFolder(currentFolder)
-                            .addJavaAgent(jacocoAgentJarFile + "=destfile=" + coverageExecFile)
+                            .addJavaAgent(jacocoAgentJarFile + "=destfile=" + coverageExecFile + ",includes=A:A$*")
                             .addClasspath(Iterable.create(outputsFolder.toString(), jvmClassPath))
                             .addConsoleTestRunnerFullClassName()
                             .addProfiler(false)
@@ -1148,6 +1404,7 @@ public interface QubTestRunTests
                             .addClassFile(outputsFolder.getFile("A.class").await())
                             .addSourceFiles(currentFolder.getFolder("sources").await())
                             .addHtml(coverageFolder)
+                            .addArguments("--csv", coverageFolder.getFile("coverage.csv").await().toString())
                             .setFunction(() ->
                             {
                                 coverageFolder.createFile("index.html").await();
@@ -1175,11 +1432,11 @@ public interface QubTestRunTests
                             "VERBOSE: Writing build.json file...",
                             "VERBOSE: Done writing build.json file.",
                             "Running tests...",
-                            "VERBOSE: Running /: java -javaagent:/qub/jacoco/jacococli/versions/0.8.1/jacocoagent.jar=destfile=/outputs/coverage.exec -classpath /outputs/;/fake-jvm-classpath qub.ConsoleTestRunner --profiler=false --verbose=true --testjson=true --logfile=/qub/qub/test-java/data/logs/1.log --output-folder=/outputs/ --coverage=Sources A",
+                            "VERBOSE: Running /: java -javaagent:/qub/jacoco/jacococli/versions/0.8.1/jacocoagent.jar=destfile=/outputs/coverage.exec,includes=A:A$* -classpath /outputs/;/fake-jvm-classpath qub.ConsoleTestRunner --profiler=false --verbose=true --testjson=true --logfile=/qub/qub/test-java/data/logs/1.log --output-folder=/outputs/ --coverage=Sources A",
                             "",
                             "",
                             "Analyzing coverage...",
-                            "VERBOSE: Running /: java -jar /qub/jacoco/jacococli/versions/0.8.1/jacococli.jar report /outputs/coverage.exec --classfiles outputs/A.class --sourcefiles /sources/ --html /outputs/coverage/"),
+                            "VERBOSE: Running /: java -jar /qub/jacoco/jacococli/versions/0.8.1/jacococli.jar report /outputs/coverage.exec --classfiles outputs/A.class --sourcefiles /sources/ --html /outputs/coverage/ --csv /outputs/coverage/coverage.csv"),
                         process.getOutputWriteStream());
                     test.assertLinesEqual(
                         Iterable.create(),
@@ -1189,11 +1446,11 @@ public interface QubTestRunTests
                     test.assertEqual(
                         Iterable.create(
                             "Running tests...",
-                            "VERBOSE: Running /: java -javaagent:/qub/jacoco/jacococli/versions/0.8.1/jacocoagent.jar=destfile=/outputs/coverage.exec -classpath /outputs/;/fake-jvm-classpath qub.ConsoleTestRunner --profiler=false --verbose=true --testjson=true --logfile=/qub/qub/test-java/data/logs/1.log --output-folder=/outputs/ --coverage=Sources A",
+                            "VERBOSE: Running /: java -javaagent:/qub/jacoco/jacococli/versions/0.8.1/jacocoagent.jar=destfile=/outputs/coverage.exec,includes=A:A$* -classpath /outputs/;/fake-jvm-classpath qub.ConsoleTestRunner --profiler=false --verbose=true --testjson=true --logfile=/qub/qub/test-java/data/logs/1.log --output-folder=/outputs/ --coverage=Sources A",
                             "",
                             "",
                             "Analyzing coverage...",
-                            "VERBOSE: Running /: java -jar /qub/jacoco/jacococli/versions/0.8.1/jacococli.jar report /outputs/coverage.exec --classfiles outputs/A.class --sourcefiles /sources/ --html /outputs/coverage/"),
+                            "VERBOSE: Running /: java -jar /qub/jacoco/jacococli/versions/0.8.1/jacococli.jar report /outputs/coverage.exec --classfiles outputs/A.class --sourcefiles /sources/ --html /outputs/coverage/ --csv /outputs/coverage/coverage.csv"),
                         Strings.getLines(qubTestDataFolder.getFileContentsAsString("logs/1.log").await()));
                 });
 
@@ -1240,7 +1497,7 @@ public interface QubTestRunTests
                             .setCompileFunctionAutomatically())
                         .add(new FakeConsoleTestRunnerProcessRun()
                             .setWorkingFolder(currentFolder)
-                            .addJavaAgent(jacocoAgentJarFile + "=destfile=" + coverageExecFile)
+                            .addJavaAgent(jacocoAgentJarFile + "=destfile=" + coverageExecFile + ",includes=A:A$*")
                             .addClasspath(Iterable.create(outputsFolder.toString(), jvmClassPath))
                             .addConsoleTestRunnerFullClassName()
                             .addProfiler(false)
@@ -1258,6 +1515,7 @@ public interface QubTestRunTests
                             .addClassFile(outputsFolder.getFile("A.class").await())
                             .addSourceFiles(currentFolder.getFolder("sources").await())
                             .addHtml(coverageFolder)
+                            .addArguments("--csv", coverageFolder.getFile("coverage.csv").await().toString())
                             .setFunction(() ->
                             {
                                 coverageFolder.createFile("index.html").await();
@@ -1285,11 +1543,11 @@ public interface QubTestRunTests
                             "VERBOSE: Writing build.json file...",
                             "VERBOSE: Done writing build.json file.",
                             "Running tests...",
-                            "VERBOSE: Running /: java -javaagent:/qub/jacoco/jacococli/versions/0.9.2/jacocoagent.jar=destfile=/outputs/coverage.exec -classpath /outputs/;/fake-jvm-classpath qub.ConsoleTestRunner --profiler=false --verbose=true --testjson=true --logfile=/qub/qub/test-java/data/logs/1.log --output-folder=/outputs/ --coverage=Sources A",
+                            "VERBOSE: Running /: java -javaagent:/qub/jacoco/jacococli/versions/0.9.2/jacocoagent.jar=destfile=/outputs/coverage.exec,includes=A:A$* -classpath /outputs/;/fake-jvm-classpath qub.ConsoleTestRunner --profiler=false --verbose=true --testjson=true --logfile=/qub/qub/test-java/data/logs/1.log --output-folder=/outputs/ --coverage=Sources A",
                             "",
                             "",
                             "Analyzing coverage...",
-                            "VERBOSE: Running /: java -jar /qub/jacoco/jacococli/versions/0.9.2/jacococli.jar report /outputs/coverage.exec --classfiles outputs/A.class --sourcefiles /sources/ --html /outputs/coverage/"),
+                            "VERBOSE: Running /: java -jar /qub/jacoco/jacococli/versions/0.9.2/jacococli.jar report /outputs/coverage.exec --classfiles outputs/A.class --sourcefiles /sources/ --html /outputs/coverage/ --csv /outputs/coverage/coverage.csv"),
                         process.getOutputWriteStream());
                     test.assertLinesEqual(
                         Iterable.create(),
@@ -1299,11 +1557,11 @@ public interface QubTestRunTests
                     test.assertEqual(
                         Iterable.create(
                             "Running tests...",
-                            "VERBOSE: Running /: java -javaagent:/qub/jacoco/jacococli/versions/0.9.2/jacocoagent.jar=destfile=/outputs/coverage.exec -classpath /outputs/;/fake-jvm-classpath qub.ConsoleTestRunner --profiler=false --verbose=true --testjson=true --logfile=/qub/qub/test-java/data/logs/1.log --output-folder=/outputs/ --coverage=Sources A",
+                            "VERBOSE: Running /: java -javaagent:/qub/jacoco/jacococli/versions/0.9.2/jacocoagent.jar=destfile=/outputs/coverage.exec,includes=A:A$* -classpath /outputs/;/fake-jvm-classpath qub.ConsoleTestRunner --profiler=false --verbose=true --testjson=true --logfile=/qub/qub/test-java/data/logs/1.log --output-folder=/outputs/ --coverage=Sources A",
                             "",
                             "",
                             "Analyzing coverage...",
-                            "VERBOSE: Running /: java -jar /qub/jacoco/jacococli/versions/0.9.2/jacococli.jar report /outputs/coverage.exec --classfiles outputs/A.class --sourcefiles /sources/ --html /outputs/coverage/"
+                            "VERBOSE: Running /: java -jar /qub/jacoco/jacococli/versions/0.9.2/jacococli.jar report /outputs/coverage.exec --classfiles outputs/A.class --sourcefiles /sources/ --html /outputs/coverage/ --csv /outputs/coverage/coverage.csv"
                         ),
                         Strings.getLines(qubTestDataFolder.getFileContentsAsString("logs/1.log").await()));
                 });
@@ -1518,6 +1776,508 @@ public interface QubTestRunTests
                         Strings.getLines(qubTestDataFolder.getFileContentsAsString("logs/1.log").await()));
                 });
             });
+
+            runner.testGroup("parseChangedFiles(String)", () ->
+            {
+                final Action2<String,Iterable<String>> parseChangedFilesTest = (String changedFiles, Iterable<String> expected) ->
+                {
+                    runner.test("with " + Strings.escapeAndQuote(changedFiles), (Test test) ->
+                    {
+                        test.assertEqual(expected, QubTestRun.parseChangedFiles(changedFiles));
+                    });
+                };
+
+                parseChangedFilesTest.run(null, null);
+                parseChangedFilesTest.run("", Iterable.create());
+                parseChangedFilesTest.run("sources/A.java", Iterable.create("sources/A.java"));
+                parseChangedFilesTest.run("sources/A.java, tests/ATests.java,", Iterable.create("sources/A.java", "tests/ATests.java"));
+            });
+
+            runner.testGroup("getTestClassNamesAffectedBy(Iterable<String>,TestCoverageIndex,Iterable<String>)", () ->
+            {
+                final TestCoverageIndex testCoverageIndex = TestCoverageIndex.create();
+                final int aTest = testCoverageIndex.addTest("ATests a", "ATests", 1);
+                final int bTest = testCoverageIndex.addTest("BTests b", "BTests", 2);
+                testCoverageIndex.addClassProbes(aTest, "A", "10");
+                testCoverageIndex.addClassProbes(aTest, "A$1", "1");
+                testCoverageIndex.addClassProbes(bTest, "B", "01");
+                testCoverageIndex.addClassProbes(bTest, "A$1", "1");
+                final Iterable<String> allClassNames = Iterable.create("A", "A$1", "ATests", "B", "BTests", "C", "CTests");
+
+                final Action2<Iterable<String>,Iterable<String>> getTestClassNamesAffectedByTest = (Iterable<String> changedFiles, Iterable<String> expected) ->
+                {
+                    runner.test("with " + changedFiles, (Test test) ->
+                    {
+                        test.assertEqual(expected, QubTestRun.getTestClassNamesAffectedBy(changedFiles, testCoverageIndex, allClassNames));
+                    });
+                };
+
+                getTestClassNamesAffectedByTest.run(Iterable.create(), Iterable.create());
+                getTestClassNamesAffectedByTest.run(Iterable.create("project.json"), null);
+                getTestClassNamesAffectedByTest.run(Iterable.create("README.md", "sources/A.java"), null);
+                getTestClassNamesAffectedByTest.run(Iterable.create("sources/A.java"), Iterable.create("ATests", "BTests"));
+                getTestClassNamesAffectedByTest.run(Iterable.create("sources/B.java"), Iterable.create("BTests"));
+                getTestClassNamesAffectedByTest.run(Iterable.create("sources/C.java"), null);
+                getTestClassNamesAffectedByTest.run(Iterable.create("sources/B.java", "sources/D.java"), null);
+                getTestClassNamesAffectedByTest.run(Iterable.create("tests/CTests.java", "sources/a/New.java"), null);
+                getTestClassNamesAffectedByTest.run(Iterable.create("tests/CTests.java"), Iterable.create("CTests"));
+            });
+
+            runner.testGroup("getGitChangedFiles(ProcessFactory,Folder,String)", () ->
+            {
+                runner.test("with ref that starts with '-'",
+                    (TestResources resources) -> Tuple.create(resources.createFakeDesktopProcess()),
+                    (Test test, FakeDesktopProcess process) ->
+                {
+                    test.assertThrows(() -> QubTestRun.getGitChangedFiles(process.getProcessFactory(), process.getCurrentFolder(), "--output=a.txt").await(),
+                        new IllegalArgumentException("The git ref can't start with '-': --output=a.txt"));
+                });
+            });
+
+            runner.testGroup("getChangedTopLevelClassNames(Iterable<String>)", () ->
+            {
+                final Action2<Iterable<String>,Iterable<String>> getChangedTopLevelClassNamesTest = (Iterable<String> changedFiles, Iterable<String> expected) ->
+                {
+                    runner.test("with " + changedFiles, (Test test) ->
+                    {
+                        test.assertEqual(expected, QubTestRun.getChangedTopLevelClassNames(changedFiles));
+                    });
+                };
+
+                getChangedTopLevelClassNamesTest.run(Iterable.create(), Iterable.create());
+                getChangedTopLevelClassNamesTest.run(Iterable.create("project.json"), null);
+                getChangedTopLevelClassNamesTest.run(Iterable.create("sources/a/A.java", "README.md"), null);
+                getChangedTopLevelClassNamesTest.run(Iterable.create("sources/a/resource.txt"), null);
+                getChangedTopLevelClassNamesTest.run(Iterable.create("outputs/a/A.class"), Iterable.create());
+                getChangedTopLevelClassNamesTest.run(Iterable.create("sources/a/A.java", "tests\\a\\ATests.java"), Iterable.create("a.A", "a.ATests"));
+            });
+
+            runner.test("getTestClassNamesAffectedByChangedClasses(Folder,Iterable<String>,Iterable<String>)",
+                (TestResources resources) -> Tuple.create(resources.createFakeDesktopProcess()),
+                (Test test, FakeDesktopProcess process) ->
+            {
+                final Folder outputFolder = process.getCurrentFolder().getFolder("outputs").await();
+                final Action2<String,String> createClassFile = (String internalName, String referencedInternalName) ->
+                {
+                    final byte[] classFileBytes = ClassFileReferencesTests.createClassFileBytes((java.io.DataOutputStream constantPool) ->
+                    {
+                        constantPool.writeByte(1);
+                        constantPool.writeUTF(internalName);
+                        constantPool.writeByte(7);
+                        constantPool.writeShort(1);
+                        constantPool.writeByte(1);
+                        constantPool.writeUTF(referencedInternalName);
+                        constantPool.writeByte(7);
+                        constantPool.writeShort(3);
+                    }, 5);
+                    outputFolder.getFile(internalName + ".class").await().setContents(classFileBytes).await();
+                };
+                createClassFile.run("a/A", "java/lang/Object");
+                createClassFile.run("a/A$1", "java/lang/Object");
+                createClassFile.run("a/Helper", "a/A$1");
+                createClassFile.run("a/ATests", "a/Helper");
+                createClassFile.run("a/BTests", "java/lang/Object");
+                createClassFile.run("a/CTests", "java/lang/Object");
+
+                final Iterable<String> testClassNames = Iterable.create("a.ATests", "a.BTests", "a.CTests");
+                test.assertEqual(Iterable.create("a.ATests"), QubTestRun.getTestClassNamesAffectedByChangedClasses(outputFolder, Iterable.create("a.A"), testClassNames));
+                test.assertEqual(Iterable.create("a.BTests"), QubTestRun.getTestClassNamesAffectedByChangedClasses(outputFolder, Iterable.create("a.BTests"), testClassNames));
+                test.assertEqual(Iterable.create(), QubTestRun.getTestClassNamesAffectedByChangedClasses(outputFolder, Iterable.create("a.Deleted"), testClassNames));
+            });
+
+            runner.test("getTestClassNamesMatching(Folder,TestJSON,PathPattern,Iterable<String>)",
+                (TestResources resources) -> Tuple.create(resources.createFakeDesktopProcess()),
+                (Test test, FakeDesktopProcess process) ->
+            {
+                final Folder outputFolder = process.getCurrentFolder().getFolder("outputs").await();
+                final Function2<String,Iterable<TestJSONTest>,TestJSONClassFile> createClassFile = (String className, Iterable<TestJSONTest> tests) ->
+                {
+                    final File classFile = outputFolder.getFile("a/" + className + ".class").await();
+                    classFile.setContentsAsString(className).await();
+                    final TestJSONClassFile result = TestJSONClassFile.create("a/" + className + ".class")
+                        .setLastModified(classFile.getLastModified().await())
+                        .setPassedTestCount(tests.getCount());
+                    return tests.any() ? result.setTests(tests) : result;
+                };
+                final TestJSON testJson = TestJSON.create()
+                    .setClassFiles(Iterable.create(
+                        createClassFile.run("ATests", Iterable.create(TestJSONTest.create("ATests getX()").setNames(Iterable.create("ATests", "getX()")))),
+                        createClassFile.run("BTests", Iterable.create(TestJSONTest.create("BTests getY()").setNames(Iterable.create("BTests", "getY()")))),
+                        createClassFile.run("CTests", Iterable.create()),
+                        TestJSONClassFile.create("a/DTests.class")
+                            .setLastModified(DateTime.create(2000, 1, 1))
+                            .setPassedTestCount(1)
+                            .setTests(Iterable.create(TestJSONTest.create("DTests getZ()").setNames(Iterable.create("DTests", "getZ()"))))));
+                outputFolder.getFile("a/DTests.class").await().setContentsAsString("DTests").await();
+                outputFolder.getFile("a/Helper.class").await().setContentsAsString("Helper").await();
+
+                final Iterable<String> classNames = Iterable.create("a.ATests", "a.BTests", "a.CTests", "a.DTests", "a.Helper");
+                test.assertEqual(Iterable.create("a.ATests", "a.CTests", "a.DTests", "a.Helper"),
+                    QubTestRun.getTestClassNamesMatching(outputFolder, testJson, PathPattern.parse("getX()"), classNames));
+                test.assertEqual(Iterable.create("a.CTests", "a.DTests", "a.Helper"),
+                    QubTestRun.getTestClassNamesMatching(outputFolder, testJson, PathPattern.parse("getW()"), classNames));
+            });
+
+            runner.testGroup("getStreamDiscoveryBlocker(QubTestRunParameters,boolean,TestJSON)", () ->
+            {
+                runner.test("with defaults",
+                    (TestResources resources) -> Tuple.create(resources.createFakeDesktopProcess()),
+                    (Test test, FakeDesktopProcess process) ->
+                {
+                    final QubTestRunParameters parameters = QubTestRunTests.getParameters(process)
+                        .setCoverage(Coverage.None);
+                    test.assertNull(QubTestRun.getStreamDiscoveryBlocker(parameters, false, null));
+                });
+
+                runner.test("with selection",
+                    (TestResources resources) -> Tuple.create(resources.createFakeDesktopProcess()),
+                    (Test test, FakeDesktopProcess process) ->
+                {
+                    final QubTestRunParameters parameters = QubTestRunTests.getParameters(process)
+                        .setCoverage(Coverage.None)
+                        .setSelection("minimal");
+                    test.assertEqual("a test selection is filtered against every discovered test class", QubTestRun.getStreamDiscoveryBlocker(parameters, false, null));
+                });
+
+                runner.test("with changed since",
+                    (TestResources resources) -> Tuple.create(resources.createFakeDesktopProcess()),
+                    (Test test, FakeDesktopProcess process) ->
+                {
+                    final QubTestRunParameters parameters = QubTestRunTests.getParameters(process)
+                        .setCoverage(Coverage.None)
+                        .setChangedSince("main");
+                    test.assertEqual("the files changed since the git ref are matched against every discovered test class", QubTestRun.getStreamDiscoveryBlocker(parameters, false, null));
+                });
+
+                runner.test("with coverage",
+                    (TestResources resources) -> Tuple.create(resources.createFakeDesktopProcess()),
+                    (Test test, FakeDesktopProcess process) ->
+                {
+                    final QubTestRunParameters parameters = QubTestRunTests.getParameters(process)
+                        .setCoverage(Coverage.Sources);
+                    test.assertEqual("the JaCoCo agent needs the full list of class files before the test runner starts", QubTestRun.getStreamDiscoveryBlocker(parameters, false, null));
+                });
+
+                runner.test("with benchmark",
+                    (TestResources resources) -> Tuple.create(resources.createFakeDesktopProcess()),
+                    (Test test, FakeDesktopProcess process) ->
+                {
+                    final QubTestRunParameters parameters = QubTestRunTests.getParameters(process)
+                        .setCoverage(Coverage.None);
+                    test.assertEqual("the benchmark runner needs the full list of test classes", QubTestRun.getStreamDiscoveryBlocker(parameters, true, null));
+                });
+
+                runner.test("with result cache",
+                    (TestResources resources) -> Tuple.create(resources.createFakeDesktopProcess()),
+                    (Test test, FakeDesktopProcess process) ->
+                {
+                    final QubTestRunParameters parameters = QubTestRunTests.getParameters(process)
+                        .setCoverage(Coverage.None)
+                        .setResultCache(true);
+                    test.assertEqual("the result cache is checked for every discovered test class before the test runner starts", QubTestRun.getStreamDiscoveryBlocker(parameters, false, null));
+                });
+
+                runner.test("with previous test.json from the same Java version",
+                    (TestResources resources) -> Tuple.create(resources.createFakeDesktopProcess()),
+                    (Test test, FakeDesktopProcess process) ->
+                {
+                    final QubTestRunParameters parameters = QubTestRunTests.getParameters(process)
+                        .setCoverage(Coverage.None)
+                        .setJavaVersion(VersionNumber.parse("11").await());
+                    final TestJSON previousTestJson = TestJSON.create()
+                        .setJavaVersion("11");
+                    test.assertEqual("the previous test.json may show that the test runner doesn't need to start", QubTestRun.getStreamDiscoveryBlocker(parameters, false, previousTestJson));
+                });
+
+                runner.test("with previous test.json from a different Java version",
+                    (TestResources resources) -> Tuple.create(resources.createFakeDesktopProcess()),
+                    (Test test, FakeDesktopProcess process) ->
+                {
+                    final QubTestRunParameters parameters = QubTestRunTests.getParameters(process)
+                        .setCoverage(Coverage.None)
+                        .setJavaVersion(VersionNumber.parse("17").await());
+                    final TestJSON previousTestJson = TestJSON.create()
+                        .setJavaVersion("11");
+                    test.assertNull(QubTestRun.getStreamDiscoveryBlocker(parameters, false, previousTestJson));
+                });
+            });
+
+            runner.testGroup("getClassNamesReferencingAny(Folder,Map<String,Boolean>)", () ->
+            {
+                runner.test("with null outputFolder", (Test test) ->
+                {
+                    test.assertThrows(() -> QubTestRun.getClassNamesReferencingAny(null, Map.create()),
+                        new PreConditionFailure("outputFolder cannot be null."));
+                });
+
+                runner.test("with transitive references",
+                    (TestResources resources) -> Tuple.create(resources.createFakeDesktopProcess()),
+                    (Test test, FakeDesktopProcess process) ->
+                {
+                    final Folder outputFolder = process.getCurrentFolder().getFolder("outputs").await();
+                    final Action2<String,String> createClassFile = (String internalName, String referencedInternalName) ->
+                    {
+                        final byte[] classFileBytes = ClassFileReferencesTests.createClassFileBytes((java.io.DataOutputStream constantPool) ->
+                        {
+                            constantPool.writeByte(1);
+                            constantPool.writeUTF(internalName);
+                            constantPool.writeByte(7);
+                            constantPool.writeShort(1);
+                            constantPool.writeByte(1);
+                            constantPool.writeUTF(referencedInternalName);
+                            constantPool.writeByte(7);
+                            constantPool.writeShort(3);
+                        }, 5);
+                        outputFolder.getFile(internalName + ".class").await().setContents(classFileBytes).await();
+                    };
+                    createClassFile.run("a/ATests", "a/Helper");
+                    createClassFile.run("a/Helper", "dep/Thing");
+                    createClassFile.run("a/BTests", "java/lang/Object");
+                    outputFolder.getFile("a/Broken.class").await().setContentsAsString("not a class file").await();
+
+                    final MutableMap<String,Boolean> changedClassNames = Map.create();
+                    changedClassNames.set("dep.Thing", true);
+                    final Map<String,Boolean> result = QubTestRun.getClassNamesReferencingAny(outputFolder, changedClassNames);
+                    test.assertTrue(result.containsKey("a.ATests"));
+                    test.assertTrue(result.containsKey("a.Helper"));
+                    test.assertTrue(result.containsKey("a.Broken"));
+                    test.assertFalse(result.containsKey("a.BTests"));
+                });
+            });
+
+            runner.testGroup("updateBuildJSONSnapshot(Folder,Folder,Folder,String,boolean)", () ->
+            {
+                runner.test("with a partial run after a source file changed",
+                    (TestResources resources) -> Tuple.create(resources.createFakeDesktopProcess()),
+                    (Test test, FakeDesktopProcess process) ->
+                {
+                    final Folder qubTestDataFolder = process.getCurrentFolder().getFolder("data").await();
+                    final Folder projectFolder = process.getCurrentFolder().getFolder("project").await();
+                    final Folder outputFolder = projectFolder.getFolder("outputs").await();
+                    final File buildJsonFile = outputFolder.getFile("build.json").await();
+                    final File testJsonFile = outputFolder.getFile("test.json").await();
+                    final File aTestsClassFile = outputFolder.getFile("a/ATests.class").await();
+                    aTestsClassFile.setContentsAsString("ATests").await();
+                    final File bTestsClassFile = outputFolder.getFile("a/BTests.class").await();
+                    bTestsClassFile.setContentsAsString("BTests").await();
+                    final VersionNumber javaVersion = VersionNumber.parse("17").await();
+                    final VerboseCharacterToByteWriteStream verbose = VerboseCharacterToByteWriteStream.create(process.getOutputWriteStream());
+                    final Function1<String,String> createBuildJson = (String aLastModified) -> Strings.join('\n', Iterable.create(
+                        "{",
+                        "  \"javacVersion\": \"17\",",
+                        "  \"javaFiles\": {",
+                        "    \"sources/a/A.java\": { \"lastModified\": \"" + aLastModified + "\" },",
+                        "    \"tests/a/ATests.java\": { \"lastModified\": \"1\", \"dependencies\": [\"sources/a/A.java\"] },",
+                        "    \"tests/a/BTests.java\": { \"lastModified\": \"1\" }",
+                        "  }",
+                        "}"));
+                    final Function2<DateTime,Integer,String> createTestJson = (DateTime aTestsLastModified, Integer bTestsPassedTestCount) -> TestJSON.create()
+                        .setJavaVersion(javaVersion)
+                        .setClassFiles(Iterable.create(
+                            TestJSONClassFile.create("a/ATests.class")
+                                .setLastModified(aTestsLastModified)
+                                .setPassedTestCount(1)
+                                .setSkippedTestCount(0)
+                                .setFailedTestCount(0),
+                            TestJSONClassFile.create("a/BTests.class")
+                                .setLastModified(bTestsClassFile.getLastModified().await())
+                                .setPassedTestCount(bTestsPassedTestCount)
+                                .setSkippedTestCount(0)
+                                .setFailedTestCount(0)))
+                        .toString(JSONFormat.pretty);
+
+                    // The class file timestamp that test.json records for ATests is the one from
+                    // before A.java was edited and ATests was recompiled.
+                    final DateTime previousATestsLastModified = aTestsClassFile.getLastModified().await().plus(Duration.seconds(1));
+
+                    // A complete run keeps the snapshot.
+                    buildJsonFile.setContentsAsString(createBuildJson.run("1")).await();
+                    testJsonFile.setContentsAsString(createTestJson.run(previousATestsLastModified, 1)).await();
+                    QubTestRun.updateBuildJSONSnapshot(qubTestDataFolder, projectFolder, outputFolder, null, true);
+                    test.assertTrue(BuildJSONSnapshot.getFile(qubTestDataFolder, projectFolder).exists().await());
+
+                    // A.java is edited and recompiled, and a run that excludes ATests rewrites
+                    // test.json with ATests' entry carried forward.
+                    buildJsonFile.setContentsAsString(createBuildJson.run("2")).await();
+                    final String testJsonHashBeforeRun = QubTestHash.hash(testJsonFile).await();
+                    testJsonFile.setContentsAsString(createTestJson.run(previousATestsLastModified, 2)).await();
+                    QubTestRun.updateBuildJSONSnapshot(qubTestDataFolder, projectFolder, outputFolder, testJsonHashBeforeRun, false);
+                    test.assertFalse(BuildJSONSnapshot.getFile(qubTestDataFolder, projectFolder).exists().await());
+
+                    // The next complete run must rerun ATests.
+                    final String testJsonHash = QubTestHash.hash(testJsonFile).await();
+                    final Map<String,Boolean> recompiledSources = QubTestRun.getRecompiledSources(qubTestDataFolder, projectFolder, outputFolder, testJsonHash);
+                    test.assertNull(recompiledSources);
+                    final TestRunPlan plan = TestRunPlan.create(outputFolder, Iterable.create("a.ATests", "a.BTests"), TestJSON.parse(testJsonFile).await(), javaVersion, recompiledSources, verbose);
+                    test.assertEqual(Iterable.create("a.ATests"), plan.getTestClassNamesToRun());
+                    test.assertEqual(Iterable.create("a.BTests"), plan.getUnmodifiedTestClassNames());
+                });
+            });
+
+            runner.testGroup("getPackageName(String)", () ->
+            {
+                final Action2<String,Throwable> getPackageNameErrorTest = (String fullClassName, Throwable expected) ->
+                {
+                    runner.test("with " + Strings.escapeAndQuote(fullClassName), (Test test) ->
+                    {
+                        test.assertThrows(() -> QubTestRun.getPackageName(fullClassName),
+                            expected);
+                    });
+                };
+
+                getPackageNameErrorTest.run(null, new PreConditionFailure("fullClassName cannot be null."));
+                getPackageNameErrorTest.run("", new PreConditionFailure("fullClassName cannot be empty."));
+
+                final Action2<String,String> getPackageNameTest = (String fullClassName, String expected) ->
+                {
+                    runner.test("with " + Strings.escapeAndQuote(fullClassName), (Test test) ->
+                    {
+                        test.assertEqual(expected, QubTestRun.getPackageName(fullClassName));
+                    });
+                };
+
+                getPackageNameTest.run("A", "");
+                getPackageNameTest.run("A$1", "");
+                getPackageNameTest.run("qub.A", "qub");
+                getPackageNameTest.run("qub.a.B$C", "qub.a");
+            });
+
+            runner.testGroup("getTopLevelClassName(String)", () ->
+            {
+                final Action2<String,String> getTopLevelClassNameTest = (String fullClassName, String expected) ->
+                {
+                    runner.test("with " + Strings.escapeAndQuote(fullClassName), (Test test) ->
+                    {
+                        test.assertEqual(expected, QubTestRun.getTopLevelClassName(fullClassName));
+                    });
+                };
+
+                getTopLevelClassNameTest.run("A", "A");
+                getTopLevelClassNameTest.run("A$1", "A");
+                getTopLevelClassNameTest.run("qub.A$B$C", "qub.A");
+            });
+
+            runner.testGroup("getJacocoAgentIncludes(Folder,Iterable<File>,Iterable<File>,Iterable<String>)", () ->
+            {
+                final Action4<Iterable<String>,Iterable<String>,Iterable<String>,Iterable<String>> getJacocoAgentIncludesTest = (Iterable<String> allClassFilePaths, Iterable<String> coverageClassFilePaths, Iterable<String> dependencyPackageNames, Iterable<String> expected) ->
+                {
+                    runner.test("with " + allClassFilePaths + ", " + coverageClassFilePaths + ", and " + dependencyPackageNames,
+                        (TestResources resources) -> Tuple.create(resources.createFakeDesktopProcess()),
+                        (Test test, FakeDesktopProcess process) ->
+                    {
+                        final Folder outputFolder = process.getCurrentFolder().getFolder("outputs").await();
+                        final Iterable<File> allClassFiles = allClassFilePaths.map((String path) -> outputFolder.getFile(path).await()).toList();
+                        final Iterable<File> coverageClassFiles = coverageClassFilePaths.map((String path) -> outputFolder.getFile(path).await()).toList();
+                        test.assertEqual(expected, QubTestRun.getJacocoAgentIncludes(outputFolder, allClassFiles, coverageClassFiles, dependencyPackageNames));
+                    });
+                };
+
+                getJacocoAgentIncludesTest.run(
+                    Iterable.create(),
+                    Iterable.create(),
+                    Iterable.create(),
+                    Iterable.create());
+                getJacocoAgentIncludesTest.run(
+                    Iterable.create("A.class", "ATests.class"),
+                    Iterable.create("A.class"),
+                    Iterable.create(),
+                    Iterable.create("A", "A$*"));
+                getJacocoAgentIncludesTest.run(
+                    Iterable.create("a/A.class", "a/A$1.class", "a/B.class", "b/BTests.class"),
+                    Iterable.create("a/A.class", "a/A$1.class", "a/B.class"),
+                    Iterable.create(),
+                    Iterable.create("a.*"));
+                getJacocoAgentIncludesTest.run(
+                    Iterable.create("a/A.class", "a/A$1.class", "a/ATests.class"),
+                    Iterable.create("a/A.class", "a/A$1.class"),
+                    Iterable.create(),
+                    Iterable.create("a.A", "a.A$*"));
+                getJacocoAgentIncludesTest.run(
+                    Iterable.create("a/A.class", "a/b/B.class", "a/b/BTests.class"),
+                    Iterable.create("a/A.class", "a/b/B.class"),
+                    Iterable.create(),
+                    Iterable.create("a.A", "a.A$*", "a.b.B", "a.b.B$*"));
+                getJacocoAgentIncludesTest.run(
+                    Iterable.create("a/A.class", "a/b/B.class", "a/b/c/C.class", "d/DTests.class"),
+                    Iterable.create("a/A.class", "a/b/B.class", "a/b/c/C.class"),
+                    Iterable.create(),
+                    Iterable.create("a.*"));
+                getJacocoAgentIncludesTest.run(
+                    Iterable.create("a/A.class", "a/b/B.class", "a/b/c/CTests.class"),
+                    Iterable.create("a/A.class", "a/b/B.class"),
+                    Iterable.create(),
+                    Iterable.create("a.A", "a.A$*", "a.b.B", "a.b.B$*"));
+                getJacocoAgentIncludesTest.run(
+                    Iterable.create("qub/A.class", "qub/A$1.class", "qub/B.class", "tests/qub/ATests.class"),
+                    Iterable.create("qub/A.class", "qub/A$1.class", "qub/B.class"),
+                    Iterable.create("qub"),
+                    Iterable.create("qub.A", "qub.A$*", "qub.B", "qub.B$*"));
+                getJacocoAgentIncludesTest.run(
+                    Iterable.create("a/A.class", "a/b/B.class", "d/DTests.class"),
+                    Iterable.create("a/A.class", "a/b/B.class"),
+                    Iterable.create("a.b.c"),
+                    Iterable.create("a.A", "a.A$*", "a.b.B", "a.b.B$*"));
+                getJacocoAgentIncludesTest.run(
+                    Iterable.create("a/A.class", "a/b/B.class", "d/DTests.class"),
+                    Iterable.create("a/A.class", "a/b/B.class"),
+                    Iterable.create("qub", "d"),
+                    Iterable.create("a.*"));
+            });
+
+            runner.testGroup("getClassPathPackageNames(Iterable<String>,FileSystem)", () ->
+            {
+                runner.test("with no class paths",
+                    (TestResources resources) -> Tuple.create(resources.createFakeDesktopProcess()),
+                    (Test test, FakeDesktopProcess process) ->
+                {
+                    test.assertEqual(Iterable.create(), QubTestRun.getClassPathPackageNames(Iterable.create(), process.getFileSystem()));
+                });
+
+                runner.test("with class paths that don't exist",
+                    (TestResources resources) -> Tuple.create(resources.createFakeDesktopProcess()),
+                    (Test test, FakeDesktopProcess process) ->
+                {
+                    final Folder currentFolder = process.getCurrentFolder();
+                    test.assertEqual(Iterable.create(), QubTestRun.getClassPathPackageNames(Iterable.create(currentFolder.getFolder("dependency").await().toString(), currentFolder.getFile("dependency.jar").await().toString()), process.getFileSystem()));
+                });
+
+                runner.test("with folder class path",
+                    (TestResources resources) -> Tuple.create(resources.createFakeDesktopProcess()),
+                    (Test test, FakeDesktopProcess process) ->
+                {
+                    final Folder dependencyFolder = process.getCurrentFolder().getFolder("dependency").await();
+                    dependencyFolder.createFile("qub/A.class").await();
+                    dependencyFolder.createFile("qub/A$1.class").await();
+                    dependencyFolder.createFile("a/b/B.class").await();
+                    dependencyFolder.createFile("a/README.md").await();
+                    final Iterable<String> packageNames = QubTestRun.getClassPathPackageNames(Iterable.create(dependencyFolder.toString()), process.getFileSystem());
+                    test.assertEqual(2, packageNames.getCount());
+                    test.assertTrue(packageNames.contains("a.b"));
+                    test.assertTrue(packageNames.contains("qub"));
+                });
+
+                runner.test("with jar class path",
+                    (TestResources resources) -> Tuple.create(resources.createFakeDesktopProcess()),
+                    (Test test, FakeDesktopProcess process) ->
+                {
+                    final java.io.ByteArrayOutputStream jarBytes = new java.io.ByteArrayOutputStream();
+                    try (final java.util.zip.ZipOutputStream jarStream = new java.util.zip.ZipOutputStream(jarBytes))
+                    {
+                        for (final String entryName : Iterable.create("META-INF/MANIFEST.MF", "META-INF/versions/9/module-info.class", "qub/A.class", "qub/A$1.class", "a/b/B.class", "A.class"))
+                        {
+                            jarStream.putNextEntry(new java.util.zip.ZipEntry(entryName));
+                            jarStream.closeEntry();
+                        }
+                    }
+                    catch (java.io.IOException e)
+                    {
+                        throw new RuntimeException(e);
+                    }
+                    final File dependencyJarFile = process.getCurrentFolder().getFile("dependency.jar").await();
+                    dependencyJarFile.setContents(jarBytes.toByteArray()).await();
+                    test.assertEqual(Iterable.create("qub", "a.b", ""), QubTestRun.getClassPathPackageNames(Iterable.create(dependencyJarFile.toString()), process.getFileSystem()));
+                });
+            });
         });
     }
 
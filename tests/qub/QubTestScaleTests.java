@@ -0,0 +1,48 @@
+package qub;
+
+public interface QubTestScaleTests
+{
+    static void test(TestRunner runner)
+    {
+        PreCondition.assertNotNull(runner, "runner");
+
+        runner.testGroup(QubTestScale.class, () ->
+        {
+            runner.testGroup("parseClassCounts(String)", () ->
+            {
+                runner.test("with null", (Test test) ->
+                {
+                    test.assertNull(QubTestScale.parseClassCounts(null).await());
+                });
+
+                runner.test("with \"100\"", (Test test) ->
+                {
+                    test.assertEqual(Iterable.create(100), QubTestScale.parseClassCounts("100").await());
+                });
+
+                runner.test("with \"100, 1k,10K\"", (Test test) ->
+                {
+                    test.assertEqual(Iterable.create(100, 1000, 10000), QubTestScale.parseClassCounts("100, 1k,10K").await());
+                });
+
+                runner.test("with \"0\"", (Test test) ->
+                {
+                    test.assertThrows(() -> QubTestScale.parseClassCounts("0").await(),
+                        new IllegalArgumentException("A class count must be greater than 0: 0"));
+                });
+            });
+
+            runner.test("run(QubTestScaleParameters) when qub.Test isn't in a published project",
+                (TestResources resources) -> Tuple.create(resources.createFakeDesktopProcess()),
+                (Test test, FakeDesktopProcess process) ->
+            {
+                final Folder currentFolder = process.getCurrentFolder();
+                final File csvFile = currentFolder.getFile("scale.csv").await();
+                final QubTestScaleParameters parameters = new QubTestScaleParameters(process, currentFolder.getFolder("projects").await(), csvFile);
+
+                test.assertEqual(1, QubTestScale.run(parameters));
+                test.assertFalse(csvFile.exists().await());
+            });
+        });
+    }
+}
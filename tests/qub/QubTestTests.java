@@ -38,7 +38,11 @@ public interface QubTestTests
                                 "",
                                 "Actions:",
                                 "  logs:          Show the logs folder.",
-                                "  run (default): Run tests in a source code project."),
+                                "  list:          List the tests of a source code project without running them.",
+                                "  minimize:      Save the smallest set of test classes that preserves code coverage as a named selection.",
+                                "  results:       Export or import the shared test result cache as a zip archive.",
+                                "  run (default): Run tests in a source code project.",
+                                "  scale:         Measure how qub-test scales by running it against generated projects of increasing size."),
                             Strings.getLines(process.getOutputWriteStream().getText().await()));
                         test.assertEqual(-1, process.getExitCode());
                     }
@@ -61,7 +65,11 @@ public interface QubTestTests
                                 "",
                                 "Actions:",
                                 "  logs:          Show the logs folder.",
-                                "  run (default): Run tests in a source code project."),
+                                "  list:          List the tests of a source code project without running them.",
+                                "  minimize:      Save the smallest set of test classes that preserves code coverage as a named selection.",
+                                "  results:       Export or import the shared test result cache as a zip archive.",
+                                "  run (default): Run tests in a source code project.",
+                                "  scale:         Measure how qub-test scales by running it against generated projects of increasing size."),
                             Strings.getLines(process.getOutputWriteStream().getText().await()));
                         test.assertEqual(-1, process.getExitCode());
                     }
@@ -0,0 +1,90 @@
+package qub;
+
+public interface SpeedTestBenchmarkTests
+{
+    static void test(TestRunner runner)
+    {
+        PreCondition.assertNotNull(runner, "runner");
+
+        runner.testGroup(SpeedTestBenchmark.class, () ->
+        {
+            runner.testGroup("parseIterationCount(String)", () ->
+            {
+                runner.test("with empty", (Test test) ->
+                {
+                    test.assertNull(SpeedTestBenchmark.parseIterationCount("").await());
+                });
+
+                runner.test("with 10", (Test test) ->
+                {
+                    test.assertEqual(10, SpeedTestBenchmark.parseIterationCount("10").await());
+                });
+
+                runner.test("with -1", (Test test) ->
+                {
+                    test.assertThrows(() -> SpeedTestBenchmark.parseIterationCount("-1").await(),
+                        new IllegalArgumentException("An iteration count cannot be negative: -1"));
+                });
+            });
+
+            runner.testGroup("create(int,int)", () ->
+            {
+                runner.test("with negative warmupIterations", (Test test) ->
+                {
+                    test.assertThrows(() -> SpeedTestBenchmark.create(-1, 10),
+                        new PreConditionFailure("warmupIterations (-1) must be greater than or equal to 0."));
+                });
+
+                runner.test("with zero measuredIterations", (Test test) ->
+                {
+                    test.assertThrows(() -> SpeedTestBenchmark.create(0, 0),
+                        new PreConditionFailure("measuredIterations (0) must be greater than 0."));
+                });
+
+                runner.test("with valid iterations", (Test test) ->
+                {
+                    final SpeedTestBenchmark benchmark = SpeedTestBenchmark.create(2, 3);
+                    test.assertEqual(2, benchmark.getWarmupIterations());
+                    test.assertEqual(3, benchmark.getMeasuredIterations());
+                    test.assertEqual(Iterable.create(), benchmark.getResults());
+                });
+            });
+
+            runner.testGroup("run(String,Duration,Action0)", () ->
+            {
+                runner.test("with a fast iteration", (Test test) ->
+                {
+                    final SpeedTestBenchmark benchmark = SpeedTestBenchmark.create(2, 3);
+                    final List<Integer> iterations = List.create();
+
+                    final SpeedTestResult result = benchmark.run("a.b", Duration.seconds(10), () -> iterations.add(iterations.getCount()));
+                    test.assertEqual(5, iterations.getCount());
+                    test.assertEqual("a.b", result.getTestFullName());
+                    test.assertEqual(Duration.seconds(10), result.getMaximumDuration());
+                    test.assertEqual(2, result.getWarmupIterations());
+                    test.assertEqual(3, result.getWallTime().getSampleCount());
+                    test.assertFalse(result.exceedsMaximumDuration());
+                    test.assertEqual(Iterable.create(result), benchmark.getResults());
+                });
+
+                runner.test("with an iteration that is slower than the maximum duration", (Test test) ->
+                {
+                    final SpeedTestBenchmark benchmark = SpeedTestBenchmark.create(0, 1);
+
+                    final SpeedTestResult result = benchmark.run("a.b", Duration.milliseconds(1), () ->
+                    {
+                        try
+                        {
+                            Thread.sleep(20);
+                        }
+                        catch (InterruptedException e)
+                        {
+                            throw new RuntimeException(e);
+                        }
+                    });
+                    test.assertTrue(result.exceedsMaximumDuration());
+                });
+            });
+        });
+    }
+}
@@ -0,0 +1,100 @@
+package qub;
+
+public interface SpeedTestStatisticsTests
+{
+    static void test(TestRunner runner)
+    {
+        PreCondition.assertNotNull(runner, "runner");
+
+        runner.testGroup(SpeedTestStatistics.class, () ->
+        {
+            runner.testGroup("create(long...)", () ->
+            {
+                runner.test("with null", (Test test) ->
+                {
+                    test.assertThrows(() -> SpeedTestStatistics.create((long[])null),
+                        new PreConditionFailure("samples cannot be null."));
+                });
+
+                runner.test("with no samples", (Test test) ->
+                {
+                    test.assertThrows(() -> SpeedTestStatistics.create(),
+                        new PreConditionFailure("samples.length (0) must be greater than 0."));
+                });
+
+                runner.test("with one sample", (Test test) ->
+                {
+                    final SpeedTestStatistics statistics = SpeedTestStatistics.create(7);
+                    test.assertEqual(1, statistics.getSampleCount());
+                    test.assertEqual(7L, statistics.getMinimum());
+                    test.assertEqual(7L, statistics.getMaximum());
+                    test.assertEqual(7.0, statistics.getMean());
+                    test.assertEqual(7.0, statistics.getMedian());
+                    test.assertEqual(0.0, statistics.getStandardDeviation());
+                    test.assertEqual(0.0, statistics.getConfidenceInterval95());
+                });
+
+                runner.test("with unsorted samples", (Test test) ->
+                {
+                    final SpeedTestStatistics statistics = SpeedTestStatistics.create(40, 10, 30, 20);
+                    test.assertEqual(4, statistics.getSampleCount());
+                    test.assertEqual(10L, statistics.getMinimum());
+                    test.assertEqual(40L, statistics.getMaximum());
+                    test.assertEqual(25.0, statistics.getMean());
+                    test.assertEqual(25.0, statistics.getMedian());
+                    test.assertEqual(Math.sqrt(500.0 / 3), statistics.getStandardDeviation());
+                    test.assertEqual(3.182 * Math.sqrt(500.0 / 3) / 2, statistics.getConfidenceInterval95());
+                });
+            });
+
+            runner.testGroup("getPercentile(double)", () ->
+            {
+                final SpeedTestStatistics statistics = SpeedTestStatistics.create(10, 20, 30, 40, 50);
+
+                final Action2<Double,Double> getPercentileTest = (Double percentile, Double expected) ->
+                {
+                    runner.test("with " + percentile, (Test test) ->
+                    {
+                        test.assertEqual(expected, statistics.getPercentile(percentile));
+                    });
+                };
+
+                getPercentileTest.run(0.0, 10.0);
+                getPercentileTest.run(50.0, 30.0);
+                getPercentileTest.run(90.0, 46.0);
+                getPercentileTest.run(100.0, 50.0);
+            });
+
+            runner.testGroup("getTCriticalValue95(int)", () ->
+            {
+                final Action2<Integer,Double> getTCriticalValue95Test = (Integer degreesOfFreedom, Double expected) ->
+                {
+                    runner.test("with " + degreesOfFreedom, (Test test) ->
+                    {
+                        test.assertEqual(expected, SpeedTestStatistics.getTCriticalValue95(degreesOfFreedom));
+                    });
+                };
+
+                getTCriticalValue95Test.run(1, 12.706);
+                getTCriticalValue95Test.run(19, 2.093);
+                getTCriticalValue95Test.run(30, 2.042);
+                getTCriticalValue95Test.run(31, 1.96);
+            });
+
+            runner.testGroup("formatNanoseconds(double)", () ->
+            {
+                final Action2<Double,String> formatNanosecondsTest = (Double nanoseconds, String expected) ->
+                {
+                    runner.test("with " + nanoseconds, (Test test) ->
+                    {
+                        test.assertEqual(expected, SpeedTestStatistics.formatNanoseconds(nanoseconds));
+                    });
+                };
+
+                formatNanosecondsTest.run(0.0, "0.000ms");
+                formatNanosecondsTest.run(1500.0, "0.002ms");
+                formatNanosecondsTest.run(12345678.0, "12.346ms");
+            });
+        });
+    }
+}
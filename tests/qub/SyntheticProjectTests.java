@@ -0,0 +1,184 @@
+package qub;
+
+public interface SyntheticProjectTests
+{
+    static void test(TestRunner runner)
+    {
+        PreCondition.assertNotNull(runner, "runner");
+
+        runner.testGroup(SyntheticProject.class, () ->
+        {
+            runner.test("create()", (Test test) ->
+            {
+                final SyntheticProject project = SyntheticProject.create();
+                test.assertEqual(100, project.getSourceClassCount());
+                test.assertEqual(100, project.getTestClassCount());
+                test.assertEqual(5, project.getTestsPerClass());
+                test.assertEqual(3, project.getDependencyDepth());
+                test.assertEqual(0.0, project.getFailureRatio());
+                test.assertEqual(Iterable.create(), project.getDependencies());
+                test.assertEqual(0L, project.getFailingTestCount());
+            });
+
+            runner.testGroup("parseFailureRatio(String)", () ->
+            {
+                runner.test("with null", (Test test) ->
+                {
+                    test.assertNull(SyntheticProject.parseFailureRatio(null).await());
+                });
+
+                runner.test("with \"0.25\"", (Test test) ->
+                {
+                    test.assertEqual(0.25, SyntheticProject.parseFailureRatio("0.25").await());
+                });
+
+                runner.test("with \"10%\"", (Test test) ->
+                {
+                    test.assertEqual(0.1, SyntheticProject.parseFailureRatio("10%").await());
+                });
+
+                runner.test("with \"2\"", (Test test) ->
+                {
+                    test.assertThrows(() -> SyntheticProject.parseFailureRatio("2").await(),
+                        new IllegalArgumentException("A failure ratio must be between 0 and 1: 2"));
+                });
+            });
+
+            runner.testGroup("getSourceClassFullName(int)", () ->
+            {
+                runner.test("with 0", (Test test) ->
+                {
+                    test.assertEqual("synthetic.p0.Class0", SyntheticProject.getSourceClassFullName(0));
+                });
+
+                runner.test("with 1234", (Test test) ->
+                {
+                    test.assertEqual("synthetic.p12.Class1234", SyntheticProject.getSourceClassFullName(1234));
+                });
+            });
+
+            runner.testGroup("isFailingTest(long)", () ->
+            {
+                runner.test("with 0 failure ratio", (Test test) ->
+                {
+                    final SyntheticProject project = SyntheticProject.create();
+                    for (long testIndex = 0; testIndex < 100; ++testIndex)
+                    {
+                        test.assertFalse(project.isFailingTest(testIndex));
+                    }
+                });
+
+                runner.test("with 0.25 failure ratio", (Test test) ->
+                {
+                    final SyntheticProject project = SyntheticProject.create()
+                        .setFailureRatio(0.25);
+                    int failingTestCount = 0;
+                    for (long testIndex = 0; testIndex < 100; ++testIndex)
+                    {
+                        if (project.isFailingTest(testIndex))
+                        {
+                            ++failingTestCount;
+                        }
+                    }
+                    test.assertEqual(25, failingTestCount);
+                    test.assertFalse(project.isFailingTest(0));
+                    test.assertTrue(project.isFailingTest(3));
+                });
+            });
+
+            runner.testGroup("getSourceClassCode(int)", () ->
+            {
+                runner.test("with the first class in a dependency chain", (Test test) ->
+                {
+                    final SyntheticProject project = SyntheticProject.create();
+                    test.assertEqual(
+                        Strings.join('\n', Iterable.create(
+                            "package synthetic.p0;",
+                            "",
+                            "public interface Class3",
+                            "{",
+                            "    static int getValue()",
+                            "    {",
+                            "        return 3;",
+                            "    }",
+                            "}",
+                            "")),
+                        project.getSourceClassCode(3));
+                });
+
+                runner.test("with a class that depends on the class before it", (Test test) ->
+                {
+                    final SyntheticProject project = SyntheticProject.create();
+                    test.assertEqual(
+                        Strings.join('\n', Iterable.create(
+                            "package synthetic.p0;",
+                            "",
+                            "public interface Class4",
+                            "{",
+                            "    static int getValue()",
+                            "    {",
+                            "        return synthetic.p0.Class3.getValue() + 1;",
+                            "    }",
+                            "}",
+                            "")),
+                        project.getSourceClassCode(4));
+                });
+            });
+
+            runner.testGroup("getTestClassCode(int)", () ->
+            {
+                runner.test("with a passing and a failing test", (Test test) ->
+                {
+                    final SyntheticProject project = SyntheticProject.create()
+                        .setTestsPerClass(2)
+                        .setFailureRatio(0.5);
+                    test.assertEqual(
+                        Strings.join('\n', Iterable.create(
+                            "package synthetic.p0;",
+                            "",
+                            "public interface Class7Tests",
+                            "{",
+                            "    static void test(qub.TestRunner runner)",
+                            "    {",
+                            "        runner.testGroup(synthetic.p0.Class7.class, () ->",
+                            "        {",
+                            "            runner.test(\"test 0\", (qub.Test test) ->",
+                            "            {",
+                            "                test.assertEqual(7, synthetic.p0.Class7.getValue());",
+                            "            });",
+                            "            runner.test(\"test 1\", (qub.Test test) ->",
+                            "            {",
+                            "                test.assertEqual(8, synthetic.p0.Class7.getValue());",
+                            "            });",
+                            "        });",
+                            "    }",
+                            "}",
+                            "")),
+                        project.getTestClassCode(7));
+                });
+            });
+
+            runner.test("writeTo(Folder)",
+                (TestResources resources) -> Tuple.create(resources.createFakeDesktopProcess()),
+                (Test test, FakeDesktopProcess process) ->
+            {
+                final Folder projectFolder = process.getCurrentFolder().getFolder("synthetic-150").await();
+                projectFolder.getFile("stale.txt").await().create().await();
+
+                SyntheticProject.create()
+                    .setSourceClassCount(150)
+                    .setTestClassCount(150)
+                    .writeTo(projectFolder)
+                    .await();
+
+                test.assertFalse(projectFolder.fileExists("stale.txt").await());
+                test.assertTrue(projectFolder.fileExists("project.json").await());
+                test.assertTrue(projectFolder.fileExists("sources/synthetic/p0/Class0.java").await());
+                test.assertTrue(projectFolder.fileExists("sources/synthetic/p1/Class149.java").await());
+                test.assertFalse(projectFolder.fileExists("sources/synthetic/p1/Class150.java").await());
+                test.assertTrue(projectFolder.fileExists("tests/synthetic/p1/Class149Tests.java").await());
+                test.assertEqual("synthetic-150", ProjectJSON.parse(projectFolder.getFile("project.json").await()).await().getProject());
+            });
+        });
+    }
+}
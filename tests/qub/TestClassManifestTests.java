@@ -0,0 +1,211 @@
+package qub;
+
+public interface TestClassManifestTests
+{
+    static void test(TestRunner runner)
+    {
+        PreCondition.assertNotNull(runner, "runner");
+
+        runner.testGroup(TestClassManifest.class, () ->
+        {
+            runner.test("getFile(Folder,Folder)",
+                (TestResources resources) -> Tuple.create(resources.createFakeDesktopProcess()),
+                (Test test, FakeDesktopProcess process) ->
+            {
+                final Folder dataFolder = process.getCurrentFolder().getFolder("data").await();
+                final File manifestFile = TestClassManifest.getFile(dataFolder, process.getCurrentFolder().getFolder("project").await());
+                test.assertEqual(dataFolder.getFolder("manifests").await(), manifestFile.getParentFolder().await());
+                test.assertEqual(".txt", manifestFile.getFileExtension());
+                test.assertEqual(manifestFile, TestClassManifest.getFile(dataFolder, process.getCurrentFolder().getFolder("project").await()));
+            });
+
+            runner.testGroup("create(File,AsyncRunner,Clock)", () ->
+            {
+                runner.test("with null manifestFile",
+                    (TestResources resources) -> Tuple.create(resources.createFakeDesktopProcess()),
+                    (Test test, FakeDesktopProcess process) ->
+                {
+                    test.assertThrows(() -> TestClassManifest.create(null, process.getParallelAsyncRunner(), process.getClock()),
+                        new PreConditionFailure("manifestFile cannot be null."));
+                });
+
+                runner.test("with file",
+                    (TestResources resources) -> Tuple.create(resources.createFakeDesktopProcess()),
+                    (Test test, FakeDesktopProcess process) ->
+                {
+                    final File manifestFile = process.getCurrentFolder().getFile("manifest.txt").await();
+                    final TestClassManifest manifest = TestClassManifest.create(manifestFile, process.getParallelAsyncRunner(), process.getClock());
+                    test.assertSame(manifestFile, manifest.getManifestFile());
+                });
+            });
+
+            runner.testGroup("startDiscovery(Folder)", () ->
+            {
+                runner.test("writes the test class names and then the end marker",
+                    (TestResources resources) -> Tuple.create(resources.createFakeDesktopProcess()),
+                    (Test test, FakeDesktopProcess process) ->
+                {
+                    final Folder outputFolder = process.getCurrentFolder().getFolder("outputs").await();
+                    outputFolder.createFile("BTests.class").await();
+                    outputFolder.createFile("a/ATests.class").await();
+                    outputFolder.createFile("a/README.md").await();
+                    final File manifestFile = process.getCurrentFolder().getFile("manifest.txt").await();
+                    manifestFile.setContentsAsString("OldTests\n#end\n").await();
+                    final TestClassManifest manifest = TestClassManifest.create(manifestFile, process.getParallelAsyncRunner(), process.getClock());
+
+                    manifest.startDiscovery(outputFolder).await();
+                    test.assertEqual(2, manifest.waitForDiscovery().await());
+
+                    test.assertEqual("BTests\na.ATests\n#end\n", manifestFile.getContentsAsString().await());
+                    test.assertFalse(TestClassManifest.isAborted(manifestFile));
+                    test.assertEqual(Iterable.create("BTests", "a.ATests"), TestClassManifestTests.readAll(TestClassManifest.read(manifestFile, Duration.seconds(5), process.getClock())));
+                });
+            });
+
+            runner.testGroup("startPipelinedDiscovery(Folder,CompilePipeline,AsyncTask<Integer>)", () ->
+            {
+                runner.test("with a compilation that succeeded",
+                    (TestResources resources) -> Tuple.create(resources.createFakeDesktopProcess()),
+                    (Test test, FakeDesktopProcess process) ->
+                {
+                    final Folder outputFolder = process.getCurrentFolder().getFolder("outputs").await();
+                    outputFolder.createFile("ATests.class").await();
+                    final File manifestFile = process.getCurrentFolder().getFile("manifest.txt").await();
+                    final TestClassManifest manifest = TestClassManifest.create(manifestFile, process.getParallelAsyncRunner(), process.getClock());
+
+                    final AsyncTask<Integer> compilation = process.getParallelAsyncRunner().schedule(() -> 0);
+                    compilation.await();
+
+                    manifest.startPipelinedDiscovery(outputFolder, null, compilation).await();
+                    test.assertEqual(1, manifest.waitForDiscovery().await());
+
+                    test.assertFalse(TestClassManifest.isAborted(manifestFile));
+                    test.assertEqual(Iterable.create("ATests"), TestClassManifestTests.readAll(TestClassManifest.read(manifestFile, Duration.seconds(5), process.getClock())));
+                });
+
+                runner.test("with a compilation that failed",
+                    (TestResources resources) -> Tuple.create(resources.createFakeDesktopProcess()),
+                    (Test test, FakeDesktopProcess process) ->
+                {
+                    final Folder outputFolder = process.getCurrentFolder().getFolder("outputs").await();
+                    outputFolder.createFile("ATests.class").await();
+                    final File manifestFile = process.getCurrentFolder().getFile("manifest.txt").await();
+                    final TestClassManifest manifest = TestClassManifest.create(manifestFile, process.getParallelAsyncRunner(), process.getClock());
+
+                    final AsyncTask<Integer> compilation = process.getParallelAsyncRunner().schedule(() -> 1);
+                    compilation.await();
+
+                    manifest.startPipelinedDiscovery(outputFolder, null, compilation).await();
+                    test.assertEqual(0, manifest.waitForDiscovery().await());
+
+                    test.assertEqual("#abort\n", manifestFile.getContentsAsString().await());
+                    test.assertTrue(TestClassManifest.isAborted(manifestFile));
+                    test.assertEqual(Iterable.create(), TestClassManifestTests.readAll(TestClassManifest.read(manifestFile, Duration.seconds(5), process.getClock())));
+                });
+                runner.test("with a compilation that threw",
+                    (TestResources resources) -> Tuple.create(resources.createFakeDesktopProcess()),
+                    (Test test, FakeDesktopProcess process) ->
+                {
+                    final Folder outputFolder = process.getCurrentFolder().getFolder("outputs").await();
+                    final File manifestFile = process.getCurrentFolder().getFile("manifest.txt").await();
+                    final TestClassManifest manifest = TestClassManifest.create(manifestFile, process.getParallelAsyncRunner(), process.getClock());
+                    final AsyncTask<Integer> compilation = process.getParallelAsyncRunner().schedule((Function0<Integer>)() ->
+                    {
+                        throw new RuntimeException("The compiler crashed.");
+                    });
+                    compilation.catchError().await();
+
+                    manifest.startPipelinedDiscovery(outputFolder, null, compilation).await();
+                    test.assertEqual(0, manifest.waitForDiscovery().await());
+                    test.assertTrue(TestClassManifest.isAborted(manifestFile));
+                });
+            });
+
+            runner.testGroup("getIdleTimeout(Duration,Duration)", () ->
+            {
+                final Action3<Duration,Duration,Duration> getIdleTimeoutTest = (Duration testTimeout, Duration classTimeout, Duration expected) ->
+                {
+                    runner.test("with " + testTimeout + " and " + classTimeout, (Test test) ->
+                    {
+                        test.assertEqual(expected, TestClassManifest.getIdleTimeout(testTimeout, classTimeout));
+                    });
+                };
+
+                getIdleTimeoutTest.run(null, null, Duration.seconds(60));
+                getIdleTimeoutTest.run(Duration.seconds(30), null, Duration.seconds(30));
+                getIdleTimeoutTest.run(null, Duration.seconds(120), Duration.seconds(120));
+                getIdleTimeoutTest.run(Duration.seconds(30), Duration.seconds(120), Duration.seconds(120));
+                getIdleTimeoutTest.run(Duration.seconds(1), null, Duration.seconds(5));
+            });
+
+            runner.testGroup("read(File,Duration,Clock)", () ->
+            {
+                final Action3<String,Duration,Iterable<String>> readTest = (String contents, Duration idleTimeout, Iterable<String> expected) ->
+                {
+                    runner.test("with " + (contents == null ? "missing file" : Strings.escapeAndQuote(contents)) + " and " + idleTimeout,
+                        (TestResources resources) -> Tuple.create(resources.createFakeDesktopProcess()),
+                        (Test test, FakeDesktopProcess process) ->
+                    {
+                        final File manifestFile = process.getCurrentFolder().getFile("manifest.txt").await();
+                        if (contents != null)
+                        {
+                            manifestFile.setContentsAsString(contents).await();
+                        }
+                        test.assertEqual(expected, TestClassManifestTests.readAll(TestClassManifest.read(manifestFile, idleTimeout, process.getClock())));
+                    });
+                };
+
+                readTest.run(null, Duration.seconds(5), Iterable.create());
+                readTest.run("#end\n", Duration.seconds(5), Iterable.create());
+                readTest.run("a.ATests\n\n\nBTests\n#end\n", Duration.seconds(5), Iterable.create("a.ATests", "BTests"));
+                readTest.run("ATests\n#end\nBTests\n", Duration.seconds(5), Iterable.create("ATests"));
+                readTest.run("ATests\n#abort\nBTests\n", Duration.seconds(5), Iterable.create("ATests"));
+
+                // A manifest without an end marker is read until it has been idle for the idle
+                // timeout. A line that hasn't been finished isn't a test class name yet.
+                readTest.run("ATests\nBTests\n", Duration.milliseconds(0), Iterable.create("ATests", "BTests"));
+                readTest.run("ATests\nBTe", Duration.milliseconds(0), Iterable.create("ATests"));
+            });
+
+            runner.testGroup("isAborted(File)", () ->
+            {
+                runner.test("with null", (Test test) ->
+                {
+                    test.assertThrows(() -> TestClassManifest.isAborted(null),
+                        new PreConditionFailure("manifestFile cannot be null."));
+                });
+
+                final Action2<String,Boolean> isAbortedTest = (String contents, Boolean expected) ->
+                {
+                    runner.test("with " + (contents == null ? "missing file" : Strings.escapeAndQuote(contents)),
+                        (TestResources resources) -> Tuple.create(resources.createFakeDesktopProcess()),
+                        (Test test, FakeDesktopProcess process) ->
+                    {
+                        final File manifestFile = process.getCurrentFolder().getFile("manifest.txt").await();
+                        if (contents != null)
+                        {
+                            manifestFile.setContentsAsString(contents).await();
+                        }
+                        test.assertEqual(expected, TestClassManifest.isAborted(manifestFile));
+                    });
+                };
+
+                isAbortedTest.run(null, false);
+                isAbortedTest.run("", false);
+                isAbortedTest.run("a.BTests\n", false);
+                isAbortedTest.run("\n\n#end\n", false);
+                isAbortedTest.run("\n\n#abort\n", true);
+            });
+        });
+    }
+
+    static List<String> readAll(java.lang.Iterable<String> testClassNames)
+    {
+        final List<String> result = List.create();
+        for (final String testClassName : testClassNames)
+        {
+            result.add(testClassName);
+        }
+        return result;
+    }
+}
@@ -0,0 +1,101 @@
+package qub;
+
+public interface TestCoverageIndexTests
+{
+    static void test(TestRunner runner)
+    {
+        PreCondition.assertNotNull(runner, "runner");
+
+        runner.testGroup(TestCoverageIndex.class, () ->
+        {
+            runner.test("create()", (Test test) ->
+            {
+                final TestCoverageIndex index = TestCoverageIndex.create();
+                test.assertEqual(0, index.getTestCount());
+                test.assertEqual(Iterable.create(), index.getCoveredClassNames());
+                test.assertEqual(Iterable.create(), index.getTestIndexes("A"));
+                test.assertEqual("", index.getClassProbes("A", 0));
+            });
+
+            runner.testGroup("addClassProbes(int,String,String)", () ->
+            {
+                runner.test("with no hit probes", (Test test) ->
+                {
+                    final TestCoverageIndex index = TestCoverageIndex.create();
+                    final int testIndex = index.addTest("ATests a", "ATests", 5);
+                    index.addClassProbes(testIndex, "A", "000");
+                    test.assertEqual(Iterable.create(), index.getCoveredClassNames());
+                });
+
+                runner.test("with hit probes", (Test test) ->
+                {
+                    final TestCoverageIndex index = TestCoverageIndex.create();
+                    final int testIndex = index.addTest("ATests a", "ATests", 5);
+                    index.addClassProbes(testIndex, "A", "010");
+                    test.assertEqual(Iterable.create("A"), index.getCoveredClassNames());
+                    test.assertEqual(Iterable.create(0), index.getTestIndexes("A"));
+                    test.assertEqual("010", index.getClassProbes("A", testIndex));
+                    test.assertEqual(Iterable.create("ATests"), index.getTestClassNamesThatCover("A"));
+                });
+            });
+
+            runner.testGroup("encodeProbes(String) and decodeProbes(String)", () ->
+            {
+                final Action2<String,String> encodeTest = (String probes, String expectedEncodedProbes) ->
+                {
+                    runner.test("with " + Strings.escapeAndQuote(probes), (Test test) ->
+                    {
+                        final String encodedProbes = TestCoverageIndex.encodeProbes(probes);
+                        test.assertEqual(expectedEncodedProbes, encodedProbes);
+                        test.assertEqual(probes, TestCoverageIndex.decodeProbes(encodedProbes));
+                    });
+                };
+
+                encodeTest.run("", "0:");
+                encodeTest.run("1", "1:1");
+                encodeTest.run("0001", "4:8");
+                encodeTest.run("11110", "5:f0");
+                encodeTest.run("101010101", "9:551");
+            });
+
+            runner.test("toJson() and parse(JSONObject)", (Test test) ->
+            {
+                final TestCoverageIndex index = TestCoverageIndex.create();
+                final int aTest = index.addTest("ATests a", "ATests", 5);
+                final int bTest = index.addTest("BTests b", "BTests", 7);
+                index.addClassProbes(aTest, "A", "0110");
+                index.addClassProbes(bTest, "A", "1000");
+                index.addClassProbes(bTest, "B", "1");
+
+                final TestCoverageIndex parsedIndex = TestCoverageIndex.parse(index.toJson()).await();
+                test.assertEqual(2, parsedIndex.getTestCount());
+                test.assertEqual("BTests b", parsedIndex.getTestName(1));
+                test.assertEqual("BTests", parsedIndex.getTestClassName(1));
+                test.assertEqual(7, parsedIndex.getTestDurationMilliseconds(1));
+                test.assertEqual(Iterable.create("A", "B"), parsedIndex.getCoveredClassNames());
+                test.assertEqual("0110", parsedIndex.getClassProbes("A", 0));
+                test.assertEqual("1000", parsedIndex.getClassProbes("A", 1));
+                test.assertEqual("1", parsedIndex.getClassProbes("B", 1));
+            });
+
+            runner.test("addTestsFrom(TestCoverageIndex,Iterable<String>)", (Test test) ->
+            {
+                final TestCoverageIndex previousIndex = TestCoverageIndex.create();
+                final int aTest = previousIndex.addTest("ATests a", "ATests", 5);
+                final int bTest = previousIndex.addTest("BTests b", "BTests", 7);
+                previousIndex.addClassProbes(aTest, "A", "1");
+                previousIndex.addClassProbes(bTest, "B", "1");
+
+                final TestCoverageIndex index = TestCoverageIndex.create();
+                final int newATest = index.addTest("ATests a", "ATests", 3);
+                index.addClassProbes(newATest, "A", "01");
+
+                index.addTestsFrom(previousIndex, Iterable.create("ATests"));
+                test.assertEqual(2, index.getTestCount());
+                test.assertEqual("01", index.getClassProbes("A", 0));
+                test.assertEqual("BTests b", index.getTestName(1));
+                test.assertEqual("1", index.getClassProbes("B", 1));
+            });
+        });
+    }
+}
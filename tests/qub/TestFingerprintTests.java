@@ -0,0 +1,128 @@
+package qub;
+
+public interface TestFingerprintTests
+{
+    static void test(TestRunner runner)
+    {
+        PreCondition.assertNotNull(runner, "runner");
+
+        runner.testGroup(TestFingerprint.class, () ->
+        {
+            final Function2<String,String,TestFingerprint> createFingerprint = (String jarStamp, String environmentValue) ->
+            {
+                final MutableMap<String,String> classPathStamps = Map.create();
+                classPathStamps.set("/qub/a/a.jar", jarStamp);
+                classPathStamps.set("/qub/b/b.jar", "1");
+                final MutableMap<String,String> environmentVariables = Map.create();
+                environmentVariables.set("TZ", environmentValue);
+                return TestFingerprint.create(classPathStamps, Iterable.create("-ea"), environmentVariables);
+            };
+
+            runner.testGroup("create(Map<String,String>,Iterable<String>,Map<String,String>)", () ->
+            {
+                runner.test("with null classPathStamps", (Test test) ->
+                {
+                    test.assertThrows(() -> TestFingerprint.create(null, Iterable.create(), Map.create()),
+                        new PreConditionFailure("classPathStamps cannot be null."));
+                });
+
+                runner.test("with null jvmOptions", (Test test) ->
+                {
+                    test.assertThrows(() -> TestFingerprint.create(Map.create(), null, Map.create()),
+                        new PreConditionFailure("jvmOptions cannot be null."));
+                });
+
+                runner.test("with null environmentVariables", (Test test) ->
+                {
+                    test.assertThrows(() -> TestFingerprint.create(Map.create(), Iterable.create(), null),
+                        new PreConditionFailure("environmentVariables cannot be null."));
+                });
+            });
+
+            runner.testGroup("getEnvironmentVariableNames(JSONObject)", () ->
+            {
+                runner.test("with null", (Test test) ->
+                {
+                    test.assertEqual(Iterable.create(), TestFingerprint.getEnvironmentVariableNames(null));
+                });
+
+                runner.test("with no test object", (Test test) ->
+                {
+                    test.assertEqual(Iterable.create(), TestFingerprint.getEnvironmentVariableNames(JSONObject.create()));
+                });
+
+                runner.test("with environmentVariables", (Test test) ->
+                {
+                    final JSONObject projectJson = JSON.parseObject("{\"test\": {\"environmentVariables\": [\"TZ\", 5, \"LANG\"]}}").await();
+                    test.assertEqual(Iterable.create("TZ", "LANG"), TestFingerprint.getEnvironmentVariableNames(projectJson));
+                });
+            });
+
+            runner.testGroup("hasSameRuntime(TestFingerprint)", () ->
+            {
+                runner.test("with null", (Test test) ->
+                {
+                    test.assertThrows(() -> createFingerprint.run("1", "UTC").hasSameRuntime(null),
+                        new PreConditionFailure("other cannot be null."));
+                });
+
+                runner.test("with different classpath stamps", (Test test) ->
+                {
+                    test.assertTrue(createFingerprint.run("1", "UTC").hasSameRuntime(createFingerprint.run("2", "UTC")));
+                });
+
+                runner.test("with different environment variable values", (Test test) ->
+                {
+                    test.assertFalse(createFingerprint.run("1", "UTC").hasSameRuntime(createFingerprint.run("1", "PST")));
+                });
+
+                runner.test("with an unset environment variable", (Test test) ->
+                {
+                    test.assertFalse(createFingerprint.run("1", "UTC").hasSameRuntime(createFingerprint.run("1", null)));
+                });
+
+                runner.test("with different JVM options", (Test test) ->
+                {
+                    test.assertFalse(TestFingerprint.create(Map.create(), Iterable.create("-ea"), Map.create())
+                        .hasSameRuntime(TestFingerprint.create(Map.create(), Iterable.create("-da"), Map.create())));
+                });
+
+                runner.test("after parsing", (Test test) ->
+                {
+                    final TestFingerprint fingerprint = createFingerprint.run("1", "UTC");
+                    final TestFingerprint parsedFingerprint = TestFingerprint.create(JSON.parseObject(fingerprint.toString()).await());
+                    test.assertTrue(fingerprint.hasSameRuntime(parsedFingerprint));
+                    test.assertFalse(fingerprint.getChangedClassPaths(parsedFingerprint).any());
+                });
+            });
+
+            runner.testGroup("getChangedClassPaths(TestFingerprint)", () ->
+            {
+                runner.test("with null", (Test test) ->
+                {
+                    test.assertThrows(() -> createFingerprint.run("1", "UTC").getChangedClassPaths(null),
+                        new PreConditionFailure("previous cannot be null."));
+                });
+
+                runner.test("with the same stamps", (Test test) ->
+                {
+                    test.assertEqual(Iterable.create(), createFingerprint.run("1", "UTC").getChangedClassPaths(createFingerprint.run("1", "PST")));
+                });
+
+                runner.test("with a changed stamp", (Test test) ->
+                {
+                    test.assertEqual(Iterable.create("/qub/a/a.jar"), createFingerprint.run("2", "UTC").getChangedClassPaths(createFingerprint.run("1", "UTC")));
+                });
+
+                runner.test("with added and removed entries", (Test test) ->
+                {
+                    final MutableMap<String,String> classPathStamps = Map.create();
+                    classPathStamps.set("/qub/a/a.jar", "1");
+                    classPathStamps.set("/qub/c/c.jar", "1");
+                    final TestFingerprint fingerprint = TestFingerprint.create(classPathStamps, Iterable.create("-ea"), Map.create());
+                    test.assertEqual(Iterable.create("/qub/c/c.jar", "/qub/b/b.jar"), fingerprint.getChangedClassPaths(createFingerprint.run("1", "UTC")));
+                });
+            });
+        });
+    }
+}
@@ -152,6 +152,62 @@ public interface TestJSONClassFileTests
                 });
             });
 
+            runner.testGroup("setTests(Iterable<TestJSONTest>)", () ->
+            {
+                runner.test("with null", (Test test) ->
+                {
+                    final TestJSONClassFile classFile = TestJSONClassFile.create("hello.class");
+                    test.assertThrows(() -> classFile.setTests(null),
+                        new PreConditionFailure("tests cannot be null."));
+                    test.assertNull(classFile.getTests());
+                });
+
+                runner.test("with empty", (Test test) ->
+                {
+                    final TestJSONClassFile classFile = TestJSONClassFile.create("hello.class");
+                    test.assertSame(classFile, classFile.setTests(Iterable.create()));
+                    test.assertEqual(0, classFile.getTests().getCount());
+                });
+
+                runner.test("with tests", (Test test) ->
+                {
+                    final TestJSONClassFile classFile = TestJSONClassFile.create("hello.class");
+                    test.assertSame(classFile, classFile.setTests(Iterable.create(
+                        TestJSONTest.create("hello a").setStatus(TestJSONTest.passedStatus),
+                        TestJSONTest.create("hello b").setStatus(TestJSONTest.failedStatus))));
+                    test.assertEqual(Iterable.create("hello a", "hello b"), classFile.getTests().map(TestJSONTest::getFullName).toList());
+                    test.assertEqual(Iterable.create("passed", "failed"), classFile.getTests().map(TestJSONTest::getStatus).toList());
+                });
+            });
+
+            runner.testGroup("hasAllTests()", () ->
+            {
+                runner.test("with no tests", (Test test) ->
+                {
+                    final TestJSONClassFile classFile = TestJSONClassFile.create("hello.class")
+                        .setPassedTestCount(1);
+                    test.assertFalse(classFile.hasAllTests());
+                });
+
+                runner.test("with fewer tests than the test counts", (Test test) ->
+                {
+                    final TestJSONClassFile classFile = TestJSONClassFile.create("hello.class")
+                        .setPassedTestCount(1)
+                        .setFailedTestCount(1)
+                        .setTests(Iterable.create(TestJSONTest.create("hello a")));
+                    test.assertFalse(classFile.hasAllTests());
+                });
+
+                runner.test("with all tests", (Test test) ->
+                {
+                    final TestJSONClassFile classFile = TestJSONClassFile.create("hello.class")
+                        .setPassedTestCount(1)
+                        .setSkippedTestCount(1)
+                        .setTests(Iterable.create(TestJSONTest.create("hello a"), TestJSONTest.create("hello b")));
+                    test.assertTrue(classFile.hasAllTests());
+                });
+            });
+
             runner.testGroup("toString()", () ->
             {
                 runner.test("with no properties set", (Test test) ->
@@ -0,0 +1,98 @@
+package qub;
+
+public interface TestJSONTestTests
+{
+    static void test(TestRunner runner)
+    {
+        PreCondition.assertNotNull(runner, "runner");
+
+        runner.testGroup(TestJSONTest.class, () ->
+        {
+            runner.testGroup("create(String)", () ->
+            {
+                runner.test("with null", (Test test) ->
+                {
+                    test.assertThrows(() -> TestJSONTest.create((String)null),
+                        new PreConditionFailure("fullName cannot be null."));
+                });
+
+                runner.test("with empty", (Test test) ->
+                {
+                    test.assertThrows(() -> TestJSONTest.create(""),
+                        new PreConditionFailure("fullName cannot be empty."));
+                });
+
+                runner.test("with non-empty", (Test test) ->
+                {
+                    final TestJSONTest jsonTest = TestJSONTest.create("ATests a");
+                    test.assertEqual("ATests a", jsonTest.getFullName());
+                    test.assertNull(jsonTest.getStatus());
+                    test.assertEqual(Iterable.create(), jsonTest.getNames());
+                    test.assertEqual("\"ATests a\":{}", jsonTest.toString());
+                });
+            });
+
+            runner.testGroup("setNames(Iterable<String>)", () ->
+            {
+                runner.test("with null", (Test test) ->
+                {
+                    test.assertThrows(() -> TestJSONTest.create("ATests a").setNames(null),
+                        new PreConditionFailure("names cannot be null."));
+                });
+
+                runner.test("with names", (Test test) ->
+                {
+                    final TestJSONTest jsonTest = TestJSONTest.create("ATests a b");
+                    test.assertSame(jsonTest, jsonTest.setNames(Iterable.create("ATests", "a", "b")));
+                    test.assertEqual(Iterable.create("ATests", "a", "b"), jsonTest.getNames());
+                });
+            });
+
+            runner.testGroup("setDurationMilliseconds(int)", () ->
+            {
+                runner.test("with -1", (Test test) ->
+                {
+                    final TestJSONTest jsonTest = TestJSONTest.create("ATests a");
+                    test.assertThrows(() -> jsonTest.setDurationMilliseconds(-1),
+                        new PreConditionFailure("durationMilliseconds (-1) must be greater than or equal to 0."));
+                    test.assertNull(jsonTest.getDurationMilliseconds());
+                });
+
+                runner.test("with 12", (Test test) ->
+                {
+                    final TestJSONTest jsonTest = TestJSONTest.create("ATests a");
+                    test.assertSame(jsonTest, jsonTest.setDurationMilliseconds(12));
+                    test.assertEqual(12, jsonTest.getDurationMilliseconds());
+                });
+            });
+
+            runner.testGroup("matches(PathPattern)", () ->
+            {
+                final TestJSONTest jsonTest = TestJSONTest.create("ATests getX() with null")
+                    .setNames(Iterable.create("ATests", "getX()", "with null"));
+
+                runner.test("with null", (Test test) ->
+                {
+                    test.assertThrows(() -> jsonTest.matches(null),
+                        new PreConditionFailure("pattern cannot be null."));
+                });
+
+                final Action2<String,Boolean> matchesTest = (String pattern, Boolean expected) ->
+                {
+                    runner.test("with " + Strings.escapeAndQuote(pattern), (Test test) ->
+                    {
+                        test.assertEqual(expected, jsonTest.matches(PathPattern.parse(pattern)));
+                    });
+                };
+
+                matchesTest.run("ATests getX() with null", true);
+                matchesTest.run("ATests*", true);
+                matchesTest.run("getX()", true);
+                matchesTest.run("with null", true);
+                matchesTest.run("ATests getX()", true);
+                matchesTest.run("BTests", false);
+                matchesTest.run("getY()", false);
+            });
+        });
+    }
+}
@@ -0,0 +1,88 @@
+package qub;
+
+public interface TestJvmProfilesTests
+{
+    static void test(TestRunner runner)
+    {
+        PreCondition.assertNotNull(runner, "runner");
+
+        runner.testGroup(TestJvmProfiles.class, () ->
+        {
+            runner.testGroup("splitJvmArguments(String)", () ->
+            {
+                final Action2<String,Iterable<String>> splitJvmArgumentsTest = (String jvmArguments, Iterable<String> expected) ->
+                {
+                    runner.test("with " + Strings.escapeAndQuote(jvmArguments), (Test test) ->
+                    {
+                        test.assertEqual(expected, TestJvmProfiles.splitJvmArguments(jvmArguments));
+                    });
+                };
+
+                splitJvmArgumentsTest.run(null, Iterable.create());
+                splitJvmArgumentsTest.run("", Iterable.create());
+                splitJvmArgumentsTest.run("-Xmx1g", Iterable.create("-Xmx1g"));
+                splitJvmArgumentsTest.run("  -Xmx1g   -XX:+UseParallelGC ", Iterable.create("-Xmx1g", "-XX:+UseParallelGC"));
+            });
+
+            runner.testGroup("getAutoHeapArgument(int)", () ->
+            {
+                final Action2<Integer,String> getAutoHeapArgumentTest = (Integer peakHeapMegabytes, String expected) ->
+                {
+                    runner.test("with " + peakHeapMegabytes, (Test test) ->
+                    {
+                        test.assertEqual(expected, TestJvmProfiles.getAutoHeapArgument(peakHeapMegabytes));
+                    });
+                };
+
+                getAutoHeapArgumentTest.run(0, "-Xmx64m");
+                getAutoHeapArgumentTest.run(40, "-Xmx64m");
+                getAutoHeapArgumentTest.run(100, "-Xmx150m");
+                getAutoHeapArgumentTest.run(101, "-Xmx152m");
+            });
+
+            runner.testGroup("getJvmArguments(String,JSONObject,Integer)", () ->
+            {
+                runner.test("with built-in quick profile", (Test test) ->
+                {
+                    test.assertEqual(
+                        Iterable.create("-XX:TieredStopAtLevel=1", "-XX:+UseSerialGC"),
+                        TestJvmProfiles.getJvmArguments("quick", null, null).await());
+                });
+
+                runner.test("with built-in low-memory profile and no recorded peak heap", (Test test) ->
+                {
+                    test.assertEqual(
+                        Iterable.create("-XX:+UseSerialGC", "-XX:MinHeapFreeRatio=10", "-XX:MaxHeapFreeRatio=20"),
+                        TestJvmProfiles.getJvmArguments("low-memory", null, null).await());
+                });
+
+                runner.test("with built-in low-memory profile and a recorded peak heap", (Test test) ->
+                {
+                    test.assertEqual(
+                        Iterable.create("-XX:+UseSerialGC", "-XX:MinHeapFreeRatio=10", "-XX:MaxHeapFreeRatio=20", "-Xmx300m"),
+                        TestJvmProfiles.getJvmArguments("low-memory", null, 200).await());
+                });
+
+                runner.test("with unknown profile", (Test test) ->
+                {
+                    test.assertThrows(() -> TestJvmProfiles.getJvmArguments("spam", null, null).await(),
+                        new NotFoundException("No JVM profile named \"spam\" was found."));
+                });
+
+                runner.test("with profile declared in project.json", (Test test) ->
+                {
+                    final JSONObject projectJson = JSON.parseObject("{\"test\":{\"jvmProfiles\":{\"quick\":{\"jvmArgs\":\"-Xss2m\",\"heap\":\"512m\"},\"big\":{\"heap\":\"auto\"}}}}").await();
+                    test.assertEqual(
+                        Iterable.create("-Xss2m", "-Xmx512m"),
+                        TestJvmProfiles.getJvmArguments("quick", projectJson, 100).await());
+                    test.assertEqual(
+                        Iterable.create("-Xmx150m"),
+                        TestJvmProfiles.getJvmArguments("big", projectJson, 100).await());
+                    test.assertEqual(
+                        Iterable.create("-XX:+UseParallelGC"),
+                        TestJvmProfiles.getJvmArguments("throughput", projectJson, 100).await());
+                });
+            });
+        });
+    }
+}
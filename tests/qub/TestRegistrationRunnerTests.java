@@ -0,0 +1,81 @@
+package qub;
+
+public interface TestRegistrationRunnerTests
+{
+    /**
+     * A test class whose tests are registered by the tests below. It is also run as a normal test
+     * class, so its tests always pass and only count how many times they ran.
+     */
+    interface SampleTests
+    {
+        java.util.concurrent.atomic.AtomicInteger testRunCount = new java.util.concurrent.atomic.AtomicInteger();
+
+        static void test(TestRunner runner)
+        {
+            runner.testGroup("getX()", () ->
+            {
+                runner.test("with null", (Test test) ->
+                {
+                    SampleTests.testRunCount.incrementAndGet();
+                });
+
+                runner.speedTest("with large value", Duration.seconds(1), (Test test) ->
+                {
+                    SampleTests.testRunCount.incrementAndGet();
+                });
+            });
+
+            runner.test("with one", (Test test) ->
+            {
+                SampleTests.testRunCount.incrementAndGet();
+            });
+        }
+    }
+
+    static void test(TestRunner runner)
+    {
+        PreCondition.assertNotNull(runner, "runner");
+
+        runner.testGroup(TestRegistrationRunner.class, () ->
+        {
+            runner.testGroup("getTests(String)", () ->
+            {
+                runner.test("with a class that isn't a test class",
+                    (TestResources resources) -> Tuple.create(resources.createFakeDesktopProcess()),
+                    (Test test, FakeDesktopProcess process) ->
+                {
+                    final TestRegistrationRunner registrationRunner = TestRegistrationRunner.create(process, TestRegistrationRunnerTests.class.getClassLoader());
+                    test.assertEqual(Iterable.create(), registrationRunner.getTests(TestRegistrationRunner.class.getName()).await());
+                });
+
+                runner.test("with a class that doesn't exist",
+                    (TestResources resources) -> Tuple.create(resources.createFakeDesktopProcess()),
+                    (Test test, FakeDesktopProcess process) ->
+                {
+                    final TestRegistrationRunner registrationRunner = TestRegistrationRunner.create(process, TestRegistrationRunnerTests.class.getClassLoader());
+                    test.assertThrows(() -> registrationRunner.getTests("qub.DoesNotExist").await(),
+                        new NotFoundException("Could not find a class named \"qub.DoesNotExist\"."));
+                });
+
+                runner.test("with a test class",
+                    (TestResources resources) -> Tuple.create(resources.createFakeDesktopProcess()),
+                    (Test test, FakeDesktopProcess process) ->
+                {
+                    final TestRegistrationRunner registrationRunner = TestRegistrationRunner.create(process, TestRegistrationRunnerTests.class.getClassLoader());
+                    final String className = SampleTests.class.getName();
+                    final int testRunCount = SampleTests.testRunCount.get();
+                    final Iterable<TestJSONTest> tests = registrationRunner.getTests(className).await();
+                    test.assertEqual(
+                        Iterable.create(
+                            className + " getX() with null",
+                            className + " getX() with large value",
+                            className + " with one"),
+                        tests.map(TestJSONTest::getFullName).toList());
+                    test.assertEqual(testRunCount, SampleTests.testRunCount.get());
+                    test.assertEqual(Iterable.create(className, "getX()", "with null"), tests.first().getNames());
+                    test.assertNull(tests.first().getStatus());
+                });
+            });
+        });
+    }
+}
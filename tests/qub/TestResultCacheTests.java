@@ -0,0 +1,152 @@
+package qub;
+
+public interface TestResultCacheTests
+{
+    static void test(TestRunner runner)
+    {
+        PreCondition.assertNotNull(runner, "runner");
+
+        runner.testGroup(TestResultCache.class, () ->
+        {
+            final Path classFileRelativePath = Path.parse("a/BTests.class");
+            final DateTime lastModified = DateTime.create(2024, 1, 2);
+            final Function1<Integer,TestJSONClassFile> createClassFile = (Integer failedTestCount) ->
+            {
+                return TestJSONClassFile.create(classFileRelativePath)
+                    .setLastModified(lastModified)
+                    .setPassedTestCount(3)
+                    .setSkippedTestCount(1)
+                    .setFailedTestCount(failedTestCount);
+            };
+
+            runner.testGroup("create(Folder)", () ->
+            {
+                runner.test("with null", (Test test) ->
+                {
+                    test.assertThrows(() -> TestResultCache.create(null),
+                        new PreConditionFailure("qubTestDataFolder cannot be null."));
+                });
+
+                runner.test("with data folder",
+                    (TestResources resources) -> Tuple.create(resources.createFakeDesktopProcess()),
+                    (Test test, FakeDesktopProcess process) ->
+                {
+                    final Folder dataFolder = process.getCurrentFolder().getFolder("data").await();
+                    final TestResultCache cache = TestResultCache.create(dataFolder);
+                    test.assertEqual(dataFolder.getFolder("results").await(), cache.getCacheFolder());
+                    test.assertTrue(cache.getMaximumBytes() > 0, "cache.getMaximumBytes() > 0");
+                });
+            });
+
+            runner.testGroup("get(String,Path,DateTime) and set(String,TestJSONClassFile)", () ->
+            {
+                runner.test("with missing key",
+                    (TestResources resources) -> Tuple.create(resources.createFakeDesktopProcess()),
+                    (Test test, FakeDesktopProcess process) ->
+                {
+                    final TestResultCache cache = TestResultCache.create(process.getCurrentFolder().getFolder("results").await(), 1000);
+                    test.assertNull(cache.get("abc123", classFileRelativePath, lastModified));
+                });
+
+                runner.test("with passing result",
+                    (TestResources resources) -> Tuple.create(resources.createFakeDesktopProcess()),
+                    (Test test, FakeDesktopProcess process) ->
+                {
+                    final TestResultCache cache = TestResultCache.create(process.getCurrentFolder().getFolder("results").await(), 1000);
+                    test.assertTrue(cache.set("abc123", createClassFile.run(0)));
+                    cache.save();
+
+                    final TestJSONClassFile result = TestResultCache.create(cache.getCacheFolder(), 1000).get("abc123", classFileRelativePath, lastModified);
+                    test.assertNotNull(result);
+                    test.assertEqual(classFileRelativePath, result.getRelativePath());
+                    test.assertEqual(lastModified, result.getLastModified());
+                    test.assertEqual(3, result.getPassedTestCount());
+                    test.assertEqual(1, result.getSkippedTestCount());
+                    test.assertEqual(0, result.getFailedTestCount());
+                });
+
+                runner.test("with failing result",
+                    (TestResources resources) -> Tuple.create(resources.createFakeDesktopProcess()),
+                    (Test test, FakeDesktopProcess process) ->
+                {
+                    final TestResultCache cache = TestResultCache.create(process.getCurrentFolder().getFolder("results").await(), 1000);
+                    test.assertFalse(cache.set("abc123", createClassFile.run(2)));
+                    test.assertNull(cache.get("abc123", classFileRelativePath, lastModified));
+                });
+            });
+
+            runner.test("save() evicts the least recently used entries",
+                (TestResources resources) -> Tuple.create(resources.createFakeDesktopProcess()),
+                (Test test, FakeDesktopProcess process) ->
+            {
+                final TestResultCache cache = TestResultCache.create(process.getCurrentFolder().getFolder("results").await(), 100);
+                cache.set("aa01", createClassFile.run(0));
+                cache.set("bb02", createClassFile.run(0));
+                cache.set("cc03", createClassFile.run(0));
+                test.assertNotNull(cache.get("aa01", classFileRelativePath, lastModified));
+                cache.save();
+
+                test.assertNotNull(cache.get("aa01", classFileRelativePath, lastModified));
+                test.assertNull(cache.get("bb02", classFileRelativePath, lastModified));
+                test.assertNull(cache.get("cc03", classFileRelativePath, lastModified));
+            });
+
+            runner.test("save() adds to the size that another cache saved since it was loaded",
+                (TestResources resources) -> Tuple.create(resources.createFakeDesktopProcess()),
+                (Test test, FakeDesktopProcess process) ->
+            {
+                final Folder cacheFolder = process.getCurrentFolder().getFolder("results").await();
+                final TestResultCache cache1 = TestResultCache.create(cacheFolder, 1000);
+                final TestResultCache cache2 = TestResultCache.create(cacheFolder, 1000);
+                cache1.set("aa01", createClassFile.run(0));
+                cache2.set("bb02", createClassFile.run(0));
+                cache1.save();
+                cache2.save();
+
+                long entryBytes = 0;
+                for (final File entryFile : cacheFolder.getFolder("entries").await().getFilesRecursively().await())
+                {
+                    entryBytes += entryFile.getContentsAsString().await().length();
+                }
+                final JSONObject indexJson = JSON.parseObject(cacheFolder.getFile("index.json").await()).await();
+                test.assertEqual((double)entryBytes, indexJson.getNumber("bytes").await());
+            });
+
+            runner.test("exportTo(File) and importFrom(File)",
+                (TestResources resources) -> Tuple.create(resources.createFakeDesktopProcess()),
+                (Test test, FakeDesktopProcess process) ->
+            {
+                final Folder currentFolder = process.getCurrentFolder();
+                final TestResultCache exportCache = TestResultCache.create(currentFolder.getFolder("export").await(), 1000);
+                exportCache.set("aa01", createClassFile.run(0));
+                exportCache.set("bb02", createClassFile.run(0));
+                exportCache.save();
+
+                final File archiveFile = currentFolder.getFile("results.zip").await();
+                test.assertEqual(2, exportCache.exportTo(archiveFile).await());
+
+                final TestResultCache importCache = TestResultCache.create(currentFolder.getFolder("import").await(), 1000);
+                importCache.set("aa01", createClassFile.run(0));
+                test.assertEqual(1, importCache.importFrom(archiveFile).await());
+                test.assertNotNull(importCache.get("bb02", classFileRelativePath, lastModified));
+            });
+
+            runner.testGroup("isKey(String)", () ->
+            {
+                final Action2<String,Boolean> isKeyTest = (String value, Boolean expected) ->
+                {
+                    runner.test("with " + Strings.escapeAndQuote(value), (Test test) ->
+                    {
+                        test.assertEqual(expected, TestResultCache.isKey(value));
+                    });
+                };
+
+                isKeyTest.run(null, false);
+                isKeyTest.run("", false);
+                isKeyTest.run("0a9fBC", true);
+                isKeyTest.run("../index", false);
+                isKeyTest.run("ab/cd", false);
+            });
+        });
+    }
+}
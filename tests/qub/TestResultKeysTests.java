@@ -0,0 +1,87 @@
+package qub;
+
+public interface TestResultKeysTests
+{
+    static void test(TestRunner runner)
+    {
+        PreCondition.assertNotNull(runner, "runner");
+
+        runner.testGroup(TestResultKeys.class, () ->
+        {
+            runner.testGroup("create(Folder,String)", () ->
+            {
+                runner.test("with null outputFolder", (Test test) ->
+                {
+                    test.assertThrows(() -> TestResultKeys.create(null, "abc"),
+                        new PreConditionFailure("outputFolder cannot be null."));
+                });
+
+                runner.test("with empty runtimeKey",
+                    (TestResources resources) -> Tuple.create(resources.createFakeDesktopProcess()),
+                    (Test test, FakeDesktopProcess process) ->
+                {
+                    test.assertThrows(() -> TestResultKeys.create(process.getCurrentFolder(), ""),
+                        new PreConditionFailure("runtimeKey cannot be empty."));
+                });
+            });
+
+            runner.test("getRuntimeKey(VersionNumber,TestFingerprint,Iterable<String>,Folder)",
+                (TestResources resources) -> Tuple.create(resources.createFakeDesktopProcess()),
+                (Test test, FakeDesktopProcess process) ->
+            {
+                final Folder outputFolder = process.getCurrentFolder().getFolder("outputs").await();
+                final File jarFile = process.getCurrentFolder().getFile("dep.jar").await();
+                jarFile.setContentsAsString("version 1").await();
+                final TestFingerprint fingerprint = TestFingerprint.create(Map.create(), Iterable.create("-ea"), Map.create());
+                final Iterable<String> classPaths = Iterable.create(outputFolder.toString(), jarFile.toString());
+
+                final String runtimeKey = TestResultKeys.getRuntimeKey(VersionNumber.parse("17").await(), fingerprint, classPaths, outputFolder);
+                test.assertEqual(runtimeKey, TestResultKeys.getRuntimeKey(VersionNumber.parse("17").await(), fingerprint, classPaths, outputFolder));
+                test.assertNotEqual(runtimeKey, TestResultKeys.getRuntimeKey(VersionNumber.parse("21").await(), fingerprint, classPaths, outputFolder));
+
+                jarFile.setContentsAsString("version 2").await();
+                test.assertNotEqual(runtimeKey, TestResultKeys.getRuntimeKey(VersionNumber.parse("17").await(), fingerprint, classPaths, outputFolder));
+            });
+
+            runner.test("getKey(String)",
+                (TestResources resources) -> Tuple.create(resources.createFakeDesktopProcess()),
+                (Test test, FakeDesktopProcess process) ->
+            {
+                final Folder outputFolder = process.getCurrentFolder().getFolder("outputs").await();
+                final Action3<String,String,Integer> createClassFile = (String internalName, String referencedInternalName, Integer version) ->
+                {
+                    final byte[] classFileBytes = ClassFileReferencesTests.createClassFileBytes((java.io.DataOutputStream constantPool) ->
+                    {
+                        constantPool.writeByte(1);
+                        constantPool.writeUTF(internalName);
+                        constantPool.writeByte(7);
+                        constantPool.writeShort(1);
+                        constantPool.writeByte(1);
+                        constantPool.writeUTF(referencedInternalName);
+                        constantPool.writeByte(7);
+                        constantPool.writeShort(3);
+                        constantPool.writeByte(3);
+                        constantPool.writeInt(version);
+                    }, 6);
+                    outputFolder.getFile(internalName + ".class").await().setContents(classFileBytes).await();
+                };
+                createClassFile.run("a/ATests", "a/Helper", 1);
+                createClassFile.run("a/Helper", "java/lang/Object", 1);
+                createClassFile.run("a/Other", "java/lang/Object", 1);
+                outputFolder.getFile("a/Broken.class").await().setContentsAsString("not a class file").await();
+
+                final String key = TestResultKeys.create(outputFolder, "runtime").getKey("a.ATests");
+                test.assertNotNull(key);
+                test.assertNotEqual(key, TestResultKeys.create(outputFolder, "other runtime").getKey("a.ATests"));
+                test.assertNull(TestResultKeys.create(outputFolder, "runtime").getKey("a.Missing"));
+                test.assertNull(TestResultKeys.create(outputFolder, "runtime").getKey("a.Broken"));
+
+                createClassFile.run("a/Other", "java/lang/Object", 2);
+                test.assertEqual(key, TestResultKeys.create(outputFolder, "runtime").getKey("a.ATests"));
+
+                createClassFile.run("a/Helper", "java/lang/Object", 2);
+                test.assertNotEqual(key, TestResultKeys.create(outputFolder, "runtime").getKey("a.ATests"));
+            });
+        });
+    }
+}
@@ -0,0 +1,37 @@
+package qub;
+
+public interface TestRunBenchmarkTests
+{
+    static void test(TestRunner runner)
+    {
+        PreCondition.assertNotNull(runner, "runner");
+
+        runner.testGroup(TestRunBenchmark.class, () ->
+        {
+            runner.test("createBenchmarkRunner(File,Folder,Iterable<String>,VerboseCharacterToByteWriteStream) after the test runner's classpath changed",
+                (TestResources resources) -> Tuple.create(resources.createFakeDesktopProcess()),
+                (Test test, FakeDesktopProcess process) ->
+            {
+                final Folder currentFolder = process.getCurrentFolder();
+                final Folder outputFolder = currentFolder.getFolder("outputs").await();
+                final QubTestRunParameters parameters = QubTestRunTests.getParameters(process, "/fake-jvm-classpath")
+                    .setBenchmark(true)
+                    .setBenchmarkIterations(3);
+                final List<String> classPaths = List.create();
+                classPaths.add(outputFolder.toString());
+                final TestRunBenchmark benchmark = TestRunBenchmark.create(parameters, Iterable.create("-Xmx1g"), classPaths);
+
+                // Coverage adds the instrumented classes to the test runner's classpath after the
+                // benchmark runner's classpath was copied.
+                classPaths.insert(0, "/instrumented-classes/");
+
+                final VerboseCharacterToByteWriteStream verbose = VerboseCharacterToByteWriteStream.create(InMemoryCharacterToByteStream.create());
+                final String command = benchmark.createBenchmarkRunner(currentFolder.getFile("test.log").await(), outputFolder, Iterable.create("ASpeedTests"), verbose).getCommand();
+                test.assertTrue(command.contains("-Xmx1g -classpath /outputs/ qub.ConsoleTestRunner"));
+                test.assertFalse(command.contains("/instrumented-classes/"));
+                test.assertTrue(command.contains("--testjson=false"));
+                test.assertTrue(command.endsWith(" ASpeedTests"));
+            });
+        });
+    }
+}
@@ -0,0 +1,29 @@
+package qub;
+
+public interface TestRunClassPathTests
+{
+    static void test(TestRunner runner)
+    {
+        PreCondition.assertNotNull(runner, "runner");
+
+        runner.testGroup(TestRunClassPath.class, () ->
+        {
+            runner.test("getClassPaths() when project.json doesn't exist",
+                (TestResources resources) -> Tuple.create(resources.createFakeDesktopProcess()),
+                (Test test, FakeDesktopProcess process) ->
+            {
+                final Folder currentFolder = process.getCurrentFolder();
+                final Folder projectFolder = currentFolder.getFolder("project").await();
+                final TestRunClassPath classPath = TestRunClassPath.create(
+                    currentFolder.getFolder("data").await(),
+                    projectFolder,
+                    projectFolder.getFolder("outputs").await(),
+                    process.getQubFolder().await(),
+                    "");
+
+                test.assertNull(classPath.getClassPaths().catchError().await());
+                test.assertSame(classPath.getClassPaths(), classPath.getClassPaths());
+            });
+        });
+    }
+}
@@ -0,0 +1,71 @@
+package qub;
+
+public interface TestRunCoverageTests
+{
+    static void test(TestRunner runner)
+    {
+        PreCondition.assertNotNull(runner, "runner");
+
+        runner.testGroup(TestRunCoverage.class, () ->
+        {
+            runner.testGroup("create(QubTestRunParameters,Folder,Folder,Folder,VerboseCharacterToByteWriteStream)", () ->
+            {
+                runner.test("with no coverage",
+                    (TestResources resources) -> Tuple.create(resources.createFakeDesktopProcess()),
+                    (Test test, FakeDesktopProcess process) ->
+                {
+                    final Folder currentFolder = process.getCurrentFolder();
+                    final QubTestRunParameters parameters = QubTestRunTests.getParameters(process, "/fake-jvm-classpath")
+                        .setCoverage(Coverage.None);
+                    final VerboseCharacterToByteWriteStream verbose = VerboseCharacterToByteWriteStream.create(InMemoryCharacterToByteStream.create());
+
+                    test.assertNull(TestRunCoverage.create(parameters, currentFolder.getFolder("outputs").await(), currentFolder.getFolder("sources").await(), currentFolder.getFolder("tests").await(), verbose));
+                });
+
+                runner.test("with no class files to collect coverage for",
+                    (TestResources resources) -> Tuple.create(resources.createFakeDesktopProcess()),
+                    (Test test, FakeDesktopProcess process) ->
+                {
+                    final Folder currentFolder = process.getCurrentFolder();
+                    process.getQubFolder().await()
+                        .getProjectVersionFolder("jacoco", "jacococli", "0.8.1").await()
+                        .createFile("jacocoagent.jar").await();
+                    final QubTestRunParameters parameters = QubTestRunTests.getParameters(process, "/fake-jvm-classpath")
+                        .setCoverage(Coverage.Sources);
+                    final InMemoryCharacterToByteStream verboseStream = InMemoryCharacterToByteStream.create();
+                    final VerboseCharacterToByteWriteStream verbose = VerboseCharacterToByteWriteStream.create(verboseStream);
+
+                    test.assertNull(TestRunCoverage.create(parameters, currentFolder.getFolder("outputs").await(), currentFolder.getFolder("sources").await(), currentFolder.getFolder("tests").await(), verbose));
+                    test.assertTrue(verboseStream.getText().await().contains("There are no class files to collect coverage for. Skipping coverage."));
+                });
+            });
+
+            runner.test("addToTestRunner(QubTestRunParameters,ConsoleTestRunnerProcessBuilder,List<String>,VerboseCharacterToByteWriteStream) with the JaCoCo agent",
+                (TestResources resources) -> Tuple.create(resources.createFakeDesktopProcess()),
+                (Test test, FakeDesktopProcess process) ->
+            {
+                final Folder currentFolder = process.getCurrentFolder();
+                final Folder outputFolder = currentFolder.getFolder("outputs").await();
+                currentFolder.getFile("sources/A.java").await().setContentsAsString("A.java source").await();
+                outputFolder.getFile("A.class").await().setContentsAsString("A.java bytecode").await();
+                process.getQubFolder().await()
+                    .getProjectVersionFolder("jacoco", "jacococli", "0.8.1").await()
+                    .createFile("jacocoagent.jar").await();
+                final QubTestRunParameters parameters = QubTestRunTests.getParameters(process, "/fake-jvm-classpath")
+                    .setCoverage(Coverage.Sources);
+                final VerboseCharacterToByteWriteStream verbose = VerboseCharacterToByteWriteStream.create(InMemoryCharacterToByteStream.create());
+                final TestRunCoverage coverage = TestRunCoverage.create(parameters, outputFolder, currentFolder.getFolder("sources").await(), currentFolder.getFolder("tests").await(), verbose);
+                test.assertNotNull(coverage);
+
+                final ConsoleTestRunnerProcessBuilder consoleTestRunner = ConsoleTestRunnerProcessBuilder.create(process.getProcessFactory()).await();
+                final List<String> classPaths = List.create();
+                classPaths.add(outputFolder.toString());
+                coverage.addToTestRunner(parameters, consoleTestRunner, classPaths, verbose);
+
+                test.assertEqual(Iterable.create(outputFolder.toString()), classPaths);
+                test.assertTrue(consoleTestRunner.getCommand().contains("-javaagent:/qub/jacoco/jacococli/versions/0.8.1/jacocoagent.jar=destfile=/outputs/coverage.exec,includes=A:A$*"));
+                test.assertEqual(outputFolder.getFile("coverage/index.html").await(), coverage.getReportFile());
+            });
+        });
+    }
+}
@@ -0,0 +1,101 @@
+package qub;
+
+public interface TestRunFingerprintTests
+{
+    static void test(TestRunner runner)
+    {
+        PreCondition.assertNotNull(runner, "runner");
+
+        runner.testGroup(TestRunFingerprint.class, () ->
+        {
+            runner.test("create(TestRunClassPath,Iterable<String>,Folder,Folder,EnvironmentVariables,TestJSON,VerboseCharacterToByteWriteStream) when the classpath can't be resolved",
+                (TestResources resources) -> Tuple.create(resources.createFakeDesktopProcess()),
+                (Test test, FakeDesktopProcess process) ->
+            {
+                final Folder currentFolder = process.getCurrentFolder();
+                final Folder projectFolder = currentFolder.getFolder("project").await();
+                final Folder outputFolder = projectFolder.getFolder("outputs").await();
+                final TestRunClassPath classPath = TestRunClassPath.create(currentFolder.getFolder("data").await(), projectFolder, outputFolder, process.getQubFolder().await(), "");
+                final TestJSON previousTestJson = TestJSON.create()
+                    .setJavaVersion("11")
+                    .setClassFiles(Iterable.create(TestJSONClassFile.create("a/ATests.class")));
+                final VerboseCharacterToByteWriteStream verbose = VerboseCharacterToByteWriteStream.create(process.getOutputWriteStream());
+
+                test.assertNull(TestRunFingerprint.create(classPath, Iterable.create("-ea"), projectFolder, outputFolder, process.getEnvironmentVariables(), previousTestJson, verbose));
+                test.assertFalse(outputFolder.fileExists("test.json").await());
+            });
+
+            runner.testGroup("updateFingerprint(TestJSON,TestFingerprint,Folder,VerboseCharacterToByteWriteStream)", () ->
+            {
+                final Function1<String,TestFingerprint> createFingerprint = (String jarStamp) ->
+                {
+                    final MutableMap<String,String> classPathStamps = Map.create();
+                    classPathStamps.set("/qub/dep/dep.jar", jarStamp);
+                    return TestFingerprint.create(classPathStamps, Iterable.create("-ea"), Map.create());
+                };
+
+                runner.test("with no previous fingerprint",
+                    (TestResources resources) -> Tuple.create(resources.createFakeDesktopProcess()),
+                    (Test test, FakeDesktopProcess process) ->
+                {
+                    final Folder outputFolder = process.getCurrentFolder().getFolder("outputs").await();
+                    final TestJSON previousTestJson = TestJSON.create()
+                        .setJavaVersion("11")
+                        .setClassFiles(Iterable.create(TestJSONClassFile.create("a/ATests.class")));
+                    final VerboseCharacterToByteWriteStream verbose = VerboseCharacterToByteWriteStream.create(process.getOutputWriteStream());
+
+                    final TestJSON result = TestRunFingerprint.updateFingerprint(previousTestJson, createFingerprint.run("1"), outputFolder, verbose);
+                    test.assertEqual(1, result.getClassFiles().getCount());
+                    test.assertNotNull(result.getFingerprint().await());
+                    test.assertEqual(1, TestJSON.parse(outputFolder.getFile("test.json").await()).await().getClassFiles().getCount());
+                });
+
+                runner.test("with changed JVM options",
+                    (TestResources resources) -> Tuple.create(resources.createFakeDesktopProcess()),
+                    (Test test, FakeDesktopProcess process) ->
+                {
+                    final Folder outputFolder = process.getCurrentFolder().getFolder("outputs").await();
+                    final TestJSON previousTestJson = TestJSON.create()
+                        .setJavaVersion("11")
+                        .setClassFiles(Iterable.create(TestJSONClassFile.create("a/ATests.class")))
+                        .setFingerprint(TestFingerprint.create(Map.create(), Iterable.create("-Dmode=slow"), Map.create()));
+                    final VerboseCharacterToByteWriteStream verbose = VerboseCharacterToByteWriteStream.create(process.getOutputWriteStream());
+
+                    final TestJSON result = TestRunFingerprint.updateFingerprint(previousTestJson, TestFingerprint.create(Map.create(), Iterable.create("-Dmode=fast"), Map.create()), outputFolder, verbose);
+                    test.assertFalse(result.getClassFiles().any());
+                });
+
+                runner.test("with a changed classpath entry that can't be listed",
+                    (TestResources resources) -> Tuple.create(resources.createFakeDesktopProcess()),
+                    (Test test, FakeDesktopProcess process) ->
+                {
+                    final Folder outputFolder = process.getCurrentFolder().getFolder("outputs").await();
+                    final TestJSON previousTestJson = TestJSON.create()
+                        .setJavaVersion("11")
+                        .setClassFiles(Iterable.create(TestJSONClassFile.create("a/ATests.class")))
+                        .setFingerprint(createFingerprint.run("1"));
+                    final VerboseCharacterToByteWriteStream verbose = VerboseCharacterToByteWriteStream.create(process.getOutputWriteStream());
+
+                    final TestJSON result = TestRunFingerprint.updateFingerprint(previousTestJson, createFingerprint.run("2"), outputFolder, verbose);
+                    test.assertFalse(result.getClassFiles().any());
+                });
+
+                runner.test("with the same fingerprint",
+                    (TestResources resources) -> Tuple.create(resources.createFakeDesktopProcess()),
+                    (Test test, FakeDesktopProcess process) ->
+                {
+                    final Folder outputFolder = process.getCurrentFolder().getFolder("outputs").await();
+                    final TestJSON previousTestJson = TestJSON.create()
+                        .setJavaVersion("11")
+                        .setClassFiles(Iterable.create(TestJSONClassFile.create("a/ATests.class")))
+                        .setFingerprint(createFingerprint.run("1"));
+                    final VerboseCharacterToByteWriteStream verbose = VerboseCharacterToByteWriteStream.create(process.getOutputWriteStream());
+
+                    final TestJSON result = TestRunFingerprint.updateFingerprint(previousTestJson, createFingerprint.run("1"), outputFolder, verbose);
+                    test.assertEqual(1, result.getClassFiles().getCount());
+                    test.assertFalse(outputFolder.fileExists("test.json").await());
+                });
+            });
+        });
+    }
+}
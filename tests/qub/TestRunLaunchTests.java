@@ -0,0 +1,85 @@
+package qub;
+
+public interface TestRunLaunchTests
+{
+    static void test(TestRunner runner)
+    {
+        PreCondition.assertNotNull(runner, "runner");
+
+        runner.testGroup(TestRunLaunch.class, () ->
+        {
+            runner.test("addTestRunnerArguments(Iterable<String>,Folder,TestRunPlan,Integer,Integer,boolean,boolean,VerboseCharacterToByteWriteStream) with test classes to run",
+                (TestResources resources) -> Tuple.create(resources.createFakeDesktopProcess()),
+                (Test test, FakeDesktopProcess process) ->
+            {
+                final Folder currentFolder = process.getCurrentFolder();
+                final Folder outputFolder = currentFolder.getFolder("outputs").await();
+                final File logFile = currentFolder.getFile("test.log").await();
+                final QubTestRunParameters parameters = QubTestRunTests.getParameters(process, "/fake-jvm-classpath");
+                final VerboseCharacterToByteWriteStream verbose = VerboseCharacterToByteWriteStream.create(InMemoryCharacterToByteStream.create());
+                final TestRunLaunch launch = TestRunLaunch.create(parameters, logFile, verbose);
+
+                launch.addTestRunnerArguments(Iterable.create(outputFolder.toString()), outputFolder, TestRunPlan.create(Iterable.create("A", "B")), null, null, false, false, verbose);
+
+                final String command = launch.getConsoleTestRunner().getCommand();
+                test.assertTrue(command.contains("-classpath /outputs/ qub.ConsoleTestRunner"));
+                test.assertTrue(command.contains("--logfile=/test.log"));
+                test.assertTrue(command.endsWith(" A B"));
+                test.assertFalse(launch.wasRestarted());
+            });
+
+            runner.test("run(Folder,Iterable<Folder>,AsyncTask<Integer>,DateTime) when the test runner leaves a resume file",
+                (TestResources resources) -> Tuple.create(resources.createFakeDesktopProcess()),
+                (Test test, FakeDesktopProcess process) ->
+            {
+                final Folder currentFolder = process.getCurrentFolder();
+                final Folder outputFolder = currentFolder.getFolder("outputs").await();
+                final File logFile = currentFolder.getFile("test.log").await();
+                final QubTestRunParameters parameters = QubTestRunTests.getParameters(process, "/fake-jvm-classpath");
+                final File resumeFile = TestTimeouts.getResumeFile(parameters.getQubTestDataFolder(), currentFolder);
+
+                // The first test runner abandons a hung test and the second one finishes the
+                // remaining test classes.
+                final java.util.concurrent.atomic.AtomicInteger runCount = new java.util.concurrent.atomic.AtomicInteger();
+                final Action0 testRunnerFunction = () ->
+                {
+                    if (runCount.incrementAndGet() == 1)
+                    {
+                        resumeFile.setContentsAsString("B").await();
+                    }
+                    else
+                    {
+                        resumeFile.delete().await();
+                    }
+                };
+                for (int i = 0; i < 2; ++i)
+                {
+                    process.getProcessFactory()
+                        .add(new FakeConsoleTestRunnerProcessRun()
+                            .setWorkingFolder(currentFolder)
+                            .addClasspath(Iterable.create(outputFolder.toString()))
+                            .addConsoleTestRunnerFullClassName()
+                            .addProfiler(false)
+                            .addVerbose(false)
+                            .addTestJson(true)
+                            .addLogFile(logFile)
+                            .addOutputFolder(outputFolder)
+                            .addCoverage(Coverage.None)
+                            .addTestTimeout(5)
+                            .addResumeFile(resumeFile)
+                            .addFullClassNamesToTest(Iterable.create("A", "B"))
+                            .setFunction(testRunnerFunction));
+                }
+                final VerboseCharacterToByteWriteStream verbose = VerboseCharacterToByteWriteStream.create(InMemoryCharacterToByteStream.create());
+                final TestRunLaunch launch = TestRunLaunch.create(parameters, logFile, verbose);
+                launch.addTestRunnerArguments(Iterable.create(outputFolder.toString()), outputFolder, TestRunPlan.create(Iterable.create("A", "B")), 5, null, false, false, verbose);
+
+                test.assertEqual(0, launch.run(outputFolder, Iterable.create(currentFolder.getFolder("sources").await(), currentFolder.getFolder("tests").await()), null, null));
+                test.assertEqual(2, runCount.get());
+                test.assertFalse(resumeFile.exists().await());
+                test.assertTrue(launch.wasRestarted());
+                test.assertTrue(process.getOutputWriteStream().getText().await().contains("Restarting the test runner in a new JVM..."));
+            });
+        });
+    }
+}
@@ -0,0 +1,245 @@
+package qub;
+
+public interface TestRunPlanTests
+{
+    static void test(TestRunner runner)
+    {
+        PreCondition.assertNotNull(runner, "runner");
+
+        runner.testGroup(TestRunPlan.class, () ->
+        {
+            runner.testGroup("create(Iterable<String>)", () ->
+            {
+                runner.test("with null", (Test test) ->
+                {
+                    test.assertThrows(() -> TestRunPlan.create(null),
+                        new PreConditionFailure("testClassNames cannot be null."));
+                });
+
+                runner.test("with test classes", (Test test) ->
+                {
+                    final TestRunPlan plan = TestRunPlan.create(Iterable.create("ATests", "BTests"));
+                    test.assertEqual(Iterable.create("ATests", "BTests"), plan.getTestClassNamesToRun());
+                    test.assertEqual(Iterable.create(), plan.getUnmodifiedTestClassNames());
+                    test.assertEqual(0, plan.getUnmodifiedPassedTestCount());
+                    test.assertEqual(0, plan.getUnmodifiedSkippedTestCount());
+                });
+            });
+
+            runner.testGroup("create(Folder,Iterable<String>,TestJSON,VersionNumber,VerboseCharacterToByteWriteStream)", () ->
+            {
+                runner.test("with no previous test.json",
+                    (TestResources resources) -> Tuple.create(resources.createFakeDesktopProcess()),
+                    (Test test, FakeDesktopProcess process) ->
+                {
+                    final Folder outputFolder = process.getCurrentFolder().getFolder("outputs").await();
+                    final VerboseCharacterToByteWriteStream verbose = VerboseCharacterToByteWriteStream.create(process.getOutputWriteStream());
+                    final TestRunPlan plan = TestRunPlan.create(outputFolder, Iterable.create("ATests"), null, VersionNumber.parse("17").await(), verbose);
+                    test.assertEqual(Iterable.create("ATests"), plan.getTestClassNamesToRun());
+                    test.assertEqual(Iterable.create(), plan.getUnmodifiedTestClassNames());
+                });
+
+                runner.test("with unmodified, modified, failed, and new test classes",
+                    (TestResources resources) -> Tuple.create(resources.createFakeDesktopProcess()),
+                    (Test test, FakeDesktopProcess process) ->
+                {
+                    final Folder outputFolder = process.getCurrentFolder().getFolder("outputs").await();
+                    final File aClassFile = outputFolder.getFile("ATests.class").await();
+                    aClassFile.setContentsAsString("A").await();
+                    final File bClassFile = outputFolder.getFile("BTests.class").await();
+                    bClassFile.setContentsAsString("B").await();
+                    final File cClassFile = outputFolder.getFile("CTests.class").await();
+                    cClassFile.setContentsAsString("C").await();
+                    final VersionNumber javaVersion = VersionNumber.parse("17").await();
+
+                    final TestJSON previousTestJson = TestJSON.create()
+                        .setJavaVersion(javaVersion)
+                        .setClassFiles(Iterable.create(
+                            TestJSONClassFile.create("ATests.class")
+                                .setLastModified(aClassFile.getLastModified().await())
+                                .setPassedTestCount(3)
+                                .setSkippedTestCount(1)
+                                .setFailedTestCount(0),
+                            TestJSONClassFile.create("BTests.class")
+                                .setLastModified(bClassFile.getLastModified().await().plus(Duration.seconds(1)))
+                                .setPassedTestCount(2)
+                                .setSkippedTestCount(0)
+                                .setFailedTestCount(0),
+                            TestJSONClassFile.create("CTests.class")
+                                .setLastModified(cClassFile.getLastModified().await())
+                                .setPassedTestCount(1)
+                                .setSkippedTestCount(0)
+                                .setFailedTestCount(1)));
+                    final VerboseCharacterToByteWriteStream verbose = VerboseCharacterToByteWriteStream.create(process.getOutputWriteStream());
+
+                    final TestRunPlan plan = TestRunPlan.create(outputFolder, Iterable.create("ATests", "BTests", "CTests", "DTests"), previousTestJson, javaVersion, verbose);
+                    test.assertEqual(Iterable.create("BTests", "CTests", "DTests"), plan.getTestClassNamesToRun());
+                    test.assertEqual(Iterable.create("ATests"), plan.getUnmodifiedTestClassNames());
+                    test.assertEqual(3, plan.getUnmodifiedPassedTestCount());
+                    test.assertEqual(1, plan.getUnmodifiedSkippedTestCount());
+                });
+
+                runner.test("with a different Java version",
+                    (TestResources resources) -> Tuple.create(resources.createFakeDesktopProcess()),
+                    (Test test, FakeDesktopProcess process) ->
+                {
+                    final Folder outputFolder = process.getCurrentFolder().getFolder("outputs").await();
+                    final File aClassFile = outputFolder.getFile("ATests.class").await();
+                    aClassFile.setContentsAsString("A").await();
+
+                    final TestJSON previousTestJson = TestJSON.create()
+                        .setJavaVersion(VersionNumber.parse("11").await())
+                        .setClassFiles(Iterable.create(
+                            TestJSONClassFile.create("ATests.class")
+                                .setLastModified(aClassFile.getLastModified().await())
+                                .setPassedTestCount(3)
+                                .setSkippedTestCount(0)
+                                .setFailedTestCount(0)));
+                    final VerboseCharacterToByteWriteStream verbose = VerboseCharacterToByteWriteStream.create(process.getOutputWriteStream());
+
+                    final TestRunPlan plan = TestRunPlan.create(outputFolder, Iterable.create("ATests"), previousTestJson, VersionNumber.parse("17").await(), verbose);
+                    test.assertEqual(Iterable.create("ATests"), plan.getTestClassNamesToRun());
+                    test.assertEqual(Iterable.create(), plan.getUnmodifiedTestClassNames());
+                });
+            });
+
+            runner.testGroup("create(Folder,Iterable<String>,TestJSON,VersionNumber,Map<String,Boolean>,VerboseCharacterToByteWriteStream)", () ->
+            {
+                runner.test("with recompiled, unchanged, failed, and unknown source files",
+                    (TestResources resources) -> Tuple.create(resources.createFakeDesktopProcess()),
+                    (Test test, FakeDesktopProcess process) ->
+                {
+                    final Folder outputFolder = process.getCurrentFolder().getFolder("outputs").await();
+                    final File helperClassFile = outputFolder.getFile("a/Helper.class").await();
+                    helperClassFile.setContentsAsString("Helper").await();
+                    final VersionNumber javaVersion = VersionNumber.parse("17").await();
+
+                    // The class files of the test classes with known source files don't exist, so
+                    // their timestamps can't have been checked.
+                    final TestJSON previousTestJson = TestJSON.create()
+                        .setJavaVersion(javaVersion)
+                        .setClassFiles(Iterable.create(
+                            TestJSONClassFile.create("a/ATests.class")
+                                .setLastModified(DateTime.create(2020, 1, 1))
+                                .setPassedTestCount(3)
+                                .setSkippedTestCount(1)
+                                .setFailedTestCount(0),
+                            TestJSONClassFile.create("a/ATests$1.class")
+                                .setLastModified(DateTime.create(2020, 1, 1))
+                                .setPassedTestCount(1)
+                                .setSkippedTestCount(0)
+                                .setFailedTestCount(0),
+                            TestJSONClassFile.create("a/BTests.class")
+                                .setLastModified(DateTime.create(2020, 1, 1))
+                                .setPassedTestCount(2)
+                                .setSkippedTestCount(0)
+                                .setFailedTestCount(0),
+                            TestJSONClassFile.create("a/CTests.class")
+                                .setLastModified(DateTime.create(2020, 1, 1))
+                                .setPassedTestCount(1)
+                                .setSkippedTestCount(0)
+                                .setFailedTestCount(1),
+                            TestJSONClassFile.create("a/Helper.class")
+                                .setLastModified(helperClassFile.getLastModified().await())
+                                .setPassedTestCount(0)
+                                .setSkippedTestCount(0)
+                                .setFailedTestCount(0)));
+                    final MutableMap<String,Boolean> recompiledSources = Map.create();
+                    recompiledSources.set("tests/a/ATests.java", false);
+                    recompiledSources.set("tests/a/BTests.java", true);
+                    recompiledSources.set("tests/a/CTests.java", false);
+                    final VerboseCharacterToByteWriteStream verbose = VerboseCharacterToByteWriteStream.create(process.getOutputWriteStream());
+
+                    final TestRunPlan plan = TestRunPlan.create(outputFolder, Iterable.create("a.ATests", "a.ATests$1", "a.BTests", "a.CTests", "a.Helper"), previousTestJson, javaVersion, recompiledSources, verbose);
+                    test.assertEqual(Iterable.create("a.BTests", "a.CTests"), plan.getTestClassNamesToRun());
+                    test.assertEqual(Iterable.create("a.ATests", "a.ATests$1", "a.Helper"), plan.getUnmodifiedTestClassNames());
+                    test.assertEqual(4, plan.getUnmodifiedPassedTestCount());
+                    test.assertEqual(1, plan.getUnmodifiedSkippedTestCount());
+                });
+            });
+
+            runner.testGroup("canSkip(Folder,String,TestJSONClassFile,Map<String,Boolean>,VerboseCharacterToByteWriteStream)", () ->
+            {
+                runner.test("with no previous entry",
+                    (TestResources resources) -> Tuple.create(resources.createFakeDesktopProcess()),
+                    (Test test, FakeDesktopProcess process) ->
+                {
+                    final Folder outputFolder = process.getCurrentFolder().getFolder("outputs").await();
+                    final VerboseCharacterToByteWriteStream verbose = VerboseCharacterToByteWriteStream.create(process.getOutputWriteStream());
+
+                    test.assertFalse(TestRunPlan.canSkip(outputFolder, "ATests", null, null, verbose));
+                });
+
+                runner.test("with unmodified, modified, and failed test classes and no recompiled sources",
+                    (TestResources resources) -> Tuple.create(resources.createFakeDesktopProcess()),
+                    (Test test, FakeDesktopProcess process) ->
+                {
+                    final Folder outputFolder = process.getCurrentFolder().getFolder("outputs").await();
+                    final File aClassFile = outputFolder.getFile("ATests.class").await();
+                    aClassFile.setContentsAsString("A").await();
+                    final VerboseCharacterToByteWriteStream verbose = VerboseCharacterToByteWriteStream.create(process.getOutputWriteStream());
+
+                    test.assertTrue(TestRunPlan.canSkip(outputFolder, "ATests",
+                        TestJSONClassFile.create("ATests.class")
+                            .setLastModified(aClassFile.getLastModified().await())
+                            .setPassedTestCount(1)
+                            .setSkippedTestCount(0)
+                            .setFailedTestCount(0),
+                        null,
+                        verbose));
+                    test.assertFalse(TestRunPlan.canSkip(outputFolder, "ATests",
+                        TestJSONClassFile.create("ATests.class")
+                            .setLastModified(aClassFile.getLastModified().await().plus(Duration.seconds(1)))
+                            .setPassedTestCount(1)
+                            .setSkippedTestCount(0)
+                            .setFailedTestCount(0),
+                        null,
+                        verbose));
+                    test.assertFalse(TestRunPlan.canSkip(outputFolder, "ATests",
+                        TestJSONClassFile.create("ATests.class")
+                            .setLastModified(aClassFile.getLastModified().await())
+                            .setPassedTestCount(0)
+                            .setSkippedTestCount(0)
+                            .setFailedTestCount(1),
+                        null,
+                        verbose));
+                });
+
+                runner.test("with recompiled and unchanged source files",
+                    (TestResources resources) -> Tuple.create(resources.createFakeDesktopProcess()),
+                    (Test test, FakeDesktopProcess process) ->
+                {
+                    final Folder outputFolder = process.getCurrentFolder().getFolder("outputs").await();
+                    final TestJSONClassFile previousClassFile = TestJSONClassFile.create("a/ATests.class")
+                        .setLastModified(DateTime.create(2020, 1, 1))
+                        .setPassedTestCount(1)
+                        .setSkippedTestCount(0)
+                        .setFailedTestCount(0);
+                    final MutableMap<String,Boolean> recompiledSourcePaths = Map.create();
+                    final VerboseCharacterToByteWriteStream verbose = VerboseCharacterToByteWriteStream.create(process.getOutputWriteStream());
+
+                    recompiledSourcePaths.set("a/ATests.java", false);
+                    test.assertTrue(TestRunPlan.canSkip(outputFolder, "a.ATests", previousClassFile, recompiledSourcePaths, verbose));
+
+                    recompiledSourcePaths.set("a/ATests.java", true);
+                    test.assertFalse(TestRunPlan.canSkip(outputFolder, "a.ATests", previousClassFile, recompiledSourcePaths, verbose));
+                });
+            });
+
+            runner.testGroup("getSourcePath(String)", () ->
+            {
+                final Action2<String,String> getSourcePathTest = (String fullClassName, String expected) ->
+                {
+                    runner.test("with " + Strings.escapeAndQuote(fullClassName), (Test test) ->
+                    {
+                        test.assertEqual(expected, TestRunPlan.getSourcePath(fullClassName));
+                    });
+                };
+
+                getSourcePathTest.run("ATests", "ATests.java");
+                getSourcePathTest.run("a.b.CTests", "a/b/CTests.java");
+                getSourcePathTest.run("a.b.CTests$Inner$1", "a/b/CTests.java");
+            });
+        });
+    }
+}
@@ -0,0 +1,63 @@
+package qub;
+
+public interface TestRunResultCacheTests
+{
+    static void test(TestRunner runner)
+    {
+        PreCondition.assertNotNull(runner, "runner");
+
+        runner.testGroup(TestRunResultCache.class, () ->
+        {
+            runner.test("saveCachedResults(TestResultCache,TestResultKeys,TestJSON,Folder,VerboseCharacterToByteWriteStream)",
+                (TestResources resources) -> Tuple.create(resources.createFakeDesktopProcess()),
+                (Test test, FakeDesktopProcess process) ->
+            {
+                final Folder outputFolder = process.getCurrentFolder().getFolder("outputs").await();
+                final List<TestJSONClassFile> previousClassFiles = List.create();
+                final List<TestJSONClassFile> classFiles = List.create();
+                for (final String testClassName : Iterable.create("ATests", "BTests"))
+                {
+                    final File classFile = outputFolder.getFile("a/" + testClassName + ".class").await();
+                    classFile.setContents(ClassFileReferencesTests.createClassFileBytes((java.io.DataOutputStream constantPool) ->
+                    {
+                        constantPool.writeByte(1);
+                        constantPool.writeUTF("a/" + testClassName);
+                        constantPool.writeByte(7);
+                        constantPool.writeShort(1);
+                    }, 3)).await();
+                    previousClassFiles.add(TestJSONClassFile.create("a/" + testClassName + ".class")
+                        .setLastModified(classFile.getLastModified().await())
+                        .setPassedTestCount(1)
+                        .setSkippedTestCount(0)
+                        .setFailedTestCount(0));
+                }
+                // Only BTests ran in this test run.
+                classFiles.add(previousClassFiles.get(0));
+                classFiles.add(TestJSONClassFile.create("a/BTests.class")
+                    .setLastModified(outputFolder.getFile("a/BTests.class").await().getLastModified().await())
+                    .setPassedTestCount(2)
+                    .setSkippedTestCount(0)
+                    .setFailedTestCount(0));
+                final VersionNumber javaVersion = VersionNumber.parse("17").await();
+                final TestJSON previousTestJson = TestJSON.create()
+                    .setJavaVersion(javaVersion)
+                    .setClassFiles(previousClassFiles);
+                outputFolder.getFile("test.json").await().setContentsAsString(TestJSON.create()
+                    .setJavaVersion(javaVersion)
+                    .setClassFiles(classFiles)
+                    .toString(JSONFormat.pretty)).await();
+                final TestResultCache resultCache = TestResultCache.create(process.getCurrentFolder().getFolder("results").await(), 1000);
+                final TestResultKeys resultKeys = TestResultKeys.create(outputFolder, "runtime");
+                final VerboseCharacterToByteWriteStream verbose = VerboseCharacterToByteWriteStream.create(process.getOutputWriteStream());
+
+                TestRunResultCache.saveCachedResults(resultCache, resultKeys, previousTestJson, outputFolder, verbose);
+
+                final TestResultCache savedResultCache = TestResultCache.create(resultCache.getCacheFolder(), 1000);
+                test.assertNull(savedResultCache.get(resultKeys.getKey("a.ATests"), Path.parse("a/ATests.class"), DateTime.create(2024, 1, 2)));
+                final TestJSONClassFile savedClassFile = savedResultCache.get(resultKeys.getKey("a.BTests"), Path.parse("a/BTests.class"), DateTime.create(2024, 1, 2));
+                test.assertNotNull(savedClassFile);
+                test.assertEqual(2, savedClassFile.getPassedTestCount());
+            });
+        });
+    }
+}
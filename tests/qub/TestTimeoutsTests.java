@@ -0,0 +1,84 @@
+package qub;
+
+public interface TestTimeoutsTests
+{
+    static void test(TestRunner runner)
+    {
+        PreCondition.assertNotNull(runner, "runner");
+
+        runner.testGroup(TestTimeouts.class, () ->
+        {
+            runner.testGroup("parseTimeoutSeconds(String)", () ->
+            {
+                runner.test("with null", (Test test) ->
+                {
+                    test.assertNull(TestTimeouts.parseTimeoutSeconds(null).await());
+                });
+
+                runner.test("with empty", (Test test) ->
+                {
+                    test.assertNull(TestTimeouts.parseTimeoutSeconds("").await());
+                });
+
+                runner.test("with 0", (Test test) ->
+                {
+                    test.assertEqual(0, TestTimeouts.parseTimeoutSeconds("0").await());
+                });
+
+                runner.test("with 30", (Test test) ->
+                {
+                    test.assertEqual(30, TestTimeouts.parseTimeoutSeconds("30").await());
+                });
+
+                runner.test("with -1", (Test test) ->
+                {
+                    test.assertThrows(() -> TestTimeouts.parseTimeoutSeconds("-1").await(),
+                        new IllegalArgumentException("A timeout cannot be negative: -1"));
+                });
+            });
+
+            runner.testGroup("getTimeoutSeconds(Integer,JSONObject,String)", () ->
+            {
+                final JSONObject projectJson = JSONObject.create()
+                    .set("test", JSONObject.create()
+                        .setNumber("testTimeout", 30)
+                        .setNumber("classTimeout", 0));
+
+                runner.test("with no override and no project.json", (Test test) ->
+                {
+                    test.assertNull(TestTimeouts.getTimeoutSeconds(null, null, TestTimeouts.testTimeoutPropertyName));
+                });
+
+                runner.test("with no override and a project.json timeout", (Test test) ->
+                {
+                    test.assertEqual(30, TestTimeouts.getTimeoutSeconds(null, projectJson, TestTimeouts.testTimeoutPropertyName));
+                });
+
+                runner.test("with no override and a disabled project.json timeout", (Test test) ->
+                {
+                    test.assertNull(TestTimeouts.getTimeoutSeconds(null, projectJson, TestTimeouts.classTimeoutPropertyName));
+                });
+
+                runner.test("with an override", (Test test) ->
+                {
+                    test.assertEqual(5, TestTimeouts.getTimeoutSeconds(5, projectJson, TestTimeouts.testTimeoutPropertyName));
+                });
+
+                runner.test("with an override that disables the timeout", (Test test) ->
+                {
+                    test.assertNull(TestTimeouts.getTimeoutSeconds(0, projectJson, TestTimeouts.testTimeoutPropertyName));
+                });
+            });
+
+            runner.test("getResumeFile(Folder,Folder)",
+                (TestResources resources) -> Tuple.create(resources.createFakeDesktopProcess()),
+                (Test test, FakeDesktopProcess process) ->
+            {
+                final Folder dataFolder = process.getCurrentFolder().getFolder("data").await();
+                final File resumeFile = TestTimeouts.getResumeFile(dataFolder, process.getCurrentFolder().getFolder("project").await());
+                test.assertEqual(dataFolder.getFolder("resume").await(), resumeFile.getParentFolder().await());
+                test.assertEqual(".txt", resumeFile.getFileExtension());
+            });
+        });
+    }
+}
@@ -0,0 +1,210 @@
+package qub;
+
+public interface TestWatchdogTests
+{
+    static void test(TestRunner runner)
+    {
+        PreCondition.assertNotNull(runner, "runner");
+
+        runner.testGroup(TestWatchdog.class, () ->
+        {
+            runner.testGroup("create(Duration,Duration,Clock)", () ->
+            {
+                runner.test("with a test timeout", (Test test) ->
+                {
+                    final TestWatchdog watchdog = TestWatchdog.create(Duration.seconds(30), null, ManualClock.create(DateTime.create(2000, 1, 1)));
+                    test.assertEqual(Duration.seconds(30), watchdog.getTestTimeout());
+                    test.assertNull(watchdog.getClassTimeout());
+                    test.assertEqual(Duration.seconds(5), watchdog.getAbandonTimeout());
+                });
+
+                runner.test("with a null clock", (Test test) ->
+                {
+                    test.assertThrows(() -> TestWatchdog.create(Duration.seconds(30), null, null),
+                        new PreConditionFailure("clock cannot be null."));
+                });
+            });
+
+            runner.testGroup("run(String,Action0,Action3<Test,String,String>)", () ->
+            {
+                runner.test("with a test class that finishes in time", (Test test) ->
+                {
+                    final TestWatchdog watchdog = TestWatchdog.create(Duration.seconds(30), Duration.seconds(30), ManualClock.create(DateTime.create(2000, 1, 1)));
+                    final List<String> timeoutMessages = List.create();
+                    final List<String> events = List.create();
+
+                    test.assertTrue(watchdog.run("FastTests", () -> events.add("ran"), (Test hungTest, String message, String threadDump) -> timeoutMessages.add(message)));
+                    test.assertEqual(Iterable.create("ran"), events);
+                    test.assertEqual(Iterable.create(), timeoutMessages);
+                });
+
+                runner.test("with a hung test that ends when it is interrupted", (Test test) ->
+                {
+                    final ManualClock clock = ManualClock.create(DateTime.create(2000, 1, 1));
+                    final TestWatchdog watchdog = TestWatchdog.create(Duration.seconds(30), null, clock);
+                    final List<Test> hungTests = List.create();
+                    final List<String> timeoutMessages = List.create();
+
+                    final boolean result = watchdog.run("SlowTests", () ->
+                    {
+                        watchdog.testStarted(test);
+                        clock.advance(Duration.seconds(30));
+                        try
+                        {
+                            Thread.sleep(60000);
+                        }
+                        catch (InterruptedException ignored)
+                        {
+                        }
+                        watchdog.testEnded();
+                    },
+                    (Test hungTest, String message, String threadDump) ->
+                    {
+                        hungTests.add(hungTest);
+                        timeoutMessages.add(message);
+                        test.assertTrue(threadDump.contains("qub-test: SlowTests"));
+                    });
+
+                    test.assertTrue(result);
+                    test.assertEqual(Iterable.create(test), hungTests);
+                    test.assertEqual(
+                        Iterable.create("The test " + test.getFullName() + " did not finish within its timeout of 30 seconds."),
+                        timeoutMessages);
+                });
+
+                runner.test("with a test that starts after a hung test was interrupted", (Test test) ->
+                {
+                    final ManualClock clock = ManualClock.create(DateTime.create(2000, 1, 1));
+                    final TestWatchdog watchdog = TestWatchdog.create(Duration.seconds(30), null, clock);
+                    final List<Boolean> nextTestInterrupted = List.create();
+
+                    final boolean result = watchdog.run("SlowTests", () ->
+                    {
+                        watchdog.testStarted(test);
+                        clock.advance(Duration.seconds(30));
+                        while (!Thread.currentThread().isInterrupted())
+                        {
+                            Thread.onSpinWait();
+                        }
+                        watchdog.testEnded();
+
+                        watchdog.testStarted(test);
+                        nextTestInterrupted.add(Thread.currentThread().isInterrupted());
+                        watchdog.testEnded();
+                    },
+                    (Test hungTest, String message, String threadDump) -> {});
+
+                    test.assertTrue(result);
+                    test.assertEqual(Iterable.create(false), nextTestInterrupted);
+                });
+
+                runner.test("with a hung test that ignores being interrupted", (Test test) ->
+                {
+                    final ManualClock clock = ManualClock.create(DateTime.create(2000, 1, 1));
+                    final TestWatchdog watchdog = TestWatchdog.create(Duration.seconds(30), null, clock);
+                    final java.util.concurrent.atomic.AtomicBoolean release = new java.util.concurrent.atomic.AtomicBoolean(false);
+                    final List<String> timeoutMessages = List.create();
+                    try
+                    {
+                        final boolean result = watchdog.run("HungTests", () ->
+                        {
+                            watchdog.testStarted(test);
+                            clock.advance(Duration.seconds(30));
+                            while (!release.get())
+                            {
+                                Thread.onSpinWait();
+                            }
+                        },
+                        (Test hungTest, String message, String threadDump) ->
+                        {
+                            timeoutMessages.add(message);
+                            clock.advance(watchdog.getAbandonTimeout());
+                        });
+
+                        test.assertFalse(result);
+                        test.assertEqual(
+                            Iterable.create("The test " + test.getFullName() + " did not finish within its timeout of 30 seconds."),
+                            timeoutMessages);
+                    }
+                    finally
+                    {
+                        release.set(true);
+                    }
+                });
+
+                runner.test("with a test class that ends when it is interrupted between tests", (Test test) ->
+                {
+                    final ManualClock clock = ManualClock.create(DateTime.create(2000, 1, 1));
+                    final TestWatchdog watchdog = TestWatchdog.create(null, Duration.seconds(60), clock);
+                    final List<Test> hungTests = List.create();
+                    final List<String> timeoutMessages = List.create();
+
+                    final boolean result = watchdog.run("SlowTests", () ->
+                    {
+                        clock.advance(Duration.seconds(60));
+                        try
+                        {
+                            Thread.sleep(60000);
+                        }
+                        catch (InterruptedException ignored)
+                        {
+                        }
+                    },
+                    (Test hungTest, String message, String threadDump) ->
+                    {
+                        hungTests.add(hungTest);
+                        timeoutMessages.add(message);
+                    });
+
+                    test.assertTrue(result);
+                    test.assertEqual(Iterable.create((Test)null), hungTests);
+                    test.assertEqual(
+                        Iterable.create("The test class SlowTests did not finish within its timeout of 60 seconds."),
+                        timeoutMessages);
+                });
+
+                runner.test("with a test class that keeps running tests after it is interrupted", (Test test) ->
+                {
+                    final ManualClock clock = ManualClock.create(DateTime.create(2000, 1, 1));
+                    final TestWatchdog watchdog = TestWatchdog.create(null, Duration.seconds(60), clock);
+                    final java.util.concurrent.atomic.AtomicBoolean release = new java.util.concurrent.atomic.AtomicBoolean(false);
+                    final List<String> timeoutMessages = List.create();
+                    try
+                    {
+                        final boolean result = watchdog.run("HungTests", () ->
+                        {
+                            clock.advance(Duration.seconds(60));
+                            while (!release.get())
+                            {
+                                watchdog.testStarted(test);
+                                Thread.onSpinWait();
+                                watchdog.testEnded();
+                            }
+                        },
+                        (Test hungTest, String message, String threadDump) ->
+                        {
+                            timeoutMessages.add(message);
+                            clock.advance(watchdog.getAbandonTimeout());
+                        });
+
+                        test.assertFalse(result);
+                        test.assertEqual(
+                            Iterable.create("The test class HungTests did not finish within its timeout of 60 seconds."),
+                            timeoutMessages);
+                    }
+                    finally
+                    {
+                        release.set(true);
+                    }
+                });
+            });
+
+            runner.test("getThreadDump()", (Test test) ->
+            {
+                final String threadDump = TestWatchdog.getThreadDump();
+                test.assertTrue(threadDump.contains("\"" + Thread.currentThread().getName() + "\""));
+                test.assertTrue(threadDump.contains("at qub.TestWatchdog.getThreadDump"));
+            });
+        });
+    }
+}